@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.benchmarks;
+
+import org.apache.hudi.avro.HoodieAvroUtils;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.model.OverwriteWithLatestAvroPayload;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.IndexedRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates deterministic trip records shared by the benchmarks, so that runs are comparable across versions.
+ */
+public final class BenchmarkDataGenerator {
+
+  public static final String RECORD_KEY_FIELD = "_row_key";
+  public static final String PARTITION_PATH_FIELD = "partition_path";
+  public static final String ORDERING_FIELD = "timestamp";
+  public static final String[] PARTITION_PATHS = {"2021/03/15", "2021/03/16", "2021/03/17"};
+
+  public static final Schema TRIP_SCHEMA = new Schema.Parser().parse("{\"type\": \"record\", \"name\": \"triprec\", \"fields\": [ "
+      + "{\"name\": \"timestamp\", \"type\": \"long\"}, "
+      + "{\"name\": \"_row_key\", \"type\": \"string\"}, "
+      + "{\"name\": \"partition_path\", \"type\": \"string\"}, "
+      + "{\"name\": \"rider\", \"type\": \"string\"}, "
+      + "{\"name\": \"driver\", \"type\": \"string\"}, "
+      + "{\"name\": \"begin_lat\", \"type\": \"double\"}, "
+      + "{\"name\": \"begin_lon\", \"type\": \"double\"}, "
+      + "{\"name\": \"end_lat\", \"type\": \"double\"}, "
+      + "{\"name\": \"end_lon\", \"type\": \"double\"}, "
+      + "{\"name\": \"fare\", \"type\": \"double\"}, "
+      + "{\"name\": \"_hoodie_is_deleted\", \"type\": \"boolean\", \"default\": false}]}");
+
+  public static final Schema TRIP_WRITE_SCHEMA = HoodieAvroUtils.addMetadataFields(TRIP_SCHEMA);
+
+  private static final long SEED = 0xCAFEL;
+
+  private BenchmarkDataGenerator() {
+  }
+
+  /**
+   * Generates record keys in random order, as produced by UUID based upstream keys.
+   */
+  public static List<String> generateKeys(int numKeys) {
+    Random random = new Random(SEED);
+    List<String> keys = new ArrayList<>(numKeys);
+    for (int i = 0; i < numKeys; i++) {
+      keys.add(new UUID(random.nextLong(), random.nextLong()).toString());
+    }
+    return keys;
+  }
+
+  public static List<GenericRecord> generateRecords(int numRecords) {
+    return generateRecords(generateKeys(numRecords), 0L);
+  }
+
+  /**
+   * Generates one record per key, with the given ordering value.
+   */
+  public static List<GenericRecord> generateRecords(List<String> keys, long timestamp) {
+    Random random = new Random(SEED + timestamp);
+    List<GenericRecord> records = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      GenericRecord record = new GenericData.Record(TRIP_SCHEMA);
+      record.put("timestamp", timestamp);
+      record.put(RECORD_KEY_FIELD, key);
+      record.put(PARTITION_PATH_FIELD, PARTITION_PATHS[Math.abs(key.hashCode() % PARTITION_PATHS.length)]);
+      record.put("rider", "rider-" + timestamp);
+      record.put("driver", "driver-" + timestamp);
+      record.put("begin_lat", random.nextDouble());
+      record.put("begin_lon", random.nextDouble());
+      record.put("end_lat", random.nextDouble());
+      record.put("end_lon", random.nextDouble());
+      record.put("fare", random.nextDouble() * 100);
+      record.put("_hoodie_is_deleted", false);
+      records.add(record);
+    }
+    return records;
+  }
+
+  /**
+   * Rewrites the records into the write schema and fills in the metadata fields, as stored in log blocks.
+   */
+  public static List<IndexedRecord> toWriteRecords(List<GenericRecord> records, String instantTime, String fileId) {
+    List<IndexedRecord> writeRecords = new ArrayList<>(records.size());
+    for (int i = 0; i < records.size(); i++) {
+      GenericRecord record = records.get(i);
+      GenericRecord writeRecord = HoodieAvroUtils.rewriteRecord(record, TRIP_WRITE_SCHEMA);
+      HoodieAvroUtils.addHoodieKeyToRecord(writeRecord, record.get(RECORD_KEY_FIELD).toString(),
+          record.get(PARTITION_PATH_FIELD).toString(), fileId);
+      HoodieAvroUtils.addCommitMetadataToRecord(writeRecord, instantTime, instantTime + "_" + i);
+      writeRecords.add(writeRecord);
+    }
+    return writeRecords;
+  }
+
+  /**
+   * Wraps the records into sealed hoodie records tagged with a location, as held by the merge and compaction paths.
+   */
+  public static List<HoodieRecord<OverwriteWithLatestAvroPayload>> toHoodieRecords(List<GenericRecord> records) {
+    List<HoodieRecord<OverwriteWithLatestAvroPayload>> hoodieRecords = new ArrayList<>(records.size());
+    for (GenericRecord record : records) {
+      HoodieKey key = new HoodieKey(record.get(RECORD_KEY_FIELD).toString(), record.get(PARTITION_PATH_FIELD).toString());
+      HoodieRecord<OverwriteWithLatestAvroPayload> hoodieRecord = new HoodieRecord<>(key,
+          new OverwriteWithLatestAvroPayload(record, (Comparable) record.get(ORDERING_FIELD)));
+      hoodieRecord.unseal();
+      hoodieRecord.setCurrentLocation(new HoodieRecordLocation("100", UUID.nameUUIDFromBytes(key.getPartitionPath().getBytes()).toString()));
+      hoodieRecord.seal();
+      hoodieRecords.add(hoodieRecord);
+    }
+    return hoodieRecords;
+  }
+}
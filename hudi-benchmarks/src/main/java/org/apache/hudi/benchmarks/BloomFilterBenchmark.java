@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.benchmarks;
+
+import org.apache.hudi.common.bloom.BloomFilter;
+import org.apache.hudi.common.bloom.BloomFilterFactory;
+import org.apache.hudi.common.bloom.BloomFilterTypeCode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of populating and probing the {@link BloomFilter} stored in the footer of every base file, and of
+ * deserializing it, as done by the bloom index for every candidate file.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BloomFilterBenchmark {
+
+  private static final int NUM_PROBES = 100_000;
+
+  @Param({"SIMPLE", "DYNAMIC_V0", "BLOCKED_V0"})
+  private BloomFilterTypeCode bloomFilterType;
+
+  /**
+   * Defaults of hoodie.index.bloom.num_entries and hoodie.index.bloom.fpp.
+   */
+  @Param({"60000"})
+  private int numEntries;
+
+  @Param({"0.000000001"})
+  private double errorRate;
+
+  private List<String> keys;
+  private List<String> absentKeys;
+  private BloomFilter bloomFilter;
+  private String serializedBloomFilter;
+
+  @Setup
+  public void setup() {
+    List<String> allKeys = BenchmarkDataGenerator.generateKeys(numEntries + NUM_PROBES);
+    keys = allKeys.subList(0, numEntries);
+    absentKeys = allKeys.subList(numEntries, numEntries + NUM_PROBES);
+    bloomFilter = populateBloomFilter();
+    serializedBloomFilter = bloomFilter.serializeToString();
+  }
+
+  @Benchmark
+  public BloomFilter populateBloomFilter() {
+    BloomFilter filter = BloomFilterFactory.createBloomFilter(numEntries, errorRate, numEntries * 10, bloomFilterType.name());
+    for (String key : keys) {
+      filter.add(key);
+    }
+    return filter;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_PROBES)
+  public int probePresentKeys() {
+    int matches = 0;
+    for (int i = 0; i < NUM_PROBES; i++) {
+      if (bloomFilter.mightContain(keys.get(i % numEntries))) {
+        matches++;
+      }
+    }
+    return matches;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_PROBES)
+  public int probeAbsentKeys() {
+    int matches = 0;
+    for (String key : absentKeys) {
+      if (bloomFilter.mightContain(key)) {
+        matches++;
+      }
+    }
+    return matches;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_PROBES)
+  public int probeAbsentKeysBatched() {
+    int matches = 0;
+    for (boolean mightContain : bloomFilter.mightContain(absentKeys)) {
+      if (mightContain) {
+        matches++;
+      }
+    }
+    return matches;
+  }
+
+  @Benchmark
+  public BloomFilter deserializeBloomFilter() {
+    return BloomFilterFactory.fromString(serializedBloomFilter, bloomFilterType.name());
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.benchmarks;
+
+import org.apache.hudi.common.util.DefaultSizeEstimator;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.queue.BoundedInMemoryExecutor;
+import org.apache.hudi.common.util.queue.BoundedInMemoryQueue;
+import org.apache.hudi.common.util.queue.BoundedInMemoryQueueConsumer;
+import org.apache.hudi.common.util.queue.IteratorBasedQueueProducer;
+import org.apache.hudi.common.util.queue.RingBufferInMemoryQueue;
+import org.apache.hudi.common.util.queue.WriteBufferType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Throughput of the queue handing records from the reader thread to the writer thread of a write, comparing
+ * {@link BoundedInMemoryQueue} with {@link RingBufferInMemoryQueue}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BoundedInMemoryQueueBenchmark {
+
+  private static final int NUM_RECORDS = 1_000_000;
+
+  @Param({"BOUNDED_IN_MEMORY", "RING_BUFFER"})
+  private WriteBufferType bufferType;
+
+  @Param({"SLEEPING", "YIELDING"})
+  private RingBufferInMemoryQueue.WaitStrategy waitStrategy;
+
+  @Param({"4194304"})
+  private long bufferLimitBytes;
+
+  @Param({"128"})
+  private int recordSize;
+
+  private byte[][] records;
+
+  @Setup
+  public void setup() {
+    records = new byte[NUM_RECORDS][];
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      records[i] = new byte[recordSize];
+      records[i][0] = (byte) i;
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public long transferRecords(Blackhole blackhole) {
+    BoundedInMemoryQueue<byte[], byte[]> queue = bufferType == WriteBufferType.RING_BUFFER
+        ? new RingBufferInMemoryQueue<>(bufferLimitBytes, Function.identity(), new DefaultSizeEstimator<>(),
+            RingBufferInMemoryQueue.DEFAULT_RING_SIZE, waitStrategy, false)
+        : new BoundedInMemoryQueue<>(bufferLimitBytes, Function.identity(), new DefaultSizeEstimator<>());
+    BoundedInMemoryExecutor<byte[], byte[], Long> executor = new BoundedInMemoryExecutor<>(
+        new IteratorBasedQueueProducer<>(Arrays.asList(records).iterator()), Option.of(new BlackholeConsumer(blackhole)), queue);
+    try {
+      return executor.execute();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Consumer handing every record to the blackhole.
+   */
+  private static class BlackholeConsumer extends BoundedInMemoryQueueConsumer<byte[], Long> {
+
+    private final Blackhole blackhole;
+    private long count = 0;
+
+    BlackholeConsumer(Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    protected void consumeOneRecord(byte[] record) {
+      blackhole.consume(record);
+      count++;
+    }
+
+    @Override
+    protected void finish() {
+    }
+
+    @Override
+    protected Long getResult() {
+      return count;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.benchmarks;
+
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.model.HoodieRecordSpillSerializer;
+import org.apache.hudi.common.util.DefaultSizeEstimator;
+import org.apache.hudi.common.util.DefaultSpillSerializer;
+import org.apache.hudi.common.util.FileIOUtils;
+import org.apache.hudi.common.util.HoodieRecordSizeEstimator;
+import org.apache.hudi.common.util.SpillSerializer;
+import org.apache.hudi.common.util.collection.ExternalSpillableMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Put and get throughput of {@link ExternalSpillableMap}, as used to hold the records of a merge or a log scan, both
+ * entirely in memory and spilling most of the records to disk.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExternalSpillableMapBenchmark {
+
+  private static final int NUM_RECORDS = 100_000;
+
+  @Param({"BITCASK", "MEMORY_MAPPED"})
+  private ExternalSpillableMap.DiskMapType diskMapType;
+
+  @Param({"false", "true"})
+  private boolean compactKeyIndex;
+
+  @Param({"DEFAULT", "HOODIE_RECORD"})
+  private String spillSerializer;
+
+  /**
+   * 1GB holds all the records in memory, 4MB spills about nine in ten records.
+   */
+  @Param({"1073741824", "4194304"})
+  private long maxInMemorySizeInBytes;
+
+  private List<HoodieRecord<? extends HoodieRecordPayload>> records;
+  private List<String> lookupKeys;
+  private File spillPath;
+  private ExternalSpillableMap<String, HoodieRecord<? extends HoodieRecordPayload>> populatedMap;
+
+  @Setup
+  public void setup() throws IOException {
+    records = new ArrayList<>(BenchmarkDataGenerator.toHoodieRecords(BenchmarkDataGenerator.generateRecords(NUM_RECORDS)));
+    lookupKeys = new ArrayList<>(NUM_RECORDS);
+    records.forEach(record -> lookupKeys.add(record.getRecordKey()));
+    Collections.shuffle(lookupKeys, new Random(NUM_RECORDS));
+    spillPath = Files.createTempDirectory("hudi-benchmark-spill").toFile();
+    populatedMap = newMap();
+    records.forEach(record -> populatedMap.put(record.getRecordKey(), record));
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    populatedMap.close();
+    FileIOUtils.deleteDirectory(spillPath);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public int putRecords() throws IOException {
+    ExternalSpillableMap<String, HoodieRecord<? extends HoodieRecordPayload>> map = newMap();
+    try {
+      for (HoodieRecord<? extends HoodieRecordPayload> record : records) {
+        map.put(record.getRecordKey(), record);
+      }
+      return map.getDiskBasedMapNumEntries();
+    } finally {
+      map.close();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public void getRecords(Blackhole blackhole) {
+    for (String key : lookupKeys) {
+      blackhole.consume(populatedMap.get(key));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private ExternalSpillableMap<String, HoodieRecord<? extends HoodieRecordPayload>> newMap() throws IOException {
+    SpillSerializer<HoodieRecord<? extends HoodieRecordPayload>> serializer = "HOODIE_RECORD".equals(spillSerializer)
+        ? new HoodieRecordSpillSerializer()
+        : new DefaultSpillSerializer<>();
+    return new ExternalSpillableMap<>(maxInMemorySizeInBytes, spillPath.getAbsolutePath(), new DefaultSizeEstimator(),
+        new HoodieRecordSizeEstimator(BenchmarkDataGenerator.TRIP_SCHEMA), diskMapType, compactKeyIndex, serializer);
+  }
+}
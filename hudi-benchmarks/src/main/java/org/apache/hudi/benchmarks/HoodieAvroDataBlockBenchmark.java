@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.benchmarks;
+
+import org.apache.hudi.common.table.log.block.HoodieAvroDataBlock;
+import org.apache.hudi.common.table.log.block.HoodieLogBlock.HeaderMetadataType;
+import org.apache.hudi.common.util.Option;
+
+import org.apache.avro.generic.IndexedRecord;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record throughput of encoding records into the content of a {@link HoodieAvroDataBlock}, and of decoding the
+ * content back into records, as done by log appends and log scans respectively.
+ *
+ * <p>The size of the encoded content is reported through the {@code contentBytes} counter of {@link ContentSize},
+ * to weigh the throughput of each compression codec against the bytes it saves.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HoodieAvroDataBlockBenchmark {
+
+  private static final int NUM_RECORDS = 10_000;
+
+  @Param({"false", "true"})
+  private boolean withMetadataFields;
+
+  @Param({"NONE", "SNAPPY", "LZ4", "ZSTD"})
+  private String compressionCodec;
+
+  private List<IndexedRecord> records;
+  private Map<HeaderMetadataType, String> header;
+  private byte[] content;
+
+  @Setup
+  public void setup() throws IOException {
+    header = new HashMap<>();
+    header.put(HeaderMetadataType.INSTANT_TIME, "100");
+    if (withMetadataFields) {
+      records = BenchmarkDataGenerator.toWriteRecords(BenchmarkDataGenerator.generateRecords(NUM_RECORDS), "100", "file-1");
+      header.put(HeaderMetadataType.SCHEMA, BenchmarkDataGenerator.TRIP_WRITE_SCHEMA.toString());
+    } else {
+      records = new ArrayList<>(BenchmarkDataGenerator.generateRecords(NUM_RECORDS));
+      header.put(HeaderMetadataType.SCHEMA, BenchmarkDataGenerator.TRIP_SCHEMA.toString());
+    }
+    header.put(HeaderMetadataType.COMPRESSION_CODEC, compressionCodec);
+    content = new HoodieAvroDataBlock(new ArrayList<>(records), header).getContentBytes();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public byte[] encodeRecords(ContentSize contentSize) throws IOException {
+    // serializing drains the records of the block, so hand it a copy
+    byte[] encoded = new HoodieAvroDataBlock(new ArrayList<>(records), header).getContentBytes();
+    contentSize.contentBytes += encoded.length;
+    return encoded;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public List<IndexedRecord> decodeRecords() {
+    return new HoodieAvroDataBlock(header, new HashMap<>(), Option.empty(), Option.of(content), null, false).getRecords();
+  }
+
+  /**
+   * Total bytes of block content encoded in an iteration, relative to the record throughput it gives the bytes per
+   * record.
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class ContentSize {
+    public long contentBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      contentBytes = 0;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.benchmarks;
+
+import org.apache.hudi.avro.HoodieAvroUtils;
+import org.apache.hudi.common.model.HoodieRecord;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.IndexedRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the per record {@link HoodieAvroUtils} functions on the write path: rewriting a record into the write
+ * schema with the metadata fields populated, stitching the metadata of a bootstrapped record with its source record,
+ * and the binary round trip used by the payloads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HoodieAvroUtilsBenchmark {
+
+  private static final int NUM_RECORDS = 10_000;
+  private static final String INSTANT_TIME = "100";
+  private static final String FILE_NAME = "benchmark-file-id_1-0-1_100.parquet";
+
+  private List<GenericRecord> records;
+  private List<GenericRecord> metadataRecords;
+  private List<byte[]> recordBytes;
+
+  @Setup
+  public void setup() {
+    records = BenchmarkDataGenerator.generateRecords(NUM_RECORDS);
+    Schema metadataSchema = HoodieAvroUtils.generateProjectionSchema(BenchmarkDataGenerator.TRIP_WRITE_SCHEMA,
+        HoodieRecord.HOODIE_META_COLUMNS);
+    List<IndexedRecord> writeRecords = BenchmarkDataGenerator.toWriteRecords(records, INSTANT_TIME, FILE_NAME);
+    metadataRecords = new ArrayList<>(NUM_RECORDS);
+    recordBytes = new ArrayList<>(NUM_RECORDS);
+    for (IndexedRecord writeRecord : writeRecords) {
+      metadataRecords.add(HoodieAvroUtils.rewriteRecord((GenericRecord) writeRecord, metadataSchema));
+    }
+    for (GenericRecord record : records) {
+      recordBytes.add(HoodieAvroUtils.avroToBytes(record));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public void rewriteRecords(Blackhole blackhole) {
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRecord record = records.get(i);
+      GenericRecord writeRecord = HoodieAvroUtils.rewriteRecord(record, BenchmarkDataGenerator.TRIP_WRITE_SCHEMA);
+      HoodieAvroUtils.addHoodieKeyToRecord(writeRecord, record.get(BenchmarkDataGenerator.RECORD_KEY_FIELD).toString(),
+          record.get(BenchmarkDataGenerator.PARTITION_PATH_FIELD).toString(), FILE_NAME);
+      HoodieAvroUtils.addCommitMetadataToRecord(writeRecord, INSTANT_TIME, INSTANT_TIME + "_" + i);
+      blackhole.consume(writeRecord);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public void stitchRecords(Blackhole blackhole) {
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      blackhole.consume(HoodieAvroUtils.stitchRecords(metadataRecords.get(i), records.get(i),
+          BenchmarkDataGenerator.TRIP_WRITE_SCHEMA));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public void serializeRecords(Blackhole blackhole) {
+    for (GenericRecord record : records) {
+      blackhole.consume(HoodieAvroUtils.avroToBytes(record));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public void deserializeRecords(Blackhole blackhole) throws IOException {
+    for (byte[] bytes : recordBytes) {
+      blackhole.consume(HoodieAvroUtils.bytesToAvro(bytes, BenchmarkDataGenerator.TRIP_SCHEMA));
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.benchmarks;
+
+import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.HoodieAvroPayload;
+import org.apache.hudi.common.model.HoodieLogFile;
+import org.apache.hudi.common.model.HoodieTableType;
+import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.common.table.log.HoodieLogFileReader;
+import org.apache.hudi.common.table.log.HoodieLogFormat;
+import org.apache.hudi.common.table.log.HoodieMergedLogRecordScanner;
+import org.apache.hudi.common.table.log.block.HoodieAvroDataBlock;
+import org.apache.hudi.common.table.log.block.HoodieLogBlock.HeaderMetadataType;
+import org.apache.hudi.common.table.timeline.HoodieInstant;
+import org.apache.hudi.common.table.timeline.HoodieTimeline;
+import org.apache.hudi.common.util.FileIOUtils;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.collection.ExternalSpillableMap;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to scan and merge a set of log files with {@link HoodieMergedLogRecordScanner}, as done by
+ * compaction and by snapshot queries on merge-on-read tables.
+ *
+ * <p>Every delta commit appends a block to each of the log files, upserting a fraction of the keys written by the
+ * first delta commit, so that the scan has to both insert and merge records.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HoodieMergedLogRecordScannerBenchmark {
+
+  private static final String PARTITION_PATH = "2021/03/15";
+  private static final String FILE_ID = "benchmark-file-id";
+
+  @Param({"100000"})
+  private int numRecords;
+
+  @Param({"4"})
+  private int numLogFiles;
+
+  @Param({"5"})
+  private int numDeltaCommits;
+
+  /**
+   * Fraction of the records upserted by every delta commit after the first.
+   */
+  @Param({"0.2"})
+  private double updateFraction;
+
+  @Param({"false", "true"})
+  private boolean readBlocksLazily;
+
+  /**
+   * 1GB holds all the records in memory, 16MB spills most of them.
+   */
+  @Param({"1073741824", "16777216"})
+  private long maxMemorySizeInBytes;
+
+  @Param({"BITCASK"})
+  private ExternalSpillableMap.DiskMapType diskMapType;
+
+  private File basePath;
+  private FileSystem fs;
+  private List<String> logFilePaths;
+  private String latestInstantTime;
+
+  @Setup
+  public void setup() throws IOException, InterruptedException {
+    basePath = Files.createTempDirectory("hudi-benchmark-table").toFile();
+    Configuration conf = new Configuration();
+    fs = FSUtils.getFs(basePath.getAbsolutePath(), conf);
+    HoodieTableMetaClient metaClient = HoodieTableMetaClient.withPropertyBuilder()
+        .setTableName("benchmark")
+        .setTableType(HoodieTableType.MERGE_ON_READ)
+        .setPayloadClass(HoodieAvroPayload.class)
+        .initTable(conf, basePath.getAbsolutePath());
+
+    Path partitionPath = new Path(basePath.getAbsolutePath(), PARTITION_PATH);
+    fs.mkdirs(partitionPath);
+    List<String> keys = BenchmarkDataGenerator.generateKeys(numRecords);
+    int keysPerFile = numRecords / numLogFiles;
+    int updatesPerFile = (int) (keysPerFile * updateFraction);
+    List<HoodieLogFormat.Writer> writers = new ArrayList<>(numLogFiles);
+    for (int i = 0; i < numLogFiles; i++) {
+      writers.add(HoodieLogFormat.newWriterBuilder().onParentPath(partitionPath).withFileExtension(HoodieLogFile.DELTA_EXTENSION)
+          .withFileId(FILE_ID + "-" + i).overBaseCommit("100").withFs(fs).build());
+    }
+    logFilePaths = new ArrayList<>(numLogFiles);
+    for (int commit = 0; commit < numDeltaCommits; commit++) {
+      latestInstantTime = String.valueOf(100 + commit);
+      Map<HeaderMetadataType, String> header = new HashMap<>();
+      header.put(HeaderMetadataType.INSTANT_TIME, latestInstantTime);
+      header.put(HeaderMetadataType.SCHEMA, BenchmarkDataGenerator.TRIP_WRITE_SCHEMA.toString());
+      for (int i = 0; i < numLogFiles; i++) {
+        List<String> fileKeys = keys.subList(i * keysPerFile, commit == 0 ? (i + 1) * keysPerFile : i * keysPerFile + updatesPerFile);
+        List<GenericRecord> records = BenchmarkDataGenerator.generateRecords(fileKeys, commit);
+        writers.get(i).appendBlock(new HoodieAvroDataBlock(
+            BenchmarkDataGenerator.toWriteRecords(records, latestInstantTime, FILE_ID + "-" + i), header));
+      }
+      HoodieInstant inflight = new HoodieInstant(HoodieInstant.State.INFLIGHT, HoodieTimeline.DELTA_COMMIT_ACTION, latestInstantTime);
+      metaClient.getActiveTimeline().createNewInstant(inflight);
+      metaClient.getActiveTimeline().saveAsComplete(inflight, Option.empty());
+    }
+    for (HoodieLogFormat.Writer writer : writers) {
+      logFilePaths.add(writer.getLogFile().getPath().toString());
+      writer.close();
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    FileIOUtils.deleteDirectory(basePath);
+  }
+
+  @Benchmark
+  public long scanLogFiles() {
+    HoodieMergedLogRecordScanner scanner = HoodieMergedLogRecordScanner.newBuilder()
+        .withFileSystem(fs)
+        .withBasePath(basePath.getAbsolutePath())
+        .withLogFilePaths(logFilePaths)
+        .withReaderSchema(BenchmarkDataGenerator.TRIP_WRITE_SCHEMA)
+        .withLatestInstantTime(latestInstantTime)
+        .withMaxMemorySizeInBytes(maxMemorySizeInBytes)
+        .withReadBlocksLazily(readBlocksLazily)
+        .withReverseReader(false)
+        .withBufferSize(HoodieLogFileReader.DEFAULT_BUFFER_SIZE)
+        .withSpillableMapBasePath(new File(basePath, ".spill").getAbsolutePath())
+        .withDiskMapType(diskMapType)
+        .build();
+    try {
+      return scanner.getNumMergedRecordsInLog();
+    } finally {
+      scanner.close();
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.benchmarks;
+
+import org.apache.hudi.common.config.TypedProperties;
+import org.apache.hudi.keygen.BaseKeyGenerator;
+import org.apache.hudi.keygen.ComplexAvroKeyGenerator;
+import org.apache.hudi.keygen.CustomAvroKeyGenerator;
+import org.apache.hudi.keygen.NonpartitionedAvroKeyGenerator;
+import org.apache.hudi.keygen.SimpleAvroKeyGenerator;
+import org.apache.hudi.keygen.TimestampBasedAvroKeyGenerator;
+import org.apache.hudi.keygen.constant.KeyGeneratorOptions;
+
+import org.apache.avro.generic.GenericRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of extracting the {@link org.apache.hudi.common.model.HoodieKey} of incoming records with the built-in
+ * avro key generators.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeyGeneratorBenchmark {
+
+  private static final int NUM_RECORDS = 100_000;
+
+  @Param({"SIMPLE", "COMPLEX", "TIMESTAMP", "CUSTOM", "NON_PARTITION"})
+  private String keyGeneratorType;
+
+  @Param({"false", "true"})
+  private boolean hiveStylePartitioning;
+
+  private List<GenericRecord> records;
+  private BaseKeyGenerator keyGenerator;
+
+  @Setup
+  public void setup() throws IOException {
+    records = BenchmarkDataGenerator.generateRecords(NUM_RECORDS);
+    TypedProperties props = new TypedProperties();
+    props.setProperty(KeyGeneratorOptions.HIVE_STYLE_PARTITIONING_OPT_KEY, String.valueOf(hiveStylePartitioning));
+    switch (keyGeneratorType) {
+      case "SIMPLE":
+        props.setProperty(KeyGeneratorOptions.RECORDKEY_FIELD_OPT_KEY, BenchmarkDataGenerator.RECORD_KEY_FIELD);
+        props.setProperty(KeyGeneratorOptions.PARTITIONPATH_FIELD_OPT_KEY, BenchmarkDataGenerator.PARTITION_PATH_FIELD);
+        keyGenerator = new SimpleAvroKeyGenerator(props);
+        break;
+      case "COMPLEX":
+        props.setProperty(KeyGeneratorOptions.RECORDKEY_FIELD_OPT_KEY, BenchmarkDataGenerator.RECORD_KEY_FIELD + ",rider");
+        props.setProperty(KeyGeneratorOptions.PARTITIONPATH_FIELD_OPT_KEY, BenchmarkDataGenerator.PARTITION_PATH_FIELD + ",driver");
+        keyGenerator = new ComplexAvroKeyGenerator(props);
+        break;
+      case "TIMESTAMP":
+        props.setProperty(KeyGeneratorOptions.RECORDKEY_FIELD_OPT_KEY, BenchmarkDataGenerator.RECORD_KEY_FIELD);
+        props.setProperty(KeyGeneratorOptions.PARTITIONPATH_FIELD_OPT_KEY, BenchmarkDataGenerator.ORDERING_FIELD);
+        setTimestampProperties(props);
+        keyGenerator = new TimestampBasedAvroKeyGenerator(props);
+        break;
+      case "CUSTOM":
+        props.setProperty(KeyGeneratorOptions.RECORDKEY_FIELD_OPT_KEY, BenchmarkDataGenerator.RECORD_KEY_FIELD);
+        props.setProperty(KeyGeneratorOptions.PARTITIONPATH_FIELD_OPT_KEY,
+            BenchmarkDataGenerator.PARTITION_PATH_FIELD + ":simple," + BenchmarkDataGenerator.ORDERING_FIELD + ":timestamp");
+        setTimestampProperties(props);
+        keyGenerator = new CustomAvroKeyGenerator(props);
+        break;
+      case "NON_PARTITION":
+        props.setProperty(KeyGeneratorOptions.RECORDKEY_FIELD_OPT_KEY, BenchmarkDataGenerator.RECORD_KEY_FIELD);
+        keyGenerator = new NonpartitionedAvroKeyGenerator(props);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported key generator type " + keyGeneratorType);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public void generateKeys(Blackhole blackhole) {
+    for (GenericRecord record : records) {
+      blackhole.consume(keyGenerator.getKey(record));
+    }
+  }
+
+  private static void setTimestampProperties(TypedProperties props) {
+    props.setProperty(TimestampBasedAvroKeyGenerator.Config.TIMESTAMP_TYPE_FIELD_PROP, TimestampBasedAvroKeyGenerator.TimestampType.EPOCHMILLISECONDS.name());
+    props.setProperty(TimestampBasedAvroKeyGenerator.Config.TIMESTAMP_OUTPUT_DATE_FORMAT_PROP, "yyyy/MM/dd");
+    props.setProperty(TimestampBasedAvroKeyGenerator.Config.TIMESTAMP_TIMEZONE_FORMAT_PROP, "UTC");
+  }
+}
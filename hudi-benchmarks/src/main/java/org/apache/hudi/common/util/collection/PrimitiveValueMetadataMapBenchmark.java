@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.collection;
+
+import org.apache.hudi.common.util.ObjectSizeCalculator;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Put and get throughput of the index of the values spilled by {@link DiskBasedMap}, comparing the compact
+ * {@link PrimitiveValueMetadataMap} with a {@link ConcurrentHashMap} of {@link DiskBasedMap.ValueMetadata}.
+ *
+ * <p>The heap footprint of the index holding all the keys is reported through the {@code indexBytes} counter of
+ * {@link IndexFootprint}. Lives in the collection package, since the value metadata can not be built outside of it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrimitiveValueMetadataMapBenchmark {
+
+  private static final String FILE_PATH = "/tmp/hudi-benchmark-spill";
+  private static final int NUM_KEYS = 100_000;
+  private static final int VALUE_SIZE = 512;
+
+  @Param({"CONCURRENT_HASH_MAP", "PRIMITIVE_VALUE_METADATA_MAP"})
+  private String keyIndex;
+
+  private List<String> keys;
+  private List<String> lookupKeys;
+  private Map<String, DiskBasedMap.ValueMetadata> populatedIndex;
+  private long populatedIndexBytes;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(NUM_KEYS);
+    keys = new ArrayList<>(NUM_KEYS);
+    for (int i = 0; i < NUM_KEYS; i++) {
+      keys.add(new UUID(random.nextLong(), random.nextLong()).toString());
+    }
+    lookupKeys = new ArrayList<>(keys);
+    Collections.shuffle(lookupKeys, random);
+    populatedIndex = putKeys();
+    populatedIndexBytes = ObjectSizeCalculator.getObjectSize(populatedIndex);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_KEYS)
+  public Map<String, DiskBasedMap.ValueMetadata> putKeys() {
+    Map<String, DiskBasedMap.ValueMetadata> index = "CONCURRENT_HASH_MAP".equals(keyIndex)
+        ? new ConcurrentHashMap<>()
+        : new PrimitiveValueMetadataMap<>(FILE_PATH);
+    for (int i = 0; i < NUM_KEYS; i++) {
+      index.put(keys.get(i), new DiskBasedMap.ValueMetadata(FILE_PATH, VALUE_SIZE, (long) i * VALUE_SIZE, 0L));
+    }
+    return index;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_KEYS)
+  public void getKeys(Blackhole blackhole, IndexFootprint indexFootprint) {
+    indexFootprint.indexBytes = populatedIndexBytes;
+    for (String key : lookupKeys) {
+      blackhole.consume(populatedIndex.get(key));
+    }
+  }
+
+  /**
+   * Heap bytes of the index holding all the keys, relative to the number of keys it gives the bytes per key.
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class IndexFootprint {
+    public long indexBytes;
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bloom;
+
+import org.apache.hudi.benchmarks.BenchmarkDataGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of looking up the candidate files of a record key by key range, comparing the {@link KeyRangeLookupTree}
+ * backed {@link IntervalTreeBasedIndexFileFilter} with the {@link ListBasedIndexFileFilter}.
+ *
+ * <p>Lives in the index package, since the filters are package private.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexFileFilterBenchmark {
+
+  private static final String PARTITION_PATH = "2021/03/15";
+  private static final int NUM_PROBES = 100_000;
+
+  @Param({"INTERVAL_TREE", "LIST"})
+  private String filterType;
+
+  @Param({"100", "1000"})
+  private int numFiles;
+
+  /**
+   * Number of neighbouring files each key range overlaps with.
+   */
+  @Param({"0", "2"})
+  private int overlap;
+
+  private IndexFileFilter indexFileFilter;
+  private List<String> probeKeys;
+
+  @Setup
+  public void setup() {
+    int keysPerFile = NUM_PROBES / numFiles;
+    List<String> keys = BenchmarkDataGenerator.generateKeys(NUM_PROBES);
+    probeKeys = new ArrayList<>(keys);
+    Collections.sort(keys);
+
+    List<BloomIndexFileInfo> fileInfos = new ArrayList<>(numFiles);
+    for (int i = 0; i < numFiles; i++) {
+      String minRecordKey = keys.get(i * keysPerFile);
+      String maxRecordKey = keys.get(Math.min(keys.size(), (i + 1 + overlap) * keysPerFile) - 1);
+      fileInfos.add(new BloomIndexFileInfo("file-" + i, minRecordKey, maxRecordKey));
+    }
+    Map<String, List<BloomIndexFileInfo>> partitionToFileIndexInfo = new HashMap<>();
+    partitionToFileIndexInfo.put(PARTITION_PATH, fileInfos);
+    indexFileFilter = "LIST".equals(filterType)
+        ? new ListBasedIndexFileFilter(partitionToFileIndexInfo)
+        : new IntervalTreeBasedIndexFileFilter(partitionToFileIndexInfo);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_PROBES)
+  public int lookupCandidateFiles() {
+    int candidates = 0;
+    for (String key : probeKeys) {
+      candidates += indexFileFilter.getMatchingFilesAndPartition(PARTITION_PATH, key).size();
+    }
+    return candidates;
+  }
+}
@@ -104,9 +104,17 @@ public class HoodieCompactionConfig extends DefaultHoodieConfig {
   // size + small memory
   public static final String COMPACTION_LAZY_BLOCK_READ_ENABLED_PROP = "hoodie.compaction.lazy.block.read";
   public static final String DEFAULT_COMPACTION_LAZY_BLOCK_READ_ENABLED = "false";
-  // used to choose whether to enable reverse log reading (reverse log traversal)
+  // used to choose whether to enable reverse log reading (reverse log traversal).
+  // Not applied by compaction, which merges the full log in order
   public static final String COMPACTION_REVERSE_LOG_READ_ENABLED_PROP = "hoodie.compaction.reverse.log.read";
   public static final String DEFAULT_COMPACTION_REVERSE_LOG_READ_ENABLED = "false";
+  // number of threads reading and decoding log blocks ahead of the merge, 0 disables prefetching.
+  // Prefetching is not applied if lazy block reading is enabled
+  public static final String COMPACTION_LOG_BLOCK_PREFETCH_THREADS_PROP = "hoodie.compaction.log.block.prefetch.threads";
+  public static final String DEFAULT_COMPACTION_LOG_BLOCK_PREFETCH_THREADS = "0";
+  // max number of log blocks prefetched ahead of the merge, per log file
+  public static final String COMPACTION_LOG_BLOCK_PREFETCH_QUEUE_SIZE_PROP = "hoodie.compaction.log.block.prefetch.queue.size";
+  public static final String DEFAULT_COMPACTION_LOG_BLOCK_PREFETCH_QUEUE_SIZE = "2";
   private static final String DEFAULT_CLEANER_POLICY = HoodieCleaningPolicy.KEEP_LATEST_COMMITS.name();
   public static final String FAILED_WRITES_CLEANER_POLICY_PROP = "hoodie.cleaner.policy.failed.writes";
   private  static final String DEFAULT_FAILED_WRITES_CLEANER_POLICY =
@@ -264,6 +272,16 @@ public class HoodieCompactionConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder withCompactionLogBlockPrefetchThreads(int prefetchThreads) {
+      props.setProperty(COMPACTION_LOG_BLOCK_PREFETCH_THREADS_PROP, String.valueOf(prefetchThreads));
+      return this;
+    }
+
+    public Builder withCompactionLogBlockPrefetchQueueSize(int prefetchQueueSize) {
+      props.setProperty(COMPACTION_LOG_BLOCK_PREFETCH_QUEUE_SIZE_PROP, String.valueOf(prefetchQueueSize));
+      return this;
+    }
+
     public Builder withTargetPartitionsPerDayBasedCompaction(int targetPartitionsPerCompaction) {
       props.setProperty(TARGET_PARTITIONS_PER_DAYBASED_COMPACTION_PROP, String.valueOf(targetPartitionsPerCompaction));
       return this;
@@ -330,6 +348,10 @@ public class HoodieCompactionConfig extends DefaultHoodieConfig {
           COMPACTION_LAZY_BLOCK_READ_ENABLED_PROP, DEFAULT_COMPACTION_LAZY_BLOCK_READ_ENABLED);
       setDefaultOnCondition(props, !props.containsKey(COMPACTION_REVERSE_LOG_READ_ENABLED_PROP),
           COMPACTION_REVERSE_LOG_READ_ENABLED_PROP, DEFAULT_COMPACTION_REVERSE_LOG_READ_ENABLED);
+      setDefaultOnCondition(props, !props.containsKey(COMPACTION_LOG_BLOCK_PREFETCH_THREADS_PROP),
+          COMPACTION_LOG_BLOCK_PREFETCH_THREADS_PROP, DEFAULT_COMPACTION_LOG_BLOCK_PREFETCH_THREADS);
+      setDefaultOnCondition(props, !props.containsKey(COMPACTION_LOG_BLOCK_PREFETCH_QUEUE_SIZE_PROP),
+          COMPACTION_LOG_BLOCK_PREFETCH_QUEUE_SIZE_PROP, DEFAULT_COMPACTION_LOG_BLOCK_PREFETCH_QUEUE_SIZE);
       setDefaultOnCondition(props, !props.containsKey(TARGET_PARTITIONS_PER_DAYBASED_COMPACTION_PROP),
           TARGET_PARTITIONS_PER_DAYBASED_COMPACTION_PROP, DEFAULT_TARGET_PARTITIONS_PER_DAYBASED_COMPACTION);
       setDefaultOnCondition(props, !props.containsKey(COMMITS_ARCHIVAL_BATCH_SIZE_PROP),
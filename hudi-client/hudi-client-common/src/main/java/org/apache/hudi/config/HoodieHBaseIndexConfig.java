@@ -120,6 +120,29 @@ public class HoodieHBaseIndexConfig extends DefaultHoodieConfig {
   public static final String HBASE_INDEX_ROLLBACK_SYNC = "hoodie.index.hbase.rollback.sync";
   public static final Boolean DEFAULT_HBASE_INDEX_ROLLBACK_SYNC = false;
 
+  /**
+   * Number of multi-get batches a tagging task may have outstanding against HBase at once. With 1, each batch is
+   * fetched and processed before the next one is sent.
+   */
+  public static final String HBASE_GET_MAX_OUTSTANDING_BATCHES_PROP = "hoodie.index.hbase.get.max.outstanding.batches";
+  public static final int DEFAULT_HBASE_GET_MAX_OUTSTANDING_BATCHES = 1;
+
+  /**
+   * When set to true, the gets of each multi-get batch are rate limited by the region server hosting the keys, and the
+   * batch size is honored per region server rather than per batch. The limits are kept by each tagging task, so the
+   * load of a region server grows with the number of tagging tasks running at once.
+   */
+  public static final String HBASE_GET_BATCH_BY_REGION_SERVER_PROP = "hoodie.index.hbase.get.batch.by.region.server";
+  public static final Boolean DEFAULT_HBASE_GET_BATCH_BY_REGION_SERVER = false;
+
+  /**
+   * Max number of record key to location entries cached by each executor, 0 disables the cache. Cached entries are
+   * not used past a commit that may have changed existing index entries, i.e. with deletes, rollbacks or partition
+   * path updates.
+   */
+  public static final String HBASE_LOCATION_CACHE_SIZE_PROP = "hoodie.index.hbase.location.cache.size";
+  public static final int DEFAULT_HBASE_LOCATION_CACHE_SIZE = 0;
+
   public HoodieHBaseIndexConfig(final Properties props) {
     super(props);
   }
@@ -224,6 +247,21 @@ public class HoodieHBaseIndexConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder hbaseIndexGetMaxOutstandingBatches(int maxOutstandingBatches) {
+      props.setProperty(HBASE_GET_MAX_OUTSTANDING_BATCHES_PROP, String.valueOf(maxOutstandingBatches));
+      return this;
+    }
+
+    public Builder hbaseIndexGetBatchByRegionServer(boolean batchByRegionServer) {
+      props.setProperty(HBASE_GET_BATCH_BY_REGION_SERVER_PROP, String.valueOf(batchByRegionServer));
+      return this;
+    }
+
+    public Builder hbaseIndexLocationCacheSize(int locationCacheSize) {
+      props.setProperty(HBASE_LOCATION_CACHE_SIZE_PROP, String.valueOf(locationCacheSize));
+      return this;
+    }
+
     public Builder withQPSResourceAllocatorType(String qpsResourceAllocatorClass) {
       props.setProperty(HBASE_INDEX_QPS_ALLOCATOR_CLASS, qpsResourceAllocatorClass);
       return this;
@@ -291,6 +329,12 @@ public class HoodieHBaseIndexConfig extends DefaultHoodieConfig {
           String.valueOf(DEFAULT_HBASE_INDEX_UPDATE_PARTITION_PATH));
       setDefaultOnCondition(props, !props.containsKey(HBASE_INDEX_ROLLBACK_SYNC), HBASE_INDEX_ROLLBACK_SYNC,
           String.valueOf(DEFAULT_HBASE_INDEX_ROLLBACK_SYNC));
+      setDefaultOnCondition(props, !props.containsKey(HBASE_GET_MAX_OUTSTANDING_BATCHES_PROP), HBASE_GET_MAX_OUTSTANDING_BATCHES_PROP,
+          String.valueOf(DEFAULT_HBASE_GET_MAX_OUTSTANDING_BATCHES));
+      setDefaultOnCondition(props, !props.containsKey(HBASE_GET_BATCH_BY_REGION_SERVER_PROP), HBASE_GET_BATCH_BY_REGION_SERVER_PROP,
+          String.valueOf(DEFAULT_HBASE_GET_BATCH_BY_REGION_SERVER));
+      setDefaultOnCondition(props, !props.containsKey(HBASE_LOCATION_CACHE_SIZE_PROP), HBASE_LOCATION_CACHE_SIZE_PROP,
+          String.valueOf(DEFAULT_HBASE_LOCATION_CACHE_SIZE));
       return config;
     }
 
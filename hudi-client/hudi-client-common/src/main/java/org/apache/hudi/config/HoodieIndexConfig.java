@@ -56,6 +56,10 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
   public static final String DEFAULT_BLOOM_INDEX_USE_CACHING = "true";
   public static final String BLOOM_INDEX_TREE_BASED_FILTER_PROP = "hoodie.bloom.index.use.treebased.filter";
   public static final String DEFAULT_BLOOM_INDEX_TREE_BASED_FILTER = "true";
+  // Looks up the key ranges of the files in arrays sorted by min record key rather than in an interval tree,
+  // and broadcasts them to the executors on Spark. Takes precedence over hoodie.bloom.index.use.treebased.filter.
+  public static final String BLOOM_INDEX_SORTED_RANGE_FILTER_PROP = "hoodie.bloom.index.use.sorted.range.filter";
+  public static final String DEFAULT_BLOOM_INDEX_SORTED_RANGE_FILTER = "false";
   // TODO: On by default. Once stable, we will remove the other mode.
   public static final String BLOOM_INDEX_BUCKETIZED_CHECKING_PROP = "hoodie.bloom.index.bucketized.checking";
   public static final String DEFAULT_BLOOM_INDEX_BUCKETIZED_CHECKING = "true";
@@ -63,6 +67,11 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
   public static final String DEFAULT_BLOOM_INDEX_FILTER_TYPE = BloomFilterTypeCode.SIMPLE.name();
   public static final String HOODIE_BLOOM_INDEX_FILTER_DYNAMIC_MAX_ENTRIES = "hoodie.bloom.index.filter.dynamic.max.entries";
   public static final String DEFAULT_HOODIE_BLOOM_INDEX_FILTER_DYNAMIC_MAX_ENTRIES = "100000";
+  // Sizes the bloom filter of each file for the number of records actually written into it, instead of
+  // hoodie.index.bloom.num_entries. Up to hoodie.index.bloom.num_entries record keys of a file are kept in memory;
+  // past that, the filter is sized for the records of a file of max size estimated from the record size estimate.
+  public static final String BLOOM_INDEX_FILTER_ADAPTIVE_SIZING_PROP = "hoodie.bloom.index.filter.adaptive.sizing";
+  public static final String DEFAULT_BLOOM_INDEX_FILTER_ADAPTIVE_SIZING = "false";
   public static final String SIMPLE_INDEX_USE_CACHING_PROP = "hoodie.simple.index.use.caching";
   public static final String DEFAULT_SIMPLE_INDEX_USE_CACHING = "true";
   public static final String SIMPLE_INDEX_PARALLELISM_PROP = "hoodie.simple.index.parallelism";
@@ -104,6 +113,23 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
   public static final String SIMPLE_INDEX_UPDATE_PARTITION_PATH = "hoodie.simple.index.update.partition.path";
   public static final String DEFAULT_SIMPLE_INDEX_UPDATE_PARTITION_PATH = "false";
 
+  // ***** Record Index Configs *****
+  public static final String RECORD_INDEX_UPDATE_PARTITION_PATH = "hoodie.record.index.update.partition.path";
+  public static final String DEFAULT_RECORD_INDEX_UPDATE_PARTITION_PATH = "false";
+  // Number of record keys looked up in a file group of the record index at once
+  public static final String RECORD_INDEX_LOOKUP_BATCH_SIZE_PROP = "hoodie.record.index.lookup.batch.size";
+  public static final String DEFAULT_RECORD_INDEX_LOOKUP_BATCH_SIZE = "1000";
+
+  // ***** Bucket Index Configs *****
+  // Number of buckets, i.e. file groups, each partition is hashed into. It can not change once the table is written.
+  public static final String BUCKET_INDEX_NUM_BUCKETS_PROP = "hoodie.bucket.index.num.buckets";
+  public static final String DEFAULT_BUCKET_INDEX_NUM_BUCKETS = "256";
+
+  // ***** RocksDB Index Configs *****
+  // Local directory of the embedded RocksDB instances of the index, which persist across the runs of the writers
+  public static final String ROCKSDB_INDEX_PATH_PROP = "hoodie.index.rocksdb.path";
+  public static final String DEFAULT_ROCKSDB_INDEX_PATH = "/tmp/hoodie_index_rocksdb";
+
   private EngineType engineType;
 
   /**
@@ -204,6 +230,11 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder bloomIndexSortedRangeFilter(boolean useSortedRangeFilter) {
+      props.setProperty(BLOOM_INDEX_SORTED_RANGE_FILTER_PROP, String.valueOf(useSortedRangeFilter));
+      return this;
+    }
+
     public Builder bloomIndexBucketizedChecking(boolean bucketizedChecking) {
       props.setProperty(BLOOM_INDEX_BUCKETIZED_CHECKING_PROP, String.valueOf(bucketizedChecking));
       return this;
@@ -214,6 +245,11 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder bloomFilterAdaptiveSizing(boolean adaptiveSizing) {
+      props.setProperty(BLOOM_INDEX_FILTER_ADAPTIVE_SIZING_PROP, String.valueOf(adaptiveSizing));
+      return this;
+    }
+
     public Builder withBloomIndexInputStorageLevel(String level) {
       props.setProperty(BLOOM_INDEX_INPUT_STORAGE_LEVEL, level);
       return this;
@@ -249,6 +285,26 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder withRecordIndexUpdatePartitionPath(boolean updatePartitionPath) {
+      props.setProperty(RECORD_INDEX_UPDATE_PARTITION_PATH, String.valueOf(updatePartitionPath));
+      return this;
+    }
+
+    public Builder withRecordIndexLookupBatchSize(int batchSize) {
+      props.setProperty(RECORD_INDEX_LOOKUP_BATCH_SIZE_PROP, String.valueOf(batchSize));
+      return this;
+    }
+
+    public Builder withBucketNum(int numBuckets) {
+      props.setProperty(BUCKET_INDEX_NUM_BUCKETS_PROP, String.valueOf(numBuckets));
+      return this;
+    }
+
+    public Builder withRocksDBIndexPath(String rocksDBIndexPath) {
+      props.setProperty(ROCKSDB_INDEX_PATH_PROP, rocksDBIndexPath);
+      return this;
+    }
+
     public Builder withEngineType(EngineType engineType) {
       this.engineType = engineType;
       return this;
@@ -273,6 +329,8 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
           BLOOM_INDEX_UPDATE_PARTITION_PATH, DEFAULT_BLOOM_INDEX_UPDATE_PARTITION_PATH);
       setDefaultOnCondition(props, !props.containsKey(BLOOM_INDEX_TREE_BASED_FILTER_PROP),
           BLOOM_INDEX_TREE_BASED_FILTER_PROP, DEFAULT_BLOOM_INDEX_TREE_BASED_FILTER);
+      setDefaultOnCondition(props, !props.containsKey(BLOOM_INDEX_SORTED_RANGE_FILTER_PROP),
+          BLOOM_INDEX_SORTED_RANGE_FILTER_PROP, DEFAULT_BLOOM_INDEX_SORTED_RANGE_FILTER);
       setDefaultOnCondition(props, !props.containsKey(BLOOM_INDEX_BUCKETIZED_CHECKING_PROP),
           BLOOM_INDEX_BUCKETIZED_CHECKING_PROP, DEFAULT_BLOOM_INDEX_BUCKETIZED_CHECKING);
       setDefaultOnCondition(props, !props.containsKey(BLOOM_INDEX_KEYS_PER_BUCKET_PROP),
@@ -281,6 +339,8 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
           BLOOM_INDEX_FILTER_TYPE, DEFAULT_BLOOM_INDEX_FILTER_TYPE);
       setDefaultOnCondition(props, !props.containsKey(HOODIE_BLOOM_INDEX_FILTER_DYNAMIC_MAX_ENTRIES),
           HOODIE_BLOOM_INDEX_FILTER_DYNAMIC_MAX_ENTRIES, DEFAULT_HOODIE_BLOOM_INDEX_FILTER_DYNAMIC_MAX_ENTRIES);
+      setDefaultOnCondition(props, !props.containsKey(BLOOM_INDEX_FILTER_ADAPTIVE_SIZING_PROP),
+          BLOOM_INDEX_FILTER_ADAPTIVE_SIZING_PROP, DEFAULT_BLOOM_INDEX_FILTER_ADAPTIVE_SIZING);
       setDefaultOnCondition(props, !props.containsKey(SIMPLE_INDEX_PARALLELISM_PROP), SIMPLE_INDEX_PARALLELISM_PROP,
           DEFAULT_SIMPLE_INDEX_PARALLELISM);
       setDefaultOnCondition(props, !props.containsKey(SIMPLE_INDEX_USE_CACHING_PROP), SIMPLE_INDEX_USE_CACHING_PROP,
@@ -291,6 +351,14 @@ public class HoodieIndexConfig extends DefaultHoodieConfig {
           DEFAULT_GLOBAL_SIMPLE_INDEX_PARALLELISM);
       setDefaultOnCondition(props, !props.containsKey(SIMPLE_INDEX_UPDATE_PARTITION_PATH),
           SIMPLE_INDEX_UPDATE_PARTITION_PATH, DEFAULT_SIMPLE_INDEX_UPDATE_PARTITION_PATH);
+      setDefaultOnCondition(props, !props.containsKey(RECORD_INDEX_UPDATE_PARTITION_PATH),
+          RECORD_INDEX_UPDATE_PARTITION_PATH, DEFAULT_RECORD_INDEX_UPDATE_PARTITION_PATH);
+      setDefaultOnCondition(props, !props.containsKey(RECORD_INDEX_LOOKUP_BATCH_SIZE_PROP),
+          RECORD_INDEX_LOOKUP_BATCH_SIZE_PROP, DEFAULT_RECORD_INDEX_LOOKUP_BATCH_SIZE);
+      setDefaultOnCondition(props, !props.containsKey(BUCKET_INDEX_NUM_BUCKETS_PROP),
+          BUCKET_INDEX_NUM_BUCKETS_PROP, DEFAULT_BUCKET_INDEX_NUM_BUCKETS);
+      setDefaultOnCondition(props, !props.containsKey(ROCKSDB_INDEX_PATH_PROP),
+          ROCKSDB_INDEX_PATH_PROP, DEFAULT_ROCKSDB_INDEX_PATH);
       // Throws IllegalArgumentException if the value set is not a known Hoodie Index Type
       HoodieIndex.IndexType.valueOf(props.getProperty(INDEX_TYPE_PROP));
       return config;
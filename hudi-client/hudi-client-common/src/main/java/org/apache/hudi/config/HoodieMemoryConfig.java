@@ -19,6 +19,8 @@
 package org.apache.hudi.config;
 
 import org.apache.hudi.common.config.DefaultHoodieConfig;
+import org.apache.hudi.common.util.DefaultSpillSerializer;
+import org.apache.hudi.common.util.collection.ExternalSpillableMap;
 
 import javax.annotation.concurrent.Immutable;
 
@@ -55,6 +57,17 @@ public class HoodieMemoryConfig extends DefaultHoodieConfig {
   public static final String SPILLABLE_MAP_BASE_PATH_PROP = "hoodie.memory.spillable.map.path";
   // Default file path prefix for spillable file
   public static final String DEFAULT_SPILLABLE_MAP_BASE_PATH = "/tmp/";
+  // Property to choose the map holding the entries spilled to disk, see ExternalSpillableMap.DiskMapType
+  public static final String SPILLABLE_DISK_MAP_TYPE_PROP = "hoodie.memory.spillable.map.disk.type";
+  public static final String DEFAULT_SPILLABLE_DISK_MAP_TYPE = ExternalSpillableMap.DiskMapType.BITCASK.name();
+  // Property to track the entries spilled by the BITCASK disk map with a compact primitive key index instead of
+  // a hash map of boxed value metadata
+  public static final String SPILLABLE_MAP_COMPACT_KEY_INDEX_ENABLE_PROP = "hoodie.memory.spillable.map.compact.key.index.enable";
+  public static final String DEFAULT_SPILLABLE_MAP_COMPACT_KEY_INDEX_ENABLE = "false";
+  // Property to set the SpillSerializer used to write the records spilled to disk, the schema-aware
+  // org.apache.hudi.common.model.HoodieRecordSpillSerializer avoids reflection based serialization of the payloads
+  public static final String SPILLABLE_MAP_SERIALIZER_CLASS_PROP = "hoodie.memory.spillable.map.serializer.class";
+  public static final String DEFAULT_SPILLABLE_MAP_SERIALIZER_CLASS = DefaultSpillSerializer.class.getName();
 
   // Property to control how what fraction of the failed record, exceptions we report back to driver.
   public static final String WRITESTATUS_FAILURE_FRACTION_PROP = "hoodie.memory.writestatus.failure.fraction";
@@ -107,6 +120,21 @@ public class HoodieMemoryConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder withSpillableDiskMapType(ExternalSpillableMap.DiskMapType diskMapType) {
+      props.setProperty(SPILLABLE_DISK_MAP_TYPE_PROP, diskMapType.name());
+      return this;
+    }
+
+    public Builder withSpillableMapCompactKeyIndex(boolean enable) {
+      props.setProperty(SPILLABLE_MAP_COMPACT_KEY_INDEX_ENABLE_PROP, String.valueOf(enable));
+      return this;
+    }
+
+    public Builder withSpillableMapSerializerClass(String serializerClass) {
+      props.setProperty(SPILLABLE_MAP_SERIALIZER_CLASS_PROP, serializerClass);
+      return this;
+    }
+
     public Builder withWriteStatusFailureFraction(double failureFraction) {
       props.setProperty(WRITESTATUS_FAILURE_FRACTION_PROP, String.valueOf(failureFraction));
       return this;
@@ -118,6 +146,12 @@ public class HoodieMemoryConfig extends DefaultHoodieConfig {
           String.valueOf(DEFAULT_MAX_DFS_STREAM_BUFFER_SIZE));
       setDefaultOnCondition(props, !props.containsKey(SPILLABLE_MAP_BASE_PATH_PROP), SPILLABLE_MAP_BASE_PATH_PROP,
           DEFAULT_SPILLABLE_MAP_BASE_PATH);
+      setDefaultOnCondition(props, !props.containsKey(SPILLABLE_DISK_MAP_TYPE_PROP), SPILLABLE_DISK_MAP_TYPE_PROP,
+          DEFAULT_SPILLABLE_DISK_MAP_TYPE);
+      setDefaultOnCondition(props, !props.containsKey(SPILLABLE_MAP_COMPACT_KEY_INDEX_ENABLE_PROP),
+          SPILLABLE_MAP_COMPACT_KEY_INDEX_ENABLE_PROP, DEFAULT_SPILLABLE_MAP_COMPACT_KEY_INDEX_ENABLE);
+      setDefaultOnCondition(props, !props.containsKey(SPILLABLE_MAP_SERIALIZER_CLASS_PROP),
+          SPILLABLE_MAP_SERIALIZER_CLASS_PROP, DEFAULT_SPILLABLE_MAP_SERIALIZER_CLASS);
       setDefaultOnCondition(props, !props.containsKey(MAX_MEMORY_FOR_MERGE_PROP), MAX_MEMORY_FOR_MERGE_PROP,
           String.valueOf(DEFAULT_MAX_MEMORY_FOR_SPILLABLE_MAP_IN_BYTES));
       setDefaultOnCondition(props, !props.containsKey(WRITESTATUS_FAILURE_FRACTION_PROP),
@@ -39,6 +39,12 @@ public class HoodieStorageConfig extends DefaultHoodieConfig {
   public static final String DEFAULT_PARQUET_BLOCK_SIZE_BYTES = DEFAULT_PARQUET_FILE_MAX_BYTES;
   public static final String PARQUET_PAGE_SIZE_BYTES = "hoodie.parquet.page.size";
   public static final String DEFAULT_PARQUET_PAGE_SIZE_BYTES = String.valueOf(1 * 1024 * 1024);
+  // write the parquet files through a background thread, double buffering the output
+  public static final String PARQUET_ASYNC_WRITE_ENABLED = "hoodie.parquet.async.write.enabled";
+  public static final String DEFAULT_PARQUET_ASYNC_WRITE_ENABLED = "false";
+  // size of each of the two buffers, raised to the block size so that whole row groups are handed over
+  public static final String PARQUET_ASYNC_WRITE_BUFFER_SIZE_BYTES = "hoodie.parquet.async.write.buffer.size";
+  public static final String DEFAULT_PARQUET_ASYNC_WRITE_BUFFER_SIZE_BYTES = DEFAULT_PARQUET_BLOCK_SIZE_BYTES;
   public static final String HFILE_FILE_MAX_BYTES = "hoodie.hfile.max.file.size";
   public static final String HFILE_BLOCK_SIZE_BYTES = "hoodie.hfile.block.size";
   public static final String DEFAULT_HFILE_BLOCK_SIZE_BYTES = String.valueOf(1 * 1024 * 1024);
@@ -49,6 +55,15 @@ public class HoodieStorageConfig extends DefaultHoodieConfig {
   // used to size data blocks in log file
   public static final String LOGFILE_DATA_BLOCK_SIZE_MAX_BYTES = "hoodie.logfile.data.block.max.size";
   public static final String DEFAULT_LOGFILE_DATA_BLOCK_SIZE_MAX_BYTES = String.valueOf(256 * 1024 * 1024); // 256 MB
+  // format of the data blocks in log file, e.g. PARQUET_DATA_BLOCK, derived from the base file format if not set
+  public static final String LOGFILE_DATA_BLOCK_FORMAT = "hoodie.logfile.data.block.format";
+  // codec compressing the records of avro data blocks in log file, one of none, snappy, lz4 or zstd
+  public static final String LOGFILE_DATA_BLOCK_COMPRESSION_CODEC = "hoodie.logfile.data.block.compression.codec";
+  // Default is none, which keeps the log files readable by older readers
+  public static final String DEFAULT_LOGFILE_DATA_BLOCK_COMPRESSION_CODEC = "none";
+  // encode the records of avro data blocks into a reusable buffer as they arrive, rather than holding them until the block is written
+  public static final String LOGFILE_DATA_BLOCK_STREAMING_ENABLED = "hoodie.logfile.data.block.streaming.enabled";
+  public static final String DEFAULT_LOGFILE_DATA_BLOCK_STREAMING_ENABLED = "false";
   public static final String PARQUET_COMPRESSION_RATIO = "hoodie.parquet.compression.ratio";
   // Default compression ratio for parquet
   public static final String DEFAULT_STREAM_COMPRESSION_RATIO = String.valueOf(0.1);
@@ -100,6 +115,16 @@ public class HoodieStorageConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder parquetAsyncWriteEnabled(boolean asyncWriteEnabled) {
+      props.setProperty(PARQUET_ASYNC_WRITE_ENABLED, String.valueOf(asyncWriteEnabled));
+      return this;
+    }
+
+    public Builder parquetAsyncWriteBufferSize(int bufferSize) {
+      props.setProperty(PARQUET_ASYNC_WRITE_BUFFER_SIZE_BYTES, String.valueOf(bufferSize));
+      return this;
+    }
+
     public Builder hfileMaxFileSize(long maxFileSize) {
       props.setProperty(HFILE_FILE_MAX_BYTES, String.valueOf(maxFileSize));
       return this;
@@ -115,6 +140,21 @@ public class HoodieStorageConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder logFileDataBlockFormat(String dataBlockFormat) {
+      props.setProperty(LOGFILE_DATA_BLOCK_FORMAT, dataBlockFormat);
+      return this;
+    }
+
+    public Builder logFileDataBlockCompressionCodec(String dataBlockCompressionCodec) {
+      props.setProperty(LOGFILE_DATA_BLOCK_COMPRESSION_CODEC, dataBlockCompressionCodec);
+      return this;
+    }
+
+    public Builder logFileDataBlockStreamingEnabled(boolean streamingEnabled) {
+      props.setProperty(LOGFILE_DATA_BLOCK_STREAMING_ENABLED, String.valueOf(streamingEnabled));
+      return this;
+    }
+
     public Builder logFileMaxSize(int logFileSize) {
       props.setProperty(LOGFILE_SIZE_MAX_BYTES, String.valueOf(logFileSize));
       return this;
@@ -148,10 +188,18 @@ public class HoodieStorageConfig extends DefaultHoodieConfig {
           DEFAULT_PARQUET_BLOCK_SIZE_BYTES);
       setDefaultOnCondition(props, !props.containsKey(PARQUET_PAGE_SIZE_BYTES), PARQUET_PAGE_SIZE_BYTES,
           DEFAULT_PARQUET_PAGE_SIZE_BYTES);
+      setDefaultOnCondition(props, !props.containsKey(PARQUET_ASYNC_WRITE_ENABLED), PARQUET_ASYNC_WRITE_ENABLED,
+          DEFAULT_PARQUET_ASYNC_WRITE_ENABLED);
+      setDefaultOnCondition(props, !props.containsKey(PARQUET_ASYNC_WRITE_BUFFER_SIZE_BYTES),
+          PARQUET_ASYNC_WRITE_BUFFER_SIZE_BYTES, DEFAULT_PARQUET_ASYNC_WRITE_BUFFER_SIZE_BYTES);
       setDefaultOnCondition(props, !props.containsKey(LOGFILE_DATA_BLOCK_SIZE_MAX_BYTES),
           LOGFILE_DATA_BLOCK_SIZE_MAX_BYTES, DEFAULT_LOGFILE_DATA_BLOCK_SIZE_MAX_BYTES);
       setDefaultOnCondition(props, !props.containsKey(LOGFILE_SIZE_MAX_BYTES), LOGFILE_SIZE_MAX_BYTES,
           DEFAULT_LOGFILE_SIZE_MAX_BYTES);
+      setDefaultOnCondition(props, !props.containsKey(LOGFILE_DATA_BLOCK_COMPRESSION_CODEC),
+          LOGFILE_DATA_BLOCK_COMPRESSION_CODEC, DEFAULT_LOGFILE_DATA_BLOCK_COMPRESSION_CODEC);
+      setDefaultOnCondition(props, !props.containsKey(LOGFILE_DATA_BLOCK_STREAMING_ENABLED),
+          LOGFILE_DATA_BLOCK_STREAMING_ENABLED, DEFAULT_LOGFILE_DATA_BLOCK_STREAMING_ENABLED);
       setDefaultOnCondition(props, !props.containsKey(PARQUET_COMPRESSION_RATIO), PARQUET_COMPRESSION_RATIO,
           DEFAULT_STREAM_COMPRESSION_RATIO);
       setDefaultOnCondition(props, !props.containsKey(PARQUET_COMPRESSION_CODEC), PARQUET_COMPRESSION_CODEC,
@@ -31,10 +31,17 @@ import org.apache.hudi.common.model.HoodieFailedWritesCleaningPolicy;
 import org.apache.hudi.common.model.HoodieCleaningPolicy;
 import org.apache.hudi.common.model.OverwriteWithLatestAvroPayload;
 import org.apache.hudi.common.model.WriteConcurrencyMode;
+import org.apache.hudi.common.table.log.block.HoodieLogBlock.HoodieLogBlockType;
+import org.apache.hudi.common.table.log.block.HoodieLogBlockCompressionCodec;
 import org.apache.hudi.common.table.timeline.versioning.TimelineLayoutVersion;
 import org.apache.hudi.common.table.view.FileSystemViewStorageConfig;
+import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.ReflectionUtils;
+import org.apache.hudi.common.util.SpillSerializer;
 import org.apache.hudi.common.util.ValidationUtils;
+import org.apache.hudi.common.util.collection.ExternalSpillableMap;
+import org.apache.hudi.common.util.queue.RingBufferInMemoryQueue;
+import org.apache.hudi.common.util.queue.WriteBufferType;
 import org.apache.hudi.execution.bulkinsert.BulkInsertSortMode;
 import org.apache.hudi.index.HoodieIndex;
 import org.apache.hudi.keygen.SimpleAvroKeyGenerator;
@@ -92,6 +99,12 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
   public static final String ROLLBACK_PARALLELISM = "hoodie.rollback.parallelism";
   public static final String WRITE_BUFFER_LIMIT_BYTES = "hoodie.write.buffer.limit.bytes";
   public static final String DEFAULT_WRITE_BUFFER_LIMIT_BYTES = String.valueOf(4 * 1024 * 1024);
+  public static final String WRITE_BUFFER_TYPE = "hoodie.write.buffer.type";
+  public static final String DEFAULT_WRITE_BUFFER_TYPE = WriteBufferType.BOUNDED_IN_MEMORY.name();
+  public static final String WRITE_BUFFER_RING_SIZE = "hoodie.write.buffer.ring.size";
+  public static final String DEFAULT_WRITE_BUFFER_RING_SIZE = String.valueOf(RingBufferInMemoryQueue.DEFAULT_RING_SIZE);
+  public static final String WRITE_BUFFER_WAIT_STRATEGY = "hoodie.write.buffer.wait.strategy";
+  public static final String DEFAULT_WRITE_BUFFER_WAIT_STRATEGY = RingBufferInMemoryQueue.WaitStrategy.SLEEPING.name();
   public static final String COMBINE_BEFORE_INSERT_PROP = "hoodie.combine.before.insert";
   public static final String DEFAULT_COMBINE_BEFORE_INSERT = "false";
   public static final String COMBINE_BEFORE_UPSERT_PROP = "hoodie.combine.before.upsert";
@@ -147,6 +160,18 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
   private static final String MERGE_ALLOW_DUPLICATE_ON_INSERTS = "hoodie.merge.allow.duplicate.on.inserts";
   private static final String DEFAULT_MERGE_ALLOW_DUPLICATE_ON_INSERTS = "false";
 
+  // Copy the row groups of the old parquet file without incoming keys in their key range as is while merging
+  public static final String MERGE_COPY_UNCHANGED_ROW_GROUPS = "hoodie.merge.copy.unchanged.row.groups";
+  public static final String DEFAULT_MERGE_COPY_UNCHANGED_ROW_GROUPS = "false";
+
+  // Base files are sorted by record key, merge them in one pass with the externally sorted incoming records
+  public static final String MERGE_SORTED_BASE_FILES = "hoodie.merge.sorted.base.files";
+  public static final String DEFAULT_MERGE_SORTED_BASE_FILES = "false";
+
+  // Combines the rows of the row writer path, the InternalRow counterpart of the write payload
+  public static final String ROW_MERGER_CLASS_PROP = "hoodie.datasource.write.row.merger.class";
+  public static final String DEFAULT_ROW_MERGER_CLASS = "org.apache.hudi.client.model.OverwriteWithLatestRowMerger";
+
   public static final String CLIENT_HEARTBEAT_INTERVAL_IN_MS_PROP = "hoodie.client.heartbeat.interval_in_ms";
   public static final Integer DEFAULT_CLIENT_HEARTBEAT_INTERVAL_IN_MS = 60 * 1000;
 
@@ -300,6 +325,19 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Integer.parseInt(props.getProperty(WRITE_BUFFER_LIMIT_BYTES, DEFAULT_WRITE_BUFFER_LIMIT_BYTES));
   }
 
+  public WriteBufferType getWriteBufferType() {
+    return WriteBufferType.valueOf(props.getProperty(WRITE_BUFFER_TYPE, DEFAULT_WRITE_BUFFER_TYPE).toUpperCase());
+  }
+
+  public int getWriteBufferRingSize() {
+    return Integer.parseInt(props.getProperty(WRITE_BUFFER_RING_SIZE, DEFAULT_WRITE_BUFFER_RING_SIZE));
+  }
+
+  public RingBufferInMemoryQueue.WaitStrategy getWriteBufferWaitStrategy() {
+    return RingBufferInMemoryQueue.WaitStrategy.valueOf(
+        props.getProperty(WRITE_BUFFER_WAIT_STRATEGY, DEFAULT_WRITE_BUFFER_WAIT_STRATEGY).toUpperCase());
+  }
+
   public boolean shouldCombineBeforeInsert() {
     return Boolean.parseBoolean(props.getProperty(COMBINE_BEFORE_INSERT_PROP));
   }
@@ -373,6 +411,18 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Boolean.parseBoolean(props.getProperty(MERGE_DATA_VALIDATION_CHECK_ENABLED));
   }
 
+  public boolean shouldCopyUnchangedRowGroupsOnMerge() {
+    return Boolean.parseBoolean(props.getProperty(MERGE_COPY_UNCHANGED_ROW_GROUPS));
+  }
+
+  public boolean shouldSortMergeWithSortedBaseFiles() {
+    return Boolean.parseBoolean(props.getProperty(MERGE_SORTED_BASE_FILES));
+  }
+
+  public String getRowMergerClass() {
+    return props.getProperty(ROW_MERGER_CLASS_PROP);
+  }
+
   public boolean allowDuplicateInserts() {
     return Boolean.parseBoolean(props.getProperty(MERGE_ALLOW_DUPLICATE_ON_INSERTS));
   }
@@ -472,6 +522,14 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Boolean.valueOf(props.getProperty(HoodieCompactionConfig.COMPACTION_REVERSE_LOG_READ_ENABLED_PROP));
   }
 
+  public int getCompactionLogBlockPrefetchThreads() {
+    return Integer.parseInt(props.getProperty(HoodieCompactionConfig.COMPACTION_LOG_BLOCK_PREFETCH_THREADS_PROP));
+  }
+
+  public int getCompactionLogBlockPrefetchQueueSize() {
+    return Integer.parseInt(props.getProperty(HoodieCompactionConfig.COMPACTION_LOG_BLOCK_PREFETCH_QUEUE_SIZE_PROP));
+  }
+
   public boolean inlineClusteringEnabled() {
     return Boolean.parseBoolean(props.getProperty(HoodieClusteringConfig.INLINE_CLUSTERING_PROP));
   }
@@ -632,6 +690,19 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Integer.parseInt(props.getProperty(HoodieIndexConfig.HOODIE_BLOOM_INDEX_FILTER_DYNAMIC_MAX_ENTRIES));
   }
 
+  public boolean useBloomFilterAdaptiveSizing() {
+    return Boolean.parseBoolean(props.getProperty(HoodieIndexConfig.BLOOM_INDEX_FILTER_ADAPTIVE_SIZING_PROP));
+  }
+
+  /**
+   * Number of entries of an adaptive size bloom filter whose file outgrows hoodie.index.bloom.num_entries records:
+   * the number of records of a file of max size, estimated from the record size estimate.
+   */
+  public int getBloomFilterAdaptiveNumEntriesEstimate() {
+    long estimate = getParquetMaxFileSize() / Math.max(getCopyOnWriteRecordSizeEstimate(), 1);
+    return (int) Math.min(Math.max(estimate, getBloomFilterNumEntries()), Integer.MAX_VALUE);
+  }
+
   /**
    * Fraction of the global share of QPS that should be allocated to this job. Let's say there are 3 jobs which have
    * input size in terms of number of rows required for HbaseIndexing as x, 2x, 3x respectively. Then this fraction for
@@ -661,6 +732,18 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Boolean.parseBoolean(props.getProperty(HoodieHBaseIndexConfig.HBASE_INDEX_UPDATE_PARTITION_PATH));
   }
 
+  public int getHbaseIndexGetMaxOutstandingBatches() {
+    return Integer.parseInt(props.getProperty(HoodieHBaseIndexConfig.HBASE_GET_MAX_OUTSTANDING_BATCHES_PROP));
+  }
+
+  public boolean getHbaseIndexGetBatchByRegionServer() {
+    return Boolean.parseBoolean(props.getProperty(HoodieHBaseIndexConfig.HBASE_GET_BATCH_BY_REGION_SERVER_PROP));
+  }
+
+  public int getHbaseIndexLocationCacheSize() {
+    return Integer.parseInt(props.getProperty(HoodieHBaseIndexConfig.HBASE_LOCATION_CACHE_SIZE_PROP));
+  }
+
   public int getBloomIndexParallelism() {
     return Integer.parseInt(props.getProperty(HoodieIndexConfig.BLOOM_INDEX_PARALLELISM_PROP));
   }
@@ -677,6 +760,10 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Boolean.parseBoolean(props.getProperty(HoodieIndexConfig.BLOOM_INDEX_TREE_BASED_FILTER_PROP));
   }
 
+  public boolean useBloomIndexSortedRangeFilter() {
+    return Boolean.parseBoolean(props.getProperty(HoodieIndexConfig.BLOOM_INDEX_SORTED_RANGE_FILTER_PROP));
+  }
+
   public boolean useBloomIndexBucketizedChecking() {
     return Boolean.parseBoolean(props.getProperty(HoodieIndexConfig.BLOOM_INDEX_BUCKETIZED_CHECKING_PROP));
   }
@@ -705,6 +792,22 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Boolean.parseBoolean(props.getProperty(HoodieIndexConfig.SIMPLE_INDEX_UPDATE_PARTITION_PATH));
   }
 
+  public boolean getRecordIndexUpdatePartitionPath() {
+    return Boolean.parseBoolean(props.getProperty(HoodieIndexConfig.RECORD_INDEX_UPDATE_PARTITION_PATH));
+  }
+
+  public int getRecordIndexLookupBatchSize() {
+    return Integer.parseInt(props.getProperty(HoodieIndexConfig.RECORD_INDEX_LOOKUP_BATCH_SIZE_PROP));
+  }
+
+  public int getBucketIndexNumBuckets() {
+    return Integer.parseInt(props.getProperty(HoodieIndexConfig.BUCKET_INDEX_NUM_BUCKETS_PROP));
+  }
+
+  public String getRocksDBIndexPath() {
+    return props.getProperty(HoodieIndexConfig.ROCKSDB_INDEX_PATH_PROP);
+  }
+
   /**
    * storage properties.
    */
@@ -724,10 +827,31 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return Integer.parseInt(props.getProperty(HoodieStorageConfig.LOGFILE_DATA_BLOCK_SIZE_MAX_BYTES));
   }
 
+  public Option<HoodieLogBlockType> getLogFileDataBlockFormat() {
+    return Option.ofNullable(props.getProperty(HoodieStorageConfig.LOGFILE_DATA_BLOCK_FORMAT))
+        .map(format -> HoodieLogBlockType.valueOf(format.toUpperCase()));
+  }
+
+  public HoodieLogBlockCompressionCodec getLogFileDataBlockCompressionCodec() {
+    return HoodieLogBlockCompressionCodec.fromName(props.getProperty(HoodieStorageConfig.LOGFILE_DATA_BLOCK_COMPRESSION_CODEC));
+  }
+
+  public boolean isLogFileDataBlockStreamingEnabled() {
+    return Boolean.parseBoolean(props.getProperty(HoodieStorageConfig.LOGFILE_DATA_BLOCK_STREAMING_ENABLED));
+  }
+
   public int getLogFileMaxSize() {
     return Integer.parseInt(props.getProperty(HoodieStorageConfig.LOGFILE_SIZE_MAX_BYTES));
   }
 
+  public boolean isParquetAsyncWriteEnabled() {
+    return Boolean.parseBoolean(props.getProperty(HoodieStorageConfig.PARQUET_ASYNC_WRITE_ENABLED));
+  }
+
+  public int getParquetAsyncWriteBufferSize() {
+    return Integer.parseInt(props.getProperty(HoodieStorageConfig.PARQUET_ASYNC_WRITE_BUFFER_SIZE_BYTES));
+  }
+
   public double getParquetCompressionRatio() {
     return Double.parseDouble(props.getProperty(HoodieStorageConfig.PARQUET_COMPRESSION_RATIO));
   }
@@ -869,6 +993,19 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
     return props.getProperty(HoodieMemoryConfig.SPILLABLE_MAP_BASE_PATH_PROP);
   }
 
+  public ExternalSpillableMap.DiskMapType getSpillableDiskMapType() {
+    return ExternalSpillableMap.DiskMapType.valueOf(
+        props.getProperty(HoodieMemoryConfig.SPILLABLE_DISK_MAP_TYPE_PROP).toUpperCase());
+  }
+
+  public boolean isSpillableMapCompactKeyIndexEnabled() {
+    return Boolean.parseBoolean(props.getProperty(HoodieMemoryConfig.SPILLABLE_MAP_COMPACT_KEY_INDEX_ENABLE_PROP));
+  }
+
+  public <R> SpillSerializer<R> getSpillableMapSerializer() {
+    return (SpillSerializer<R>) ReflectionUtils.loadClass(props.getProperty(HoodieMemoryConfig.SPILLABLE_MAP_SERIALIZER_CLASS_PROP));
+  }
+
   public double getWriteStatusFailureFraction() {
     return Double.parseDouble(props.getProperty(HoodieMemoryConfig.WRITESTATUS_FAILURE_FRACTION_PROP));
   }
@@ -1152,6 +1289,21 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder withWriteBufferType(WriteBufferType writeBufferType) {
+      props.setProperty(WRITE_BUFFER_TYPE, writeBufferType.name());
+      return this;
+    }
+
+    public Builder withWriteBufferRingSize(int ringSize) {
+      props.setProperty(WRITE_BUFFER_RING_SIZE, String.valueOf(ringSize));
+      return this;
+    }
+
+    public Builder withWriteBufferWaitStrategy(RingBufferInMemoryQueue.WaitStrategy waitStrategy) {
+      props.setProperty(WRITE_BUFFER_WAIT_STRATEGY, waitStrategy.name());
+      return this;
+    }
+
     public Builder combineInput(boolean onInsert, boolean onUpsert) {
       props.setProperty(COMBINE_BEFORE_INSERT_PROP, String.valueOf(onInsert));
       props.setProperty(COMBINE_BEFORE_UPSERT_PROP, String.valueOf(onUpsert));
@@ -1296,6 +1448,21 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder withMergeCopyUnchangedRowGroups(boolean copyUnchangedRowGroups) {
+      props.setProperty(MERGE_COPY_UNCHANGED_ROW_GROUPS, String.valueOf(copyUnchangedRowGroups));
+      return this;
+    }
+
+    public Builder withMergeSortedBaseFiles(boolean sortedBaseFiles) {
+      props.setProperty(MERGE_SORTED_BASE_FILES, String.valueOf(sortedBaseFiles));
+      return this;
+    }
+
+    public Builder withRowMergerClass(String rowMergerClass) {
+      props.setProperty(ROW_MERGER_CLASS_PROP, rowMergerClass);
+      return this;
+    }
+
     public Builder withMergeAllowDuplicateOnInserts(boolean routeInsertsToNewFiles) {
       props.setProperty(MERGE_ALLOW_DUPLICATE_ON_INSERTS, String.valueOf(routeInsertsToNewFiles));
       return this;
@@ -1375,6 +1542,12 @@ public class HoodieWriteConfig extends DefaultHoodieConfig {
           BULKINSERT_SORT_MODE, DEFAULT_BULKINSERT_SORT_MODE);
       setDefaultOnCondition(props, !props.containsKey(MERGE_DATA_VALIDATION_CHECK_ENABLED),
           MERGE_DATA_VALIDATION_CHECK_ENABLED, DEFAULT_MERGE_DATA_VALIDATION_CHECK_ENABLED);
+      setDefaultOnCondition(props, !props.containsKey(MERGE_COPY_UNCHANGED_ROW_GROUPS),
+          MERGE_COPY_UNCHANGED_ROW_GROUPS, DEFAULT_MERGE_COPY_UNCHANGED_ROW_GROUPS);
+      setDefaultOnCondition(props, !props.containsKey(MERGE_SORTED_BASE_FILES),
+          MERGE_SORTED_BASE_FILES, DEFAULT_MERGE_SORTED_BASE_FILES);
+      setDefaultOnCondition(props, !props.containsKey(ROW_MERGER_CLASS_PROP),
+          ROW_MERGER_CLASS_PROP, DEFAULT_ROW_MERGER_CLASS);
       setDefaultOnCondition(props, !props.containsKey(MERGE_ALLOW_DUPLICATE_ON_INSERTS),
           MERGE_ALLOW_DUPLICATE_ON_INSERTS, DEFAULT_MERGE_ALLOW_DUPLICATE_ON_INSERTS);
       setDefaultOnCondition(props, !props.containsKey(CLIENT_HEARTBEAT_INTERVAL_IN_MS_PROP),
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.execution;
+
+import org.apache.hudi.common.util.DefaultSizeEstimator;
+import org.apache.hudi.common.util.queue.BoundedInMemoryQueue;
+import org.apache.hudi.common.util.queue.RingBufferInMemoryQueue;
+import org.apache.hudi.config.HoodieWriteConfig;
+
+import java.util.function.Function;
+
+/**
+ * Factory to create the queue buffering records between the reader and the writer threads of a write, based on
+ * {@link HoodieWriteConfig#WRITE_BUFFER_TYPE}.
+ */
+public class BoundedInMemoryQueueFactory {
+
+  /**
+   * Creates the queue for an executor with a single producer.
+   *
+   * @param config Write config
+   * @param transformFunction Transformer Function to convert input payload type to stored payload type
+   */
+  public static <I, O> BoundedInMemoryQueue<I, O> createQueue(HoodieWriteConfig config, Function<I, O> transformFunction) {
+    switch (config.getWriteBufferType()) {
+      case RING_BUFFER:
+        return new RingBufferInMemoryQueue<>(config.getWriteBufferLimitBytes(), transformFunction, new DefaultSizeEstimator<>(),
+            config.getWriteBufferRingSize(), config.getWriteBufferWaitStrategy(), false);
+      case BOUNDED_IN_MEMORY:
+      default:
+        return new BoundedInMemoryQueue<>(config.getWriteBufferLimitBytes(), transformFunction, new DefaultSizeEstimator<>());
+    }
+  }
+}
@@ -25,6 +25,7 @@ import org.apache.hudi.common.model.HoodieRecordPayload;
 import org.apache.hudi.common.util.queue.BoundedInMemoryQueueConsumer;
 import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.execution.HoodieLazyInsertIterable.HoodieInsertValueGenResult;
+import org.apache.hudi.index.HoodieIndex;
 import org.apache.hudi.io.HoodieWriteHandle;
 import org.apache.hudi.io.WriteHandleFactory;
 import org.apache.hudi.table.HoodieTable;
@@ -85,7 +86,8 @@ public class CopyOnWriteInsertHandler<T extends HoodieRecordPayload>
       handles.put(partitionPath, handle);
     }
 
-    if (!handle.canWrite(payload.record)) {
+    // A bucket of the bucket index is a single file group, so its handle never rolls over to a new file
+    if (!handle.canWrite(payload.record) && config.getIndexType() != HoodieIndex.IndexType.BUCKET) {
       // Handle is full. Close the handle and add the WriteStatus
       statuses.addAll(handle.close());
       // Open new handle
@@ -21,6 +21,7 @@ package org.apache.hudi.index.bloom;
 import com.beust.jcommander.internal.Lists;
 import org.apache.hudi.client.WriteStatus;
 import org.apache.hudi.common.engine.HoodieEngineContext;
+import org.apache.hudi.common.metrics.Registry;
 import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieRecordLocation;
@@ -183,9 +184,13 @@ public class HoodieBaseBloomIndex<T extends HoodieRecordPayload> extends HoodieI
   List<Pair<String, HoodieKey>> explodeRecordsWithFileComparisons(
       final Map<String, List<BloomIndexFileInfo>> partitionToFileIndexInfo,
       Map<String, List<String>> partitionRecordKeyMap) {
-    IndexFileFilter indexFileFilter =
-        config.useBloomIndexTreebasedFilter() ? new IntervalTreeBasedIndexFileFilter(partitionToFileIndexInfo)
-            : new ListBasedIndexFileFilter(partitionToFileIndexInfo);
+    IndexFileFilter indexFileFilter;
+    if (config.useBloomIndexSortedRangeFilter()) {
+      indexFileFilter = new SortedRangeIndexFileFilter(partitionToFileIndexInfo);
+    } else {
+      indexFileFilter = config.useBloomIndexTreebasedFilter() ? new IntervalTreeBasedIndexFileFilter(partitionToFileIndexInfo)
+          : new ListBasedIndexFileFilter(partitionToFileIndexInfo);
+    }
 
     List<Pair<String, HoodieKey>> fileRecordPairs = new ArrayList<>();
     partitionRecordKeyMap.keySet().forEach(partitionPath ->  {
@@ -215,6 +220,10 @@ public class HoodieBaseBloomIndex<T extends HoodieRecordPayload> extends HoodieI
     while (iterator.hasNext()) {
       keyLookupResults.addAll(iterator.next());
     }
+    if (config.isMetricsOn()) {
+      HoodieBloomIndexMetrics metrics = new HoodieBloomIndexMetrics(Registry.getRegistry(HoodieBloomIndexMetrics.REGISTRY_NAME));
+      keyLookupResults.forEach(metrics::updateMetrics);
+    }
 
     Map<HoodieKey, HoodieRecordLocation> hoodieRecordLocationMap = new HashMap<>();
 
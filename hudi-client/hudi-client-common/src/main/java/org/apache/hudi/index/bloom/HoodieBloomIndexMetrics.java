@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bloom;
+
+import org.apache.hudi.common.metrics.Registry;
+import org.apache.hudi.io.HoodieKeyLookupHandle.KeyLookupResult;
+
+import java.io.Serializable;
+
+/**
+ * Counts the outcome of the key lookups of the bloom index, reported along with the other {@link Registry} metrics.
+ *
+ * <p>The realized false positive rate of the bloom filters is {@code false_positives / (keys_checked - matching_keys)},
+ * to compare with {@code hoodie.index.bloom.fpp}.
+ */
+public class HoodieBloomIndexMetrics implements Serializable {
+
+  public static final String REGISTRY_NAME = "HoodieBloomIndex";
+
+  // Metric names
+  public static final String FILES_CHECKED_STR = "files_checked";
+  public static final String KEYS_CHECKED_STR = "keys_checked";
+  public static final String CANDIDATES_STR = "bloom_filter_candidates";
+  public static final String FALSE_POSITIVES_STR = "false_positives";
+  public static final String MATCHING_KEYS_STR = "matching_keys";
+
+  private final Registry metricsRegistry;
+
+  public HoodieBloomIndexMetrics(Registry metricsRegistry) {
+    this.metricsRegistry = metricsRegistry;
+  }
+
+  public void updateMetrics(KeyLookupResult lookupResult) {
+    updateMetrics(getCounts(lookupResult));
+  }
+
+  /**
+   * Adds counts summed by {@link #addCounts}, e.g. across the lookup results computed by executors.
+   */
+  public void updateMetrics(long[] counts) {
+    metricsRegistry.add(FILES_CHECKED_STR, counts[0]);
+    metricsRegistry.add(KEYS_CHECKED_STR, counts[1]);
+    metricsRegistry.add(CANDIDATES_STR, counts[2]);
+    metricsRegistry.add(FALSE_POSITIVES_STR, counts[3]);
+    metricsRegistry.add(MATCHING_KEYS_STR, counts[4]);
+  }
+
+  /**
+   * Counts of a lookup result : |files checked|keys checked|candidates|false positives|matching keys|.
+   */
+  public static long[] getCounts(KeyLookupResult lookupResult) {
+    return new long[] {1, lookupResult.getTotalKeysChecked(), lookupResult.getNumCandidates(),
+        lookupResult.getNumFalsePositives(), lookupResult.getMatchingRecordKeys().size()};
+  }
+
+  public static long[] emptyCounts() {
+    return new long[5];
+  }
+
+  public static long[] addCounts(long[] counts, long[] otherCounts) {
+    long[] sum = new long[counts.length];
+    for (int i = 0; i < counts.length; i++) {
+      sum[i] = counts[i] + otherCounts[i];
+    }
+    return sum;
+  }
+
+  public Registry registry() {
+    return metricsRegistry;
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bloom;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Record key ranges of files, kept in parallel arrays sorted by min record key, as a compact alternative to the
+ * nodes of a {@link KeyRangeLookupTree}.
+ *
+ * <p>The max record keys of the ranges are the leaves of a complete binary tree, each node of which keeps the greatest
+ * max record key of its subtree. The ranges containing a key are found by a binary search of the last range starting
+ * at or before the key, then by descending the tree into the subtrees of these ranges whose max record key is not
+ * below the key. A lookup costs O(log n) per matching range, however wide the ranges are.
+ */
+class SortedKeyRanges implements Serializable {
+
+  private final String[] minRecordKeys;
+
+  // The number of leaves of the tree, the number of ranges rounded up to a power of two
+  private final int numLeaves;
+
+  // The tree of max record keys, the root at 1, the children of node i at 2i and 2i + 1 and the ranges at the leaves
+  // from numLeaves on, null past the last range
+  private final String[] maxRecordKeyTree;
+
+  private final String[] fileIds;
+
+  /**
+   * @param filesWithKeyRanges Files whose key ranges are known
+   */
+  SortedKeyRanges(List<BloomIndexFileInfo> filesWithKeyRanges) {
+    BloomIndexFileInfo[] files = filesWithKeyRanges.toArray(new BloomIndexFileInfo[0]);
+    Arrays.sort(files, Comparator.comparing(BloomIndexFileInfo::getMinRecordKey));
+    int numFiles = files.length;
+    this.minRecordKeys = new String[numFiles];
+    this.fileIds = new String[numFiles];
+    this.numLeaves = numFiles <= 1 ? 1 : Integer.highestOneBit(numFiles - 1) << 1;
+    this.maxRecordKeyTree = new String[2 * numLeaves];
+    for (int i = 0; i < numFiles; i++) {
+      minRecordKeys[i] = files[i].getMinRecordKey();
+      fileIds[i] = files[i].getFileId();
+      maxRecordKeyTree[numLeaves + i] = files[i].getMaxRecordKey();
+    }
+    for (int node = numLeaves - 1; node > 0; node--) {
+      String leftMax = maxRecordKeyTree[2 * node];
+      String rightMax = maxRecordKeyTree[2 * node + 1];
+      maxRecordKeyTree[node] = rightMax == null || leftMax.compareTo(rightMax) >= 0 ? leftMax : rightMax;
+    }
+  }
+
+  /**
+   * @return the ids of the files whose key range contains the record key.
+   */
+  List<String> getMatchingFiles(String recordKey) {
+    List<String> matchingFiles = new ArrayList<>();
+    collectMatchingFiles(1, 0, numLeaves, countRangesStartingAtOrBefore(recordKey), recordKey, matchingFiles);
+    return matchingFiles;
+  }
+
+  /**
+   * Collects the files of the ranges of the subtree of the node, from {@code nodeStart} (inclusive) to
+   * {@code nodeEnd} (exclusive), which start at or before the record key and end at or after it. The subtrees
+   * starting after the record key or ending before it are skipped as a whole.
+   */
+  private void collectMatchingFiles(int node, int nodeStart, int nodeEnd, int numRangesStartingAtOrBefore, String recordKey,
+                                    List<String> matchingFiles) {
+    if (nodeStart >= numRangesStartingAtOrBefore || maxRecordKeyTree[node] == null || maxRecordKeyTree[node].compareTo(recordKey) < 0) {
+      return;
+    }
+    if (node >= numLeaves) {
+      matchingFiles.add(fileIds[nodeStart]);
+      return;
+    }
+    int middle = (nodeStart + nodeEnd) >>> 1;
+    collectMatchingFiles(2 * node, nodeStart, middle, numRangesStartingAtOrBefore, recordKey, matchingFiles);
+    collectMatchingFiles(2 * node + 1, middle, nodeEnd, numRangesStartingAtOrBefore, recordKey, matchingFiles);
+  }
+
+  /**
+   * Binary search of the number of min record keys not greater than the record key. The search window is halved
+   * log2(n) times whatever the keys, moving its base with a conditional select rather than a branch on the
+   * comparison, which is hard to predict.
+   */
+  private int countRangesStartingAtOrBefore(String recordKey) {
+    int length = minRecordKeys.length;
+    if (length == 0) {
+      return 0;
+    }
+    int base = 0;
+    while (length > 1) {
+      int half = length >>> 1;
+      base = minRecordKeys[base + half].compareTo(recordKey) <= 0 ? base + half : base;
+      length -= half;
+    }
+    return base + (minRecordKeys[base].compareTo(recordKey) <= 0 ? 1 : 0);
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bloom;
+
+import org.apache.hudi.common.util.collection.Pair;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sorted ranges based index look up across all the partitions, see {@link SortedRangeIndexFileFilter}.
+ */
+class SortedRangeGlobalIndexFileFilter implements IndexFileFilter {
+
+  private final SortedKeyRanges keyRanges;
+  private final List<String> filesWithNoRanges = new ArrayList<>();
+  private final Map<String, String> fileIdToPartitionPathMap = new HashMap<>();
+
+  /**
+   * Instantiates {@link SortedRangeGlobalIndexFileFilter}.
+   *
+   * @param partitionToFileIndexInfo Map of partition to List of {@link BloomIndexFileInfo}s
+   */
+  SortedRangeGlobalIndexFileFilter(final Map<String, List<BloomIndexFileInfo>> partitionToFileIndexInfo) {
+    List<BloomIndexFileInfo> filesWithRanges = new ArrayList<>();
+    partitionToFileIndexInfo.forEach((partition, bloomIndexFiles) -> bloomIndexFiles.forEach(indexFile -> {
+      fileIdToPartitionPathMap.put(indexFile.getFileId(), partition);
+      if (indexFile.hasKeyRanges()) {
+        filesWithRanges.add(indexFile);
+      } else {
+        filesWithNoRanges.add(indexFile.getFileId());
+      }
+    }));
+    this.keyRanges = new SortedKeyRanges(filesWithRanges);
+  }
+
+  @Override
+  public Set<Pair<String, String>> getMatchingFilesAndPartition(String partitionPath, String recordKey) {
+    Set<Pair<String, String>> toReturn = new HashSet<>();
+    keyRanges.getMatchingFiles(recordKey).forEach(file -> toReturn.add(Pair.of(fileIdToPartitionPathMap.get(file), file)));
+    filesWithNoRanges.forEach(file -> toReturn.add(Pair.of(fileIdToPartitionPathMap.get(file), file)));
+    return toReturn;
+  }
+}
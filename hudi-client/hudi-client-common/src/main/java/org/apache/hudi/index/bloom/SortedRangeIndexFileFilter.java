@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bloom;
+
+import org.apache.hudi.common.util.collection.Pair;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sorted ranges based index look up. Builds {@link SortedKeyRanges} for every partition and uses them to search for
+ * matching index files for any given recordKey that needs to be looked up.
+ */
+class SortedRangeIndexFileFilter implements IndexFileFilter {
+
+  private final Map<String, SortedKeyRanges> partitionToKeyRanges = new HashMap<>();
+  private final Map<String, List<String>> partitionToFilesWithNoRanges = new HashMap<>();
+
+  /**
+   * Instantiates {@link SortedRangeIndexFileFilter}.
+   *
+   * @param partitionToFileIndexInfo Map of partition to List of {@link BloomIndexFileInfo}s
+   */
+  SortedRangeIndexFileFilter(final Map<String, List<BloomIndexFileInfo>> partitionToFileIndexInfo) {
+    partitionToFileIndexInfo.forEach((partition, bloomIndexFiles) -> {
+      List<BloomIndexFileInfo> filesWithRanges = new ArrayList<>();
+      bloomIndexFiles.forEach(indexFileInfo -> {
+        if (indexFileInfo.hasKeyRanges()) {
+          filesWithRanges.add(indexFileInfo);
+        } else {
+          partitionToFilesWithNoRanges.computeIfAbsent(partition, p -> new ArrayList<>()).add(indexFileInfo.getFileId());
+        }
+      });
+      partitionToKeyRanges.put(partition, new SortedKeyRanges(filesWithRanges));
+    });
+  }
+
+  @Override
+  public Set<Pair<String, String>> getMatchingFilesAndPartition(String partitionPath, String recordKey) {
+    Set<Pair<String, String>> toReturn = new HashSet<>();
+    // could be null, if there are no files in a given partition yet
+    if (partitionToKeyRanges.containsKey(partitionPath)) {
+      partitionToKeyRanges.get(partitionPath).getMatchingFiles(recordKey).forEach(file ->
+          toReturn.add(Pair.of(partitionPath, file)));
+    }
+    if (partitionToFilesWithNoRanges.containsKey(partitionPath)) {
+      partitionToFilesWithNoRanges.get(partitionPath).forEach(file ->
+          toReturn.add(Pair.of(partitionPath, file)));
+    }
+    return toReturn;
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bucket;
+
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.table.HoodieTable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Maps record keys to the buckets of the bucket index, and buckets to their file groups.
+ *
+ * <p>Each partition is hashed into a fixed number of buckets and each bucket is a single file group, whose
+ * file id is derived from the partition path and the bucket id, so that the file group of a record is computed
+ * from its key without any lookup. The file id is the zero padded bucket id followed by the tail of a name based
+ * UUID of the partition path, in the shape of the random file ids of the other indexes, e.g.
+ * {@code 00000012-5c2d-3b5e-9a0e-6d1b3f4c2a11-0}. File ids stay unique across the partitions of the table.
+ */
+public class BucketIdentifier {
+
+  // Suffix appended to a file id prefix by the write handle factories, for the first file they write
+  private static final String FILE_ID_SUFFIX = "-0";
+
+  private BucketIdentifier() {
+  }
+
+  /**
+   * Returns the bucket of a record key.
+   */
+  public static int getBucketId(String recordKey, int numBuckets) {
+    return (recordKey.hashCode() & Integer.MAX_VALUE) % numBuckets;
+  }
+
+  /**
+   * Returns the file id prefix given to the write handle factories, to create the file group of a bucket.
+   */
+  public static String bucketFileIdPrefix(String partitionPath, int bucketId) {
+    String partitionUUID = UUID.nameUUIDFromBytes(partitionPath.getBytes(StandardCharsets.UTF_8)).toString();
+    return String.format("%08d", bucketId) + partitionUUID.substring(8);
+  }
+
+  /**
+   * Returns the file id of the file group of a bucket.
+   */
+  public static String bucketFileId(String partitionPath, int bucketId) {
+    return bucketFileIdPrefix(partitionPath, bucketId) + FILE_ID_SUFFIX;
+  }
+
+  /**
+   * Returns the bucket of a file group of a partition, or -1 if the file group was not written for the bucket index.
+   */
+  public static int bucketIdFromFileId(String partitionPath, String fileId) {
+    if (fileId.length() < 8) {
+      return -1;
+    }
+    try {
+      int bucketId = Integer.parseInt(fileId.substring(0, 8));
+      return bucketFileId(partitionPath, bucketId).equals(fileId) ? bucketId : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Returns the location of the file groups of the buckets of a partition, by bucket id. Buckets which were
+   * never written have no file group.
+   *
+   * @param partitionPath Partition of interest
+   * @param hoodieTable   Instance of {@link HoodieTable} of interest
+   */
+  public static Map<Integer, HoodieRecordLocation> getBucketLocations(String partitionPath, HoodieTable hoodieTable) {
+    Map<Integer, HoodieRecordLocation> bucketLocations = new HashMap<>();
+    hoodieTable.getSliceView().getLatestFileSlices(partitionPath).forEach(fileSlice -> {
+      int bucketId = bucketIdFromFileId(partitionPath, fileSlice.getFileId());
+      if (bucketId >= 0) {
+        bucketLocations.put(bucketId, new HoodieRecordLocation(fileSlice.getBaseInstantTime(), fileSlice.getFileId()));
+      }
+    });
+    return bucketLocations;
+  }
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.rocksdb;
+
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.util.FileIOUtils;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.collection.RocksDBDAO;
+import org.apache.hudi.exception.HoodieIOException;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A local index of the locations of the records, by {@link HoodieKey}, persisted in an embedded RocksDB instance.
+ *
+ * <p>The store outlives the writers: it is opened with the locations left by the last writer of the same store, and
+ * is updated incrementally with the records written by each commit. It also books which partitions were loaded
+ * into the store, for the writers which bootstrap it from the base files.
+ *
+ * <p>Snapshots of the store, consistent copies whose files are hard linked, can be taken at checkpoints, and the
+ * store can be reopened at a snapshot to discard the locations put after it.
+ */
+public class RocksDBIndexStore implements Closeable {
+
+  private static final Logger LOG = LogManager.getLogger(RocksDBIndexStore.class);
+
+  private static final String RECORD_LOCATION_FAMILY = "record_locations";
+  private static final String LOADED_PARTITION_FAMILY = "loaded_partitions";
+
+  private static final String SNAPSHOT_DIR_SUFFIX = "_snapshots";
+
+  private final String storePath;
+  private final String snapshotPath;
+  private final RocksDBDAO rocksDBDAO;
+
+  /**
+   * Opens the store with the given name under {@code rocksDBBasePath}, with its current content.
+   *
+   * @param rocksDBBasePath Directory of the local index stores
+   * @param name Name of the store, e.g. the base path of the table
+   */
+  public RocksDBIndexStore(String rocksDBBasePath, String name) {
+    String storeName = name.replace("/", "_");
+    this.storePath = String.format("%s/%s", rocksDBBasePath, storeName);
+    this.snapshotPath = storePath + SNAPSHOT_DIR_SUFFIX;
+    this.rocksDBDAO = new RocksDBDAO(storeName, rocksDBBasePath, true);
+    this.rocksDBDAO.addColumnFamily(RECORD_LOCATION_FAMILY);
+    this.rocksDBDAO.addColumnFamily(LOADED_PARTITION_FAMILY);
+    LOG.info("Opened the local index store at " + storePath);
+  }
+
+  /**
+   * Opens the store with the given name at one of its snapshots: the content of the store is replaced with the
+   * snapshot, or emptied if the snapshot is not given or does not exist, e.g. when the writer moved to another host.
+   *
+   * @param rocksDBBasePath Directory of the local index stores
+   * @param name Name of the store
+   * @param snapshotId Id of the snapshot to restore
+   */
+  public static RocksDBIndexStore openAtSnapshot(String rocksDBBasePath, String name, Option<Long> snapshotId) {
+    String storePath = String.format("%s/%s", rocksDBBasePath, name.replace("/", "_"));
+    File snapshot = new File(storePath + SNAPSHOT_DIR_SUFFIX, String.valueOf(snapshotId.orElse(-1L)));
+    try {
+      FileIOUtils.deleteDirectory(new File(storePath));
+      if (snapshotId.isPresent() && snapshot.isDirectory()) {
+        LOG.info("Restoring the local index store at " + storePath + " from snapshot " + snapshot);
+        restore(snapshot.toPath(), Paths.get(storePath));
+      } else {
+        LOG.warn("No snapshot " + snapshotId + " of the local index store at " + storePath + ", starting empty");
+      }
+    } catch (IOException e) {
+      throw new HoodieIOException("Failed to restore the local index store at " + storePath, e);
+    }
+    return new RocksDBIndexStore(rocksDBBasePath, name);
+  }
+
+  /**
+   * Copies the files of a snapshot. The table files are immutable and hard linked, the others, like the manifest
+   * which RocksDB appends to, are copied.
+   */
+  private static void restore(Path snapshot, Path target) throws IOException {
+    Files.createDirectories(target);
+    try (Stream<Path> files = Files.list(snapshot)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Path targetFile = target.resolve(file.getFileName());
+        if (file.getFileName().toString().endsWith(".sst")) {
+          Files.createLink(targetFile, file);
+        } else {
+          Files.copy(file, targetFile);
+        }
+      }
+    }
+  }
+
+  /**
+   * Key of a record in the store: the partition path prefixed with its length, then the record key.
+   */
+  private static String toStoreKey(HoodieKey key) {
+    return key.getPartitionPath().length() + ":" + key.getPartitionPath() + key.getRecordKey();
+  }
+
+  public Option<HoodieRecordLocation> get(HoodieKey key) {
+    return Option.ofNullable(rocksDBDAO.get(RECORD_LOCATION_FAMILY, toStoreKey(key)));
+  }
+
+  public void put(HoodieKey key, HoodieRecordLocation location) {
+    rocksDBDAO.put(RECORD_LOCATION_FAMILY, toStoreKey(key), location);
+  }
+
+  /**
+   * Puts the location of all the given keys at once, e.g. the keys of a base file.
+   */
+  public void putAll(List<HoodieKey> keys, HoodieRecordLocation location) {
+    rocksDBDAO.writeBatch(batch -> keys.forEach(key -> rocksDBDAO.putInBatch(batch, RECORD_LOCATION_FAMILY, toStoreKey(key), location)));
+  }
+
+  /**
+   * Updates the store with the records successfully written by a commit: puts the location of the inserted records,
+   * or deletes them if they were deleted. The updated records stay in the same file group, so their location is kept.
+   * The records of a write status are written at once.
+   */
+  public void update(List<WriteStatus> writeStatuses) {
+    for (WriteStatus writeStatus : writeStatuses) {
+      rocksDBDAO.writeBatch(batch -> {
+        for (HoodieRecord record : writeStatus.getWrittenRecords()) {
+          if (!writeStatus.isErrored(record.getKey())) {
+            Option<HoodieRecordLocation> newLocation = record.getNewLocation();
+            if (newLocation.isPresent()) {
+              if (record.getCurrentLocation() != null) {
+                // This is an update, no need to update index
+                continue;
+              }
+              rocksDBDAO.putInBatch(batch, RECORD_LOCATION_FAMILY, toStoreKey(record.getKey()), newLocation.get());
+            } else {
+              // Delete existing index for a deleted record
+              rocksDBDAO.deleteInBatch(batch, RECORD_LOCATION_FAMILY, toStoreKey(record.getKey()));
+            }
+          }
+        }
+      });
+    }
+  }
+
+  public boolean isPartitionLoaded(String partitionPath) {
+    return rocksDBDAO.get(LOADED_PARTITION_FAMILY, partitionPath) != null;
+  }
+
+  public void markPartitionLoaded(String partitionPath) {
+    rocksDBDAO.put(LOADED_PARTITION_FAMILY, partitionPath, Boolean.TRUE);
+  }
+
+  /**
+   * Removes all the locations and loaded partitions.
+   */
+  public void clear() {
+    rocksDBDAO.dropColumnFamily(RECORD_LOCATION_FAMILY);
+    rocksDBDAO.dropColumnFamily(LOADED_PARTITION_FAMILY);
+    rocksDBDAO.addColumnFamily(RECORD_LOCATION_FAMILY);
+    rocksDBDAO.addColumnFamily(LOADED_PARTITION_FAMILY);
+  }
+
+  /**
+   * Takes a snapshot of the store with the given id, replacing the previous snapshot of the same id if any.
+   */
+  public void snapshot(long snapshotId) {
+    File snapshot = new File(snapshotPath, String.valueOf(snapshotId));
+    try {
+      FileIOUtils.deleteDirectory(snapshot);
+      FileIOUtils.mkdir(new File(snapshotPath));
+    } catch (IOException e) {
+      throw new HoodieIOException("Failed to prepare snapshot " + snapshot, e);
+    }
+    rocksDBDAO.createCheckpoint(snapshot.getPath());
+  }
+
+  /**
+   * Deletes the snapshots older than the given one.
+   */
+  public void cleanSnapshotsBefore(long snapshotId) {
+    File[] snapshots = new File(snapshotPath).listFiles();
+    if (snapshots == null) {
+      return;
+    }
+    for (File snapshot : snapshots) {
+      try {
+        if (Long.parseLong(snapshot.getName()) < snapshotId) {
+          FileIOUtils.deleteDirectory(snapshot);
+        }
+      } catch (NumberFormatException e) {
+        LOG.warn("Unexpected file in the snapshots of the local index store: " + snapshot);
+      } catch (IOException e) {
+        throw new HoodieIOException("Failed to delete snapshot " + snapshot, e);
+      }
+    }
+  }
+
+  public String getStorePath() {
+    return storePath;
+  }
+
+  @Override
+  public void close() {
+    rocksDBDAO.close();
+  }
+}
@@ -36,10 +36,12 @@ import org.apache.hudi.common.model.IOType;
 import org.apache.hudi.common.table.log.AppendResult;
 import org.apache.hudi.common.table.log.HoodieLogFormat;
 import org.apache.hudi.common.table.log.HoodieLogFormat.Writer;
+import org.apache.hudi.common.table.log.block.HoodieAvroDataBlockBuffer;
 import org.apache.hudi.common.table.log.block.HoodieDataBlock;
 import org.apache.hudi.common.table.log.block.HoodieDeleteBlock;
 import org.apache.hudi.common.table.log.block.HoodieLogBlock;
 import org.apache.hudi.common.table.log.block.HoodieLogBlock.HeaderMetadataType;
+import org.apache.hudi.common.table.log.block.HoodieLogBlockCompressionCodec;
 import org.apache.hudi.common.table.view.TableFileSystemView.SliceView;
 import org.apache.hudi.common.util.DefaultSizeEstimator;
 import org.apache.hudi.common.util.Option;
@@ -79,6 +81,8 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
   private final List<IndexedRecord> recordList = new ArrayList<>();
   // Buffer for holding records (to be deleted) in memory before they are flushed to disk
   private final List<HoodieKey> keysToDelete = new ArrayList<>();
+  // Buffer the records of avro data blocks are encoded into as they arrive, instead of the record list, if enabled
+  private final Option<HoodieAvroDataBlockBuffer> recordBuffer;
   // Incoming records to be written to logs.
   protected Iterator<HoodieRecord<T>> recordItr;
   // Writer to log into the file group's latest slice.
@@ -115,6 +119,10 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
     this.recordItr = recordItr;
     sizeEstimator = new DefaultSizeEstimator();
     this.statuses = new ArrayList<>();
+    this.recordBuffer = config.isLogFileDataBlockStreamingEnabled()
+        && hoodieTable.getLogDataBlockFormat() == HoodieLogBlock.HoodieLogBlockType.AVRO_DATA_BLOCK
+        ? Option.of(new HoodieAvroDataBlockBuffer(writerSchemaWithMetafields, config.getLogFileDataBlockCompressionCodec()))
+        : Option.empty();
   }
 
   public HoodieAppendHandle(HoodieWriteConfig config, String instantTime, HoodieTable<T, I, K, O> hoodieTable,
@@ -337,10 +345,16 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
     try {
       header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, instantTime);
       header.put(HoodieLogBlock.HeaderMetadataType.SCHEMA, writerSchemaWithMetafields.toString());
+      if (config.getLogFileDataBlockCompressionCodec() != HoodieLogBlockCompressionCodec.NONE) {
+        header.put(HoodieLogBlock.HeaderMetadataType.COMPRESSION_CODEC, config.getLogFileDataBlockCompressionCodec().name());
+      }
       List<HoodieLogBlock> blocks = new ArrayList<>(2);
       if (recordList.size() > 0) {
         blocks.add(HoodieDataBlock.getBlock(hoodieTable.getLogDataBlockFormat(), recordList, header));
       }
+      if (recordBuffer.isPresent() && recordBuffer.get().getNumRecords() > 0) {
+        blocks.add(recordBuffer.get().toBlock(header));
+      }
       if (keysToDelete.size() > 0) {
         blocks.add(new HoodieDeleteBlock(keysToDelete.toArray(new HoodieKey[keysToDelete.size()]), header));
       }
@@ -350,6 +364,9 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
         processAppendResult(appendResult);
         recordList.clear();
         keysToDelete.clear();
+        if (recordBuffer.isPresent()) {
+          recordBuffer.get().reset();
+        }
       }
     } catch (Exception e) {
       throw new HoodieAppendException("Failed while appending records to " + writer.getLogFile().getPath(), e);
@@ -443,7 +460,13 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
       record.seal();
     }
     Option<IndexedRecord> indexedRecord = getIndexedRecord(record);
-    if (indexedRecord.isPresent()) {
+    if (indexedRecord.isPresent() && recordBuffer.isPresent()) {
+      try {
+        recordBuffer.get().append(indexedRecord.get());
+      } catch (IOException e) {
+        throw new HoodieAppendException("Failed to encode record " + record.getKey(), e);
+      }
+    } else if (indexedRecord.isPresent()) {
       recordList.add(indexedRecord.get());
     } else {
       keysToDelete.add(record.getKey());
@@ -455,8 +478,11 @@ public class HoodieAppendHandle<T extends HoodieRecordPayload, I, K, O> extends
    * Checks if the number of records have reached the set threshold and then flushes the records to disk.
    */
   private void flushToDiskIfRequired(HoodieRecord record) {
-    // Append if max number of records reached to achieve block size
-    if (numberOfRecords >= (int) (maxBlockSize / averageRecordSize)) {
+    // Append if max number of records reached to achieve block size, or if the encoded records reached it
+    boolean isBlockFull = recordBuffer.isPresent()
+        ? recordBuffer.get().getSize() + keysToDelete.size() * averageRecordSize >= maxBlockSize
+        : numberOfRecords >= (int) (maxBlockSize / averageRecordSize);
+    if (isBlockFull) {
       // Recompute averageRecordSize before writing a new block and update existing value with
       // avg of new and old
       LOG.info("AvgRecordSize => " + averageRecordSize);
@@ -210,6 +210,7 @@ public class HoodieCreateHandle<T extends HoodieRecordPayload, I, K, O> extends
     stat.setTotalWriteErrors(writeStatus.getTotalErrorRecords());
     RuntimeStats runtimeStats = new RuntimeStats();
     runtimeStats.setTotalCreateTime(timer.endTimer());
+    fileWriter.updateRuntimeStats(runtimeStats);
     stat.setRuntimeStats(runtimeStats);
     writeStatus.setStat(stat);
   }
@@ -23,9 +23,11 @@ import org.apache.hudi.common.model.HoodieBaseFile;
 import org.apache.hudi.common.model.HoodieRecordPayload;
 import org.apache.hudi.common.model.HoodieTableType;
 import org.apache.hudi.common.util.HoodieTimer;
+import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.exception.HoodieIndexException;
+import org.apache.hudi.metadata.HoodieMetadataPayload;
 import org.apache.hudi.table.HoodieTable;
 
 import org.apache.hadoop.conf.Configuration;
@@ -46,22 +48,45 @@ public class HoodieKeyLookupHandle<T extends HoodieRecordPayload, I, K, O> exten
 
   private static final Logger LOG = LogManager.getLogger(HoodieKeyLookupHandle.class);
 
+  // Number of keys probed against the bloom filter at once
+  private static final int BLOOM_FILTER_PROBE_BATCH_SIZE = 1024;
+
   private final HoodieTableType tableType;
 
   private final BloomFilter bloomFilter;
 
   private final List<String> candidateRecordKeys;
 
+  private final List<String> pendingRecordKeys;
+
   private long totalKeysChecked;
 
   public HoodieKeyLookupHandle(HoodieWriteConfig config, HoodieTable<T, I, K, O> hoodieTable,
                                Pair<String, String> partitionPathFilePair) {
+    this(config, hoodieTable, partitionPathFilePair, Option.empty());
+  }
+
+  /**
+   * Creates a handle checking keys against the bloom filter read from the Metadata Table. The bloom filter is read
+   * from the footer of the latest base file instead if the Metadata Table has no entry for it.
+   *
+   * @param bloomFilterMetadata Entry of the file group in the bloom filter partition of the Metadata Table, if any
+   */
+  public HoodieKeyLookupHandle(HoodieWriteConfig config, HoodieTable<T, I, K, O> hoodieTable,
+                               Pair<String, String> partitionPathFilePair, Option<HoodieMetadataPayload> bloomFilterMetadata) {
     super(config, null, hoodieTable, partitionPathFilePair);
     this.tableType = hoodieTable.getMetaClient().getTableType();
     this.candidateRecordKeys = new ArrayList<>();
+    this.pendingRecordKeys = new ArrayList<>(BLOOM_FILTER_PROBE_BATCH_SIZE);
     this.totalKeysChecked = 0;
     HoodieTimer timer = new HoodieTimer().startTimer();
 
+    String latestFileName = getLatestDataFile().getFileName();
+    if (bloomFilterMetadata.isPresent() && bloomFilterMetadata.get().getBloomFilterFileName().map(latestFileName::equals).orElse(false)) {
+      this.bloomFilter = bloomFilterMetadata.get().getBloomFilter().get();
+      LOG.info(String.format("Read bloom filter of %s from metadata table in %d ms", partitionPathFilePair, timer.endTimer()));
+      return;
+    }
     try {
       this.bloomFilter = createNewFileReader().readBloomFilter();
     } catch (IOException e) {
@@ -77,7 +102,7 @@ public class HoodieKeyLookupHandle<T extends HoodieRecordPayload, I, K, O> exten
                                                  Path filePath) throws HoodieIndexException {
     List<String> foundRecordKeys = new ArrayList<>();
     try {
-      // Load all rowKeys from the file, to double-confirm
+      // Look up the candidates in the record keys of the file, to double-confirm
       if (!candidateRecordKeys.isEmpty()) {
         HoodieTimer timer = new HoodieTimer().startTimer();
         Set<String> fileRowKeys = createNewFileReader().filterRowKeys(new HashSet<>(candidateRecordKeys));
@@ -95,23 +120,37 @@ public class HoodieKeyLookupHandle<T extends HoodieRecordPayload, I, K, O> exten
   }
 
   /**
-   * Adds the key for look up.
+   * Adds the key for look up. The keys are checked against the bloom filter of the current file by batches.
    */
   public void addKey(String recordKey) {
-    // check record key against bloom filter of current file & add to possible keys if needed
-    if (bloomFilter.mightContain(recordKey)) {
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Record key " + recordKey + " matches bloom filter in  " + partitionPathFilePair);
+    pendingRecordKeys.add(recordKey);
+    if (pendingRecordKeys.size() >= BLOOM_FILTER_PROBE_BATCH_SIZE) {
+      probePendingKeys();
+    }
+  }
+
+  /**
+   * Checks the pending keys against the bloom filter of the current file & adds them to possible keys if needed.
+   */
+  private void probePendingKeys() {
+    boolean[] mightContain = bloomFilter.mightContain(pendingRecordKeys);
+    for (int i = 0; i < mightContain.length; i++) {
+      if (mightContain[i]) {
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Record key " + pendingRecordKeys.get(i) + " matches bloom filter in  " + partitionPathFilePair);
+        }
+        candidateRecordKeys.add(pendingRecordKeys.get(i));
       }
-      candidateRecordKeys.add(recordKey);
     }
-    totalKeysChecked++;
+    totalKeysChecked += pendingRecordKeys.size();
+    pendingRecordKeys.clear();
   }
 
   /**
    * Of all the keys, that were added, return a list of keys that were actually found in the file group.
    */
   public KeyLookupResult getLookupResult() {
+    probePendingKeys();
     if (LOG.isDebugEnabled()) {
       LOG.debug("#The candidate row keys for " + partitionPathFilePair + " => " + candidateRecordKeys);
     }
@@ -119,11 +158,13 @@ public class HoodieKeyLookupHandle<T extends HoodieRecordPayload, I, K, O> exten
     HoodieBaseFile dataFile = getLatestDataFile();
     List<String> matchingKeys =
         checkCandidatesAgainstFile(hoodieTable.getHadoopConf(), candidateRecordKeys, new Path(dataFile.getPath()));
+    KeyLookupResult lookupResult = new KeyLookupResult(partitionPathFilePair.getRight(), partitionPathFilePair.getLeft(),
+        dataFile.getCommitTime(), matchingKeys, totalKeysChecked, candidateRecordKeys.size());
     LOG.info(
-        String.format("Total records (%d), bloom filter candidates (%d)/fp(%d), actual matches (%d)", totalKeysChecked,
-            candidateRecordKeys.size(), candidateRecordKeys.size() - matchingKeys.size(), matchingKeys.size()));
-    return new KeyLookupResult(partitionPathFilePair.getRight(), partitionPathFilePair.getLeft(),
-        dataFile.getCommitTime(), matchingKeys);
+        String.format("Total records (%d), bloom filter candidates (%d)/fp(%d), actual matches (%d), false positive rate (%f)",
+            totalKeysChecked, candidateRecordKeys.size(), lookupResult.getNumFalsePositives(), matchingKeys.size(),
+            lookupResult.getFalsePositiveRate()));
+    return lookupResult;
   }
 
   /**
@@ -135,13 +176,26 @@ public class HoodieKeyLookupHandle<T extends HoodieRecordPayload, I, K, O> exten
     private final String baseInstantTime;
     private final List<String> matchingRecordKeys;
     private final String partitionPath;
+    private final long totalKeysChecked;
+    private final long numCandidates;
 
     public KeyLookupResult(String fileId, String partitionPath, String baseInstantTime,
                            List<String> matchingRecordKeys) {
+      this(fileId, partitionPath, baseInstantTime, matchingRecordKeys, matchingRecordKeys.size(), matchingRecordKeys.size());
+    }
+
+    /**
+     * @param totalKeysChecked Number of keys checked against the bloom filter of the file
+     * @param numCandidates    Number of keys the bloom filter might contain, the matching keys and the false positives
+     */
+    public KeyLookupResult(String fileId, String partitionPath, String baseInstantTime,
+                           List<String> matchingRecordKeys, long totalKeysChecked, long numCandidates) {
       this.fileId = fileId;
       this.partitionPath = partitionPath;
       this.baseInstantTime = baseInstantTime;
       this.matchingRecordKeys = matchingRecordKeys;
+      this.totalKeysChecked = totalKeysChecked;
+      this.numCandidates = numCandidates;
     }
 
     public String getFileId() {
@@ -159,5 +213,26 @@ public class HoodieKeyLookupHandle<T extends HoodieRecordPayload, I, K, O> exten
     public List<String> getMatchingRecordKeys() {
       return matchingRecordKeys;
     }
+
+    public long getTotalKeysChecked() {
+      return totalKeysChecked;
+    }
+
+    public long getNumCandidates() {
+      return numCandidates;
+    }
+
+    public long getNumFalsePositives() {
+      return numCandidates - matchingRecordKeys.size();
+    }
+
+    /**
+     * @return the realized false positive rate of the bloom filter, the share of the keys absent from the file which
+     * the bloom filter might contain, or 0 if all the keys are in the file.
+     */
+    public double getFalsePositiveRate() {
+      long numAbsentKeys = totalKeysChecked - matchingRecordKeys.size();
+      return numAbsentKeys > 0 ? (double) getNumFalsePositives() / numAbsentKeys : 0;
+    }
   }
 }
@@ -198,7 +198,8 @@ public class HoodieMergeHandle<T extends HoodieRecordPayload, I, K, O> extends H
       long memoryForMerge = IOUtils.getMaxMemoryPerPartitionMerge(taskContextSupplier, config.getProps());
       LOG.info("MaxMemoryPerPartitionMerge => " + memoryForMerge);
       this.keyToNewRecords = new ExternalSpillableMap<>(memoryForMerge, config.getSpillableMapBasePath(),
-              new DefaultSizeEstimator(), new HoodieRecordSizeEstimator(writerSchema));
+              new DefaultSizeEstimator(), new HoodieRecordSizeEstimator(writerSchema), config.getSpillableDiskMapType(),
+              config.isSpillableMapCompactKeyIndexEnabled(), config.getSpillableMapSerializer());
     } catch (IOException io) {
       throw new HoodieIOException("Cannot instantiate an ExternalSpillableMap", io);
     }
@@ -235,7 +236,7 @@ public class HoodieMergeHandle<T extends HoodieRecordPayload, I, K, O> extends H
         + ((ExternalSpillableMap) keyToNewRecords).getSizeOfFileOnDiskInBytes());
   }
 
-  private boolean writeUpdateRecord(HoodieRecord<T> hoodieRecord, Option<IndexedRecord> indexedRecord) {
+  protected boolean writeUpdateRecord(HoodieRecord<T> hoodieRecord, Option<IndexedRecord> indexedRecord) {
     if (indexedRecord.isPresent()) {
       updatedRecordsWritten++;
     }
@@ -334,12 +335,15 @@ public class HoodieMergeHandle<T extends HoodieRecordPayload, I, K, O> extends H
         }
       }
 
-      ((ExternalSpillableMap) keyToNewRecords).close();
+      if (keyToNewRecords instanceof ExternalSpillableMap) {
+        ((ExternalSpillableMap) keyToNewRecords).close();
+      }
       writtenRecordKeys.clear();
 
       if (fileWriter != null) {
         fileWriter.close();
       }
+      closeNewFile();
 
       long fileSizeInBytes = FSUtils.getFileSize(fs, newFilePath);
       HoodieWriteStat stat = writeStatus.getStat();
@@ -353,6 +357,9 @@ public class HoodieMergeHandle<T extends HoodieRecordPayload, I, K, O> extends H
       stat.setTotalWriteErrors(writeStatus.getTotalErrorRecords());
       RuntimeStats runtimeStats = new RuntimeStats();
       runtimeStats.setTotalUpsertTime(timer.endTimer());
+      if (fileWriter != null) {
+        fileWriter.updateRuntimeStats(runtimeStats);
+      }
       stat.setRuntimeStats(runtimeStats);
 
       performMergeDataValidationCheck(writeStatus);
@@ -366,6 +373,12 @@ public class HoodieMergeHandle<T extends HoodieRecordPayload, I, K, O> extends H
     }
   }
 
+  /**
+   * Called once the file writer is closed, to complete the new file if it is not entirely written by the file writer.
+   */
+  protected void closeNewFile() throws IOException {
+  }
+
   public void performMergeDataValidationCheck(WriteStatus writeStatus) {
     if (!config.isMergeDataValidationCheckEnabled()) {
       return;
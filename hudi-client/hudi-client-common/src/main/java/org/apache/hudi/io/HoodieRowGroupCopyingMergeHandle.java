@@ -0,0 +1,339 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.io;
+
+import org.apache.hudi.avro.HoodieAvroWriteSupport;
+import org.apache.hudi.common.bloom.BloomFilter;
+import org.apache.hudi.common.bloom.BloomFilterTypeCode;
+import org.apache.hudi.common.engine.TaskContextSupplier;
+import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.HoodieFileFormat;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.model.HoodieWriteStat.RuntimeStats;
+import org.apache.hudi.common.model.IOType;
+import org.apache.hudi.common.util.ParquetReaderIterator;
+import org.apache.hudi.common.util.ParquetUtils;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieIOException;
+import org.apache.hudi.io.storage.HoodieFileWriter;
+import org.apache.hudi.table.HoodieTable;
+import org.apache.hudi.table.MarkerFiles;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.parquet.avro.AvroParquetReader;
+import org.apache.parquet.avro.AvroReadSupport;
+import org.apache.parquet.avro.AvroSchemaConverter;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.PrimitiveComparator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Merge handle which copies the row groups of the old parquet base file that can not contain any of the incoming
+ * record keys byte for byte into the new base file, and only decodes and merges the other row groups.
+ *
+ * <p>A row group can be copied when none of the incoming keys is within the range of the record key column statistics
+ * of the row group. The records of the row groups to rewrite, merged with the incoming records, and the inserts are
+ * written to a temporary base file of the partition, next to the new base file. On close, the new base file is made of
+ * the copied row groups followed by the row groups of the temporary file, which is then deleted. The temporary file has
+ * a marker of its own, so it is cleaned up by the rollback of the instant, or by the reconciliation of the markers with
+ * the write stats on commit, if the handle fails before deleting it. The footer keeps the bloom filter of the old
+ * file, along with the keys written, and the widest of the old and written record key ranges, so it may answer for
+ * keys that got deleted.
+ *
+ * <p>Copying is skipped, and this handle behaves as {@link HoodieMergeHandle}, when the old file is not a plain
+ * parquet file written with the current schema, or lacks the bloom filter or record key range in its footer.
+ */
+public class HoodieRowGroupCopyingMergeHandle<T extends HoodieRecordPayload, I, K, O> extends HoodieMergeHandle<T, I, K, O> {
+
+  private static final Logger LOG = LogManager.getLogger(HoodieRowGroupCopyingMergeHandle.class);
+
+  // Order of the statistics of the string columns
+  private static final Comparator<Binary> KEY_COMPARATOR = PrimitiveComparator.UNSIGNED_LEXICOGRAPHICAL_BINARY_COMPARATOR;
+
+  // Suffix of the file id of the temporary file
+  private static final String REWRITTEN_FILE_ID_SUFFIX = "-rewritten";
+
+  // NOTE: The fields below are set while the parent constructor creates the file writer, they must not be initialized
+  // in their declaration, which would run after.
+  private List<BlockMetaData> rowGroupsToCopy;
+  private List<BlockMetaData> rowGroupsToRewrite;
+  // Temporary file of the rewritten records and the inserts, null if no row group is copied
+  private Path rewrittenFilePath;
+  private Path rewrittenFileMarkerPath;
+  private BloomFilter bloomFilter;
+  private String minRecordKey;
+  private String maxRecordKey;
+
+  private ParquetReaderIterator<GenericRecord> rowGroupsIterator;
+
+  public HoodieRowGroupCopyingMergeHandle(HoodieWriteConfig config, String instantTime, HoodieTable<T, I, K, O> hoodieTable,
+                                          Iterator<HoodieRecord<T>> recordItr, String partitionPath, String fileId,
+                                          TaskContextSupplier taskContextSupplier) {
+    super(config, instantTime, hoodieTable, recordItr, partitionPath, fileId, taskContextSupplier);
+  }
+
+  @Override
+  protected HoodieFileWriter createNewFileWriter(String instantTime, Path path, HoodieTable<T, I, K, O> hoodieTable,
+      HoodieWriteConfig config, Schema schema, TaskContextSupplier taskContextSupplier) throws IOException {
+    planRowGroupCopies(schema);
+    if (rowGroupsToCopy.isEmpty()) {
+      return super.createNewFileWriter(instantTime, path, hoodieTable, config, schema, taskContextSupplier);
+    }
+    String rewrittenFileName = FSUtils.makeDataFileName(instantTime, writeToken, fileId + REWRITTEN_FILE_ID_SUFFIX,
+        hoodieTable.getBaseFileExtension());
+    rewrittenFileMarkerPath = new MarkerFiles(hoodieTable, instantTime).create(partitionPath, rewrittenFileName, IOType.CREATE);
+    rewrittenFilePath = new Path(path.getParent(), rewrittenFileName);
+    LOG.info(String.format("Copying %d out of %d row groups of %s, rewriting the others through %s", rowGroupsToCopy.size(),
+        rowGroupsToCopy.size() + rowGroupsToRewrite.size(), getOldFilePath(), rewrittenFilePath));
+    return new KeyTrackingFileWriter(super.createNewFileWriter(instantTime, rewrittenFilePath, hoodieTable, config, schema,
+        taskContextSupplier));
+  }
+
+  /**
+   * Splits the row groups of the old file between the ones to copy and the ones to rewrite.
+   */
+  private void planRowGroupCopies(Schema schema) {
+    Configuration conf = hoodieTable.getHadoopConf();
+    ParquetUtils parquetUtils = new ParquetUtils();
+    ParquetMetadata oldFileFooter = parquetUtils.readMetadata(conf, getOldFilePath());
+    rowGroupsToCopy = new ArrayList<>();
+    rowGroupsToRewrite = new ArrayList<>(oldFileFooter.getBlocks());
+    if (!canCopyRowGroups(conf, oldFileFooter, schema)) {
+      return;
+    }
+    bloomFilter = parquetUtils.readBloomFilterFromMetadata(conf, getOldFilePath());
+    Map<String, String> keyValueMetadata = oldFileFooter.getFileMetaData().getKeyValueMetaData();
+    minRecordKey = keyValueMetadata.get(HoodieAvroWriteSupport.HOODIE_MIN_RECORD_KEY_FOOTER);
+    maxRecordKey = keyValueMetadata.get(HoodieAvroWriteSupport.HOODIE_MAX_RECORD_KEY_FOOTER);
+    if (bloomFilter == null || minRecordKey == null || maxRecordKey == null) {
+      return;
+    }
+
+    List<Binary> incomingKeys = new ArrayList<>();
+    keyToNewRecords.keySet().forEach(key -> incomingKeys.add(Binary.fromString(key)));
+    incomingKeys.sort(KEY_COMPARATOR);
+    rowGroupsToRewrite.clear();
+    for (BlockMetaData rowGroup : oldFileFooter.getBlocks()) {
+      if (mayContainAny(rowGroup, incomingKeys)) {
+        rowGroupsToRewrite.add(rowGroup);
+      } else {
+        rowGroupsToCopy.add(rowGroup);
+      }
+    }
+  }
+
+  private boolean canCopyRowGroups(Configuration conf, ParquetMetadata oldFileFooter, Schema schema) {
+    return !baseFileForMerge().getBootstrapBaseFile().isPresent()
+        && !config.shouldUseExternalSchemaTransformation()
+        && getOldFilePath().getName().endsWith(HoodieFileFormat.PARQUET.getFileExtension())
+        && oldFileFooter.getFileMetaData().getSchema().equals(new AvroSchemaConverter(conf).convert(schema));
+  }
+
+  /**
+   * Checks whether any of the sorted keys is within the range of the record key column statistics of the row group.
+   */
+  @SuppressWarnings("unchecked")
+  private static boolean mayContainAny(BlockMetaData rowGroup, List<Binary> sortedKeys) {
+    Statistics<Binary> stats = null;
+    for (ColumnChunkMetaData column : rowGroup.getColumns()) {
+      if (column.getPath().size() == 1 && column.getPath().toDotString().equals(HoodieRecord.RECORD_KEY_METADATA_FIELD)) {
+        stats = column.getStatistics();
+      }
+    }
+    if (stats == null || !stats.hasNonNullValue() || !KEY_COMPARATOR.equals(stats.comparator())) {
+      return true;
+    }
+    int index = Collections.binarySearch(sortedKeys, stats.genericGetMin(), KEY_COMPARATOR);
+    // the first key not less than the min of the row group
+    int firstKeyInRange = index >= 0 ? index : -index - 1;
+    return firstKeyInRange < sortedKeys.size() && KEY_COMPARATOR.compare(sortedKeys.get(firstKeyInRange), stats.genericGetMax()) <= 0;
+  }
+
+  /**
+   * @return whether some row groups of the old file are copied, in which case only the records of
+   * {@link #getRecordIteratorOfRowGroupsToRewrite} must be merged.
+   */
+  public boolean copiesRowGroups() {
+    return rewrittenFilePath != null;
+  }
+
+  /**
+   * @return the records of the row groups of the old file which are not copied.
+   */
+  public Iterator<GenericRecord> getRecordIteratorOfRowGroupsToRewrite(Configuration conf, Schema readSchema) {
+    // Contiguous row groups are read together, each range selects the row groups whose mid point is within it
+    List<long[]> fileRanges = new ArrayList<>();
+    for (BlockMetaData rowGroup : rowGroupsToRewrite) {
+      long end = rowGroup.getStartingPos() + rowGroup.getCompressedSize();
+      if (!fileRanges.isEmpty() && fileRanges.get(fileRanges.size() - 1)[1] == rowGroup.getStartingPos()) {
+        fileRanges.get(fileRanges.size() - 1)[1] = end;
+      } else {
+        fileRanges.add(new long[] {rowGroup.getStartingPos(), end});
+      }
+    }
+    Configuration readConf = new Configuration(conf);
+    AvroReadSupport.setAvroReadSchema(readConf, readSchema);
+    Iterator<long[]> fileRangeIterator = fileRanges.iterator();
+    return new Iterator<GenericRecord>() {
+      @Override
+      public boolean hasNext() {
+        try {
+          while (rowGroupsIterator == null || !rowGroupsIterator.hasNext()) {
+            closeRowGroupsIterator();
+            if (!fileRangeIterator.hasNext()) {
+              return false;
+            }
+            long[] fileRange = fileRangeIterator.next();
+            rowGroupsIterator = new ParquetReaderIterator<>(AvroParquetReader.<GenericRecord>builder(getOldFilePath())
+                .withConf(readConf).withFileRange(fileRange[0], fileRange[1]).build());
+          }
+          return true;
+        } catch (IOException e) {
+          throw new HoodieIOException("Failed to read row groups of " + getOldFilePath(), e);
+        }
+      }
+
+      @Override
+      public GenericRecord next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return rowGroupsIterator.next();
+      }
+    };
+  }
+
+  private void closeRowGroupsIterator() throws IOException {
+    if (rowGroupsIterator != null) {
+      rowGroupsIterator.close();
+      rowGroupsIterator = null;
+    }
+  }
+
+  @Override
+  protected void closeNewFile() throws IOException {
+    closeRowGroupsIterator();
+    if (!copiesRowGroups()) {
+      return;
+    }
+    try {
+      Configuration conf = hoodieTable.getHadoopConf();
+      ParquetMetadata rewrittenFileFooter = new ParquetUtils().readMetadata(conf, rewrittenFilePath);
+      ParquetFileWriter parquetFileWriter = new ParquetFileWriter(conf, rewrittenFileFooter.getFileMetaData().getSchema(),
+          newFilePath, ParquetFileWriter.Mode.CREATE, config.getParquetBlockSize(), 0);
+      parquetFileWriter.start();
+      try (FSDataInputStream oldFileInputStream = getOldFilePath().getFileSystem(conf).open(getOldFilePath())) {
+        parquetFileWriter.appendRowGroups(oldFileInputStream, rowGroupsToCopy, false);
+      }
+      parquetFileWriter.appendFile(conf, rewrittenFilePath);
+
+      Map<String, String> extraMetadata = new HashMap<>(rewrittenFileFooter.getFileMetaData().getKeyValueMetaData());
+      extraMetadata.put(HoodieAvroWriteSupport.HOODIE_AVRO_BLOOM_FILTER_METADATA_KEY, bloomFilter.serializeToString());
+      extraMetadata.put(HoodieAvroWriteSupport.HOODIE_MIN_RECORD_KEY_FOOTER, minRecordKey);
+      extraMetadata.put(HoodieAvroWriteSupport.HOODIE_MAX_RECORD_KEY_FOOTER, maxRecordKey);
+      if (bloomFilter.getBloomFilterTypeCode() != BloomFilterTypeCode.SIMPLE) {
+        extraMetadata.put(HoodieAvroWriteSupport.HOODIE_BLOOM_FILTER_TYPE_CODE, bloomFilter.getBloomFilterTypeCode().name());
+      } else {
+        extraMetadata.remove(HoodieAvroWriteSupport.HOODIE_BLOOM_FILTER_TYPE_CODE);
+      }
+      // the rewritten records follow the copied row groups, regardless of their keys
+      extraMetadata.remove(HoodieAvroWriteSupport.HOODIE_SORTED_BY_RECORD_KEY_FOOTER);
+      parquetFileWriter.end(extraMetadata);
+    } finally {
+      // the marker goes with the file, the reconciliation on commit expects the files of the markers to exist
+      if (fs.delete(rewrittenFilePath, false)) {
+        fs.delete(rewrittenFileMarkerPath, false);
+      }
+    }
+
+    recordsWritten += rowGroupsToCopy.stream().mapToLong(BlockMetaData::getRowCount).sum();
+  }
+
+  /**
+   * Adds the keys written to the temporary file to the bloom filter and record key range of the new file.
+   */
+  private class KeyTrackingFileWriter implements HoodieFileWriter<IndexedRecord> {
+
+    private final HoodieFileWriter<IndexedRecord> fileWriter;
+
+    KeyTrackingFileWriter(HoodieFileWriter<IndexedRecord> fileWriter) {
+      this.fileWriter = fileWriter;
+    }
+
+    private void add(String recordKey) {
+      bloomFilter.add(recordKey);
+      minRecordKey = minRecordKey.compareTo(recordKey) <= 0 ? minRecordKey : recordKey;
+      maxRecordKey = maxRecordKey.compareTo(recordKey) >= 0 ? maxRecordKey : recordKey;
+    }
+
+    @Override
+    public void writeAvroWithMetadata(IndexedRecord newRecord, HoodieRecord record) throws IOException {
+      fileWriter.writeAvroWithMetadata(newRecord, record);
+      add(record.getRecordKey());
+    }
+
+    @Override
+    public boolean canWrite() {
+      return fileWriter.canWrite();
+    }
+
+    @Override
+    public void close() throws IOException {
+      fileWriter.close();
+    }
+
+    @Override
+    public void writeAvro(String key, IndexedRecord oldRecord) throws IOException {
+      fileWriter.writeAvro(key, oldRecord);
+      add(key);
+    }
+
+    @Override
+    public long getBytesWritten() {
+      return fileWriter.getBytesWritten();
+    }
+
+    @Override
+    public void updateRuntimeStats(RuntimeStats runtimeStats) {
+      fileWriter.updateRuntimeStats(runtimeStats);
+    }
+  }
+}
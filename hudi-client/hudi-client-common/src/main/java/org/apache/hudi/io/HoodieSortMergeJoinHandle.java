@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.io;
+
+import org.apache.hudi.avro.HoodieAvroWriteSupport;
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.common.engine.TaskContextSupplier;
+import org.apache.hudi.common.model.HoodieBaseFile;
+import org.apache.hudi.common.model.HoodieFileFormat;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.util.HoodieRecordSizeEstimator;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.ParquetUtils;
+import org.apache.hudi.common.util.collection.ExternalSorter;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieUpsertException;
+import org.apache.hudi.table.HoodieTable;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.hadoop.fs.Path;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merge handle which merges the incoming records with a base file sorted by record key in a single pass, without
+ * holding the incoming records in a map.
+ *
+ * <p>The incoming records are sorted by key with an {@link ExternalSorter}, which spills sorted runs to disk past the
+ * memory allowed for the merge. The records of the base file and the sorted incoming records are then walked together
+ * as in a merge join: the incoming records with keys lower than the key of the old record are written as inserts, the
+ * one with the same key is merged with the old record, and the others wait for the next old record. The memory used is
+ * bounded whatever the number of incoming records, and the new base file is sorted by record key as well.
+ *
+ * <p>When several incoming records have the same key, the last one is used, as with {@link HoodieMergeHandle}. The
+ * handle is only used for the base files marked as sorted by record key in their footer, see
+ * {@link #isSortedByRecordKey}; the merge fails if the base file turns out not to be sorted anyway.
+ */
+public class HoodieSortMergeJoinHandle<T extends HoodieRecordPayload, I, K, O> extends HoodieMergeHandle<T, I, K, O> {
+
+  private static final Logger LOG = LogManager.getLogger(HoodieSortMergeJoinHandle.class);
+
+  // NOTE: The fields below are set while the parent constructor loads the incoming records, they must not be
+  // initialized in their declaration, which would run after.
+  private ExternalSorter<HoodieRecord<T>> sorter;
+  private Iterator<HoodieRecord<T>> sortedNewRecords;
+  // Next incoming record to merge, the last one of its key
+  private HoodieRecord<T> nextNewRecord;
+  private HoodieRecord<T> peekedNewRecord;
+  private String lastOldRecordKey;
+
+  public HoodieSortMergeJoinHandle(HoodieWriteConfig config, String instantTime, HoodieTable<T, I, K, O> hoodieTable,
+                                   Iterator<HoodieRecord<T>> recordItr, String partitionPath, String fileId,
+                                   TaskContextSupplier taskContextSupplier) {
+    super(config, instantTime, hoodieTable, recordItr, partitionPath, fileId, taskContextSupplier);
+  }
+
+  /**
+   * Sorts the incoming records by key, instead of loading them in a map.
+   */
+  @Override
+  protected void init(String fileId, Iterator<HoodieRecord<T>> newRecordsItr) {
+    this.keyToNewRecords = Collections.emptyMap();
+    this.sorter = newSorter(writerSchema, config, taskContextSupplier);
+    while (newRecordsItr.hasNext()) {
+      HoodieRecord<T> record = newRecordsItr.next();
+      // update the new location of the record, so we know where to find it next
+      if (needsUpdateLocation()) {
+        record.unseal();
+        record.setNewLocation(new HoodieRecordLocation(instantTime, fileId));
+        record.seal();
+      }
+      sorter.add(record);
+    }
+    LOG.info("Number of sorted runs spilled to disk => " + sorter.getNumSpilledRuns());
+    this.sortedNewRecords = sorter.sortedIterator();
+    advanceNewRecords();
+  }
+
+  private static <T extends HoodieRecordPayload> ExternalSorter<HoodieRecord<T>> newSorter(Schema schema, HoodieWriteConfig config,
+                                                                                         TaskContextSupplier taskContextSupplier) {
+    long memoryForMerge = IOUtils.getMaxMemoryPerPartitionMerge(taskContextSupplier, config.getProps());
+    LOG.info("MaxMemoryPerPartitionMerge => " + memoryForMerge);
+    return new ExternalSorter<>(memoryForMerge, config.getSpillableMapBasePath(), Comparator.comparing(HoodieRecord::getRecordKey),
+        new HoodieRecordSizeEstimator<>(schema), config.getSpillableMapSerializer());
+  }
+
+  /**
+   * Sorts the records by key, spilling sorted runs to disk past the memory allowed for a merge, so that the files
+   * created with them can be sort-merged later on. The spilled runs are deleted once all the sorted records are read.
+   */
+  public static <T extends HoodieRecordPayload> Iterator<HoodieRecord<T>> sortByRecordKey(Iterator<HoodieRecord<T>> records,
+      HoodieWriteConfig config, TaskContextSupplier taskContextSupplier) {
+    ExternalSorter<HoodieRecord<T>> sorter = newSorter(new Schema.Parser().parse(config.getSchema()), config, taskContextSupplier);
+    records.forEachRemaining(sorter::add);
+    Iterator<HoodieRecord<T>> sortedRecords = sorter.sortedIterator();
+    return new Iterator<HoodieRecord<T>>() {
+      @Override
+      public boolean hasNext() {
+        if (!sortedRecords.hasNext()) {
+          sorter.close();
+          return false;
+        }
+        return true;
+      }
+
+      @Override
+      public HoodieRecord<T> next() {
+        return sortedRecords.next();
+      }
+    };
+  }
+
+  /**
+   * @return whether the base file is a parquet file marked as sorted by record key in its footer.
+   */
+  public static boolean isSortedByRecordKey(HoodieTable<?, ?, ?, ?> hoodieTable, HoodieBaseFile baseFile) {
+    if (baseFile.getBootstrapBaseFile().isPresent() || !baseFile.getFileName().endsWith(HoodieFileFormat.PARQUET.getFileExtension())) {
+      return false;
+    }
+    Map<String, String> keyValueMetadata = new ParquetUtils().readMetadata(hoodieTable.getHadoopConf(), new Path(baseFile.getPath()))
+        .getFileMetaData().getKeyValueMetaData();
+    return Boolean.parseBoolean(keyValueMetadata.get(HoodieAvroWriteSupport.HOODIE_SORTED_BY_RECORD_KEY_FOOTER));
+  }
+
+  /**
+   * Moves to the last incoming record of the next key.
+   */
+  private void advanceNewRecords() {
+    nextNewRecord = peekedNewRecord != null ? peekedNewRecord : (sortedNewRecords.hasNext() ? sortedNewRecords.next() : null);
+    peekedNewRecord = null;
+    while (nextNewRecord != null && sortedNewRecords.hasNext()) {
+      HoodieRecord<T> record = sortedNewRecords.next();
+      if (!record.getRecordKey().equals(nextNewRecord.getRecordKey())) {
+        peekedNewRecord = record;
+        break;
+      }
+      nextNewRecord = record;
+    }
+  }
+
+  @Override
+  public void write(GenericRecord oldRecord) {
+    String key = oldRecord.get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString();
+    if (lastOldRecordKey != null && lastOldRecordKey.compareTo(key) > 0) {
+      throw new HoodieUpsertException("Base file " + getOldFilePath() + " is not sorted by record key, found key "
+          + key + " after " + lastOldRecordKey);
+    }
+    lastOldRecordKey = key;
+
+    // write the inserts whose keys are lower than the old record's key
+    while (nextNewRecord != null && nextNewRecord.getRecordKey().compareTo(key) < 0) {
+      writeInsertRecord(nextNewRecord);
+      advanceNewRecords();
+    }
+
+    if (nextNewRecord != null && nextNewRecord.getRecordKey().equals(key)) {
+      HoodieRecord<T> hoodieRecord = nextNewRecord;
+      advanceNewRecords();
+      try {
+        Option<IndexedRecord> combinedAvroRecord =
+            hoodieRecord.getData().combineAndGetUpdateValue(oldRecord, useWriterSchema ? writerSchemaWithMetafields : writerSchema,
+                config.getPayloadConfig().getProps());
+        if (writeUpdateRecord(hoodieRecord, combinedAvroRecord)) {
+          return;
+        }
+      } catch (Exception e) {
+        throw new HoodieUpsertException("Failed to combine/merge new record with old value in storage, for new record {"
+            + hoodieRecord + "}, old value {" + oldRecord + "}", e);
+      }
+    }
+    // copy the old record, there is no incoming record to merge it with
+    super.write(oldRecord);
+  }
+
+  private void writeInsertRecord(HoodieRecord<T> hoodieRecord) {
+    try {
+      writeRecord(hoodieRecord, hoodieRecord.getData().getInsertValue(useWriterSchema ? writerSchemaWithMetafields : writerSchema));
+      insertRecordsWritten++;
+    } catch (IOException e) {
+      throw new HoodieUpsertException("Failed to write records", e);
+    }
+  }
+
+  @Override
+  public List<WriteStatus> close() {
+    try {
+      // write out the remaining inserts, with keys greater than all the old keys
+      while (nextNewRecord != null) {
+        writeInsertRecord(nextNewRecord);
+        advanceNewRecords();
+      }
+    } finally {
+      sorter.close();
+    }
+    return super.close();
+  }
+}
@@ -33,9 +33,17 @@ public class HoodieBaseParquetConfig<T> {
   private long maxFileSize;
   private Configuration hadoopConf;
   private double compressionRatio;
+  // size of the buffers of the async writes, no async writes if 0
+  private int asyncWriteBufferSize;
 
   public HoodieBaseParquetConfig(T writeSupport, CompressionCodecName compressionCodecName, int blockSize,
                                  int pageSize, long maxFileSize, Configuration hadoopConf, double compressionRatio) {
+    this(writeSupport, compressionCodecName, blockSize, pageSize, maxFileSize, hadoopConf, compressionRatio, 0);
+  }
+
+  public HoodieBaseParquetConfig(T writeSupport, CompressionCodecName compressionCodecName, int blockSize,
+                                 int pageSize, long maxFileSize, Configuration hadoopConf, double compressionRatio,
+                                 int asyncWriteBufferSize) {
     this.writeSupport = writeSupport;
     this.compressionCodecName = compressionCodecName;
     this.blockSize = blockSize;
@@ -43,6 +51,7 @@ public class HoodieBaseParquetConfig<T> {
     this.maxFileSize = maxFileSize;
     this.hadoopConf = hadoopConf;
     this.compressionRatio = compressionRatio;
+    this.asyncWriteBufferSize = asyncWriteBufferSize;
   }
 
   public CompressionCodecName getCompressionCodecName() {
@@ -69,6 +78,14 @@ public class HoodieBaseParquetConfig<T> {
     return compressionRatio;
   }
 
+  public boolean isAsyncWriteEnabled() {
+    return asyncWriteBufferSize > 0;
+  }
+
+  public int getAsyncWriteBufferSize() {
+    return asyncWriteBufferSize;
+  }
+
   public T getWriteSupport() {
     return writeSupport;
   }
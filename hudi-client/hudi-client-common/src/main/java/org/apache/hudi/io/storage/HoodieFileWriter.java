@@ -19,6 +19,7 @@
 package org.apache.hudi.io.storage;
 
 import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieWriteStat.RuntimeStats;
 
 import org.apache.avro.generic.IndexedRecord;
 
@@ -35,4 +36,10 @@ public interface HoodieFileWriter<R extends IndexedRecord> {
   void writeAvro(String key, R oldRecord) throws IOException;
 
   long getBytesWritten();
+
+  /**
+   * Adds the times taken by the writer to the runtime stats of the write, once closed.
+   */
+  default void updateRuntimeStats(RuntimeStats runtimeStats) {
+  }
 }
@@ -61,7 +61,8 @@ public class HoodieFileWriterFactory {
 
     HoodieAvroParquetConfig parquetConfig = new HoodieAvroParquetConfig(writeSupport, config.getParquetCompressionCodec(),
         config.getParquetBlockSize(), config.getParquetPageSize(), config.getParquetMaxFileSize(),
-        hoodieTable.getHadoopConf(), config.getParquetCompressionRatio());
+        hoodieTable.getHadoopConf(), config.getParquetCompressionRatio(),
+        config.isParquetAsyncWriteEnabled() ? config.getParquetAsyncWriteBufferSize() : 0);
 
     return new HoodieParquetWriter<>(instantTime, path, parquetConfig, schema, taskContextSupplier);
   }
@@ -78,6 +79,11 @@ public class HoodieFileWriterFactory {
   }
 
   private static BloomFilter createBloomFilter(HoodieWriteConfig config) {
+    if (config.useBloomFilterAdaptiveSizing()) {
+      return BloomFilterFactory.createAdaptiveSizeBloomFilter(config.getBloomFilterNumEntries(),
+          config.getBloomFilterAdaptiveNumEntriesEstimate(), config.getBloomFilterFPP(),
+          config.getDynamicBloomFilterMaxNumEntries(), config.getBloomFilterType());
+    }
     return BloomFilterFactory.createBloomFilter(config.getBloomFilterNumEntries(), config.getBloomFilterFPP(),
             config.getDynamicBloomFilterMaxNumEntries(),
             config.getBloomFilterType());
@@ -21,10 +21,13 @@ package org.apache.hudi.io.storage;
 import org.apache.hudi.avro.HoodieAvroUtils;
 import org.apache.hudi.avro.HoodieAvroWriteSupport;
 import org.apache.hudi.common.engine.TaskContextSupplier;
+import org.apache.hudi.common.fs.AsyncDoubleBufferedOutputStream;
 import org.apache.hudi.common.fs.FSUtils;
 import org.apache.hudi.common.fs.HoodieWrapperFileSystem;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.model.HoodieWriteStat.RuntimeStats;
+import org.apache.hudi.common.util.Option;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
@@ -34,11 +37,15 @@ import org.apache.parquet.hadoop.ParquetFileWriter;
 import org.apache.parquet.hadoop.ParquetWriter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * HoodieParquetWriter extends the ParquetWriter to help limit the size of underlying file. Provides a way to check if
  * the current file can take more records with the <code>canWrite()</code>
+ *
+ * <p>With async writes enabled, the file is written out by a background thread through double buffering, so that
+ * encoding and compressing the records overlaps with the I/O, and the time spent on each is tracked.
  */
 public class HoodieParquetWriter<T extends HoodieRecordPayload, R extends IndexedRecord>
     extends ParquetWriter<IndexedRecord> implements HoodieFileWriter<R> {
@@ -51,10 +58,13 @@ public class HoodieParquetWriter<T extends HoodieRecordPayload, R extends Indexe
   private final HoodieAvroWriteSupport writeSupport;
   private final String instantTime;
   private final TaskContextSupplier taskContextSupplier;
+  private final Option<AsyncDoubleBufferedOutputStream> asyncOutputStream;
+  // time spent in the parquet writer, tracked along with async writes
+  private long writeNanos = 0;
 
   public HoodieParquetWriter(String instantTime, Path file, HoodieAvroParquetConfig parquetConfig,
       Schema schema, TaskContextSupplier taskContextSupplier) throws IOException {
-    super(HoodieWrapperFileSystem.convertToHoodiePath(file, parquetConfig.getHadoopConf()),
+    super(prepareFile(file, parquetConfig),
         ParquetFileWriter.Mode.CREATE, parquetConfig.getWriteSupport(), parquetConfig.getCompressionCodecName(),
         parquetConfig.getBlockSize(), parquetConfig.getPageSize(), parquetConfig.getPageSize(),
         DEFAULT_IS_DICTIONARY_ENABLED, DEFAULT_IS_VALIDATING_ENABLED,
@@ -71,6 +81,20 @@ public class HoodieParquetWriter<T extends HoodieRecordPayload, R extends Indexe
     this.writeSupport = parquetConfig.getWriteSupport();
     this.instantTime = instantTime;
     this.taskContextSupplier = taskContextSupplier;
+    this.asyncOutputStream = fs.getAsyncOutputStream(this.file);
+  }
+
+  /**
+   * Enables the async writes of the file, if configured, before the parquet writer creates it. Parquet writes out a
+   * whole row group at once, so the buffers hold at least a row group of the configured block size.
+   */
+  private static Path prepareFile(Path file, HoodieAvroParquetConfig parquetConfig) throws IOException {
+    Path hoodiePath = HoodieWrapperFileSystem.convertToHoodiePath(file, parquetConfig.getHadoopConf());
+    if (parquetConfig.isAsyncWriteEnabled()) {
+      ((HoodieWrapperFileSystem) hoodiePath.getFileSystem(FSUtils.registerFileSystem(file, parquetConfig.getHadoopConf())))
+          .enableAsyncWrites(hoodiePath, Math.max(parquetConfig.getAsyncWriteBufferSize(), parquetConfig.getBlockSize()));
+    }
+    return hoodiePath;
   }
 
   @Override
@@ -80,7 +104,7 @@ public class HoodieParquetWriter<T extends HoodieRecordPayload, R extends Indexe
     HoodieAvroUtils.addHoodieKeyToRecord((GenericRecord) avroRecord, record.getRecordKey(), record.getPartitionPath(),
         file.getName());
     HoodieAvroUtils.addCommitMetadataToRecord((GenericRecord) avroRecord, instantTime, seqId);
-    super.write(avroRecord);
+    write(avroRecord);
     writeSupport.add(record.getRecordKey());
   }
 
@@ -91,12 +115,50 @@ public class HoodieParquetWriter<T extends HoodieRecordPayload, R extends Indexe
 
   @Override
   public void writeAvro(String key, IndexedRecord object) throws IOException {
-    super.write(object);
+    write(object);
     writeSupport.add(key);
   }
 
+  @Override
+  public void write(IndexedRecord object) throws IOException {
+    if (!asyncOutputStream.isPresent()) {
+      super.write(object);
+      return;
+    }
+    long startNanos = System.nanoTime();
+    try {
+      super.write(object);
+    } finally {
+      writeNanos += System.nanoTime() - startNanos;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!asyncOutputStream.isPresent()) {
+      super.close();
+      return;
+    }
+    long startNanos = System.nanoTime();
+    try {
+      super.close();
+    } finally {
+      writeNanos += System.nanoTime() - startNanos;
+    }
+  }
+
   @Override
   public long getBytesWritten() {
     return fs.getBytesWritten(file);
   }
+
+  @Override
+  public void updateRuntimeStats(RuntimeStats runtimeStats) {
+    if (asyncOutputStream.isPresent()) {
+      long ioBlockedTime = asyncOutputStream.get().getIOBlockedTime();
+      runtimeStats.setTotalEncodeTime(Math.max(0, TimeUnit.NANOSECONDS.toMillis(writeNanos) - ioBlockedTime));
+      runtimeStats.setTotalIOBlockedTime(ioBlockedTime);
+      runtimeStats.setTotalIOTime(asyncOutputStream.get().getIOTime());
+    }
+  }
 }
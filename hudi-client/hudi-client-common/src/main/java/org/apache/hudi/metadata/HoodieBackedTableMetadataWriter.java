@@ -28,6 +28,7 @@ import org.apache.hudi.common.config.SerializableConfiguration;
 import org.apache.hudi.common.engine.HoodieEngineContext;
 import org.apache.hudi.common.fs.ConsistencyGuardConfig;
 import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.HoodieBaseFile;
 import org.apache.hudi.common.model.HoodieCleaningPolicy;
 import org.apache.hudi.common.model.HoodieCommitMetadata;
 import org.apache.hudi.common.model.HoodieFailedWritesCleaningPolicy;
@@ -41,6 +42,7 @@ import org.apache.hudi.common.table.HoodieTableMetaClient;
 import org.apache.hudi.common.table.timeline.HoodieInstant;
 import org.apache.hudi.common.table.timeline.HoodieTimeline;
 import org.apache.hudi.common.table.timeline.versioning.TimelineLayoutVersion;
+import org.apache.hudi.common.table.view.HoodieTableFileSystemView;
 import org.apache.hudi.common.util.HoodieTimer;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.ValidationUtils;
@@ -60,11 +62,15 @@ import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.stream.Collectors;
 
 import static org.apache.hudi.metadata.HoodieTableMetadata.METADATA_TABLE_NAME_SUFFIX;
@@ -87,6 +93,9 @@ public abstract class HoodieBackedTableMetadataWriter implements HoodieTableMeta
   protected HoodieTableMetaClient metaClient;
   protected Option<HoodieMetadataMetrics> metrics;
   protected boolean enabled;
+  protected boolean recordIndexEnabled;
+  protected boolean bloomFilterIndexEnabled;
+  protected boolean columnStatsIndexEnabled;
   protected SerializableConfiguration hadoopConf;
   protected final transient HoodieEngineContext engineContext;
 
@@ -100,6 +109,9 @@ public abstract class HoodieBackedTableMetadataWriter implements HoodieTableMeta
       this.tableName = writeConfig.getTableName() + METADATA_TABLE_NAME_SUFFIX;
       this.metadataWriteConfig = createMetadataWriteConfig(writeConfig);
       enabled = true;
+      recordIndexEnabled = writeConfig.getMetadataConfig().enableRecordIndex();
+      bloomFilterIndexEnabled = writeConfig.getMetadataConfig().enableBloomFilterIndex();
+      columnStatsIndexEnabled = writeConfig.getMetadataConfig().enableColumnStatsIndex();
 
       // Inline compaction and auto clean is required as we dont expose this table outside
       ValidationUtils.checkArgument(!this.metadataWriteConfig.isAutoClean(), "Cleaning is controlled internally for Metadata table.");
@@ -252,6 +264,15 @@ public abstract class HoodieBackedTableMetadataWriter implements HoodieTableMeta
             + "latestMetadataInstant=" + latestMetadataInstant.get().getTimestamp()
             + ", latestDatasetInstant=" + datasetMetaClient.getActiveTimeline().firstInstant().get().getTimestamp());
         rebootstrap = true;
+      } else if (recordIndexEnabled != metaClient.getTableConfig().getProperties().containsKey(HoodieMetadataConfig.RECORD_INDEX_FILE_GROUP_COUNT_PROP)) {
+        LOG.warn("Metadata Table will need to be re-bootstrapped as the record index was " + (recordIndexEnabled ? "enabled" : "disabled"));
+        rebootstrap = true;
+      } else if (bloomFilterIndexEnabled != metaClient.getTableConfig().getProperties().containsKey(HoodieMetadataConfig.BLOOM_FILTER_INDEX_FILE_GROUP_COUNT_PROP)) {
+        LOG.warn("Metadata Table will need to be re-bootstrapped as the bloom filter index was " + (bloomFilterIndexEnabled ? "enabled" : "disabled"));
+        rebootstrap = true;
+      } else if (columnStatsIndexEnabled != metaClient.getTableConfig().getProperties().containsKey(HoodieMetadataConfig.COLUMN_STATS_INDEX_FILE_GROUP_COUNT_PROP)) {
+        LOG.warn("Metadata Table will need to be re-bootstrapped as the column stats index was " + (columnStatsIndexEnabled ? "enabled" : "disabled"));
+        rebootstrap = true;
       }
     }
 
@@ -291,13 +312,27 @@ public abstract class HoodieBackedTableMetadataWriter implements HoodieTableMeta
     String createInstantTime = latestInstant.map(HoodieInstant::getTimestamp).orElse(SOLO_COMMIT_TIMESTAMP);
     LOG.info("Creating a new metadata table in " + metadataWriteConfig.getBasePath() + " at instant " + createInstantTime);
 
-    HoodieTableMetaClient.withPropertyBuilder()
-      .setTableType(HoodieTableType.MERGE_ON_READ)
-      .setTableName(tableName)
-      .setArchiveLogFolder("archived")
-      .setPayloadClassName(HoodieMetadataPayload.class.getName())
-      .setBaseFileFormat(HoodieFileFormat.HFILE.toString())
-      .initTable(hadoopConf.get(), metadataWriteConfig.getBasePath());
+    Properties properties = HoodieTableMetaClient.withPropertyBuilder()
+        .setTableType(HoodieTableType.MERGE_ON_READ)
+        .setTableName(tableName)
+        .setArchiveLogFolder("archived")
+        .setPayloadClassName(HoodieMetadataPayload.class.getName())
+        .setBaseFileFormat(HoodieFileFormat.HFILE.toString())
+        .build();
+    if (recordIndexEnabled) {
+      // The number of file groups of the record index can not change once records are hashed into them
+      properties.setProperty(HoodieMetadataConfig.RECORD_INDEX_FILE_GROUP_COUNT_PROP,
+          String.valueOf(datasetWriteConfig.getMetadataConfig().getRecordIndexFileGroupCount()));
+    }
+    if (bloomFilterIndexEnabled) {
+      properties.setProperty(HoodieMetadataConfig.BLOOM_FILTER_INDEX_FILE_GROUP_COUNT_PROP,
+          String.valueOf(datasetWriteConfig.getMetadataConfig().getBloomFilterIndexFileGroupCount()));
+    }
+    if (columnStatsIndexEnabled) {
+      properties.setProperty(HoodieMetadataConfig.COLUMN_STATS_INDEX_FILE_GROUP_COUNT_PROP,
+          String.valueOf(datasetWriteConfig.getMetadataConfig().getColumnStatsIndexFileGroupCount()));
+    }
+    HoodieTableMetaClient.initTableAndGetMetaClient(hadoopConf.get(), metadataWriteConfig.getBasePath(), properties);
 
     initTableMetadata();
 
@@ -333,7 +368,46 @@ public abstract class HoodieBackedTableMetadataWriter implements HoodieTableMeta
     });
 
     LOG.info("Committing " + partitionToFileStatus.size() + " partitions and " + stats[0] + " files to metadata");
-    update(commitMetadata, createInstantTime);
+    List<HoodieRecord> records = HoodieTableMetadataUtil.convertMetadataToRecords(commitMetadata, createInstantTime);
+    List<RecordIndexChangeReader> recordIndexChanges = Collections.emptyList();
+    if (recordIndexEnabled || bloomFilterIndexEnabled || columnStatsIndexEnabled) {
+      Map<String, List<String>> partitionToBaseFiles = getLatestBaseFiles(datasetMetaClient, partitionToFileStatus.keySet(), createInstantTime);
+      if (recordIndexEnabled) {
+        recordIndexChanges = HoodieTableMetadataUtil.createRecordIndexChanges(partitionToBaseFiles);
+        LOG.info("Initializing record index from " + recordIndexChanges.size() + " base files");
+      }
+      if (bloomFilterIndexEnabled) {
+        List<HoodieRecord> bloomFilterRecords = HoodieTableMetadataUtil.createBaseFileRecords(engineContext, partitionToBaseFiles,
+            MetadataPartitionType.BLOOM_FILTERS, metadataWriteConfig.getFileListingParallelism());
+        LOG.info("Initializing bloom filter index with the bloom filters of " + bloomFilterRecords.size() + " files");
+        records.addAll(bloomFilterRecords);
+      }
+      if (columnStatsIndexEnabled) {
+        List<HoodieRecord> columnStatsRecords = HoodieTableMetadataUtil.createBaseFileRecords(engineContext, partitionToBaseFiles,
+            MetadataPartitionType.COLUMN_STATS, metadataWriteConfig.getFileListingParallelism());
+        LOG.info("Initializing column stats index with the column stats of " + columnStatsRecords.size() + " files");
+        records.addAll(columnStatsRecords);
+      }
+    }
+    commit(records, recordIndexChanges, createInstantTime);
+  }
+
+  /**
+   * Returns the paths of the latest base files of the dataset, which the indexes saved within the Metadata Table are
+   * initialized from.
+   *
+   * @param datasetMetaClient {@code HoodieTableMetaClient} for the dataset
+   * @param partitions Partitions of the dataset
+   * @param createInstantTime Instant time at which the Metadata Table is created
+   */
+  private Map<String, List<String>> getLatestBaseFiles(HoodieTableMetaClient datasetMetaClient, Collection<String> partitions,
+      String createInstantTime) {
+    HoodieTableFileSystemView fsView = new HoodieTableFileSystemView(datasetMetaClient,
+        datasetMetaClient.getActiveTimeline().getCommitsTimeline().filterCompletedInstants());
+    Map<String, List<String>> partitionToBaseFiles = new HashMap<>();
+    partitions.forEach(partition -> partitionToBaseFiles.put(partition,
+        fsView.getLatestBaseFilesBeforeOrOn(partition, createInstantTime).map(HoodieBaseFile::getPath).collect(Collectors.toList())));
+    return partitionToBaseFiles;
   }
 
   /**
@@ -412,7 +486,19 @@ public abstract class HoodieBackedTableMetadataWriter implements HoodieTableMeta
 
         Option<List<HoodieRecord>> records = HoodieTableMetadataUtil.convertInstantToMetaRecords(datasetMetaClient, instant, metadata.getSyncedInstantTime());
         if (records.isPresent()) {
-          commit(records.get(), MetadataPartitionType.FILES.partitionPath(), instant.getTimestamp());
+          List<HoodieRecord> allRecords = new ArrayList<>(records.get());
+          List<RecordIndexChangeReader> recordIndexChanges = recordIndexEnabled
+              ? HoodieTableMetadataUtil.convertInstantToRecordIndexChanges(datasetMetaClient, instant, metadata.getSyncedInstantTime())
+              : Collections.emptyList();
+          if (bloomFilterIndexEnabled) {
+            allRecords.addAll(HoodieTableMetadataUtil.convertInstantToBaseFileRecords(engineContext, datasetMetaClient,
+                instant, MetadataPartitionType.BLOOM_FILTERS, metadataWriteConfig.getFileListingParallelism()));
+          }
+          if (columnStatsIndexEnabled) {
+            allRecords.addAll(HoodieTableMetadataUtil.convertInstantToBaseFileRecords(engineContext, datasetMetaClient,
+                instant, MetadataPartitionType.COLUMN_STATS, metadataWriteConfig.getFileListingParallelism()));
+          }
+          commit(allRecords, recordIndexChanges, instant.getTimestamp());
         }
       }
       initTableMetadata();
@@ -431,7 +517,18 @@ public abstract class HoodieBackedTableMetadataWriter implements HoodieTableMeta
   public void update(HoodieCommitMetadata commitMetadata, String instantTime) {
     if (enabled) {
       List<HoodieRecord> records = HoodieTableMetadataUtil.convertMetadataToRecords(commitMetadata, instantTime);
-      commit(records, MetadataPartitionType.FILES.partitionPath(), instantTime);
+      List<RecordIndexChangeReader> recordIndexChanges = recordIndexEnabled
+          ? HoodieTableMetadataUtil.convertMetadataToRecordIndexChanges(datasetWriteConfig.getBasePath(), commitMetadata, instantTime)
+          : Collections.emptyList();
+      if (bloomFilterIndexEnabled) {
+        records.addAll(HoodieTableMetadataUtil.convertMetadataToBaseFileRecords(engineContext, datasetWriteConfig.getBasePath(),
+            commitMetadata, instantTime, MetadataPartitionType.BLOOM_FILTERS, metadataWriteConfig.getFileListingParallelism()));
+      }
+      if (columnStatsIndexEnabled) {
+        records.addAll(HoodieTableMetadataUtil.convertMetadataToBaseFileRecords(engineContext, datasetWriteConfig.getBasePath(),
+            commitMetadata, instantTime, MetadataPartitionType.COLUMN_STATS, metadataWriteConfig.getFileListingParallelism()));
+      }
+      commit(records, recordIndexChanges, instantTime);
     }
   }
 
@@ -445,7 +542,7 @@ public abstract class HoodieBackedTableMetadataWriter implements HoodieTableMeta
   public void update(HoodieCleanerPlan cleanerPlan, String instantTime) {
     if (enabled) {
       List<HoodieRecord> records = HoodieTableMetadataUtil.convertMetadataToRecords(cleanerPlan, instantTime);
-      commit(records, MetadataPartitionType.FILES.partitionPath(), instantTime);
+      commit(records, Collections.emptyList(), instantTime);
     }
   }
 
@@ -459,7 +556,7 @@ public abstract class HoodieBackedTableMetadataWriter implements HoodieTableMeta
   public void update(HoodieCleanMetadata cleanMetadata, String instantTime) {
     if (enabled) {
       List<HoodieRecord> records = HoodieTableMetadataUtil.convertMetadataToRecords(cleanMetadata, instantTime);
-      commit(records, MetadataPartitionType.FILES.partitionPath(), instantTime);
+      commit(records, Collections.emptyList(), instantTime);
     }
   }
 
@@ -473,7 +570,11 @@ public abstract class HoodieBackedTableMetadataWriter implements HoodieTableMeta
   public void update(HoodieRestoreMetadata restoreMetadata, String instantTime) {
     if (enabled) {
       List<HoodieRecord> records = HoodieTableMetadataUtil.convertMetadataToRecords(restoreMetadata, instantTime, metadata.getSyncedInstantTime());
-      commit(records, MetadataPartitionType.FILES.partitionPath(), instantTime);
+      List<RecordIndexChangeReader> recordIndexChanges = recordIndexEnabled
+          ? HoodieTableMetadataUtil.convertMetadataToRecordIndexChanges(getDatasetMetaClient(), restoreMetadata.getHoodieRestoreMetadata().values()
+              .stream().flatMap(List::stream).collect(Collectors.toList()), instantTime, metadata.getSyncedInstantTime())
+          : Collections.emptyList();
+      commit(records, recordIndexChanges, instantTime);
     }
   }
 
@@ -487,10 +588,18 @@ public abstract class HoodieBackedTableMetadataWriter implements HoodieTableMeta
   public void update(HoodieRollbackMetadata rollbackMetadata, String instantTime) {
     if (enabled) {
       List<HoodieRecord> records = HoodieTableMetadataUtil.convertMetadataToRecords(rollbackMetadata, instantTime, metadata.getSyncedInstantTime());
-      commit(records, MetadataPartitionType.FILES.partitionPath(), instantTime);
+      List<RecordIndexChangeReader> recordIndexChanges = recordIndexEnabled
+          ? HoodieTableMetadataUtil.convertMetadataToRecordIndexChanges(getDatasetMetaClient(), Collections.singletonList(rollbackMetadata),
+              instantTime, metadata.getSyncedInstantTime())
+          : Collections.emptyList();
+      commit(records, recordIndexChanges, instantTime);
     }
   }
 
+  private HoodieTableMetaClient getDatasetMetaClient() {
+    return HoodieTableMetaClient.builder().setConf(hadoopConf.get()).setBasePath(datasetWriteConfig.getBasePath()).build();
+  }
+
   @Override
   public void close() throws Exception {
     if (metadata != null) {
@@ -499,8 +608,11 @@ public abstract class HoodieBackedTableMetadataWriter implements HoodieTableMeta
   }
 
   /**
-   * Commit the {@code HoodieRecord}s to Metadata Table as a new delta-commit.
+   * Commit the {@code HoodieRecord}s to Metadata Table as a new delta-commit. The records are written to the metadata
+   * partition of their key.
    *
+   * The changes to the record index are read by the given readers in parallel, and are committed along with the
+   * records without being collected.
    */
-  protected abstract void commit(List<HoodieRecord> records, String partitionName, String instantTime);
+  protected abstract void commit(List<HoodieRecord> records, List<RecordIndexChangeReader> recordIndexChanges, String instantTime);
 }
@@ -144,9 +144,14 @@ public class HoodieMetrics {
       long totalTimeTakenByScanner = metadata.getTotalScanTime();
       long totalTimeTakenForInsert = metadata.getTotalCreateTime();
       long totalTimeTakenForUpsert = metadata.getTotalUpsertTime();
+      long totalTimeTakenToEncode = metadata.getTotalEncodeTime();
+      long totalTimeBlockedInIO = metadata.getTotalIOBlockedTime();
+      long totalTimeTakenByIO = metadata.getTotalIOTime();
       long totalCompactedRecordsUpdated = metadata.getTotalCompactedRecordsUpdated();
       long totalLogFilesCompacted = metadata.getTotalLogFilesCompacted();
       long totalLogFilesSize = metadata.getTotalLogFilesSize();
+      long totalPrefetchHits = metadata.getTotalPrefetchHits();
+      long totalPrefetchMisses = metadata.getTotalPrefetchMisses();
       Metrics.registerGauge(getMetricsName(actionType, "totalPartitionsWritten"), totalPartitionsWritten);
       Metrics.registerGauge(getMetricsName(actionType, "totalFilesInsert"), totalFilesInsert);
       Metrics.registerGauge(getMetricsName(actionType, "totalFilesUpdate"), totalFilesUpdate);
@@ -157,9 +162,14 @@ public class HoodieMetrics {
       Metrics.registerGauge(getMetricsName(actionType, "totalScanTime"), totalTimeTakenByScanner);
       Metrics.registerGauge(getMetricsName(actionType, "totalCreateTime"), totalTimeTakenForInsert);
       Metrics.registerGauge(getMetricsName(actionType, "totalUpsertTime"), totalTimeTakenForUpsert);
+      Metrics.registerGauge(getMetricsName(actionType, "totalEncodeTime"), totalTimeTakenToEncode);
+      Metrics.registerGauge(getMetricsName(actionType, "totalIOBlockedTime"), totalTimeBlockedInIO);
+      Metrics.registerGauge(getMetricsName(actionType, "totalIOTime"), totalTimeTakenByIO);
       Metrics.registerGauge(getMetricsName(actionType, "totalCompactedRecordsUpdated"), totalCompactedRecordsUpdated);
       Metrics.registerGauge(getMetricsName(actionType, "totalLogFilesCompacted"), totalLogFilesCompacted);
       Metrics.registerGauge(getMetricsName(actionType, "totalLogFilesSize"), totalLogFilesSize);
+      Metrics.registerGauge(getMetricsName(actionType, "totalPrefetchHits"), totalPrefetchHits);
+      Metrics.registerGauge(getMetricsName(actionType, "totalPrefetchMisses"), totalPrefetchMisses);
     }
   }
 
@@ -654,6 +654,10 @@ public abstract class HoodieTable<T extends HoodieRecordPayload, I, K, O> implem
   }
 
   public HoodieLogBlockType getLogDataBlockFormat() {
+    Option<HoodieLogBlockType> dataBlockFormat = config.getLogFileDataBlockFormat();
+    if (dataBlockFormat.isPresent()) {
+      return dataBlockFormat.get();
+    }
     switch (getBaseFileFormat()) {
       case PARQUET:
         return HoodieLogBlockType.AVRO_DATA_BLOCK;
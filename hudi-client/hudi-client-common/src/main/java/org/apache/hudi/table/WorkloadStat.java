@@ -23,6 +23,7 @@ import org.apache.hudi.common.util.collection.Pair;
 
 import java.io.Serializable;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Wraps stats about a single partition path.
@@ -35,14 +36,25 @@ public class WorkloadStat implements Serializable {
 
   private HashMap<String, Pair<String, Long>> updateLocationToCount;
 
+  /**
+   * With the bucket index, the number of inserts per bucket of the index their record keys hash to.
+   */
+  private HashMap<Integer, Long> indexBucketToInsertCount;
+
   public WorkloadStat() {
     updateLocationToCount = new HashMap<>();
+    indexBucketToInsertCount = new HashMap<>();
   }
 
   public long addInserts(long numInserts) {
     return this.numInserts += numInserts;
   }
 
+  public long addInserts(int indexBucket, long numInserts) {
+    indexBucketToInsertCount.merge(indexBucket, numInserts, Long::sum);
+    return addInserts(numInserts);
+  }
+
   public long addUpdates(HoodieRecordLocation location, long numUpdates) {
     long accNumUpdates = 0;
     if (updateLocationToCount.containsKey(location.getFileId())) {
@@ -66,6 +78,10 @@ public class WorkloadStat implements Serializable {
     return updateLocationToCount;
   }
 
+  public Map<Integer, Long> getIndexBucketToInsertCount() {
+    return indexBucketToInsertCount;
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder("WorkloadStat {");
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.rocksdb;
+
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.common.model.EmptyHoodieRecordPayload;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.util.Option;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link RocksDBIndexStore}.
+ */
+public class TestRocksDBIndexStore {
+
+  private static final String STORE_NAME = "/tmp/table";
+
+  @TempDir
+  File tempDir;
+
+  private static HoodieRecord writtenRecord(HoodieKey key, Option<HoodieRecordLocation> currentLocation, Option<HoodieRecordLocation> newLocation) {
+    HoodieRecord record = new HoodieRecord(key, new EmptyHoodieRecordPayload());
+    if (currentLocation.isPresent()) {
+      record.setCurrentLocation(currentLocation.get());
+    }
+    if (newLocation.isPresent()) {
+      record.setNewLocation(newLocation.get());
+    }
+    return record;
+  }
+
+  @Test
+  public void testUpdateAndReopen() {
+    HoodieKey key1 = new HoodieKey("id1", "par1");
+    HoodieKey key2 = new HoodieKey("id2", "par1");
+    // same concatenation of partition path and record key as key2
+    HoodieKey key3 = new HoodieKey("d2", "par1i");
+    HoodieRecordLocation location1 = new HoodieRecordLocation("001", "file1");
+    HoodieRecordLocation location2 = new HoodieRecordLocation("002", "file2");
+    HoodieKey key4 = new HoodieKey("id4", "par1");
+
+    try (RocksDBIndexStore store = new RocksDBIndexStore(tempDir.getAbsolutePath(), STORE_NAME)) {
+      store.putAll(Arrays.asList(key1, key2), location1);
+      store.markPartitionLoaded("par1");
+
+      WriteStatus writeStatus = new WriteStatus(true, 0.0);
+      writeStatus.markSuccess(writtenRecord(key2, Option.of(location1), Option.of(new HoodieRecordLocation("002", "file1"))), Option.empty());
+      writeStatus.markSuccess(writtenRecord(key1, Option.of(location1), Option.empty()), Option.empty());
+      writeStatus.markSuccess(writtenRecord(key3, Option.empty(), Option.of(location1)), Option.empty());
+      writeStatus.markSuccess(writtenRecord(key4, Option.empty(), Option.of(location2)), Option.empty());
+      store.update(Collections.singletonList(writeStatus));
+    }
+
+    // the store outlives its writer
+    try (RocksDBIndexStore store = new RocksDBIndexStore(tempDir.getAbsolutePath(), STORE_NAME)) {
+      assertFalse(store.get(key1).isPresent(), "Deleted records are removed from the store");
+      assertEquals(location1, store.get(key2).get(), "The location of updated records is kept");
+      assertEquals(location1, store.get(key3).get());
+      assertEquals(location2, store.get(key4).get());
+      assertTrue(store.isPartitionLoaded("par1"));
+      assertFalse(store.isPartitionLoaded("par2"));
+
+      store.clear();
+      assertFalse(store.get(key2).isPresent());
+      assertFalse(store.isPartitionLoaded("par1"));
+    }
+  }
+
+  @Test
+  public void testSnapshotAndRestore() {
+    HoodieKey key1 = new HoodieKey("id1", "par1");
+    HoodieKey key2 = new HoodieKey("id2", "par1");
+    HoodieRecordLocation location = new HoodieRecordLocation("I", "file1");
+
+    try (RocksDBIndexStore store = RocksDBIndexStore.openAtSnapshot(tempDir.getAbsolutePath(), STORE_NAME, Option.empty())) {
+      store.put(key1, location);
+      store.snapshot(1);
+      store.markPartitionLoaded("par1");
+      store.snapshot(2);
+      store.put(key2, location);
+      store.snapshot(3);
+      store.cleanSnapshotsBefore(2);
+      String[] snapshots = new File(store.getStorePath() + "_snapshots").list();
+      Arrays.sort(snapshots);
+      assertArrayEquals(new String[] {"2", "3"}, snapshots);
+    }
+
+    // the locations put after the snapshot are discarded
+    try (RocksDBIndexStore store = RocksDBIndexStore.openAtSnapshot(tempDir.getAbsolutePath(), STORE_NAME, Option.of(2L))) {
+      assertEquals(location, store.get(key1).get());
+      assertFalse(store.get(key2).isPresent());
+      assertTrue(store.isPartitionLoaded("par1"));
+      store.put(key2, location);
+    }
+
+    // a missing snapshot leaves the store empty
+    try (RocksDBIndexStore store = RocksDBIndexStore.openAtSnapshot(tempDir.getAbsolutePath(), STORE_NAME, Option.of(1L))) {
+      assertFalse(store.get(key1).isPresent());
+      assertFalse(store.isPartitionLoaded("par1"));
+    }
+  }
+}
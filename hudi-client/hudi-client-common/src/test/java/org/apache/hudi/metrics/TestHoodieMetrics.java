@@ -136,6 +136,8 @@ public class TestHoodieMetrics {
       when(metadata.getTotalCompactedRecordsUpdated()).thenReturn(randomValue + 11);
       when(metadata.getTotalLogFilesCompacted()).thenReturn(randomValue + 12);
       when(metadata.getTotalLogFilesSize()).thenReturn(randomValue + 13);
+      when(metadata.getTotalPrefetchHits()).thenReturn(randomValue + 15);
+      when(metadata.getTotalPrefetchMisses()).thenReturn(randomValue + 16);
       when(metadata.getMinAndMaxEventTime()).thenReturn(Pair.of(Option.empty(), Option.empty()));
       metrics.updateCommitMetrics(randomValue + 14, commitTimer.stop(), metadata, action);
 
@@ -170,6 +172,10 @@ public class TestHoodieMetrics {
       assertEquals(Metrics.getInstance().getRegistry().getGauges().get(metricname).getValue(), metadata.getTotalLogFilesCompacted());
       metricname = metrics.getMetricsName(action, "totalLogFilesSize");
       assertEquals(Metrics.getInstance().getRegistry().getGauges().get(metricname).getValue(), metadata.getTotalLogFilesSize());
+      metricname = metrics.getMetricsName(action, "totalPrefetchHits");
+      assertEquals(Metrics.getInstance().getRegistry().getGauges().get(metricname).getValue(), metadata.getTotalPrefetchHits());
+      metricname = metrics.getMetricsName(action, "totalPrefetchMisses");
+      assertEquals(Metrics.getInstance().getRegistry().getGauges().get(metricname).getValue(), metadata.getTotalPrefetchMisses());
     });
   }
 }
@@ -430,7 +430,7 @@ public class HoodieFlinkWriteClient<T extends HoodieRecordPayload> extends
     if (isDelta) {
       writeHandle = new FlinkAppendHandle<>(config, instantTime, table, partitionPath, fileID, recordItr,
           table.getTaskContextSupplier());
-    } else if (loc.getInstantTime().equals("I")) {
+    } else if (loc.getInstantTime().equals("I") && !isWrittenBucket(config, table, partitionPath, fileID)) {
       writeHandle = new FlinkCreateHandle<>(config, instantTime, table, partitionPath,
           fileID, table.getTaskContextSupplier());
     } else {
@@ -441,6 +441,15 @@ public class HoodieFlinkWriteClient<T extends HoodieRecordPayload> extends
     return writeHandle;
   }
 
+  /**
+   * Returns whether the file group of an INSERT bucket of the bucket index was already written. The file group of a
+   * bucket is deterministic, so the bucket may have been written by the last commit after its records were tagged.
+   */
+  private static boolean isWrittenBucket(HoodieWriteConfig config, HoodieTable<?, ?, ?, ?> table, String partitionPath, String fileID) {
+    return config.getIndexType() == HoodieIndex.IndexType.BUCKET
+        && table.getBaseFileOnlyView().getLatestBaseFile(partitionPath, fileID).isPresent();
+  }
+
   private HoodieTable<T, List<HoodieRecord<T>>, List<HoodieKey>, List<WriteStatus>> getTableAndInitCtx(HoodieTableMetaClient metaClient, WriteOperationType operationType) {
     if (operationType == WriteOperationType.DELETE) {
       setWriteSchemaForDeletes(metaClient);
@@ -59,6 +59,10 @@ public abstract class FlinkHoodieIndex<T extends HoodieRecordPayload> extends Ho
     // TODO more indexes to be added
     switch (config.getIndexType()) {
       case INMEMORY:
+      case BUCKET:
+      case ROCKSDB:
+        // The records are tagged with the file groups of their buckets, or with the locations of the local
+        // RocksDB index, by the bucket assign function
         return new FlinkInMemoryStateIndex<>(context, config);
       case BLOOM:
         return new FlinkHoodieBloomIndex(config);
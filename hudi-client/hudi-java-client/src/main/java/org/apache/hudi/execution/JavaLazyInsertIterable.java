@@ -65,7 +65,8 @@ public class JavaLazyInsertIterable<T extends HoodieRecordPayload> extends Hoodi
     try {
       final Schema schema = new Schema.Parser().parse(hoodieConfig.getSchema());
       bufferedIteratorExecutor =
-          new BoundedInMemoryExecutor<>(hoodieConfig.getWriteBufferLimitBytes(), new IteratorBasedQueueProducer<>(inputItr), Option.of(getInsertHandler()), getTransformFunction(schema));
+          new BoundedInMemoryExecutor<>(new IteratorBasedQueueProducer<>(inputItr), Option.of(getInsertHandler()),
+              BoundedInMemoryQueueFactory.createQueue(hoodieConfig, getTransformFunction(schema)));
       final List<WriteStatus> result = bufferedIteratorExecutor.execute();
       assert result != null && !result.isEmpty() && !bufferedIteratorExecutor.isRemaining();
       return result;
@@ -54,6 +54,8 @@ public abstract class JavaHoodieIndex<T extends HoodieRecordPayload> extends Hoo
         return new JavaInMemoryHashIndex(config);
       case BLOOM:
         return new JavaHoodieBloomIndex(config);
+      case ROCKSDB:
+        return new JavaHoodieRocksDBIndex(config);
       default:
         throw new HoodieIndexException("Unsupported index type " + config.getIndexType());
     }
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index;
+
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.common.engine.HoodieEngineContext;
+import org.apache.hudi.common.model.HoodieBaseFile;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.table.timeline.HoodieTimeline;
+import org.apache.hudi.common.util.BaseFileUtils;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.index.rocksdb.RocksDBIndexStore;
+import org.apache.hudi.table.HoodieTable;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hoodie Index implementation backed by a {@link RocksDBIndexStore}, an embedded RocksDB instance on the local disk
+ * of the writer, so that the locations of the records neither live in the heap nor have to be loaded again when the
+ * writer restarts.
+ *
+ * <p>The store of a table persists across the write clients, it is opened by the first index of the table in the
+ * JVM and shared by the others. The keys of the base files of a partition are loaded into the store the first time
+ * the partition is tagged, then it is updated with the records written by each commit, before the commit completes:
+ * the locations written by a commit which is then rolled back are ignored when tagging, as the record index and
+ * the HBase index do.
+ */
+@SuppressWarnings("checkstyle:LineLength")
+public class JavaHoodieRocksDBIndex<T extends HoodieRecordPayload> extends JavaHoodieIndex<T> {
+
+  private static final Logger LOG = LogManager.getLogger(JavaHoodieRocksDBIndex.class);
+
+  private static final ConcurrentMap<String, RocksDBIndexStore> OPEN_STORES = new ConcurrentHashMap<>();
+
+  private final String rocksDBIndexPath;
+
+  // Identifies the store of the table among the open stores
+  private final String storeId;
+
+  public JavaHoodieRocksDBIndex(HoodieWriteConfig config) {
+    super(config);
+    this.rocksDBIndexPath = config.getRocksDBIndexPath();
+    this.storeId = rocksDBIndexPath + "/" + config.getBasePath();
+  }
+
+  private RocksDBIndexStore getStore() {
+    return OPEN_STORES.computeIfAbsent(storeId, id -> new RocksDBIndexStore(rocksDBIndexPath, config.getBasePath()));
+  }
+
+  @Override
+  public List<HoodieRecord<T>> tagLocation(List<HoodieRecord<T>> records, HoodieEngineContext context,
+                                           HoodieTable<T, List<HoodieRecord<T>>, List<HoodieKey>, List<WriteStatus>> hoodieTable) {
+    RocksDBIndexStore store = getStore();
+    records.stream().map(HoodieRecord::getPartitionPath).distinct()
+        .filter(partitionPath -> !store.isPartitionLoaded(partitionPath))
+        .forEach(partitionPath -> loadPartition(store, partitionPath, hoodieTable));
+    HoodieTimeline commitTimeline = hoodieTable.getMetaClient().getCommitsTimeline().filterCompletedInstants();
+    List<HoodieRecord<T>> taggedRecords = new ArrayList<>(records.size());
+    for (HoodieRecord<T> record : records) {
+      Option<HoodieRecordLocation> location = store.get(record.getKey());
+      // A location written by a commit which did not complete is treated as a new record
+      if (location.isPresent() && checkIfValidCommit(commitTimeline, location.get().getInstantTime())) {
+        record.unseal();
+        record.setCurrentLocation(location.get());
+        record.seal();
+      }
+      taggedRecords.add(record);
+    }
+    return taggedRecords;
+  }
+
+  /**
+   * Bootstraps the store with the keys of the latest base files of a partition, the first time the partition is
+   * written through the store, e.g. for the tables written before with another index or for a lost store.
+   */
+  private static void loadPartition(RocksDBIndexStore store, String partitionPath, HoodieTable<?, ?, ?, ?> hoodieTable) {
+    LOG.info("Loading the keys of partition " + partitionPath + " into the local index store");
+    BaseFileUtils fileUtils = BaseFileUtils.getInstance(hoodieTable.getBaseFileFormat());
+    for (HoodieBaseFile baseFile : HoodieIndexUtils.getLatestBaseFilesForPartition(partitionPath, hoodieTable)) {
+      List<HoodieKey> keys = fileUtils.fetchRecordKeyPartitionPath(hoodieTable.getHadoopConf(), new Path(baseFile.getPath()));
+      store.putAll(keys, new HoodieRecordLocation(baseFile.getCommitTime(), baseFile.getFileId()));
+    }
+    store.markPartitionLoaded(partitionPath);
+  }
+
+  private static boolean checkIfValidCommit(HoodieTimeline commitTimeline, String commitTs) {
+    // Check if the commit of the location is 1) present in the timeline or
+    // 2) is less than the first commit ts in the timeline
+    return !commitTimeline.empty() && commitTimeline.containsOrBeforeTimelineStarts(commitTs);
+  }
+
+  @Override
+  public List<WriteStatus> updateLocation(List<WriteStatus> writeStatusList,
+                                          HoodieEngineContext context,
+                                          HoodieTable<T, List<HoodieRecord<T>>, List<HoodieKey>, List<WriteStatus>> hoodieTable) {
+    getStore().update(writeStatusList);
+    return writeStatusList;
+  }
+
+  /**
+   * Locations written by rolled back commits are managed via method {@link #checkIfValidCommit}.
+   */
+  @Override
+  public boolean rollbackCommit(String instantTime) {
+    return true;
+  }
+
+  /**
+   * Looks up by {@link HoodieKey}, the records are expected to stay in their partition.
+   */
+  @Override
+  public boolean isGlobal() {
+    return false;
+  }
+
+  /**
+   * Mapping is available in the store already.
+   */
+  @Override
+  public boolean canIndexLogFiles() {
+    return true;
+  }
+
+  /**
+   * Index needs to be explicitly updated after storage write.
+   */
+  @Override
+  public boolean isImplicitWithStorage() {
+    return false;
+  }
+
+  /**
+   * Closes the store of the table, which is opened again by the next use of an index of the table.
+   */
+  @Override
+  public void close() {
+    RocksDBIndexStore store = OPEN_STORES.remove(storeId);
+    if (store != null) {
+      store.close();
+    }
+  }
+}
@@ -40,6 +40,7 @@ import org.apache.hudi.exception.HoodieUpsertException;
 import org.apache.hudi.execution.JavaLazyInsertIterable;
 import org.apache.hudi.io.CreateHandleFactory;
 import org.apache.hudi.io.HoodieMergeHandle;
+import org.apache.hudi.io.HoodieSortMergeJoinHandle;
 import org.apache.hudi.io.HoodieSortedMergeHandle;
 import org.apache.hudi.table.HoodieTable;
 import org.apache.hudi.table.WorkloadProfile;
@@ -284,6 +285,9 @@ public abstract class BaseJavaCommitActionExecutor<T extends HoodieRecordPayload
   protected HoodieMergeHandle getUpdateHandle(String partitionPath, String fileId, Iterator<HoodieRecord<T>> recordItr) {
     if (table.requireSortedRecords()) {
       return new HoodieSortedMergeHandle<>(config, instantTime, table, recordItr, partitionPath, fileId, taskContextSupplier);
+    } else if (config.shouldSortMergeWithSortedBaseFiles()
+        && HoodieSortMergeJoinHandle.isSortedByRecordKey(table, table.getBaseFileOnlyView().getLatestBaseFile(partitionPath, fileId).get())) {
+      return new HoodieSortMergeJoinHandle<>(config, instantTime, table, recordItr, partitionPath, fileId, taskContextSupplier);
     } else {
       return new HoodieMergeHandle<>(config, instantTime, table, recordItr, partitionPath, fileId, taskContextSupplier);
     }
@@ -303,6 +307,10 @@ public abstract class BaseJavaCommitActionExecutor<T extends HoodieRecordPayload
       LOG.info("Empty partition");
       return Collections.singletonList((List<WriteStatus>) Collections.EMPTY_LIST).iterator();
     }
+    if (config.shouldSortMergeWithSortedBaseFiles()) {
+      // write the new files sorted by record key, for them to be sort-merged later on
+      recordItr = HoodieSortMergeJoinHandle.sortByRecordKey(recordItr, config, taskContextSupplier);
+    }
     return new JavaLazyInsertIterable<>(recordItr, true, config, instantTime, table, idPfx,
         taskContextSupplier, new CreateHandleFactory<>());
   }
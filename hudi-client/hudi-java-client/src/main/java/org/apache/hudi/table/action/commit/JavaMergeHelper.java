@@ -27,6 +27,7 @@ import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.queue.BoundedInMemoryExecutor;
 import org.apache.hudi.common.util.queue.IteratorBasedQueueProducer;
 import org.apache.hudi.exception.HoodieException;
+import org.apache.hudi.execution.BoundedInMemoryQueueFactory;
 import org.apache.hudi.io.HoodieMergeHandle;
 import org.apache.hudi.io.storage.HoodieFileReader;
 import org.apache.hudi.io.storage.HoodieFileReaderFactory;
@@ -91,13 +92,13 @@ public class JavaMergeHelper<T extends HoodieRecordPayload> extends AbstractMerg
 
       ThreadLocal<BinaryEncoder> encoderCache = new ThreadLocal<>();
       ThreadLocal<BinaryDecoder> decoderCache = new ThreadLocal<>();
-      wrapper = new BoundedInMemoryExecutor(table.getConfig().getWriteBufferLimitBytes(), new IteratorBasedQueueProducer<>(readerIterator),
-          Option.of(new UpdateHandler(mergeHandle)), record -> {
-        if (!externalSchemaTransformation) {
-          return record;
-        }
-        return transformRecordBasedOnNewSchema(gReader, gWriter, encoderCache, decoderCache, (GenericRecord) record);
-      });
+      wrapper = new BoundedInMemoryExecutor(new IteratorBasedQueueProducer<>(readerIterator), Option.of(new UpdateHandler(mergeHandle)),
+          BoundedInMemoryQueueFactory.createQueue(table.getConfig(), record -> {
+            if (!externalSchemaTransformation) {
+              return record;
+            }
+            return transformRecordBasedOnNewSchema(gReader, gWriter, encoderCache, decoderCache, (GenericRecord) record);
+          }));
       wrapper.execute();
     } catch (Exception e) {
       throw new HoodieException(e);
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index;
+
+import org.apache.hudi.client.HoodieJavaWriteClient;
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.common.engine.EngineType;
+import org.apache.hudi.common.model.EmptyHoodieRecordPayload;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.common.testutils.HoodieTestDataGenerator;
+import org.apache.hudi.config.HoodieIndexConfig;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.table.HoodieJavaTable;
+import org.apache.hudi.testutils.HoodieJavaClientTestBase;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.apache.hudi.common.testutils.HoodieTestDataGenerator.TRIP_EXAMPLE_SCHEMA;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link JavaHoodieRocksDBIndex}.
+ */
+public class TestJavaHoodieRocksDBIndex extends HoodieJavaClientTestBase {
+
+  @TempDir
+  File rocksDBIndexDir;
+
+  private HoodieWriteConfig getConfig(HoodieIndex.IndexType indexType) {
+    return HoodieWriteConfig.newBuilder()
+        .withEngineType(EngineType.JAVA)
+        .withPath(basePath)
+        .withSchema(TRIP_EXAMPLE_SCHEMA)
+        .forTable("test-trip-table")
+        .withIndexConfig(HoodieIndexConfig.newBuilder().withIndexType(indexType)
+            .withRocksDBIndexPath(rocksDBIndexDir.getAbsolutePath()).build())
+        .build();
+  }
+
+  @Test
+  public void testBootstrapFromBaseFiles() {
+    HoodieTestDataGenerator dataGen = new HoodieTestDataGenerator(new String[] {HoodieTestDataGenerator.DEFAULT_FIRST_PARTITION_PATH});
+    // the table is first written without the local index
+    HoodieJavaWriteClient client = getHoodieWriteClient(getConfig(HoodieIndex.IndexType.INMEMORY));
+    String firstCommitTime = "001";
+    client.startCommitWithTime(firstCommitTime);
+    List<HoodieRecord> records = dataGen.generateInserts(firstCommitTime, 50);
+    client.insert(records, firstCommitTime);
+
+    // the partition is loaded into the store from the base file, so that the updates are tagged
+    HoodieWriteConfig config = getConfig(HoodieIndex.IndexType.ROCKSDB);
+    client = getHoodieWriteClient(config);
+    String secondCommitTime = "002";
+    client.startCommitWithTime(secondCommitTime);
+    List<HoodieRecord> upserts = dataGen.generateUniqueUpdates(secondCommitTime, 20);
+    List<HoodieRecord> inserts = dataGen.generateInserts(secondCommitTime, 10);
+    upserts.addAll(inserts);
+    List<WriteStatus> statuses = client.upsert(upserts, secondCommitTime);
+    assertEquals(20, statuses.stream().mapToLong(status -> status.getStat().getNumUpdateWrites()).sum());
+    assertEquals(10, statuses.stream().mapToLong(status -> status.getStat().getNumInserts()).sum());
+    client.close();
+
+    // the updated records keep their location, the inserted records get theirs
+    Set<String> insertedKeys = inserts.stream().map(HoodieRecord::getRecordKey).collect(Collectors.toSet());
+    JavaHoodieRocksDBIndex index = new JavaHoodieRocksDBIndex(config);
+    List<HoodieRecord> toTag = upserts.stream().map(record -> new HoodieRecord(record.getKey(), new EmptyHoodieRecordPayload())).collect(Collectors.toList());
+    List<HoodieRecord> tagged = index.tagLocation(toTag, context, HoodieJavaTable.create(config, context, HoodieTableMetaClient.reload(metaClient)));
+    index.close();
+    assertEquals(30, tagged.size());
+    for (HoodieRecord record : tagged) {
+      assertTrue(record.isCurrentLocationKnown());
+      String expectedCommitTime = insertedKeys.contains(record.getRecordKey()) ? secondCommitTime : firstCommitTime;
+      assertEquals(expectedCommitTime, record.getCurrentLocation().getInstantTime());
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.client.model;
+
+import org.apache.hudi.common.util.Option;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.types.StructType;
+
+import java.io.Serializable;
+
+/**
+ * Row based counterpart of {@link org.apache.hudi.common.model.HoodieRecordPayload}, combining the {@link InternalRow}s
+ * of a record key on the row writer path without converting them to Avro. The rows are laid out as per the schema
+ * passed in, which includes the meta columns.
+ *
+ * <p>Implementations are instantiated with the {@link java.util.Properties} of the write config.
+ */
+public interface HoodieRowMerger extends Serializable {
+
+  /**
+   * When more than one incoming row has the same record key, picks the row to write.
+   *
+   * @param olderRow row received earlier
+   * @param newerRow row received later
+   * @param schema schema of the rows
+   * @return the row to write, may be one of the rows passed in
+   */
+  InternalRow preCombine(InternalRow olderRow, InternalRow newerRow, StructType schema);
+
+  /**
+   * Merges an incoming row into the row stored in the base file.
+   *
+   * @param currentRow row stored in the base file
+   * @param newRow incoming row with the same record key
+   * @param schema schema of the rows
+   * @return the row to write, or empty to delete the record
+   */
+  Option<InternalRow> combineAndGetUpdateValue(InternalRow currentRow, InternalRow newRow, StructType schema);
+
+  /**
+   * Gets the row to write for an incoming row without a stored counterpart.
+   *
+   * @param newRow incoming row
+   * @param schema schema of the rows
+   * @return the row to write, or empty if the incoming row is a delete
+   */
+  Option<InternalRow> getInsertValue(InternalRow newRow, StructType schema);
+}
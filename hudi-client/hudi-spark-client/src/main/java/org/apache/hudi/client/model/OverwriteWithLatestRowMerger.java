@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.client.model;
+
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.config.HoodieWriteConfig;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.types.BooleanType;
+import org.apache.spark.sql.types.StructType;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Default {@link HoodieRowMerger}, mirroring {@link org.apache.hudi.common.model.OverwriteWithLatestAvroPayload}.
+ * <ol>
+ * <li> preCombine - Picks the row with the greatest value of the precombine field, the latest one on ties.
+ * <li> combineAndGetUpdateValue/getInsertValue - Simply overwrites storage with latest delta row, deleting the record
+ * when the {@code _hoodie_is_deleted} field of the row is true.
+ * </ol>
+ */
+public class OverwriteWithLatestRowMerger implements HoodieRowMerger {
+
+  private static final String DELETE_FIELD = "_hoodie_is_deleted";
+
+  private final String preCombineField;
+
+  public OverwriteWithLatestRowMerger(Properties props) {
+    this.preCombineField = props.getProperty(HoodieWriteConfig.PRECOMBINE_FIELD_PROP);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public InternalRow preCombine(InternalRow olderRow, InternalRow newerRow, StructType schema) {
+    if (preCombineField == null || !Arrays.asList(schema.fieldNames()).contains(preCombineField)) {
+      return newerRow;
+    }
+    int ordinal = schema.fieldIndex(preCombineField);
+    if (olderRow.isNullAt(ordinal) || newerRow.isNullAt(ordinal)) {
+      return newerRow.isNullAt(ordinal) && !olderRow.isNullAt(ordinal) ? olderRow : newerRow;
+    }
+    Comparable<Object> olderValue = (Comparable<Object>) olderRow.get(ordinal, schema.fields()[ordinal].dataType());
+    Object newerValue = newerRow.get(ordinal, schema.fields()[ordinal].dataType());
+    return olderValue.compareTo(newerValue) > 0 ? olderRow : newerRow;
+  }
+
+  @Override
+  public Option<InternalRow> combineAndGetUpdateValue(InternalRow currentRow, InternalRow newRow, StructType schema) {
+    return getInsertValue(newRow, schema);
+  }
+
+  @Override
+  public Option<InternalRow> getInsertValue(InternalRow newRow, StructType schema) {
+    return isDeleteRow(newRow, schema) ? Option.empty() : Option.of(newRow);
+  }
+
+  private static boolean isDeleteRow(InternalRow row, StructType schema) {
+    if (!Arrays.asList(schema.fieldNames()).contains(DELETE_FIELD)) {
+      return false;
+    }
+    int ordinal = schema.fieldIndex(DELETE_FIELD);
+    return schema.fields()[ordinal].dataType() instanceof BooleanType && !row.isNullAt(ordinal) && row.getBoolean(ordinal);
+  }
+}
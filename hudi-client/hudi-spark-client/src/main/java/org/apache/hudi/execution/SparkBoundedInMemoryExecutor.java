@@ -44,7 +44,7 @@ public class SparkBoundedInMemoryExecutor<I, O, E> extends BoundedInMemoryExecut
 
   public SparkBoundedInMemoryExecutor(final HoodieWriteConfig hoodieConfig, BoundedInMemoryQueueProducer<I> producer,
       BoundedInMemoryQueueConsumer<O, E> consumer, Function<I, O> bufferedIteratorTransform) {
-    super(hoodieConfig.getWriteBufferLimitBytes(), producer, Option.of(consumer), bufferedIteratorTransform);
+    super(producer, Option.of(consumer), BoundedInMemoryQueueFactory.createQueue(hoodieConfig, bufferedIteratorTransform));
     this.sparkThreadTaskContext = TaskContext.get();
   }
 
@@ -20,12 +20,15 @@ package org.apache.hudi.index.bloom;
 
 import org.apache.hudi.client.utils.LazyIterableIterator;
 import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.exception.HoodieIndexException;
 import org.apache.hudi.io.HoodieKeyLookupHandle;
 import org.apache.hudi.io.HoodieKeyLookupHandle.KeyLookupResult;
+import org.apache.hudi.metadata.HoodieBloomFilterMetadataReader;
+import org.apache.hudi.metadata.HoodieMetadataPayload;
 import org.apache.hudi.table.HoodieTable;
 
 import org.apache.spark.api.java.function.Function2;
@@ -46,9 +49,20 @@ public class HoodieBloomIndexCheckFunction
 
   private final HoodieWriteConfig config;
 
+  private final Option<HoodieBloomFilterMetadataReader> bloomFilterReader;
+
   public HoodieBloomIndexCheckFunction(HoodieTable hoodieTable, HoodieWriteConfig config) {
+    this(hoodieTable, config, Option.empty());
+  }
+
+  /**
+   * @param bloomFilterReader Reader of the bloom filters saved within the Metadata Table, if enabled
+   */
+  public HoodieBloomIndexCheckFunction(HoodieTable hoodieTable, HoodieWriteConfig config,
+      Option<HoodieBloomFilterMetadataReader> bloomFilterReader) {
     this.hoodieTable = hoodieTable;
     this.config = config;
+    this.bloomFilterReader = bloomFilterReader;
   }
 
   @Override
@@ -84,7 +98,7 @@ public class HoodieBloomIndexCheckFunction
 
           // lazily init state
           if (keyLookupHandle == null) {
-            keyLookupHandle = new HoodieKeyLookupHandle(config, hoodieTable, partitionPathFilePair);
+            keyLookupHandle = createKeyLookupHandle(partitionPathFilePair);
           }
 
           // if continue on current file
@@ -93,7 +107,7 @@ public class HoodieBloomIndexCheckFunction
           } else {
             // do the actual checking of file & break out
             ret.add(keyLookupHandle.getLookupResult());
-            keyLookupHandle = new HoodieKeyLookupHandle(config, hoodieTable, partitionPathFilePair);
+            keyLookupHandle = createKeyLookupHandle(partitionPathFilePair);
             keyLookupHandle.addKey(recordKey);
             break;
           }
@@ -113,8 +127,15 @@ public class HoodieBloomIndexCheckFunction
       return ret;
     }
 
+    private HoodieKeyLookupHandle createKeyLookupHandle(Pair<String, String> partitionPathFilePair) {
+      Option<HoodieMetadataPayload> bloomFilterMetadata = bloomFilterReader.map(reader -> reader.getBloomFilterInfo(partitionPathFilePair.getRight()));
+      return new HoodieKeyLookupHandle(config, hoodieTable, partitionPathFilePair, bloomFilterMetadata);
+    }
+
     @Override
     protected void end() {
+      // the file groups of the Metadata Table stay open for all the files checked by the task
+      bloomFilterReader.ifPresent(HoodieBloomFilterMetadataReader::close);
     }
   }
 }
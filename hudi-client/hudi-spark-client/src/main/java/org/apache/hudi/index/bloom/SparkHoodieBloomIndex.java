@@ -21,6 +21,7 @@ package org.apache.hudi.index.bloom;
 import org.apache.hudi.client.WriteStatus;
 import org.apache.hudi.client.utils.SparkMemoryUtils;
 import org.apache.hudi.common.engine.HoodieEngineContext;
+import org.apache.hudi.common.metrics.Registry;
 import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieRecordLocation;
@@ -28,10 +29,16 @@ import org.apache.hudi.common.model.HoodieRecordPayload;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieIndexException;
 import org.apache.hudi.exception.MetadataNotFoundException;
 import org.apache.hudi.index.HoodieIndexUtils;
 import org.apache.hudi.index.SparkHoodieIndex;
+import org.apache.hudi.io.HoodieKeyLookupHandle.KeyLookupResult;
 import org.apache.hudi.io.HoodieRangeInfoHandle;
+import org.apache.hudi.metadata.HoodieBackedTableMetadata;
+import org.apache.hudi.metadata.HoodieBloomFilterMetadataReader;
+import org.apache.hudi.metadata.HoodieMetadataPayload;
+import org.apache.hudi.metadata.MetadataPartitionType;
 import org.apache.hudi.table.HoodieTable;
 
 import org.apache.log4j.LogManager;
@@ -39,8 +46,11 @@ import org.apache.log4j.Logger;
 import org.apache.spark.Partitioner;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
 import org.apache.spark.storage.StorageLevel;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -56,6 +66,9 @@ import static org.apache.hudi.index.HoodieIndexUtils.getLatestBaseFilesForAllPar
 
 /**
  * Indexing mechanism based on bloom filter. Each parquet file includes its row_key bloom filter in its metadata.
+ *
+ * When the Metadata Table saves the bloom filters and key ranges of the base files, they are read from there in bulk
+ * instead of from the footers of the files.
  */
 @SuppressWarnings("checkstyle:LineLength")
 public class SparkHoodieBloomIndex<T extends HoodieRecordPayload> extends SparkHoodieIndex<T> {
@@ -171,24 +184,92 @@ public class SparkHoodieBloomIndex<T extends HoodieRecordPayload> extends SparkH
         .collect(toList());
 
     if (config.getBloomIndexPruneByRanges()) {
+      Option<HoodieBloomFilterMetadataReader> bloomFilterReader = createBloomFilterMetadataReader(context);
+      if (bloomFilterReader.isPresent()) {
+        return loadKeyRangesFromMetadata(partitionPathFileIDList, context, hoodieTable, bloomFilterReader.get());
+      }
       // also obtain file ranges, if range pruning is enabled
       context.setJobStatus(this.getClass().getName(), "Obtain key ranges for file slices (range pruning=on)");
-      return context.map(partitionPathFileIDList, pf -> {
-        try {
-          HoodieRangeInfoHandle rangeInfoHandle = new HoodieRangeInfoHandle(config, hoodieTable, pf);
-          String[] minMaxKeys = rangeInfoHandle.getMinMaxKeys();
-          return new Tuple2<>(pf.getKey(), new BloomIndexFileInfo(pf.getValue(), minMaxKeys[0], minMaxKeys[1]));
-        } catch (MetadataNotFoundException me) {
-          LOG.warn("Unable to find range metadata in file :" + pf);
-          return new Tuple2<>(pf.getKey(), new BloomIndexFileInfo(pf.getValue()));
-        }
-      }, Math.max(partitionPathFileIDList.size(), 1));
+      return context.map(partitionPathFileIDList, pf -> loadKeyRangeFromFile(pf, hoodieTable),
+          Math.max(partitionPathFileIDList.size(), 1));
     } else {
       return partitionPathFileIDList.stream()
           .map(pf -> new Tuple2<>(pf.getKey(), new BloomIndexFileInfo(pf.getValue()))).collect(toList());
     }
   }
 
+  /**
+   * Load the key ranges of the files from the bloom filter partition of the Metadata Table. The files are grouped by
+   * the file group of the Metadata Table which saves their entry, each file group is read by a single task.
+   */
+  private List<Tuple2<String, BloomIndexFileInfo>> loadKeyRangesFromMetadata(List<Pair<String, String>> partitionPathFileIDList,
+                                                                             final HoodieEngineContext context,
+                                                                             final HoodieTable hoodieTable,
+                                                                             final HoodieBloomFilterMetadataReader bloomFilterReader) {
+    List<List<Pair<String, String>>> fileGroups = new ArrayList<>();
+    Map<String, Pair<String, String>> fileIdToPartitionPathFile = partitionPathFileIDList.stream()
+        .collect(Collectors.toMap(Pair::getValue, pf -> pf, (pf1, pf2) -> pf1));
+    bloomFilterReader.groupByFileGroup(fileIdToPartitionPathFile.keySet()).forEach(fileIds ->
+        fileGroups.add(fileIds.stream().map(fileIdToPartitionPathFile::get).collect(toList())));
+    if (fileGroups.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    context.setJobStatus(this.getClass().getName(), "Obtain key ranges for file slices from metadata table (range pruning=on)");
+    return context.flatMap(fileGroups, partitionPathFiles -> {
+      try (HoodieBloomFilterMetadataReader reader = bloomFilterReader) {
+        Map<String, HoodieMetadataPayload> bloomFilterInfos =
+            reader.getBloomFilterInfos(partitionPathFiles.stream().map(Pair::getValue).collect(toList()));
+        return partitionPathFiles.stream().map(pf -> {
+          HoodieMetadataPayload bloomFilterInfo = bloomFilterInfos.get(pf.getValue());
+          String latestFileName = hoodieTable.getBaseFileOnlyView().getLatestBaseFile(pf.getKey(), pf.getValue()).get().getFileName();
+          if (bloomFilterInfo == null || !bloomFilterInfo.getBloomFilterFileName().get().equals(latestFileName)) {
+            // The metadata table is not in sync with the latest base file, which was restored or not synced yet
+            LOG.warn("Bloom filter of " + latestFileName + " not found in metadata table, reading key range from file");
+            return loadKeyRangeFromFile(pf, hoodieTable);
+          }
+          Option<String[]> minMaxKeys = bloomFilterInfo.getMinMaxRecordKeys();
+          return new Tuple2<>(pf.getKey(), minMaxKeys.isPresent()
+              ? new BloomIndexFileInfo(pf.getValue(), minMaxKeys.get()[0], minMaxKeys.get()[1])
+              : new BloomIndexFileInfo(pf.getValue()));
+        });
+      }
+    }, fileGroups.size());
+  }
+
+  private Tuple2<String, BloomIndexFileInfo> loadKeyRangeFromFile(Pair<String, String> pf, HoodieTable hoodieTable) {
+    try {
+      HoodieRangeInfoHandle rangeInfoHandle = new HoodieRangeInfoHandle(config, hoodieTable, pf);
+      String[] minMaxKeys = rangeInfoHandle.getMinMaxKeys();
+      return new Tuple2<>(pf.getKey(), new BloomIndexFileInfo(pf.getValue(), minMaxKeys[0], minMaxKeys[1]));
+    } catch (MetadataNotFoundException me) {
+      LOG.warn("Unable to find range metadata in file :" + pf);
+      return new Tuple2<>(pf.getKey(), new BloomIndexFileInfo(pf.getValue()));
+    } catch (IOException e) {
+      throw new HoodieIndexException("Error reading key range of " + pf, e);
+    }
+  }
+
+  /**
+   * Returns a reader of the bloom filters and key ranges saved within the Metadata Table, if the bloom index is
+   * configured to read them from there instead of the footers of the base files.
+   */
+  private Option<HoodieBloomFilterMetadataReader> createBloomFilterMetadataReader(HoodieEngineContext context) {
+    if (!config.useFileListingMetadata() || !config.getMetadataConfig().enableBloomFilterIndex()) {
+      return Option.empty();
+    }
+    try (HoodieBackedTableMetadata metadata = new HoodieBackedTableMetadata(context, config.getMetadataConfig(),
+        config.getBasePath(), config.getSpillableMapBasePath())) {
+      if (metadata.getFileGroupCount(MetadataPartitionType.BLOOM_FILTERS) == 0) {
+        LOG.warn("Metadata table has no bloom filter partition in " + config.getBasePath() + ", reading bloom filters from files");
+        return Option.empty();
+      }
+      return Option.of(new HoodieBloomFilterMetadataReader(metadata, config.getSpillableMapBasePath()));
+    } catch (Exception e) {
+      throw new HoodieIndexException("Failed to read the bloom filter partition of the metadata table of " + config.getBasePath(), e);
+    }
+  }
+
   @Override
   public boolean rollbackCommit(String instantTime) {
     // Nope, don't need to do anything.
@@ -230,19 +311,40 @@ public class SparkHoodieBloomIndex<T extends HoodieRecordPayload> extends SparkH
   JavaRDD<Tuple2<String, HoodieKey>> explodeRecordRDDWithFileComparisons(
       final Map<String, List<BloomIndexFileInfo>> partitionToFileIndexInfo,
       JavaPairRDD<String, String> partitionRecordKeyPairRDD) {
-    IndexFileFilter indexFileFilter =
-        config.useBloomIndexTreebasedFilter() ? new IntervalTreeBasedIndexFileFilter(partitionToFileIndexInfo)
-            : new ListBasedIndexFileFilter(partitionToFileIndexInfo);
-
-    return partitionRecordKeyPairRDD.map(partitionRecordKeyPair -> {
-      String recordKey = partitionRecordKeyPair._2();
-      String partitionPath = partitionRecordKeyPair._1();
-
-      return indexFileFilter.getMatchingFilesAndPartition(partitionPath, recordKey).stream()
-          .map(partitionFileIdPair -> new Tuple2<>(partitionFileIdPair.getRight(),
-              new HoodieKey(recordKey, partitionPath)))
-          .collect(Collectors.toList());
-    }).flatMap(List::iterator);
+    IndexFileFilter indexFileFilter = createIndexFileFilter(partitionToFileIndexInfo);
+
+    if (config.useBloomIndexSortedRangeFilter()) {
+      // Broadcast the filter so that it is shipped once to each executor and shared by its tasks, rather than
+      // serialized within the closure of every task
+      Broadcast<IndexFileFilter> broadcastFilter =
+          JavaSparkContext.fromSparkContext(partitionRecordKeyPairRDD.context()).broadcast(indexFileFilter);
+      return partitionRecordKeyPairRDD.map(partitionRecordKeyPair -> getFileComparisons(broadcastFilter.value(), partitionRecordKeyPair))
+          .flatMap(List::iterator);
+    }
+    return partitionRecordKeyPairRDD.map(partitionRecordKeyPair -> getFileComparisons(indexFileFilter, partitionRecordKeyPair))
+        .flatMap(List::iterator);
+  }
+
+  /**
+   * Creates the filter of the files a record key should be compared with, among the files of its partition.
+   */
+  IndexFileFilter createIndexFileFilter(final Map<String, List<BloomIndexFileInfo>> partitionToFileIndexInfo) {
+    if (config.useBloomIndexSortedRangeFilter()) {
+      return new SortedRangeIndexFileFilter(partitionToFileIndexInfo);
+    }
+    return config.useBloomIndexTreebasedFilter() ? new IntervalTreeBasedIndexFileFilter(partitionToFileIndexInfo)
+        : new ListBasedIndexFileFilter(partitionToFileIndexInfo);
+  }
+
+  private static List<Tuple2<String, HoodieKey>> getFileComparisons(IndexFileFilter indexFileFilter,
+                                                                    Tuple2<String, String> partitionRecordKeyPair) {
+    String recordKey = partitionRecordKeyPair._2();
+    String partitionPath = partitionRecordKeyPair._1();
+
+    return indexFileFilter.getMatchingFilesAndPartition(partitionPath, recordKey).stream()
+        .map(partitionFileIdPair -> new Tuple2<>(partitionFileIdPair.getRight(),
+            new HoodieKey(recordKey, partitionFileIdPair.getLeft())))
+        .collect(Collectors.toList());
   }
 
   /**
@@ -269,8 +371,18 @@ public class SparkHoodieBloomIndex<T extends HoodieRecordPayload> extends SparkH
       fileComparisonsRDD = fileComparisonsRDD.sortBy(Tuple2::_1, true, shuffleParallelism);
     }
 
-    return fileComparisonsRDD.mapPartitionsWithIndex(new HoodieBloomIndexCheckFunction(hoodieTable, config), true)
-        .flatMap(List::iterator).filter(lr -> lr.getMatchingRecordKeys().size() > 0)
+    Option<HoodieBloomFilterMetadataReader> bloomFilterReader = createBloomFilterMetadataReader(hoodieTable.getContext());
+    JavaRDD<KeyLookupResult> lookupResults = fileComparisonsRDD
+        .mapPartitionsWithIndex(new HoodieBloomIndexCheckFunction(hoodieTable, config, bloomFilterReader), true)
+        .flatMap(List::iterator);
+    if (config.isMetricsOn()) {
+      // count the outcome of the lookups on the driver, the results are cached so the lookups are not run again
+      lookupResults = lookupResults.persist(SparkMemoryUtils.getBloomIndexInputStorageLevel(config.getProps()));
+      long[] counts = lookupResults.map(HoodieBloomIndexMetrics::getCounts)
+          .fold(HoodieBloomIndexMetrics.emptyCounts(), HoodieBloomIndexMetrics::addCounts);
+      new HoodieBloomIndexMetrics(Registry.getRegistry(HoodieBloomIndexMetrics.REGISTRY_NAME)).updateMetrics(counts);
+    }
+    return lookupResults.filter(lr -> lr.getMatchingRecordKeys().size() > 0)
         .flatMapToPair(lookupResult -> lookupResult.getMatchingRecordKeys().stream()
             .map(recordKey -> new Tuple2<>(new HoodieKey(recordKey, lookupResult.getPartitionPath()),
                 new HoodieRecordLocation(lookupResult.getBaseInstantTime(), lookupResult.getFileId())))
@@ -39,7 +39,6 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import scala.Tuple2;
 
@@ -65,33 +64,16 @@ public class SparkHoodieGlobalBloomIndex<T extends HoodieRecordPayload> extends
   }
 
   /**
-   * For each incoming record, produce N output records, 1 each for each file against which the record's key needs to be
-   * checked. For tables, where the keys have a definite insert order (e.g: timestamp as prefix), the number of files
-   * to be compared gets cut down a lot from range pruning.
-   * <p>
-   * Sub-partition to ensure the records can be looked up against files & also prune file<=>record comparisons based on
-   * recordKey ranges in the index info. the partition path of the incoming record (partitionRecordKeyPairRDD._2()) will
-   * be ignored since the search scope should be bigger than that
+   * Creates the filter of the files a record key should be compared with, among the files of all the partitions: the
+   * partition path of the incoming record will be ignored since the search scope should be bigger than that.
    */
-
   @Override
-  JavaRDD<Tuple2<String, HoodieKey>> explodeRecordRDDWithFileComparisons(
-      final Map<String, List<BloomIndexFileInfo>> partitionToFileIndexInfo,
-      JavaPairRDD<String, String> partitionRecordKeyPairRDD) {
-
-    IndexFileFilter indexFileFilter =
-        config.useBloomIndexTreebasedFilter() ? new IntervalTreeBasedGlobalIndexFileFilter(partitionToFileIndexInfo)
-            : new ListBasedGlobalIndexFileFilter(partitionToFileIndexInfo);
-
-    return partitionRecordKeyPairRDD.map(partitionRecordKeyPair -> {
-      String recordKey = partitionRecordKeyPair._2();
-      String partitionPath = partitionRecordKeyPair._1();
-
-      return indexFileFilter.getMatchingFilesAndPartition(partitionPath, recordKey).stream()
-          .map(partitionFileIdPair -> new Tuple2<>(partitionFileIdPair.getRight(),
-              new HoodieKey(recordKey, partitionFileIdPair.getLeft())))
-          .collect(Collectors.toList());
-    }).flatMap(List::iterator);
+  IndexFileFilter createIndexFileFilter(final Map<String, List<BloomIndexFileInfo>> partitionToFileIndexInfo) {
+    if (config.useBloomIndexSortedRangeFilter()) {
+      return new SortedRangeGlobalIndexFileFilter(partitionToFileIndexInfo);
+    }
+    return config.useBloomIndexTreebasedFilter() ? new IntervalTreeBasedGlobalIndexFileFilter(partitionToFileIndexInfo)
+        : new ListBasedGlobalIndexFileFilter(partitionToFileIndexInfo);
   }
 
   /**
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bucket;
+
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.common.engine.HoodieEngineContext;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.collection.Pair;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.index.HoodieIndexUtils;
+import org.apache.hudi.index.SparkHoodieIndex;
+import org.apache.hudi.table.HoodieTable;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.spark.api.java.JavaRDD;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index which hashes the records of each partition into a fixed number of buckets, each bucket being a single
+ * file group whose file id is derived from the bucket id.
+ *
+ * <p>Tagging does not look up any file: the latest file groups of the partitions of the incoming records are
+ * listed from the file system view once, and a record is tagged with the file group of its bucket if the bucket
+ * was already written. The records of the other buckets are inserted into the file group of their bucket by
+ * the {@link org.apache.hudi.table.action.commit.UpsertPartitioner}.
+ *
+ * <p>The record keys are expected to stay in their partition, and the number of buckets can not change once the
+ * table is written.
+ */
+@SuppressWarnings("checkstyle:LineLength")
+public class SparkHoodieBucketIndex<T extends HoodieRecordPayload> extends SparkHoodieIndex<T> {
+
+  private static final Logger LOG = LogManager.getLogger(SparkHoodieBucketIndex.class);
+
+  private final int numBuckets;
+
+  public SparkHoodieBucketIndex(HoodieWriteConfig config) {
+    super(config);
+    this.numBuckets = config.getBucketIndexNumBuckets();
+    LOG.info("Use bucket index, numBuckets=" + numBuckets);
+  }
+
+  @Override
+  public JavaRDD<HoodieRecord<T>> tagLocation(JavaRDD<HoodieRecord<T>> recordRDD, HoodieEngineContext context,
+                                              HoodieTable<T, JavaRDD<HoodieRecord<T>>, JavaRDD<HoodieKey>, JavaRDD<WriteStatus>> hoodieTable) {
+    List<String> partitionPaths = recordRDD.map(HoodieRecord::getPartitionPath).distinct().collect();
+    context.setJobStatus(this.getClass().getSimpleName(), "Listing the buckets of the affected partitions");
+    Map<String, Map<Integer, HoodieRecordLocation>> partitionToBucketLocations = new HashMap<>(context.mapToPair(partitionPaths,
+        partitionPath -> Pair.of(partitionPath, BucketIdentifier.getBucketLocations(partitionPath, hoodieTable)),
+        Math.max(partitionPaths.size(), 1)));
+
+    final int numBuckets = this.numBuckets;
+    return recordRDD.map(record -> {
+      int bucketId = BucketIdentifier.getBucketId(record.getRecordKey(), numBuckets);
+      Map<Integer, HoodieRecordLocation> bucketLocations = partitionToBucketLocations.get(record.getPartitionPath());
+      return HoodieIndexUtils.getTaggedRecord(record, Option.ofNullable(bucketLocations.get(bucketId)));
+    });
+  }
+
+  @Override
+  public JavaRDD<WriteStatus> updateLocation(JavaRDD<WriteStatus> writeStatusRDD, HoodieEngineContext context,
+                                             HoodieTable<T, JavaRDD<HoodieRecord<T>>, JavaRDD<HoodieKey>, JavaRDD<WriteStatus>> hoodieTable) {
+    return writeStatusRDD;
+  }
+
+  @Override
+  public boolean rollbackCommit(String instantTime) {
+    return true;
+  }
+
+  @Override
+  public boolean isGlobal() {
+    return false;
+  }
+
+  /**
+   * The file group of a record only depends on its key, so inserts can be written to file groups without base file.
+   */
+  @Override
+  public boolean canIndexLogFiles() {
+    return true;
+  }
+
+  @Override
+  public boolean isImplicitWithStorage() {
+    return true;
+  }
+}
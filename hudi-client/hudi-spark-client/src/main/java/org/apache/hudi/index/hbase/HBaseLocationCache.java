@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.hbase;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded LRU cache of record key to the location stored in the HBase index, shared by the tasks of a JVM.
+ *
+ * <p>The cache belongs to a generation of the index, which changes along with any commit that may have changed
+ * existing index entries rather than only added new ones. The cached locations are dropped when a task sees a new
+ * generation, while the locations of uncommitted instants are still checked against the timeline by the callers.
+ */
+class HBaseLocationCache {
+
+  private static final Map<String, HBaseLocationCache> TABLE_CACHES = new ConcurrentHashMap<>();
+
+  private final int maxSize;
+  private final String generation;
+  private final LinkedHashMap<String, CachedLocation> locations;
+
+  private HBaseLocationCache(int maxSize, String generation) {
+    this.maxSize = maxSize;
+    this.generation = generation;
+    this.locations = new LinkedHashMap<String, CachedLocation>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedLocation> eldest) {
+        return size() > HBaseLocationCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * @return the cache of the HBase index table, replaced by an empty one if absent or of another generation.
+   */
+  static HBaseLocationCache getOrCreate(String tableName, int maxSize, String generation) {
+    return TABLE_CACHES.compute(tableName, (t, cache) -> cache != null && cache.maxSize == maxSize
+        && cache.generation.equals(generation) ? cache : new HBaseLocationCache(maxSize, generation));
+  }
+
+  /**
+   * Drops all the cached locations of the HBase index table in this JVM.
+   */
+  static void invalidate(String tableName) {
+    TABLE_CACHES.remove(tableName);
+  }
+
+  synchronized CachedLocation get(String recordKey) {
+    return locations.get(recordKey);
+  }
+
+  synchronized void put(String recordKey, CachedLocation location) {
+    locations.put(recordKey, location);
+  }
+
+  synchronized void remove(String recordKey) {
+    locations.remove(recordKey);
+  }
+
+  synchronized int size() {
+    return locations.size();
+  }
+
+  /**
+   * Location of a record key in the HBase index.
+   */
+  static class CachedLocation {
+
+    private final String commitTs;
+    private final String fileId;
+    private final String partitionPath;
+
+    CachedLocation(String commitTs, String fileId, String partitionPath) {
+      this.commitTs = commitTs;
+      this.fileId = fileId;
+      this.partitionPath = partitionPath;
+    }
+
+    String getCommitTs() {
+      return commitTs;
+    }
+
+    String getFileId() {
+      return fileId;
+    }
+
+    String getPartitionPath() {
+      return partitionPath;
+    }
+  }
+}
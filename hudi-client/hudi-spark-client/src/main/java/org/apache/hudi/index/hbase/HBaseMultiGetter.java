@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.hbase;
+
+import org.apache.hudi.common.util.RateLimiter;
+import org.apache.hudi.common.util.collection.Pair;
+import org.apache.hudi.exception.HoodieIndexException;
+
+import org.apache.hadoop.hbase.ServerName;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Table;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues the multi-gets of a tagging task against the HBase index table.
+ *
+ * <p>Up to {@code maxOutstandingBatches} batches are in flight at once, each on its own {@link Table} since tables
+ * are not thread safe, and the results are handed back in submission order. When batching by region server, the
+ * gets of a batch are counted by the region server hosting their row, and every region server gets its own rate
+ * limiter, so that the throughput of a task is bounded by what each region server is allowed rather than by the
+ * batch as a whole. The batch is still issued as a single multi-get.
+ *
+ * <p>The rate limiters belong to the getter of a single tagging task: the load a region server sees is bounded by
+ * the number of concurrent tagging tasks times the permits of each.
+ *
+ * @param <C> Context of a batch, handed back along with its results
+ */
+class HBaseMultiGetter<C> implements AutoCloseable {
+
+  private final Connection connection;
+  private final TableName tableName;
+  private final int maxOutstandingBatches;
+  private final boolean batchByRegionServer;
+  private final int permitsPerSecond;
+  private final RateLimiter limiter;
+  private final Map<ServerName, RateLimiter> regionServerLimiters = new ConcurrentHashMap<>();
+  private final Deque<Pair<C, Future<Result[]>>> outstandingBatches = new ArrayDeque<>();
+  private final ExecutorService executor;
+  private Table table;
+
+  /**
+   * @param permitsPerSecond Gets allowed per second to this task, per region server when batching by region server
+   */
+  HBaseMultiGetter(Connection connection, TableName tableName, int maxOutstandingBatches, boolean batchByRegionServer,
+                   int permitsPerSecond) {
+    this.connection = connection;
+    this.tableName = tableName;
+    this.maxOutstandingBatches = Math.max(1, maxOutstandingBatches);
+    this.batchByRegionServer = batchByRegionServer;
+    this.permitsPerSecond = permitsPerSecond;
+    this.limiter = batchByRegionServer ? null : RateLimiter.create(permitsPerSecond, TimeUnit.SECONDS);
+    this.executor = this.maxOutstandingBatches > 1 ? Executors.newFixedThreadPool(this.maxOutstandingBatches) : null;
+  }
+
+  /**
+   * Submits a batch of gets.
+   *
+   * @return the batches whose results must be processed before submitting more, in submission order
+   */
+  List<Pair<C, Result[]>> submit(C context, List<Get> gets) throws IOException {
+    if (executor == null) {
+      if (table == null) {
+        table = connection.getTable(tableName);
+      }
+      return Collections.singletonList(Pair.of(context, get(table, gets)));
+    }
+    outstandingBatches.add(Pair.of(context, executor.submit(() -> {
+      try (Table batchTable = connection.getTable(tableName)) {
+        return get(batchTable, gets);
+      }
+    })));
+    List<Pair<C, Result[]>> completedBatches = new ArrayList<>();
+    while (outstandingBatches.size() >= maxOutstandingBatches) {
+      completedBatches.add(await(outstandingBatches.poll()));
+    }
+    return completedBatches;
+  }
+
+  /**
+   * @return the results of all the outstanding batches, in submission order
+   */
+  List<Pair<C, Result[]>> drain() {
+    List<Pair<C, Result[]>> completedBatches = new ArrayList<>();
+    while (!outstandingBatches.isEmpty()) {
+      completedBatches.add(await(outstandingBatches.poll()));
+    }
+    return completedBatches;
+  }
+
+  private Pair<C, Result[]> await(Pair<C, Future<Result[]>> batch) {
+    try {
+      return Pair.of(batch.getKey(), batch.getValue().get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HoodieIndexException("Interrupted while tagging indexed locations", e);
+    } catch (ExecutionException e) {
+      throw new HoodieIndexException("Failed to Tag indexed locations because of exception with HBase Client", e.getCause());
+    }
+  }
+
+  private Result[] get(Table table, List<Get> gets) throws IOException {
+    if (gets.isEmpty()) {
+      return new Result[0];
+    }
+    if (!batchByRegionServer) {
+      limiter.tryAcquire(gets.size());
+      return table.get(gets);
+    }
+    Map<ServerName, Integer> serverToNumGets = new HashMap<>();
+    try (RegionLocator regionLocator = connection.getRegionLocator(tableName)) {
+      for (Get get : gets) {
+        serverToNumGets.merge(regionLocator.getRegionLocation(get.getRow()).getServerName(), 1, Integer::sum);
+      }
+    }
+    serverToNumGets.forEach((serverName, numGets) ->
+        regionServerLimiters.computeIfAbsent(serverName, s -> RateLimiter.create(permitsPerSecond, TimeUnit.SECONDS)).tryAcquire(numGets));
+    // a single multi-get, which the client splits into concurrent requests to the region servers
+    return table.get(gets);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    if (limiter != null) {
+      limiter.stop();
+    }
+    regionServerLimiters.values().forEach(RateLimiter::stop);
+    if (table != null) {
+      table.close();
+    }
+  }
+}
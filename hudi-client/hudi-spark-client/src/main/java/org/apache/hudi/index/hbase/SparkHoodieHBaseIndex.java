@@ -25,16 +25,19 @@ import org.apache.hudi.client.common.HoodieSparkEngineContext;
 import org.apache.hudi.client.utils.SparkMemoryUtils;
 import org.apache.hudi.common.engine.HoodieEngineContext;
 import org.apache.hudi.common.model.EmptyHoodieRecordPayload;
+import org.apache.hudi.common.model.HoodieCommitMetadata;
 import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieRecordLocation;
 import org.apache.hudi.common.model.HoodieRecordPayload;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
 import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
+import org.apache.hudi.common.table.timeline.HoodieInstant;
 import org.apache.hudi.common.table.timeline.HoodieTimeline;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.RateLimiter;
 import org.apache.hudi.common.util.ReflectionUtils;
+import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.config.HoodieHBaseIndexConfig;
 import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.exception.HoodieDependentSystemUnavailableException;
@@ -73,10 +76,10 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import scala.Tuple2;
 
@@ -111,6 +114,8 @@ public class SparkHoodieHBaseIndex<T extends HoodieRecordPayload> extends SparkH
   private Integer numRegionServersForTable;
   private final String tableName;
   private HBasePutBatchSizeCalculator putBatchSizeCalculator;
+  // Whether each completed instant may have changed existing index entries, only used by the driver
+  private final transient Map<String, Boolean> instantChangesIndexEntries = new HashMap<>();
 
   public SparkHoodieHBaseIndex(HoodieWriteConfig config) {
     super(config);
@@ -206,11 +211,16 @@ public class SparkHoodieHBaseIndex<T extends HoodieRecordPayload> extends SparkH
     // `multiGetBatchSize` is intended to be a batch per 100ms. To create a rate limiter that measures
     // operations per second, we need to multiply `multiGetBatchSize` by 10.
     Integer multiGetBatchSize = config.getHbaseIndexGetBatchSize();
+    int maxOutstandingGetBatches = config.getHbaseIndexGetMaxOutstandingBatches();
+    boolean getBatchByRegionServer = config.getHbaseIndexGetBatchByRegionServer();
+    int locationCacheSize = config.getHbaseIndexLocationCacheSize();
+    String locationCacheGeneration = locationCacheSize > 0 ? getLocationCacheGeneration(metaClient) : null;
     return (Function2<Integer, Iterator<HoodieRecord<T>>, Iterator<HoodieRecord<T>>>) (partitionNum,
         hoodieRecordIterator) -> {
 
       boolean updatePartitionPath = config.getHbaseIndexUpdatePartitionPath();
-      RateLimiter limiter = RateLimiter.create(multiGetBatchSize * 10, TimeUnit.SECONDS);
+      Option<HBaseLocationCache> locationCache = locationCacheSize > 0
+          ? Option.of(HBaseLocationCache.getOrCreate(tableName, locationCacheSize, locationCacheGeneration)) : Option.empty();
       // Grab the global HBase connection
       synchronized (SparkHoodieHBaseIndex.class) {
         if (hbaseConnection == null || hbaseConnection.isClosed()) {
@@ -218,62 +228,40 @@ public class SparkHoodieHBaseIndex<T extends HoodieRecordPayload> extends SparkH
         }
       }
       List<HoodieRecord<T>> taggedRecords = new ArrayList<>();
-      try (HTable hTable = (HTable) hbaseConnection.getTable(TableName.valueOf(tableName))) {
+      try (HBaseMultiGetter<List<HoodieRecord>> multiGetter = new HBaseMultiGetter<>(hbaseConnection,
+          TableName.valueOf(tableName), maxOutstandingGetBatches, getBatchByRegionServer, multiGetBatchSize * 10)) {
         List<Get> statements = new ArrayList<>();
-        List<HoodieRecord> currentBatchOfRecords = new LinkedList<>();
+        List<HoodieRecord> currentBatchOfRecords = new ArrayList<>();
         // Do the tagging.
         while (hoodieRecordIterator.hasNext()) {
           HoodieRecord rec = hoodieRecordIterator.next();
+          if (locationCache.isPresent()) {
+            HBaseLocationCache.CachedLocation location = locationCache.get().get(rec.getRecordKey());
+            if (location != null && checkIfValidCommit(metaClient, location.getCommitTs())) {
+              tagRecord(rec, location.getCommitTs(), location.getFileId(), location.getPartitionPath(), updatePartitionPath, taggedRecords);
+              continue;
+            }
+          }
           statements.add(generateStatement(rec.getRecordKey()));
           currentBatchOfRecords.add(rec);
           // iterator till we reach batch size
-          if (hoodieRecordIterator.hasNext() && statements.size() < multiGetBatchSize) {
+          if (statements.size() < multiGetBatchSize) {
             continue;
           }
-          // get results for batch from Hbase
-          Result[] results = doGet(hTable, statements, limiter);
-          // clear statements to be GC'd
-          statements.clear();
-          for (Result result : results) {
-            // first, attempt to grab location from HBase
-            HoodieRecord currentRecord = currentBatchOfRecords.remove(0);
-            if (result.getRow() == null) {
-              taggedRecords.add(currentRecord);
-              continue;
-            }
-            String keyFromResult = Bytes.toString(result.getRow());
-            String commitTs = Bytes.toString(result.getValue(SYSTEM_COLUMN_FAMILY, COMMIT_TS_COLUMN));
-            String fileId = Bytes.toString(result.getValue(SYSTEM_COLUMN_FAMILY, FILE_NAME_COLUMN));
-            String partitionPath = Bytes.toString(result.getValue(SYSTEM_COLUMN_FAMILY, PARTITION_PATH_COLUMN));
-            if (!checkIfValidCommit(metaClient, commitTs)) {
-              // if commit is invalid, treat this as a new taggedRecord
-              taggedRecords.add(currentRecord);
-              continue;
-            }
-            // check whether to do partition change processing
-            if (updatePartitionPath && !partitionPath.equals(currentRecord.getPartitionPath())) {
-              // delete partition old data record
-              HoodieRecord emptyRecord = new HoodieRecord(new HoodieKey(currentRecord.getRecordKey(), partitionPath),
-                  new EmptyHoodieRecordPayload());
-              emptyRecord.unseal();
-              emptyRecord.setCurrentLocation(new HoodieRecordLocation(commitTs, fileId));
-              emptyRecord.seal();
-              // insert partition new data record
-              currentRecord = new HoodieRecord(new HoodieKey(currentRecord.getRecordKey(), currentRecord.getPartitionPath()),
-                  currentRecord.getData());
-              taggedRecords.add(emptyRecord);
-              taggedRecords.add(currentRecord);
-            } else {
-              currentRecord = new HoodieRecord(new HoodieKey(currentRecord.getRecordKey(), partitionPath),
-                  currentRecord.getData());
-              currentRecord.unseal();
-              currentRecord.setCurrentLocation(new HoodieRecordLocation(commitTs, fileId));
-              currentRecord.seal();
-              taggedRecords.add(currentRecord);
-              // the key from Result and the key being processed should be same
-              assert (currentRecord.getRecordKey().contentEquals(keyFromResult));
-            }
+          // get results for batch from Hbase, the batches sent earlier may be handed back
+          for (Pair<List<HoodieRecord>, Result[]> batch : multiGetter.submit(currentBatchOfRecords, statements)) {
+            tagRecords(metaClient, batch.getKey(), batch.getValue(), updatePartitionPath, locationCache, taggedRecords);
           }
+          statements = new ArrayList<>();
+          currentBatchOfRecords = new ArrayList<>();
+        }
+        if (!statements.isEmpty()) {
+          for (Pair<List<HoodieRecord>, Result[]> batch : multiGetter.submit(currentBatchOfRecords, statements)) {
+            tagRecords(metaClient, batch.getKey(), batch.getValue(), updatePartitionPath, locationCache, taggedRecords);
+          }
+        }
+        for (Pair<List<HoodieRecord>, Result[]> batch : multiGetter.drain()) {
+          tagRecords(metaClient, batch.getKey(), batch.getValue(), updatePartitionPath, locationCache, taggedRecords);
         }
       } catch (IOException e) {
         throw new HoodieIndexException("Failed to Tag indexed locations because of exception with HBase Client", e);
@@ -282,12 +270,96 @@ public class SparkHoodieHBaseIndex<T extends HoodieRecordPayload> extends SparkH
     };
   }
 
-  private Result[] doGet(HTable hTable, List<Get> keys, RateLimiter limiter) throws IOException {
-    if (keys.size() > 0) {
-      limiter.tryAcquire(keys.size());
-      return hTable.get(keys);
+  /**
+   * Tags a batch of records with the results of their gets from HBase.
+   */
+  private void tagRecords(HoodieTableMetaClient metaClient, List<HoodieRecord> records, Result[] results, boolean updatePartitionPath,
+                          Option<HBaseLocationCache> locationCache, List<HoodieRecord<T>> taggedRecords) {
+    for (int i = 0; i < results.length; i++) {
+      // first, attempt to grab location from HBase
+      Result result = results[i];
+      HoodieRecord currentRecord = records.get(i);
+      if (result.getRow() == null) {
+        taggedRecords.add(currentRecord);
+        continue;
+      }
+      String keyFromResult = Bytes.toString(result.getRow());
+      String commitTs = Bytes.toString(result.getValue(SYSTEM_COLUMN_FAMILY, COMMIT_TS_COLUMN));
+      String fileId = Bytes.toString(result.getValue(SYSTEM_COLUMN_FAMILY, FILE_NAME_COLUMN));
+      String partitionPath = Bytes.toString(result.getValue(SYSTEM_COLUMN_FAMILY, PARTITION_PATH_COLUMN));
+      if (!checkIfValidCommit(metaClient, commitTs)) {
+        // if commit is invalid, treat this as a new taggedRecord
+        taggedRecords.add(currentRecord);
+        continue;
+      }
+      // the key from Result and the key being processed should be same
+      assert (currentRecord.getRecordKey().contentEquals(keyFromResult));
+      if (locationCache.isPresent()) {
+        locationCache.get().put(keyFromResult, new HBaseLocationCache.CachedLocation(commitTs, fileId, partitionPath));
+      }
+      tagRecord(currentRecord, commitTs, fileId, partitionPath, updatePartitionPath, taggedRecords);
+    }
+  }
+
+  /**
+   * Tags a record with its location in the index.
+   */
+  private void tagRecord(HoodieRecord currentRecord, String commitTs, String fileId, String partitionPath,
+                         boolean updatePartitionPath, List<HoodieRecord<T>> taggedRecords) {
+    // check whether to do partition change processing
+    if (updatePartitionPath && !partitionPath.equals(currentRecord.getPartitionPath())) {
+      // delete partition old data record
+      HoodieRecord emptyRecord = new HoodieRecord(new HoodieKey(currentRecord.getRecordKey(), partitionPath),
+          new EmptyHoodieRecordPayload());
+      emptyRecord.unseal();
+      emptyRecord.setCurrentLocation(new HoodieRecordLocation(commitTs, fileId));
+      emptyRecord.seal();
+      // insert partition new data record
+      currentRecord = new HoodieRecord(new HoodieKey(currentRecord.getRecordKey(), currentRecord.getPartitionPath()),
+          currentRecord.getData());
+      taggedRecords.add(emptyRecord);
+      taggedRecords.add(currentRecord);
+    } else {
+      currentRecord = new HoodieRecord(new HoodieKey(currentRecord.getRecordKey(), partitionPath),
+          currentRecord.getData());
+      currentRecord.unseal();
+      currentRecord.setCurrentLocation(new HoodieRecordLocation(commitTs, fileId));
+      currentRecord.seal();
+      taggedRecords.add(currentRecord);
+    }
+  }
+
+  /**
+   * Identifies the completed instants that may have changed existing entries of the index, i.e. commits with
+   * deletes (which include the records moved to another partition), replace commits, rollbacks and restores. The
+   * locations cached by the executors are dropped whenever this generation changes.
+   */
+  private synchronized String getLocationCacheGeneration(HoodieTableMetaClient metaClient) {
+    HoodieTimeline completedTimeline = metaClient.getActiveTimeline().filterCompletedInstants();
+    List<String> changingInstants = completedTimeline.getInstants()
+        .filter(instant -> instantChangesIndexEntries.computeIfAbsent(instant.getTimestamp() + instant.getAction(),
+            i -> changesIndexEntries(completedTimeline, instant)))
+        .map(HoodieInstant::getTimestamp).collect(Collectors.toList());
+    return changingInstants.size() + "_" + Integer.toHexString(changingInstants.hashCode());
+  }
+
+  private static boolean changesIndexEntries(HoodieTimeline completedTimeline, HoodieInstant instant) {
+    switch (instant.getAction()) {
+      case HoodieTimeline.COMMIT_ACTION:
+      case HoodieTimeline.DELTA_COMMIT_ACTION:
+        try {
+          return HoodieCommitMetadata.fromBytes(completedTimeline.getInstantDetails(instant).get(), HoodieCommitMetadata.class)
+              .getTotalRecordsDeleted() > 0;
+        } catch (IOException e) {
+          throw new HoodieIndexException("Failed to read commit metadata of " + instant, e);
+        }
+      case HoodieTimeline.REPLACE_COMMIT_ACTION:
+      case HoodieTimeline.ROLLBACK_ACTION:
+      case HoodieTimeline.RESTORE_ACTION:
+        return true;
+      default:
+        return false;
     }
-    return new Result[keys.size()];
   }
 
   @Override
@@ -297,11 +369,16 @@ public class SparkHoodieHBaseIndex<T extends HoodieRecordPayload> extends SparkH
     return recordRDD.mapPartitionsWithIndex(locationTagFunction(hoodieTable.getMetaClient()), true);
   }
 
-  private Function2<Integer, Iterator<WriteStatus>, Iterator<WriteStatus>> updateLocationFunction() {
+  private Function2<Integer, Iterator<WriteStatus>, Iterator<WriteStatus>> updateLocationFunction(
+      HoodieTableMetaClient metaClient) {
 
+    int locationCacheSize = config.getHbaseIndexLocationCacheSize();
+    String locationCacheGeneration = locationCacheSize > 0 ? getLocationCacheGeneration(metaClient) : null;
     return (Function2<Integer, Iterator<WriteStatus>, Iterator<WriteStatus>>) (partition, statusIterator) -> {
 
       List<WriteStatus> writeStatusList = new ArrayList<>();
+      Option<HBaseLocationCache> locationCache = locationCacheSize > 0
+          ? Option.of(HBaseLocationCache.getOrCreate(tableName, locationCacheSize, locationCacheGeneration)) : Option.empty();
       // Grab the global HBase connection
       synchronized (SparkHoodieHBaseIndex.class) {
         if (hbaseConnection == null || hbaseConnection.isClosed()) {
@@ -336,10 +413,17 @@ public class SparkHoodieHBaseIndex<T extends HoodieRecordPayload> extends SparkH
                   put.addColumn(SYSTEM_COLUMN_FAMILY, FILE_NAME_COLUMN, Bytes.toBytes(loc.get().getFileId()));
                   put.addColumn(SYSTEM_COLUMN_FAMILY, PARTITION_PATH_COLUMN, Bytes.toBytes(rec.getPartitionPath()));
                   mutations.add(put);
+                  if (locationCache.isPresent()) {
+                    locationCache.get().put(rec.getRecordKey(), new HBaseLocationCache.CachedLocation(loc.get().getInstantTime(),
+                        loc.get().getFileId(), rec.getPartitionPath()));
+                  }
                 } else {
                   // Delete existing index for a deleted record
                   Delete delete = new Delete(Bytes.toBytes(rec.getRecordKey()));
                   mutations.add(delete);
+                  if (locationCache.isPresent()) {
+                    locationCache.get().remove(rec.getRecordKey());
+                  }
                 }
               }
               if (mutations.size() < multiPutBatchSize) {
@@ -407,7 +491,7 @@ public class SparkHoodieHBaseIndex<T extends HoodieRecordPayload> extends SparkH
                                               .map(w -> w._2());
     JavaSparkContext jsc = HoodieSparkEngineContext.getSparkContext(context);
     acquireQPSResourcesAndSetBatchSize(desiredQPSFraction, jsc);
-    JavaRDD<WriteStatus> writeStatusJavaRDD = partitionedRDD.mapPartitionsWithIndex(updateLocationFunction(),
+    JavaRDD<WriteStatus> writeStatusJavaRDD = partitionedRDD.mapPartitionsWithIndex(updateLocationFunction(hoodieTable.getMetaClient()),
         true);
     // caching the index updated status RDD
     writeStatusJavaRDD = writeStatusJavaRDD.persist(SparkMemoryUtils.getWriteStatusStorageLevel(config.getProps()));
@@ -547,6 +631,9 @@ public class SparkHoodieHBaseIndex<T extends HoodieRecordPayload> extends SparkH
   public boolean rollbackCommit(String instantTime) {
     int multiGetBatchSize = config.getHbaseIndexGetBatchSize();
     boolean rollbackSync = config.getHBaseIndexRollbackSync();
+    // The locations cached by executors are dropped along with the next tagging, as the rollback changes the
+    // generation of the cache, only the locations cached by this JVM can be dropped right away
+    HBaseLocationCache.invalidate(tableName);
 
     if (!config.getHBaseIndexRollbackSync()) {
       // Default Rollback in HbaseIndex is managed via method {@link #checkIfValidCommit()}
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.record;
+
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.common.engine.HoodieEngineContext;
+import org.apache.hudi.common.model.EmptyHoodieRecordPayload;
+import org.apache.hudi.common.model.FileSlice;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.common.table.timeline.HoodieInstant;
+import org.apache.hudi.common.table.timeline.HoodieTimeline;
+import org.apache.hudi.common.util.collection.Pair;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieIndexException;
+import org.apache.hudi.index.SparkHoodieIndex;
+import org.apache.hudi.metadata.HoodieBackedTableMetadata;
+import org.apache.hudi.metadata.HoodieMetadataFileGroupReader;
+import org.apache.hudi.metadata.HoodieTableMetadataUtil;
+import org.apache.hudi.metadata.MetadataPartitionType;
+import org.apache.hudi.table.HoodieTable;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.spark.Partitioner;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.function.Function2;
+import scala.Tuple2;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A global index which looks up the location of records in the record index partition of the Metadata Table.
+ *
+ * The incoming records are shuffled to the file group of the record index their key is hashed to, and sorted by key
+ * within each Spark partition. Each Spark partition then opens the file group once and looks up its keys in sorted
+ * batches, so the base HFile of the file group is read forward in a single pass.
+ *
+ * The record index is maintained by the Metadata Table when the commits of the dataset are synced to it. Locations
+ * written by commits which were rolled back are ignored on lookup.
+ */
+@SuppressWarnings("checkstyle:LineLength")
+public class SparkHoodieRecordIndex<T extends HoodieRecordPayload> extends SparkHoodieIndex<T> {
+
+  private static final Logger LOG = LogManager.getLogger(SparkHoodieRecordIndex.class);
+
+  public SparkHoodieRecordIndex(HoodieWriteConfig config) {
+    super(config);
+  }
+
+  @Override
+  public JavaRDD<HoodieRecord<T>> tagLocation(JavaRDD<HoodieRecord<T>> recordRDD, HoodieEngineContext context,
+                                              HoodieTable<T, JavaRDD<HoodieRecord<T>>, JavaRDD<HoodieKey>, JavaRDD<WriteStatus>> hoodieTable) {
+    if (!config.useFileListingMetadata() || !config.getMetadataConfig().enableRecordIndex()) {
+      throw new HoodieIndexException("Record index requires the metadata table and its record index to be enabled");
+    }
+    HoodieTimeline commitTimeline = hoodieTable.getMetaClient().getCommitsTimeline().filterCompletedInstants();
+    if (commitTimeline.empty()) {
+      // Nothing was written to the dataset yet, all the records are new
+      return recordRDD;
+    }
+
+    int numFileGroups;
+    Map<String, FileSlice> fileSlices;
+    HoodieTableMetaClient metadataMetaClient;
+    try (HoodieBackedTableMetadata metadata = new HoodieBackedTableMetadata(context, config.getMetadataConfig(),
+        config.getBasePath(), config.getSpillableMapBasePath())) {
+      numFileGroups = metadata.getFileGroupCount(MetadataPartitionType.RECORD_INDEX);
+      if (numFileGroups == 0) {
+        throw new HoodieIndexException("Metadata table has no record index partition in " + config.getBasePath());
+      }
+      metadataMetaClient = metadata.getMetaClient();
+      validateInSync(hoodieTable.getMetaClient(), metadataMetaClient);
+      fileSlices = metadata.getPartitionFileSlices(MetadataPartitionType.RECORD_INDEX);
+    } catch (HoodieIndexException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new HoodieIndexException("Failed to read the record index of " + config.getBasePath(), e);
+    }
+
+    // Every file group is looked up by as many Spark partitions as needed to keep the parallelism of the input
+    int splitsPerFileGroup = Math.max(1, (recordRDD.getNumPartitions() + numFileGroups - 1) / numFileGroups);
+    LOG.info("Looking up " + numFileGroups + " record index file groups, " + fileSlices.size() + " of them with records, using "
+        + splitsPerFileGroup + " partitions per file group");
+    return recordRDD.mapToPair(record -> new Tuple2<>(record.getRecordKey(), record))
+        .repartitionAndSortWithinPartitions(new RecordIndexPartitioner(numFileGroups, splitsPerFileGroup))
+        .values()
+        .mapPartitionsWithIndex(locationTagFunction(metadataMetaClient, fileSlices, commitTimeline, splitsPerFileGroup), true);
+  }
+
+  /**
+   * Fails if a commit completed on the dataset was not synced to the Metadata Table yet, the record index would miss
+   * the records it wrote.
+   */
+  private void validateInSync(HoodieTableMetaClient datasetMetaClient, HoodieTableMetaClient metadataMetaClient) {
+    HoodieTimeline metadataTimeline = metadataMetaClient.getActiveTimeline().getDeltaCommitTimeline().filterCompletedInstants();
+    if (metadataTimeline.empty()) {
+      throw new HoodieIndexException("Metadata table has no completed instant in " + metadataMetaClient.getBasePath());
+    }
+    Set<String> syncedInstants = metadataTimeline.getInstants().map(HoodieInstant::getTimestamp).collect(Collectors.toSet());
+    List<String> unsyncedInstants = datasetMetaClient.getCommitsTimeline().filterCompletedInstants()
+        .findInstantsAfter(metadataTimeline.firstInstant().get().getTimestamp(), Integer.MAX_VALUE)
+        .getInstants()
+        .map(HoodieInstant::getTimestamp)
+        .filter(instantTime -> !syncedInstants.contains(instantTime))
+        .collect(Collectors.toList());
+    if (!unsyncedInstants.isEmpty()) {
+      throw new HoodieIndexException("Record index is not in sync with the dataset, un-synced instants " + unsyncedInstants);
+    }
+  }
+
+  /**
+   * Function that tags each HoodieRecord with its existing location, if known. The records of a Spark partition all
+   * belong to the same file group of the record index, in ascending order of their keys.
+   */
+  private Function2<Integer, Iterator<HoodieRecord<T>>, Iterator<HoodieRecord<T>>> locationTagFunction(
+      HoodieTableMetaClient metadataMetaClient, Map<String, FileSlice> fileSlices, HoodieTimeline commitTimeline,
+      int splitsPerFileGroup) {
+    int lookupBatchSize = config.getRecordIndexLookupBatchSize();
+    boolean updatePartitionPath = config.getRecordIndexUpdatePartitionPath();
+    String spillableMapBasePath = config.getSpillableMapBasePath();
+    return (partitionNum, hoodieRecordIterator) -> {
+      String fileId = HoodieTableMetadataUtil.getFileGroupId(MetadataPartitionType.RECORD_INDEX, partitionNum / splitsPerFileGroup);
+      FileSlice fileSlice = fileSlices.get(fileId);
+      if (fileSlice == null) {
+        // No record was ever hashed to this file group, all the records are new
+        return hoodieRecordIterator;
+      }
+
+      List<HoodieRecord<T>> taggedRecords = new ArrayList<>();
+      try (HoodieMetadataFileGroupReader reader = new HoodieMetadataFileGroupReader(metadataMetaClient, fileSlice, spillableMapBasePath)) {
+        List<HoodieRecord<T>> currentBatchOfRecords = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        while (hoodieRecordIterator.hasNext()) {
+          HoodieRecord<T> record = hoodieRecordIterator.next();
+          currentBatchOfRecords.add(record);
+          // the records are sorted by key, duplicate keys are next to each other
+          if (keys.isEmpty() || !keys.get(keys.size() - 1).equals(record.getRecordKey())) {
+            keys.add(record.getRecordKey());
+          }
+          // iterate till we reach batch size
+          if (hoodieRecordIterator.hasNext() && keys.size() < lookupBatchSize) {
+            continue;
+          }
+          Map<String, Pair<String, HoodieRecordLocation>> locations = reader.getRecordLocations(keys);
+          for (HoodieRecord<T> currentRecord : currentBatchOfRecords) {
+            Pair<String, HoodieRecordLocation> location = locations.get(currentRecord.getRecordKey());
+            if (location == null || !checkIfValidCommit(commitTimeline, location.getRight().getInstantTime())) {
+              // if the record is not indexed or the commit is invalid, treat this as a new record
+              taggedRecords.add(currentRecord);
+              continue;
+            }
+            tagRecord(currentRecord, location.getLeft(), location.getRight(), updatePartitionPath, taggedRecords);
+          }
+          currentBatchOfRecords.clear();
+          keys.clear();
+        }
+      } catch (IOException e) {
+        throw new HoodieIndexException("Failed to tag indexed locations from record index file group " + fileId, e);
+      }
+      return taggedRecords.iterator();
+    };
+  }
+
+  private void tagRecord(HoodieRecord<T> currentRecord, String partitionPath, HoodieRecordLocation location,
+                         boolean updatePartitionPath, List<HoodieRecord<T>> taggedRecords) {
+    // check whether to do partition change processing
+    if (updatePartitionPath && !partitionPath.equals(currentRecord.getPartitionPath())) {
+      // delete partition old data record
+      HoodieRecord emptyRecord = new HoodieRecord(new HoodieKey(currentRecord.getRecordKey(), partitionPath),
+          new EmptyHoodieRecordPayload());
+      emptyRecord.unseal();
+      emptyRecord.setCurrentLocation(location);
+      emptyRecord.seal();
+      // insert partition new data record
+      taggedRecords.add(emptyRecord);
+      taggedRecords.add(new HoodieRecord<>(new HoodieKey(currentRecord.getRecordKey(), currentRecord.getPartitionPath()),
+          currentRecord.getData()));
+    } else {
+      HoodieRecord<T> record = new HoodieRecord<>(new HoodieKey(currentRecord.getRecordKey(), partitionPath),
+          currentRecord.getData());
+      record.unseal();
+      record.setCurrentLocation(location);
+      record.seal();
+      taggedRecords.add(record);
+    }
+  }
+
+  private static boolean checkIfValidCommit(HoodieTimeline commitTimeline, String commitTs) {
+    // Check if the commit of the location is 1) present in the timeline or
+    // 2) is less than the first commit ts in the timeline
+    return !commitTimeline.empty() && commitTimeline.containsOrBeforeTimelineStarts(commitTs);
+  }
+
+  @Override
+  public JavaRDD<WriteStatus> updateLocation(JavaRDD<WriteStatus> writeStatusRDD, HoodieEngineContext context,
+                                             HoodieTable<T, JavaRDD<HoodieRecord<T>>, JavaRDD<HoodieKey>, JavaRDD<WriteStatus>> hoodieTable) {
+    // The record index is updated when the commit is synced to the Metadata Table
+    return writeStatusRDD;
+  }
+
+  /**
+   * Locations written by rolled back commits are managed via method {@link #checkIfValidCommit}.
+   */
+  @Override
+  public boolean rollbackCommit(String instantTime) {
+    return true;
+  }
+
+  /**
+   * Only looks up by recordKey.
+   */
+  @Override
+  public boolean isGlobal() {
+    return true;
+  }
+
+  /**
+   * Only the records of base files are indexed.
+   */
+  @Override
+  public boolean canIndexLogFiles() {
+    return false;
+  }
+
+  /**
+   * Index is updated from the files written by each commit.
+   */
+  @Override
+  public boolean isImplicitWithStorage() {
+    return true;
+  }
+
+  /**
+   * Partitions the records by the file group of the record index their key is hashed to. The records of a file group
+   * are spread over {@code splitsPerFileGroup} consecutive partitions.
+   */
+  static class RecordIndexPartitioner extends Partitioner {
+
+    private final int numFileGroups;
+    private final int splitsPerFileGroup;
+
+    RecordIndexPartitioner(int numFileGroups, int splitsPerFileGroup) {
+      this.numFileGroups = numFileGroups;
+      this.splitsPerFileGroup = splitsPerFileGroup;
+    }
+
+    @Override
+    public int numPartitions() {
+      return numFileGroups * splitsPerFileGroup;
+    }
+
+    @Override
+    public int getPartition(Object key) {
+      String recordKey = (String) key;
+      int fileGroupIndex = HoodieTableMetadataUtil.mapRecordKeyToFileGroupIndex(recordKey, numFileGroups);
+      // the quotient of the hash is independent of the file group, which is the remainder
+      int split = ((recordKey.hashCode() & Integer.MAX_VALUE) / numFileGroups) % splitsPerFileGroup;
+      return fileGroupIndex * splitsPerFileGroup + split;
+    }
+  }
+}
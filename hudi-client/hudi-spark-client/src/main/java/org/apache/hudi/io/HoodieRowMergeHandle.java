@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.io;
+
+import org.apache.hudi.client.HoodieInternalWriteStatus;
+import org.apache.hudi.client.SparkTaskContextSupplier;
+import org.apache.hudi.client.model.HoodieInternalRow;
+import org.apache.hudi.client.model.HoodieRowMerger;
+import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.HoodieBaseFile;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieWriteStat;
+import org.apache.hudi.common.model.IOType;
+import org.apache.hudi.common.util.HoodieTimer;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.DefaultSizeEstimator;
+import org.apache.hudi.common.util.ObjectSizeCalculator;
+import org.apache.hudi.common.util.ReflectionUtils;
+import org.apache.hudi.common.util.SizeEstimator;
+import org.apache.hudi.common.util.collection.ExternalSpillableMap;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieIOException;
+import org.apache.hudi.exception.HoodieUpsertException;
+import org.apache.hudi.io.storage.HoodieInternalRowFileWriter;
+import org.apache.hudi.io.storage.HoodieInternalRowFileWriterFactory;
+import org.apache.hudi.table.HoodieTable;
+import org.apache.hudi.table.MarkerFiles;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.UnsafeRow;
+import org.apache.spark.sql.execution.datasources.parquet.ParquetReadSupport;
+import org.apache.spark.sql.internal.SQLConf;
+import org.apache.spark.sql.types.StructType;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Merge handle with InternalRow, the row writer counterpart of {@link HoodieMergeHandle}. The base file is read as
+ * {@link InternalRow}s, merged with the incoming rows through a {@link HoodieRowMerger} and written out through a
+ * {@link HoodieInternalRowFileWriter}, so that the records are never converted to Avro.
+ *
+ * <p>The incoming rows are laid out as per the schema of the handle, meta columns included, like the rows written by
+ * {@link HoodieRowCreateHandle}. They are held in an {@link ExternalSpillableMap}, which spills them to disk past the
+ * memory allowed for the merge.
+ */
+public class HoodieRowMergeHandle implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private static final Logger LOG = LogManager.getLogger(HoodieRowMergeHandle.class);
+  private static final AtomicLong SEQGEN = new AtomicLong(1);
+
+  private final String instantTime;
+  private final int taskPartitionId;
+  private final long taskId;
+  private final long taskEpochId;
+  private final HoodieTable table;
+  private final HoodieWriteConfig writeConfig;
+  private final StructType structType;
+  private final HoodieRowMerger rowMerger;
+  private final HoodieBaseFile baseFile;
+  private final String partitionPath;
+  private final String fileId;
+  private final Path path;
+  private final FileSystem fs;
+  private final ExternalSpillableMap<String, InternalRow> keyToNewRows;
+  private final Set<String> writtenRecordKeys = new HashSet<>();
+  private final HoodieInternalRowFileWriter fileWriter;
+  private final HoodieInternalWriteStatus writeStatus;
+  private final HoodieTimer currTimer;
+  private long recordsWritten = 0;
+  private long recordsDeleted = 0;
+  private long updatedRecordsWritten = 0;
+  private long insertRecordsWritten = 0;
+
+  public HoodieRowMergeHandle(HoodieTable table, HoodieWriteConfig writeConfig, String partitionPath, String fileId,
+      String instantTime, int taskPartitionId, long taskId, long taskEpochId,
+      StructType structType, Iterator<InternalRow> newRows) {
+    this.partitionPath = partitionPath;
+    this.table = table;
+    this.writeConfig = writeConfig;
+    this.instantTime = instantTime;
+    this.taskPartitionId = taskPartitionId;
+    this.taskId = taskId;
+    this.taskEpochId = taskEpochId;
+    this.fileId = fileId;
+    this.structType = structType;
+    this.currTimer = new HoodieTimer();
+    this.currTimer.startTimer();
+    this.fs = table.getMetaClient().getFs();
+    this.rowMerger = (HoodieRowMerger) ReflectionUtils.loadClass(writeConfig.getRowMergerClass(),
+        new Class<?>[] {Properties.class}, writeConfig.getProps());
+    this.baseFile = table.getBaseFileOnlyView().getLatestBaseFile(partitionPath, fileId)
+        .orElseThrow(() -> new HoodieUpsertException("No base file to merge into for fileId " + fileId + " in partition " + partitionPath));
+    this.writeStatus = new HoodieInternalWriteStatus(!table.getIndex().isImplicitWithStorage(),
+        writeConfig.getWriteStatusFailureFraction());
+    writeStatus.setPartitionPath(partitionPath);
+    writeStatus.setFileId(fileId);
+    try {
+      long memoryForMerge = IOUtils.getMaxMemoryPerPartitionMerge(new SparkTaskContextSupplier(), writeConfig.getProps());
+      LOG.info("MaxMemoryPerPartitionMerge => " + memoryForMerge);
+      this.keyToNewRows = new ExternalSpillableMap<>(memoryForMerge, writeConfig.getSpillableMapBasePath(),
+          new DefaultSizeEstimator<>(), new InternalRowSizeEstimator(), writeConfig.getSpillableDiskMapType(),
+          writeConfig.isSpillableMapCompactKeyIndexEnabled(), writeConfig.getSpillableMapSerializer());
+    } catch (IOException e) {
+      throw new HoodieIOException("Cannot instantiate an ExternalSpillableMap", e);
+    }
+    init(newRows);
+    String newFileName = FSUtils.makeDataFileName(instantTime, getWriteToken(), fileId, table.getBaseFileExtension());
+    this.path = new Path(FSUtils.getPartitionPath(writeConfig.getBasePath(), partitionPath), newFileName);
+    try {
+      new MarkerFiles(table, instantTime).create(partitionPath, newFileName, IOType.MERGE);
+      this.fileWriter = HoodieInternalRowFileWriterFactory.getInternalRowFileWriter(path, table, writeConfig, structType);
+    } catch (IOException e) {
+      throw new HoodieUpsertException("Failed to initialize file writer for path " + path, e);
+    }
+    LOG.info(String.format("Merging %d rows into %s, writing to %s", keyToNewRows.size(), baseFile.getPath(), path));
+  }
+
+  /**
+   * Indexes the incoming rows by record key, pre-combining the rows of the same key.
+   */
+  private void init(Iterator<InternalRow> newRows) {
+    int recordKeyPos = HoodieRecord.HOODIE_META_COLUMNS_NAME_TO_POS.get(HoodieRecord.RECORD_KEY_METADATA_FIELD);
+    while (newRows.hasNext()) {
+      // the rows handed by the iterator may be reused
+      InternalRow newRow = newRows.next().copy();
+      keyToNewRows.merge(newRow.getUTF8String(recordKeyPos).toString(), newRow,
+          (olderRow, newerRow) -> rowMerger.preCombine(olderRow, newerRow, structType));
+    }
+  }
+
+  /**
+   * Reads all the rows of the base file and merges the incoming rows into them.
+   */
+  public void mergeWithBaseFile() throws IOException {
+    Configuration conf = new Configuration(table.getHadoopConf());
+    conf.set(ParquetReadSupport.SPARK_ROW_REQUESTED_SCHEMA(), structType.json());
+    conf.setBoolean(SQLConf.CASE_SENSITIVE().key(), SQLConf.get().caseSensitiveAnalysis());
+    conf.setBoolean(SQLConf.PARQUET_BINARY_AS_STRING().key(), SQLConf.get().isParquetBinaryAsString());
+    conf.setBoolean(SQLConf.PARQUET_INT96_AS_TIMESTAMP().key(), SQLConf.get().isParquetINT96AsTimestamp());
+    try (ParquetReader<UnsafeRow> reader = ParquetReader.builder(new ParquetReadSupport(), new Path(baseFile.getPath()))
+        .withConf(conf).build()) {
+      for (UnsafeRow oldRow = reader.read(); oldRow != null; oldRow = reader.read()) {
+        write(oldRow);
+      }
+    }
+  }
+
+  /**
+   * Writes a row of the base file, merged with the incoming row of the same record key if any.
+   */
+  public void write(InternalRow oldRow) throws IOException {
+    String recordKey = oldRow.getUTF8String(HoodieRecord.HOODIE_META_COLUMNS_NAME_TO_POS.get(
+        HoodieRecord.RECORD_KEY_METADATA_FIELD)).toString();
+    InternalRow newRow = keyToNewRows.get(recordKey);
+    if (newRow == null) {
+      // copy the old row as is, along with its meta columns
+      try {
+        fileWriter.writeRow(recordKey, oldRow);
+        recordsWritten++;
+      } catch (IOException e) {
+        String errMsg = String.format("Failed to merge old row into new file for key %s from old file %s to new file %s",
+            recordKey, baseFile.getPath(), path);
+        throw new HoodieUpsertException(errMsg, e);
+      }
+      return;
+    }
+    if (writeRow(recordKey, rowMerger.combineAndGetUpdateValue(oldRow, newRow, structType))) {
+      updatedRecordsWritten++;
+    }
+    writtenRecordKeys.add(recordKey);
+  }
+
+  /**
+   * @return {@code true} if a row was written, {@code false} if the record was deleted or failed.
+   */
+  private boolean writeRow(String recordKey, Option<InternalRow> row) {
+    boolean written = false;
+    try {
+      if (row.isPresent()) {
+        String seqId = HoodieRecord.generateSequenceId(instantTime, taskPartitionId, SEQGEN.getAndIncrement());
+        fileWriter.writeRow(recordKey, new HoodieInternalRow(instantTime, seqId, recordKey, partitionPath, path.getName(), row.get()));
+        recordsWritten++;
+        written = true;
+      } else {
+        recordsDeleted++;
+      }
+      writeStatus.markSuccess(recordKey);
+    } catch (Throwable t) {
+      LOG.error("Error writing row with key " + recordKey, t);
+      writeStatus.markFailure(recordKey, t);
+    }
+    return written;
+  }
+
+  /**
+   * Writes the incoming rows that were not merged into a row of the base file, closes the {@link HoodieRowMergeHandle}
+   * and returns the {@link HoodieInternalWriteStatus} containing the stats and status of the writes to this handle.
+   * @return the {@link HoodieInternalWriteStatus} containing the stats and status of the writes to this handle.
+   * @throws IOException
+   */
+  public HoodieInternalWriteStatus close() throws IOException {
+    int recordKeyPos = HoodieRecord.HOODIE_META_COLUMNS_NAME_TO_POS.get(HoodieRecord.RECORD_KEY_METADATA_FIELD);
+    Iterator<InternalRow> newRowsItr = keyToNewRows.iterator();
+    while (newRowsItr.hasNext()) {
+      InternalRow newRow = newRowsItr.next();
+      String recordKey = newRow.getUTF8String(recordKeyPos).toString();
+      if (!writtenRecordKeys.contains(recordKey)) {
+        if (writeRow(recordKey, rowMerger.getInsertValue(newRow, structType))) {
+          insertRecordsWritten++;
+        }
+      }
+    }
+    keyToNewRows.clear();
+    keyToNewRows.close();
+    writtenRecordKeys.clear();
+    fileWriter.close();
+
+    HoodieWriteStat stat = new HoodieWriteStat();
+    stat.setPartitionPath(partitionPath);
+    stat.setFileId(fileId);
+    stat.setPrevCommit(baseFile.getCommitTime());
+    stat.setPath(new Path(writeConfig.getBasePath()), path);
+    stat.setNumWrites(recordsWritten);
+    stat.setNumDeletes(recordsDeleted);
+    stat.setNumUpdateWrites(updatedRecordsWritten);
+    stat.setNumInserts(insertRecordsWritten);
+    long fileSizeInBytes = FSUtils.getFileSize(fs, path);
+    stat.setTotalWriteBytes(fileSizeInBytes);
+    stat.setFileSizeInBytes(fileSizeInBytes);
+    stat.setTotalWriteErrors(writeStatus.getFailedRowsSize());
+    HoodieWriteStat.RuntimeStats runtimeStats = new HoodieWriteStat.RuntimeStats();
+    runtimeStats.setTotalUpsertTime(currTimer.endTimer());
+    stat.setRuntimeStats(runtimeStats);
+    writeStatus.setStat(stat);
+    return writeStatus;
+  }
+
+  public String getFileName() {
+    return path.getName();
+  }
+
+  private String getWriteToken() {
+    return taskPartitionId + "-" + taskId + "-" + taskEpochId;
+  }
+
+  /**
+   * Size estimator of the incoming rows, which are mostly {@link UnsafeRow}s.
+   */
+  private static class InternalRowSizeEstimator implements SizeEstimator<InternalRow> {
+
+    @Override
+    public long sizeEstimate(InternalRow row) {
+      return row instanceof UnsafeRow ? ((UnsafeRow) row).getSizeInBytes() : ObjectSizeCalculator.getObjectSize(row);
+    }
+  }
+}
@@ -59,7 +59,14 @@ public class HoodieInternalRowFileWriterFactory {
   private static HoodieInternalRowFileWriter newParquetInternalRowFileWriter(
       Path path, HoodieWriteConfig writeConfig, StructType structType, HoodieTable table)
       throws IOException {
-    BloomFilter filter = BloomFilterFactory.createBloomFilter(
+    BloomFilter filter = writeConfig.useBloomFilterAdaptiveSizing()
+        ? BloomFilterFactory.createAdaptiveSizeBloomFilter(
+            writeConfig.getBloomFilterNumEntries(),
+            writeConfig.getBloomFilterAdaptiveNumEntriesEstimate(),
+            writeConfig.getBloomFilterFPP(),
+            writeConfig.getDynamicBloomFilterMaxNumEntries(),
+            writeConfig.getBloomFilterType())
+        : BloomFilterFactory.createBloomFilter(
             writeConfig.getBloomFilterNumEntries(),
             writeConfig.getBloomFilterFPP(),
             writeConfig.getDynamicBloomFilterMaxNumEntries(),
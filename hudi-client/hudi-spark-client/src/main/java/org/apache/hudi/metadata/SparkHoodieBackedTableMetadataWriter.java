@@ -21,6 +21,7 @@ package org.apache.hudi.metadata;
 import org.apache.hudi.client.SparkRDDWriteClient;
 import org.apache.hudi.client.WriteStatus;
 import org.apache.hudi.client.common.HoodieSparkEngineContext;
+import org.apache.hudi.common.config.SerializableConfiguration;
 import org.apache.hudi.common.engine.HoodieEngineContext;
 import org.apache.hudi.common.metrics.Registry;
 import org.apache.hudi.common.model.FileSlice;
@@ -46,10 +47,14 @@ import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import scala.Tuple2;
+
 public class SparkHoodieBackedTableMetadataWriter extends HoodieBackedTableMetadataWriter {
 
   private static final Logger LOG = LogManager.getLogger(SparkHoodieBackedTableMetadataWriter.class);
@@ -97,9 +102,27 @@ public class SparkHoodieBackedTableMetadataWriter extends HoodieBackedTableMetad
   }
 
   @Override
-  protected void commit(List<HoodieRecord> records, String partitionName, String instantTime) {
+  protected void commit(List<HoodieRecord> records, List<RecordIndexChangeReader> recordIndexChanges, String instantTime) {
     ValidationUtils.checkState(enabled, "Metadata table cannot be committed to as it is not enabled");
-    JavaRDD<HoodieRecord> recordRDD = prepRecords(records, partitionName);
+    HoodieTable table = HoodieSparkTable.create(metadataWriteConfig, engineContext);
+    TableFileSystemView.SliceView fsView = table.getSliceView();
+    Map<String, List<HoodieRecord>> partitionToRecords = records.stream()
+        .collect(Collectors.groupingBy(HoodieRecord::getPartitionPath));
+    JavaRDD<HoodieRecord> recordRDD = prepRecords(fsView, partitionToRecords.getOrDefault(MetadataPartitionType.FILES.partitionPath(),
+        Collections.emptyList()), MetadataPartitionType.FILES.partitionPath());
+    JavaSparkContext jsc = ((HoodieSparkEngineContext) engineContext).getJavaSparkContext();
+    for (MetadataPartitionType partitionType : Arrays.asList(MetadataPartitionType.BLOOM_FILTERS, MetadataPartitionType.COLUMN_STATS)) {
+      List<HoodieRecord> partitionRecords = partitionToRecords.get(partitionType.partitionPath());
+      if (partitionRecords != null) {
+        int parallelism = Math.min(metadata.getFileGroupCount(partitionType), partitionRecords.size());
+        recordRDD = recordRDD.union(prepHashedRecords(fsView, jsc.parallelize(partitionRecords, Math.max(1, parallelism)),
+            partitionType, instantTime));
+      }
+    }
+    if (!recordIndexChanges.isEmpty()) {
+      recordRDD = recordRDD.union(prepHashedRecords(fsView, readRecordIndexRecords(jsc, recordIndexChanges),
+          MetadataPartitionType.RECORD_INDEX, instantTime));
+    }
 
     try (SparkRDDWriteClient writeClient = new SparkRDDWriteClient(engineContext, metadataWriteConfig, true)) {
       writeClient.startCommitWithTime(instantTime);
@@ -138,9 +161,7 @@ public class SparkHoodieBackedTableMetadataWriter extends HoodieBackedTableMetad
    * Since we only read the latest base file in a partition, we tag the records with the instant time of the latest
    * base file.
    */
-  private JavaRDD<HoodieRecord> prepRecords(List<HoodieRecord> records, String partitionName) {
-    HoodieTable table = HoodieSparkTable.create(metadataWriteConfig, engineContext);
-    TableFileSystemView.SliceView fsView = table.getSliceView();
+  private JavaRDD<HoodieRecord> prepRecords(TableFileSystemView.SliceView fsView, List<HoodieRecord> records, String partitionName) {
     List<HoodieBaseFile> baseFiles = fsView.getLatestFileSlices(partitionName)
         .map(FileSlice::getBaseFile)
         .filter(Option::isPresent)
@@ -178,4 +199,38 @@ public class SparkHoodieBackedTableMetadataWriter extends HoodieBackedTableMetad
 
     return jsc.parallelize(records, 1).map(r -> r.setCurrentLocation(new HoodieRecordLocation(instantTime, fileId)));
   }
+
+  /**
+   * Reads the changes to the record index in parallel, and creates a record index record for each changed record.
+   */
+  private JavaRDD<HoodieRecord> readRecordIndexRecords(JavaSparkContext jsc, List<RecordIndexChangeReader> recordIndexChanges) {
+    SerializableConfiguration conf = hadoopConf;
+    int parallelism = Math.max(1, Math.min(recordIndexChanges.size(), metadataWriteConfig.getFileListingParallelism()));
+    return jsc.parallelize(recordIndexChanges, parallelism)
+        .flatMap(reader -> reader.read(conf.get()).iterator())
+        .mapToPair(change -> new Tuple2<>(change.getLeft().getRecordKey(), change))
+        .reduceByKey(HoodieTableMetadataUtil::combineRecordIndexChanges)
+        .map(change -> HoodieTableMetadataUtil.toRecordIndexRecord(change._2));
+  }
+
+  /**
+   * Tag each record of a partition hashed into several file groups, such as the record index, with the location of
+   * the file group its key is hashed to.
+   *
+   * File groups are created with a fixed file id the first time a record is hashed to them, so the records are always
+   * tagged and appended to the log files of their file group.
+   */
+  private JavaRDD<HoodieRecord> prepHashedRecords(TableFileSystemView.SliceView fsView, JavaRDD<HoodieRecord> records,
+      MetadataPartitionType partitionType, String instantTime) {
+    int numFileGroups = metadata.getFileGroupCount(partitionType);
+    ValidationUtils.checkState(numFileGroups > 0, "Metadata table has no " + partitionType.partitionPath() + " partition");
+    Map<String, String> fileIdToBaseInstantTime = fsView.getLatestFileSlices(partitionType.partitionPath())
+        .collect(Collectors.toMap(FileSlice::getFileId, FileSlice::getBaseInstantTime));
+
+    return records.map(r -> {
+      String fileId = HoodieTableMetadataUtil.getFileGroupId(partitionType,
+          HoodieTableMetadataUtil.mapRecordKeyToFileGroupIndex(r.getRecordKey(), numFileGroups));
+      return r.setCurrentLocation(new HoodieRecordLocation(fileIdToBaseInstantTime.getOrDefault(fileId, instantTime), fileId));
+    });
+  }
 }
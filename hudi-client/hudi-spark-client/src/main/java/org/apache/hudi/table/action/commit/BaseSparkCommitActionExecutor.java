@@ -41,8 +41,12 @@ import org.apache.hudi.exception.HoodieCommitException;
 import org.apache.hudi.exception.HoodieMetadataException;
 import org.apache.hudi.exception.HoodieUpsertException;
 import org.apache.hudi.execution.SparkLazyInsertIterable;
+import org.apache.hudi.index.HoodieIndex;
+import org.apache.hudi.index.bucket.BucketIdentifier;
 import org.apache.hudi.io.CreateHandleFactory;
 import org.apache.hudi.io.HoodieMergeHandle;
+import org.apache.hudi.io.HoodieRowGroupCopyingMergeHandle;
+import org.apache.hudi.io.HoodieSortMergeJoinHandle;
 import org.apache.hudi.io.HoodieSortedMergeHandle;
 import org.apache.hudi.io.storage.HoodieConcatHandle;
 import org.apache.hudi.metadata.HoodieTableMetadataWriter;
@@ -60,6 +64,7 @@ import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.storage.StorageLevel;
 import scala.Tuple2;
+import scala.Tuple3;
 
 import java.io.IOException;
 import java.io.Serializable;
@@ -151,17 +156,22 @@ public abstract class BaseSparkCommitActionExecutor<T extends HoodieRecordPayloa
     WorkloadStat globalStat = new WorkloadStat();
 
     // group the records by partitionPath + currentLocation combination, count the number of
-    // records in each partition
-    Map<Tuple2<String, Option<HoodieRecordLocation>>, Long> partitionLocationCounts = inputRecordsRDD
+    // records in each partition. with the bucket index, inserts are also grouped by the bucket of the index
+    final boolean bucketIndex = config.getIndexType() == HoodieIndex.IndexType.BUCKET;
+    final int numIndexBuckets = config.getBucketIndexNumBuckets();
+    Map<Tuple3<String, Option<HoodieRecordLocation>, Option<Integer>>, Long> partitionLocationCounts = inputRecordsRDD
         .mapToPair(record -> new Tuple2<>(
-            new Tuple2<>(record.getPartitionPath(), Option.ofNullable(record.getCurrentLocation())), record))
+            new Tuple3<>(record.getPartitionPath(), Option.ofNullable(record.getCurrentLocation()),
+                bucketIndex && record.getCurrentLocation() == null
+                    ? Option.of(BucketIdentifier.getBucketId(record.getRecordKey(), numIndexBuckets)) : Option.<Integer>empty()), record))
         .countByKey();
 
     // count the number of both inserts and updates in each partition, update the counts to workLoadStats
-    for (Map.Entry<Tuple2<String, Option<HoodieRecordLocation>>, Long> e : partitionLocationCounts.entrySet()) {
+    for (Map.Entry<Tuple3<String, Option<HoodieRecordLocation>, Option<Integer>>, Long> e : partitionLocationCounts.entrySet()) {
       String partitionPath = e.getKey()._1();
       Long count = e.getValue();
       Option<HoodieRecordLocation> locOption = e.getKey()._2();
+      Option<Integer> indexBucketOption = e.getKey()._3();
 
       if (!partitionPathStatMap.containsKey(partitionPath)) {
         partitionPathStatMap.put(partitionPath, new WorkloadStat());
@@ -171,6 +181,10 @@ public abstract class BaseSparkCommitActionExecutor<T extends HoodieRecordPayloa
         // update
         partitionPathStatMap.get(partitionPath).addUpdates(locOption.get(), count);
         globalStat.addUpdates(locOption.get(), count);
+      } else if (indexBucketOption.isPresent()) {
+        // insert into the bucket of the index
+        partitionPathStatMap.get(partitionPath).addInserts(indexBucketOption.get(), count);
+        globalStat.addInserts(count);
       } else {
         // insert
         partitionPathStatMap.get(partitionPath).addInserts(count);
@@ -331,6 +345,11 @@ public abstract class BaseSparkCommitActionExecutor<T extends HoodieRecordPayloa
       return new HoodieSortedMergeHandle<>(config, instantTime, (HoodieSparkTable) table, recordItr, partitionPath, fileId, taskContextSupplier);
     } else if (!WriteOperationType.isChangingRecords(operationType) && config.allowDuplicateInserts()) {
       return new HoodieConcatHandle<>(config, instantTime, table, recordItr, partitionPath, fileId, taskContextSupplier);
+    } else if (config.shouldSortMergeWithSortedBaseFiles()
+        && HoodieSortMergeJoinHandle.isSortedByRecordKey(table, table.getBaseFileOnlyView().getLatestBaseFile(partitionPath, fileId).get())) {
+      return new HoodieSortMergeJoinHandle<>(config, instantTime, table, recordItr, partitionPath, fileId, taskContextSupplier);
+    } else if (config.shouldCopyUnchangedRowGroupsOnMerge()) {
+      return new HoodieRowGroupCopyingMergeHandle<>(config, instantTime, table, recordItr, partitionPath, fileId, taskContextSupplier);
     } else {
       return new HoodieMergeHandle<>(config, instantTime, table, recordItr, partitionPath, fileId, taskContextSupplier);
     }
@@ -362,6 +381,10 @@ public abstract class BaseSparkCommitActionExecutor<T extends HoodieRecordPayloa
       LOG.info("Empty partition");
       return Collections.singletonList((List<WriteStatus>) Collections.EMPTY_LIST).iterator();
     }
+    if (config.shouldSortMergeWithSortedBaseFiles()) {
+      // write the new files sorted by record key, for them to be sort-merged later on
+      recordItr = HoodieSortMergeJoinHandle.sortByRecordKey(recordItr, config, taskContextSupplier);
+    }
     return new SparkLazyInsertIterable(recordItr, true, config, instantTime, table, idPfx,
         taskContextSupplier, new CreateHandleFactory<>());
   }
@@ -27,6 +27,7 @@ import org.apache.hudi.common.util.queue.BoundedInMemoryExecutor;
 import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.execution.SparkBoundedInMemoryExecutor;
 import org.apache.hudi.io.HoodieMergeHandle;
+import org.apache.hudi.io.HoodieRowGroupCopyingMergeHandle;
 import org.apache.hudi.io.storage.HoodieFileReader;
 import org.apache.hudi.io.storage.HoodieFileReaderFactory;
 import org.apache.hudi.table.HoodieTable;
@@ -84,6 +85,10 @@ public class SparkMergeHelper<T extends HoodieRecordPayload> extends AbstractMer
       final Iterator<GenericRecord> readerIterator;
       if (baseFile.getBootstrapBaseFile().isPresent()) {
         readerIterator = getMergingIterator(table, mergeHandle, baseFile, reader, readSchema, externalSchemaTransformation);
+      } else if (mergeHandle instanceof HoodieRowGroupCopyingMergeHandle
+          && ((HoodieRowGroupCopyingMergeHandle) mergeHandle).copiesRowGroups()) {
+        // only merge the records of the row groups which are not copied as is
+        readerIterator = ((HoodieRowGroupCopyingMergeHandle) mergeHandle).getRecordIteratorOfRowGroupsToRewrite(cfgForHoodieFile, readSchema);
       } else {
         readerIterator = reader.getRecordIterator(readSchema);
       }
@@ -32,6 +32,8 @@ import org.apache.hudi.common.util.NumericUtils;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.index.HoodieIndex;
+import org.apache.hudi.index.bucket.BucketIdentifier;
 import org.apache.hudi.table.HoodieTable;
 import org.apache.hudi.table.WorkloadProfile;
 import org.apache.hudi.table.WorkloadStat;
@@ -85,6 +87,11 @@ public class UpsertPartitioner<T extends HoodieRecordPayload<T>> extends Partiti
    * Remembers what type each bucket is for later.
    */
   private HashMap<Integer, BucketInfo> bucketInfoMap;
+  /**
+   * With the bucket index, helps decide which bucket an incoming insert should go to, by the bucket of the index
+   * its record key hashes to.
+   */
+  private HashMap<String, Map<Integer, Integer>> partitionPathToIndexBucketToBucket;
 
   protected final HoodieTable table;
 
@@ -95,6 +102,7 @@ public class UpsertPartitioner<T extends HoodieRecordPayload<T>> extends Partiti
     updateLocationToBucket = new HashMap<>();
     partitionPathToInsertBucketInfos = new HashMap<>();
     bucketInfoMap = new HashMap<>();
+    partitionPathToIndexBucketToBucket = new HashMap<>();
     this.profile = profile;
     this.table = table;
     this.config = config;
@@ -155,6 +163,10 @@ public class UpsertPartitioner<T extends HoodieRecordPayload<T>> extends Partiti
   }
 
   private void assignInserts(WorkloadProfile profile, HoodieEngineContext context) {
+    if (config.getIndexType() == HoodieIndex.IndexType.BUCKET) {
+      assignBucketIndexInserts(profile, context);
+      return;
+    }
     // for new inserts, compute buckets depending on how many records we have for each partition
     Set<String> partitionPaths = profile.getPartitionPaths();
     long averageRecordSize =
@@ -242,6 +254,53 @@ public class UpsertPartitioner<T extends HoodieRecordPayload<T>> extends Partiti
     }
   }
 
+  /**
+   * With the bucket index, the inserts of a partition go to the file groups of the buckets of the index their record
+   * keys hash to, instead of being packed into small files and new file groups. Only the buckets receiving inserts are
+   * assigned: a bucket which already has a file group gets an update bucket, even if its records were not tagged, and
+   * the other buckets get an insert bucket creating their file group.
+   */
+  private void assignBucketIndexInserts(WorkloadProfile profile, HoodieEngineContext context) {
+    List<String> partitionPaths = profile.getPartitionPaths().stream()
+        .filter(partitionPath -> profile.getWorkloadStat(partitionPath).getNumInserts() > 0)
+        .collect(Collectors.toList());
+    Map<String, Map<Integer, HoodieRecordLocation>> partitionBucketLocationsMap = getBucketLocationsForPartitions(partitionPaths, context);
+
+    for (String partitionPath : partitionPaths) {
+      Map<Integer, HoodieRecordLocation> bucketLocations = partitionBucketLocationsMap.get(partitionPath);
+      Map<Integer, Integer> indexBucketToBucket = new HashMap<>();
+      for (int indexBucket : profile.getWorkloadStat(partitionPath).getIndexBucketToInsertCount().keySet()) {
+        HoodieRecordLocation location = bucketLocations.get(indexBucket);
+        int bucket;
+        if (location == null) {
+          bucket = totalBuckets;
+          bucketInfoMap.put(totalBuckets, new BucketInfo(BucketType.INSERT, BucketIdentifier.bucketFileIdPrefix(partitionPath, indexBucket), partitionPath));
+          totalBuckets++;
+        } else if (updateLocationToBucket.containsKey(location.getFileId())) {
+          bucket = updateLocationToBucket.get(location.getFileId());
+        } else {
+          bucket = addUpdateBucket(partitionPath, location.getFileId());
+        }
+        indexBucketToBucket.put(indexBucket, bucket);
+      }
+      LOG.info("Index buckets for partition path " + partitionPath + " => " + indexBucketToBucket);
+      partitionPathToIndexBucketToBucket.put(partitionPath, indexBucketToBucket);
+    }
+  }
+
+  private Map<String, Map<Integer, HoodieRecordLocation>> getBucketLocationsForPartitions(List<String> partitionPaths, HoodieEngineContext context) {
+    JavaSparkContext jsc = HoodieSparkEngineContext.getSparkContext(context);
+    Map<String, Map<Integer, HoodieRecordLocation>> partitionBucketLocationsMap = new HashMap<>();
+    if (partitionPaths.size() > 0) {
+      context.setJobStatus(this.getClass().getSimpleName(), "Getting bucket file groups from partitions");
+      JavaRDD<String> partitionPathRdds = jsc.parallelize(partitionPaths, partitionPaths.size());
+      final HoodieTable table = this.table;
+      partitionBucketLocationsMap = partitionPathRdds.mapToPair((PairFunction<String, String, Map<Integer, HoodieRecordLocation>>)
+          partitionPath -> new Tuple2<>(partitionPath, BucketIdentifier.getBucketLocations(partitionPath, table))).collectAsMap();
+    }
+    return partitionBucketLocationsMap;
+  }
+
   private Map<String, List<SmallFile>> getSmallFilesForPartitions(List<String> partitionPaths, HoodieEngineContext context) {
     JavaSparkContext jsc = HoodieSparkEngineContext.getSparkContext(context);
     Map<String, List<SmallFile>> partitionSmallFilesMap = new HashMap<>();
@@ -304,6 +363,9 @@ public class UpsertPartitioner<T extends HoodieRecordPayload<T>> extends Partiti
     if (keyLocation._2().isPresent()) {
       HoodieRecordLocation location = keyLocation._2().get();
       return updateLocationToBucket.get(location.getFileId());
+    } else if (config.getIndexType() == HoodieIndex.IndexType.BUCKET) {
+      int indexBucket = BucketIdentifier.getBucketId(keyLocation._1().getRecordKey(), config.getBucketIndexNumBuckets());
+      return partitionPathToIndexBucketToBucket.get(keyLocation._1().getPartitionPath()).get(indexBucket);
     } else {
       String partitionPath = keyLocation._1().getPartitionPath();
       List<InsertBucketCumulativeWeightPair> targetBuckets = partitionPathToInsertBucketInfos.get(partitionPath);
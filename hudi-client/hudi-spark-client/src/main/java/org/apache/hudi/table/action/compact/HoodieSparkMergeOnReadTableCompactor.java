@@ -139,6 +139,11 @@ public class HoodieSparkMergeOnReadTableCompactor<T extends HoodieRecordPayload>
         .withReverseReader(config.getCompactionReverseLogReadEnabled())
         .withBufferSize(config.getMaxDFSStreamBufferSize())
         .withSpillableMapBasePath(config.getSpillableMapBasePath())
+        .withDiskMapType(config.getSpillableDiskMapType())
+        .withCompactKeyIndex(config.isSpillableMapCompactKeyIndexEnabled())
+        .withSpillSerializer(config.getSpillableMapSerializer())
+        .withPrefetchThreads(config.getCompactionLogBlockPrefetchThreads())
+        .withPrefetchQueueSize(config.getCompactionLogBlockPrefetchQueueSize())
         .build();
     if (!scanner.iterator().hasNext()) {
       return new ArrayList<>();
@@ -169,6 +174,8 @@ public class HoodieSparkMergeOnReadTableCompactor<T extends HoodieRecordPayload>
       s.getStat().setTotalLogBlocks(scanner.getTotalLogBlocks());
       s.getStat().setTotalCorruptLogBlock(scanner.getTotalCorruptBlocks());
       s.getStat().setTotalRollbackBlocks(scanner.getTotalRollbacks());
+      s.getStat().setTotalPrefetchHits(scanner.getTotalPrefetchHits());
+      s.getStat().setTotalPrefetchMisses(scanner.getTotalPrefetchMisses());
       RuntimeStats runtimeStats = new RuntimeStats();
       runtimeStats.setTotalScanTime(scanner.getTotalTimeTakenToReadAndMergeBlocks());
       s.getStat().setRuntimeStats(runtimeStats);
@@ -18,9 +18,14 @@
 
 package org.apache.hudi.index.bloom;
 
+import org.apache.hudi.client.SparkRDDWriteClient;
 import org.apache.hudi.common.bloom.BloomFilter;
 import org.apache.hudi.common.bloom.BloomFilterFactory;
 import org.apache.hudi.common.bloom.BloomFilterTypeCode;
+import org.apache.hudi.common.config.HoodieMetadataConfig;
+import org.apache.hudi.common.metrics.LocalRegistry;
+import org.apache.hudi.common.metrics.Registry;
+import org.apache.hudi.common.model.HoodieBaseFile;
 import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
@@ -28,8 +33,14 @@ import org.apache.hudi.common.testutils.RawTripTestPayload;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.config.HoodieIndexConfig;
+import org.apache.hudi.config.HoodieMetricsConfig;
 import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.index.HoodieIndex;
 import org.apache.hudi.io.HoodieKeyLookupHandle;
+import org.apache.hudi.metadata.HoodieBackedTableMetadata;
+import org.apache.hudi.metadata.HoodieBloomFilterMetadataReader;
+import org.apache.hudi.metadata.HoodieMetadataPayload;
+import org.apache.hudi.metrics.MetricsReporterType;
 import org.apache.hudi.table.HoodieSparkTable;
 import org.apache.hudi.table.HoodieTable;
 import org.apache.hudi.testutils.HoodieClientTestHarness;
@@ -47,18 +58,22 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import scala.Tuple2;
 
+import static org.apache.hudi.common.testutils.HoodieTestDataGenerator.TRIP_EXAMPLE_SCHEMA;
 import static org.apache.hudi.common.testutils.SchemaTestUtil.getSchemaFromResource;
+import static org.apache.hudi.testutils.Assertions.assertNoWriteErrors;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -249,6 +264,21 @@ public class TestHoodieBloomIndex extends HoodieClientTestHarness {
     // TODO(vc): Need more coverage on actual filenames
     // assertTrue(results.get(0)._2().equals(filename));
     // assertTrue(results.get(1)._2().equals(filename));
+
+    // record3 is a false positive of the bloom filter
+    uuids.forEach(keyHandle::addKey);
+    HoodieKeyLookupHandle.KeyLookupResult lookupResult = keyHandle.getLookupResult();
+    assertEquals(4, lookupResult.getTotalKeysChecked());
+    assertEquals(3, lookupResult.getNumCandidates());
+    assertEquals(1, lookupResult.getNumFalsePositives());
+    assertEquals(0.5, lookupResult.getFalsePositiveRate());
+
+    HoodieBloomIndexMetrics metrics = new HoodieBloomIndexMetrics(new LocalRegistry("bloom_index_test"));
+    metrics.updateMetrics(lookupResult);
+    Map<String, Long> counts = metrics.registry().getAllCounts();
+    assertEquals(4L, counts.get(HoodieBloomIndexMetrics.KEYS_CHECKED_STR));
+    assertEquals(1L, counts.get(HoodieBloomIndexMetrics.FALSE_POSITIVES_STR));
+    assertEquals(2L, counts.get(HoodieBloomIndexMetrics.MATCHING_KEYS_STR));
   }
 
   @ParameterizedTest(name = TEST_NAME_WITH_PARAMS)
@@ -333,6 +363,98 @@ public class TestHoodieBloomIndex extends HoodieClientTestHarness {
     }
   }
 
+  @Test
+  public void testTagLocationMetrics() throws Exception {
+    String rowKey1 = UUID.randomUUID().toString();
+    String rowKey2 = UUID.randomUUID().toString();
+    String recordStr1 = "{\"_row_key\":\"" + rowKey1 + "\",\"time\":\"2016-01-31T03:16:41.415Z\",\"number\":12}";
+    String recordStr2 = "{\"_row_key\":\"" + rowKey2 + "\",\"time\":\"2016-01-31T03:20:41.415Z\",\"number\":100}";
+    RawTripTestPayload rowChange1 = new RawTripTestPayload(recordStr1);
+    HoodieRecord record1 = new HoodieRecord(new HoodieKey(rowChange1.getRowKey(), rowChange1.getPartitionPath()), rowChange1);
+    RawTripTestPayload rowChange2 = new RawTripTestPayload(recordStr2);
+    HoodieRecord record2 = new HoodieRecord(new HoodieKey(rowChange2.getRowKey(), rowChange2.getPartitionPath()), rowChange2);
+    JavaRDD<HoodieRecord> recordRDD = jsc.parallelize(Arrays.asList(record1, record2));
+
+    // the lookups run on the executors, the metrics are not limited to the executor metrics
+    HoodieWriteConfig config = HoodieWriteConfig.newBuilder().withPath(basePath)
+        .withIndexConfig(HoodieIndexConfig.newBuilder().bloomIndexPruneByRanges(false).build())
+        .withMetricsConfig(HoodieMetricsConfig.newBuilder().on(true).withReporterType(MetricsReporterType.INMEMORY.name()).build())
+        .build();
+    HoodieSparkTable hoodieTable = HoodieSparkTable.create(config, context, metaClient);
+    HoodieSparkWriteableTestTable testTable = HoodieSparkWriteableTestTable.of(hoodieTable, SCHEMA);
+    testTable.addCommit("001").getFileIdWithInserts("2016/01/31", record1);
+
+    Registry registry = Registry.getRegistry(HoodieBloomIndexMetrics.REGISTRY_NAME);
+    registry.clear();
+    SparkHoodieBloomIndex bloomIndex = new SparkHoodieBloomIndex(config);
+    List<HoodieRecord> taggedRecords = bloomIndex.tagLocation(recordRDD, context, HoodieSparkTable.create(config, context, metaClient)).collect();
+    assertEquals(1, taggedRecords.stream().filter(HoodieRecord::isCurrentLocationKnown).count());
+
+    Map<String, Long> counts = registry.getAllCounts();
+    assertEquals(1L, counts.get(HoodieBloomIndexMetrics.FILES_CHECKED_STR));
+    assertEquals(2L, counts.get(HoodieBloomIndexMetrics.KEYS_CHECKED_STR));
+    assertEquals(1L, counts.get(HoodieBloomIndexMetrics.MATCHING_KEYS_STR));
+  }
+
+  @ParameterizedTest(name = TEST_NAME_WITH_PARAMS)
+  @MethodSource("configParams")
+  public void testTagLocationWithMetadataTableBloomFilters(boolean rangePruning, boolean treeFiltering, boolean bucketizedChecking) throws Exception {
+    initTestDataGenerator();
+    HoodieWriteConfig config = HoodieWriteConfig.newBuilder().withPath(basePath).withSchema(TRIP_EXAMPLE_SCHEMA)
+        .withParallelism(2, 2)
+        .withIndexConfig(HoodieIndexConfig.newBuilder().withIndexType(HoodieIndex.IndexType.BLOOM)
+            .bloomIndexPruneByRanges(rangePruning).bloomIndexTreebasedFilter(treeFiltering)
+            .bloomIndexBucketizedChecking(bucketizedChecking).bloomIndexKeysPerBucket(2).build())
+        .withMetadataConfig(HoodieMetadataConfig.newBuilder().enable(true)
+            .withBloomFilterIndex(true).withBloomFilterIndexFileGroupCount(2).build())
+        .build();
+
+    // the updates rewrite the base files, the bloom filters of the new files replace the previous ones
+    List<HoodieRecord> inserts = dataGen.generateInserts("001", 50);
+    try (SparkRDDWriteClient client = getHoodieWriteClient(config)) {
+      client.startCommitWithTime("001");
+      assertNoWriteErrors(client.upsert(jsc.parallelize(inserts, 2), "001").collect());
+      client.startCommitWithTime("002");
+      assertNoWriteErrors(client.upsert(jsc.parallelize(dataGen.generateUpdates("002", 20), 2), "002").collect());
+    }
+
+    metaClient = HoodieTableMetaClient.reload(metaClient);
+    HoodieTable hoodieTable = HoodieSparkTable.create(config, context, metaClient);
+    Map<String, HoodieBaseFile> latestBaseFiles = Arrays.stream(dataGen.getPartitionPaths())
+        .flatMap(partition -> hoodieTable.getBaseFileOnlyView().getLatestBaseFiles(partition))
+        .collect(Collectors.toMap(HoodieBaseFile::getFileId, baseFile -> baseFile));
+    assertFalse(latestBaseFiles.isEmpty());
+    Map<String, HoodieMetadataPayload> bloomFilterInfos;
+    try (HoodieBackedTableMetadata metadata = new HoodieBackedTableMetadata(context, config.getMetadataConfig(), basePath,
+        config.getSpillableMapBasePath());
+         HoodieBloomFilterMetadataReader reader = new HoodieBloomFilterMetadataReader(metadata, config.getSpillableMapBasePath())) {
+      bloomFilterInfos = reader.getBloomFilterInfos(latestBaseFiles.keySet());
+    }
+    assertEquals(latestBaseFiles.size(), bloomFilterInfos.size());
+    latestBaseFiles.forEach((fileId, baseFile) ->
+        assertEquals(baseFile.getFileName(), bloomFilterInfos.get(fileId).getBloomFilterFileName().get()));
+
+    List<HoodieRecord> newInserts = dataGen.generateInserts("003", 10);
+    List<HoodieRecord> records = new ArrayList<>(inserts);
+    records.addAll(newInserts);
+    SparkHoodieBloomIndex bloomIndex = new SparkHoodieBloomIndex(config);
+    List<HoodieRecord> taggedRecords = bloomIndex.tagLocation(jsc.parallelize(records, 2), context, hoodieTable).collect();
+    assertEquals(60, taggedRecords.size());
+    Set<String> newKeys = newInserts.stream().map(HoodieRecord::getRecordKey).collect(Collectors.toSet());
+    for (HoodieRecord record : taggedRecords) {
+      if (newKeys.contains(record.getRecordKey())) {
+        assertFalse(record.isCurrentLocationKnown());
+      } else {
+        assertTrue(record.isCurrentLocationKnown());
+        String fileId = record.getCurrentLocation().getFileId();
+        assertEquals(latestBaseFiles.get(fileId).getCommitTime(), record.getCurrentLocation().getInstantTime());
+        assertTrue(bloomFilterInfos.get(fileId).getBloomFilter().get().mightContain(record.getRecordKey()));
+        String[] minMaxKeys = bloomFilterInfos.get(fileId).getMinMaxRecordKeys().get();
+        assertTrue(minMaxKeys[0].compareTo(record.getRecordKey()) <= 0 && minMaxKeys[1].compareTo(record.getRecordKey()) >= 0);
+      }
+    }
+  }
+
   @ParameterizedTest(name = TEST_NAME_WITH_PARAMS)
   @MethodSource("configParams")
   public void testCheckExists(boolean rangePruning, boolean treeFiltering, boolean bucketizedChecking) throws Exception {
@@ -35,6 +35,8 @@ import org.apache.spark.api.java.JavaRDD;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -134,10 +136,13 @@ public class TestHoodieGlobalBloomIndex extends HoodieClientTestHarness {
     assertEquals(expected, filesMap);
   }
 
-  @Test
-  public void testExplodeRecordRDDWithFileComparisons() {
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void testExplodeRecordRDDWithFileComparisons(boolean sortedRangeFilter) {
 
-    HoodieWriteConfig config = HoodieWriteConfig.newBuilder().withPath(basePath).build();
+    HoodieWriteConfig config = HoodieWriteConfig.newBuilder().withPath(basePath)
+        .withIndexConfig(HoodieIndexConfig.newBuilder().bloomIndexSortedRangeFilter(sortedRangeFilter).build())
+        .build();
     SparkHoodieGlobalBloomIndex index = new SparkHoodieGlobalBloomIndex(config);
 
     final Map<String, List<BloomIndexFileInfo>> partitionToFileIndexInfo = new HashMap<>();
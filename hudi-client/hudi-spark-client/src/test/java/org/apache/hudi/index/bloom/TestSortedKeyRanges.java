@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bloom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link SortedKeyRanges} and the sorted range based {@link IndexFileFilter}s.
+ */
+public class TestSortedKeyRanges {
+
+  private static final Random RANDOM = new Random(0xDEADBEEFL);
+
+  private static String key(int value) {
+    return String.format("%05d", value);
+  }
+
+  private static List<BloomIndexFileInfo> randomFiles(String prefix, int numFiles, int maxRangeLength) {
+    List<BloomIndexFileInfo> files = new ArrayList<>();
+    for (int i = 0; i < numFiles; i++) {
+      int min = RANDOM.nextInt(1000);
+      files.add(new BloomIndexFileInfo(prefix + i, key(min), key(min + RANDOM.nextInt(maxRangeLength))));
+    }
+    return files;
+  }
+
+  @Test
+  public void testMatchingFiles() {
+    for (int maxRangeLength : new int[] {1, 10, 1000}) {
+      List<BloomIndexFileInfo> files = randomFiles("f", 100, maxRangeLength);
+      SortedKeyRanges keyRanges = new SortedKeyRanges(files);
+      for (int value = 0; value < 2100; value++) {
+        String recordKey = key(value);
+        HashSet<String> expected = new HashSet<>();
+        files.stream().filter(file -> file.isKeyInRange(recordKey)).forEach(file -> expected.add(file.getFileId()));
+        List<String> matchingFiles = keyRanges.getMatchingFiles(recordKey);
+        assertEquals(expected.size(), matchingFiles.size(), "Duplicate matches for " + recordKey);
+        assertEquals(expected, new HashSet<>(matchingFiles), "Unexpected matches for " + recordKey);
+      }
+    }
+  }
+
+  @Test
+  public void testWideRange() {
+    // disjoint narrow ranges, and a single range starting before all of them and ending after all of them
+    List<BloomIndexFileInfo> files = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      files.add(new BloomIndexFileInfo("narrow" + i, key(10 * i + 1), key(10 * i + 5)));
+    }
+    files.add(new BloomIndexFileInfo("wide", key(0), key(99999)));
+    SortedKeyRanges keyRanges = new SortedKeyRanges(files);
+    for (int value = 0; value < 10010; value++) {
+      List<String> expected = new ArrayList<>();
+      if (value < 10000 && value % 10 >= 1 && value % 10 <= 5) {
+        expected.add("narrow" + (value / 10));
+      }
+      expected.add("wide");
+      List<String> matchingFiles = keyRanges.getMatchingFiles(key(value));
+      assertEquals(new HashSet<>(expected), new HashSet<>(matchingFiles), "Unexpected matches for " + key(value));
+      assertEquals(expected.size(), matchingFiles.size(), "Duplicate matches for " + key(value));
+    }
+    assertTrue(keyRanges.getMatchingFiles(key(99999) + "0").isEmpty());
+  }
+
+  @Test
+  public void testNoRanges() {
+    SortedKeyRanges keyRanges = new SortedKeyRanges(Collections.emptyList());
+    assertTrue(keyRanges.getMatchingFiles(key(1)).isEmpty());
+  }
+
+  @Test
+  public void testSameMatchesAsListBasedFilters() {
+    Map<String, List<BloomIndexFileInfo>> partitionToFileIndexInfo = new HashMap<>();
+    partitionToFileIndexInfo.put("2017/10/22", randomFiles("a", 20, 50));
+    List<BloomIndexFileInfo> files = randomFiles("b", 20, 50);
+    files.add(new BloomIndexFileInfo("b_no_ranges"));
+    partitionToFileIndexInfo.put("2017/10/23", files);
+
+    List<IndexFileFilter[]> filters = Arrays.asList(
+        new IndexFileFilter[] {new SortedRangeIndexFileFilter(partitionToFileIndexInfo), new ListBasedIndexFileFilter(partitionToFileIndexInfo)},
+        new IndexFileFilter[] {new SortedRangeGlobalIndexFileFilter(partitionToFileIndexInfo), new ListBasedGlobalIndexFileFilter(partitionToFileIndexInfo)});
+    for (IndexFileFilter[] filterPair : filters) {
+      for (String partitionPath : Arrays.asList("2017/10/22", "2017/10/23", "2017/10/24")) {
+        for (int value = 0; value < 1100; value += 7) {
+          assertEquals(filterPair[1].getMatchingFilesAndPartition(partitionPath, key(value)),
+              filterPair[0].getMatchingFilesAndPartition(partitionPath, key(value)));
+        }
+      }
+    }
+  }
+}
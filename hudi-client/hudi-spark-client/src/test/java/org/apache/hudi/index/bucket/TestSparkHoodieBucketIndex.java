@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.bucket;
+
+import org.apache.hudi.client.SparkRDDWriteClient;
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.common.model.EmptyHoodieRecordPayload;
+import org.apache.hudi.common.model.FileSlice;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieTableType;
+import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.config.HoodieIndexConfig;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieNotSupportedException;
+import org.apache.hudi.index.HoodieIndex.IndexType;
+import org.apache.hudi.table.HoodieSparkTable;
+import org.apache.hudi.table.HoodieTable;
+import org.apache.hudi.testutils.HoodieClientTestBase;
+import org.apache.hudi.testutils.HoodieClientTestUtils;
+
+import org.apache.spark.api.java.JavaRDD;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.apache.hudi.testutils.Assertions.assertNoWriteErrors;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestSparkHoodieBucketIndex extends HoodieClientTestBase {
+
+  private static final int NUM_BUCKETS = 4;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    initResources();
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    cleanupResources();
+  }
+
+  private HoodieWriteConfig getBucketIndexConfig() {
+    return getConfigBuilder(IndexType.BUCKET)
+        .withIndexConfig(HoodieIndexConfig.newBuilder()
+            .withIndexType(IndexType.BUCKET)
+            .withBucketNum(NUM_BUCKETS).build())
+        .build();
+  }
+
+  private List<HoodieRecord> tagLocation(HoodieWriteConfig config, List<HoodieKey> keys) {
+    metaClient = HoodieTableMetaClient.reload(metaClient);
+    HoodieTable table = HoodieSparkTable.create(config, context, metaClient);
+    SparkHoodieBucketIndex index = new SparkHoodieBucketIndex(config);
+    JavaRDD<HoodieRecord> recordRDD = jsc.parallelize(keys, 3).map(key -> new HoodieRecord(key, new EmptyHoodieRecordPayload()));
+    return index.tagLocation(recordRDD, context, table).collect();
+  }
+
+  private void assertBucketFileGroups(HoodieWriteConfig config) {
+    metaClient = HoodieTableMetaClient.reload(metaClient);
+    HoodieTable table = HoodieSparkTable.create(config, context, metaClient);
+    for (String partitionPath : dataGen.getPartitionPaths()) {
+      List<String> fileIds = table.getSliceView().getLatestFileSlices(partitionPath)
+          .map(FileSlice::getFileId).collect(Collectors.toList());
+      assertTrue(fileIds.size() <= NUM_BUCKETS, "Each bucket should be a single file group");
+      fileIds.forEach(fileId -> assertTrue(BucketIdentifier.bucketIdFromFileId(partitionPath, fileId) >= 0, "Unexpected file group " + fileId));
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = HoodieTableType.class)
+  public void testTagLocationAndWriteIntoBuckets(HoodieTableType tableType) throws Exception {
+    initMetaClient(tableType);
+    HoodieWriteConfig config = getBucketIndexConfig();
+    try (SparkRDDWriteClient client = getHoodieWriteClient(config)) {
+      List<HoodieRecord> inserts = dataGen.generateInserts("001", 100);
+      List<HoodieKey> keys = inserts.stream().map(HoodieRecord::getKey).collect(Collectors.toList());
+      assertTrue(tagLocation(config, keys).stream().noneMatch(HoodieRecord::isCurrentLocationKnown));
+
+      client.startCommitWithTime("001");
+      assertNoWriteErrors(client.upsert(jsc.parallelize(inserts, 2), "001").collect());
+      assertBucketFileGroups(config);
+
+      // every record is written into the file group of its bucket
+      List<HoodieRecord> tagged = tagLocation(config, keys);
+      assertEquals(100, tagged.size());
+      tagged.forEach(r -> assertEquals(BucketIdentifier.bucketFileId(r.getPartitionPath(), BucketIdentifier.getBucketId(r.getRecordKey(), NUM_BUCKETS)),
+          r.getCurrentLocation().getFileId()));
+
+      // plain inserts are not tagged, they still go to the existing file groups of their buckets
+      List<HoodieRecord> newInserts = dataGen.generateInserts("002", 50);
+      client.startCommitWithTime("002");
+      List<WriteStatus> statuses = client.insert(jsc.parallelize(newInserts, 2), "002").collect();
+      assertNoWriteErrors(statuses);
+      assertBucketFileGroups(config);
+      keys.addAll(newInserts.stream().map(HoodieRecord::getKey).collect(Collectors.toList()));
+
+      // updates stay in their file groups
+      Map<String, String> keyToFileId = tagLocation(config, keys).stream()
+          .collect(Collectors.toMap(HoodieRecord::getRecordKey, r -> r.getCurrentLocation().getFileId()));
+      assertEquals(150, keyToFileId.size());
+      client.startCommitWithTime("003");
+      assertNoWriteErrors(client.upsert(jsc.parallelize(dataGen.generateUniqueUpdates("003", 50), 2), "003").collect());
+      assertBucketFileGroups(config);
+      tagLocation(config, keys).forEach(r -> assertEquals(keyToFileId.get(r.getRecordKey()), r.getCurrentLocation().getFileId()));
+
+      if (tableType == HoodieTableType.COPY_ON_WRITE) {
+        String[] fullPartitionPaths = Arrays.stream(dataGen.getPartitionPaths())
+            .map(partitionPath -> String.format("%s/%s/*", basePath, partitionPath)).toArray(String[]::new);
+        assertEquals(150, HoodieClientTestUtils.read(jsc, basePath, sqlContext, fs, fullPartitionPaths).count());
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = HoodieTableType.class)
+  public void testWriteOnlyBucketsReceivingRecords(HoodieTableType tableType) throws Exception {
+    initMetaClient(tableType);
+    HoodieWriteConfig config = getBucketIndexConfig();
+    try (SparkRDDWriteClient client = getHoodieWriteClient(config)) {
+      // a single record only creates the file group of its bucket
+      List<HoodieRecord> inserts = dataGen.generateInserts("001", 1);
+      client.startCommitWithTime("001");
+      List<WriteStatus> statuses = client.upsert(jsc.parallelize(inserts, 1), "001").collect();
+      assertNoWriteErrors(statuses);
+      assertEquals(1, statuses.size());
+      HoodieRecord record = inserts.get(0);
+      assertEquals(BucketIdentifier.bucketFileId(record.getPartitionPath(), BucketIdentifier.getBucketId(record.getRecordKey(), NUM_BUCKETS)),
+          statuses.get(0).getFileId());
+
+      metaClient = HoodieTableMetaClient.reload(metaClient);
+      HoodieTable table = HoodieSparkTable.create(config, context, metaClient);
+      assertEquals(1, Arrays.stream(dataGen.getPartitionPaths())
+          .mapToLong(partitionPath -> table.getSliceView().getLatestFileSlices(partitionPath).count()).sum());
+
+      // bulk insert would write file groups outside of the buckets
+      client.startCommitWithTime("002");
+      assertThrows(HoodieNotSupportedException.class, () -> client.bulkInsert(jsc.parallelize(dataGen.generateInserts("002", 10), 1), "002"));
+    }
+  }
+}
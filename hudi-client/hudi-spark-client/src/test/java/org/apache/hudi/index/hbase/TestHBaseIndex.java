@@ -46,10 +46,12 @@ import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HBaseTestingUtility;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.HTable;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.spark.api.java.JavaRDD;
 import org.junit.jupiter.api.AfterAll;
@@ -61,6 +63,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -332,6 +335,78 @@ public class TestHBaseIndex extends FunctionalTestHarness {
     }
   }
 
+  @Test
+  public void testTagLocationWithOutstandingGetBatchesByRegionServer() throws Exception {
+    final String newCommitTime = "001";
+    final int numRecords = 200;
+    List<HoodieRecord> records = dataGen.generateInserts(newCommitTime, numRecords);
+    JavaRDD<HoodieRecord> writeRecords = jsc().parallelize(records, 1);
+
+    HoodieWriteConfig config = getConfigBuilder(getHBaseIndexConfigBuilder(10, false, false)
+        .hbaseIndexGetMaxOutstandingBatches(4).hbaseIndexGetBatchByRegionServer(true)).build();
+    SparkHoodieHBaseIndex index = new SparkHoodieHBaseIndex(config);
+    try (SparkRDDWriteClient writeClient = getHoodieWriteClient(config);) {
+      writeClient.startCommitWithTime(newCommitTime);
+      JavaRDD<WriteStatus> writeStatues = writeClient.upsert(writeRecords, newCommitTime);
+      assertNoWriteErrors(writeStatues.collect());
+      writeClient.commit(newCommitTime, writeStatues);
+
+      // Now tagLocation for these records, the outstanding batches should all be tagged in order
+      metaClient = HoodieTableMetaClient.reload(metaClient);
+      HoodieTable hoodieTable = HoodieSparkTable.create(config, context, metaClient);
+      List<HoodieRecord> taggedRecords = index.tagLocation(writeRecords, context(), hoodieTable).collect();
+      assertEquals(numRecords, taggedRecords.size());
+      assertEquals(numRecords, taggedRecords.stream().map(record -> record.getKey().getRecordKey()).distinct().count());
+      assertEquals(numRecords, taggedRecords.stream().filter(record -> (record.getCurrentLocation() != null
+          && record.getCurrentLocation().getInstantTime().equals(newCommitTime))).count());
+    }
+  }
+
+  @Test
+  public void testTagLocationWithLocationCache() throws Exception {
+    final String newCommitTime = "001";
+    final int numRecords = 10;
+    List<HoodieRecord> records = dataGen.generateInserts(newCommitTime, numRecords);
+    JavaRDD<HoodieRecord> writeRecords = jsc().parallelize(records, 1);
+
+    HoodieWriteConfig config = getConfigBuilder(getHBaseIndexConfigBuilder(100, false, false)
+        .hbaseIndexLocationCacheSize(100)).build();
+    SparkHoodieHBaseIndex index = new SparkHoodieHBaseIndex(config);
+    try (SparkRDDWriteClient writeClient = getHoodieWriteClient(config);) {
+      writeClient.startCommitWithTime(newCommitTime);
+      JavaRDD<WriteStatus> writeStatues = writeClient.upsert(writeRecords, newCommitTime);
+      assertNoWriteErrors(writeStatues.collect());
+
+      // The cached locations of an uncommitted instant should not be used
+      metaClient = HoodieTableMetaClient.reload(metaClient);
+      HoodieTable hoodieTable = HoodieSparkTable.create(config, context, metaClient);
+      JavaRDD<HoodieRecord> records1 = index.tagLocation(writeRecords, context(), hoodieTable);
+      assertEquals(0, records1.filter(record -> record.isCurrentLocationKnown()).count());
+      writeClient.commit(newCommitTime, writeStatues);
+
+      // Remove the index entries behind the back of the index, the locations should be served by the cache
+      try (Table table = utility.getConnection().getTable(TableName.valueOf(TABLE_NAME))) {
+        table.delete(records.stream().map(record -> new Delete(Bytes.toBytes(record.getRecordKey()))).collect(Collectors.toList()));
+      }
+      metaClient = HoodieTableMetaClient.reload(metaClient);
+      hoodieTable = HoodieSparkTable.create(config, context, metaClient);
+      JavaRDD<HoodieRecord> records2 = index.tagLocation(writeRecords, context(), hoodieTable);
+      assertEquals(numRecords, records2.filter(record -> (record.getCurrentLocation() != null
+          && record.getCurrentLocation().getInstantTime().equals(newCommitTime))).count());
+
+      // A commit with deletes should drop the cached locations
+      final String deleteCommitTime = "002";
+      writeClient.startCommitWithTime(deleteCommitTime);
+      JavaRDD<WriteStatus> deleteStatuses = writeClient.delete(jsc().parallelize(Collections.singletonList(records.get(0).getKey()), 1), deleteCommitTime);
+      assertNoWriteErrors(deleteStatuses.collect());
+      writeClient.commit(deleteCommitTime, deleteStatuses);
+      metaClient = HoodieTableMetaClient.reload(metaClient);
+      hoodieTable = HoodieSparkTable.create(config, context, metaClient);
+      JavaRDD<HoodieRecord> records3 = index.tagLocation(writeRecords, context(), hoodieTable);
+      assertEquals(0, records3.filter(record -> record.isCurrentLocationKnown()).count());
+    }
+  }
+
   @Test
   public void testSimpleTagLocationAndUpdateWithRollback() throws Exception {
     // Load to memory
@@ -795,6 +870,10 @@ public class TestHBaseIndex extends FunctionalTestHarness {
   }
 
   private HoodieWriteConfig.Builder getConfigBuilder(int hbaseIndexBatchSize, boolean updatePartitionPath, boolean rollbackSync) {
+    return getConfigBuilder(getHBaseIndexConfigBuilder(hbaseIndexBatchSize, updatePartitionPath, rollbackSync));
+  }
+
+  private HoodieWriteConfig.Builder getConfigBuilder(HoodieHBaseIndexConfig.Builder hbaseIndexConfigBuilder) {
     return HoodieWriteConfig.newBuilder().withPath(basePath()).withSchema(HoodieTestDataGenerator.TRIP_EXAMPLE_SCHEMA)
         .withParallelism(1, 1).withDeleteParallelism(1)
         .withCompactionConfig(HoodieCompactionConfig.newBuilder().compactionSmallFileSize(1024 * 1024)
@@ -803,14 +882,18 @@ public class TestHBaseIndex extends FunctionalTestHarness {
             .hfileMaxFileSize(1024 * 1024).parquetMaxFileSize(1024 * 1024).build())
         .forTable("test-trip-table")
         .withIndexConfig(HoodieIndexConfig.newBuilder().withIndexType(HoodieIndex.IndexType.HBASE)
-            .withHBaseIndexConfig(new HoodieHBaseIndexConfig.Builder()
-                .hbaseZkPort(Integer.parseInt(hbaseConfig.get("hbase.zookeeper.property.clientPort")))
-                .hbaseIndexPutBatchSizeAutoCompute(true)
-                .hbaseZkZnodeParent(hbaseConfig.get("zookeeper.znode.parent", ""))
-                .hbaseZkQuorum(hbaseConfig.get("hbase.zookeeper.quorum")).hbaseTableName(TABLE_NAME)
-                .hbaseIndexUpdatePartitionPath(updatePartitionPath)
-                .hbaseIndexRollbackSync(rollbackSync)
-                .hbaseIndexGetBatchSize(hbaseIndexBatchSize).build())
+            .withHBaseIndexConfig(hbaseIndexConfigBuilder.build())
             .build());
   }
+
+  private HoodieHBaseIndexConfig.Builder getHBaseIndexConfigBuilder(int hbaseIndexBatchSize, boolean updatePartitionPath, boolean rollbackSync) {
+    return new HoodieHBaseIndexConfig.Builder()
+        .hbaseZkPort(Integer.parseInt(hbaseConfig.get("hbase.zookeeper.property.clientPort")))
+        .hbaseIndexPutBatchSizeAutoCompute(true)
+        .hbaseZkZnodeParent(hbaseConfig.get("zookeeper.znode.parent", ""))
+        .hbaseZkQuorum(hbaseConfig.get("hbase.zookeeper.quorum")).hbaseTableName(TABLE_NAME)
+        .hbaseIndexUpdatePartitionPath(updatePartitionPath)
+        .hbaseIndexRollbackSync(rollbackSync)
+        .hbaseIndexGetBatchSize(hbaseIndexBatchSize);
+  }
 }
\ No newline at end of file
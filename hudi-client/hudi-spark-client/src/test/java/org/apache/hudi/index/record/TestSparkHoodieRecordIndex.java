@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.index.record;
+
+import org.apache.hudi.client.SparkRDDWriteClient;
+import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.common.config.HoodieMetadataConfig;
+import org.apache.hudi.common.model.EmptyHoodieRecordPayload;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.config.HoodieIndexConfig;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.index.HoodieIndex.IndexType;
+import org.apache.hudi.table.HoodieSparkTable;
+import org.apache.hudi.table.HoodieTable;
+import org.apache.hudi.testutils.HoodieClientTestBase;
+
+import org.apache.spark.api.java.JavaRDD;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.apache.hudi.testutils.Assertions.assertNoWriteErrors;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestSparkHoodieRecordIndex extends HoodieClientTestBase {
+
+  private static final int NUM_FILE_GROUPS = 4;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    initResources();
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    cleanupResources();
+  }
+
+  private HoodieWriteConfig getRecordIndexConfig(boolean recordIndexEnabled, boolean updatePartitionPath) {
+    return getConfigBuilder(recordIndexEnabled ? IndexType.RECORD_INDEX : IndexType.BLOOM)
+        .withIndexConfig(HoodieIndexConfig.newBuilder()
+            .withIndexType(recordIndexEnabled ? IndexType.RECORD_INDEX : IndexType.BLOOM)
+            .withRecordIndexUpdatePartitionPath(updatePartitionPath)
+            // small batches, so that a file group is looked up more than once
+            .withRecordIndexLookupBatchSize(7).build())
+        .withMetadataConfig(HoodieMetadataConfig.newBuilder().enable(true)
+            .withRecordIndex(recordIndexEnabled)
+            .withRecordIndexFileGroupCount(NUM_FILE_GROUPS).build())
+        .build();
+  }
+
+  private List<HoodieRecord> tagLocation(HoodieWriteConfig config, List<HoodieKey> keys) {
+    metaClient = HoodieTableMetaClient.reload(metaClient);
+    HoodieTable table = HoodieSparkTable.create(config, context, metaClient);
+    SparkHoodieRecordIndex index = new SparkHoodieRecordIndex(config);
+    JavaRDD<HoodieRecord> recordRDD = jsc.parallelize(keys, 3).map(key -> new HoodieRecord(key, new EmptyHoodieRecordPayload()));
+    return index.tagLocation(recordRDD, context, table).collect();
+  }
+
+  private void write(SparkRDDWriteClient client, List<HoodieRecord> records, String instantTime) {
+    client.startCommitWithTime(instantTime);
+    List<WriteStatus> statuses = client.upsert(jsc.parallelize(records, 2), instantTime).collect();
+    assertNoWriteErrors(statuses);
+  }
+
+  @Test
+  public void testTagLocationAfterInsertsUpdatesAndDeletes() throws Exception {
+    HoodieWriteConfig config = getRecordIndexConfig(true, false);
+    try (SparkRDDWriteClient client = getHoodieWriteClient(config)) {
+      List<HoodieRecord> inserts = dataGen.generateInserts("001", 100);
+      List<HoodieKey> keys = inserts.stream().map(HoodieRecord::getKey).collect(Collectors.toList());
+      assertTrue(tagLocation(config, keys).stream().noneMatch(HoodieRecord::isCurrentLocationKnown));
+
+      write(client, inserts, "001");
+      List<HoodieRecord> tagged = tagLocation(config, keys);
+      assertEquals(100, tagged.size());
+      assertTrue(tagged.stream().allMatch(r -> r.isCurrentLocationKnown() && r.getCurrentLocation().getInstantTime().equals("001")));
+      Map<String, String> keyToPartition = inserts.stream().collect(Collectors.toMap(HoodieRecord::getRecordKey, HoodieRecord::getPartitionPath));
+      tagged.forEach(r -> assertEquals(keyToPartition.get(r.getRecordKey()), r.getPartitionPath()));
+      Map<String, String> keyToFileId = tagged.stream()
+          .collect(Collectors.toMap(HoodieRecord::getRecordKey, r -> r.getCurrentLocation().getFileId()));
+
+      // updates keep the records in their file groups
+      write(client, dataGen.generateUniqueUpdates("002", 50), "002");
+      tagged = tagLocation(config, keys);
+      assertTrue(tagged.stream().allMatch(r -> r.isCurrentLocationKnown()
+          && r.getCurrentLocation().getFileId().equals(keyToFileId.get(r.getRecordKey()))));
+
+      // new records are indexed, deleted ones are removed from the index
+      List<HoodieRecord> newInserts = dataGen.generateInserts("003", 20);
+      write(client, newInserts, "003");
+      List<HoodieKey> deletes = dataGen.generateUniqueDeletes(10);
+      client.startCommitWithTime("004");
+      assertNoWriteErrors(client.delete(jsc.parallelize(deletes, 1), "004").collect());
+
+      List<HoodieKey> allKeys = newInserts.stream().map(HoodieRecord::getKey).collect(Collectors.toList());
+      allKeys.addAll(keys);
+      Set<String> deletedKeys = deletes.stream().map(HoodieKey::getRecordKey).collect(Collectors.toSet());
+      tagged = tagLocation(config, allKeys);
+      assertEquals(120, tagged.size());
+      tagged.forEach(r -> assertEquals(!deletedKeys.contains(r.getRecordKey()), r.isCurrentLocationKnown(),
+          "Unexpected location of record " + r.getRecordKey()));
+    }
+  }
+
+  @Test
+  public void testRollbackAndRestore() throws Exception {
+    HoodieWriteConfig config = getRecordIndexConfig(true, false);
+    try (SparkRDDWriteClient client = getHoodieWriteClient(config)) {
+      List<HoodieRecord> inserts = dataGen.generateInserts("001", 50);
+      write(client, inserts, "001");
+      List<HoodieRecord> upserts = dataGen.generateUniqueUpdates("002", 20);
+      List<HoodieRecord> newInserts = dataGen.generateInserts("002", 10);
+      upserts.addAll(newInserts);
+      write(client, upserts, "002");
+      client.startCommitWithTime("003");
+      assertNoWriteErrors(client.delete(jsc.parallelize(dataGen.generateUniqueDeletes(10), 1), "003").collect());
+
+      List<HoodieKey> allKeys = inserts.stream().map(HoodieRecord::getKey).collect(Collectors.toList());
+      newInserts.forEach(record -> allKeys.add(record.getKey()));
+      Set<String> newKeys = newInserts.stream().map(HoodieRecord::getRecordKey).collect(Collectors.toSet());
+
+      // the deleted records are indexed again
+      client.rollback("003");
+      client.syncTableMetadata();
+      assertTrue(tagLocation(config, allKeys).stream().allMatch(HoodieRecord::isCurrentLocationKnown));
+
+      // the records are back to their first location, the ones inserted after are unknown
+      client.restoreToInstant("001");
+      client.syncTableMetadata();
+      List<HoodieRecord> tagged = tagLocation(config, allKeys);
+      assertEquals(60, tagged.size());
+      tagged.forEach(r -> {
+        assertEquals(!newKeys.contains(r.getRecordKey()), r.isCurrentLocationKnown(), "Unexpected location of record " + r.getRecordKey());
+        if (r.isCurrentLocationKnown()) {
+          assertEquals("001", r.getCurrentLocation().getInstantTime());
+        }
+      });
+    }
+  }
+
+  @Test
+  public void testUpdatePartitionPath() throws Exception {
+    HoodieWriteConfig config = getRecordIndexConfig(true, true);
+    try (SparkRDDWriteClient client = getHoodieWriteClient(config)) {
+      List<HoodieRecord> inserts = dataGen.generateInserts("001", 10);
+      write(client, inserts, "001");
+
+      // move a record to another partition
+      HoodieRecord record = inserts.get(0);
+      String newPartition = dataGen.getPartitionPaths()[0].equals(record.getPartitionPath())
+          ? dataGen.getPartitionPaths()[1] : dataGen.getPartitionPaths()[0];
+      HoodieKey newKey = new HoodieKey(record.getRecordKey(), newPartition);
+      List<HoodieRecord> tagged = tagLocation(config, Collections.singletonList(newKey));
+      assertEquals(2, tagged.size(), "The record should be deleted from its partition and inserted in the new one");
+
+      write(client, Collections.singletonList(dataGen.generateUpdateRecord(newKey, "002")), "002");
+      tagged = tagLocation(config, Collections.singletonList(newKey));
+      assertEquals(1, tagged.size());
+      assertEquals(newPartition, tagged.get(0).getPartitionPath());
+      assertEquals("002", tagged.get(0).getCurrentLocation().getInstantTime());
+    }
+  }
+
+  @Test
+  public void testBootstrapRecordIndex() throws Exception {
+    // write without the record index, it is built from the base files once enabled
+    HoodieWriteConfig config = getRecordIndexConfig(false, false);
+    List<HoodieRecord> inserts = dataGen.generateInserts("001", 50);
+    try (SparkRDDWriteClient client = getHoodieWriteClient(config)) {
+      write(client, inserts, "001");
+    }
+
+    config = getRecordIndexConfig(true, false);
+    try (SparkRDDWriteClient client = getHoodieWriteClient(config)) {
+      write(client, dataGen.generateInserts("002", 10), "002");
+    }
+    List<HoodieKey> keys = inserts.stream().map(HoodieRecord::getKey).collect(Collectors.toList());
+    List<HoodieRecord> tagged = tagLocation(config, keys);
+    assertEquals(50, tagged.size());
+    assertTrue(tagged.stream().allMatch(r -> r.isCurrentLocationKnown() && r.getCurrentLocation().getInstantTime().equals("001")));
+    assertFalse(tagged.stream().anyMatch(r -> r.getCurrentLocation().getFileId().isEmpty()));
+  }
+}
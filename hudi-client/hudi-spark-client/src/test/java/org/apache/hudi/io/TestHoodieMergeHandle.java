@@ -18,24 +18,40 @@
 
 package org.apache.hudi.io;
 
+import org.apache.hudi.avro.HoodieAvroWriteSupport;
 import org.apache.hudi.client.SparkRDDWriteClient;
 import org.apache.hudi.client.WriteStatus;
+import org.apache.hudi.common.bloom.BloomFilter;
 import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.HoodieBaseFile;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieWriteStat;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
 import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
 import org.apache.hudi.common.table.timeline.HoodieTimeline;
 import org.apache.hudi.common.testutils.HoodieTestDataGenerator;
+import org.apache.hudi.common.util.ParquetUtils;
 import org.apache.hudi.config.HoodieCompactionConfig;
 import org.apache.hudi.config.HoodieIndexConfig;
+import org.apache.hudi.config.HoodieMemoryConfig;
+import org.apache.hudi.config.HoodieMetricsConfig;
 import org.apache.hudi.config.HoodieStorageConfig;
 import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.index.HoodieIndex;
+import org.apache.hudi.metrics.Metrics;
+import org.apache.hudi.metrics.MetricsReporterType;
+import org.apache.hudi.table.HoodieSparkTable;
+import org.apache.hudi.table.HoodieTable;
+import org.apache.hudi.table.MarkerFiles;
 import org.apache.hudi.testutils.HoodieClientTestHarness;
 import org.apache.hudi.testutils.HoodieClientTestUtils;
 
+import com.codahale.metrics.Gauge;
+import org.apache.avro.generic.GenericRecord;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
@@ -45,11 +61,16 @@ import org.junit.jupiter.api.Test;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 import static org.apache.hudi.testutils.Assertions.assertNoWriteErrors;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SuppressWarnings("unchecked")
@@ -296,6 +317,265 @@ public class TestHoodieMergeHandle extends HoodieClientTestHarness {
     }
   }
 
+  @Test
+  public void testCopyUnchangedRowGroups() throws Exception {
+    String partitionPath = HoodieTestDataGenerator.DEFAULT_PARTITION_PATHS[0];
+    dataGen = new HoodieTestDataGenerator(new String[] {partitionPath});
+    // small row groups, and records sorted by key to get disjoint key ranges
+    HoodieWriteConfig config = getConfigBuilder().withBulkInsertParallelism(1).withMergeCopyUnchangedRowGroups(true)
+        .withStorageConfig(HoodieStorageConfig.newBuilder().parquetBlockSize(1024).parquetMaxFileSize(1024 * 1024).build()).build();
+    try (SparkRDDWriteClient writeClient = getHoodieWriteClient(config);) {
+      String newCommitTime = "001";
+      writeClient.startCommitWithTime(newCommitTime);
+      List<HoodieRecord> records = dataGen.generateInserts(newCommitTime, 1000);
+      List<WriteStatus> statuses = writeClient.bulkInsert(jsc.parallelize(records, 1), newCommitTime).collect();
+      assertNoWriteErrors(statuses);
+      assertEquals(1, statuses.size());
+      Path oldFilePath = new Path(basePath, statuses.get(0).getStat().getPath());
+      ParquetMetadata oldFooter = new ParquetUtils().readMetadata(hadoopConf, oldFilePath);
+      assertTrue(oldFooter.getBlocks().size() > 2, "Expecting several row groups");
+
+      // update the records with the greatest keys, and insert new records
+      newCommitTime = "002";
+      writeClient.startCommitWithTime(newCommitTime);
+      records.sort(Comparator.comparing(HoodieRecord::getRecordKey));
+      List<HoodieRecord> upserts = dataGen.generateUpdates(newCommitTime, records.subList(records.size() - 3, records.size()));
+      upserts.addAll(dataGen.generateInserts(newCommitTime, 2));
+      statuses = writeClient.upsert(jsc.parallelize(upserts, 1), newCommitTime).collect();
+      assertNoWriteErrors(statuses);
+      assertEquals(1, statuses.size());
+      assertEquals(1002, statuses.get(0).getStat().getNumWrites());
+      assertEquals(3, statuses.get(0).getStat().getNumUpdateWrites());
+      assertEquals(2, statuses.get(0).getStat().getNumInserts());
+
+      Path newFilePath = new Path(basePath, statuses.get(0).getStat().getPath());
+      ParquetMetadata newFooter = new ParquetUtils().readMetadata(hadoopConf, newFilePath);
+      // the first row group without incoming keys in its key range is copied as is, ahead of the rewritten records
+      int firstRecord = 0;
+      BlockMetaData oldRowGroup = null;
+      for (BlockMetaData rowGroup : oldFooter.getBlocks()) {
+        String minKey = records.get(firstRecord).getRecordKey();
+        String maxKey = records.get(firstRecord + (int) rowGroup.getRowCount() - 1).getRecordKey();
+        firstRecord += (int) rowGroup.getRowCount();
+        if (upserts.stream().noneMatch(r -> r.getRecordKey().compareTo(minKey) >= 0 && r.getRecordKey().compareTo(maxKey) <= 0)) {
+          oldRowGroup = rowGroup;
+          break;
+        }
+      }
+      assertNotNull(oldRowGroup);
+      BlockMetaData newRowGroup = newFooter.getBlocks().get(0);
+      assertEquals(oldRowGroup.getRowCount(), newRowGroup.getRowCount());
+      assertEquals(oldRowGroup.getCompressedSize(), newRowGroup.getCompressedSize());
+
+      List<GenericRecord> newFileRecords = new ParquetUtils().readAvroRecords(hadoopConf, newFilePath);
+      assertEquals(1002, newFileRecords.size());
+      assertEquals(1002, newFileRecords.stream().map(r -> r.get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString()).distinct().count());
+      assertEquals(5, newFileRecords.stream().filter(r -> r.get(HoodieRecord.COMMIT_TIME_METADATA_FIELD).toString().equals("002")).count());
+
+      BloomFilter bloomFilter = new ParquetUtils().readBloomFilterFromMetadata(hadoopConf, newFilePath);
+      String[] minMaxRecordKeys = new ParquetUtils().readMinMaxRecordKeys(hadoopConf, newFilePath);
+      newFileRecords.forEach(r -> {
+        String recordKey = r.get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString();
+        assertTrue(bloomFilter.mightContain(recordKey));
+        assertTrue(minMaxRecordKeys[0].compareTo(recordKey) <= 0 && minMaxRecordKeys[1].compareTo(recordKey) >= 0);
+      });
+    }
+  }
+
+  @Test
+  public void testRollbackCopiedRowGroups() throws Exception {
+    String partitionPath = HoodieTestDataGenerator.DEFAULT_PARTITION_PATHS[0];
+    dataGen = new HoodieTestDataGenerator(new String[] {partitionPath});
+    HoodieWriteConfig config = getConfigBuilder().withBulkInsertParallelism(1).withMergeCopyUnchangedRowGroups(true)
+        .withAutoCommit(false).withRollbackUsingMarkers(true)
+        .withStorageConfig(HoodieStorageConfig.newBuilder().parquetBlockSize(1024).parquetMaxFileSize(1024 * 1024).build()).build();
+    try (SparkRDDWriteClient writeClient = getHoodieWriteClient(config);) {
+      String newCommitTime = "001";
+      writeClient.startCommitWithTime(newCommitTime);
+      List<HoodieRecord> records = dataGen.generateInserts(newCommitTime, 1000);
+      JavaRDD<WriteStatus> statuses = writeClient.bulkInsert(jsc.parallelize(records, 1), newCommitTime);
+      assertTrue(writeClient.commit(newCommitTime, statuses));
+
+      newCommitTime = "002";
+      writeClient.startCommitWithTime(newCommitTime);
+      records.sort(Comparator.comparing(HoodieRecord::getRecordKey));
+      List<HoodieRecord> upserts = dataGen.generateUpdates(newCommitTime, records.subList(records.size() - 3, records.size()));
+      List<WriteStatus> upsertStatuses = writeClient.upsert(jsc.parallelize(upserts, 1), newCommitTime).collect();
+      assertNoWriteErrors(upsertStatuses);
+
+      // the temporary file of the rewritten row groups is gone, along with its marker
+      FileSystem fs = FSUtils.getFs(basePath, hadoopConf);
+      assertEquals(2, fs.listStatus(new Path(basePath, partitionPath), path -> path.getName().endsWith(".parquet")).length);
+      MarkerFiles markerFiles = new MarkerFiles(HoodieSparkTable.create(config, context, metaClient), newCommitTime);
+      assertEquals(Collections.singleton(upsertStatuses.get(0).getStat().getPath()),
+          markerFiles.createdAndMergedDataPaths(context, 1));
+
+      assertTrue(writeClient.rollback(newCommitTime));
+      assertEquals(1, fs.listStatus(new Path(basePath, partitionPath), path -> path.getName().endsWith(".parquet")).length);
+    }
+  }
+
+  @Test
+  public void testAsyncParquetWrites() throws Exception {
+    String partitionPath = HoodieTestDataGenerator.DEFAULT_PARTITION_PATHS[0];
+    dataGen = new HoodieTestDataGenerator(new String[] {partitionPath});
+    // buffers smaller than the row groups, raised to the block size for the row groups to be handed over at once
+    HoodieWriteConfig config = getConfigBuilder().withStorageConfig(HoodieStorageConfig.newBuilder().parquetBlockSize(8 * 1024)
+        .parquetMaxFileSize(1024 * 1024).parquetAsyncWriteEnabled(true).parquetAsyncWriteBufferSize(1024).build())
+        .withMetricsConfig(HoodieMetricsConfig.newBuilder().on(true).withReporterType(MetricsReporterType.INMEMORY.name()).build()).build();
+    try (SparkRDDWriteClient writeClient = getHoodieWriteClient(config);) {
+      String newCommitTime = HoodieActiveTimeline.createNewInstantTime();
+      writeClient.startCommitWithTime(newCommitTime);
+      List<HoodieRecord> records = dataGen.generateInserts(newCommitTime, 1000);
+      List<WriteStatus> statuses = writeClient.insert(jsc.parallelize(records, 1), newCommitTime).collect();
+      assertNoWriteErrors(statuses);
+      assertEquals(1, statuses.size());
+      assertAsyncWriteStats(statuses.get(0).getStat(), 1000);
+      assertTrue(statuses.get(0).getStat().getRuntimeStats().getTotalEncodeTime()
+          + statuses.get(0).getStat().getRuntimeStats().getTotalIOBlockedTime()
+          <= statuses.get(0).getStat().getRuntimeStats().getTotalCreateTime() + 1);
+
+      newCommitTime = HoodieActiveTimeline.createNewInstantTime();
+      writeClient.startCommitWithTime(newCommitTime);
+      List<HoodieRecord> updates = dataGen.generateUpdates(newCommitTime, records.subList(0, 100));
+      statuses = writeClient.upsert(jsc.parallelize(updates, 1), newCommitTime).collect();
+      assertNoWriteErrors(statuses);
+      assertEquals(1, statuses.size());
+      assertEquals(100, statuses.get(0).getStat().getNumUpdateWrites());
+      assertAsyncWriteStats(statuses.get(0).getStat(), 1000);
+      assertTrue(statuses.get(0).getStat().getRuntimeStats().getTotalEncodeTime()
+          + statuses.get(0).getStat().getRuntimeStats().getTotalIOBlockedTime()
+          <= statuses.get(0).getStat().getRuntimeStats().getTotalUpsertTime() + 1);
+
+      // the commit metrics sum up the stats of the write
+      HoodieWriteStat.RuntimeStats runtimeStats = statuses.get(0).getStat().getRuntimeStats();
+      Map<String, Gauge> gauges = Metrics.getInstance().getRegistry().getGauges();
+      assertEquals(runtimeStats.getTotalEncodeTime(), gauges.get(config.getTableName() + ".commit.totalEncodeTime").getValue());
+      assertEquals(runtimeStats.getTotalIOBlockedTime(), gauges.get(config.getTableName() + ".commit.totalIOBlockedTime").getValue());
+      assertEquals(runtimeStats.getTotalIOTime(), gauges.get(config.getTableName() + ".commit.totalIOTime").getValue());
+    }
+  }
+
+  @Test
+  public void testSortMergeWithSortedBaseFile() throws Exception {
+    String partitionPath = HoodieTestDataGenerator.DEFAULT_PARTITION_PATHS[0];
+    dataGen = new HoodieTestDataGenerator(new String[] {partitionPath});
+    // little memory for the merge, for the incoming records to be sorted in several spilled runs
+    HoodieWriteConfig config = getConfigBuilder().withBulkInsertParallelism(1).withMergeSortedBaseFiles(true)
+        .withMemoryConfig(HoodieMemoryConfig.newBuilder().withMaxMemoryMaxSize(64 * 1024L, 64 * 1024L).build()).build();
+    try (SparkRDDWriteClient writeClient = getHoodieWriteClient(config);) {
+      String newCommitTime = "001";
+      writeClient.startCommitWithTime(newCommitTime);
+      List<HoodieRecord> records = dataGen.generateInserts(newCommitTime, 1000);
+      List<WriteStatus> statuses = writeClient.bulkInsert(jsc.parallelize(records, 1), newCommitTime).collect();
+      assertNoWriteErrors(statuses);
+      assertEquals(1, statuses.size());
+
+      newCommitTime = "002";
+      writeClient.startCommitWithTime(newCommitTime);
+      List<HoodieRecord> upserts = dataGen.generateUniqueUpdates(newCommitTime, 300);
+      upserts.addAll(dataGen.generateInserts(newCommitTime, 200));
+      statuses = writeClient.upsert(jsc.parallelize(upserts, 1), newCommitTime).collect();
+      assertNoWriteErrors(statuses);
+      assertEquals(1, statuses.size());
+      assertEquals(1200, statuses.get(0).getStat().getNumWrites());
+      assertEquals(300, statuses.get(0).getStat().getNumUpdateWrites());
+      assertEquals(200, statuses.get(0).getStat().getNumInserts());
+
+      // the new base file is sorted by key, with the incoming records written in
+      Path newFilePath = new Path(basePath, statuses.get(0).getStat().getPath());
+      List<GenericRecord> newFileRecords = new ParquetUtils().readAvroRecords(hadoopConf, newFilePath);
+      assertEquals(1200, newFileRecords.size());
+      for (int i = 1; i < newFileRecords.size(); i++) {
+        assertTrue(newFileRecords.get(i - 1).get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString()
+            .compareTo(newFileRecords.get(i).get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString()) < 0);
+      }
+      assertEquals(500, newFileRecords.stream()
+          .filter(record -> record.get(HoodieRecord.COMMIT_TIME_METADATA_FIELD).toString().equals("002")).count());
+    }
+  }
+
+  @Test
+  public void testSortMergeWithInsertedBaseFile() throws Exception {
+    String partitionPath = HoodieTestDataGenerator.DEFAULT_PARTITION_PATHS[0];
+    dataGen = new HoodieTestDataGenerator(new String[] {partitionPath});
+    HoodieWriteConfig config = getConfigBuilder().withMergeSortedBaseFiles(true)
+        .withMemoryConfig(HoodieMemoryConfig.newBuilder().withMaxMemoryMaxSize(64 * 1024L, 64 * 1024L).build()).build();
+    try (SparkRDDWriteClient writeClient = getHoodieWriteClient(config);) {
+      String newCommitTime = "001";
+      writeClient.startCommitWithTime(newCommitTime);
+      // the new file group is written sorted by key, for the next upsert to sort-merge it
+      List<HoodieRecord> records = dataGen.generateInserts(newCommitTime, 1000);
+      List<WriteStatus> statuses = writeClient.upsert(jsc.parallelize(records, 1), newCommitTime).collect();
+      assertNoWriteErrors(statuses);
+      assertEquals(1, statuses.size());
+      assertSortedBaseFile(statuses.get(0).getStat(), 1000);
+
+      newCommitTime = "002";
+      writeClient.startCommitWithTime(newCommitTime);
+      List<HoodieRecord> upserts = dataGen.generateUniqueUpdates(newCommitTime, 100);
+      upserts.addAll(dataGen.generateInserts(newCommitTime, 50));
+      statuses = writeClient.upsert(jsc.parallelize(upserts, 1), newCommitTime).collect();
+      assertNoWriteErrors(statuses);
+      assertEquals(1, statuses.size());
+      assertEquals(100, statuses.get(0).getStat().getNumUpdateWrites());
+      assertEquals(50, statuses.get(0).getStat().getNumInserts());
+      assertSortedBaseFile(statuses.get(0).getStat(), 1050);
+    }
+  }
+
+  @Test
+  public void testSortMergeWithUnsortedBaseFile() throws Exception {
+    String partitionPath = HoodieTestDataGenerator.DEFAULT_PARTITION_PATHS[0];
+    dataGen = new HoodieTestDataGenerator(new String[] {partitionPath});
+    String newCommitTime = "001";
+    try (SparkRDDWriteClient writeClient = getHoodieWriteClient(getConfigBuilder().build());) {
+      writeClient.startCommitWithTime(newCommitTime);
+      // inserted as they come, not sorted by key
+      List<HoodieRecord> records = dataGen.generateInserts(newCommitTime, 100);
+      List<WriteStatus> statuses = writeClient.insert(jsc.parallelize(records, 1), newCommitTime).collect();
+      assertNoWriteErrors(statuses);
+    }
+
+    HoodieWriteConfig config = getConfigBuilder().withMergeSortedBaseFiles(true).build();
+    try (SparkRDDWriteClient writeClient = getHoodieWriteClient(config);) {
+      HoodieTable table = HoodieSparkTable.create(config, context, HoodieTableMetaClient.reload(metaClient));
+      HoodieBaseFile baseFile = table.getBaseFileOnlyView().getLatestBaseFiles(partitionPath).findFirst().get();
+      assertFalse(HoodieSortMergeJoinHandle.isSortedByRecordKey(table, baseFile));
+
+      // the base file is not marked as sorted, so it is merged as usual
+      String updateCommitTime = "002";
+      writeClient.startCommitWithTime(updateCommitTime);
+      List<HoodieRecord> updates = dataGen.generateUniqueUpdates(updateCommitTime, 10);
+      List<WriteStatus> statuses = writeClient.upsert(jsc.parallelize(updates, 1), updateCommitTime).collect();
+      assertNoWriteErrors(statuses);
+      assertEquals(1, statuses.size());
+      assertEquals(100, statuses.get(0).getStat().getNumWrites());
+      assertEquals(10, statuses.get(0).getStat().getNumUpdateWrites());
+    }
+  }
+
+  private void assertSortedBaseFile(HoodieWriteStat stat, int expectedRecords) {
+    Path filePath = new Path(basePath, stat.getPath());
+    List<GenericRecord> fileRecords = new ParquetUtils().readAvroRecords(hadoopConf, filePath);
+    assertEquals(expectedRecords, fileRecords.size());
+    for (int i = 1; i < fileRecords.size(); i++) {
+      assertTrue(fileRecords.get(i - 1).get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString()
+          .compareTo(fileRecords.get(i).get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString()) < 0);
+    }
+    assertEquals("true", new ParquetUtils().readMetadata(hadoopConf, filePath).getFileMetaData().getKeyValueMetaData()
+        .get(HoodieAvroWriteSupport.HOODIE_SORTED_BY_RECORD_KEY_FOOTER));
+  }
+
+  private void assertAsyncWriteStats(HoodieWriteStat stat, int expectedRecords) throws Exception {
+    Path filePath = new Path(basePath, stat.getPath());
+    assertEquals(expectedRecords, new ParquetUtils().readAvroRecords(hadoopConf, filePath).size());
+    assertEquals(FSUtils.getFileSize(fs, filePath), stat.getFileSizeInBytes());
+    assertTrue(stat.getRuntimeStats().getTotalEncodeTime() > 0);
+    assertTrue(stat.getRuntimeStats().getTotalIOBlockedTime() >= 0);
+    assertTrue(stat.getRuntimeStats().getTotalIOTime() >= 0);
+  }
+
   private Dataset<Row> getRecords() {
     // Check the entire dataset has 8 records still
     String[] fullPartitionPaths = new String[dataGen.getPartitionPaths().length];
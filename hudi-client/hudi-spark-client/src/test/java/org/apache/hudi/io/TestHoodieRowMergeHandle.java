@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.io;
+
+import org.apache.hudi.client.HoodieInternalWriteStatus;
+import org.apache.hudi.common.model.HoodieWriteStat;
+import org.apache.hudi.common.testutils.HoodieTestDataGenerator;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieUpsertException;
+import org.apache.hudi.table.HoodieSparkTable;
+import org.apache.hudi.table.HoodieTable;
+import org.apache.hudi.testutils.HoodieClientTestHarness;
+import org.apache.hudi.testutils.SparkDatasetTestUtils;
+
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.unsafe.types.UTF8String;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests {@link HoodieRowMergeHandle}.
+ */
+@SuppressWarnings("checkstyle:LineLength")
+public class TestHoodieRowMergeHandle extends HoodieClientTestHarness {
+
+  private static final Random RANDOM = new Random();
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    initSparkContexts("TestHoodieRowMergeHandle");
+    initPath();
+    initFileSystem();
+    initTestDataGenerator();
+    initMetaClient();
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    cleanupResources();
+  }
+
+  @Test
+  public void testRowMergeHandle() throws Exception {
+    HoodieWriteConfig cfg = SparkDatasetTestUtils.getConfigBuilder(basePath).withPreCombineField("randomLong").build();
+    String partitionPath = HoodieTestDataGenerator.DEFAULT_PARTITION_PATHS[0];
+    String fileId = UUID.randomUUID().toString();
+
+    // write the base file
+    HoodieTable table = HoodieSparkTable.create(cfg, context, metaClient);
+    HoodieRowCreateHandle createHandle = new HoodieRowCreateHandle(table, cfg, partitionPath, fileId, "001", RANDOM.nextInt(100000), RANDOM.nextLong(), RANDOM.nextLong(), SparkDatasetTestUtils.STRUCT_TYPE);
+    List<InternalRow> baseRows = SparkDatasetTestUtils.toInternalRows(SparkDatasetTestUtils.getRandomRows(sqlContext, 100, partitionPath, false), SparkDatasetTestUtils.ENCODER);
+    for (InternalRow row : baseRows) {
+      createHandle.write(row);
+    }
+    createHandle.close();
+    HoodieTestDataGenerator.createCommitFile(basePath, "001", hadoopConf);
+
+    // update 10 rows, the first one twice, and insert 5 rows
+    Map<String, Long> expectedValues = new HashMap<>();
+    List<InternalRow> newRows = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      String recordKey = baseRows.get(i).getUTF8String(2).toString();
+      newRows.add(newRow(recordKey, partitionPath, i + 10L));
+      expectedValues.put(recordKey, i + 10L);
+    }
+    newRows.add(newRow(baseRows.get(0).getUTF8String(2).toString(), partitionPath, 0L));
+    for (int i = 0; i < 5; i++) {
+      String recordKey = UUID.randomUUID().toString();
+      newRows.add(newRow(recordKey, partitionPath, i));
+      expectedValues.put(recordKey, (long) i);
+    }
+    Collections.shuffle(newRows);
+
+    metaClient.reloadActiveTimeline();
+    table = HoodieSparkTable.create(cfg, context, metaClient);
+    HoodieRowMergeHandle mergeHandle = new HoodieRowMergeHandle(table, cfg, partitionPath, fileId, "002", RANDOM.nextInt(100000), RANDOM.nextLong(), RANDOM.nextLong(), SparkDatasetTestUtils.STRUCT_TYPE, newRows.iterator());
+    mergeHandle.mergeWithBaseFile();
+    HoodieInternalWriteStatus writeStatus = mergeHandle.close();
+
+    assertFalse(writeStatus.hasErrors());
+    assertEquals(15, writeStatus.getTotalRecords());
+    HoodieWriteStat writeStat = writeStatus.getStat();
+    assertEquals("001", writeStat.getPrevCommit());
+    assertEquals(105, writeStat.getNumWrites());
+    assertEquals(10, writeStat.getNumUpdateWrites());
+    assertEquals(5, writeStat.getNumInserts());
+    assertEquals(0, writeStat.getNumDeletes());
+
+    List<Row> result = sqlContext.read().parquet(basePath + "/" + writeStat.getPath()).collectAsList();
+    assertEquals(105, result.size());
+    for (Row row : result) {
+      String recordKey = row.getString(2);
+      if (expectedValues.containsKey(recordKey)) {
+        assertEquals("002", row.getString(0));
+        assertEquals(mergeHandle.getFileName(), row.getString(4));
+        assertEquals(expectedValues.get(recordKey).longValue(), row.getLong(6));
+      } else {
+        assertEquals("001", row.getString(0));
+      }
+    }
+  }
+
+  @Test
+  public void testNoBaseFile() {
+    HoodieWriteConfig cfg = SparkDatasetTestUtils.getConfigBuilder(basePath).build();
+    HoodieTable table = HoodieSparkTable.create(cfg, context, metaClient);
+    assertThrows(HoodieUpsertException.class, () -> new HoodieRowMergeHandle(table, cfg, HoodieTestDataGenerator.DEFAULT_PARTITION_PATHS[0], UUID.randomUUID().toString(), "001",
+        RANDOM.nextInt(100000), RANDOM.nextLong(), RANDOM.nextLong(), SparkDatasetTestUtils.STRUCT_TYPE, Collections.emptyIterator()));
+  }
+
+  private static InternalRow newRow(String recordKey, String partitionPath, long randomLong) {
+    return new GenericInternalRow(new Object[] {UTF8String.fromString(""), UTF8String.fromString(""), UTF8String.fromString(recordKey),
+        UTF8String.fromString(partitionPath), UTF8String.fromString(""), RANDOM.nextInt(), randomLong});
+  }
+}
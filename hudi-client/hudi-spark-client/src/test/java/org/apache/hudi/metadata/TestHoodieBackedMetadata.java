@@ -915,7 +915,10 @@ public class TestHoodieBackedMetadata extends HoodieClientTestHarness {
     // in the .hoodie folder.
     List<String> metadataTablePartitions = FSUtils.getAllPartitionPaths(engineContext, HoodieTableMetadata.getMetadataTableBasePath(basePath),
         false, false, false);
-    assertEquals(MetadataPartitionType.values().length, metadataTablePartitions.size());
+    int numPartitions = 1 + (config.getMetadataConfig().enableRecordIndex() ? 1 : 0)
+        + (config.getMetadataConfig().enableBloomFilterIndex() ? 1 : 0)
+        + (config.getMetadataConfig().enableColumnStatsIndex() ? 1 : 0);
+    assertEquals(numPartitions, metadataTablePartitions.size());
 
     // Metadata table should automatically compact and clean
     // versions are +1 as autoclean / compaction happens end of commits
@@ -923,6 +926,21 @@ public class TestHoodieBackedMetadata extends HoodieClientTestHarness {
     HoodieTableFileSystemView fsView = new HoodieTableFileSystemView(metadataMetaClient, metadataMetaClient.getActiveTimeline());
     metadataTablePartitions.forEach(partition -> {
       List<FileSlice> latestSlices = fsView.getLatestFileSlices(partition).collect(Collectors.toList());
+      if (partition.equals(MetadataPartitionType.RECORD_INDEX.partitionPath())) {
+        int numFileGroups = config.getMetadataConfig().getRecordIndexFileGroupCount();
+        assertTrue(latestSlices.size() <= numFileGroups, "Should have at most " + numFileGroups + " record index file groups");
+        return;
+      }
+      if (partition.equals(MetadataPartitionType.BLOOM_FILTERS.partitionPath())) {
+        int numFileGroups = config.getMetadataConfig().getBloomFilterIndexFileGroupCount();
+        assertTrue(latestSlices.size() <= numFileGroups, "Should have at most " + numFileGroups + " bloom filter file groups");
+        return;
+      }
+      if (partition.equals(MetadataPartitionType.COLUMN_STATS.partitionPath())) {
+        int numFileGroups = config.getMetadataConfig().getColumnStatsIndexFileGroupCount();
+        assertTrue(latestSlices.size() <= numFileGroups, "Should have at most " + numFileGroups + " column stats file groups");
+        return;
+      }
       assertTrue(latestSlices.stream().map(FileSlice::getBaseFile).count() <= 1, "Should have a single latest base file");
       assertTrue(latestSlices.size() <= 1, "Should have a single latest file slice");
       assertTrue(latestSlices.size() <= numFileVersions, "Should limit file slice to "
@@ -35,6 +35,7 @@ import org.apache.hudi.common.model.HoodieTableType;
 import org.apache.hudi.common.model.HoodieWriteStat;
 import org.apache.hudi.common.table.HoodieTableConfig;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.common.table.log.HoodieLogFormat;
 import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
 import org.apache.hudi.common.table.timeline.HoodieInstant;
 import org.apache.hudi.common.table.timeline.HoodieInstant.State;
@@ -232,6 +233,54 @@ public class TestHoodieMergeOnReadTable extends HoodieClientTestHarness {
     }
   }
 
+  @Test
+  public void testSimpleInsertAndUpdateStreamingLogBlocks() throws Exception {
+    HoodieWriteConfig cfg = getConfigBuilder(true).withStorageConfig(HoodieStorageConfig.newBuilder()
+        .logFileDataBlockStreamingEnabled(true).logFileDataBlockMaxSize(4 * 1024).build()).build();
+    try (SparkRDDWriteClient client = getHoodieWriteClient(cfg);) {
+
+      /**
+       * Write 1 (only inserts)
+       */
+      String newCommitTime = "001";
+      client.startCommitWithTime(newCommitTime);
+
+      List<HoodieRecord> records = dataGen.generateInserts(newCommitTime, 200);
+      insertRecords(records, client, cfg, newCommitTime);
+
+      /**
+       * Write 2 (updates), encoded into several data blocks
+       */
+      newCommitTime = "004";
+      client.startCommitWithTime(newCommitTime);
+      records = dataGen.generateUpdates(newCommitTime, 100);
+      updateRecords(records, client, cfg, newCommitTime);
+
+      HoodieTable hoodieTable = HoodieSparkTable.create(cfg, context, metaClient);
+      List<HoodieLogFile> logFiles = hoodieTable.getSliceView().getLatestFileSlices(dataGen.getPartitionPaths()[0])
+          .flatMap(FileSlice::getLogFiles).collect(Collectors.toList());
+      assertFalse(logFiles.isEmpty());
+      int numBlocks = 0;
+      for (HoodieLogFile logFile : logFiles) {
+        try (HoodieLogFormat.Reader reader = HoodieLogFormat.newReader(metaClient.getFs(), logFile, null)) {
+          while (reader.hasNext()) {
+            reader.next();
+            numBlocks++;
+          }
+        }
+      }
+      assertTrue(numBlocks > logFiles.size(), "Expecting several data blocks per log file");
+
+      FileStatus[] allFiles = listAllBaseFilesInPath(hoodieTable);
+      tableView = getHoodieTableFileSystemView(metaClient, hoodieTable.getCompletedCommitsTimeline(), allFiles);
+      List<String> dataFiles = tableView.getLatestBaseFiles().map(HoodieBaseFile::getPath).collect(Collectors.toList());
+      List<GenericRecord> recordsRead = HoodieMergeOnReadTestUtils.getRecordsUsingInputFormat(hadoopConf, dataFiles, basePath);
+      assertEquals(200, recordsRead.size(), "Must contain 200 records");
+      assertEquals(records.stream().map(HoodieRecord::getRecordKey).distinct().count(),
+          recordsRead.stream().filter(record -> record.get(HoodieRecord.COMMIT_TIME_METADATA_FIELD).toString().equals("004")).count());
+    }
+  }
+
   @Test
   public void testSimpleClusteringNoUpdates() throws Exception {
     testClustering(false);
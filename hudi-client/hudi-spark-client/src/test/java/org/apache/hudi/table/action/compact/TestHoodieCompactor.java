@@ -25,6 +25,7 @@ import org.apache.hudi.common.fs.FSUtils;
 import org.apache.hudi.common.model.FileSlice;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieTableType;
+import org.apache.hudi.common.model.HoodieWriteStat;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
 import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
 import org.apache.hudi.common.table.timeline.HoodieInstant;
@@ -51,6 +52,8 @@ import org.apache.spark.api.java.JavaRDD;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -132,10 +135,14 @@ public class TestHoodieCompactor extends HoodieClientTestHarness {
     }
   }
 
-  @Test
-  public void testWriteStatusContentsAfterCompaction() throws Exception {
+  @ParameterizedTest
+  @ValueSource(ints = {0, 2})
+  public void testWriteStatusContentsAfterCompaction(int prefetchThreads) throws Exception {
     // insert 100 records
-    HoodieWriteConfig config = getConfig();
+    HoodieWriteConfig config = getConfigBuilder()
+        .withCompactionConfig(HoodieCompactionConfig.newBuilder().withMaxNumDeltaCommitsBeforeCompaction(1)
+            .withCompactionLogBlockPrefetchThreads(prefetchThreads).build())
+        .build();
     try (SparkRDDWriteClient writeClient = getHoodieWriteClient(config)) {
       String newCommitTime = "100";
       writeClient.startCommitWithTime(newCommitTime);
@@ -188,6 +195,11 @@ public class TestHoodieCompactor extends HoodieClientTestHarness {
         assertTrue(writeStatuses.stream()
             .filter(writeStatus -> writeStatus.getStat().getPartitionPath().contentEquals(partitionPath)).count() > 0);
       }
+      // every log block is handed over by the prefetching reader, if enabled
+      for (WriteStatus writeStatus : result.collect()) {
+        HoodieWriteStat stat = writeStatus.getStat();
+        assertEquals(prefetchThreads > 0 ? stat.getTotalLogBlocks() : 0, stat.getTotalPrefetchHits() + stat.getTotalPrefetchMisses());
+      }
     }
   }
 
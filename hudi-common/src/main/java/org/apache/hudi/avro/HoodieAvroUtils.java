@@ -226,6 +226,17 @@ public class HoodieAvroUtils {
     return RECORD_KEY_SCHEMA;
   }
 
+  /**
+   * Fetch schema for record key and commit time.
+   */
+  public static Schema getRecordKeyCommitTimeSchema() {
+    Schema recordSchema = Schema.createRecord("HoodieRecordKey", "", "", false);
+    recordSchema.setFields(Arrays.asList(
+        new Schema.Field(HoodieRecord.RECORD_KEY_METADATA_FIELD, METADATA_FIELD_SCHEMA, "", JsonProperties.NULL_VALUE),
+        new Schema.Field(HoodieRecord.COMMIT_TIME_METADATA_FIELD, METADATA_FIELD_SCHEMA, "", JsonProperties.NULL_VALUE)));
+    return recordSchema;
+  }
+
   /**
    * Fetch schema for record key and partition path.
    */
@@ -19,7 +19,7 @@
 package org.apache.hudi.avro;
 
 import org.apache.hudi.common.bloom.BloomFilter;
-import org.apache.hudi.common.bloom.HoodieDynamicBoundedBloomFilter;
+import org.apache.hudi.common.bloom.BloomFilterTypeCode;
 
 import org.apache.avro.Schema;
 import org.apache.parquet.avro.AvroWriteSupport;
@@ -36,12 +36,17 @@ public class HoodieAvroWriteSupport extends AvroWriteSupport {
   private BloomFilter bloomFilter;
   private String minRecordKey;
   private String maxRecordKey;
+  // whether the keys were added in sorted order so far
+  private boolean sortedByRecordKey = true;
+  private String lastRecordKey;
 
   public static final String OLD_HOODIE_AVRO_BLOOM_FILTER_METADATA_KEY = "com.uber.hoodie.bloomfilter";
   public static final String HOODIE_AVRO_BLOOM_FILTER_METADATA_KEY = "org.apache.hudi.bloomfilter";
   public static final String HOODIE_MIN_RECORD_KEY_FOOTER = "hoodie_min_record_key";
   public static final String HOODIE_MAX_RECORD_KEY_FOOTER = "hoodie_max_record_key";
   public static final String HOODIE_BLOOM_FILTER_TYPE_CODE = "hoodie_bloom_filter_type_code";
+  // set to true in the footer of the files whose records are sorted by record key
+  public static final String HOODIE_SORTED_BY_RECORD_KEY_FOOTER = "hoodie_sorted_by_record_key";
 
   public HoodieAvroWriteSupport(MessageType schema, Schema avroSchema, BloomFilter bloomFilter) {
     super(schema, avroSchema);
@@ -57,15 +62,22 @@ public class HoodieAvroWriteSupport extends AvroWriteSupport {
         extraMetaData.put(HOODIE_MIN_RECORD_KEY_FOOTER, minRecordKey);
         extraMetaData.put(HOODIE_MAX_RECORD_KEY_FOOTER, maxRecordKey);
       }
-      if (bloomFilter.getBloomFilterTypeCode().name().contains(HoodieDynamicBoundedBloomFilter.TYPE_CODE_PREFIX)) {
+      if (bloomFilter.getBloomFilterTypeCode() != BloomFilterTypeCode.SIMPLE) {
         extraMetaData.put(HOODIE_BLOOM_FILTER_TYPE_CODE, bloomFilter.getBloomFilterTypeCode().name());
       }
     }
+    if (lastRecordKey != null && sortedByRecordKey) {
+      extraMetaData.put(HOODIE_SORTED_BY_RECORD_KEY_FOOTER, Boolean.TRUE.toString());
+    }
     return new WriteSupport.FinalizedWriteContext(extraMetaData);
   }
 
   public void add(String recordKey) {
     this.bloomFilter.add(recordKey);
+    if (lastRecordKey != null && lastRecordKey.compareTo(recordKey) > 0) {
+      sortedByRecordKey = false;
+    }
+    lastRecordKey = recordKey;
     if (minRecordKey != null) {
       minRecordKey = minRecordKey.compareTo(recordKey) <= 0 ? minRecordKey : recordKey;
     } else {
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.bloom;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bloom filter sized for the number of keys actually added to it, rather than for an expected number of entries.
+ *
+ * <p>Up to {@code maxBufferedKeys} keys are buffered until the filter is first read, e.g. serialized when the file it
+ * indexes is closed: the filter of the configured type is then created for the number of buffered keys and the error
+ * rate, and the keys are added to it. A file with fewer records than expected thus gets a smaller filter.
+ *
+ * <p>Once {@code maxBufferedKeys} keys are buffered, the filter is instead created for the estimated number of
+ * entries of a full file, the buffered keys are added to it and dropped, so that the keys kept in memory stay
+ * bounded. Keys added after the filter is created go to the created filter directly.
+ */
+public class AdaptiveSizeBloomFilter implements BloomFilter {
+
+  private final int maxBufferedKeys;
+
+  private final int numEntriesEstimate;
+
+  private final double errorRate;
+
+  private final int maxNumberOfEntries;
+
+  private final String bloomFilterTypeCode;
+
+  private List<String> bufferedKeys = new ArrayList<>();
+
+  private BloomFilter bloomFilter;
+
+  /**
+   * @param maxBufferedKeys     max number of keys buffered before the filter is created
+   * @param numEntriesEstimate  number of entries the filter is created for once {@code maxBufferedKeys} is reached,
+   *                            raised to {@code maxBufferedKeys} if lower
+   * @param errorRate           max allowed error rate
+   * @param maxNumberOfEntries  max number of entries of a dynamic bloom filter, raised to the number of entries if lower
+   * @param bloomFilterTypeCode type of the created bloom filter
+   */
+  AdaptiveSizeBloomFilter(int maxBufferedKeys, int numEntriesEstimate, double errorRate, int maxNumberOfEntries,
+      String bloomFilterTypeCode) {
+    this.maxBufferedKeys = Math.max(maxBufferedKeys, 1);
+    this.numEntriesEstimate = Math.max(numEntriesEstimate, this.maxBufferedKeys);
+    this.errorRate = errorRate;
+    this.maxNumberOfEntries = maxNumberOfEntries;
+    this.bloomFilterTypeCode = bloomFilterTypeCode;
+  }
+
+  @Override
+  public void add(String key) {
+    if (key == null) {
+      throw new NullPointerException("Key cannot by null");
+    }
+    if (bloomFilter != null) {
+      bloomFilter.add(key);
+      return;
+    }
+    bufferedKeys.add(key);
+    if (bufferedKeys.size() >= maxBufferedKeys) {
+      createBloomFilter(numEntriesEstimate);
+    }
+  }
+
+  /**
+   * Returns true if the keys are still buffered, i.e. the bloom filter is not created yet.
+   */
+  boolean isBuffering() {
+    return bloomFilter == null;
+  }
+
+  /**
+   * Creates the bloom filter sized for the buffered keys, if not created yet.
+   */
+  private BloomFilter getBloomFilter() {
+    if (bloomFilter == null) {
+      createBloomFilter(Math.max(bufferedKeys.size(), 1));
+    }
+    return bloomFilter;
+  }
+
+  private void createBloomFilter(int numEntries) {
+    bloomFilter = BloomFilterFactory.createBloomFilter(numEntries, errorRate, Math.max(numEntries, maxNumberOfEntries),
+        bloomFilterTypeCode);
+    bufferedKeys.forEach(bloomFilter::add);
+    bufferedKeys = null;
+  }
+
+  @Override
+  public boolean mightContain(String key) {
+    return getBloomFilter().mightContain(key);
+  }
+
+  @Override
+  public boolean[] mightContain(List<String> keys) {
+    return getBloomFilter().mightContain(keys);
+  }
+
+  @Override
+  public String serializeToString() {
+    return getBloomFilter().serializeToString();
+  }
+
+  @Override
+  public BloomFilterTypeCode getBloomFilterTypeCode() {
+    return getBloomFilter().getBloomFilterTypeCode();
+  }
+}
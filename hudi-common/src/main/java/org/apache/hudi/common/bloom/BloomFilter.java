@@ -18,6 +18,8 @@
 
 package org.apache.hudi.common.bloom;
 
+import java.util.List;
+
 /**
  * A Bloom filter interface.
  */
@@ -38,6 +40,21 @@ public interface BloomFilter {
    */
   boolean mightContain(String key);
 
+  /**
+   * Tests a batch of keys for membership. Implementations can hash all the keys before testing any bit, which is
+   * cheaper than testing the keys one at a time.
+   *
+   * @param keys the keys to be checked for membership
+   * @return for each key, {@code true} if it may be found, {@code false} if it is not found for sure.
+   */
+  default boolean[] mightContain(List<String> keys) {
+    boolean[] result = new boolean[keys.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = mightContain(keys.get(i));
+    }
+    return result;
+  }
+
   /**
    * Serialize the bloom filter as a string.
    */
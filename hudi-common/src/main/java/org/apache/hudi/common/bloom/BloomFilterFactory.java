@@ -20,6 +20,8 @@ package org.apache.hudi.common.bloom;
 
 import org.apache.hadoop.util.hash.Hash;
 
+import java.util.Arrays;
+
 /**
  * A Factory class to generate different versions of {@link BloomFilter}.
  */
@@ -39,11 +41,32 @@ public class BloomFilterFactory {
       return new SimpleBloomFilter(numEntries, errorRate, Hash.MURMUR_HASH);
     } else if (bloomFilterTypeCode.equalsIgnoreCase(BloomFilterTypeCode.DYNAMIC_V0.name())) {
       return new HoodieDynamicBoundedBloomFilter(numEntries, errorRate, Hash.MURMUR_HASH, maxNumberOfEntries);
+    } else if (bloomFilterTypeCode.equalsIgnoreCase(BloomFilterTypeCode.BLOCKED_V0.name())) {
+      return new HoodieBlockedBloomFilter(numEntries, errorRate);
     } else {
       throw new IllegalArgumentException("Bloom Filter type code not recognizable " + bloomFilterTypeCode);
     }
   }
 
+  /**
+   * Creates a new {@link BloomFilter} sized for the number of keys added to it, see {@link AdaptiveSizeBloomFilter}.
+   *
+   * @param maxBufferedKeys     max number of keys buffered before the filter is created
+   * @param numEntriesEstimate  number of entries the filter is created for once {@code maxBufferedKeys} is reached
+   * @param errorRate           max allowed error rate
+   * @param maxNumberOfEntries  max number of entries of a dynamic bloom filter
+   * @param bloomFilterTypeCode bloom filter type code
+   * @return the {@link BloomFilter} thus created
+   */
+  public static BloomFilter createAdaptiveSizeBloomFilter(int maxBufferedKeys, int numEntriesEstimate, double errorRate,
+      int maxNumberOfEntries, String bloomFilterTypeCode) {
+    if (Arrays.stream(BloomFilterTypeCode.values()).noneMatch(typeCode -> typeCode.name().equalsIgnoreCase(bloomFilterTypeCode))) {
+      throw new IllegalArgumentException("Bloom Filter type code not recognizable " + bloomFilterTypeCode);
+    }
+    return new AdaptiveSizeBloomFilter(maxBufferedKeys, numEntriesEstimate, errorRate, maxNumberOfEntries,
+        bloomFilterTypeCode);
+  }
+
   /**
    * Generate {@link BloomFilter} from serialized String.
    *
@@ -56,6 +79,8 @@ public class BloomFilterFactory {
       return new SimpleBloomFilter(serString);
     } else if (bloomFilterTypeCode.equalsIgnoreCase(BloomFilterTypeCode.DYNAMIC_V0.name())) {
       return new HoodieDynamicBoundedBloomFilter(serString, BloomFilterTypeCode.DYNAMIC_V0);
+    } else if (bloomFilterTypeCode.equalsIgnoreCase(BloomFilterTypeCode.BLOCKED_V0.name())) {
+      return new HoodieBlockedBloomFilter(serString);
     } else {
       throw new IllegalArgumentException("Bloom Filter type code not recognizable " + bloomFilterTypeCode);
     }
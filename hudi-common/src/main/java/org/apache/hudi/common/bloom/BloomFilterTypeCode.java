@@ -24,5 +24,6 @@ package org.apache.hudi.common.bloom;
  */
 public enum BloomFilterTypeCode {
   SIMPLE,
-  DYNAMIC_V0
+  DYNAMIC_V0,
+  BLOCKED_V0
 }
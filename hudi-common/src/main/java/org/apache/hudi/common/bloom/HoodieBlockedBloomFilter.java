@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.bloom;
+
+import org.apache.hudi.common.util.Base64CodecUtil;
+import org.apache.hudi.exception.HoodieIndexException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A split block bloom filter: the bits are split into blocks of 256 bits, made of eight 32 bits words, and a key
+ * sets a single bit in each word of a single block. Testing a key thus reads 32 contiguous bytes, within a cache
+ * line, instead of a bit at a random position for each of the hash functions.
+ *
+ * <p>A key is hashed once, into 64 bits: the upper 32 bits select its block and the lower 32 bits, multiplied by
+ * a different odd constant for each word, select its bit in the words of the block. The hash is computed over the
+ * UTF-16 code units of the key, so that no byte array is allocated for it.
+ *
+ * <p>The blocked layout needs more bits than {@link SimpleBloomFilter} for the same false positive ratio, in exchange
+ * for cheaper probes: about as many at 1e-3, but 2.4 times as many at the 1e-9 default of
+ * {@code hoodie.index.bloom.fpp}, which is best raised along with the use of this filter.
+ */
+public class HoodieBlockedBloomFilter implements BloomFilter {
+
+  private static final int WORDS_PER_BLOCK = 8;
+
+  private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * Integer.SIZE;
+
+  // 128MB of bits
+  private static final int MAX_NUM_BLOCKS = 1 << 22;
+
+  private static final int[] SALT = {0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+      0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final int numBlocks;
+
+  private final int[] words;
+
+  /**
+   * Creates a new blocked bloom filter sized for the given number of entries and error rate.
+   *
+   * @param numEntries The total number of entries.
+   * @param errorRate  maximum allowable error rate.
+   */
+  HoodieBlockedBloomFilter(int numEntries, double errorRate) {
+    this.numBlocks = getNumBlocks(numEntries, errorRate);
+    this.words = new int[numBlocks * WORDS_PER_BLOCK];
+  }
+
+  /**
+   * Creates the bloom filter from serialized string.
+   *
+   * @param serString serialized string which represents the {@link HoodieBlockedBloomFilter}
+   */
+  HoodieBlockedBloomFilter(String serString) {
+    ByteBuffer buffer = ByteBuffer.wrap(Base64CodecUtil.decode(serString));
+    try {
+      this.numBlocks = buffer.getInt();
+      if (numBlocks <= 0 || numBlocks > MAX_NUM_BLOCKS) {
+        throw new HoodieIndexException("Could not deserialize BloomFilter instance, invalid number of blocks " + numBlocks);
+      }
+      this.words = new int[numBlocks * WORDS_PER_BLOCK];
+      buffer.asIntBuffer().get(words);
+    } catch (BufferUnderflowException e) {
+      throw new HoodieIndexException("Could not deserialize BloomFilter instance", e);
+    }
+  }
+
+  /**
+   * Returns the number of blocks giving the error rate for the number of entries, using the bits per key of a
+   * split block bloom filter: -8 / ln(1 - errorRate ^ (1 / 8)).
+   */
+  static int getNumBlocks(int numEntries, double errorRate) {
+    double numBits = -WORDS_PER_BLOCK * Math.max(numEntries, 1) / Math.log(1 - Math.pow(errorRate, 1.0 / WORDS_PER_BLOCK));
+    long numBlocks = (long) Math.ceil(numBits / BITS_PER_BLOCK);
+    return (int) Math.max(1, Math.min(numBlocks, MAX_NUM_BLOCKS));
+  }
+
+  @Override
+  public void add(String key) {
+    if (key == null) {
+      throw new NullPointerException("Key cannot by null");
+    }
+    long hash = hash(key);
+    int offset = blockOffset(hash);
+    int lowerHash = (int) hash;
+    for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+      words[offset + i] |= 1 << ((lowerHash * SALT[i]) >>> 27);
+    }
+  }
+
+  @Override
+  public boolean mightContain(String key) {
+    if (key == null) {
+      throw new NullPointerException("Key cannot by null");
+    }
+    return test(hash(key));
+  }
+
+  /**
+   * Hashes all the keys first, then tests the bits of their blocks.
+   */
+  @Override
+  public boolean[] mightContain(List<String> keys) {
+    int numKeys = keys.size();
+    long[] hashes = new long[numKeys];
+    for (int i = 0; i < numKeys; i++) {
+      String key = keys.get(i);
+      if (key == null) {
+        throw new NullPointerException("Key cannot by null");
+      }
+      hashes[i] = hash(key);
+    }
+    boolean[] result = new boolean[numKeys];
+    for (int i = 0; i < numKeys; i++) {
+      result[i] = test(hashes[i]);
+    }
+    return result;
+  }
+
+  private boolean test(long hash) {
+    int offset = blockOffset(hash);
+    int lowerHash = (int) hash;
+    // Test all the words of the block without branching, the bits of a key are missing if any of them is unset
+    int missingBits = 0;
+    for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+      missingBits |= ~words[offset + i] & (1 << ((lowerHash * SALT[i]) >>> 27));
+    }
+    return missingBits == 0;
+  }
+
+  private int blockOffset(long hash) {
+    // Maps the upper 32 bits of the hash to [0, numBlocks) with a multiplication instead of a division
+    return (int) (((hash >>> 32) * numBlocks) >>> 32) * WORDS_PER_BLOCK;
+  }
+
+  /**
+   * 64 bits FNV-1a hash of the UTF-16 code units of the key, followed by the finalizer of MurmurHash3 to spread
+   * the bits.
+   */
+  private static long hash(String key) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < key.length(); i++) {
+      hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  @Override
+  public String serializeToString() {
+    ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * (1 + words.length));
+    buffer.putInt(numBlocks);
+    buffer.asIntBuffer().put(words);
+    return Base64CodecUtil.encode(buffer.array());
+  }
+
+  @Override
+  public BloomFilterTypeCode getBloomFilterTypeCode() {
+    return BloomFilterTypeCode.BLOCKED_V0;
+  }
+}
@@ -75,6 +75,30 @@ public final class HoodieMetadataConfig extends DefaultHoodieConfig {
   public static final String DIRECTORY_FILTER_REGEX = METADATA_PREFIX + ".dir.filter.regex";
   public static final String DEFAULT_DIRECTORY_FILTER_REGEX = "";
 
+  // Maintain an index of record keys to their file groups in the record index partition
+  public static final String RECORD_INDEX_ENABLE_PROP = METADATA_PREFIX + ".record.index.enable";
+  public static final boolean DEFAULT_RECORD_INDEX_ENABLE = false;
+
+  // Number of file groups the record index partition is hashed into, only used when the partition is created
+  public static final String RECORD_INDEX_FILE_GROUP_COUNT_PROP = METADATA_PREFIX + ".record.index.file.group.count";
+  public static final int DEFAULT_RECORD_INDEX_FILE_GROUP_COUNT = 10;
+
+  // Maintain the bloom filters and key ranges of the base files in the bloom filter partition
+  public static final String BLOOM_FILTER_INDEX_ENABLE_PROP = METADATA_PREFIX + ".bloom.filter.index.enable";
+  public static final boolean DEFAULT_BLOOM_FILTER_INDEX_ENABLE = false;
+
+  // Number of file groups the bloom filter partition is hashed into, only used when the partition is created
+  public static final String BLOOM_FILTER_INDEX_FILE_GROUP_COUNT_PROP = METADATA_PREFIX + ".bloom.filter.index.file.group.count";
+  public static final int DEFAULT_BLOOM_FILTER_INDEX_FILE_GROUP_COUNT = 4;
+
+  // Maintain the min/max values and null counts of the columns of the base files in the column stats partition
+  public static final String COLUMN_STATS_INDEX_ENABLE_PROP = METADATA_PREFIX + ".column.stats.index.enable";
+  public static final boolean DEFAULT_COLUMN_STATS_INDEX_ENABLE = false;
+
+  // Number of file groups the column stats partition is hashed into, only used when the partition is created
+  public static final String COLUMN_STATS_INDEX_FILE_GROUP_COUNT_PROP = METADATA_PREFIX + ".column.stats.index.file.group.count";
+  public static final int DEFAULT_COLUMN_STATS_INDEX_FILE_GROUP_COUNT = 4;
+
   public static final String HOODIE_ASSUME_DATE_PARTITIONING_PROP = "hoodie.assume.date.partitioning";
   public static final String DEFAULT_ASSUME_DATE_PARTITIONING = "false";
 
@@ -117,6 +141,30 @@ public final class HoodieMetadataConfig extends DefaultHoodieConfig {
     return props.getProperty(DIRECTORY_FILTER_REGEX);
   }
 
+  public boolean enableRecordIndex() {
+    return Boolean.parseBoolean(props.getProperty(RECORD_INDEX_ENABLE_PROP));
+  }
+
+  public int getRecordIndexFileGroupCount() {
+    return Integer.parseInt(props.getProperty(RECORD_INDEX_FILE_GROUP_COUNT_PROP));
+  }
+
+  public boolean enableBloomFilterIndex() {
+    return Boolean.parseBoolean(props.getProperty(BLOOM_FILTER_INDEX_ENABLE_PROP));
+  }
+
+  public int getBloomFilterIndexFileGroupCount() {
+    return Integer.parseInt(props.getProperty(BLOOM_FILTER_INDEX_FILE_GROUP_COUNT_PROP));
+  }
+
+  public boolean enableColumnStatsIndex() {
+    return Boolean.parseBoolean(props.getProperty(COLUMN_STATS_INDEX_ENABLE_PROP));
+  }
+
+  public int getColumnStatsIndexFileGroupCount() {
+    return Integer.parseInt(props.getProperty(COLUMN_STATS_INDEX_FILE_GROUP_COUNT_PROP));
+  }
+
   public static class Builder {
 
     private final Properties props = new Properties();
@@ -194,6 +242,36 @@ public final class HoodieMetadataConfig extends DefaultHoodieConfig {
       return this;
     }
 
+    public Builder withRecordIndex(boolean enable) {
+      props.setProperty(RECORD_INDEX_ENABLE_PROP, String.valueOf(enable));
+      return this;
+    }
+
+    public Builder withRecordIndexFileGroupCount(int fileGroupCount) {
+      props.setProperty(RECORD_INDEX_FILE_GROUP_COUNT_PROP, String.valueOf(fileGroupCount));
+      return this;
+    }
+
+    public Builder withBloomFilterIndex(boolean enable) {
+      props.setProperty(BLOOM_FILTER_INDEX_ENABLE_PROP, String.valueOf(enable));
+      return this;
+    }
+
+    public Builder withBloomFilterIndexFileGroupCount(int fileGroupCount) {
+      props.setProperty(BLOOM_FILTER_INDEX_FILE_GROUP_COUNT_PROP, String.valueOf(fileGroupCount));
+      return this;
+    }
+
+    public Builder withColumnStatsIndex(boolean enable) {
+      props.setProperty(COLUMN_STATS_INDEX_ENABLE_PROP, String.valueOf(enable));
+      return this;
+    }
+
+    public Builder withColumnStatsIndexFileGroupCount(int fileGroupCount) {
+      props.setProperty(COLUMN_STATS_INDEX_FILE_GROUP_COUNT_PROP, String.valueOf(fileGroupCount));
+      return this;
+    }
+
     public HoodieMetadataConfig build() {
       HoodieMetadataConfig config = new HoodieMetadataConfig(props);
       setDefaultOnCondition(props, !props.containsKey(METADATA_ENABLE_PROP), METADATA_ENABLE_PROP,
@@ -222,6 +300,18 @@ public final class HoodieMetadataConfig extends DefaultHoodieConfig {
           DEFAULT_ENABLE_FALLBACK);
       setDefaultOnCondition(props, !props.containsKey(DIRECTORY_FILTER_REGEX), DIRECTORY_FILTER_REGEX,
           DEFAULT_DIRECTORY_FILTER_REGEX);
+      setDefaultOnCondition(props, !props.containsKey(RECORD_INDEX_ENABLE_PROP), RECORD_INDEX_ENABLE_PROP,
+          String.valueOf(DEFAULT_RECORD_INDEX_ENABLE));
+      setDefaultOnCondition(props, !props.containsKey(RECORD_INDEX_FILE_GROUP_COUNT_PROP), RECORD_INDEX_FILE_GROUP_COUNT_PROP,
+          String.valueOf(DEFAULT_RECORD_INDEX_FILE_GROUP_COUNT));
+      setDefaultOnCondition(props, !props.containsKey(BLOOM_FILTER_INDEX_ENABLE_PROP), BLOOM_FILTER_INDEX_ENABLE_PROP,
+          String.valueOf(DEFAULT_BLOOM_FILTER_INDEX_ENABLE));
+      setDefaultOnCondition(props, !props.containsKey(BLOOM_FILTER_INDEX_FILE_GROUP_COUNT_PROP), BLOOM_FILTER_INDEX_FILE_GROUP_COUNT_PROP,
+          String.valueOf(DEFAULT_BLOOM_FILTER_INDEX_FILE_GROUP_COUNT));
+      setDefaultOnCondition(props, !props.containsKey(COLUMN_STATS_INDEX_ENABLE_PROP), COLUMN_STATS_INDEX_ENABLE_PROP,
+          String.valueOf(DEFAULT_COLUMN_STATS_INDEX_ENABLE));
+      setDefaultOnCondition(props, !props.containsKey(COLUMN_STATS_INDEX_FILE_GROUP_COUNT_PROP), COLUMN_STATS_INDEX_FILE_GROUP_COUNT_PROP,
+          String.valueOf(DEFAULT_COLUMN_STATS_INDEX_FILE_GROUP_COUNT));
       return config;
     }
   }
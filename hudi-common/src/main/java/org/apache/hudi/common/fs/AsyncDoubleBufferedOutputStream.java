@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.fs;
+
+import org.apache.hudi.exception.HoodieIOException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Output stream handing its writes over to a background thread through two buffers: the writer fills one buffer while
+ * the other one is written to the underlying stream, so that encoding the data and writing it out overlap. The writer
+ * only waits for the I/O when it fills a buffer before the previous one is written out, which is tracked as the time
+ * blocked in I/O, along with the flushes and the close of the underlying stream.
+ *
+ * <p>The buffers grow on demand up to the buffer size. Writers flushing their data in bursts, like parquet does with
+ * whole row groups, should use a buffer size of at least the size of a burst, so that a burst is handed over at once
+ * rather than in chunks the writer waits for.
+ *
+ * <p>Not thread safe, the stream is meant to be written by a single writer. Failures of the background writes are
+ * rethrown by the next call of the writer.
+ */
+public class AsyncDoubleBufferedOutputStream extends OutputStream {
+
+  // initial size of the buffers
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+  private final OutputStream out;
+  private final ExecutorService ioExecutor;
+  // size the buffers are handed over at
+  private final int bufferSize;
+  private byte[] buffer;
+  // the buffer being written out, or the one to write to next, null until the first hand over
+  private byte[] spareBuffer;
+  private int count = 0;
+  private Future<?> pendingWrite;
+  private boolean closed = false;
+  // time the writer waited for the background writes
+  private long ioBlockedNanos = 0;
+  // time the background thread spent writing to the underlying stream
+  private final AtomicLong ioNanos = new AtomicLong(0);
+
+  public AsyncDoubleBufferedOutputStream(OutputStream out, int bufferSize, String name) {
+    this.out = out;
+    this.bufferSize = bufferSize;
+    this.buffer = new byte[Math.min(bufferSize, INITIAL_BUFFER_SIZE)];
+    this.ioExecutor = Executors.newSingleThreadExecutor(r -> {
+      Thread thread = new Thread(r, "hoodie-async-write-" + name);
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (count == bufferSize) {
+      handOver();
+    }
+    ensureCapacity(count + 1);
+    buffer[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (count == bufferSize) {
+        handOver();
+      }
+      ensureCapacity(Math.min(count + len, bufferSize));
+      int chunk = Math.min(len, buffer.length - count);
+      System.arraycopy(b, off, buffer, count, chunk);
+      count += chunk;
+      off += chunk;
+      len -= chunk;
+    }
+  }
+
+  /**
+   * Writes out all the buffered data, waiting for it to be written to the underlying stream.
+   */
+  @Override
+  public void flush() throws IOException {
+    handOver();
+    awaitPendingWrite();
+    long startNanos = System.nanoTime();
+    try {
+      out.flush();
+    } finally {
+      long flushNanos = System.nanoTime() - startNanos;
+      ioNanos.addAndGet(flushNanos);
+      ioBlockedNanos += flushNanos;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      handOver();
+      awaitPendingWrite();
+      long startNanos = System.nanoTime();
+      try {
+        out.close();
+      } finally {
+        long closeNanos = System.nanoTime() - startNanos;
+        ioNanos.addAndGet(closeNanos);
+        ioBlockedNanos += closeNanos;
+      }
+    } finally {
+      ioExecutor.shutdownNow();
+    }
+  }
+
+  /**
+   * @return the time the writer was blocked waiting for the background writes, in milliseconds
+   */
+  public long getIOBlockedTime() {
+    return TimeUnit.NANOSECONDS.toMillis(ioBlockedNanos);
+  }
+
+  /**
+   * @return the time spent writing to the underlying stream in the background, in milliseconds
+   */
+  public long getIOTime() {
+    return TimeUnit.NANOSECONDS.toMillis(ioNanos.get());
+  }
+
+  /**
+   * Grows the current buffer to hold at least the given number of bytes, which must not exceed the buffer size.
+   */
+  private void ensureCapacity(int capacity) {
+    if (capacity > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.min(bufferSize, Math.max(capacity, buffer.length * 2)));
+    }
+  }
+
+  /**
+   * Hands the current buffer over to the background thread, once the previous one is written out.
+   */
+  private void handOver() throws IOException {
+    awaitPendingWrite();
+    if (count == 0) {
+      return;
+    }
+    byte[] fullBuffer = buffer;
+    int length = count;
+    pendingWrite = ioExecutor.submit(() -> {
+      long startNanos = System.nanoTime();
+      try {
+        out.write(fullBuffer, 0, length);
+      } catch (IOException e) {
+        throw new HoodieIOException("Failed to write in the background", e);
+      } finally {
+        ioNanos.addAndGet(System.nanoTime() - startNanos);
+      }
+    });
+    buffer = spareBuffer != null ? spareBuffer : new byte[Math.min(bufferSize, INITIAL_BUFFER_SIZE)];
+    spareBuffer = fullBuffer;
+    count = 0;
+  }
+
+  private void awaitPendingWrite() throws IOException {
+    if (pendingWrite == null) {
+      return;
+    }
+    long startNanos = System.nanoTime();
+    try {
+      pendingWrite.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the background write");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause() instanceof HoodieIOException ? e.getCause().getCause() : e.getCause();
+      throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    } finally {
+      pendingWrite = null;
+      ioBlockedNanos += System.nanoTime() - startNanos;
+    }
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.hudi.common.fs;
 import org.apache.hudi.common.metrics.Registry;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
 import org.apache.hudi.common.util.HoodieTimer;
+import org.apache.hudi.common.util.Option;
 import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.exception.HoodieIOException;
 
@@ -81,6 +82,9 @@ public class HoodieWrapperFileSystem extends FileSystem {
 
 
   private ConcurrentMap<String, SizeAwareFSDataOutputStream> openStreams = new ConcurrentHashMap<>();
+  // buffer sizes of the files to be written through an async stream, until they are created
+  private ConcurrentMap<String, Integer> asyncWriteBufferSizes = new ConcurrentHashMap<>();
+  private ConcurrentMap<String, AsyncDoubleBufferedOutputStream> asyncStreams = new ConcurrentHashMap<>();
   private FileSystem fileSystem;
   private URI uri;
   private ConsistencyGuard consistencyGuard = new NoOpConsistencyGuard();
@@ -202,12 +206,37 @@ public class HoodieWrapperFileSystem extends FileSystem {
       return fsDataOutputStream;
     }
 
+    Integer asyncWriteBufferSize = asyncWriteBufferSizes.remove(path.getName());
+    if (asyncWriteBufferSize != null) {
+      AsyncDoubleBufferedOutputStream asyncStream = new AsyncDoubleBufferedOutputStream(fsDataOutputStream,
+          asyncWriteBufferSize, path.getName());
+      asyncStreams.put(path.getName(), asyncStream);
+      fsDataOutputStream = new FSDataOutputStream(asyncStream, null);
+    }
     SizeAwareFSDataOutputStream os = new SizeAwareFSDataOutputStream(path, fsDataOutputStream, consistencyGuard,
-        () -> openStreams.remove(path.getName()));
+        () -> {
+          openStreams.remove(path.getName());
+          asyncStreams.remove(path.getName());
+        });
     openStreams.put(path.getName(), os);
     return os;
   }
 
+  /**
+   * Writes the given file, once created, through an {@link AsyncDoubleBufferedOutputStream} so that the writes to the
+   * underlying file system are done in the background.
+   */
+  public void enableAsyncWrites(Path file, int bufferSize) {
+    asyncWriteBufferSizes.put(file.getName(), bufferSize);
+  }
+
+  /**
+   * @return the async stream of the open file, if written in the background
+   */
+  public Option<AsyncDoubleBufferedOutputStream> getAsyncOutputStream(Path file) {
+    return Option.ofNullable(asyncStreams.get(file.getName()));
+  }
+
   private FSDataInputStream wrapInputStream(final Path path, FSDataInputStream fsDataInputStream) throws IOException {
     if (fsDataInputStream instanceof TimedFSDataInputStream) {
       return fsDataInputStream;
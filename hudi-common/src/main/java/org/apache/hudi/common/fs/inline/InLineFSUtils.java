@@ -46,6 +46,10 @@ public class InLineFSUtils {
    */
   public static Path getInlineFilePath(Path outerPath, String origScheme, long inLineStartOffset, long inLineLength) {
     String subPath = outerPath.toString().substring(outerPath.toString().indexOf(":") + 1);
+    if (subPath.startsWith("//")) {
+      // keep the authority of the outer path, e.g. the name node of hdfs://namenode:8020/file1
+      subPath = subPath.substring(2);
+    }
     return new Path(
         InLineFileSystem.SCHEME + "://" + subPath + "/" + origScheme
             + "/" + "?" + START_OFFSET_STR + EQUALS_STR + inLineStartOffset
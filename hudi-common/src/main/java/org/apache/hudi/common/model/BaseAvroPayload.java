@@ -52,4 +52,15 @@ public abstract class BaseAvroPayload implements Serializable {
       throw new HoodieException("Ordering value is null for record: " + record);
     }
   }
+
+  /**
+   * Instantiate {@link BaseAvroPayload} from already serialized avro bytes, used when reading spilled payloads.
+   *
+   * @param recordBytes Avro bytes of the record, empty for deletes.
+   * @param orderingVal {@link Comparable} to be used in pre combine.
+   */
+  protected BaseAvroPayload(byte[] recordBytes, Comparable orderingVal) {
+    this.recordBytes = recordBytes;
+    this.orderingVal = orderingVal;
+  }
 }
@@ -50,6 +50,14 @@ public class DefaultHoodieRecordPayload extends OverwriteWithLatestAvroPayload {
     this(record.isPresent() ? record.get() : null, 0); // natural order
   }
 
+  DefaultHoodieRecordPayload(byte[] recordBytes, Comparable orderingVal) {
+    super(recordBytes, orderingVal);
+  }
+
+  boolean hasEventTime() {
+    return eventTime.isPresent();
+  }
+
   @Override
   public Option<IndexedRecord> combineAndGetUpdateValue(IndexedRecord currentValue, Schema schema, Properties properties) throws IOException {
     if (recordBytes.length == 0) {
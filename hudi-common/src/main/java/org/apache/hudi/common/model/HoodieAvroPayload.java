@@ -45,6 +45,10 @@ public class HoodieAvroPayload implements HoodieRecordPayload<HoodieAvroPayload>
     }
   }
 
+  HoodieAvroPayload(byte[] recordBytes) {
+    this.recordBytes = recordBytes;
+  }
+
   @Override
   public HoodieAvroPayload preCombine(HoodieAvroPayload another) {
     return this;
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Statistics of a column of a base file.
+ *
+ * The minimum and maximum values are kept as strings: the decimal representation of numbers and booleans, the
+ * number of days since epoch for dates, and the value itself for strings. They are null if the column only holds
+ * nulls.
+ */
+public class HoodieColumnRangeMetadata implements Serializable {
+
+  private final String columnName;
+  private final String minValue;
+  private final String maxValue;
+  private final long nullCount;
+  private final long valueCount;
+
+  public HoodieColumnRangeMetadata(String columnName, String minValue, String maxValue, long nullCount, long valueCount) {
+    this.columnName = columnName;
+    this.minValue = minValue;
+    this.maxValue = maxValue;
+    this.nullCount = nullCount;
+    this.valueCount = valueCount;
+  }
+
+  public String getColumnName() {
+    return columnName;
+  }
+
+  public String getMinValue() {
+    return minValue;
+  }
+
+  public String getMaxValue() {
+    return maxValue;
+  }
+
+  public long getNullCount() {
+    return nullCount;
+  }
+
+  public long getValueCount() {
+    return valueCount;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    HoodieColumnRangeMetadata that = (HoodieColumnRangeMetadata) o;
+    return nullCount == that.nullCount
+        && valueCount == that.valueCount
+        && Objects.equals(columnName, that.columnName)
+        && Objects.equals(minValue, that.minValue)
+        && Objects.equals(maxValue, that.maxValue);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(columnName, minValue, maxValue, nullCount, valueCount);
+  }
+
+  @Override
+  public String toString() {
+    return "HoodieColumnRangeMetadata{columnName='" + columnName + "', minValue='" + minValue + "', maxValue='" + maxValue
+        + "', nullCount=" + nullCount + ", valueCount=" + valueCount + '}';
+  }
+}
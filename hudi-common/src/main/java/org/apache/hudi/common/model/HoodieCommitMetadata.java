@@ -290,6 +290,26 @@ public class HoodieCommitMetadata implements Serializable {
     return totalLogFilesSize;
   }
 
+  public Long getTotalPrefetchHits() {
+    Long totalPrefetchHits = 0L;
+    for (Map.Entry<String, List<HoodieWriteStat>> entry : partitionToWriteStats.entrySet()) {
+      for (HoodieWriteStat writeStat : entry.getValue()) {
+        totalPrefetchHits += writeStat.getTotalPrefetchHits();
+      }
+    }
+    return totalPrefetchHits;
+  }
+
+  public Long getTotalPrefetchMisses() {
+    Long totalPrefetchMisses = 0L;
+    for (Map.Entry<String, List<HoodieWriteStat>> entry : partitionToWriteStats.entrySet()) {
+      for (HoodieWriteStat writeStat : entry.getValue()) {
+        totalPrefetchMisses += writeStat.getTotalPrefetchMisses();
+      }
+    }
+    return totalPrefetchMisses;
+  }
+
   public Long getTotalScanTime() {
     Long totalScanTime = 0L;
     for (Map.Entry<String, List<HoodieWriteStat>> entry : partitionToWriteStats.entrySet()) {
@@ -326,6 +346,42 @@ public class HoodieCommitMetadata implements Serializable {
     return totalUpsertTime;
   }
 
+  public Long getTotalEncodeTime() {
+    Long totalEncodeTime = 0L;
+    for (Map.Entry<String, List<HoodieWriteStat>> entry : partitionToWriteStats.entrySet()) {
+      for (HoodieWriteStat writeStat : entry.getValue()) {
+        if (writeStat.getRuntimeStats() != null) {
+          totalEncodeTime += writeStat.getRuntimeStats().getTotalEncodeTime();
+        }
+      }
+    }
+    return totalEncodeTime;
+  }
+
+  public Long getTotalIOBlockedTime() {
+    Long totalIOBlockedTime = 0L;
+    for (Map.Entry<String, List<HoodieWriteStat>> entry : partitionToWriteStats.entrySet()) {
+      for (HoodieWriteStat writeStat : entry.getValue()) {
+        if (writeStat.getRuntimeStats() != null) {
+          totalIOBlockedTime += writeStat.getRuntimeStats().getTotalIOBlockedTime();
+        }
+      }
+    }
+    return totalIOBlockedTime;
+  }
+
+  public Long getTotalIOTime() {
+    Long totalIOTime = 0L;
+    for (Map.Entry<String, List<HoodieWriteStat>> entry : partitionToWriteStats.entrySet()) {
+      for (HoodieWriteStat writeStat : entry.getValue()) {
+        if (writeStat.getRuntimeStats() != null) {
+          totalIOTime += writeStat.getRuntimeStats().getTotalIOTime();
+        }
+      }
+    }
+    return totalIOTime;
+  }
+
   public Pair<Option<Long>, Option<Long>> getMinAndMaxEventTime() {
     long minEventTime = Long.MAX_VALUE;
     long maxEventTime = Long.MIN_VALUE;
@@ -189,6 +189,14 @@ public class HoodieRecord<T extends HoodieRecordPayload> implements Serializable
     this.sealed = false;
   }
 
+  boolean isSealed() {
+    return sealed;
+  }
+
+  boolean isDeflated() {
+    return data == null;
+  }
+
   public void checkState() {
     if (sealed) {
       throw new UnsupportedOperationException("Not allowed to modify after sealed");
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.model;
+
+import org.apache.hudi.common.util.SerializationUtils;
+import org.apache.hudi.common.util.SpillSerializer;
+import org.apache.hudi.exception.HoodieException;
+
+import org.apache.avro.util.Utf8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Schema-aware {@link SpillSerializer} for {@link HoodieRecord}s spilled by the spillable maps.
+ *
+ * <p>The record is written with a fixed layout instead of being walked by Kryo through reflection:
+ * <pre>
+ *   |version|recordKey|partitionPath|flags|currentLocation|newLocation|payloadType|payload|
+ * </pre>
+ * The avro payloads shipped with hudi keep their raw avro bytes, so they are written as-is together with the ordering
+ * value. Any other payload falls back to the generic Kryo serialization.
+ */
+public class HoodieRecordSpillSerializer implements SpillSerializer<HoodieRecord<? extends HoodieRecordPayload>> {
+
+  private static final byte VERSION = 1;
+
+  private static final byte FLAG_SEALED = 1;
+  private static final byte FLAG_CURRENT_LOCATION = 1 << 1;
+  private static final byte FLAG_NEW_LOCATION = 1 << 2;
+  private static final byte FLAG_DATA = 1 << 3;
+
+  private static final byte PAYLOAD_KRYO = 0;
+  private static final byte PAYLOAD_OVERWRITE_WITH_LATEST = 1;
+  private static final byte PAYLOAD_DEFAULT = 2;
+  private static final byte PAYLOAD_OVERWRITE_NON_DEFAULTS = 3;
+  private static final byte PAYLOAD_AVRO = 4;
+  private static final byte PAYLOAD_EMPTY = 5;
+
+  private static final byte ORDERING_KRYO = 0;
+  private static final byte ORDERING_INT = 1;
+  private static final byte ORDERING_LONG = 2;
+  private static final byte ORDERING_STRING = 3;
+  private static final byte ORDERING_UTF8 = 4;
+  private static final byte ORDERING_DOUBLE = 5;
+  private static final byte ORDERING_FLOAT = 6;
+  private static final byte ORDERING_BOOLEAN = 7;
+
+  @Override
+  public byte[] serialize(HoodieRecord<? extends HoodieRecordPayload> record) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream(256);
+    DataOutputStream out = new DataOutputStream(baos);
+    out.writeByte(VERSION);
+    HoodieKey key = record.getKey();
+    writeString(out, key == null ? null : key.getRecordKey());
+    writeString(out, key == null ? null : key.getPartitionPath());
+
+    HoodieRecordLocation currentLocation = record.getCurrentLocation();
+    HoodieRecordLocation newLocation = record.getNewLocation().orElse(null);
+    HoodieRecordPayload data = record.isDeflated() ? null : record.getData();
+    byte flags = 0;
+    flags |= record.isSealed() ? FLAG_SEALED : 0;
+    flags |= currentLocation != null ? FLAG_CURRENT_LOCATION : 0;
+    flags |= newLocation != null ? FLAG_NEW_LOCATION : 0;
+    flags |= data != null ? FLAG_DATA : 0;
+    out.writeByte(flags);
+    if (currentLocation != null) {
+      writeLocation(out, currentLocation);
+    }
+    if (newLocation != null) {
+      writeLocation(out, newLocation);
+    }
+    if (data != null) {
+      writePayload(out, data);
+    }
+    out.flush();
+    return baos.toByteArray();
+  }
+
+  @Override
+  public HoodieRecord<? extends HoodieRecordPayload> deserialize(byte[] bytes) {
+    ByteBuffer in = ByteBuffer.wrap(bytes);
+    byte version = in.get();
+    if (version != VERSION) {
+      throw new HoodieException("Unsupported spilled record version " + version);
+    }
+    String recordKey = readString(in);
+    String partitionPath = readString(in);
+    HoodieKey key = recordKey == null && partitionPath == null ? null : new HoodieKey(recordKey, partitionPath);
+
+    byte flags = in.get();
+    HoodieRecordLocation currentLocation = (flags & FLAG_CURRENT_LOCATION) != 0 ? readLocation(in) : null;
+    HoodieRecordLocation newLocation = (flags & FLAG_NEW_LOCATION) != 0 ? readLocation(in) : null;
+    HoodieRecordPayload data = (flags & FLAG_DATA) != 0 ? readPayload(in) : null;
+
+    HoodieRecord<? extends HoodieRecordPayload> record = new HoodieRecord<>(key, data);
+    if (currentLocation != null) {
+      record.setCurrentLocation(currentLocation);
+    }
+    if (newLocation != null) {
+      record.setNewLocation(newLocation);
+    }
+    if ((flags & FLAG_SEALED) != 0) {
+      record.seal();
+    }
+    return record;
+  }
+
+  private static void writePayload(DataOutputStream out, HoodieRecordPayload data) throws IOException {
+    // match on the exact class, subclasses may carry state of their own
+    Class<?> clazz = data.getClass();
+    if (clazz == OverwriteWithLatestAvroPayload.class) {
+      writeAvroPayload(out, PAYLOAD_OVERWRITE_WITH_LATEST, (BaseAvroPayload) data);
+    } else if (clazz == DefaultHoodieRecordPayload.class && !((DefaultHoodieRecordPayload) data).hasEventTime()) {
+      writeAvroPayload(out, PAYLOAD_DEFAULT, (BaseAvroPayload) data);
+    } else if (clazz == OverwriteNonDefaultsWithLatestAvroPayload.class) {
+      writeAvroPayload(out, PAYLOAD_OVERWRITE_NON_DEFAULTS, (BaseAvroPayload) data);
+    } else if (clazz == HoodieAvroPayload.class) {
+      out.writeByte(PAYLOAD_AVRO);
+      writeBytes(out, ((HoodieAvroPayload) data).getRecordBytes());
+    } else if (clazz == EmptyHoodieRecordPayload.class) {
+      out.writeByte(PAYLOAD_EMPTY);
+    } else {
+      out.writeByte(PAYLOAD_KRYO);
+      writeBytes(out, SerializationUtils.serialize(data));
+    }
+  }
+
+  private static void writeAvroPayload(DataOutputStream out, byte payloadType, BaseAvroPayload payload) throws IOException {
+    out.writeByte(payloadType);
+    writeOrderingVal(out, payload.orderingVal);
+    writeBytes(out, payload.recordBytes);
+  }
+
+  private static HoodieRecordPayload readPayload(ByteBuffer in) {
+    byte payloadType = in.get();
+    switch (payloadType) {
+      case PAYLOAD_OVERWRITE_WITH_LATEST: {
+        Comparable orderingVal = readOrderingVal(in);
+        return new OverwriteWithLatestAvroPayload(readBytes(in), orderingVal);
+      }
+      case PAYLOAD_DEFAULT: {
+        Comparable orderingVal = readOrderingVal(in);
+        return new DefaultHoodieRecordPayload(readBytes(in), orderingVal);
+      }
+      case PAYLOAD_OVERWRITE_NON_DEFAULTS: {
+        Comparable orderingVal = readOrderingVal(in);
+        return new OverwriteNonDefaultsWithLatestAvroPayload(readBytes(in), orderingVal);
+      }
+      case PAYLOAD_AVRO:
+        return new HoodieAvroPayload(readBytes(in));
+      case PAYLOAD_EMPTY:
+        return new EmptyHoodieRecordPayload();
+      case PAYLOAD_KRYO:
+        return SerializationUtils.deserialize(readBytes(in));
+      default:
+        throw new HoodieException("Unknown spilled payload type " + payloadType);
+    }
+  }
+
+  private static void writeOrderingVal(DataOutputStream out, Comparable orderingVal) throws IOException {
+    if (orderingVal instanceof Integer) {
+      out.writeByte(ORDERING_INT);
+      out.writeInt((Integer) orderingVal);
+    } else if (orderingVal instanceof Long) {
+      out.writeByte(ORDERING_LONG);
+      out.writeLong((Long) orderingVal);
+    } else if (orderingVal instanceof String) {
+      out.writeByte(ORDERING_STRING);
+      writeString(out, (String) orderingVal);
+    } else if (orderingVal instanceof Utf8) {
+      out.writeByte(ORDERING_UTF8);
+      writeBytes(out, ((Utf8) orderingVal).getBytes(), ((Utf8) orderingVal).getByteLength());
+    } else if (orderingVal instanceof Double) {
+      out.writeByte(ORDERING_DOUBLE);
+      out.writeDouble((Double) orderingVal);
+    } else if (orderingVal instanceof Float) {
+      out.writeByte(ORDERING_FLOAT);
+      out.writeFloat((Float) orderingVal);
+    } else if (orderingVal instanceof Boolean) {
+      out.writeByte(ORDERING_BOOLEAN);
+      out.writeBoolean((Boolean) orderingVal);
+    } else {
+      out.writeByte(ORDERING_KRYO);
+      writeBytes(out, SerializationUtils.serialize(orderingVal));
+    }
+  }
+
+  private static Comparable readOrderingVal(ByteBuffer in) {
+    byte orderingType = in.get();
+    switch (orderingType) {
+      case ORDERING_INT:
+        return in.getInt();
+      case ORDERING_LONG:
+        return in.getLong();
+      case ORDERING_STRING:
+        return readString(in);
+      case ORDERING_UTF8:
+        return new Utf8(readBytes(in));
+      case ORDERING_DOUBLE:
+        return in.getDouble();
+      case ORDERING_FLOAT:
+        return in.getFloat();
+      case ORDERING_BOOLEAN:
+        return in.get() != 0;
+      case ORDERING_KRYO:
+        return SerializationUtils.deserialize(readBytes(in));
+      default:
+        throw new HoodieException("Unknown spilled ordering value type " + orderingType);
+    }
+  }
+
+  private static void writeLocation(DataOutputStream out, HoodieRecordLocation location) throws IOException {
+    writeString(out, location.getInstantTime());
+    writeString(out, location.getFileId());
+  }
+
+  private static HoodieRecordLocation readLocation(ByteBuffer in) {
+    return new HoodieRecordLocation(readString(in), readString(in));
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+    in.position(in.position() + length);
+    return value;
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    writeBytes(out, bytes, bytes.length);
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes, int length) throws IOException {
+    out.writeInt(length);
+    out.write(bytes, 0, length);
+  }
+
+  private static byte[] readBytes(ByteBuffer in) {
+    byte[] bytes = new byte[in.getInt()];
+    in.get(bytes);
+    return bytes;
+  }
+}
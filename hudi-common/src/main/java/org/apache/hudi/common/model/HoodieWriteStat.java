@@ -138,6 +138,19 @@ public class HoodieWriteStat implements Serializable {
   @Nullable
   private long totalRollbackBlocks;
 
+  /**
+   * Total number of log blocks read ahead by the prefetching log reader of a compaction operation, before they were
+   * asked for.
+   */
+  @Nullable
+  private long totalPrefetchHits;
+
+  /**
+   * Total number of log blocks the compaction operation waited for while prefetching.
+   */
+  @Nullable
+  private long totalPrefetchMisses;
+
   /**
    * File Size as of close.
    */
@@ -291,6 +304,22 @@ public class HoodieWriteStat implements Serializable {
     this.totalLogBlocks = totalLogBlocks;
   }
 
+  public long getTotalPrefetchHits() {
+    return totalPrefetchHits;
+  }
+
+  public void setTotalPrefetchHits(long totalPrefetchHits) {
+    this.totalPrefetchHits = totalPrefetchHits;
+  }
+
+  public long getTotalPrefetchMisses() {
+    return totalPrefetchMisses;
+  }
+
+  public void setTotalPrefetchMisses(long totalPrefetchMisses) {
+    this.totalPrefetchMisses = totalPrefetchMisses;
+  }
+
   public long getTotalCorruptLogBlock() {
     return totalCorruptLogBlock;
   }
@@ -363,7 +392,8 @@ public class HoodieWriteStat implements Serializable {
         + '\'' + ", partitionPath='" + partitionPath + '\'' + ", totalLogRecords=" + totalLogRecords
         + ", totalLogFilesCompacted=" + totalLogFilesCompacted + ", totalLogSizeCompacted=" + totalLogSizeCompacted
         + ", totalUpdatedRecordsCompacted=" + totalUpdatedRecordsCompacted + ", totalLogBlocks=" + totalLogBlocks
-        + ", totalCorruptLogBlock=" + totalCorruptLogBlock + ", totalRollbackBlocks=" + totalRollbackBlocks + '}';
+        + ", totalCorruptLogBlock=" + totalCorruptLogBlock + ", totalRollbackBlocks=" + totalRollbackBlocks
+        + ", totalPrefetchHits=" + totalPrefetchHits + ", totalPrefetchMisses=" + totalPrefetchMisses + '}';
   }
 
   @Override
@@ -413,6 +443,24 @@ public class HoodieWriteStat implements Serializable {
     @Nullable
     private long totalCreateTime;
 
+    /**
+     * Time taken by the writer to encode and compress the records written to a file.
+     */
+    @Nullable
+    private long totalEncodeTime;
+
+    /**
+     * Time the writer was blocked waiting for the writes of a file written in the background.
+     */
+    @Nullable
+    private long totalIOBlockedTime;
+
+    /**
+     * Time taken to write out a file in the background.
+     */
+    @Nullable
+    private long totalIOTime;
+
     @Nullable
     public long getTotalScanTime() {
       return totalScanTime;
@@ -439,5 +487,32 @@ public class HoodieWriteStat implements Serializable {
     public void setTotalCreateTime(@Nullable long totalCreateTime) {
       this.totalCreateTime = totalCreateTime;
     }
+
+    @Nullable
+    public long getTotalEncodeTime() {
+      return totalEncodeTime;
+    }
+
+    public void setTotalEncodeTime(@Nullable long totalEncodeTime) {
+      this.totalEncodeTime = totalEncodeTime;
+    }
+
+    @Nullable
+    public long getTotalIOBlockedTime() {
+      return totalIOBlockedTime;
+    }
+
+    public void setTotalIOBlockedTime(@Nullable long totalIOBlockedTime) {
+      this.totalIOBlockedTime = totalIOBlockedTime;
+    }
+
+    @Nullable
+    public long getTotalIOTime() {
+      return totalIOTime;
+    }
+
+    public void setTotalIOTime(@Nullable long totalIOTime) {
+      this.totalIOTime = totalIOTime;
+    }
   }
 }
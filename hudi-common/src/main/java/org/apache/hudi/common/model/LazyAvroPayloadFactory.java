@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.model;
+
+import org.apache.hudi.exception.HoodieException;
+
+/**
+ * Creates the avro payloads shipped with hudi straight from the binary avro encoding of a record.
+ *
+ * <p>These payloads only keep the encoded record and decode it once it is merged or projected, so a record read from
+ * a log block can be handed over without being decoded into a {@link org.apache.avro.generic.GenericRecord} and
+ * encoded again. The payloads are created the same way as through their {@code Option<GenericRecord>} constructor,
+ * with the natural ordering value.
+ */
+public final class LazyAvroPayloadFactory {
+
+  private LazyAvroPayloadFactory() {
+  }
+
+  /**
+   * Whether payloads of the given class can be created from the binary avro encoding of a record.
+   */
+  public static boolean isSupported(String payloadClass) {
+    return OverwriteWithLatestAvroPayload.class.getName().equals(payloadClass)
+        || DefaultHoodieRecordPayload.class.getName().equals(payloadClass)
+        || OverwriteNonDefaultsWithLatestAvroPayload.class.getName().equals(payloadClass)
+        || HoodieAvroPayload.class.getName().equals(payloadClass);
+  }
+
+  /**
+   * Creates a payload of the given class around the binary avro encoding of a record.
+   *
+   * @param payloadClass Payload class, one of the classes accepted by {@link #isSupported(String)}.
+   * @param recordBytes  Record encoded with the schema the payload is read with.
+   */
+  public static HoodieRecordPayload create(String payloadClass, byte[] recordBytes) {
+    if (OverwriteWithLatestAvroPayload.class.getName().equals(payloadClass)) {
+      return new OverwriteWithLatestAvroPayload(recordBytes, 0);
+    } else if (DefaultHoodieRecordPayload.class.getName().equals(payloadClass)) {
+      return new DefaultHoodieRecordPayload(recordBytes, 0);
+    } else if (OverwriteNonDefaultsWithLatestAvroPayload.class.getName().equals(payloadClass)) {
+      return new OverwriteNonDefaultsWithLatestAvroPayload(recordBytes, 0);
+    } else if (HoodieAvroPayload.class.getName().equals(payloadClass)) {
+      return new HoodieAvroPayload(recordBytes);
+    }
+    throw new HoodieException("Payload class " + payloadClass + " can not be created from avro bytes");
+  }
+}
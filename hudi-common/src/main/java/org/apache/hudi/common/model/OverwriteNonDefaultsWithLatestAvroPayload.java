@@ -46,6 +46,10 @@ public class OverwriteNonDefaultsWithLatestAvroPayload extends OverwriteWithLate
     super(record); // natural order
   }
 
+  OverwriteNonDefaultsWithLatestAvroPayload(byte[] recordBytes, Comparable orderingVal) {
+    super(recordBytes, orderingVal);
+  }
+
   @Override
   public Option<IndexedRecord> combineAndGetUpdateValue(IndexedRecord currentValue, Schema schema) throws IOException {
 
@@ -46,6 +46,10 @@ public class OverwriteWithLatestAvroPayload extends BaseAvroPayload
     this(record.isPresent() ? record.get() : null, 0); // natural order
   }
 
+  OverwriteWithLatestAvroPayload(byte[] recordBytes, Comparable orderingVal) {
+    super(recordBytes, orderingVal);
+  }
+
   @Override
   public OverwriteWithLatestAvroPayload preCombine(OverwriteWithLatestAvroPayload another) {
     // pick the payload with greatest ordering value
@@ -19,14 +19,19 @@
 package org.apache.hudi.common.table.log;
 
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hudi.avro.HoodieAvroUtils;
 import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieLogFile;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.model.LazyAvroPayloadFactory;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
 import org.apache.hudi.common.table.log.block.HoodieAvroDataBlock;
 import org.apache.hudi.common.table.log.block.HoodieCommandBlock;
@@ -34,6 +39,7 @@ import org.apache.hudi.common.table.log.block.HoodieDataBlock;
 import org.apache.hudi.common.table.log.block.HoodieDeleteBlock;
 import org.apache.hudi.common.table.log.block.HoodieHFileDataBlock;
 import org.apache.hudi.common.table.log.block.HoodieLogBlock;
+import org.apache.hudi.common.table.log.block.HoodieParquetDataBlock;
 import org.apache.hudi.common.table.timeline.HoodieTimeline;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.SpillableMapUtils;
@@ -43,6 +49,7 @@ import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Deque;
@@ -53,6 +60,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static org.apache.hudi.common.table.log.block.HoodieLogBlock.HeaderMetadataType.INSTANT_TIME;
+import static org.apache.hudi.common.table.log.block.HoodieLogBlock.HeaderMetadataType.SCHEMA;
 import static org.apache.hudi.common.table.log.block.HoodieLogBlock.HoodieLogBlockType.COMMAND_BLOCK;
 import static org.apache.hudi.common.table.log.block.HoodieLogBlock.HoodieLogBlockType.CORRUPT_BLOCK;
 
@@ -67,11 +75,16 @@ import static org.apache.hudi.common.table.log.block.HoodieLogBlock.HoodieLogBlo
  * Block N Metadata | | Read Block N Data |
  * <p>
  * This results in two I/O passes over the log file.
+ * <p>
+ * If prefetching is turned on (and readBlockLazily is not), log files are read and their blocks decoded on a bounded
+ * pool of threads ahead of the merge, see {@link HoodiePrefetchingLogFormatReader}.
  */
 public abstract class AbstractHoodieLogRecordScanner {
 
   private static final Logger LOG = LogManager.getLogger(AbstractHoodieLogRecordScanner.class);
 
+  public static final int DEFAULT_PREFETCH_QUEUE_SIZE = 2;
+
   // Reader schema for the records
   protected final Schema readerSchema;
   // Latest valid instant time
@@ -80,15 +93,18 @@ public abstract class AbstractHoodieLogRecordScanner {
   private final HoodieTableMetaClient hoodieTableMetaClient;
   // Merge strategy to use when combining records from log
   private final String payloadClassFQN;
+  // Whether the payload can be created from the binary encoding of avro records, see LazyAvroPayloadFactory
+  private final boolean lazyAvroPayload;
   // Log File Paths
   protected final List<String> logFilePaths;
   // Read Lazily flag
   private final boolean readBlocksLazily;
-  // Reverse reader - Not implemented yet (NA -> Why do we need ?)
-  // but present here for plumbing for future implementation
-  private final boolean reverseReader;
   // Buffer Size for log file reader
   private final int bufferSize;
+  // Number of threads prefetching log blocks, prefetching is disabled if zero
+  private final int prefetchThreads;
+  // Max number of blocks prefetched ahead of the merge, per log file
+  private final int prefetchQueueSize;
   // optional instant range for incremental block filtering
   private final Option<InstantRange> instantRange;
   // FileSystem
@@ -103,6 +119,10 @@ public abstract class AbstractHoodieLogRecordScanner {
   private AtomicLong totalRollbacks = new AtomicLong(0);
   // Total number of corrupt blocks written across all log files
   private AtomicLong totalCorruptBlocks = new AtomicLong(0);
+  // Total prefetched log blocks which were ready when the merge asked for them - for metrics
+  private AtomicLong totalPrefetchHits = new AtomicLong(0);
+  // Total prefetched log blocks the merge had to wait for - for metrics
+  private AtomicLong totalPrefetchMisses = new AtomicLong(0);
   // Store the last instant log blocks (needed to implement rollback)
   private Deque<HoodieLogBlock> currentInstantLogBlocks = new ArrayDeque<>();
   // Progress
@@ -110,33 +130,53 @@ public abstract class AbstractHoodieLogRecordScanner {
 
   protected AbstractHoodieLogRecordScanner(FileSystem fs, String basePath, List<String> logFilePaths, Schema readerSchema,
       String latestInstantTime, boolean readBlocksLazily, boolean reverseReader, int bufferSize, Option<InstantRange> instantRange) {
+    this(fs, basePath, logFilePaths, readerSchema, latestInstantTime, readBlocksLazily, reverseReader, bufferSize, instantRange, 0,
+        DEFAULT_PREFETCH_QUEUE_SIZE);
+  }
+
+  protected AbstractHoodieLogRecordScanner(FileSystem fs, String basePath, List<String> logFilePaths, Schema readerSchema,
+      String latestInstantTime, boolean readBlocksLazily, boolean reverseReader, int bufferSize, Option<InstantRange> instantRange,
+      int prefetchThreads, int prefetchQueueSize) {
     this.readerSchema = readerSchema;
     this.latestInstantTime = latestInstantTime;
     this.hoodieTableMetaClient = HoodieTableMetaClient.builder().setConf(fs.getConf()).setBasePath(basePath).build();
     // load class from the payload fully qualified class name
     this.payloadClassFQN = this.hoodieTableMetaClient.getTableConfig().getPayloadClass();
+    this.lazyAvroPayload = LazyAvroPayloadFactory.isSupported(payloadClassFQN);
     this.totalLogFiles.addAndGet(logFilePaths.size());
     this.logFilePaths = logFilePaths;
     this.readBlocksLazily = readBlocksLazily;
-    this.reverseReader = reverseReader;
+    // reverseReader is not kept: full scans always read the log forward, see scan(), and key lookups always read it
+    // in reverse, see scanInReverse()
     this.fs = fs;
     this.bufferSize = bufferSize;
     this.instantRange = instantRange;
+    this.prefetchThreads = prefetchThreads;
+    this.prefetchQueueSize = prefetchQueueSize;
   }
 
   /**
    * Scan Log files.
    */
   public void scan() {
-    HoodieLogFormatReader logFormatReaderWrapper = null;
+    HoodieLogFormat.Reader logFormatReaderWrapper = null;
     HoodieTimeline commitsTimeline = this.hoodieTableMetaClient.getCommitsTimeline();
     HoodieTimeline completedInstantsTimeline = commitsTimeline.filterCompletedInstants();
     HoodieTimeline inflightInstantsTimeline = commitsTimeline.filterInflights();
     try {
       // iterate over the paths
-      logFormatReaderWrapper = new HoodieLogFormatReader(fs,
-          logFilePaths.stream().map(logFile -> new HoodieLogFile(new Path(logFile))).collect(Collectors.toList()),
-          readerSchema, readBlocksLazily, reverseReader, bufferSize);
+      List<HoodieLogFile> logFiles =
+          logFilePaths.stream().map(logFile -> new HoodieLogFile(new Path(logFile))).collect(Collectors.toList());
+      // A full scan reads the log forward whatever the reverse reader config: payloads are merged in log order, as
+      // preCombine is only meant to combine a record with the ones written before it, and a rollback command block
+      // applies to the blocks read before it. Reading newest first only pays off for key lookups, which can stop early.
+      if (prefetchThreads > 0 && !readBlocksLazily) {
+        // only decode the blocks which are going to be merged
+        logFormatReaderWrapper = new HoodiePrefetchingLogFormatReader(fs, logFiles, readerSchema, bufferSize,
+            prefetchThreads, prefetchQueueSize, block -> isBlockToMerge(block, completedInstantsTimeline, inflightInstantsTimeline));
+      } else {
+        logFormatReaderWrapper = new HoodieLogFormatReader(fs, logFiles, readerSchema, readBlocksLazily, false, bufferSize);
+      }
       Set<HoodieLogFile> scannedLogFiles = new HashSet<>();
       while (logFormatReaderWrapper.hasNext()) {
         HoodieLogFile logFile = logFormatReaderWrapper.getLogFile();
@@ -167,6 +207,7 @@ public abstract class AbstractHoodieLogRecordScanner {
         switch (r.getBlockType()) {
           case HFILE_DATA_BLOCK:
           case AVRO_DATA_BLOCK:
+          case PARQUET_DATA_BLOCK:
             LOG.info("Reading a data block from file " + logFile.getPath() + " at instant "
                 + r.getLogBlockHeader().get(INSTANT_TIME));
             if (isNewInstantBlock(r) && !readBlocksLazily) {
@@ -267,6 +308,101 @@ public abstract class AbstractHoodieLogRecordScanner {
     } catch (Exception e) {
       LOG.error("Got exception when reading log file", e);
       throw new HoodieException("Exception when reading log file ", e);
+    } finally {
+      try {
+        if (null != logFormatReaderWrapper) {
+          logFormatReaderWrapper.close();
+          if (logFormatReaderWrapper instanceof HoodiePrefetchingLogFormatReader) {
+            HoodiePrefetchingLogFormatReader prefetchingReader = (HoodiePrefetchingLogFormatReader) logFormatReaderWrapper;
+            totalPrefetchHits.addAndGet(prefetchingReader.getPrefetchHits());
+            totalPrefetchMisses.addAndGet(prefetchingReader.getPrefetchMisses());
+          }
+        }
+      } catch (IOException ioe) {
+        // Eat exception as we do not want to mask the original exception that can happen
+        LOG.error("Unable to close log format reader", ioe);
+      }
+    }
+  }
+
+  /**
+   * Scans the log files newest block first, handing the records and deleted keys of {@code keys} found in the valid
+   * blocks over to {@code processor}, newest first as well. The scan stops as soon as the processor has resolved every
+   * key, so looking up a few keys only reads the tail of a long log.
+   *
+   * <p>Blocks are expected to be appended in the order of their instants, so blocks of instants after the latest instant
+   * are skipped rather than ending the scan. As in {@link #scan()}, a rollback command block rolls back the blocks of
+   * its target instant right before it.
+   */
+  protected void scanInReverse(Set<String> keys, ReverseRecordProcessor processor) {
+    Set<String> unresolvedKeys = new HashSet<>(keys);
+    HoodieLogFormatReader logFormatReaderWrapper = null;
+    HoodieTimeline commitsTimeline = this.hoodieTableMetaClient.getCommitsTimeline();
+    HoodieTimeline completedInstantsTimeline = commitsTimeline.filterCompletedInstants();
+    HoodieTimeline inflightInstantsTimeline = commitsTimeline.filterInflights();
+    // Target instants of the rollback command blocks read, the latest one on top
+    Deque<String> rollbackTargetInstants = new ArrayDeque<>();
+    try {
+      List<HoodieLogFile> logFiles =
+          logFilePaths.stream().map(logFile -> new HoodieLogFile(new Path(logFile))).collect(Collectors.toList());
+      logFormatReaderWrapper = new HoodieLogFormatReader(fs, logFiles, readerSchema, readBlocksLazily, true, bufferSize);
+      Set<HoodieLogFile> scannedLogFiles = new HashSet<>();
+      while (!unresolvedKeys.isEmpty() && logFormatReaderWrapper.hasPrev()) {
+        HoodieLogFile logFile = logFormatReaderWrapper.getLogFile();
+        scannedLogFiles.add(logFile);
+        totalLogFiles.set(scannedLogFiles.size());
+        HoodieLogBlock r = logFormatReaderWrapper.prev();
+        totalLogBlocks.incrementAndGet();
+        switch (r.getBlockType()) {
+          case COMMAND_BLOCK:
+            HoodieCommandBlock commandBlock = (HoodieCommandBlock) r;
+            if (commandBlock.getType() != HoodieCommandBlock.HoodieCommandBlockTypeEnum.ROLLBACK_PREVIOUS_BLOCK) {
+              throw new UnsupportedOperationException("Command type not yet supported.");
+            }
+            LOG.info("Reading a command block from file " + logFile.getPath());
+            totalRollbacks.incrementAndGet();
+            rollbackTargetInstants.push(r.getLogBlockHeader().get(HoodieLogBlock.HeaderMetadataType.TARGET_INSTANT_TIME));
+            break;
+          case CORRUPT_BLOCK:
+            // corrupt blocks are never merged, whether rolled back or not
+            LOG.info("Found a corrupt block in " + logFile.getPath());
+            totalCorruptBlocks.incrementAndGet();
+            break;
+          case HFILE_DATA_BLOCK:
+          case AVRO_DATA_BLOCK:
+          case PARQUET_DATA_BLOCK:
+            if (isBlockToMerge(r, completedInstantsTimeline, inflightInstantsTimeline)
+                && !isRolledBack(r, rollbackTargetInstants)) {
+              LOG.info("Reading a data block from file " + logFile.getPath() + " at instant "
+                  + r.getLogBlockHeader().get(INSTANT_TIME));
+              processDataBlockInReverse((HoodieDataBlock) r, unresolvedKeys, processor);
+            }
+            break;
+          case DELETE_BLOCK:
+            if (isBlockToMerge(r, completedInstantsTimeline, inflightInstantsTimeline)
+                && !isRolledBack(r, rollbackTargetInstants)) {
+              LOG.info("Reading a delete block from file " + logFile.getPath());
+              HoodieKey[] keysToDelete = ((HoodieDeleteBlock) r).getKeysToDelete();
+              for (int i = keysToDelete.length - 1; i >= 0 && !unresolvedKeys.isEmpty(); i--) {
+                String recordKey = keysToDelete[i].getRecordKey();
+                if (unresolvedKeys.contains(recordKey) && processor.processPreviousDeletedKey(keysToDelete[i])) {
+                  unresolvedKeys.remove(recordKey);
+                }
+              }
+            }
+            break;
+          default:
+            throw new UnsupportedOperationException("Block type not supported yet");
+        }
+      }
+      LOG.info("Number of keys left unresolved after reading the log in reverse " + unresolvedKeys.size());
+      progress = 1.0f;
+    } catch (IOException e) {
+      LOG.error("Got IOException when reading log file in reverse", e);
+      throw new HoodieIOException("IOException when reading log file in reverse ", e);
+    } catch (Exception e) {
+      LOG.error("Got exception when reading log file in reverse", e);
+      throw new HoodieException("Exception when reading log file in reverse ", e);
     } finally {
       try {
         if (null != logFormatReaderWrapper) {
@@ -279,6 +415,74 @@ public abstract class AbstractHoodieLogRecordScanner {
     }
   }
 
+  /**
+   * Checks if a block read in reverse is rolled back by the rollback command blocks read after it. A rollback only
+   * applies to the blocks of its target instant written right before it, so it is dropped once a block of another
+   * instant is reached.
+   */
+  private boolean isRolledBack(HoodieLogBlock logBlock, Deque<String> rollbackTargetInstants) {
+    String instantTime = logBlock.getLogBlockHeader().get(INSTANT_TIME);
+    while (!rollbackTargetInstants.isEmpty()) {
+      if (rollbackTargetInstants.peek().contentEquals(instantTime)) {
+        return true;
+      }
+      rollbackTargetInstants.pop();
+    }
+    return false;
+  }
+
+  /**
+   * Hands the records of the unresolved keys in the data block over to the processor, the last one first.
+   */
+  private void processDataBlockInReverse(HoodieDataBlock dataBlock, Set<String> unresolvedKeys,
+      ReverseRecordProcessor processor) throws Exception {
+    if (isLazilyDecodable(dataBlock)) {
+      processAvroDataBlockInReverseLazily((HoodieAvroDataBlock) dataBlock, unresolvedKeys, processor);
+      return;
+    }
+    List<IndexedRecord> recs = dataBlock.getRecords();
+    totalLogRecords.addAndGet(recs.size());
+    for (int i = recs.size() - 1; i >= 0 && !unresolvedKeys.isEmpty(); i--) {
+      String recordKey = ((GenericRecord) recs.get(i)).get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString();
+      if (unresolvedKeys.contains(recordKey) && processor.processPreviousRecord(createHoodieRecord(recs.get(i)))) {
+        unresolvedKeys.remove(recordKey);
+      }
+    }
+  }
+
+  /**
+   * Hands the records of the unresolved keys in the avro data block over to the processor, the last one first. Only
+   * the hoodie key of the other records is decoded.
+   */
+  private void processAvroDataBlockInReverseLazily(HoodieAvroDataBlock dataBlock, Set<String> unresolvedKeys,
+      ReverseRecordProcessor processor) throws Exception {
+    RecordKeyDecoder keyDecoder = new RecordKeyDecoder();
+    List<ByteBuffer> recs = dataBlock.getRecordBytes();
+    totalLogRecords.addAndGet(recs.size());
+    for (int i = recs.size() - 1; i >= 0 && !unresolvedKeys.isEmpty(); i--) {
+      HoodieKey key = keyDecoder.decode(recs.get(i));
+      if (unresolvedKeys.contains(key.getRecordKey())
+          && processor.processPreviousRecord(createLazyHoodieRecord(key, recs.get(i)))) {
+        unresolvedKeys.remove(key.getRecordKey());
+      }
+    }
+  }
+
+  /**
+   * Checks if the log block is a data or delete block of a committed instant within range, which is to be merged.
+   */
+  private boolean isBlockToMerge(HoodieLogBlock logBlock, HoodieTimeline completedInstantsTimeline,
+      HoodieTimeline inflightInstantsTimeline) {
+    if (logBlock.getBlockType() == CORRUPT_BLOCK || logBlock.getBlockType() == COMMAND_BLOCK) {
+      return false;
+    }
+    String instantTime = logBlock.getLogBlockHeader().get(INSTANT_TIME);
+    return HoodieTimeline.compareTimestamps(instantTime, HoodieTimeline.LESSER_THAN_OR_EQUALS, latestInstantTime)
+        && completedInstantsTimeline.containsOrBeforeTimelineStarts(instantTime)
+        && !inflightInstantsTimeline.containsInstant(instantTime)
+        && (!instantRange.isPresent() || instantRange.get().isInRange(instantTime));
+  }
+
   /**
    * Checks if the current logblock belongs to a later instant.
    */
@@ -293,6 +497,10 @@ public abstract class AbstractHoodieLogRecordScanner {
    * handle it.
    */
   private void processDataBlock(HoodieDataBlock dataBlock) throws Exception {
+    if (isLazilyDecodable(dataBlock)) {
+      processAvroDataBlockLazily((HoodieAvroDataBlock) dataBlock);
+      return;
+    }
     // TODO (NA) - Implement getRecordItr() in HoodieAvroDataBlock and use that here
     List<IndexedRecord> recs = dataBlock.getRecords();
     totalLogRecords.addAndGet(recs.size());
@@ -305,6 +513,56 @@ public abstract class AbstractHoodieLogRecordScanner {
     return SpillableMapUtils.convertToHoodieRecordPayload((GenericRecord) rec, this.payloadClassFQN);
   }
 
+  /**
+   * Records of avro data blocks that were written with the reader schema can be handed over in their binary encoding,
+   * if the payload keeps the encoding as is. They are only decoded once merged or projected.
+   */
+  private boolean isLazilyDecodable(HoodieDataBlock dataBlock) {
+    return lazyAvroPayload && dataBlock instanceof HoodieAvroDataBlock && !dataBlock.hasRecords()
+        && readerSchema != null && readerSchema.equals(new Schema.Parser().parse(dataBlock.getLogBlockHeader().get(SCHEMA)));
+  }
+
+  /**
+   * Iterate over the encoded records in the block, decoding only the hoodie key and partition path of each.
+   */
+  private void processAvroDataBlockLazily(HoodieAvroDataBlock dataBlock) throws Exception {
+    RecordKeyDecoder keyDecoder = new RecordKeyDecoder();
+    List<ByteBuffer> recs = dataBlock.getRecordBytes();
+    totalLogRecords.addAndGet(recs.size());
+    for (ByteBuffer recordBytes : recs) {
+      processNextRecord(createLazyHoodieRecord(keyDecoder.decode(recordBytes), recordBytes));
+    }
+  }
+
+  /**
+   * Creates a record around the binary encoding of a record of the block. The payload outlives the block, so it gets
+   * its own copy of the record bytes.
+   */
+  private HoodieRecord<?> createLazyHoodieRecord(HoodieKey key, ByteBuffer recordBytes) {
+    byte[] bytes = new byte[recordBytes.remaining()];
+    recordBytes.duplicate().get(bytes);
+    return new HoodieRecord<>(key, LazyAvroPayloadFactory.create(payloadClassFQN, bytes));
+  }
+
+  /**
+   * Decodes the hoodie key and partition path of records in their binary encoding with the reader schema.
+   */
+  private class RecordKeyDecoder {
+    private final GenericDatumReader<GenericRecord> keyReader = new GenericDatumReader<>(readerSchema,
+        HoodieAvroUtils.generateProjectionSchema(readerSchema,
+            Arrays.asList(HoodieRecord.RECORD_KEY_METADATA_FIELD, HoodieRecord.PARTITION_PATH_METADATA_FIELD)));
+    private BinaryDecoder decoder;
+    private GenericRecord keyRecord;
+
+    private HoodieKey decode(ByteBuffer recordBytes) throws IOException {
+      decoder = DecoderFactory.get().binaryDecoder(recordBytes.array(), recordBytes.arrayOffset() + recordBytes.position(),
+          recordBytes.remaining(), decoder);
+      keyRecord = keyReader.read(keyRecord, decoder);
+      return new HoodieKey(keyRecord.get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString(),
+          keyRecord.get(HoodieRecord.PARTITION_PATH_METADATA_FIELD).toString());
+    }
+  }
+
   /**
    * Process next record.
    *
@@ -334,6 +592,9 @@ public abstract class AbstractHoodieLogRecordScanner {
         case HFILE_DATA_BLOCK:
           processDataBlock((HoodieHFileDataBlock) lastBlock);
           break;
+        case PARQUET_DATA_BLOCK:
+          processDataBlock((HoodieParquetDataBlock) lastBlock);
+          break;
         case DELETE_BLOCK:
           Arrays.stream(((HoodieDeleteBlock) lastBlock).getKeysToDelete()).forEach(this::processNextDeletedKey);
           break;
@@ -379,6 +640,36 @@ public abstract class AbstractHoodieLogRecordScanner {
     return totalCorruptBlocks.get();
   }
 
+  public long getTotalPrefetchHits() {
+    return totalPrefetchHits.get();
+  }
+
+  public long getTotalPrefetchMisses() {
+    return totalPrefetchMisses.get();
+  }
+
+  /**
+   * Processes the records and deleted keys read by {@link #scanInReverse}, newest first.
+   */
+  protected interface ReverseRecordProcessor {
+
+    /**
+     * Process the previous record of a key, older than the ones of the key processed before.
+     *
+     * @param hoodieRecord Hoodie Record to process
+     * @return whether the key is resolved, so its older records are not needed
+     */
+    boolean processPreviousRecord(HoodieRecord<? extends HoodieRecordPayload> hoodieRecord) throws Exception;
+
+    /**
+     * Process the previous delete of a key, older than the records of the key processed before.
+     *
+     * @param key Deleted record key
+     * @return whether the key is resolved, so its older records are not needed
+     */
+    boolean processPreviousDeletedKey(HoodieKey key);
+  }
+
   /**
    * Builder used to build {@code AbstractHoodieLogRecordScanner}.
    */
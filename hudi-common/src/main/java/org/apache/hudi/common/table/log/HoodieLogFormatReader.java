@@ -20,6 +20,7 @@ package org.apache.hudi.common.table.log;
 
 import org.apache.hudi.common.model.HoodieLogFile;
 import org.apache.hudi.common.table.log.block.HoodieLogBlock;
+import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.exception.HoodieIOException;
 
 import org.apache.avro.Schema;
@@ -28,11 +29,19 @@ import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * Hoodie log format reader.
+ *
+ * <p>If the reverse log reader is enabled, {@link #hasPrev()} and {@link #prev()} iterate over the blocks of all the
+ * log files newest first, starting from the last block of the last log file and following the block size written
+ * after every block. A log file whose blocks cannot be traversed that way, e.g. because of a partially written block,
+ * is read forward instead and its remaining blocks are returned in reverse.
  */
 public class HoodieLogFormatReader implements HoodieLogFormat.Reader {
 
@@ -45,6 +54,12 @@ public class HoodieLogFormatReader implements HoodieLogFormat.Reader {
   private final boolean readBlocksLazily;
   private final boolean reverseLogReader;
   private int bufferSize;
+  // Block to be returned by the next call to prev()
+  private HoodieLogBlock prevBlock;
+  // Number of blocks returned in reverse from the current log file
+  private int numPrevBlocksRead = 0;
+  // Remaining blocks of the current log file, if it had to be read forward
+  private Deque<HoodieLogBlock> forwardReadBlocks;
 
   private static final Logger LOG = LogManager.getLogger(HoodieLogFormatReader.class);
 
@@ -58,8 +73,9 @@ public class HoodieLogFormatReader implements HoodieLogFormat.Reader {
     this.bufferSize = bufferSize;
     this.prevReadersInOpenState = new ArrayList<>();
     if (logFiles.size() > 0) {
-      HoodieLogFile nextLogFile = logFiles.remove(0);
-      this.currentReader = new HoodieLogFileReader(fs, nextLogFile, readerSchema, bufferSize, readBlocksLazily, false);
+      HoodieLogFile nextLogFile = logFiles.remove(reverseLogReader ? logFiles.size() - 1 : 0);
+      this.currentReader =
+          new HoodieLogFileReader(fs, nextLogFile, readerSchema, bufferSize, readBlocksLazily, reverseLogReader);
     }
   }
 
@@ -122,14 +138,102 @@ public class HoodieLogFormatReader implements HoodieLogFormat.Reader {
   @Override
   public void remove() {}
 
+  /**
+   * Unlike {@link HoodieLogFileReader#hasPrev()}, this is idempotent, and moves on to the previous log file once the
+   * current one has no more blocks.
+   */
   @Override
   public boolean hasPrev() {
-    return this.currentReader.hasPrev();
+    if (!reverseLogReader) {
+      return this.currentReader.hasPrev();
+    }
+    if (prevBlock != null) {
+      return true;
+    }
+    while (currentReader != null) {
+      if (forwardReadBlocks != null) {
+        prevBlock = forwardReadBlocks.pollLast();
+      } else if (currentReader.hasPrev()) {
+        try {
+          prevBlock = currentReader.prev();
+        } catch (IOException | HoodieException e) {
+          // the block size read is not the one of a valid block
+          LOG.warn("Unable to read log file " + currentReader.getLogFile() + " in reverse, reading it forward", e);
+          readForward();
+          continue;
+        }
+      }
+      if (prevBlock != null) {
+        numPrevBlocksRead++;
+        return true;
+      }
+      moveToPrevLogFile();
+    }
+    return false;
   }
 
   @Override
   public HoodieLogBlock prev() throws IOException {
-    return this.currentReader.prev();
+    if (!reverseLogReader) {
+      return this.currentReader.prev();
+    }
+    if (!hasPrev()) {
+      throw new NoSuchElementException("No more log blocks to read in reverse");
+    }
+    HoodieLogBlock block = prevBlock;
+    prevBlock = null;
+    return block;
+  }
+
+  /**
+   * Reads all the blocks of the current log file forward, leaving out the ones already returned in reverse.
+   */
+  private void readForward() {
+    try {
+      HoodieLogFileReader forwardReader =
+          new HoodieLogFileReader(fs, currentReader.getLogFile(), readerSchema, bufferSize, readBlocksLazily, false);
+      Deque<HoodieLogBlock> blocks = new ArrayDeque<>();
+      while (forwardReader.hasNext()) {
+        blocks.addLast(forwardReader.next());
+      }
+      for (int i = 0; i < numPrevBlocksRead && !blocks.isEmpty(); i++) {
+        blocks.pollLast();
+      }
+      closeOrKeepOpen(currentReader);
+      this.currentReader = forwardReader;
+      this.forwardReadBlocks = blocks;
+    } catch (IOException io) {
+      throw new HoodieIOException("unable to read log file forward " + currentReader.getLogFile(), io);
+    }
+  }
+
+  private void moveToPrevLogFile() {
+    closeOrKeepOpen(currentReader);
+    this.currentReader = null;
+    this.forwardReadBlocks = null;
+    this.numPrevBlocksRead = 0;
+    if (logFiles.size() > 0) {
+      try {
+        HoodieLogFile prevLogFile = logFiles.remove(logFiles.size() - 1);
+        this.currentReader = new HoodieLogFileReader(fs, prevLogFile, readerSchema, bufferSize, readBlocksLazily, true);
+      } catch (IOException io) {
+        throw new HoodieIOException("unable to initialize reverse read with log file ", io);
+      }
+      LOG.info("Moving to the previous reader for logfile " + currentReader.getLogFile());
+    }
+  }
+
+  private void closeOrKeepOpen(HoodieLogFileReader reader) {
+    // the content of lazily read blocks is read from the reader later on
+    if (readBlocksLazily) {
+      this.prevReadersInOpenState.add(reader);
+      return;
+    }
+    try {
+      reader.close();
+    } catch (IOException io) {
+      throw new HoodieIOException("unable to close log file reader " + reader.getLogFile(), io);
+    }
   }
 
 }
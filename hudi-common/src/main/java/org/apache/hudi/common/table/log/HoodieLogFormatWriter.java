@@ -37,6 +37,7 @@ import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 
@@ -161,12 +162,13 @@ public class HoodieLogFormatWriter implements HoodieLogFormat.Writer {
       // bytes for header
       byte[] headerBytes = HoodieLogBlock.getLogMetadataBytes(block.getLogBlockHeader());
       // content bytes
-      byte[] content = block.getContentBytes();
+      ByteBuffer content = block.getContentBuffer();
+      int contentLength = content.remaining();
       // bytes for footer
       byte[] footerBytes = HoodieLogBlock.getLogMetadataBytes(block.getLogBlockFooter());
 
       // 2. Write the total size of the block (excluding Magic)
-      outputStream.writeLong(getLogBlockLength(content.length, headerBytes.length, footerBytes.length));
+      outputStream.writeLong(getLogBlockLength(contentLength, headerBytes.length, footerBytes.length));
 
       // 3. Write the version of this log block
       outputStream.writeInt(currentLogFormatVersion.getVersion());
@@ -176,9 +178,9 @@ public class HoodieLogFormatWriter implements HoodieLogFormat.Writer {
       // 5. Write the headers for the log block
       outputStream.write(headerBytes);
       // 6. Write the size of the content block
-      outputStream.writeLong(content.length);
+      outputStream.writeLong(contentLength);
       // 7. Write the contents of the data block
-      outputStream.write(content);
+      outputStream.write(content.array(), content.arrayOffset() + content.position(), contentLength);
       // 8. Write the footers for the log block
       outputStream.write(footerBytes);
       // 9. Write the total size of the log block (including magic) which is everything written
@@ -18,13 +18,19 @@
 
 package org.apache.hudi.common.table.log;
 
+import org.apache.hudi.common.model.DefaultHoodieRecordPayload;
+import org.apache.hudi.common.model.HoodieAvroPayload;
 import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.model.OverwriteNonDefaultsWithLatestAvroPayload;
+import org.apache.hudi.common.model.OverwriteWithLatestAvroPayload;
 import org.apache.hudi.common.util.DefaultSizeEstimator;
+import org.apache.hudi.common.util.DefaultSpillSerializer;
 import org.apache.hudi.common.util.HoodieRecordSizeEstimator;
 import org.apache.hudi.common.util.HoodieTimer;
 import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.SpillSerializer;
 import org.apache.hudi.common.util.SpillableMapUtils;
 import org.apache.hudi.common.util.collection.ExternalSpillableMap;
 import org.apache.hudi.exception.HoodieIOException;
@@ -35,6 +41,11 @@ import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +61,9 @@ import java.util.Map;
  * Block N Metadata | | Read Block N Data |
  * <p>
  * This results in two I/O passes over the log file.
+ * <p>
+ * Records of a few keys can be looked up without a full scan with {@link #getRecordsByKeys(Collection)}, which reads
+ * the log newest block first.
  */
 
 public class HoodieMergedLogRecordScanner extends AbstractHoodieLogRecordScanner
@@ -63,6 +77,8 @@ public class HoodieMergedLogRecordScanner extends AbstractHoodieLogRecordScanner
   // count of merged records in log
   private long numMergedRecordsInLog;
   private long maxMemorySizeInBytes;
+  // Whether the newest record of a key supersedes its older ones, so key lookups can stop at it
+  private final boolean newestRecordWins;
 
   // Stores the total time taken to perform reading and merging of log blocks
   private long totalTimeTakenToReadAndMergeBlocks;
@@ -73,12 +89,17 @@ public class HoodieMergedLogRecordScanner extends AbstractHoodieLogRecordScanner
   protected HoodieMergedLogRecordScanner(FileSystem fs, String basePath, List<String> logFilePaths, Schema readerSchema,
                                       String latestInstantTime, Long maxMemorySizeInBytes, boolean readBlocksLazily,
                                       boolean reverseReader, int bufferSize, String spillableMapBasePath,
-                                      Option<InstantRange> instantRange, boolean autoScan) {
-    super(fs, basePath, logFilePaths, readerSchema, latestInstantTime, readBlocksLazily, reverseReader, bufferSize, instantRange);
+                                      Option<InstantRange> instantRange, boolean autoScan,
+                                      ExternalSpillableMap.DiskMapType diskMapType, boolean isCompactKeyIndexEnabled,
+                                      SpillSerializer<HoodieRecord<? extends HoodieRecordPayload>> spillSerializer,
+                                      int prefetchThreads, int prefetchQueueSize, boolean newestRecordWins) {
+    super(fs, basePath, logFilePaths, readerSchema, latestInstantTime, readBlocksLazily, reverseReader, bufferSize, instantRange,
+        prefetchThreads, prefetchQueueSize);
+    this.newestRecordWins = newestRecordWins || isNewestRecordWins(getPayloadClassFQN());
     try {
       // Store merged records for all versions for this log file, set the in-memory footprint to maxInMemoryMapSize
       this.records = new ExternalSpillableMap<>(maxMemorySizeInBytes, spillableMapBasePath, new DefaultSizeEstimator(),
-          new HoodieRecordSizeEstimator(readerSchema));
+          new HoodieRecordSizeEstimator(readerSchema), diskMapType, isCompactKeyIndexEnabled, spillSerializer);
     } catch (IOException e) {
       throw new HoodieIOException("IOException when creating ExternalSpillableMap at " + spillableMapBasePath, e);
     }
@@ -123,20 +144,74 @@ public class HoodieMergedLogRecordScanner extends AbstractHoodieLogRecordScanner
     return new Builder();
   }
 
+  /**
+   * Looks up the merged log records of the given keys, reading the log newest block first. The records of a key are
+   * merged in log order, as in a full scan, and reading stops once every key reached a delete, or a record if the
+   * newest record wins. So looking up recently updated keys does not read the whole log.
+   *
+   * @param keys Keys of the records to look up
+   * @return the merged records of the keys present in the log, deleted keys map to records with an empty payload
+   */
+  public Map<String, HoodieRecord<? extends HoodieRecordPayload>> getRecordsByKeys(Collection<String> keys) {
+    // records of every key, oldest first
+    Map<String, Deque<HoodieRecord<? extends HoodieRecordPayload>>> keyToRecords = new HashMap<>();
+    scanInReverse(new HashSet<>(keys), new ReverseRecordProcessor() {
+      @Override
+      public boolean processPreviousRecord(HoodieRecord<? extends HoodieRecordPayload> hoodieRecord) {
+        keyToRecords.computeIfAbsent(hoodieRecord.getRecordKey(), k -> new ArrayDeque<>()).push(hoodieRecord);
+        return newestRecordWins;
+      }
+
+      @Override
+      public boolean processPreviousDeletedKey(HoodieKey hoodieKey) {
+        // a delete replaces whatever was written before
+        keyToRecords.computeIfAbsent(hoodieKey.getRecordKey(), k -> new ArrayDeque<>())
+            .push(SpillableMapUtils.generateEmptyPayload(hoodieKey.getRecordKey(), hoodieKey.getPartitionPath(), getPayloadClassFQN()));
+        return true;
+      }
+    });
+    Map<String, HoodieRecord<? extends HoodieRecordPayload>> mergedRecords = new HashMap<>();
+    keyToRecords.forEach((key, keyRecords) -> {
+      HoodieRecord<? extends HoodieRecordPayload> mergedRecord = keyRecords.poll();
+      for (HoodieRecord<? extends HoodieRecordPayload> hoodieRecord : keyRecords) {
+        mergedRecord = combine(hoodieRecord, mergedRecord);
+      }
+      mergedRecords.put(key, mergedRecord);
+    });
+    return mergedRecords;
+  }
+
+  /**
+   * Whether the newest record of a key supersedes the older ones with the given payload class. The avro payloads
+   * shipped with hudi keep the newer record in preCombine for the records read from the log, which all have the natural
+   * ordering value.
+   */
+  private static boolean isNewestRecordWins(String payloadClass) {
+    return OverwriteWithLatestAvroPayload.class.getName().equals(payloadClass)
+        || DefaultHoodieRecordPayload.class.getName().equals(payloadClass)
+        || OverwriteNonDefaultsWithLatestAvroPayload.class.getName().equals(payloadClass)
+        || HoodieAvroPayload.class.getName().equals(payloadClass);
+  }
+
   @Override
   protected void processNextRecord(HoodieRecord<? extends HoodieRecordPayload> hoodieRecord) throws IOException {
     String key = hoodieRecord.getRecordKey();
     if (records.containsKey(key)) {
       // Merge and store the merged record. The HoodieRecordPayload implementation is free to decide what should be
       // done when a delete (empty payload) is encountered before or after an insert/update.
-      HoodieRecordPayload combinedValue = hoodieRecord.getData().preCombine(records.get(key).getData());
-      records.put(key, new HoodieRecord<>(new HoodieKey(key, hoodieRecord.getPartitionPath()), combinedValue));
+      records.put(key, combine(hoodieRecord, records.get(key)));
     } else {
       // Put the record as is
       records.put(key, hoodieRecord);
     }
   }
 
+  private static HoodieRecord<? extends HoodieRecordPayload> combine(HoodieRecord<? extends HoodieRecordPayload> hoodieRecord,
+      HoodieRecord<? extends HoodieRecordPayload> previousRecord) {
+    HoodieRecordPayload combinedValue = hoodieRecord.getData().preCombine(previousRecord.getData());
+    return new HoodieRecord<>(new HoodieKey(hoodieRecord.getRecordKey(), hoodieRecord.getPartitionPath()), combinedValue);
+  }
+
   @Override
   protected void processNextDeletedKey(HoodieKey hoodieKey) {
     records.put(hoodieKey.getRecordKey(), SpillableMapUtils.generateEmptyPayload(hoodieKey.getRecordKey(),
@@ -168,10 +243,19 @@ public class HoodieMergedLogRecordScanner extends AbstractHoodieLogRecordScanner
     // specific configurations
     protected Long maxMemorySizeInBytes;
     protected String spillableMapBasePath;
+    protected ExternalSpillableMap.DiskMapType diskMapType = ExternalSpillableMap.DiskMapType.BITCASK;
+    protected boolean isCompactKeyIndexEnabled = false;
+    protected SpillSerializer<HoodieRecord<? extends HoodieRecordPayload>> spillSerializer = new DefaultSpillSerializer<>();
+    // log block prefetching, disabled by default
+    protected int prefetchThreads = 0;
+    protected int prefetchQueueSize = DEFAULT_PREFETCH_QUEUE_SIZE;
+    // key lookups only stop at deletes by default, unless the payload class is known to keep the newest record,
+    // since payloads are free to combine with older records
+    protected boolean newestRecordWins = false;
     // incremental filtering
     private Option<InstantRange> instantRange = Option.empty();
     // auto scan default true
-    private boolean autoScan = true;
+    protected boolean autoScan = true;
 
     public Builder withFileSystem(FileSystem fs) {
       this.fs = fs;
@@ -228,6 +312,36 @@ public class HoodieMergedLogRecordScanner extends AbstractHoodieLogRecordScanner
       return this;
     }
 
+    public Builder withDiskMapType(ExternalSpillableMap.DiskMapType diskMapType) {
+      this.diskMapType = diskMapType;
+      return this;
+    }
+
+    public Builder withCompactKeyIndex(boolean isCompactKeyIndexEnabled) {
+      this.isCompactKeyIndexEnabled = isCompactKeyIndexEnabled;
+      return this;
+    }
+
+    public Builder withSpillSerializer(SpillSerializer<HoodieRecord<? extends HoodieRecordPayload>> spillSerializer) {
+      this.spillSerializer = spillSerializer;
+      return this;
+    }
+
+    public Builder withPrefetchThreads(int prefetchThreads) {
+      this.prefetchThreads = prefetchThreads;
+      return this;
+    }
+
+    public Builder withPrefetchQueueSize(int prefetchQueueSize) {
+      this.prefetchQueueSize = prefetchQueueSize;
+      return this;
+    }
+
+    public Builder withNewestRecordWins(boolean newestRecordWins) {
+      this.newestRecordWins = newestRecordWins;
+      return this;
+    }
+
     public Builder withAutoScan(boolean autoScan) {
       this.autoScan = autoScan;
       return this;
@@ -237,7 +351,8 @@ public class HoodieMergedLogRecordScanner extends AbstractHoodieLogRecordScanner
     public HoodieMergedLogRecordScanner build() {
       return new HoodieMergedLogRecordScanner(fs, basePath, logFilePaths, readerSchema,
           latestInstantTime, maxMemorySizeInBytes, readBlocksLazily, reverseReader,
-          bufferSize, spillableMapBasePath, instantRange, autoScan);
+          bufferSize, spillableMapBasePath, instantRange, autoScan, diskMapType, isCompactKeyIndexEnabled, spillSerializer,
+          prefetchThreads, prefetchQueueSize, newestRecordWins);
     }
   }
 }
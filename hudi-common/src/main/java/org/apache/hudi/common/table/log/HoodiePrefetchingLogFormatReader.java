@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.table.log;
+
+import org.apache.hudi.common.model.HoodieLogFile;
+import org.apache.hudi.common.table.log.block.HoodieDataBlock;
+import org.apache.hudi.common.table.log.block.HoodieDeleteBlock;
+import org.apache.hudi.common.table.log.block.HoodieLogBlock;
+import org.apache.hudi.exception.HoodieException;
+
+import org.apache.avro.Schema;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Hoodie log format reader, which reads the upcoming log files on a bounded pool of I/O threads while the caller
+ * consumes the blocks of earlier ones.
+ *
+ * <p>Every log file is read by a single task, which reads the content of each block eagerly and decodes the data and
+ * delete blocks accepted by the inflate filter, before handing the block over through a bounded per file queue. Log
+ * files are scheduled in the order they were passed in and their blocks are returned in that same order, so the
+ * sequence of blocks seen by the caller is exactly the one {@link HoodieLogFormatReader} returns. At most
+ * {@code numThreads} log files are read concurrently, each holding at most {@code queueSize} blocks ahead of the caller.
+ */
+public class HoodiePrefetchingLogFormatReader implements HoodieLogFormat.Reader {
+
+  private static final Logger LOG = LogManager.getLogger(HoodiePrefetchingLogFormatReader.class);
+  private static final long POLL_INTERVAL_MS = 10;
+
+  private final ExecutorService executorService;
+  private final List<LogFilePrefetcher> prefetchers;
+  private final Predicate<HoodieLogBlock> inflateFilter;
+  private volatile boolean closed = false;
+  // Index of the log file whose blocks are being returned
+  private int currentFile = 0;
+  private HoodieLogBlock nextBlock;
+  // Number of blocks that were ready by the time they were asked for
+  private final AtomicLong prefetchHits = new AtomicLong(0);
+  // Number of blocks that had to be waited for
+  private final AtomicLong prefetchMisses = new AtomicLong(0);
+
+  HoodiePrefetchingLogFormatReader(FileSystem fs, List<HoodieLogFile> logFiles, Schema readerSchema, int bufferSize,
+      int numThreads, int queueSize, Predicate<HoodieLogBlock> inflateFilter) {
+    this.inflateFilter = inflateFilter;
+    this.prefetchers = new ArrayList<>(logFiles.size());
+    AtomicInteger threadCount = new AtomicInteger(0);
+    this.executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(numThreads, logFiles.size())), runnable -> {
+      Thread thread = new Thread(runnable, "hoodie-log-prefetch-" + threadCount.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    });
+    // tasks are started in submission order, so the log file being consumed is always read by a running task
+    for (HoodieLogFile logFile : logFiles) {
+      LogFilePrefetcher prefetcher = new LogFilePrefetcher(fs, logFile, readerSchema, bufferSize, queueSize);
+      prefetchers.add(prefetcher);
+      executorService.submit(prefetcher);
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (nextBlock != null) {
+      return true;
+    }
+    boolean waited = false;
+    while (currentFile < prefetchers.size()) {
+      LogFilePrefetcher prefetcher = prefetchers.get(currentFile);
+      try {
+        nextBlock = prefetcher.blocks.poll(waited ? POLL_INTERVAL_MS : 0, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HoodieException("Interrupted while waiting for log blocks of " + prefetcher.logFile, e);
+      }
+      if (nextBlock != null) {
+        (waited ? prefetchMisses : prefetchHits).incrementAndGet();
+        return true;
+      }
+      if (prefetcher.done) {
+        // the last block may have been queued right before the task completed
+        nextBlock = prefetcher.blocks.poll();
+        if (nextBlock != null) {
+          (waited ? prefetchMisses : prefetchHits).incrementAndGet();
+          return true;
+        }
+        if (prefetcher.failure != null) {
+          throw new HoodieException("Unable to read log file " + prefetcher.logFile, prefetcher.failure);
+        }
+        LOG.info("Moving to the next reader for logfile after " + prefetcher.logFile);
+        currentFile++;
+        waited = false;
+      } else {
+        waited = true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public HoodieLogBlock next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No more log blocks to read");
+    }
+    HoodieLogBlock block = nextBlock;
+    nextBlock = null;
+    return block;
+  }
+
+  @Override
+  public HoodieLogFile getLogFile() {
+    return prefetchers.get(Math.min(currentFile, prefetchers.size() - 1)).logFile;
+  }
+
+  @Override
+  public void remove() {}
+
+  @Override
+  public boolean hasPrev() {
+    throw new UnsupportedOperationException("Reverse reading is not supported by the prefetching log format reader");
+  }
+
+  @Override
+  public HoodieLogBlock prev() throws IOException {
+    throw new UnsupportedOperationException("Reverse reading is not supported by the prefetching log format reader");
+  }
+
+  /**
+   * Stops reading the remaining log files, any block that was not returned yet is dropped.
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    executorService.shutdownNow();
+    prefetchers.forEach(prefetcher -> prefetcher.blocks.clear());
+    LOG.info("Prefetched log blocks ready when requested " + prefetchHits.get() + ", waited for " + prefetchMisses.get());
+  }
+
+  public long getPrefetchHits() {
+    return prefetchHits.get();
+  }
+
+  public long getPrefetchMisses() {
+    return prefetchMisses.get();
+  }
+
+  /**
+   * Reads all the blocks of a single log file into a bounded queue.
+   */
+  private class LogFilePrefetcher implements Runnable {
+
+    private final FileSystem fs;
+    private final HoodieLogFile logFile;
+    private final Schema readerSchema;
+    private final int bufferSize;
+    private final BlockingQueue<HoodieLogBlock> blocks;
+    // set once all the blocks of the log file are queued, or reading failed
+    private volatile boolean done = false;
+    private volatile Throwable failure;
+
+    LogFilePrefetcher(FileSystem fs, HoodieLogFile logFile, Schema readerSchema, int bufferSize, int queueSize) {
+      this.fs = fs;
+      this.logFile = logFile;
+      this.readerSchema = readerSchema;
+      this.bufferSize = bufferSize;
+      this.blocks = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+    }
+
+    @Override
+    public void run() {
+      try (HoodieLogFileReader reader = new HoodieLogFileReader(fs, logFile, readerSchema, bufferSize, false, false)) {
+        while (!closed && reader.hasNext()) {
+          HoodieLogBlock block = reader.next();
+          if (inflateFilter.test(block)) {
+            inflate(block);
+          }
+          while (!closed && !blocks.offer(block, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+            // the caller is still busy with earlier blocks
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Throwable t) {
+        if (!closed) {
+          LOG.error("Failed to prefetch log blocks of " + logFile, t);
+          failure = t;
+        }
+      } finally {
+        done = true;
+      }
+    }
+
+    private void inflate(HoodieLogBlock block) {
+      switch (block.getBlockType()) {
+        case AVRO_DATA_BLOCK:
+        case HFILE_DATA_BLOCK:
+        case PARQUET_DATA_BLOCK:
+          ((HoodieDataBlock) block).getRecords();
+          break;
+        case DELETE_BLOCK:
+          ((HoodieDeleteBlock) block).getKeysToDelete();
+          break;
+        default:
+          break;
+      }
+    }
+  }
+}
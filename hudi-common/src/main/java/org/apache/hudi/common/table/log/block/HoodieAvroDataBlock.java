@@ -41,6 +41,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -56,6 +57,8 @@ public class HoodieAvroDataBlock extends HoodieDataBlock {
 
   private ThreadLocal<BinaryEncoder> encoderCache = new ThreadLocal<>();
   private ThreadLocal<BinaryDecoder> decoderCache = new ThreadLocal<>();
+  // content serialized by a HoodieAvroDataBlockBuffer, only valid until the buffer is reset
+  private ByteBuffer contentBuffer;
 
   public HoodieAvroDataBlock(@Nonnull Map<HeaderMetadataType, String> logBlockHeader,
        @Nonnull Map<HeaderMetadataType, String> logBlockFooter,
@@ -76,25 +79,54 @@ public class HoodieAvroDataBlock extends HoodieDataBlock {
     super(records, header, new HashMap<>());
   }
 
+  /**
+   * Block over content already serialized into a {@link HoodieAvroDataBlockBuffer}, to be written out before the
+   * buffer is reset.
+   */
+  HoodieAvroDataBlock(@Nonnull ByteBuffer contentBuffer, @Nonnull Map<HeaderMetadataType, String> header) {
+    super(header, new HashMap<>(), Option.empty(), Option.empty(), null, false);
+    this.contentBuffer = contentBuffer;
+    this.schema = new Schema.Parser().parse(header.get(HeaderMetadataType.SCHEMA));
+  }
+
   @Override
   public HoodieLogBlockType getBlockType() {
     return HoodieLogBlockType.AVRO_DATA_BLOCK;
   }
 
+  @Override
+  public byte[] getContentBytes() throws IOException {
+    if (contentBuffer == null) {
+      return super.getContentBytes();
+    }
+    byte[] content = new byte[contentBuffer.remaining()];
+    contentBuffer.duplicate().get(content);
+    return content;
+  }
+
+  @Override
+  public ByteBuffer getContentBuffer() throws IOException {
+    return contentBuffer == null ? super.getContentBuffer() : contentBuffer.duplicate();
+  }
+
   @Override
   protected byte[] serializeRecords() throws IOException {
     Schema schema = new Schema.Parser().parse(super.getLogBlockHeader().get(HeaderMetadataType.SCHEMA));
     GenericDatumWriter<IndexedRecord> writer = new GenericDatumWriter<>(schema);
+    HoodieLogBlockCompressionCodec codec = getCompressionCodec();
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    DataOutputStream output = new DataOutputStream(baos);
+    DataOutputStream blockOutput = new DataOutputStream(baos);
 
-    // 1. Write out the log block version
-    output.writeInt(HoodieLogBlock.version);
+    // 1. Write out the log block version, uncompressed blocks are kept readable by older readers
+    blockOutput.writeInt(codec == HoodieLogBlockCompressionCodec.NONE
+        ? HoodieLogBlock.version : HoodieAvroDataBlockVersion.COMPRESSED_CONTENT_VERSION);
 
     // 2. Write total number of records
-    output.writeInt(records.size());
+    blockOutput.writeInt(records.size());
 
-    // 3. Write the records
+    // 3. Write the records, into a separate buffer if they are compressed
+    ByteArrayOutputStream recordsBaos = codec == HoodieLogBlockCompressionCodec.NONE ? baos : new ByteArrayOutputStream();
+    DataOutputStream output = codec == HoodieLogBlockCompressionCodec.NONE ? blockOutput : new DataOutputStream(recordsBaos);
     Iterator<IndexedRecord> itr = records.iterator();
     while (itr.hasNext()) {
       IndexedRecord s = itr.next();
@@ -118,6 +150,16 @@ public class HoodieAvroDataBlock extends HoodieDataBlock {
       }
     }
     output.close();
+
+    // 4. Write the length of the records before and after compression, followed by the compressed records
+    if (codec != HoodieLogBlockCompressionCodec.NONE) {
+      byte[] uncompressed = recordsBaos.toByteArray();
+      byte[] compressed = codec.compress(uncompressed);
+      blockOutput.writeInt(uncompressed.length);
+      blockOutput.writeInt(compressed.length);
+      blockOutput.write(compressed);
+      blockOutput.close();
+    }
     return baos.toByteArray();
   }
 
@@ -125,13 +167,6 @@ public class HoodieAvroDataBlock extends HoodieDataBlock {
   // TODO (na) - Implement a recordItr instead of recordList
   @Override
   protected void deserializeRecords() throws IOException {
-    SizeAwareDataInputStream dis =
-        new SizeAwareDataInputStream(new DataInputStream(new ByteArrayInputStream(getContent().get())));
-
-    // 1. Read version for this data block
-    int version = dis.readInt();
-    HoodieAvroDataBlockVersion logBlockVersion = new HoodieAvroDataBlockVersion(version);
-
     // Get schema from the header
     Schema writerSchema = new Schema.Parser().parse(super.getLogBlockHeader().get(HeaderMetadataType.SCHEMA));
 
@@ -141,29 +176,80 @@ public class HoodieAvroDataBlock extends HoodieDataBlock {
     }
 
     GenericDatumReader<IndexedRecord> reader = new GenericDatumReader<>(writerSchema, schema);
+    List<IndexedRecord> records = new ArrayList<>();
+    readRecordSlices((content, offset, length) -> {
+      BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(content, offset, length, decoderCache.get());
+      decoderCache.set(decoder);
+      records.add(reader.read(null, decoder));
+    });
+    this.records = records;
+  }
+
+  /**
+   * Returns views over the records of the block in their binary avro encoding with the writer schema of the block,
+   * without decoding or copying them. The views share the (decompressed) content, which is released by the block.
+   */
+  public List<ByteBuffer> getRecordBytes() {
+    List<ByteBuffer> recordBytes = new ArrayList<>();
+    try {
+      if (readBlockLazily && !getContent().isPresent()) {
+        // read log block contents from disk
+        inflate();
+      }
+      readRecordSlices((content, offset, length) -> recordBytes.add(ByteBuffer.wrap(content, offset, length).slice()));
+    } catch (IOException io) {
+      throw new HoodieIOException("Unable to read records from content bytes", io);
+    }
+    return recordBytes;
+  }
+
+  /**
+   * Hands the slice of the content holding each record over to the consumer, in order.
+   */
+  private void readRecordSlices(RecordSliceConsumer consumer) throws IOException {
+    byte[] content = contentBuffer == null ? getContent().get() : getContentBytes();
+    SizeAwareDataInputStream dis = new SizeAwareDataInputStream(new DataInputStream(new ByteArrayInputStream(content)));
+
+    // 1. Read version for this data block
+    int version = dis.readInt();
+    HoodieAvroDataBlockVersion logBlockVersion = new HoodieAvroDataBlockVersion(version);
+
     // 2. Get the total records
     int totalRecords = 0;
     if (logBlockVersion.hasRecordCount()) {
       totalRecords = dis.readInt();
     }
-    List<IndexedRecord> records = new ArrayList<>(totalRecords);
 
-    // 3. Read the content
+    // 3. Decompress the records, if compressed
+    if (logBlockVersion.hasCompressedContent()) {
+      int uncompressedLength = dis.readInt();
+      byte[] compressed = new byte[dis.readInt()];
+      dis.readFully(compressed);
+      dis.close();
+      content = getCompressionCodec().decompress(compressed, uncompressedLength);
+      dis = new SizeAwareDataInputStream(new DataInputStream(new ByteArrayInputStream(content)));
+    }
+
+    // 4. Read the content
     for (int i = 0; i < totalRecords; i++) {
       int recordLength = dis.readInt();
-      BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(getContent().get(), dis.getNumberOfBytesRead(),
-          recordLength, decoderCache.get());
-      decoderCache.set(decoder);
-      IndexedRecord record = reader.read(null, decoder);
-      records.add(record);
+      consumer.accept(content, dis.getNumberOfBytesRead(), recordLength);
       dis.skipBytes(recordLength);
     }
     dis.close();
-    this.records = records;
     // Free up content to be GC'd, deflate
     deflate();
   }
 
+  private interface RecordSliceConsumer {
+    void accept(byte[] content, int offset, int length) throws IOException;
+  }
+
+  private HoodieLogBlockCompressionCodec getCompressionCodec() {
+    String codec = super.getLogBlockHeader().get(HeaderMetadataType.COMPRESSION_CODEC);
+    return codec == null ? HoodieLogBlockCompressionCodec.NONE : HoodieLogBlockCompressionCodec.fromName(codec);
+  }
+
   //----------------------------------------------------------------------------------------
   //                                  DEPRECATED METHODS
   //
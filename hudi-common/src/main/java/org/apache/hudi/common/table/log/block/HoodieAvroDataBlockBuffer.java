@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.table.log.block;
+
+import org.apache.hudi.common.table.log.block.HoodieLogBlock.HeaderMetadataType;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Encodes the records of a {@link HoodieAvroDataBlock} straight into a reusable buffer as they arrive, so that a block
+ * is held in memory once, in its serialized form, instead of as a list of records serialized again when the block is
+ * written. The record count and the record sizes are patched into the buffer once known.
+ *
+ * <p>The content has the same layout as the one serialized by {@link HoodieAvroDataBlock}. The block returned by
+ * {@link #toBlock(Map)} is a view over the buffer, it must be written out before the next record is appended.
+ */
+public class HoodieAvroDataBlockBuffer {
+
+  private final GenericDatumWriter<IndexedRecord> writer;
+  private final HoodieLogBlockCompressionCodec codec;
+  private final ContentBuffer buffer = new ContentBuffer();
+  private BinaryEncoder encoder;
+  private int numRecords;
+
+  public HoodieAvroDataBlockBuffer(Schema schema, HoodieLogBlockCompressionCodec codec) {
+    this.writer = new GenericDatumWriter<>(schema);
+    this.codec = codec;
+    reset();
+  }
+
+  /**
+   * Encodes a record at the end of the buffer. The buffer is left as is if the record fails to be encoded.
+   */
+  public void append(IndexedRecord record) throws IOException {
+    int sizePos = buffer.size();
+    // reserve the record size, patched once the record is encoded
+    buffer.writeInt(0);
+    try {
+      encoder = EncoderFactory.get().binaryEncoder(buffer, encoder);
+      writer.write(record, encoder);
+      encoder.flush();
+    } catch (IOException | RuntimeException e) {
+      // drop the partially encoded record, along with what the encoder may still hold of it
+      encoder = null;
+      buffer.truncate(sizePos);
+      throw e;
+    }
+    buffer.patchInt(sizePos, buffer.size() - sizePos - Integer.BYTES);
+    numRecords++;
+  }
+
+  public int getNumRecords() {
+    return numRecords;
+  }
+
+  /**
+   * @return the number of bytes buffered
+   */
+  public int getSize() {
+    return buffer.size();
+  }
+
+  /**
+   * Makes a block of the buffered records. Uncompressed blocks are views over the buffer rather than copies.
+   */
+  public HoodieAvroDataBlock toBlock(Map<HeaderMetadataType, String> header) throws IOException {
+    if (codec == HoodieLogBlockCompressionCodec.NONE) {
+      buffer.patchInt(Integer.BYTES, numRecords);
+      return new HoodieAvroDataBlock(ByteBuffer.wrap(buffer.getBuffer(), 0, buffer.size()), header);
+    }
+    byte[] compressed = codec.compress(Arrays.copyOf(buffer.getBuffer(), buffer.size()));
+    ByteArrayOutputStream baos = new ByteArrayOutputStream(4 * Integer.BYTES + compressed.length);
+    DataOutputStream blockOutput = new DataOutputStream(baos);
+    blockOutput.writeInt(HoodieAvroDataBlockVersion.COMPRESSED_CONTENT_VERSION);
+    blockOutput.writeInt(numRecords);
+    blockOutput.writeInt(buffer.size());
+    blockOutput.writeInt(compressed.length);
+    blockOutput.write(compressed);
+    blockOutput.close();
+    return new HoodieAvroDataBlock(ByteBuffer.wrap(baos.toByteArray()), header);
+  }
+
+  /**
+   * Drops the buffered records, keeping the memory of the buffer for the next block.
+   */
+  public void reset() {
+    buffer.reset();
+    numRecords = 0;
+    if (codec == HoodieLogBlockCompressionCodec.NONE) {
+      // the version and the record count, compressed blocks write them in front of the compressed records
+      buffer.writeInt(HoodieLogBlock.version);
+      buffer.writeInt(0);
+    }
+  }
+
+  /**
+   * Byte array output stream exposing its buffer, to patch and write out the content without copies.
+   */
+  private static class ContentBuffer extends ByteArrayOutputStream {
+
+    ContentBuffer() {
+      super(64 * 1024);
+    }
+
+    byte[] getBuffer() {
+      return buf;
+    }
+
+    void writeInt(int value) {
+      write(value >>> 24);
+      write(value >>> 16);
+      write(value >>> 8);
+      write(value);
+    }
+
+    void truncate(int size) {
+      count = size;
+    }
+
+    void patchInt(int pos, int value) {
+      buf[pos] = (byte) (value >>> 24);
+      buf[pos + 1] = (byte) (value >>> 16);
+      buf[pos + 2] = (byte) (value >>> 8);
+      buf[pos + 3] = (byte) value;
+    }
+  }
+}
@@ -24,6 +24,9 @@ package org.apache.hudi.common.table.log.block;
  */
 final class HoodieAvroDataBlockVersion extends HoodieLogBlockVersion {
 
+  // Records are written as a single buffer, compressed with the codec in the block header
+  static final int COMPRESSED_CONTENT_VERSION = 2;
+
   HoodieAvroDataBlockVersion(int version) {
     super(version);
   }
@@ -36,4 +39,8 @@ final class HoodieAvroDataBlockVersion extends HoodieLogBlockVersion {
         return true;
     }
   }
+
+  public boolean hasCompressedContent() {
+    return super.getVersion() >= COMPRESSED_CONTENT_VERSION;
+  }
 }
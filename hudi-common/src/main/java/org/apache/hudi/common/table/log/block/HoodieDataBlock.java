@@ -79,6 +79,8 @@ public abstract class HoodieDataBlock extends HoodieLogBlock {
         return new HoodieAvroDataBlock(recordList, header);
       case HFILE_DATA_BLOCK:
         return new HoodieHFileDataBlock(recordList, header);
+      case PARQUET_DATA_BLOCK:
+        return new HoodieParquetDataBlock(recordList, header);
       default:
         throw new HoodieException("Data block format " + logDataBlockFormat + " not implemented");
     }
@@ -99,6 +101,13 @@ public abstract class HoodieDataBlock extends HoodieLogBlock {
 
   public abstract HoodieLogBlockType getBlockType();
 
+  /**
+   * Whether the records of the block are deserialized already.
+   */
+  public boolean hasRecords() {
+    return records != null;
+  }
+
   public List<IndexedRecord> getRecords() {
     if (records == null) {
       try {
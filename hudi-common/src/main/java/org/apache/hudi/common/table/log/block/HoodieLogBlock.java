@@ -33,6 +33,7 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -79,6 +80,11 @@ public abstract class HoodieLogBlock {
     throw new HoodieException("No implementation was provided");
   }
 
+  // Return the data belonging to a LogBlock, which may be a view over a larger buffer rather than a copy
+  public ByteBuffer getContentBuffer() throws IOException {
+    return ByteBuffer.wrap(getContentBytes());
+  }
+
   public byte[] getMagic() {
     throw new HoodieException("No implementation was provided");
   }
@@ -109,7 +115,7 @@ public abstract class HoodieLogBlock {
    * Type of the log block WARNING: This enum is serialized as the ordinal. Only add new enums at the end.
    */
   public enum HoodieLogBlockType {
-    COMMAND_BLOCK, DELETE_BLOCK, CORRUPT_BLOCK, AVRO_DATA_BLOCK, HFILE_DATA_BLOCK
+    COMMAND_BLOCK, DELETE_BLOCK, CORRUPT_BLOCK, AVRO_DATA_BLOCK, HFILE_DATA_BLOCK, PARQUET_DATA_BLOCK
   }
 
   /**
@@ -117,7 +123,7 @@ public abstract class HoodieLogBlock {
    * new enums at the end.
    */
   public enum HeaderMetadataType {
-    INSTANT_TIME, TARGET_INSTANT_TIME, SCHEMA, COMMAND_BLOCK_TYPE
+    INSTANT_TIME, TARGET_INSTANT_TIME, SCHEMA, COMMAND_BLOCK_TYPE, COMPRESSION_CODEC
   }
 
   /**
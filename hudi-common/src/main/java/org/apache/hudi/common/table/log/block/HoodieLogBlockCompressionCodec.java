@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.table.log.block;
+
+import org.apache.hudi.exception.HoodieException;
+
+import com.github.luben.zstd.Zstd;
+import net.jpountz.lz4.LZ4Factory;
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+
+/**
+ * Codecs compressing the content of a log data block as a whole. The codec of a block is recorded by name in the
+ * {@link HoodieLogBlock.HeaderMetadataType#COMPRESSION_CODEC} header.
+ *
+ * <p>The codec libraries are shipped in the bundles, without relocation as they bind native code, and are only
+ * loaded once a codec is used.
+ */
+public enum HoodieLogBlockCompressionCodec {
+
+  NONE {
+    @Override
+    byte[] compress(byte[] content) {
+      return content;
+    }
+
+    @Override
+    byte[] decompress(byte[] compressed, int uncompressedLength) {
+      return compressed;
+    }
+  },
+
+  SNAPPY {
+    @Override
+    byte[] compress(byte[] content) throws IOException {
+      return Snappy.compress(content);
+    }
+
+    @Override
+    byte[] decompress(byte[] compressed, int uncompressedLength) throws IOException {
+      return Snappy.uncompress(compressed);
+    }
+  },
+
+  LZ4 {
+    @Override
+    byte[] compress(byte[] content) {
+      return LZ4Factory.fastestInstance().fastCompressor().compress(content);
+    }
+
+    @Override
+    byte[] decompress(byte[] compressed, int uncompressedLength) {
+      return LZ4Factory.fastestInstance().fastDecompressor().decompress(compressed, uncompressedLength);
+    }
+  },
+
+  ZSTD {
+    // same as the default level of the zstd command line
+    private static final int LEVEL = 3;
+
+    @Override
+    byte[] compress(byte[] content) {
+      return Zstd.compress(content, LEVEL);
+    }
+
+    @Override
+    byte[] decompress(byte[] compressed, int uncompressedLength) {
+      return Zstd.decompress(compressed, uncompressedLength);
+    }
+  };
+
+  abstract byte[] compress(byte[] content) throws IOException;
+
+  abstract byte[] decompress(byte[] compressed, int uncompressedLength) throws IOException;
+
+  public static HoodieLogBlockCompressionCodec fromName(String name) {
+    try {
+      return valueOf(name.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new HoodieException("Unsupported log block compression codec " + name, e);
+    }
+  }
+}
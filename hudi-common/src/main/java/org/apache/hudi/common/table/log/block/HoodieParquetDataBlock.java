@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.table.log.block;
+
+import org.apache.hudi.avro.HoodieAvroUtils;
+import org.apache.hudi.common.fs.inline.InLineFSUtils;
+import org.apache.hudi.common.fs.inline.InLineFileSystem;
+import org.apache.hudi.common.model.HoodieLogFile;
+import org.apache.hudi.common.util.Option;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.avro.AvroParquetReader;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.avro.AvroReadSupport;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+
+import javax.annotation.Nonnull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * HoodieParquetDataBlock contains a list of records stored inside a Parquet file, embedded as the content of the block.
+ *
+ * <p>The content of a block read from a log file is only read as a whole by {@link #getContentBytes()}, as it was
+ * written. Records are read through the {@link InLineFileSystem}, which exposes the content as a file of its own, so
+ * that only the column chunks of the fields in the reader schema are read and decoded.
+ */
+public class HoodieParquetDataBlock extends HoodieDataBlock {
+
+  private static final CompressionCodecName COMPRESSION_CODEC = CompressionCodecName.GZIP;
+
+  // Configuration of the file system of the log file, used to read the content in line
+  private final Configuration hadoopConf;
+
+  public HoodieParquetDataBlock(HoodieLogFile logFile, FSDataInputStream inputStream, boolean readBlockLazily,
+      long position, long blockSize, long blockEndpos, Schema readerSchema, Map<HeaderMetadataType, String> header,
+      Map<HeaderMetadataType, String> footer, Configuration hadoopConf) {
+    // the content is read column by column on demand, see deserializeRecords()
+    super(Option.empty(), inputStream, false,
+        Option.of(new HoodieLogBlockContentLocation(logFile, position, blockSize, blockEndpos)), readerSchema, header,
+        footer);
+    this.hadoopConf = hadoopConf;
+  }
+
+  public HoodieParquetDataBlock(@Nonnull List<IndexedRecord> records, @Nonnull Map<HeaderMetadataType, String> header) {
+    super(records, header, new HashMap<>());
+    this.hadoopConf = null;
+  }
+
+  @Override
+  public HoodieLogBlockType getBlockType() {
+    return HoodieLogBlockType.PARQUET_DATA_BLOCK;
+  }
+
+  @Override
+  public byte[] getContentBytes() throws IOException {
+    if (!getBlockContentLocation().isPresent()) {
+      // blocks built in memory are encoded from their records
+      return super.getContentBytes();
+    }
+    // the records of a block read from a log file may be projected or evolved, so the content is read back as is
+    HoodieLogBlockContentLocation contentLocation = getBlockContentLocation().get();
+    Path logFilePath = contentLocation.getLogFile().getPath();
+    byte[] content = new byte[(int) contentLocation.getBlockSize()];
+    try (FSDataInputStream in = logFilePath.getFileSystem(hadoopConf).open(logFilePath)) {
+      in.readFully(contentLocation.getContentPositionInLogFile(), content);
+    }
+    return content;
+  }
+
+  @Override
+  protected byte[] serializeRecords() throws IOException {
+    Schema writerSchema = new Schema.Parser().parse(super.getLogBlockHeader().get(HeaderMetadataType.SCHEMA));
+    ByteArrayOutputFile outputFile = new ByteArrayOutputFile();
+    try (ParquetWriter<IndexedRecord> writer = AvroParquetWriter.<IndexedRecord>builder(outputFile)
+        .withSchema(writerSchema)
+        .withCompressionCodec(COMPRESSION_CODEC)
+        .build()) {
+      for (IndexedRecord record : records) {
+        writer.write(record);
+      }
+    }
+    return outputFile.toByteArray();
+  }
+
+  @Override
+  protected void deserializeRecords() throws IOException {
+    // Get schema from the header
+    Schema writerSchema = new Schema.Parser().parse(super.getLogBlockHeader().get(HeaderMetadataType.SCHEMA));
+
+    // If readerSchema was not present, use writerSchema
+    if (schema == null) {
+      schema = writerSchema;
+    }
+
+    Configuration conf = new Configuration(hadoopConf);
+    conf.set("fs." + InLineFileSystem.SCHEME + ".impl", InLineFileSystem.class.getName());
+    conf.setBoolean("fs." + InLineFileSystem.SCHEME + ".impl.disable.cache", true);
+    // only read the columns of the reader schema, fields added to the schema since are filled with their defaults
+    List<String> projectedFields = schema.getFields().stream().map(Schema.Field::name)
+        .filter(name -> writerSchema.getField(name) != null).collect(Collectors.toList());
+    AvroReadSupport.setRequestedProjection(conf, HoodieAvroUtils.generateProjectionSchema(writerSchema, projectedFields));
+    AvroReadSupport.setAvroReadSchema(conf, schema);
+
+    HoodieLogBlockContentLocation contentLocation = getBlockContentLocation().get();
+    FileSystem outerFs = contentLocation.getLogFile().getPath().getFileSystem(conf);
+    Path inlinePath = InLineFSUtils.getInlineFilePath(outerFs.makeQualified(contentLocation.getLogFile().getPath()),
+        outerFs.getScheme(), contentLocation.getContentPositionInLogFile(), contentLocation.getBlockSize());
+    List<IndexedRecord> records = new ArrayList<>();
+    try (ParquetReader<IndexedRecord> reader =
+        AvroParquetReader.<IndexedRecord>builder(HadoopInputFile.fromPath(inlinePath, conf)).withConf(conf).build()) {
+      IndexedRecord record;
+      while ((record = reader.read()) != null) {
+        records.add(record);
+      }
+    }
+    this.records = records;
+  }
+
+  /**
+   * Parquet output file buffering the content of the block in memory.
+   */
+  private static class ByteArrayOutputFile implements OutputFile {
+
+    private final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+    @Override
+    public PositionOutputStream create(long blockSizeHint) {
+      return new PositionOutputStream() {
+        @Override
+        public long getPos() {
+          return baos.size();
+        }
+
+        @Override
+        public void write(int b) {
+          baos.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+          baos.write(b, off, len);
+        }
+      };
+    }
+
+    @Override
+    public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+      baos.reset();
+      return create(blockSizeHint);
+    }
+
+    @Override
+    public boolean supportsBlockSize() {
+      return false;
+    }
+
+    @Override
+    public long defaultBlockSize() {
+      return 0;
+    }
+
+    byte[] toByteArray() {
+      return baos.toByteArray();
+    }
+  }
+}
@@ -54,6 +54,8 @@ public abstract class BaseFileUtils {
 
   public abstract Set<String> filterRowKeys(Configuration configuration, Path filePath, Set<String> filter);
 
+  public abstract Set<String> readRowKeysWrittenBy(Configuration configuration, Path filePath, String commitTime);
+
   public abstract List<HoodieKey> fetchRecordKeyPartitionPath(Configuration configuration, Path filePath);
 
   public abstract Schema readAvroSchema(Configuration configuration, Path filePath);
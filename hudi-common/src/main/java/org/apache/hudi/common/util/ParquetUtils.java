@@ -24,6 +24,7 @@ import org.apache.hudi.common.bloom.BloomFilter;
 import org.apache.hudi.common.bloom.BloomFilterFactory;
 import org.apache.hudi.common.bloom.BloomFilterTypeCode;
 import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.HoodieColumnRangeMetadata;
 import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.exception.HoodieException;
@@ -37,20 +38,31 @@ import org.apache.hadoop.fs.Path;
 import org.apache.parquet.avro.AvroParquetReader;
 import org.apache.parquet.avro.AvroReadSupport;
 import org.apache.parquet.avro.AvroSchemaConverter;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.UserDefinedPredicate;
 import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.ParquetReader;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveComparator;
+import org.apache.parquet.schema.PrimitiveType;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
 
 /**
  * Utility functions involving with parquet.
@@ -95,25 +107,22 @@ public class ParquetUtils extends BaseFileUtils {
    */
   private static Set<String> filterParquetRowKeys(Configuration configuration, Path filePath, Set<String> filter,
                                                   Schema readSchema) {
-    Option<RecordKeysFilterFunction> filterFunction = Option.empty();
-    if (filter != null && !filter.isEmpty()) {
-      filterFunction = Option.of(new RecordKeysFilterFunction(filter));
-    }
     Configuration conf = new Configuration(configuration);
     conf.addResource(FSUtils.getFs(filePath.toString(), conf).getConf());
     AvroReadSupport.setAvroReadSchema(conf, readSchema);
     AvroReadSupport.setRequestedProjection(conf, readSchema);
+    ParquetReader.Builder<GenericRecord> builder = AvroParquetReader.<GenericRecord>builder(filePath).withConf(conf);
+    if (filter != null && !filter.isEmpty()) {
+      // Only the rows of the candidate keys are materialized, from the row groups whose key range holds any of them
+      builder.withFilter(FilterCompat.get(FilterApi.userDefined(
+          FilterApi.binaryColumn(HoodieRecord.RECORD_KEY_METADATA_FIELD), new RecordKeyCandidatesPredicate(filter))));
+    }
     Set<String> rowKeys = new HashSet<>();
-    try (ParquetReader reader = AvroParquetReader.builder(filePath).withConf(conf).build()) {
-      Object obj = reader.read();
-      while (obj != null) {
-        if (obj instanceof GenericRecord) {
-          String recordKey = ((GenericRecord) obj).get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString();
-          if (!filterFunction.isPresent() || filterFunction.get().apply(recordKey)) {
-            rowKeys.add(recordKey);
-          }
-        }
-        obj = reader.read();
+    try (ParquetReader<GenericRecord> reader = builder.build()) {
+      GenericRecord record = reader.read();
+      while (record != null) {
+        rowKeys.add(record.get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString());
+        record = reader.read();
       }
     } catch (IOException e) {
       throw new HoodieIOException("Failed to read row keys from Parquet " + filePath, e);
@@ -123,6 +132,37 @@ public class ParquetUtils extends BaseFileUtils {
     return rowKeys;
   }
 
+  /**
+   * Read the row keys of the records written by the given commit, from the given parquet file. The row groups with no
+   * record of the commit, e.g. the row groups copied from the previous version of the file, are skipped.
+   *
+   * @param configuration configuration to build fs object
+   * @param filePath      The parquet file path.
+   * @param commitTime    Commit time of the records to read
+   * @return Set of the row keys written by the commit
+   */
+  @Override
+  public Set<String> readRowKeysWrittenBy(Configuration configuration, Path filePath, String commitTime) {
+    Configuration conf = new Configuration(configuration);
+    conf.addResource(FSUtils.getFs(filePath.toString(), conf).getConf());
+    Schema readSchema = HoodieAvroUtils.getRecordKeyCommitTimeSchema();
+    AvroReadSupport.setAvroReadSchema(conf, readSchema);
+    AvroReadSupport.setRequestedProjection(conf, readSchema);
+    FilterCompat.Filter filter = FilterCompat.get(FilterApi.eq(
+        FilterApi.binaryColumn(HoodieRecord.COMMIT_TIME_METADATA_FIELD), Binary.fromString(commitTime)));
+    Set<String> rowKeys = new HashSet<>();
+    try (ParquetReader<GenericRecord> reader = AvroParquetReader.<GenericRecord>builder(filePath).withConf(conf).withFilter(filter).build()) {
+      GenericRecord record = reader.read();
+      while (record != null) {
+        rowKeys.add(record.get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString());
+        record = reader.read();
+      }
+    } catch (IOException e) {
+      throw new HoodieIOException("Failed to read row keys from Parquet " + filePath, e);
+    }
+    return rowKeys;
+  }
+
   /**
    * Fetch {@link HoodieKey}s from the given parquet file.
    *
@@ -194,6 +234,85 @@ public class ParquetUtils extends BaseFileUtils {
     return footerVals;
   }
 
+  /**
+   * Read the statistics of the top level columns of the given parquet file, aggregated over all its row groups.
+   *
+   * Only the columns whose values can be compared as strings or numbers are returned: booleans, 32 and 64 bit
+   * integers, dates, floating point numbers and strings. Columns missing statistics in any row group are skipped.
+   */
+  public List<HoodieColumnRangeMetadata> readRangeFromParquetMetadata(Configuration conf, Path parquetFilePath) {
+    ParquetMetadata metadata = readMetadata(conf, parquetFilePath);
+    MessageType schema = metadata.getFileMetaData().getSchema();
+    Map<String, Statistics> columnToStats = new LinkedHashMap<>();
+    Map<String, Long> columnToValueCount = new HashMap<>();
+    Set<String> columnsWithoutStats = new HashSet<>();
+    for (BlockMetaData block : metadata.getBlocks()) {
+      for (ColumnChunkMetaData column : block.getColumns()) {
+        if (column.getPath().size() != 1) {
+          // nested column
+          continue;
+        }
+        String columnName = column.getPath().toDotString();
+        Statistics stats = column.getStatistics();
+        if (stats == null || stats.isEmpty() || !stats.isNumNullsSet()) {
+          columnsWithoutStats.add(columnName);
+          continue;
+        }
+        columnToValueCount.merge(columnName, column.getValueCount(), Long::sum);
+        Statistics aggregated = columnToStats.get(columnName);
+        if (aggregated == null) {
+          aggregated = Statistics.createStats(schema.getType(columnName));
+          columnToStats.put(columnName, aggregated);
+        }
+        aggregated.mergeStatistics(stats);
+      }
+    }
+
+    List<HoodieColumnRangeMetadata> columnRanges = new ArrayList<>();
+    columnToStats.forEach((columnName, stats) -> {
+      if (columnsWithoutStats.contains(columnName)) {
+        return;
+      }
+      PrimitiveType type = schema.getType(columnName).asPrimitiveType();
+      if (!stats.hasNonNullValue()) {
+        columnRanges.add(new HoodieColumnRangeMetadata(columnName, null, null, stats.getNumNulls(), columnToValueCount.get(columnName)));
+        return;
+      }
+      String minValue = convertStatsValueToString(type, stats.genericGetMin());
+      String maxValue = convertStatsValueToString(type, stats.genericGetMax());
+      if (minValue != null && maxValue != null) {
+        columnRanges.add(new HoodieColumnRangeMetadata(columnName, minValue, maxValue, stats.getNumNulls(),
+            columnToValueCount.get(columnName)));
+      }
+    });
+    return columnRanges;
+  }
+
+  /**
+   * Converts a min/max value of the statistics of a column to a string, or returns null if the values of the column
+   * can not be compared once converted.
+   */
+  private static String convertStatsValueToString(PrimitiveType type, Object value) {
+    OriginalType originalType = type.getOriginalType();
+    switch (type.getPrimitiveTypeName()) {
+      case BOOLEAN:
+        return value.toString();
+      case INT32:
+        return originalType == null || originalType == OriginalType.INT_8 || originalType == OriginalType.INT_16
+            || originalType == OriginalType.INT_32 || originalType == OriginalType.DATE ? value.toString() : null;
+      case INT64:
+        return originalType == null || originalType == OriginalType.INT_64 ? value.toString() : null;
+      case FLOAT:
+      case DOUBLE:
+        return Double.isNaN(((Number) value).doubleValue()) ? null : value.toString();
+      case BINARY:
+        return originalType == OriginalType.UTF8 || originalType == OriginalType.ENUM
+            ? ((Binary) value).toStringUsingUTF8() : null;
+      default:
+        return null;
+    }
+  }
+
   @Override
   public Schema readAvroSchema(Configuration configuration, Path parquetFilePath) {
     return new AvroSchemaConverter(configuration).convert(readSchema(configuration, parquetFilePath));
@@ -293,17 +412,73 @@ public class ParquetUtils extends BaseFileUtils {
     return rowCount;
   }
 
-  static class RecordKeysFilterFunction implements Function<String, Boolean> {
+  /**
+   * Keeps the rows whose record key is one of the candidate keys.
+   *
+   * <p>The candidates are sorted, so that the row groups whose record key range holds none of them are dropped
+   * from their statistics without being read, and so that the keys of the rows are intersected with them by merge:
+   * the position of the last key among the candidates is kept, and the next key is searched from there on. When
+   * the keys of the file are sorted, as the files written by the sorted merge handle or by clustering, every
+   * candidate is thus compared about once.
+   */
+  static class RecordKeyCandidatesPredicate extends UserDefinedPredicate<Binary> implements Serializable {
+
+    private static final Comparator<Binary> COMPARATOR = PrimitiveComparator.UNSIGNED_LEXICOGRAPHICAL_BINARY_COMPARATOR;
 
-    private final Set<String> candidateKeys;
+    private final Binary[] candidateKeys;
 
-    RecordKeysFilterFunction(Set<String> candidateKeys) {
-      this.candidateKeys = candidateKeys;
+    // Index of the first candidate greater than or equal to the last key
+    private int position;
+
+    RecordKeyCandidatesPredicate(Set<String> candidateKeys) {
+      this.candidateKeys = candidateKeys.stream().map(Binary::fromString).sorted(COMPARATOR).toArray(Binary[]::new);
+    }
+
+    @Override
+    public boolean keep(Binary recordKey) {
+      if (recordKey == null) {
+        return false;
+      }
+      if (position == 0 || COMPARATOR.compare(candidateKeys[position - 1], recordKey) < 0) {
+        // The key does not come before the last one, look for it from the last position
+        if (position < candidateKeys.length && COMPARATOR.compare(candidateKeys[position], recordKey) < 0) {
+          position = lowerBound(recordKey, position + 1, candidateKeys.length);
+        }
+      } else {
+        position = lowerBound(recordKey, 0, position - 1);
+      }
+      return position < candidateKeys.length && candidateKeys[position].equals(recordKey);
     }
 
     @Override
-    public Boolean apply(String recordKey) {
-      return candidateKeys.contains(recordKey);
+    public boolean canDrop(org.apache.parquet.filter2.predicate.Statistics<Binary> statistics) {
+      if (statistics.getMin() == null || statistics.getMax() == null) {
+        return false;
+      }
+      int index = lowerBound(statistics.getMin(), 0, candidateKeys.length);
+      return index == candidateKeys.length || COMPARATOR.compare(candidateKeys[index], statistics.getMax()) > 0;
+    }
+
+    @Override
+    public boolean inverseCanDrop(org.apache.parquet.filter2.predicate.Statistics<Binary> statistics) {
+      return false;
+    }
+
+    /**
+     * Returns the index of the first candidate greater than or equal to the key within [from, to), or to.
+     */
+    private int lowerBound(Binary key, int from, int to) {
+      int low = from;
+      int high = to;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (COMPARATOR.compare(candidateKeys[mid], key) < 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
     }
   }
 }
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * An interface to serialize the values spilled to disk by the spillable maps.
+ *
+ * @param <T>
+ */
+public interface SpillSerializer<T> extends Serializable {
+
+  /**
+   * Serializes the value into the bytes written to disk.
+   */
+  byte[] serialize(T t) throws IOException;
+
+  /**
+   * Deserializes a value from the bytes read from disk.
+   */
+  T deserialize(byte[] bytes);
+}
@@ -20,7 +20,9 @@ package org.apache.hudi.common.util.collection;
 
 import org.apache.hudi.common.fs.SizeAwareDataOutputStream;
 import org.apache.hudi.common.util.BufferedRandomAccessFile;
+import org.apache.hudi.common.util.DefaultSpillSerializer;
 import org.apache.hudi.common.util.SerializationUtils;
+import org.apache.hudi.common.util.SpillSerializer;
 import org.apache.hudi.common.util.SpillableMapUtils;
 import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.exception.HoodieIOException;
@@ -50,15 +52,19 @@ import java.util.stream.Stream;
 
 /**
  * This class provides a disk spillable only map implementation. All of the data is currenly written to one file,
- * without any rollover support. It uses the following : 1) An in-memory map that tracks the key-> latest ValueMetadata.
- * 2) Current position in the file NOTE : Only String.class type supported for Key
+ * without any rollover support. It uses the following : 1) An in-memory map that tracks the key-> latest ValueMetadata,
+ * either a {@link ConcurrentHashMap} or a compact {@link PrimitiveValueMetadataMap}. 2) Current position in the file
+ * 3) A {@link SpillSerializer} to convert the values to and from the bytes written to the file
+ * NOTE : Only String.class type supported for Key
  */
-public final class DiskBasedMap<T extends Serializable, R extends Serializable> implements Map<T, R>, Iterable<R> {
+public final class DiskBasedMap<T extends Serializable, R extends Serializable> implements DiskMap<T, R> {
 
   public static final int BUFFER_SIZE = 128 * 1024;  // 128 KB
   private static final Logger LOG = LogManager.getLogger(DiskBasedMap.class);
   // Stores the key and corresponding value's latest metadata spilled to disk
   private final Map<T, ValueMetadata> valueMetadataMap;
+  // Serializer for the values spilled to disk
+  private final SpillSerializer<R> valueSerializer;
   // Write only file
   private File writeOnlyFile;
   // Write only OutputStream to be able to ONLY append to the file
@@ -77,9 +83,24 @@ public final class DiskBasedMap<T extends Serializable, R extends Serializable>
   private transient Thread shutdownThread = null;
 
   public DiskBasedMap(String baseFilePath) throws IOException {
-    this.valueMetadataMap = new ConcurrentHashMap<>();
+    this(baseFilePath, false);
+  }
+
+  public DiskBasedMap(String baseFilePath, boolean isCompactKeyIndexEnabled) throws IOException {
+    this(baseFilePath, isCompactKeyIndexEnabled, new DefaultSpillSerializer<>());
+  }
+
+  /**
+   * @param baseFilePath directory to spill to
+   * @param isCompactKeyIndexEnabled whether to track the spilled values with a {@link PrimitiveValueMetadataMap}
+   *                                 instead of a {@link ConcurrentHashMap}
+   * @param valueSerializer serializer for the values spilled to disk
+   */
+  public DiskBasedMap(String baseFilePath, boolean isCompactKeyIndexEnabled, SpillSerializer<R> valueSerializer) throws IOException {
     this.writeOnlyFile = new File(baseFilePath, UUID.randomUUID().toString());
     this.filePath = writeOnlyFile.getPath();
+    this.valueMetadataMap = isCompactKeyIndexEnabled ? new PrimitiveValueMetadataMap<>(filePath) : new ConcurrentHashMap<>();
+    this.valueSerializer = valueSerializer;
     initFile(writeOnlyFile);
     this.fileOutputStream = new FileOutputStream(writeOnlyFile, true);
     this.writeOnlyFileHandle = new SizeAwareDataOutputStream(fileOutputStream, BUFFER_SIZE);
@@ -145,12 +166,13 @@ public final class DiskBasedMap<T extends Serializable, R extends Serializable>
    */
   @Override
   public Iterator<R> iterator() {
-    return new LazyFileIterable(filePath, valueMetadataMap).iterator();
+    return new LazyFileIterable<>(filePath, valueMetadataMap, valueSerializer).iterator();
   }
 
   /**
    * Number of bytes spilled to disk.
    */
+  @Override
   public long sizeOfFileOnDiskInBytes() {
     return filePosition.get();
   }
@@ -185,12 +207,16 @@ public final class DiskBasedMap<T extends Serializable, R extends Serializable>
   }
 
   private R get(ValueMetadata entry) {
-    return get(entry, getRandomAccessFile());
+    return get(entry, getRandomAccessFile(), valueSerializer);
   }
 
   public static <R> R get(ValueMetadata entry, RandomAccessFile file) {
+    return get(entry, file, new DefaultSpillSerializer<>());
+  }
+
+  public static <R> R get(ValueMetadata entry, RandomAccessFile file, SpillSerializer<R> valueSerializer) {
     try {
-      return SerializationUtils
+      return valueSerializer
           .deserialize(SpillableMapUtils.readBytesFromDisk(file, entry.getOffsetOfValue(), entry.getSizeOfValue()));
     } catch (IOException e) {
       throw new HoodieIOException("Unable to readFromDisk Hoodie Record from disk", e);
@@ -199,7 +225,7 @@ public final class DiskBasedMap<T extends Serializable, R extends Serializable>
 
   private synchronized R put(T key, R value, boolean flush) {
     try {
-      byte[] val = SerializationUtils.serialize(value);
+      byte[] val = valueSerializer.serialize(value);
       Integer valueSize = val.length;
       Long timestamp = System.currentTimeMillis();
       this.valueMetadataMap.put(key,
@@ -244,6 +270,7 @@ public final class DiskBasedMap<T extends Serializable, R extends Serializable>
     // reducing concurrency). Instead, just clear the pointer map. The file will be removed on exit.
   }
 
+  @Override
   public void close() {
     cleanup();
     if (shutdownThread != null) {
@@ -287,9 +314,10 @@ public final class DiskBasedMap<T extends Serializable, R extends Serializable>
     throw new HoodieException("Unsupported Operation Exception");
   }
 
+  @Override
   public Stream<R> valueStream() {
     final BufferedRandomAccessFile file = getRandomAccessFile();
-    return valueMetadataMap.values().stream().sorted().sequential().map(valueMetaData -> (R) get(valueMetaData, file));
+    return valueMetadataMap.values().stream().sorted().sequential().map(valueMetaData -> get(valueMetaData, file, valueSerializer));
   }
 
   @Override
@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.collection;
+
+import org.apache.hudi.common.util.ObjectSizeCalculator;
+import org.apache.hudi.common.util.SizeEstimator;
+import org.apache.hudi.common.util.SpillSerializer;
+import org.apache.hudi.exception.HoodieIOException;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Sorts records which may not fit in memory.
+ * <p>
+ * The records are buffered in memory until the buffer reaches {@code maxInMemorySizeInBytes}, then the buffer is sorted
+ * and spilled to disk as a sorted run. All the runs are appended to the same spill file. The sorted records are handed
+ * back by a k-way merge of the runs, reading each run sequentially. At most {@code maxFanIn} runs are merged at once:
+ * while there are more runs, groups of runs are merged into longer runs written to a new spill file. The memory used
+ * and the files opened are thus bounded by the size of the buffer and the fan-in, whatever the number of records.
+ * <p>
+ * The sort is stable: records which compare equal are handed back in the order they were added.
+ */
+public class ExternalSorter<R extends Serializable> implements Closeable {
+
+  private static final Logger LOG = LogManager.getLogger(ExternalSorter.class);
+
+  // Find the actual estimated record size after buffering N records
+  private static final int NUMBER_OF_RECORDS_TO_ESTIMATE_RECORD_SIZE = 100;
+  private static final int BUFFER_SIZE = 128 * 1024;
+  public static final int DEFAULT_MAX_FAN_IN = 32;
+
+  // maximum space allowed in-memory for the buffered records
+  private final long maxInMemorySizeInBytes;
+  private final String spillDirectory;
+  private final Comparator<R> comparator;
+  private final SizeEstimator<R> sizeEstimator;
+  private final SpillSerializer<R> serializer;
+  // maximum number of runs merged at once
+  private final int maxFanIn;
+  private List<R> buffer = new ArrayList<>();
+  // current space occupied by the buffered records
+  private long currentInMemorySize = 0;
+  // An estimate of the size of each record, re-estimated once over the first buffered records
+  private long estimatedRecordSize = 0;
+  private boolean shouldEstimateRecordSize = true;
+  private File spillFile;
+  private DataOutputStream spillOutputStream;
+  private long spillFileSize = 0;
+  // Offset in the spill file and number of records of the spilled runs
+  private List<Pair<Long, Long>> spilledRuns = new ArrayList<>();
+  private int numMergePasses = 0;
+  private final List<DataInputStream> openedRunStreams = new ArrayList<>();
+  private boolean sorted = false;
+
+  public ExternalSorter(long maxInMemorySizeInBytes, String spillDirectory, Comparator<R> comparator,
+                        SizeEstimator<R> sizeEstimator, SpillSerializer<R> serializer) {
+    this(maxInMemorySizeInBytes, spillDirectory, comparator, sizeEstimator, serializer, DEFAULT_MAX_FAN_IN);
+  }
+
+  public ExternalSorter(long maxInMemorySizeInBytes, String spillDirectory, Comparator<R> comparator,
+                        SizeEstimator<R> sizeEstimator, SpillSerializer<R> serializer, int maxFanIn) {
+    if (maxFanIn < 2) {
+      throw new IllegalArgumentException("At least 2 runs must be merged at once, got " + maxFanIn);
+    }
+    this.maxFanIn = maxFanIn;
+    this.maxInMemorySizeInBytes = maxInMemorySizeInBytes;
+    this.spillDirectory = spillDirectory;
+    this.comparator = comparator;
+    this.sizeEstimator = sizeEstimator;
+    this.serializer = serializer;
+  }
+
+  public void add(R record) {
+    if (sorted) {
+      throw new IllegalStateException("Records can not be added once sorted");
+    }
+    if (shouldEstimateRecordSize && estimatedRecordSize == 0) {
+      // At first, use the size estimate of the record being added
+      estimatedRecordSize = sizeEstimator.sizeEstimate(record);
+      LOG.info("Estimated record size => " + estimatedRecordSize);
+    } else if (shouldEstimateRecordSize && buffer.size() == NUMBER_OF_RECORDS_TO_ESTIMATE_RECORD_SIZE) {
+      // Re-estimate the size of a record from the size of the N buffered records
+      currentInMemorySize = ObjectSizeCalculator.getObjectSize(buffer);
+      estimatedRecordSize = Math.max(1, currentInMemorySize / buffer.size());
+      shouldEstimateRecordSize = false;
+      LOG.info("New estimated record size => " + estimatedRecordSize);
+    }
+    buffer.add(record);
+    currentInMemorySize += estimatedRecordSize;
+    if (currentInMemorySize >= maxInMemorySizeInBytes) {
+      spill();
+    }
+  }
+
+  /**
+   * @return an iterator over all the added records, sorted. No record can be added afterwards.
+   */
+  public Iterator<R> sortedIterator() {
+    if (sorted) {
+      throw new IllegalStateException("Records can only be sorted once");
+    }
+    sorted = true;
+    buffer.sort(comparator);
+    if (spilledRuns.isEmpty()) {
+      return buffer.iterator();
+    }
+    try {
+      spillOutputStream.close();
+      spillOutputStream = null;
+      // the records still buffered are merged along with the spilled runs, as the latest run
+      while (spilledRuns.size() + 1 > maxFanIn) {
+        mergeRuns();
+      }
+      List<Iterator<R>> runs = openRuns(spilledRuns);
+      runs.add(buffer.iterator());
+      return new MergingIterator(runs);
+    } catch (IOException e) {
+      throw new HoodieIOException("Failed to read the runs spilled to " + spillFile, e);
+    }
+  }
+
+  /**
+   * Merges the spilled runs by groups of {@code maxFanIn} runs, into a new spill file.
+   */
+  private void mergeRuns() throws IOException {
+    File mergedSpillFile = newSpillFile();
+    List<Pair<Long, Long>> mergedRuns = new ArrayList<>();
+    long mergedSpillFileSize = 0;
+    try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(mergedSpillFile), BUFFER_SIZE))) {
+      for (int i = 0; i < spilledRuns.size(); i += maxFanIn) {
+        List<Pair<Long, Long>> runsToMerge = spilledRuns.subList(i, Math.min(i + maxFanIn, spilledRuns.size()));
+        MergingIterator mergingIterator = new MergingIterator(openRuns(runsToMerge));
+        long offset = mergedSpillFileSize;
+        long numRecords = 0;
+        while (mergingIterator.hasNext()) {
+          mergedSpillFileSize += write(outputStream, mergingIterator.next());
+          numRecords++;
+        }
+        mergedRuns.add(Pair.of(offset, numRecords));
+        closeOpenedRuns();
+      }
+    }
+    LOG.info("Merged " + spilledRuns.size() + " runs into " + mergedRuns.size() + " runs, spill file size => " + mergedSpillFileSize);
+    spillFile.delete();
+    spillFile = mergedSpillFile;
+    spillFileSize = mergedSpillFileSize;
+    spilledRuns = mergedRuns;
+    numMergePasses++;
+  }
+
+  private List<Iterator<R>> openRuns(List<Pair<Long, Long>> runs) throws IOException {
+    List<Iterator<R>> runIterators = new ArrayList<>();
+    for (Pair<Long, Long> run : runs) {
+      runIterators.add(new SpilledRunIterator(spillFile, run.getKey(), run.getValue()));
+    }
+    return runIterators;
+  }
+
+  private void closeOpenedRuns() throws IOException {
+    for (DataInputStream runStream : openedRunStreams) {
+      runStream.close();
+    }
+    openedRunStreams.clear();
+  }
+
+  private File newSpillFile() {
+    File file = new File(spillDirectory, "external-sort-" + UUID.randomUUID());
+    if (!file.getParentFile().exists()) {
+      file.getParentFile().mkdirs();
+    }
+    // Make sure file is deleted when JVM exits
+    file.deleteOnExit();
+    return file;
+  }
+
+  private int write(DataOutputStream outputStream, R record) throws IOException {
+    byte[] bytes = serializer.serialize(record);
+    outputStream.writeInt(bytes.length);
+    outputStream.write(bytes);
+    return Integer.BYTES + bytes.length;
+  }
+
+  public int getNumSpilledRuns() {
+    return spilledRuns.size();
+  }
+
+  public int getNumMergePasses() {
+    return numMergePasses;
+  }
+
+  /**
+   * Sorts the buffered records and appends them to the spill file as a new run.
+   */
+  private void spill() {
+    buffer.sort(comparator);
+    try {
+      if (spillFile == null) {
+        spillFile = newSpillFile();
+        spillOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile), BUFFER_SIZE));
+      }
+      spilledRuns.add(Pair.of(spillFileSize, (long) buffer.size()));
+      for (R record : buffer) {
+        spillFileSize += write(spillOutputStream, record);
+      }
+      LOG.info("Spilled a run of " + buffer.size() + " records to " + spillFile + ", spill file size => " + spillFileSize);
+    } catch (IOException e) {
+      throw new HoodieIOException("Failed to spill records to " + spillFile, e);
+    }
+    buffer = new ArrayList<>();
+    currentInMemorySize = 0;
+  }
+
+  @Override
+  public void close() {
+    buffer = new ArrayList<>();
+    try {
+      if (spillOutputStream != null) {
+        spillOutputStream.close();
+        spillOutputStream = null;
+      }
+      closeOpenedRuns();
+    } catch (IOException e) {
+      throw new HoodieIOException("Failed to close the spill file " + spillFile, e);
+    } finally {
+      if (spillFile != null) {
+        spillFile.delete();
+      }
+    }
+  }
+
+  /**
+   * Iterator reading a run of the spill file sequentially.
+   */
+  private class SpilledRunIterator implements Iterator<R> {
+
+    private final File file;
+    private final DataInputStream inputStream;
+    private long remainingRecords;
+
+    SpilledRunIterator(File file, long offset, long numRecords) throws IOException {
+      this.file = file;
+      FileInputStream fileInputStream = new FileInputStream(file);
+      fileInputStream.getChannel().position(offset);
+      this.inputStream = new DataInputStream(new BufferedInputStream(fileInputStream, BUFFER_SIZE));
+      this.remainingRecords = numRecords;
+      openedRunStreams.add(inputStream);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return remainingRecords > 0;
+    }
+
+    @Override
+    public R next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      try {
+        byte[] bytes = new byte[inputStream.readInt()];
+        inputStream.readFully(bytes);
+        remainingRecords--;
+        return serializer.deserialize(bytes);
+      } catch (IOException e) {
+        throw new HoodieIOException("Failed to read records spilled to " + file, e);
+      }
+    }
+  }
+
+  /**
+   * Iterator merging sorted runs, handing back the records of the earlier runs first among equal records.
+   */
+  private class MergingIterator implements Iterator<R> {
+
+    // Next record of each run which is not exhausted, along with the index of the run
+    private final PriorityQueue<Pair<R, Integer>> heads;
+    private final List<Iterator<R>> runs;
+
+    MergingIterator(List<Iterator<R>> runs) {
+      this.runs = runs;
+      this.heads = new PriorityQueue<>(Math.max(1, runs.size()), (head1, head2) -> {
+        int compare = comparator.compare(head1.getKey(), head2.getKey());
+        return compare != 0 ? compare : Integer.compare(head1.getValue(), head2.getValue());
+      });
+      for (int i = 0; i < runs.size(); i++) {
+        if (runs.get(i).hasNext()) {
+          heads.add(Pair.of(runs.get(i).next(), i));
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heads.isEmpty();
+    }
+
+    @Override
+    public R next() {
+      Pair<R, Integer> head = heads.poll();
+      if (head == null) {
+        throw new NoSuchElementException();
+      }
+      Iterator<R> run = runs.get(head.getValue());
+      if (run.hasNext()) {
+        heads.add(Pair.of(run.next(), head.getValue()));
+      }
+      return head.getKey();
+    }
+  }
+}
@@ -18,8 +18,10 @@
 
 package org.apache.hudi.common.util.collection;
 
+import org.apache.hudi.common.util.DefaultSpillSerializer;
 import org.apache.hudi.common.util.ObjectSizeCalculator;
 import org.apache.hudi.common.util.SizeEstimator;
+import org.apache.hudi.common.util.SpillSerializer;
 import org.apache.hudi.exception.HoodieIOException;
 
 import org.apache.log4j.LogManager;
@@ -62,7 +64,7 @@ public class ExternalSpillableMap<T extends Serializable, R extends Serializable
   // Map to store key-values in memory until it hits maxInMemorySizeInBytes
   private final Map<T, R> inMemoryMap;
   // Map to store key-valuemetadata important to find the values spilled to disk
-  private transient volatile DiskBasedMap<T, R> diskBasedMap;
+  private transient volatile DiskMap<T, R> diskBasedMap;
   // TODO(na) : a dynamic sizing factor to ensure we have space for other objects in memory and
   // incorrect payload estimation
   private final Double sizingFactorForInMemoryMap = 0.8;
@@ -78,24 +80,60 @@ public class ExternalSpillableMap<T extends Serializable, R extends Serializable
   private boolean shouldEstimatePayloadSize = true;
   // Base File Path
   private final String baseFilePath;
+  // Type of the map used to hold the entries spilled to disk
+  private final DiskMapType diskMapType;
+  // Whether the BITCASK disk map tracks spilled values with a compact primitive key index
+  private final boolean isCompactKeyIndexEnabled;
+  // Serializer for the values spilled to disk
+  private final SpillSerializer<R> valueSerializer;
 
   public ExternalSpillableMap(Long maxInMemorySizeInBytes, String baseFilePath, SizeEstimator<T> keySizeEstimator,
       SizeEstimator<R> valueSizeEstimator) throws IOException {
+    this(maxInMemorySizeInBytes, baseFilePath, keySizeEstimator, valueSizeEstimator, DiskMapType.BITCASK);
+  }
+
+  public ExternalSpillableMap(Long maxInMemorySizeInBytes, String baseFilePath, SizeEstimator<T> keySizeEstimator,
+      SizeEstimator<R> valueSizeEstimator, DiskMapType diskMapType) throws IOException {
+    this(maxInMemorySizeInBytes, baseFilePath, keySizeEstimator, valueSizeEstimator, diskMapType, false);
+  }
+
+  public ExternalSpillableMap(Long maxInMemorySizeInBytes, String baseFilePath, SizeEstimator<T> keySizeEstimator,
+      SizeEstimator<R> valueSizeEstimator, DiskMapType diskMapType, boolean isCompactKeyIndexEnabled) throws IOException {
+    this(maxInMemorySizeInBytes, baseFilePath, keySizeEstimator, valueSizeEstimator, diskMapType, isCompactKeyIndexEnabled,
+        new DefaultSpillSerializer<>());
+  }
+
+  public ExternalSpillableMap(Long maxInMemorySizeInBytes, String baseFilePath, SizeEstimator<T> keySizeEstimator,
+      SizeEstimator<R> valueSizeEstimator, DiskMapType diskMapType, boolean isCompactKeyIndexEnabled,
+      SpillSerializer<R> valueSerializer) throws IOException {
     this.inMemoryMap = new HashMap<>();
     this.baseFilePath = baseFilePath;
-    this.diskBasedMap = new DiskBasedMap<>(baseFilePath);
+    this.diskMapType = diskMapType;
+    this.isCompactKeyIndexEnabled = isCompactKeyIndexEnabled;
+    this.valueSerializer = valueSerializer;
+    this.diskBasedMap = createDiskMap();
     this.maxInMemorySizeInBytes = (long) Math.floor(maxInMemorySizeInBytes * sizingFactorForInMemoryMap);
     this.currentInMemoryMapSize = 0L;
     this.keySizeEstimator = keySizeEstimator;
     this.valueSizeEstimator = valueSizeEstimator;
   }
 
-  private DiskBasedMap<T, R> getDiskBasedMap() {
+  private DiskMap<T, R> createDiskMap() throws IOException {
+    switch (diskMapType) {
+      case MEMORY_MAPPED:
+        return new MemoryMappedDiskMap<>(baseFilePath, MemoryMappedDiskMap.DEFAULT_SEGMENT_SIZE, valueSerializer);
+      case BITCASK:
+      default:
+        return new DiskBasedMap<>(baseFilePath, isCompactKeyIndexEnabled, valueSerializer);
+    }
+  }
+
+  private DiskMap<T, R> getDiskBasedMap() {
     if (null == diskBasedMap) {
       synchronized (this) {
         if (null == diskBasedMap) {
           try {
-            diskBasedMap = new DiskBasedMap<>(baseFilePath);
+            diskBasedMap = createDiskMap();
           } catch (IOException e) {
             throw new HoodieIOException(e.getMessage(), e);
           }
@@ -164,10 +202,9 @@ public class ExternalSpillableMap<T extends Serializable, R extends Serializable
   public R get(Object key) {
     if (inMemoryMap.containsKey(key)) {
       return inMemoryMap.get(key);
-    } else if (getDiskBasedMap().containsKey(key)) {
-      return getDiskBasedMap().get(key);
     }
-    return null;
+    // disk maps return null for absent keys, avoid probing the disk map twice
+    return getDiskBasedMap().get(key);
   }
 
   @Override
@@ -259,6 +296,19 @@ public class ExternalSpillableMap<T extends Serializable, R extends Serializable
     return entrySet;
   }
 
+  /**
+   * The type of map used to hold the entries spilled to disk.
+   * <p>
+   * BITCASK : {@link DiskBasedMap}, appends to a single file and keeps the key -> value metadata map on heap.
+   * <p>
+   * MEMORY_MAPPED : {@link MemoryMappedDiskMap}, appends to memory-mapped segment files and keeps the key -> position
+   * index off-heap.
+   */
+  public enum DiskMapType {
+    BITCASK,
+    MEMORY_MAPPED
+  }
+
   /**
    * Iterator that wraps iterating over all the values for this map 1) inMemoryIterator - Iterates over all the data
    * in-memory map 2) diskLazyFileIterator - Iterates over all the data spilled to disk.
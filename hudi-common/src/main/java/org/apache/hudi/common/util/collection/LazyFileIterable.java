@@ -19,6 +19,8 @@
 package org.apache.hudi.common.util.collection;
 
 import org.apache.hudi.common.util.BufferedRandomAccessFile;
+import org.apache.hudi.common.util.DefaultSpillSerializer;
+import org.apache.hudi.common.util.SpillSerializer;
 import org.apache.hudi.exception.HoodieException;
 
 import java.io.IOException;
@@ -37,18 +39,25 @@ public class LazyFileIterable<T, R> implements Iterable<R> {
   private final String filePath;
   // Stores the key and corresponding value's latest metadata spilled to disk
   private final Map<T, DiskBasedMap.ValueMetadata> inMemoryMetadataOfSpilledData;
+  // Used to deserialize the values read from the file
+  private final SpillSerializer<R> valueSerializer;
 
   private transient Thread shutdownThread = null;
 
   public LazyFileIterable(String filePath, Map<T, DiskBasedMap.ValueMetadata> map) {
+    this(filePath, map, new DefaultSpillSerializer<>());
+  }
+
+  public LazyFileIterable(String filePath, Map<T, DiskBasedMap.ValueMetadata> map, SpillSerializer<R> valueSerializer) {
     this.filePath = filePath;
     this.inMemoryMetadataOfSpilledData = map;
+    this.valueSerializer = valueSerializer;
   }
 
   @Override
   public Iterator<R> iterator() {
     try {
-      return new LazyFileIterator<>(filePath, inMemoryMetadataOfSpilledData);
+      return new LazyFileIterator<>(filePath, inMemoryMetadataOfSpilledData, valueSerializer);
     } catch (IOException io) {
       throw new HoodieException("Unable to initialize iterator for file on disk", io);
     }
@@ -62,9 +71,11 @@ public class LazyFileIterable<T, R> implements Iterable<R> {
     private final String filePath;
     private BufferedRandomAccessFile readOnlyFileHandle;
     private final Iterator<Map.Entry<T, DiskBasedMap.ValueMetadata>> metadataIterator;
+    private final SpillSerializer<R> valueSerializer;
 
-    public LazyFileIterator(String filePath, Map<T, DiskBasedMap.ValueMetadata> map) throws IOException {
+    public LazyFileIterator(String filePath, Map<T, DiskBasedMap.ValueMetadata> map, SpillSerializer<R> valueSerializer) throws IOException {
       this.filePath = filePath;
+      this.valueSerializer = valueSerializer;
       this.readOnlyFileHandle = new BufferedRandomAccessFile(filePath, "r", DiskBasedMap.BUFFER_SIZE);
       readOnlyFileHandle.seek(0);
 
@@ -91,7 +102,7 @@ public class LazyFileIterable<T, R> implements Iterable<R> {
         throw new IllegalStateException("next() called on EOF'ed stream. File :" + filePath);
       }
       Map.Entry<T, DiskBasedMap.ValueMetadata> entry = this.metadataIterator.next();
-      return DiskBasedMap.get(entry.getValue(), readOnlyFileHandle);
+      return DiskBasedMap.get(entry.getValue(), readOnlyFileHandle, valueSerializer);
     }
 
     @Override
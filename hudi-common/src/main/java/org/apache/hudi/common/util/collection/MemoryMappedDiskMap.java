@@ -0,0 +1,519 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.collection;
+
+import org.apache.hudi.common.util.DefaultSpillSerializer;
+import org.apache.hudi.common.util.SerializationUtils;
+import org.apache.hudi.common.util.SpillSerializer;
+import org.apache.hudi.exception.HoodieException;
+import org.apache.hudi.exception.HoodieIOException;
+import org.apache.hudi.exception.HoodieNotSupportedException;
+
+import org.apache.hadoop.io.nativeio.NativeIO;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * A {@link DiskMap} that appends entries to memory-mapped segment files and keeps the key -> position index in
+ * off-heap memory. Lookups are served from the page cache without any seek or read syscall, and the index does not
+ * grow the JVM heap however many entries are spilled.
+ * <p>
+ * Every entry is appended to the current segment with the following layout : |sizeOfKey|sizeOfValue|key|value|. An
+ * entry never spans two segments, a new segment is mapped once the current one cannot hold the next entry.
+ * <p>
+ * The index is an open addressing hash table with linear probing allocated in direct memory. Every slot holds
+ * |hash|address| where the address encodes the segment number (high 32 bits) and the offset of the entry within that
+ * segment (low 32 bits). Keys are compared using their serialized bytes stored next to the value.
+ * <p>
+ * NOTE : As with {@link DiskBasedMap}, values are only appended. A remove() drops the key from the index but the
+ * value lies around in the segment until the map is closed.
+ */
+public final class MemoryMappedDiskMap<T extends Serializable, R extends Serializable> implements DiskMap<T, R> {
+
+  // Default size of a memory-mapped segment file
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024; // 64 MB
+  private static final Logger LOG = LogManager.getLogger(MemoryMappedDiskMap.class);
+  // |sizeOfKey|sizeOfValue|
+  private static final int ENTRY_HEADER_SIZE = Integer.BYTES * 2;
+  // |hash|address + 1|, an address of 0 marks an empty slot
+  private static final int SLOT_SIZE = Integer.BYTES + Long.BYTES;
+  private static final int INITIAL_INDEX_CAPACITY = 1 << 12;
+  // Largest power of two for which the index still fits into a single direct buffer
+  private static final int MAX_INDEX_CAPACITY = 1 << 27;
+  private static final double MAX_INDEX_LOAD_FACTOR = 0.7;
+  private static final long EMPTY_SLOT = 0L;
+  private static final long REMOVED_SLOT = -1L;
+
+  // Directory holding all the segment files of this map
+  private final File segmentDir;
+  private final int segmentSize;
+  // Serializer for the values appended to the segments, keys always use the generic serialization
+  private final SpillSerializer<R> valueSerializer;
+  private final List<MappedByteBuffer> segments = new ArrayList<>();
+  private final List<File> segmentFiles = new ArrayList<>();
+  // Write position within the last segment
+  private int segmentPosition;
+  // Number of bytes appended to all the segments
+  private long spilledBytes;
+  // Off-heap key -> address index
+  private ByteBuffer index;
+  private int indexCapacity;
+  private int numEntries;
+  private int numRemovedSlots;
+  // Puts and removes mutate the index and the segments, gets may run concurrently
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private transient Thread shutdownThread = null;
+
+  public MemoryMappedDiskMap(String baseFilePath) throws IOException {
+    this(baseFilePath, DEFAULT_SEGMENT_SIZE);
+  }
+
+  public MemoryMappedDiskMap(String baseFilePath, int segmentSize) throws IOException {
+    this(baseFilePath, segmentSize, new DefaultSpillSerializer<>());
+  }
+
+  public MemoryMappedDiskMap(String baseFilePath, int segmentSize, SpillSerializer<R> valueSerializer) throws IOException {
+    this.segmentSize = segmentSize;
+    this.valueSerializer = valueSerializer;
+    this.segmentDir = new File(baseFilePath, UUID.randomUUID().toString());
+    initDir(segmentDir);
+    allocateIndex(INITIAL_INDEX_CAPACITY);
+  }
+
+  private void initDir(File segmentDir) throws IOException {
+    if (!segmentDir.mkdirs()) {
+      throw new IOException("Unable to create directory " + segmentDir.getAbsolutePath());
+    }
+    LOG.info("Spilling to memory-mapped segments in " + segmentDir.getAbsolutePath() + " in host ("
+        + InetAddress.getLocalHost().getHostAddress() + ") with hostname (" + InetAddress.getLocalHost().getHostName()
+        + ")");
+    // Make sure the directory is deleted when JVM exits, files are registered later so they get deleted first
+    segmentDir.deleteOnExit();
+    shutdownThread = new Thread(this::cleanup);
+    Runtime.getRuntime().addShutdownHook(shutdownThread);
+  }
+
+  private void allocateIndex(int capacity) {
+    this.index = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+    this.indexCapacity = capacity;
+    this.numRemovedSlots = 0;
+  }
+
+  /**
+   * Maps a new segment able to hold at least {@code minSize} bytes.
+   */
+  private void mapNewSegment(int minSize) throws IOException {
+    File segmentFile = new File(segmentDir, "segment-" + segments.size());
+    segmentFile.deleteOnExit();
+    try (RandomAccessFile file = new RandomAccessFile(segmentFile, "rw")) {
+      // the mapping stays valid after the channel is closed
+      segments.add(file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, minSize)));
+    }
+    segmentFiles.add(segmentFile);
+    segmentPosition = 0;
+  }
+
+  /**
+   * Appends the entry to the tail of the current segment and returns its address.
+   */
+  private long append(byte[] key, byte[] value) throws IOException {
+    long entrySize = (long) ENTRY_HEADER_SIZE + key.length + value.length;
+    if (entrySize > Integer.MAX_VALUE) {
+      throw new HoodieIOException("Entry of " + entrySize + " bytes is too large for a memory-mapped segment");
+    }
+    if (segments.isEmpty() || segments.get(segments.size() - 1).capacity() - segmentPosition < entrySize) {
+      mapNewSegment((int) entrySize);
+    }
+    ByteBuffer buffer = segments.get(segments.size() - 1).duplicate();
+    buffer.position(segmentPosition);
+    buffer.putInt(key.length);
+    buffer.putInt(value.length);
+    buffer.put(key);
+    buffer.put(value);
+    long address = ((long) (segments.size() - 1) << 32) | segmentPosition;
+    segmentPosition += (int) entrySize;
+    spilledBytes += entrySize;
+    return address;
+  }
+
+  /**
+   * Hash of the key bytes for the open addressing tables of the spilled keys, also used by
+   * {@link PrimitiveValueMetadataMap}.
+   */
+  static int hash(byte[] key) {
+    // murmur3 finalizer, spreads the bits so that linear probing over a power of two table stays short
+    int h = Arrays.hashCode(key);
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  private int slotHash(int slot) {
+    return index.getInt(slot * SLOT_SIZE);
+  }
+
+  private long slotAddress(int slot) {
+    return index.getLong(slot * SLOT_SIZE + Integer.BYTES);
+  }
+
+  private void setSlot(int slot, int hash, long address) {
+    index.putInt(slot * SLOT_SIZE, hash);
+    index.putLong(slot * SLOT_SIZE + Integer.BYTES, address);
+  }
+
+  private static boolean isLive(long slotAddress) {
+    return slotAddress != EMPTY_SLOT && slotAddress != REMOVED_SLOT;
+  }
+
+  /**
+   * Returns the slot holding the given key, or -1 if the key is absent.
+   */
+  private int findSlot(byte[] key, int hash) {
+    int mask = indexCapacity - 1;
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      long address = slotAddress(slot);
+      if (address == EMPTY_SLOT) {
+        return -1;
+      }
+      if (address != REMOVED_SLOT && slotHash(slot) == hash && keyEquals(address - 1, key)) {
+        return slot;
+      }
+    }
+  }
+
+  private boolean keyEquals(long address, byte[] key) {
+    ByteBuffer segment = segments.get((int) (address >>> 32));
+    int offset = (int) address;
+    if (segment.getInt(offset) != key.length) {
+      return false;
+    }
+    int keyOffset = offset + ENTRY_HEADER_SIZE;
+    for (int i = 0; i < key.length; i++) {
+      if (segment.get(keyOffset + i) != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Segments are read under the read lock so that iterators never access a segment unmapped by close()
+  private byte[] readKey(long address) {
+    lock.readLock().lock();
+    try {
+      ByteBuffer segment = segments.get((int) (address >>> 32)).duplicate();
+      int offset = (int) address;
+      byte[] key = new byte[segment.getInt(offset)];
+      segment.position(offset + ENTRY_HEADER_SIZE);
+      segment.get(key);
+      return key;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private R readValue(long address) {
+    byte[] value;
+    lock.readLock().lock();
+    try {
+      ByteBuffer segment = segments.get((int) (address >>> 32)).duplicate();
+      int offset = (int) address;
+      int sizeOfKey = segment.getInt(offset);
+      value = new byte[segment.getInt(offset + Integer.BYTES)];
+      segment.position(offset + ENTRY_HEADER_SIZE + sizeOfKey);
+      segment.get(value);
+    } finally {
+      lock.readLock().unlock();
+    }
+    return valueSerializer.deserialize(value);
+  }
+
+  private void ensureIndexCapacity() {
+    if (numEntries + numRemovedSlots + 1 <= indexCapacity * MAX_INDEX_LOAD_FACTOR) {
+      return;
+    }
+    // grow when live entries dominate, otherwise rehashing at the same capacity is enough to purge removed slots
+    int newCapacity = numEntries + 1 > indexCapacity * MAX_INDEX_LOAD_FACTOR / 2 ? indexCapacity << 1 : indexCapacity;
+    if (newCapacity > MAX_INDEX_CAPACITY) {
+      throw new HoodieException("Off-heap index of memory-mapped disk map is full with " + numEntries + " entries");
+    }
+    ByteBuffer oldIndex = index;
+    int oldCapacity = indexCapacity;
+    allocateIndex(newCapacity);
+    int mask = newCapacity - 1;
+    for (int i = 0; i < oldCapacity; i++) {
+      long address = oldIndex.getLong(i * SLOT_SIZE + Integer.BYTES);
+      if (isLive(address)) {
+        int hash = oldIndex.getInt(i * SLOT_SIZE);
+        int slot = hash & mask;
+        while (slotAddress(slot) != EMPTY_SLOT) {
+          slot = (slot + 1) & mask;
+        }
+        setSlot(slot, hash, address);
+      }
+    }
+  }
+
+  /**
+   * Addresses of all the live entries in increasing order so disk access is only in one(forward) direction.
+   */
+  private long[] sortedAddresses() {
+    lock.readLock().lock();
+    try {
+      long[] addresses = new long[numEntries];
+      int count = 0;
+      for (int slot = 0; slot < indexCapacity; slot++) {
+        long address = slotAddress(slot);
+        if (isLive(address)) {
+          addresses[count++] = address - 1;
+        }
+      }
+      Arrays.sort(addresses);
+      return addresses;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static byte[] serialize(Object obj) {
+    try {
+      return SerializationUtils.serialize(obj);
+    } catch (IOException e) {
+      throw new HoodieIOException("Unable to serialize key for memory-mapped disk map", e);
+    }
+  }
+
+  @Override
+  public Iterator<R> iterator() {
+    final long[] addresses = sortedAddresses();
+    return new Iterator<R>() {
+      private int pos = 0;
+
+      @Override
+      public boolean hasNext() {
+        return pos < addresses.length;
+      }
+
+      @Override
+      public R next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException("No more values in memory-mapped disk map " + segmentDir);
+        }
+        return readValue(addresses[pos++]);
+      }
+    };
+  }
+
+  @Override
+  public Stream<R> valueStream() {
+    return Arrays.stream(sortedAddresses()).mapToObj(this::readValue);
+  }
+
+  @Override
+  public long sizeOfFileOnDiskInBytes() {
+    return spilledBytes;
+  }
+
+  @Override
+  public int size() {
+    return numEntries;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return numEntries == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    byte[] serializedKey = serialize(key);
+    lock.readLock().lock();
+    try {
+      return findSlot(serializedKey, hash(serializedKey)) >= 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    throw new HoodieNotSupportedException("unable to compare values in map");
+  }
+
+  @Override
+  public R get(Object key) {
+    byte[] serializedKey = serialize(key);
+    lock.readLock().lock();
+    try {
+      int slot = findSlot(serializedKey, hash(serializedKey));
+      return slot < 0 ? null : readValue(slotAddress(slot) - 1);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public R put(T key, R value) {
+    byte[] serializedKey = serialize(key);
+    byte[] serializedValue;
+    try {
+      serializedValue = valueSerializer.serialize(value);
+    } catch (IOException e) {
+      throw new HoodieIOException("Unable to serialize value for memory-mapped disk map", e);
+    }
+    int hash = hash(serializedKey);
+    lock.writeLock().lock();
+    try {
+      long address = append(serializedKey, serializedValue) + 1;
+      int slot = findSlot(serializedKey, hash);
+      if (slot >= 0) {
+        setSlot(slot, hash, address);
+        return value;
+      }
+      ensureIndexCapacity();
+      int mask = indexCapacity - 1;
+      slot = hash & mask;
+      while (isLive(slotAddress(slot))) {
+        slot = (slot + 1) & mask;
+      }
+      if (slotAddress(slot) == REMOVED_SLOT) {
+        numRemovedSlots--;
+      }
+      setSlot(slot, hash, address);
+      numEntries++;
+    } catch (IOException io) {
+      throw new HoodieIOException("Unable to store data in memory-mapped disk map", io);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return value;
+  }
+
+  @Override
+  public R remove(Object key) {
+    byte[] serializedKey = serialize(key);
+    lock.writeLock().lock();
+    try {
+      int slot = findSlot(serializedKey, hash(serializedKey));
+      if (slot < 0) {
+        return null;
+      }
+      R value = readValue(slotAddress(slot) - 1);
+      setSlot(slot, 0, REMOVED_SLOT);
+      numEntries--;
+      numRemovedSlots++;
+      return value;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void putAll(Map<? extends T, ? extends R> m) {
+    for (Map.Entry<? extends T, ? extends R> entry : m.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      // Segments are kept around like DiskBasedMap does, only the index is reset
+      allocateIndex(INITIAL_INDEX_CAPACITY);
+      numEntries = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+    cleanup();
+    if (shutdownThread != null) {
+      Runtime.getRuntime().removeShutdownHook(shutdownThread);
+    }
+  }
+
+  private void cleanup() {
+    lock.writeLock().lock();
+    try {
+      numEntries = 0;
+      index = null;
+      indexCapacity = 0;
+      // Unmap the segments right away, the disk space of the deleted files would otherwise only be released once the
+      // buffers are garbage collected
+      segments.forEach(NativeIO.POSIX::munmap);
+      segments.clear();
+      segmentFiles.forEach(File::delete);
+      segmentFiles.clear();
+      segmentDir.delete();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Set<T> keySet() {
+    Set<T> keySet = new HashSet<>();
+    for (long address : sortedAddresses()) {
+      keySet.add(SerializationUtils.deserialize(readKey(address)));
+    }
+    return keySet;
+  }
+
+  @Override
+  public Collection<R> values() {
+    throw new HoodieNotSupportedException("values() is not supported by the memory-mapped disk map, use iterator() or valueStream()");
+  }
+
+  @Override
+  public Set<Entry<T, R>> entrySet() {
+    Set<Entry<T, R>> entrySet = new HashSet<>();
+    for (long address : sortedAddresses()) {
+      entrySet.add(new AbstractMap.SimpleEntry<>(SerializationUtils.deserialize(readKey(address)), readValue(address)));
+    }
+    return entrySet;
+  }
+}
@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.collection;
+
+import org.apache.hudi.common.util.SerializationUtils;
+import org.apache.hudi.exception.HoodieException;
+import org.apache.hudi.exception.HoodieIOException;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A compact key index used by {@link DiskBasedMap} in place of a {@code ConcurrentHashMap<T, ValueMetadata>} to
+ * track the values spilled to disk.
+ * <p>
+ * Instead of a hash entry and a boxed {@link DiskBasedMap.ValueMetadata} per key, every entry is a row in a set of
+ * primitive arrays (hash, value offset, value size, key position and key length) and the key bytes are interned in an
+ * append-only arena of byte chunks. The hash table itself is an open addressing {@code int[]} of row ids with linear
+ * probing. String keys are stored as their UTF-8 bytes, any other key type is stored serialized.
+ * <p>
+ * {@link DiskBasedMap.ValueMetadata} instances are materialized on access. All the values live in the same file, so
+ * the file path is kept once. The write timestamp is not tracked.
+ * <p>
+ * NOTE : A remove() only drops the key from the hash table, the row and the key bytes are reclaimed on clear().
+ */
+public final class PrimitiveValueMetadataMap<T extends Serializable> extends AbstractMap<T, DiskBasedMap.ValueMetadata> {
+
+  private static final int ARENA_CHUNK_SIZE = 1024 * 1024; // 1 MB
+  private static final int INITIAL_CAPACITY = 1 << 10;
+  private static final int MAX_CAPACITY = 1 << 30;
+  private static final double MAX_LOAD_FACTOR = 0.7;
+  private static final int EMPTY_SLOT = -1;
+  private static final int REMOVED_SLOT = -2;
+
+  // All the values of a DiskBasedMap are written to the same file
+  private final String filePath;
+  // Open addressing table holding row ids
+  private int[] slots;
+  private int numRemovedSlots;
+  // Rows, indexed by row id
+  private int[] hashes;
+  private long[] valueOffsets;
+  private int[] valueSizes;
+  private long[] keyPositions;
+  private int[] keyLengths;
+  private int numRows;
+  // Number of live keys
+  private int size;
+  // Arena interning the key bytes, a key position encodes the chunk (high 32 bits) and the offset in it (low 32 bits)
+  private final List<byte[]> arena = new ArrayList<>();
+  private int arenaChunkPosition;
+  // Whether keys are strings stored as UTF-8, decided by the first key put into the map
+  private Boolean stringKeys;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  public PrimitiveValueMetadataMap(String filePath) {
+    this.filePath = filePath;
+    init();
+  }
+
+  private void init() {
+    this.slots = newSlots(INITIAL_CAPACITY);
+    this.numRemovedSlots = 0;
+    this.hashes = new int[INITIAL_CAPACITY];
+    this.valueOffsets = new long[INITIAL_CAPACITY];
+    this.valueSizes = new int[INITIAL_CAPACITY];
+    this.keyPositions = new long[INITIAL_CAPACITY];
+    this.keyLengths = new int[INITIAL_CAPACITY];
+    this.numRows = 0;
+    this.size = 0;
+    this.arena.clear();
+    this.arenaChunkPosition = 0;
+  }
+
+  private static int[] newSlots(int capacity) {
+    int[] newSlots = new int[capacity];
+    Arrays.fill(newSlots, EMPTY_SLOT);
+    return newSlots;
+  }
+
+  /**
+   * Returns the bytes stored for the given key, or null if the key can not be held by this map.
+   */
+  private byte[] encodeKey(Object key) {
+    boolean isString = key instanceof String;
+    if (stringKeys != null && stringKeys != isString) {
+      return null;
+    }
+    if (isString) {
+      return ((String) key).getBytes(StandardCharsets.UTF_8);
+    }
+    try {
+      return SerializationUtils.serialize(key);
+    } catch (IOException e) {
+      throw new HoodieIOException("Unable to serialize key " + key, e);
+    }
+  }
+
+  private T decodeKey(int row) {
+    byte[] chunk = arena.get((int) (keyPositions[row] >>> 32));
+    int offset = (int) keyPositions[row];
+    if (stringKeys) {
+      return (T) new String(chunk, offset, keyLengths[row], StandardCharsets.UTF_8);
+    }
+    return SerializationUtils.deserialize(Arrays.copyOfRange(chunk, offset, offset + keyLengths[row]));
+  }
+
+  private boolean keyEquals(int row, byte[] key) {
+    if (keyLengths[row] != key.length) {
+      return false;
+    }
+    byte[] chunk = arena.get((int) (keyPositions[row] >>> 32));
+    int offset = (int) keyPositions[row];
+    for (int i = 0; i < key.length; i++) {
+      if (chunk[offset + i] != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the row id holding the given key, or -1 if the key is absent.
+   */
+  private int findRow(byte[] key, int hash) {
+    int mask = slots.length - 1;
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      int row = slots[slot];
+      if (row == EMPTY_SLOT) {
+        return -1;
+      }
+      if (row != REMOVED_SLOT && hashes[row] == hash && keyEquals(row, key)) {
+        return row;
+      }
+    }
+  }
+
+  private long internKey(byte[] key) {
+    if (arena.isEmpty() || arena.get(arena.size() - 1).length - arenaChunkPosition < key.length) {
+      arena.add(new byte[Math.max(ARENA_CHUNK_SIZE, key.length)]);
+      arenaChunkPosition = 0;
+    }
+    System.arraycopy(key, 0, arena.get(arena.size() - 1), arenaChunkPosition, key.length);
+    long position = ((long) (arena.size() - 1) << 32) | arenaChunkPosition;
+    arenaChunkPosition += key.length;
+    return position;
+  }
+
+  private void ensureRowCapacity() {
+    if (numRows < hashes.length) {
+      return;
+    }
+    int newLength = hashes.length << 1;
+    hashes = Arrays.copyOf(hashes, newLength);
+    valueOffsets = Arrays.copyOf(valueOffsets, newLength);
+    valueSizes = Arrays.copyOf(valueSizes, newLength);
+    keyPositions = Arrays.copyOf(keyPositions, newLength);
+    keyLengths = Arrays.copyOf(keyLengths, newLength);
+  }
+
+  private void ensureSlotCapacity() {
+    if (size + numRemovedSlots + 1 <= slots.length * MAX_LOAD_FACTOR) {
+      return;
+    }
+    // grow when live keys dominate, otherwise rehashing at the same capacity is enough to purge removed slots
+    int newCapacity = size + 1 > slots.length * MAX_LOAD_FACTOR / 2 ? slots.length << 1 : slots.length;
+    if (newCapacity > MAX_CAPACITY) {
+      throw new HoodieException("Key index is full with " + size + " entries");
+    }
+    int[] oldSlots = slots;
+    slots = newSlots(newCapacity);
+    numRemovedSlots = 0;
+    int mask = newCapacity - 1;
+    for (int row : oldSlots) {
+      if (row >= 0) {
+        int slot = hashes[row] & mask;
+        while (slots[slot] != EMPTY_SLOT) {
+          slot = (slot + 1) & mask;
+        }
+        slots[slot] = row;
+      }
+    }
+  }
+
+  private DiskBasedMap.ValueMetadata toValueMetadata(int row) {
+    return new DiskBasedMap.ValueMetadata(filePath, valueSizes[row], valueOffsets[row], 0L);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    byte[] keyBytes = encodeKey(key);
+    if (keyBytes == null) {
+      return false;
+    }
+    lock.readLock().lock();
+    try {
+      return findRow(keyBytes, MemoryMappedDiskMap.hash(keyBytes)) >= 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public DiskBasedMap.ValueMetadata get(Object key) {
+    byte[] keyBytes = encodeKey(key);
+    if (keyBytes == null) {
+      return null;
+    }
+    lock.readLock().lock();
+    try {
+      int row = findRow(keyBytes, MemoryMappedDiskMap.hash(keyBytes));
+      return row < 0 ? null : toValueMetadata(row);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public DiskBasedMap.ValueMetadata put(T key, DiskBasedMap.ValueMetadata value) {
+    byte[] keyBytes = encodeKey(key);
+    if (keyBytes == null) {
+      throw new HoodieException("Keys of type " + key.getClass().getName() + " can not be mixed with the keys in this map");
+    }
+    int hash = MemoryMappedDiskMap.hash(keyBytes);
+    lock.writeLock().lock();
+    try {
+      stringKeys = key instanceof String;
+      int row = findRow(keyBytes, hash);
+      DiskBasedMap.ValueMetadata previous = null;
+      if (row >= 0) {
+        previous = toValueMetadata(row);
+      } else {
+        ensureSlotCapacity();
+        ensureRowCapacity();
+        row = numRows++;
+        hashes[row] = hash;
+        keyPositions[row] = internKey(keyBytes);
+        keyLengths[row] = keyBytes.length;
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] >= 0) {
+          slot = (slot + 1) & mask;
+        }
+        if (slots[slot] == REMOVED_SLOT) {
+          numRemovedSlots--;
+        }
+        slots[slot] = row;
+        size++;
+      }
+      valueOffsets[row] = value.getOffsetOfValue();
+      valueSizes[row] = value.getSizeOfValue();
+      return previous;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public DiskBasedMap.ValueMetadata remove(Object key) {
+    byte[] keyBytes = encodeKey(key);
+    if (keyBytes == null) {
+      return null;
+    }
+    int hash = MemoryMappedDiskMap.hash(keyBytes);
+    lock.writeLock().lock();
+    try {
+      int mask = slots.length - 1;
+      for (int slot = hash & mask; slots[slot] != EMPTY_SLOT; slot = (slot + 1) & mask) {
+        int row = slots[slot];
+        if (row >= 0 && hashes[row] == hash && keyEquals(row, keyBytes)) {
+          slots[slot] = REMOVED_SLOT;
+          numRemovedSlots++;
+          size--;
+          return toValueMetadata(row);
+        }
+      }
+      return null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      init();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Set<T> keySet() {
+    lock.readLock().lock();
+    try {
+      Set<T> keys = new HashSet<>();
+      for (int row : slots) {
+        if (row >= 0) {
+          keys.add(decodeKey(row));
+        }
+      }
+      return keys;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Collection<DiskBasedMap.ValueMetadata> values() {
+    lock.readLock().lock();
+    try {
+      List<DiskBasedMap.ValueMetadata> values = new ArrayList<>(size);
+      for (int row : slots) {
+        if (row >= 0) {
+          values.add(toValueMetadata(row));
+        }
+      }
+      return values;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Set<Entry<T, DiskBasedMap.ValueMetadata>> entrySet() {
+    lock.readLock().lock();
+    try {
+      Set<Entry<T, DiskBasedMap.ValueMetadata>> entries = new HashSet<>();
+      for (int row : slots) {
+        if (row >= 0) {
+          entries.add(new SimpleImmutableEntry<>(decodeKey(row), toValueMetadata(row)));
+        }
+      }
+      return entries;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+}
@@ -18,8 +18,12 @@
 
 package org.apache.hudi.common.util.collection;
 
+import org.apache.hudi.common.util.DefaultSpillSerializer;
+import org.apache.hudi.common.util.SpillSerializer;
+import org.apache.hudi.exception.HoodieIOException;
 import org.apache.hudi.exception.HoodieNotSupportedException;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Iterator;
@@ -27,7 +31,8 @@ import java.util.Map;
 import java.util.Set;
 
 /**
- * A map's implementation based on RocksDB.
+ * A map's implementation based on RocksDB. Values are converted to bytes by a {@link SpillSerializer} before being
+ * stored.
  */
 public final class RocksDBBasedMap<K extends Serializable, R extends Serializable> implements Map<K, R> {
 
@@ -36,15 +41,21 @@ public final class RocksDBBasedMap<K extends Serializable, R extends Serializabl
   private final String rocksDbStoragePath;
   private RocksDBDAO rocksDBDAO;
   private final String columnFamilyName;
+  private final SpillSerializer<R> valueSerializer;
 
   public RocksDBBasedMap(String rocksDbStoragePath) {
+    this(rocksDbStoragePath, new DefaultSpillSerializer<>());
+  }
+
+  public RocksDBBasedMap(String rocksDbStoragePath, SpillSerializer<R> valueSerializer) {
     this.rocksDbStoragePath = rocksDbStoragePath;
     this.columnFamilyName = COL_FAMILY_NAME;
+    this.valueSerializer = valueSerializer;
   }
 
   @Override
   public int size() {
-    return (int) getRocksDBDAO().prefixSearch(columnFamilyName, "").count();
+    return (int) getRocksDBDAO().prefixSearchBytes(columnFamilyName, "").count();
   }
 
   @Override
@@ -55,7 +66,7 @@ public final class RocksDBBasedMap<K extends Serializable, R extends Serializabl
   @Override
   public boolean containsKey(Object key) {
     // Wont be able to store nulls as values
-    return getRocksDBDAO().get(columnFamilyName, key.toString()) != null;
+    return getRocksDBDAO().getBytes(columnFamilyName, (Serializable) key) != null;
   }
 
   @Override
@@ -65,25 +76,37 @@ public final class RocksDBBasedMap<K extends Serializable, R extends Serializabl
 
   @Override
   public R get(Object key) {
-    return getRocksDBDAO().get(columnFamilyName, (Serializable) key);
+    return deserialize(getRocksDBDAO().getBytes(columnFamilyName, (Serializable) key));
   }
 
   @Override
   public R put(K key, R value) {
-    getRocksDBDAO().put(columnFamilyName, key, value);
+    getRocksDBDAO().putBytes(columnFamilyName, key, serialize(value));
     return value;
   }
 
   @Override
   public R remove(Object key) {
-    R val = getRocksDBDAO().get(columnFamilyName, key.toString());
-    getRocksDBDAO().delete(columnFamilyName, key.toString());
+    R val = deserialize(getRocksDBDAO().getBytes(columnFamilyName, (Serializable) key));
+    getRocksDBDAO().delete(columnFamilyName, (Serializable) key);
     return val;
   }
 
   @Override
   public void putAll(Map<? extends K, ? extends R> m) {
-    getRocksDBDAO().writeBatch(batch -> m.forEach((key, value) -> getRocksDBDAO().putInBatch(batch, columnFamilyName, key, value)));
+    getRocksDBDAO().writeBatch(batch -> m.forEach((key, value) -> getRocksDBDAO().putBytesInBatch(batch, columnFamilyName, key, serialize(value))));
+  }
+
+  private byte[] serialize(R value) {
+    try {
+      return valueSerializer.serialize(value);
+    } catch (IOException e) {
+      throw new HoodieIOException("Unable to serialize value for RocksDB based map", e);
+    }
+  }
+
+  private R deserialize(byte[] bytes) {
+    return bytes == null ? null : valueSerializer.deserialize(bytes);
   }
 
   private RocksDBDAO getRocksDBDAO() {
@@ -118,6 +141,6 @@ public final class RocksDBBasedMap<K extends Serializable, R extends Serializabl
   }
 
   public Iterator<R> iterator() {
-    return getRocksDBDAO().prefixSearch(columnFamilyName, "").map(p -> (R) (p.getValue())).iterator();
+    return getRocksDBDAO().prefixSearchBytes(columnFamilyName, "").map(p -> deserialize(p.getValue())).iterator();
   }
 }
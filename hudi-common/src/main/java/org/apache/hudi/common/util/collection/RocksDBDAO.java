@@ -28,6 +28,7 @@ import org.apache.hudi.exception.HoodieIOException;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 import org.rocksdb.AbstractImmutableNativeReference;
+import org.rocksdb.Checkpoint;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
@@ -64,10 +65,28 @@ public class RocksDBDAO {
   private transient RocksDB rocksDB;
   private boolean closed = false;
   private final String rocksDBBasePath;
+  private final boolean persistent;
 
   public RocksDBDAO(String basePath, String rocksDBBasePath) {
-    this.rocksDBBasePath =
-        String.format("%s/%s/%s", rocksDBBasePath, basePath.replace("/", "_"), UUID.randomUUID().toString());
+    this(basePath, rocksDBBasePath, false);
+  }
+
+  /**
+   * Creates the DAO of a RocksDB instance under {@code rocksDBBasePath}.
+   *
+   * <p>A persistent instance is stored at a fixed path derived from {@code basePath}: it is opened with the content
+   * left by the last instance at the same path, and is not deleted when closed. Otherwise a new empty instance is
+   * created at a random path, and deleted when closed.
+   *
+   * @param basePath Base path the instance is created for
+   * @param rocksDBBasePath Directory of the RocksDB instances
+   * @param persistent Whether the instance outlives the DAO
+   */
+  public RocksDBDAO(String basePath, String rocksDBBasePath, boolean persistent) {
+    this.rocksDBBasePath = persistent
+        ? String.format("%s/%s", rocksDBBasePath, basePath.replace("/", "_"))
+        : String.format("%s/%s/%s", rocksDBBasePath, basePath.replace("/", "_"), UUID.randomUUID().toString());
+    this.persistent = persistent;
     init();
   }
 
@@ -83,8 +102,12 @@ public class RocksDBDAO {
    */
   private void init() {
     try {
-      LOG.info("DELETING RocksDB persisted at " + rocksDBBasePath);
-      FileIOUtils.deleteDirectory(new File(rocksDBBasePath));
+      if (persistent) {
+        LOG.info("Opening RocksDB persisted at " + rocksDBBasePath);
+      } else {
+        LOG.info("DELETING RocksDB persisted at " + rocksDBBasePath);
+        FileIOUtils.deleteDirectory(new File(rocksDBBasePath));
+      }
 
       managedHandlesMap = new ConcurrentHashMap<>();
       managedDescriptorMap = new ConcurrentHashMap<>();
@@ -196,6 +219,22 @@ public class RocksDBDAO {
     }
   }
 
+  /**
+   * Helper to add put operation in batch, storing the payload bytes as is.
+   *
+   * @param batch Batch Handle
+   * @param columnFamilyName Column Family
+   * @param key Key
+   * @param value Payload bytes
+   */
+  public <K extends Serializable> void putBytesInBatch(WriteBatch batch, String columnFamilyName, K key, byte[] value) {
+    try {
+      batch.put(managedHandlesMap.get(columnFamilyName), SerializationUtils.serialize(key), value);
+    } catch (Exception e) {
+      throw new HoodieException(e);
+    }
+  }
+
   /**
    * Perform single PUT on a column-family.
    *
@@ -230,6 +269,21 @@ public class RocksDBDAO {
     }
   }
 
+  /**
+   * Perform single PUT on a column-family, storing the payload bytes as is.
+   *
+   * @param columnFamilyName Column family name
+   * @param key Key
+   * @param value Payload bytes
+   */
+  public <K extends Serializable> void putBytes(String columnFamilyName, K key, byte[] value) {
+    try {
+      getRocksDB().put(managedHandlesMap.get(columnFamilyName), SerializationUtils.serialize(key), value);
+    } catch (Exception e) {
+      throw new HoodieException(e);
+    }
+  }
+
   /**
    * Helper to add delete operation in batch.
    *
@@ -322,6 +376,21 @@ public class RocksDBDAO {
     }
   }
 
+  /**
+   * Retrieve the payload bytes stored as is for a given key in a column family.
+   *
+   * @param columnFamilyName Column Family Name
+   * @param key Key to be retrieved
+   */
+  public <K extends Serializable> byte[] getBytes(String columnFamilyName, K key) {
+    ValidationUtils.checkArgument(!closed);
+    try {
+      return getRocksDB().get(managedHandlesMap.get(columnFamilyName), SerializationUtils.serialize(key));
+    } catch (Exception e) {
+      throw new HoodieException(e);
+    }
+  }
+
   /**
    * Perform a prefix search and return stream of key-value pairs retrieved.
    *
@@ -351,6 +420,25 @@ public class RocksDBDAO {
     return results.stream();
   }
 
+  /**
+   * Perform a prefix search and return stream of the keys and the payload bytes stored as is.
+   *
+   * @param columnFamilyName Column Family Name
+   * @param prefix Prefix Key
+   */
+  public Stream<Pair<String, byte[]>> prefixSearchBytes(String columnFamilyName, String prefix) {
+    ValidationUtils.checkArgument(!closed);
+    List<Pair<String, byte[]>> results = new LinkedList<>();
+    try (final RocksIterator it = getRocksDB().newIterator(managedHandlesMap.get(columnFamilyName))) {
+      it.seek(prefix.getBytes());
+      while (it.isValid() && new String(it.key()).startsWith(prefix)) {
+        results.add(Pair.of(new String(it.key()), it.value()));
+        it.next();
+      }
+    }
+    return results.stream();
+  }
+
   /**
    * Perform a prefix delete and return stream of key-value pairs retrieved.
    *
@@ -431,7 +519,22 @@ public class RocksDBDAO {
   }
 
   /**
-   * Close the DAO object.
+   * Creates a consistent copy of the whole instance in {@code checkpointPath}, which must not exist. The files of
+   * the instance are hard linked when the checkpoint is on the same file system, so checkpoints are cheap.
+   *
+   * @param checkpointPath Directory of the checkpoint
+   */
+  public void createCheckpoint(String checkpointPath) {
+    ValidationUtils.checkArgument(!closed);
+    try (Checkpoint checkpoint = Checkpoint.create(getRocksDB())) {
+      checkpoint.createCheckpoint(checkpointPath);
+    } catch (RocksDBException e) {
+      throw new HoodieException("Failed to create a checkpoint of RocksDB at " + checkpointPath, e);
+    }
+  }
+
+  /**
+   * Close the DAO object. The instance is deleted unless it is persistent.
    */
   public synchronized void close() {
     if (!closed) {
@@ -440,10 +543,12 @@ public class RocksDBDAO {
       managedHandlesMap.clear();
       managedDescriptorMap.clear();
       getRocksDB().close();
-      try {
-        FileIOUtils.deleteDirectory(new File(rocksDBBasePath));
-      } catch (IOException e) {
-        throw new HoodieIOException(e.getMessage(), e);
+      if (!persistent) {
+        try {
+          FileIOUtils.deleteDirectory(new File(rocksDBBasePath));
+        } catch (IOException e) {
+          throw new HoodieIOException(e.getMessage(), e);
+        }
       }
     }
   }
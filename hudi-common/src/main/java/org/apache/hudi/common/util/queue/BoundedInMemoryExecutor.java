@@ -48,7 +48,8 @@ public class BoundedInMemoryExecutor<I, O, E> {
 
   // Executor service used for launching writer thread.
   private final ExecutorService executorService;
-  // Used for buffering records which is controlled by HoodieWriteConfig#WRITE_BUFFER_LIMIT_BYTES.
+  // Used for buffering records which is controlled by HoodieWriteConfig#WRITE_BUFFER_LIMIT_BYTES, either a
+  // BoundedInMemoryQueue or a RingBufferInMemoryQueue depending on HoodieWriteConfig#WRITE_BUFFER_TYPE.
   private final BoundedInMemoryQueue<I, O> queue;
   // Producers
   private final List<BoundedInMemoryQueueProducer<I>> producers;
@@ -63,11 +64,21 @@ public class BoundedInMemoryExecutor<I, O, E> {
   public BoundedInMemoryExecutor(final long bufferLimitInBytes, List<BoundedInMemoryQueueProducer<I>> producers,
       Option<BoundedInMemoryQueueConsumer<O, E>> consumer, final Function<I, O> transformFunction,
       final SizeEstimator<O> sizeEstimator) {
+    this(producers, consumer, new BoundedInMemoryQueue<>(bufferLimitInBytes, transformFunction, sizeEstimator));
+  }
+
+  public BoundedInMemoryExecutor(BoundedInMemoryQueueProducer<I> producer, Option<BoundedInMemoryQueueConsumer<O, E>> consumer,
+      BoundedInMemoryQueue<I, O> queue) {
+    this(Arrays.asList(producer), consumer, queue);
+  }
+
+  public BoundedInMemoryExecutor(List<BoundedInMemoryQueueProducer<I>> producers,
+      Option<BoundedInMemoryQueueConsumer<O, E>> consumer, BoundedInMemoryQueue<I, O> queue) {
     this.producers = producers;
     this.consumer = consumer;
     // Ensure single thread for each producer thread and one for consumer
     this.executorService = Executors.newFixedThreadPool(producers.size() + 1);
-    this.queue = new BoundedInMemoryQueue<>(bufferLimitInBytes, transformFunction, sizeEstimator);
+    this.queue = queue;
   }
 
   /**
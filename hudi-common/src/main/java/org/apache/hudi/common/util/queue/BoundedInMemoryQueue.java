@@ -58,7 +58,7 @@ public class BoundedInMemoryQueue<I, O> implements Iterable<O> {
   public static final int RECORD_SAMPLING_RATE = 64;
 
   /** Maximum records that will be cached. **/
-  private static final int RECORD_CACHING_LIMIT = 128 * 1024;
+  protected static final int RECORD_CACHING_LIMIT = 128 * 1024;
 
   private static final Logger LOG = LogManager.getLogger(BoundedInMemoryQueue.class);
 
@@ -75,25 +75,25 @@ public class BoundedInMemoryQueue<I, O> implements Iterable<O> {
   private final LinkedBlockingQueue<Option<O>> queue = new LinkedBlockingQueue<>();
 
   /** Maximum amount of memory to be used for queueing records. **/
-  private final long memoryLimit;
+  protected final long memoryLimit;
 
   /**
    * it holds the root cause of the exception in case either queueing records
    * (consuming from inputIterator) fails or thread reading records from queue fails.
    */
-  private final AtomicReference<Exception> hasFailed = new AtomicReference<>(null);
+  protected final AtomicReference<Exception> hasFailed = new AtomicReference<>(null);
 
   /** Used for indicating that all the records from queue are read successfully. **/
-  private final AtomicBoolean isReadDone = new AtomicBoolean(false);
+  protected final AtomicBoolean isReadDone = new AtomicBoolean(false);
 
   /** used for indicating that all records have been enqueued. **/
-  private final AtomicBoolean isWriteDone = new AtomicBoolean(false);
+  protected final AtomicBoolean isWriteDone = new AtomicBoolean(false);
 
   /** Function to transform the input payload to the expected output payload. **/
-  private final Function<I, O> transformFunction;
+  protected final Function<I, O> transformFunction;
 
   /** Payload Size Estimator. **/
-  private final SizeEstimator<O> payloadSizeEstimator;
+  protected final SizeEstimator<O> payloadSizeEstimator;
 
   /** Singleton (w.r.t this instance) Iterator for this queue. **/
   private final QueueIterator iterator;
@@ -242,7 +242,7 @@ public class BoundedInMemoryQueue<I, O> implements Iterable<O> {
     isWriteDone.set(true);
   }
 
-  private void throwExceptionIfFailed() {
+  protected void throwExceptionIfFailed() {
     if (this.hasFailed.get() != null) {
       throw new HoodieException("operation has failed", this.hasFailed.get());
     }
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.queue;
+
+import org.apache.hudi.common.util.DefaultSizeEstimator;
+import org.apache.hudi.common.util.SizeEstimator;
+import org.apache.hudi.common.util.ValidationUtils;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * A {@link BoundedInMemoryQueue} backed by a pre-allocated ring buffer instead of a {@link java.util.concurrent.LinkedBlockingQueue}.
+ * It keeps the contract of {@link BoundedInMemoryQueue}, so it can be handed to the {@link BoundedInMemoryExecutor} and the
+ * existing producers and consumers as-is.
+ * <p>
+ * Records are written to the slots of the ring without any lock, node allocation or {@code Option} wrapping. The
+ * producer only publishes its position every {@link #BATCH_SIZE} records (or when it has to wait for space), and the
+ * consumer releases the slots it has read in batches as well, so the threads touch the shared positions once per batch
+ * rather than once per record. When either side has nothing to do, it backs off following the {@link WaitStrategy}.
+ * <p>
+ * As with {@link BoundedInMemoryQueue}, the number of records held is bounded by the memory limit using the sampled
+ * average record size, and never exceeds the size of the ring.
+ * <p>
+ * This queue is single producer single consumer. Multiple producers are supported by serializing the inserts.
+ *
+ * @param <I> input payload data type
+ * @param <O> output payload data type
+ */
+public class RingBufferInMemoryQueue<I, O> extends BoundedInMemoryQueue<I, O> {
+
+  /** Default number of slots in the ring. **/
+  public static final int DEFAULT_RING_SIZE = 16 * 1024;
+
+  /** Number of records handed off between producer and consumer at once. **/
+  private static final int BATCH_SIZE = 64;
+
+  private final Object[] ring;
+  private final int mask;
+  private final int batchSize;
+  private final WaitStrategy waitStrategy;
+  private final boolean isMultiProducer;
+
+  /** Position of the next slot the consumer reads, published by the consumer. **/
+  private final AtomicLong readPosition = new AtomicLong(0);
+
+  /** Position of the next slot the producer writes, published by the producer. **/
+  private final AtomicLong writePosition = new AtomicLong(0);
+
+  // producer side state
+  private long producerPosition = 0;
+  private long producerCachedReadPosition = 0;
+  private long producerSampledRecords = 0;
+  private long producerAvgRecordSizeInBytes = 0;
+  private int producerRecordLimit = 1;
+
+  // consumer side state
+  private long consumerPosition = 0;
+  private long consumerCachedWritePosition = 0;
+
+  /** Singleton (w.r.t this instance) Iterator for this queue. **/
+  private final RingBufferIterator ringIterator = new RingBufferIterator();
+
+  public RingBufferInMemoryQueue(final long memoryLimit, final Function<I, O> transformFunction) {
+    this(memoryLimit, transformFunction, new DefaultSizeEstimator<>(), DEFAULT_RING_SIZE, WaitStrategy.SLEEPING, false);
+  }
+
+  /**
+   * Construct RingBufferInMemoryQueue.
+   *
+   * @param memoryLimit MemoryLimit in bytes
+   * @param transformFunction Transformer Function to convert input payload type to stored payload type
+   * @param payloadSizeEstimator Payload Size Estimator
+   * @param ringSize Number of slots in the ring, rounded up to a power of two
+   * @param waitStrategy Strategy used by the producer and consumer while waiting on each other
+   * @param isMultiProducer Whether records are inserted by more than one thread
+   */
+  public RingBufferInMemoryQueue(final long memoryLimit, final Function<I, O> transformFunction,
+      final SizeEstimator<O> payloadSizeEstimator, final int ringSize, final WaitStrategy waitStrategy,
+      final boolean isMultiProducer) {
+    super(memoryLimit, transformFunction, payloadSizeEstimator);
+    ValidationUtils.checkArgument(ringSize > 0, "Ring size should be positive");
+    int capacity = Integer.highestOneBit(Math.min(Math.max(ringSize, 2), RECORD_CACHING_LIMIT) * 2 - 1);
+    this.ring = new Object[capacity];
+    this.mask = capacity - 1;
+    this.batchSize = Math.max(1, Math.min(BATCH_SIZE, capacity / 4));
+    this.waitStrategy = waitStrategy;
+    this.isMultiProducer = isMultiProducer;
+  }
+
+  @Override
+  public int size() {
+    return (int) (writePosition.get() - readPosition.get());
+  }
+
+  @Override
+  public void insertRecord(I t) throws Exception {
+    // If already closed, throw exception
+    if (isWriteDone.get()) {
+      throw new IllegalStateException("Queue closed for enqueueing new entries");
+    }
+    // We need to stop queueing if queue-reader has failed and exited.
+    throwExceptionIfFailed();
+
+    // We are retrieving insert value in the record queueing thread to offload computation
+    // around schema validation and record creation to it.
+    final O payload = transformFunction.apply(t);
+    if (isMultiProducer) {
+      synchronized (this) {
+        append(payload);
+      }
+    } else {
+      append(payload);
+    }
+  }
+
+  private void append(O payload) {
+    adjustRecordLimitIfNeeded(payload);
+    int attempt = 0;
+    while (producerPosition - producerCachedReadPosition >= producerRecordLimit) {
+      producerCachedReadPosition = readPosition.get();
+      if (producerPosition - producerCachedReadPosition < producerRecordLimit) {
+        break;
+      }
+      // make sure the consumer sees everything written so far before waiting for it to catch up
+      publishWritePosition();
+      throwExceptionIfFailed();
+      waitStrategy.idle(attempt++);
+    }
+    ring[(int) producerPosition & mask] = payload;
+    producerPosition++;
+    if (producerPosition - writePosition.get() >= batchSize) {
+      publishWritePosition();
+    }
+  }
+
+  private void publishWritePosition() {
+    // ordered store, the slots written before are visible to the consumer once it reads the position
+    writePosition.lazySet(producerPosition);
+  }
+
+  /**
+   * Samples records with "RECORD_SAMPLING_RATE" frequency and recomputes how many records can be held within the
+   * memory limit.
+   */
+  private void adjustRecordLimitIfNeeded(final O payload) {
+    if (producerSampledRecords++ % RECORD_SAMPLING_RATE != 0) {
+      return;
+    }
+    final long numSamples = producerSampledRecords / RECORD_SAMPLING_RATE;
+    final long recordSizeInBytes = payloadSizeEstimator.sizeEstimate(payload);
+    producerAvgRecordSizeInBytes =
+        Math.max(1, (producerAvgRecordSizeInBytes * numSamples + recordSizeInBytes) / (numSamples + 1));
+    producerRecordLimit = (int) Math.min(ring.length, Math.max(1, memoryLimit / producerAvgRecordSizeInBytes));
+  }
+
+  /**
+   * Reads the next record, waiting for the producer if none is available. Returns null once all records are read.
+   */
+  @SuppressWarnings("unchecked")
+  private O readNextRecord() {
+    if (isReadDone.get()) {
+      return null;
+    }
+    int attempt = 0;
+    while (true) {
+      throwExceptionIfFailed();
+      if (consumerPosition < consumerCachedWritePosition
+          || consumerPosition < (consumerCachedWritePosition = writePosition.get())) {
+        int index = (int) consumerPosition & mask;
+        O record = (O) ring[index];
+        ring[index] = null;
+        consumerPosition++;
+        if (consumerPosition - readPosition.get() >= batchSize) {
+          readPosition.lazySet(consumerPosition);
+        }
+        return record;
+      }
+      // release all slots read so far before waiting for the producer
+      readPosition.lazySet(consumerPosition);
+      if (isWriteDone.get()) {
+        // the final position is published before the queue is closed
+        consumerCachedWritePosition = writePosition.get();
+        if (consumerPosition == consumerCachedWritePosition) {
+          isReadDone.set(true);
+          return null;
+        }
+        continue;
+      }
+      waitStrategy.idle(attempt++);
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      publishWritePosition();
+    }
+    super.close();
+  }
+
+  @Override
+  public Iterator<O> iterator() {
+    return ringIterator;
+  }
+
+  /**
+   * Strategy used by the producer (queue is full) and the consumer (queue is empty) while waiting on each other.
+   */
+  public enum WaitStrategy {
+    /**
+     * Keeps spinning. Lowest hand-off latency, but burns a core for each waiting thread.
+     */
+    BUSY_SPIN {
+      @Override
+      void idle(int attempt) {
+        // spin
+      }
+    },
+    /**
+     * Spins for a while, then yields the cpu to other threads.
+     */
+    YIELDING {
+      @Override
+      void idle(int attempt) {
+        if (attempt >= SPIN_TRIES) {
+          Thread.yield();
+        }
+      }
+    },
+    /**
+     * Spins, yields and then parks the thread for a short while. Friendliest to other tasks sharing the executor.
+     */
+    SLEEPING {
+      @Override
+      void idle(int attempt) {
+        if (attempt >= SPIN_TRIES + YIELD_TRIES) {
+          LockSupport.parkNanos(PARK_NANOS);
+        } else if (attempt >= SPIN_TRIES) {
+          Thread.yield();
+        }
+      }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    abstract void idle(int attempt);
+  }
+
+  /**
+   * Iterator for the ring buffer queue.
+   */
+  private final class RingBufferIterator implements Iterator<O> {
+
+    // next record to be read from queue.
+    private O nextRecord;
+
+    @Override
+    public boolean hasNext() {
+      if (this.nextRecord == null) {
+        this.nextRecord = readNextRecord();
+      }
+      return this.nextRecord != null;
+    }
+
+    @Override
+    public O next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException("No more records in the queue");
+      }
+      final O ret = this.nextRecord;
+      this.nextRecord = null;
+      return ret;
+    }
+  }
+}
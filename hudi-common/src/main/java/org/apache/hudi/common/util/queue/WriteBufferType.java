@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.queue;
+
+/**
+ * Types of the in-memory queue buffering the records between the producer(s) and the consumer of a
+ * {@link BoundedInMemoryExecutor}.
+ */
+public enum WriteBufferType {
+  /**
+   * {@link BoundedInMemoryQueue}, a linked blocking queue handing off one record at a time.
+   */
+  BOUNDED_IN_MEMORY,
+  /**
+   * {@link RingBufferInMemoryQueue}, a lock-free ring buffer handing off records in batches.
+   */
+  RING_BUFFER
+}
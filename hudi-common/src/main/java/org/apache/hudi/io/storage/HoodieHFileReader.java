@@ -22,6 +22,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -235,6 +236,35 @@ public class HoodieHFileReader<R extends IndexedRecord> implements HoodieFileRea
     return Option.empty();
   }
 
+  /**
+   * Looks up a batch of keys with a single scanner, which only moves forward through the file while the keys are sorted.
+   *
+   * @param sortedKeys Keys to look up, in ascending order
+   * @param readerSchema Schema to read the records with
+   * @return The records found, by key
+   */
+  public Map<String, R> getRecordsByKeys(List<String> sortedKeys, Schema readerSchema) throws IOException {
+    Map<String, R> records = new HashMap<>();
+    HFileScanner scanner = reader.getScanner(true, true);
+    for (String key : sortedKeys) {
+      KeyValue kv = new KeyValue(key.getBytes(), null, null, null);
+      int result;
+      if (scanner.isSeeked()) {
+        result = scanner.reseekTo(kv);
+        if (result < 0) {
+          // reseekTo() does not move back, the byte order of the keys differs from their natural order
+          result = scanner.seekTo(kv);
+        }
+      } else {
+        result = scanner.seekTo(kv);
+      }
+      if (result == 0) {
+        records.put(key, getRecordFromCell(scanner.getKeyValue(), getSchema(), readerSchema));
+      }
+    }
+    return records;
+  }
+
   private R getRecordFromCell(Cell c, Schema writerSchema, Schema readerSchema) throws IOException {
     byte[] value = Arrays.copyOfRange(c.getValueArray(), c.getValueOffset(), c.getValueOffset() + c.getValueLength());
     return (R)HoodieAvroUtils.bytesToAvro(value, writerSchema, readerSchema);
@@ -27,6 +27,7 @@ import org.apache.hudi.common.model.FileSlice;
 import org.apache.hudi.common.model.HoodieBaseFile;
 import org.apache.hudi.common.model.HoodieLogFile;
 import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
 import org.apache.hudi.common.model.HoodieRecordPayload;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
 import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
@@ -37,6 +38,7 @@ import org.apache.hudi.common.util.HoodieTimer;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.SpillableMapUtils;
 import org.apache.hudi.common.util.ValidationUtils;
+import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.exception.HoodieException;
 import org.apache.hudi.exception.HoodieIOException;
 import org.apache.hudi.exception.TableNotFoundException;
@@ -55,6 +57,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -223,6 +227,8 @@ public class HoodieBackedTableMetadata extends BaseTableMetadata {
           .withMaxMemorySizeInBytes(MAX_MEMORY_SIZE_IN_BYTES)
           .withBufferSize(BUFFER_SIZE)
           .withSpillableMapBasePath(spillableMapDirectory)
+          // readers used for a single key only read the records of that key, newest block first
+          .withAutoScan(reuse)
           .build();
 
       logScannerOpenMs = timer.endTimer();
@@ -303,6 +309,75 @@ public class HoodieBackedTableMetadata extends BaseTableMetadata {
         .lastInstant().map(HoodieInstant::getTimestamp);
   }
 
+  /**
+   * Returns the number of file groups a partition of the Metadata Table is hashed into, or 0 if the Metadata Table
+   * has no such partition.
+   *
+   * @param partitionType Type of the partition, which must be hashed into several file groups
+   */
+  public int getFileGroupCount(MetadataPartitionType partitionType) {
+    if (!enabled) {
+      return 0;
+    }
+    return Integer.parseInt(metaClient.getTableConfig().getProperties()
+        .getProperty(HoodieTableMetadataUtil.getFileGroupCountProperty(partitionType), "0"));
+  }
+
+  /**
+   * Returns the latest file slices of a partition of the Metadata Table, by file id. File groups of a hashed
+   * partition which never received a record have no file slice.
+   */
+  public Map<String, FileSlice> getPartitionFileSlices(MetadataPartitionType partitionType) {
+    HoodieTableFileSystemView fsView = new HoodieTableFileSystemView(metaClient, metaClient.getActiveTimeline());
+    return fsView.getLatestFileSlices(partitionType.partitionPath())
+        .collect(Collectors.toMap(FileSlice::getFileId, Function.identity()));
+  }
+
+  /**
+   * Reads records by key from a partition of the Metadata Table which is hashed into several file groups.
+   *
+   * The keys are grouped by file group and each file group is read once, with the keys in ascending order.
+   *
+   * @param partitionType Type of the partition
+   * @param keys Keys of the records
+   * @return The records found in the partition, by key. Records which were removed are returned as empty payloads.
+   */
+  public Map<String, HoodieMetadataPayload> readRecords(MetadataPartitionType partitionType, List<String> keys) {
+    int numFileGroups = getFileGroupCount(partitionType);
+    ValidationUtils.checkState(numFileGroups > 0, "Metadata table has no " + partitionType.partitionPath() + " partition");
+
+    Map<Integer, List<String>> fileGroupToKeys = keys.stream().distinct().collect(Collectors.groupingBy(
+        key -> HoodieTableMetadataUtil.mapRecordKeyToFileGroupIndex(key, numFileGroups), TreeMap::new, Collectors.toList()));
+    Map<String, FileSlice> fileSlices = getPartitionFileSlices(partitionType);
+    Map<String, HoodieMetadataPayload> records = new HashMap<>();
+    fileGroupToKeys.forEach((fileGroupIndex, fileGroupKeys) -> {
+      FileSlice fileSlice = fileSlices.get(HoodieTableMetadataUtil.getFileGroupId(partitionType, fileGroupIndex));
+      if (fileSlice == null) {
+        return;
+      }
+      Collections.sort(fileGroupKeys);
+      try (HoodieMetadataFileGroupReader reader = new HoodieMetadataFileGroupReader(metaClient, fileSlice, spillableMapDirectory)) {
+        records.putAll(reader.getRecords(fileGroupKeys));
+      } catch (IOException e) {
+        throw new HoodieIOException("Error reading metadata file group " + fileSlice.getFileId(), e);
+      }
+    });
+    return records;
+  }
+
+  /**
+   * Reads the partition path and location of the given records from the record index partition.
+   *
+   * @param recordKeys Keys of the records
+   * @return The partition path and location of the records found in the record index, by key
+   */
+  public Map<String, Pair<String, HoodieRecordLocation>> readRecordIndexLocations(List<String> recordKeys) {
+    Map<String, Pair<String, HoodieRecordLocation>> locations = new HashMap<>();
+    readRecords(MetadataPartitionType.RECORD_INDEX, recordKeys)
+        .forEach((key, payload) -> payload.getRecordLocation().ifPresent(location -> locations.put(key, location)));
+    return locations;
+  }
+
   public boolean enabled() {
     return enabled;
   }
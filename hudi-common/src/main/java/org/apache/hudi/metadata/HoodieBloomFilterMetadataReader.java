@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.metadata;
+
+import org.apache.hudi.common.model.FileSlice;
+import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.common.util.ValidationUtils;
+import org.apache.hudi.exception.HoodieIOException;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the bloom filters and key ranges of the base files of the dataset from the bloom filter partition of the
+ * Metadata Table, by file id.
+ *
+ * The reader is created from a snapshot of the latest file slices of the partition and can be shipped to the
+ * executors. The file groups are opened lazily and stay open, so that their log files are merged only once, until the
+ * reader is closed.
+ */
+public class HoodieBloomFilterMetadataReader implements Serializable, AutoCloseable {
+
+  private final HoodieTableMetaClient metadataMetaClient;
+  private final Map<String, FileSlice> fileSlices;
+  private final int numFileGroups;
+  private final String spillableMapDirectory;
+
+  private transient Map<String, HoodieMetadataFileGroupReader> openReaders;
+
+  public HoodieBloomFilterMetadataReader(HoodieBackedTableMetadata metadata, String spillableMapDirectory) {
+    this.numFileGroups = metadata.getFileGroupCount(MetadataPartitionType.BLOOM_FILTERS);
+    ValidationUtils.checkState(numFileGroups > 0, "Metadata table has no bloom filter partition");
+    this.metadataMetaClient = metadata.getMetaClient();
+    this.fileSlices = metadata.getPartitionFileSlices(MetadataPartitionType.BLOOM_FILTERS);
+    this.spillableMapDirectory = spillableMapDirectory;
+  }
+
+  /**
+   * Groups file ids by the file group of the bloom filter partition which saves their entry, so that each file group
+   * is read by a single task.
+   */
+  public List<List<String>> groupByFileGroup(Collection<String> fileIds) {
+    return new ArrayList<>(fileIds.stream().collect(Collectors.groupingBy(
+        fileId -> HoodieTableMetadataUtil.mapRecordKeyToFileGroupIndex(fileId, numFileGroups), TreeMap::new, Collectors.toList()))
+        .values());
+  }
+
+  /**
+   * Returns the entries of the given base files, by file id. Files without an entry are missing from the result.
+   *
+   * @param fileIds File ids of the base files
+   */
+  public Map<String, HoodieMetadataPayload> getBloomFilterInfos(Collection<String> fileIds) {
+    Map<String, HoodieMetadataPayload> infos = new HashMap<>();
+    for (List<String> fileGroupFileIds : groupByFileGroup(fileIds)) {
+      HoodieMetadataFileGroupReader reader = getReader(fileGroupFileIds.get(0));
+      if (reader == null) {
+        continue;
+      }
+      List<String> sortedFileIds = fileGroupFileIds.stream().distinct().sorted().collect(Collectors.toList());
+      try {
+        reader.getRecords(sortedFileIds).forEach((fileId, payload) -> {
+          if (payload.getBloomFilterFileName().isPresent()) {
+            infos.put(fileId, payload);
+          }
+        });
+      } catch (IOException e) {
+        throw new HoodieIOException("Error reading bloom filters of " + sortedFileIds, e);
+      }
+    }
+    return infos;
+  }
+
+  /**
+   * Returns the entry of a single base file, if any.
+   */
+  public HoodieMetadataPayload getBloomFilterInfo(String fileId) {
+    return getBloomFilterInfos(Collections.singletonList(fileId)).get(fileId);
+  }
+
+  private HoodieMetadataFileGroupReader getReader(String fileId) {
+    String fileGroupId = HoodieTableMetadataUtil.getFileGroupId(MetadataPartitionType.BLOOM_FILTERS,
+        HoodieTableMetadataUtil.mapRecordKeyToFileGroupIndex(fileId, numFileGroups));
+    FileSlice fileSlice = fileSlices.get(fileGroupId);
+    if (fileSlice == null) {
+      // No bloom filter was ever hashed to this file group
+      return null;
+    }
+    if (openReaders == null) {
+      openReaders = new HashMap<>();
+    }
+    return openReaders.computeIfAbsent(fileGroupId, id -> {
+      try {
+        return new HoodieMetadataFileGroupReader(metadataMetaClient, fileSlice, spillableMapDirectory);
+      } catch (IOException e) {
+        throw new HoodieIOException("Error opening bloom filter file group " + id, e);
+      }
+    });
+  }
+
+  @Override
+  public void close() {
+    if (openReaders != null) {
+      openReaders.values().forEach(HoodieMetadataFileGroupReader::close);
+      openReaders = null;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.metadata;
+
+import org.apache.hudi.avro.HoodieAvroUtils;
+import org.apache.hudi.avro.model.HoodieMetadataRecord;
+import org.apache.hudi.common.model.FileSlice;
+import org.apache.hudi.common.model.HoodieLogFile;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.common.table.timeline.HoodieInstant;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.collection.Pair;
+import org.apache.hudi.io.storage.HoodieHFileReader;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.io.hfile.CacheConfig;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.apache.hudi.metadata.HoodieTableMetadata.SOLO_COMMIT_TIMESTAMP;
+
+/**
+ * Reads records by key from a single file group of a partition of the Metadata Table which is hashed into several
+ * file groups, such as the record index partition.
+ *
+ * The log files of the file slice are merged once, when the reader is opened. Keys are then looked up in sorted
+ * batches, each read from the base HFile with a single scanner moving forward through the file.
+ */
+public class HoodieMetadataFileGroupReader implements AutoCloseable {
+
+  private final Schema schema;
+  private HoodieHFileReader<GenericRecord> baseFileReader;
+  private HoodieMetadataMergedLogRecordScanner logRecordScanner;
+
+  public HoodieMetadataFileGroupReader(HoodieTableMetaClient metadataMetaClient, FileSlice fileSlice,
+                                       String spillableMapDirectory) throws IOException {
+    this.schema = HoodieAvroUtils.addMetadataFields(HoodieMetadataRecord.getClassSchema());
+    if (fileSlice.getBaseFile().isPresent()) {
+      this.baseFileReader = new HoodieHFileReader<>(metadataMetaClient.getHadoopConf(),
+          new Path(fileSlice.getBaseFile().get().getPath()), new CacheConfig(metadataMetaClient.getHadoopConf()));
+    }
+
+    List<String> logFilePaths = fileSlice.getLogFiles()
+        .sorted(HoodieLogFile.getLogFileComparator())
+        .map(o -> o.getPath().toString())
+        .collect(Collectors.toList());
+    if (!logFilePaths.isEmpty()) {
+      String latestMetaInstantTimestamp = metadataMetaClient.getActiveTimeline().filterCompletedInstants().lastInstant()
+          .map(HoodieInstant::getTimestamp).orElse(SOLO_COMMIT_TIMESTAMP);
+      this.logRecordScanner = HoodieMetadataMergedLogRecordScanner.newBuilder()
+          .withFileSystem(metadataMetaClient.getFs())
+          .withBasePath(metadataMetaClient.getBasePath())
+          .withLogFilePaths(logFilePaths)
+          .withReaderSchema(schema)
+          .withLatestInstantTime(latestMetaInstantTimestamp)
+          .withMaxMemorySizeInBytes(BaseTableMetadata.MAX_MEMORY_SIZE_IN_BYTES)
+          .withBufferSize(BaseTableMetadata.BUFFER_SIZE)
+          .withSpillableMapBasePath(spillableMapDirectory)
+          .build();
+    }
+  }
+
+  /**
+   * Returns the records found in the file group for the given keys. Records which were removed are returned as empty
+   * payloads.
+   *
+   * @param sortedKeys Keys of the records, in ascending order
+   */
+  public Map<String, HoodieMetadataPayload> getRecords(List<String> sortedKeys) throws IOException {
+    Map<String, GenericRecord> baseRecords = baseFileReader != null
+        ? baseFileReader.getRecordsByKeys(sortedKeys, schema) : Collections.emptyMap();
+    Map<String, HoodieMetadataPayload> records = new HashMap<>();
+    for (String key : sortedKeys) {
+      // The log files are more recent than the base file, and also hold the removals
+      Option<HoodieRecord<HoodieMetadataPayload>> logRecord = logRecordScanner != null
+          ? logRecordScanner.getRecordByKey(key) : Option.empty();
+      if (logRecord.isPresent()) {
+        records.put(key, logRecord.get().getData());
+      } else if (baseRecords.containsKey(key)) {
+        records.put(key, new HoodieMetadataPayload(Option.of(baseRecords.get(key))));
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Returns the partition path and location of the given records, for the records found in the record index.
+   *
+   * @param sortedKeys Keys of the records, in ascending order
+   */
+  public Map<String, Pair<String, HoodieRecordLocation>> getRecordLocations(List<String> sortedKeys) throws IOException {
+    Map<String, Pair<String, HoodieRecordLocation>> locations = new HashMap<>();
+    getRecords(sortedKeys).forEach((key, payload) -> payload.getRecordLocation().ifPresent(location -> locations.put(key, location)));
+    return locations;
+  }
+
+  @Override
+  public void close() {
+    if (baseFileReader != null) {
+      baseFileReader.close();
+      baseFileReader = null;
+    }
+    if (logRecordScanner != null) {
+      logRecordScanner.close();
+      logRecordScanner = null;
+    }
+  }
+}
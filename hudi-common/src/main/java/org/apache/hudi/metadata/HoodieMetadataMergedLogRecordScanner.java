@@ -29,24 +29,34 @@ import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieRecordPayload;
 import org.apache.hudi.common.table.log.HoodieMergedLogRecordScanner;
+import org.apache.hudi.common.util.DefaultSpillSerializer;
 import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.collection.ExternalSpillableMap;
 
 /**
  * A {@code HoodieMergedLogRecordScanner} implementation which only merged records matching providing keys. This is
  * useful in limiting memory usage when only a small subset of updates records are to be read.
+ *
+ * <p>Without auto scan, records are looked up by key as they are retrieved, reading the log newest block first.
  */
 public class HoodieMetadataMergedLogRecordScanner extends HoodieMergedLogRecordScanner {
   // Set of all record keys that are to be read in memory
   private Set<String> mergeKeyFilter;
+  // Whether all the records were merged in memory, otherwise records are looked up by key
+  private final boolean autoScan;
 
   private HoodieMetadataMergedLogRecordScanner(FileSystem fs, String basePath, List<String> logFilePaths,
                                               Schema readerSchema, String latestInstantTime, Long maxMemorySizeInBytes, int bufferSize,
-                                              String spillableMapBasePath, Set<String> mergeKeyFilter) {
+                                              String spillableMapBasePath, Set<String> mergeKeyFilter, boolean autoScan) {
     super(fs, basePath, logFilePaths, readerSchema, latestInstantTime, maxMemorySizeInBytes, false, false, bufferSize,
-        spillableMapBasePath, Option.empty(), false);
+        spillableMapBasePath, Option.empty(), false, ExternalSpillableMap.DiskMapType.BITCASK,
+        false, new DefaultSpillSerializer<>(), 0, DEFAULT_PREFETCH_QUEUE_SIZE, false);
     this.mergeKeyFilter = mergeKeyFilter;
+    this.autoScan = autoScan;
 
-    performScan();
+    if (autoScan) {
+      performScan();
+    }
   }
 
   @Override
@@ -77,7 +87,10 @@ public class HoodieMetadataMergedLogRecordScanner extends HoodieMergedLogRecordS
    * @return {@code HoodieRecord} if key was found else {@code Option.empty()}
    */
   public Option<HoodieRecord<HoodieMetadataPayload>> getRecordByKey(String key) {
-    return Option.ofNullable((HoodieRecord) records.get(key));
+    if (autoScan) {
+      return Option.ofNullable((HoodieRecord) records.get(key));
+    }
+    return Option.ofNullable((HoodieRecord) getRecordsByKeys(Collections.singleton(key)).get(key));
   }
 
   /**
@@ -139,10 +152,15 @@ public class HoodieMetadataMergedLogRecordScanner extends HoodieMergedLogRecordS
       return this;
     }
 
+    public Builder withAutoScan(boolean autoScan) {
+      this.autoScan = autoScan;
+      return this;
+    }
+
     @Override
     public HoodieMetadataMergedLogRecordScanner build() {
       return new HoodieMetadataMergedLogRecordScanner(fs, basePath, logFilePaths, readerSchema,
-          latestInstantTime, maxMemorySizeInBytes, bufferSize, spillableMapBasePath, mergeKeyFilter);
+          latestInstantTime, maxMemorySizeInBytes, bufferSize, spillableMapBasePath, mergeKeyFilter, autoScan);
     }
   }
 }
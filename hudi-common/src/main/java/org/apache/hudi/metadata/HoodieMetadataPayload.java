@@ -18,13 +18,22 @@
 
 package org.apache.hudi.metadata;
 
+import org.apache.hudi.avro.model.HoodieBloomFilterInfo;
+import org.apache.hudi.avro.model.HoodieColumnStats;
+import org.apache.hudi.avro.model.HoodieColumnStatsInfo;
 import org.apache.hudi.avro.model.HoodieMetadataFileInfo;
 import org.apache.hudi.avro.model.HoodieMetadataRecord;
+import org.apache.hudi.avro.model.HoodieRecordIndexInfo;
+import org.apache.hudi.common.bloom.BloomFilter;
+import org.apache.hudi.common.bloom.BloomFilterFactory;
+import org.apache.hudi.common.model.HoodieColumnRangeMetadata;
 import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
 import org.apache.hudi.common.model.HoodieRecordPayload;
 import org.apache.hudi.common.util.Option;
 import org.apache.hudi.common.util.ValidationUtils;
+import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.exception.HoodieMetadataException;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
@@ -35,7 +44,10 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +67,20 @@ import static org.apache.hudi.metadata.HoodieTableMetadata.RECORDKEY_PARTITION_L
  *   2. List of files in a Partition: There is one such record for each partition
  *         key=Partition name
  *
+ *   3. Location of a record: There is one such record for each record of the dataset, saved within the record index
+ *      partition. The latest location of a record replaces the earlier ones.
+ *         key=Record key
+ *
+ *   4. Bloom filter and key range of a file group: There is one such record for each file group of the dataset, saved
+ *      within the bloom filter partition. They are read from the latest base file of the file group, which replaces
+ *      the earlier ones.
+ *         key=File id
+ *
+ *   5. Column statistics of a file group: There is one such record for each file group of the dataset, saved within
+ *      the column stats partition. They are read from the latest base file of the file group, which replaces the
+ *      earlier ones.
+ *         key=File id
+ *
  *  During compaction on the table, the deletions are merged with additions and hence pruned.
  *
  * Metadata Table records are saved with the schema defined in HoodieMetadata.avsc. This class encapsulates the
@@ -65,10 +91,16 @@ public class HoodieMetadataPayload implements HoodieRecordPayload<HoodieMetadata
   // This can be an enum in the schema but Avro 1.8 has a bug - https://issues.apache.org/jira/browse/AVRO-1810
   private static final int PARTITION_LIST = 1;
   private static final int FILE_LIST = 2;
+  private static final int RECORD_INDEX = 3;
+  private static final int BLOOM_FILTER = 4;
+  private static final int COLUMN_STATS = 5;
 
   private String key = null;
   private int type = 0;
   private Map<String, HoodieMetadataFileInfo> filesystemMetadata = null;
+  private HoodieRecordIndexInfo recordIndexMetadata = null;
+  private HoodieBloomFilterInfo bloomFilterMetadata = null;
+  private HoodieColumnStatsInfo columnStatsMetadata = null;
 
   public HoodieMetadataPayload(Option<GenericRecord> record) {
     if (record.isPresent()) {
@@ -83,6 +115,29 @@ public class HoodieMetadataPayload implements HoodieRecordPayload<HoodieMetadata
           filesystemMetadata.put(k.toString(), new HoodieMetadataFileInfo((Long)v.get("size"), (Boolean)v.get("isDeleted")));
         });
       }
+      if (record.get().getSchema().getField("recordIndexMetadata") != null
+          && record.get().get("recordIndexMetadata") != null) {
+        GenericRecord v = (GenericRecord) record.get().get("recordIndexMetadata");
+        recordIndexMetadata = new HoodieRecordIndexInfo(v.get("partition").toString(), v.get("fileId").toString(),
+            v.get("instantTime").toString());
+      }
+      if (record.get().getSchema().getField("bloomFilterMetadata") != null
+          && record.get().get("bloomFilterMetadata") != null) {
+        GenericRecord v = (GenericRecord) record.get().get("bloomFilterMetadata");
+        bloomFilterMetadata = new HoodieBloomFilterInfo(v.get("fileName").toString(), v.get("type").toString(),
+            (ByteBuffer) v.get("bloomFilter"), v.get("minRecordKey") == null ? null : v.get("minRecordKey").toString(),
+            v.get("maxRecordKey") == null ? null : v.get("maxRecordKey").toString());
+      }
+      if (record.get().getSchema().getField("columnStatsMetadata") != null
+          && record.get().get("columnStatsMetadata") != null) {
+        GenericRecord v = (GenericRecord) record.get().get("columnStatsMetadata");
+        Map<String, HoodieColumnStats> columnStats = new HashMap<>();
+        ((Map<Object, GenericRecord>) v.get("columnStats")).forEach((column, stats) -> columnStats.put(column.toString(),
+            new HoodieColumnStats(stats.get("minValue") == null ? null : stats.get("minValue").toString(),
+                stats.get("maxValue") == null ? null : stats.get("maxValue").toString(),
+                (Long) stats.get("nullCount"), (Long) stats.get("valueCount"))));
+        columnStatsMetadata = new HoodieColumnStatsInfo(v.get("fileName").toString(), columnStats);
+      }
     }
   }
 
@@ -92,6 +147,24 @@ public class HoodieMetadataPayload implements HoodieRecordPayload<HoodieMetadata
     this.filesystemMetadata = filesystemMetadata;
   }
 
+  private HoodieMetadataPayload(String key, HoodieRecordIndexInfo recordIndexMetadata) {
+    this.key = key;
+    this.type = RECORD_INDEX;
+    this.recordIndexMetadata = recordIndexMetadata;
+  }
+
+  private HoodieMetadataPayload(String key, HoodieBloomFilterInfo bloomFilterMetadata) {
+    this.key = key;
+    this.type = BLOOM_FILTER;
+    this.bloomFilterMetadata = bloomFilterMetadata;
+  }
+
+  private HoodieMetadataPayload(String key, HoodieColumnStatsInfo columnStatsMetadata) {
+    this.key = key;
+    this.type = COLUMN_STATS;
+    this.columnStatsMetadata = columnStatsMetadata;
+  }
+
   /**
    * Create and return a {@code HoodieMetadataPayload} to save list of partitions.
    *
@@ -126,8 +199,94 @@ public class HoodieMetadataPayload implements HoodieRecordPayload<HoodieMetadata
     return new HoodieRecord<>(key, payload);
   }
 
+  /**
+   * Create and return a {@code HoodieMetadataPayload} to save the location of a record of the dataset.
+   *
+   * @param recordKey The key of the record
+   * @param partition The partition path of the record
+   * @param fileId The id of the file group holding the record
+   * @param instantTime The instant at which the record was written to the file group
+   */
+  public static HoodieRecord<HoodieMetadataPayload> createRecordIndexUpdate(String recordKey, String partition,
+                                                                            String fileId, String instantTime) {
+    HoodieKey key = new HoodieKey(recordKey, MetadataPartitionType.RECORD_INDEX.partitionPath());
+    HoodieMetadataPayload payload = new HoodieMetadataPayload(recordKey, new HoodieRecordIndexInfo(partition, fileId, instantTime));
+    return new HoodieRecord<>(key, payload);
+  }
+
+  /**
+   * Create and return a {@code HoodieMetadataPayload} to remove a record of the dataset from the record index.
+   *
+   * @param recordKey The key of the record
+   */
+  public static HoodieRecord<HoodieMetadataPayload> createRecordIndexDelete(String recordKey) {
+    HoodieKey key = new HoodieKey(recordKey, MetadataPartitionType.RECORD_INDEX.partitionPath());
+    return new HoodieRecord<>(key, new HoodieMetadataPayload(Option.empty()));
+  }
+
+  /**
+   * Create and return a {@code HoodieMetadataPayload} to save the bloom filter and key range of the latest base file
+   * of a file group.
+   *
+   * @param fileId The id of the file group
+   * @param fileName The name of the base file
+   * @param bloomFilter The bloom filter of the record keys of the base file
+   * @param minMaxRecordKeys The minimum and maximum record keys of the base file, if known
+   */
+  public static HoodieRecord<HoodieMetadataPayload> createBloomFilterUpdate(String fileId, String fileName,
+                                                                            BloomFilter bloomFilter, Option<String[]> minMaxRecordKeys) {
+    HoodieKey key = new HoodieKey(fileId, MetadataPartitionType.BLOOM_FILTERS.partitionPath());
+    HoodieBloomFilterInfo bloomFilterInfo = new HoodieBloomFilterInfo(fileName, bloomFilter.getBloomFilterTypeCode().name(),
+        ByteBuffer.wrap(bloomFilter.serializeToString().getBytes(StandardCharsets.UTF_8)),
+        minMaxRecordKeys.map(keys -> keys[0]).orElse(null), minMaxRecordKeys.map(keys -> keys[1]).orElse(null));
+    return new HoodieRecord<>(key, new HoodieMetadataPayload(fileId, bloomFilterInfo));
+  }
+
+  /**
+   * Create and return a {@code HoodieMetadataPayload} to remove the bloom filter of a file group which was replaced.
+   *
+   * @param fileId The id of the file group
+   */
+  public static HoodieRecord<HoodieMetadataPayload> createBloomFilterDelete(String fileId) {
+    HoodieKey key = new HoodieKey(fileId, MetadataPartitionType.BLOOM_FILTERS.partitionPath());
+    return new HoodieRecord<>(key, new HoodieMetadataPayload(Option.empty()));
+  }
+
+  /**
+   * Create and return a {@code HoodieMetadataPayload} to save the statistics of the columns of the latest base file of
+   * a file group.
+   *
+   * @param fileId The id of the file group
+   * @param fileName The name of the base file
+   * @param columnRanges The statistics of the columns of the base file
+   */
+  public static HoodieRecord<HoodieMetadataPayload> createColumnStatsUpdate(String fileId, String fileName,
+                                                                            List<HoodieColumnRangeMetadata> columnRanges) {
+    HoodieKey key = new HoodieKey(fileId, MetadataPartitionType.COLUMN_STATS.partitionPath());
+    Map<String, HoodieColumnStats> columnStats = new HashMap<>();
+    columnRanges.forEach(range -> columnStats.put(range.getColumnName(),
+        new HoodieColumnStats(range.getMinValue(), range.getMaxValue(), range.getNullCount(), range.getValueCount())));
+    return new HoodieRecord<>(key, new HoodieMetadataPayload(fileId, new HoodieColumnStatsInfo(fileName, columnStats)));
+  }
+
+  /**
+   * Create and return a {@code HoodieMetadataPayload} to remove the column statistics of a file group which was
+   * replaced.
+   *
+   * @param fileId The id of the file group
+   */
+  public static HoodieRecord<HoodieMetadataPayload> createColumnStatsDelete(String fileId) {
+    HoodieKey key = new HoodieKey(fileId, MetadataPartitionType.COLUMN_STATS.partitionPath());
+    return new HoodieRecord<>(key, new HoodieMetadataPayload(Option.empty()));
+  }
+
   @Override
   public HoodieMetadataPayload preCombine(HoodieMetadataPayload previousRecord) {
+    if (type == RECORD_INDEX || type == BLOOM_FILTER || type == COLUMN_STATS || key == null) {
+      // The latest location of a record, the latest bloom filter or column statistics of a file group, or their
+      // removal, replace the earlier ones
+      return this;
+    }
     ValidationUtils.checkArgument(previousRecord.type == type,
         "Cannot combine " + previousRecord.type  + " with " + type);
 
@@ -158,10 +317,72 @@ public class HoodieMetadataPayload implements HoodieRecordPayload<HoodieMetadata
       return Option.empty();
     }
 
-    HoodieMetadataRecord record = new HoodieMetadataRecord(key, type, filesystemMetadata);
+    HoodieMetadataRecord record = new HoodieMetadataRecord(key, type, filesystemMetadata, recordIndexMetadata, bloomFilterMetadata,
+        columnStatsMetadata);
     return Option.of(record);
   }
 
+  /**
+   * Returns the partition path and location of the record saved in this record index entry.
+   */
+  public Option<Pair<String, HoodieRecordLocation>> getRecordLocation() {
+    if (recordIndexMetadata == null) {
+      return Option.empty();
+    }
+    return Option.of(Pair.of(recordIndexMetadata.getPartition(),
+        new HoodieRecordLocation(recordIndexMetadata.getInstantTime(), recordIndexMetadata.getFileId())));
+  }
+
+  /**
+   * Returns the name of the base file the bloom filter of this entry was read from.
+   */
+  public Option<String> getBloomFilterFileName() {
+    return bloomFilterMetadata == null ? Option.empty() : Option.of(bloomFilterMetadata.getFileName());
+  }
+
+  /**
+   * Returns the bloom filter saved in this entry.
+   */
+  public Option<BloomFilter> getBloomFilter() {
+    if (bloomFilterMetadata == null) {
+      return Option.empty();
+    }
+    ByteBuffer buffer = bloomFilterMetadata.getBloomFilter().duplicate();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return Option.of(BloomFilterFactory.fromString(new String(bytes, StandardCharsets.UTF_8), bloomFilterMetadata.getType()));
+  }
+
+  /**
+   * Returns the minimum and maximum record keys saved in this entry, if they are known.
+   */
+  public Option<String[]> getMinMaxRecordKeys() {
+    if (bloomFilterMetadata == null || bloomFilterMetadata.getMinRecordKey() == null || bloomFilterMetadata.getMaxRecordKey() == null) {
+      return Option.empty();
+    }
+    return Option.of(new String[] {bloomFilterMetadata.getMinRecordKey(), bloomFilterMetadata.getMaxRecordKey()});
+  }
+
+  /**
+   * Returns the name of the base file the column statistics of this entry were read from.
+   */
+  public Option<String> getColumnStatsFileName() {
+    return columnStatsMetadata == null ? Option.empty() : Option.of(columnStatsMetadata.getFileName());
+  }
+
+  /**
+   * Returns the column statistics saved in this entry, by column name.
+   */
+  public Map<String, HoodieColumnRangeMetadata> getColumnStats() {
+    if (columnStatsMetadata == null) {
+      return Collections.emptyMap();
+    }
+    Map<String, HoodieColumnRangeMetadata> columnRanges = new HashMap<>();
+    columnStatsMetadata.getColumnStats().forEach((column, stats) -> columnRanges.put(column,
+        new HoodieColumnRangeMetadata(column, stats.getMinValue(), stats.getMaxValue(), stats.getNullCount(), stats.getValueCount())));
+    return columnRanges;
+  }
+
   /**
    * Returns the list of filenames added as part of this record.
    */
@@ -231,6 +452,15 @@ public class HoodieMetadataPayload implements HoodieRecordPayload<HoodieMetadata
     sb.append("type=").append(type).append(", ");
     sb.append("creations=").append(Arrays.toString(getFilenames().toArray())).append(", ");
     sb.append("deletions=").append(Arrays.toString(getDeletions().toArray())).append(", ");
+    if (recordIndexMetadata != null) {
+      sb.append("recordIndex=").append(recordIndexMetadata).append(", ");
+    }
+    if (bloomFilterMetadata != null) {
+      sb.append("bloomFilterFile=").append(bloomFilterMetadata.getFileName()).append(", ");
+    }
+    if (columnStatsMetadata != null) {
+      sb.append("columnStatsFile=").append(columnStatsMetadata.getFileName()).append(", ");
+    }
     sb.append('}');
     return sb.toString();
   }
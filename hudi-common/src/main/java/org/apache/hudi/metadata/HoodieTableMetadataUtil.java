@@ -22,31 +22,60 @@ import org.apache.hudi.avro.model.HoodieCleanMetadata;
 import org.apache.hudi.avro.model.HoodieCleanerPlan;
 import org.apache.hudi.avro.model.HoodieRestoreMetadata;
 import org.apache.hudi.avro.model.HoodieRollbackMetadata;
+import org.apache.hudi.common.bloom.BloomFilter;
+import org.apache.hudi.common.config.HoodieMetadataConfig;
+import org.apache.hudi.common.config.SerializableConfiguration;
+import org.apache.hudi.common.engine.HoodieEngineContext;
+import org.apache.hudi.common.fs.FSUtils;
+import org.apache.hudi.common.model.HoodieColumnRangeMetadata;
 import org.apache.hudi.common.model.HoodieCommitMetadata;
+import org.apache.hudi.common.model.HoodieFileFormat;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieLogFile;
 import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordLocation;
 import org.apache.hudi.common.model.HoodieReplaceCommitMetadata;
+import org.apache.hudi.common.model.HoodieWriteStat;
+import org.apache.hudi.common.model.WriteOperationType;
 import org.apache.hudi.common.table.HoodieTableMetaClient;
+import org.apache.hudi.common.table.log.HoodieLogFormat;
+import org.apache.hudi.common.table.log.block.HoodieDeleteBlock;
+import org.apache.hudi.common.table.log.block.HoodieLogBlock;
 import org.apache.hudi.common.table.timeline.HoodieInstant;
 import org.apache.hudi.common.table.timeline.HoodieTimeline;
 import org.apache.hudi.common.table.timeline.TimelineMetadataUtils;
+import org.apache.hudi.common.table.view.HoodieTableFileSystemView;
+import org.apache.hudi.common.util.BaseFileUtils;
 import org.apache.hudi.common.util.CleanerUtils;
 import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.ParquetUtils;
 import org.apache.hudi.common.util.ValidationUtils;
+import org.apache.hudi.common.util.collection.Pair;
 import org.apache.hudi.exception.HoodieException;
+import org.apache.hudi.exception.HoodieMetadataException;
+import org.apache.hudi.exception.MetadataNotFoundException;
 
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.apache.hudi.metadata.HoodieTableMetadata.NON_PARTITIONED_NAME;
 
@@ -340,4 +369,443 @@ public class HoodieTableMetadataUtil {
 
     return records;
   }
+
+  /**
+   * Returns the index of the file group which saves the entry of a key, in a partition of the Metadata Table which is
+   * hashed into several file groups.
+   *
+   * @param recordKey The key of the entry, such as the key of a record of the dataset in the record index partition
+   * @param numFileGroups Number of file groups in the partition
+   */
+  public static int mapRecordKeyToFileGroupIndex(String recordKey, int numFileGroups) {
+    return (recordKey.hashCode() & Integer.MAX_VALUE) % numFileGroups;
+  }
+
+  /**
+   * Returns the id of a file group of a partition of the Metadata Table which is hashed into several file groups.
+   *
+   * @param partitionType Type of the partition
+   * @param fileGroupIndex Index of the file group, see {@link #mapRecordKeyToFileGroupIndex(String, int)}
+   */
+  public static String getFileGroupId(MetadataPartitionType partitionType, int fileGroupIndex) {
+    return String.format("%s-%04d", partitionType.partitionPath().replace('_', '-'), fileGroupIndex);
+  }
+
+  /**
+   * Returns the property of the Metadata Table which saves the number of file groups a partition is hashed into. The
+   * property is only set if the partition exists.
+   *
+   * @param partitionType Type of the partition, which must be hashed into several file groups
+   */
+  public static String getFileGroupCountProperty(MetadataPartitionType partitionType) {
+    switch (partitionType) {
+      case RECORD_INDEX:
+        return HoodieMetadataConfig.RECORD_INDEX_FILE_GROUP_COUNT_PROP;
+      case BLOOM_FILTERS:
+        return HoodieMetadataConfig.BLOOM_FILTER_INDEX_FILE_GROUP_COUNT_PROP;
+      case COLUMN_STATS:
+        return HoodieMetadataConfig.COLUMN_STATS_INDEX_FILE_GROUP_COUNT_PROP;
+      default:
+        throw new HoodieMetadataException("Metadata partition " + partitionType + " is not hashed into file groups");
+    }
+  }
+
+  /**
+   * Converts an instant of the dataset to the readers of the changes it made to the record index, which the engine
+   * runs in parallel, see {@link RecordIndexChangeReader}.
+   *
+   * @param datasetMetaClient The meta client associated with the timeline instant
+   * @param instant to fetch and convert to record index changes
+   * @param lastSyncTs The last instant synced to the Metadata Table
+   * @return the readers of the record index changes
+   */
+  public static List<RecordIndexChangeReader> convertInstantToRecordIndexChanges(HoodieTableMetaClient datasetMetaClient,
+      HoodieInstant instant, Option<String> lastSyncTs) throws IOException {
+    HoodieTimeline timeline = datasetMetaClient.getActiveTimeline();
+    switch (instant.getAction()) {
+      case HoodieTimeline.DELTA_COMMIT_ACTION:
+      case HoodieTimeline.COMMIT_ACTION:
+        HoodieCommitMetadata commitMetadata = HoodieCommitMetadata.fromBytes(
+            timeline.getInstantDetails(instant).get(), HoodieCommitMetadata.class);
+        return convertMetadataToRecordIndexChanges(datasetMetaClient.getBasePath(), commitMetadata, instant.getTimestamp());
+      case HoodieTimeline.REPLACE_COMMIT_ACTION:
+        HoodieReplaceCommitMetadata replaceMetadata = HoodieReplaceCommitMetadata.fromBytes(
+            timeline.getInstantDetails(instant).get(), HoodieReplaceCommitMetadata.class);
+        return convertMetadataToRecordIndexChanges(datasetMetaClient.getBasePath(), replaceMetadata, instant.getTimestamp());
+      case HoodieTimeline.ROLLBACK_ACTION:
+        HoodieRollbackMetadata rollbackMetadata = TimelineMetadataUtils.deserializeHoodieRollbackMetadata(
+            timeline.getInstantDetails(instant).get());
+        return convertMetadataToRecordIndexChanges(datasetMetaClient, Collections.singletonList(rollbackMetadata),
+            instant.getTimestamp(), lastSyncTs);
+      case HoodieTimeline.RESTORE_ACTION:
+        HoodieRestoreMetadata restoreMetadata = TimelineMetadataUtils.deserializeHoodieRestoreMetadata(
+            timeline.getInstantDetails(instant).get());
+        return convertMetadataToRecordIndexChanges(datasetMetaClient, restoreMetadata.getHoodieRestoreMetadata().values().stream()
+            .flatMap(List::stream).collect(Collectors.toList()), instant.getTimestamp(), lastSyncTs);
+      default:
+        // Cleans only remove older file versions
+        return Collections.emptyList();
+    }
+  }
+
+  /**
+   * Returns the readers of the records added to and removed from the file groups written by a commit.
+   *
+   * Records only move to another file group when they are inserted, so the record keys are only read from the base
+   * files of the file groups which received inserts or deletes. When a file group only received inserts, the keys of
+   * the records written by the commit are read from its new base file, skipping the row groups with no such record.
+   * The keys of the previous version of the base file are only read when records were deleted from the file group.
+   * Deletes appended to log files are read from their delete blocks.
+   *
+   * @param datasetBasePath Base path of the dataset
+   * @param commitMetadata The metadata of the commit
+   * @param instantTime Instant time of the commit
+   * @return the readers of the record index changes
+   */
+  public static List<RecordIndexChangeReader> convertMetadataToRecordIndexChanges(String datasetBasePath,
+      HoodieCommitMetadata commitMetadata, String instantTime) {
+    if (commitMetadata.getOperationType() == WriteOperationType.COMPACT) {
+      // Compaction does not move records across file groups
+      return Collections.emptyList();
+    }
+
+    List<RecordIndexChangeReader> readers = new ArrayList<>();
+    if (commitMetadata instanceof HoodieReplaceCommitMetadata) {
+      ((HoodieReplaceCommitMetadata) commitMetadata).getPartitionToReplaceFileIds().forEach((partitionPath, fileIds) ->
+          fileIds.forEach(fileId -> readers.add(conf -> getReplacedRecordKeys(conf, datasetBasePath, partitionPath, fileId, instantTime))));
+    }
+    commitMetadata.getPartitionToWriteStats().values().stream()
+        .flatMap(List::stream)
+        .filter(HoodieTableMetadataUtil::changesRecordIndex)
+        .forEach(writeStat -> readers.add(conf -> getRecordIndexChanges(conf, datasetBasePath, writeStat, instantTime)));
+    LOG.info("Updating record index at " + instantTime + " from Commit/" + commitMetadata.getOperationType()
+        + ". #files_to_read=" + readers.size());
+    return readers;
+  }
+
+  private static boolean isNewFileGroup(HoodieWriteStat writeStat) {
+    return writeStat.getPrevCommit() == null || HoodieWriteStat.NULL_COMMIT.equals(writeStat.getPrevCommit());
+  }
+
+  private static boolean changesRecordIndex(HoodieWriteStat writeStat) {
+    if (writeStat.getPath() == null) {
+      return false;
+    }
+    if (FSUtils.isLogFile(new Path(writeStat.getPath()))) {
+      // Inserts are only written to log files by the indexes which can index log files
+      return writeStat.getNumDeletes() > 0;
+    }
+    // Otherwise only updates to records already in this file group
+    return isNewFileGroup(writeStat) || writeStat.getNumInserts() > 0 || writeStat.getNumDeletes() > 0;
+  }
+
+  /**
+   * Returns the readers of the changes to revert in the record index after instants were rolled back, e.g. by a
+   * rollback or a restore.
+   *
+   * The records of the file groups written by the rolled back instants are put again with the location of their
+   * latest base file left, which also restores the records the instants deleted or moved to another file group. The
+   * records inserted by the instants keep their location in the record index, which is ignored on lookup as the
+   * instant is no longer on the timeline. When a replace commit is rolled back, the file groups it replaced are not
+   * known, so all the file groups of the partitions it wrote are put again.
+   *
+   * @param datasetMetaClient The meta client of the dataset
+   * @param rollbackMetadataList The metadata of the rollbacks
+   * @param instantTime Instant time of the rollback or restore
+   * @param lastSyncTs The last instant synced to the Metadata Table, the instants after it have nothing to revert
+   * @return the readers of the record index changes
+   */
+  public static List<RecordIndexChangeReader> convertMetadataToRecordIndexChanges(HoodieTableMetaClient datasetMetaClient,
+      List<HoodieRollbackMetadata> rollbackMetadataList, String instantTime, Option<String> lastSyncTs) {
+    Map<String, Set<String>> partitionToFileIds = new HashMap<>();
+    Set<String> partitionsToReload = new HashSet<>();
+    for (HoodieRollbackMetadata rollbackMetadata : rollbackMetadataList) {
+      List<String> rolledBackInstants = rollbackMetadata.getCommitsRollback();
+      if (rolledBackInstants.isEmpty() || (lastSyncTs.isPresent()
+          && HoodieTimeline.compareTimestamps(rolledBackInstants.get(0), HoodieTimeline.GREATER_THAN, lastSyncTs.get()))) {
+        // The instant was not synced to the Metadata Table
+        continue;
+      }
+      boolean replaceCommit = rollbackMetadata.getInstantsRollback() != null && rollbackMetadata.getInstantsRollback().stream()
+          .anyMatch(instant -> HoodieTimeline.REPLACE_COMMIT_ACTION.equals(instant.getAction()));
+      rollbackMetadata.getPartitionMetadata().values().forEach(pm -> {
+        if (replaceCommit) {
+          partitionsToReload.add(pm.getPartitionPath());
+        }
+        Set<String> fileIds = partitionToFileIds.computeIfAbsent(pm.getPartitionPath(), partition -> new HashSet<>());
+        pm.getSuccessDeleteFiles().forEach(file -> fileIds.add(FSUtils.getFileIdFromFilePath(new Path(file))));
+        if (pm.getRollbackLogFiles() != null) {
+          pm.getRollbackLogFiles().keySet().forEach(file -> fileIds.add(FSUtils.getFileIdFromFilePath(new Path(file))));
+        }
+      });
+    }
+    if (partitionToFileIds.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    HoodieTableFileSystemView fsView = new HoodieTableFileSystemView(datasetMetaClient,
+        datasetMetaClient.getActiveTimeline().getCommitsTimeline().filterCompletedInstants());
+    List<RecordIndexChangeReader> readers = new ArrayList<>();
+    partitionToFileIds.forEach((partitionPath, fileIds) -> fsView.getLatestBaseFilesBeforeOrOn(partitionPath, instantTime)
+        .filter(baseFile -> partitionsToReload.contains(partitionPath) || fileIds.contains(baseFile.getFileId()))
+        .forEach(baseFile -> readers.add(createRecordIndexReader(partitionPath, baseFile.getPath()))));
+    LOG.info("Reverting record index at " + instantTime + ". #files_to_read=" + readers.size());
+    return readers;
+  }
+
+  /**
+   * Returns the readers of the records saved within the given base files, e.g. when the record index is initialized.
+   *
+   * @param partitionToBaseFilePaths Paths of the latest base files of every file group, by partition
+   * @return the readers of the record index changes
+   */
+  public static List<RecordIndexChangeReader> createRecordIndexChanges(Map<String, List<String>> partitionToBaseFilePaths) {
+    return partitionToBaseFilePaths.entrySet().stream()
+        .flatMap(e -> e.getValue().stream().map(path -> createRecordIndexReader(e.getKey(), path)))
+        .collect(Collectors.toList());
+  }
+
+  private static RecordIndexChangeReader createRecordIndexReader(String partitionPath, String baseFilePath) {
+    return conf -> {
+      Path path = new Path(baseFilePath);
+      HoodieRecordLocation location = new HoodieRecordLocation(FSUtils.getCommitTime(path.getName()), FSUtils.getFileId(path.getName()));
+      return readRecordKeys(conf, path).stream().map(recordKey -> Pair.of(new HoodieKey(recordKey, partitionPath), location));
+    };
+  }
+
+  /**
+   * Returns the records added to or removed from the file group written by a write stat. Removed records have no
+   * location.
+   */
+  private static Stream<Pair<HoodieKey, HoodieRecordLocation>> getRecordIndexChanges(Configuration conf, String basePath,
+      HoodieWriteStat writeStat, String instantTime) throws IOException {
+    Path path = new Path(basePath, writeStat.getPath());
+    String partitionPath = writeStat.getPartitionPath();
+    if (FSUtils.isLogFile(path)) {
+      return readDeletedRecordKeys(conf, path, instantTime);
+    }
+
+    HoodieRecordLocation location = new HoodieRecordLocation(instantTime, writeStat.getFileId());
+    if (isNewFileGroup(writeStat)) {
+      return readRecordKeys(conf, path).stream().map(recordKey -> Pair.of(new HoodieKey(recordKey, partitionPath), location));
+    }
+    if (writeStat.getNumDeletes() == 0) {
+      // The records inserted into the file group are among the ones written by the instant, the others were
+      // updated within the file group and keep it as location
+      return BaseFileUtils.getInstance(path.toString()).readRowKeysWrittenBy(conf, path, instantTime).stream()
+          .map(recordKey -> Pair.of(new HoodieKey(recordKey, partitionPath), location));
+    }
+
+    Set<String> recordKeys = readRecordKeys(conf, path);
+    Set<String> previousRecordKeys = new HashSet<>();
+    FileSystem fs = path.getFileSystem(conf);
+    Path previousFiles = new Path(path.getParent(),
+        writeStat.getFileId() + "_*_" + writeStat.getPrevCommit() + FSUtils.getFileExtension(path.getName()));
+    FileStatus[] statuses = fs.globStatus(previousFiles);
+    if (statuses != null && statuses.length > 0) {
+      previousRecordKeys = readRecordKeys(conf, statuses[0].getPath());
+    }
+
+    List<Pair<HoodieKey, HoodieRecordLocation>> changes = new ArrayList<>();
+    for (String recordKey : recordKeys) {
+      if (!previousRecordKeys.remove(recordKey)) {
+        changes.add(Pair.of(new HoodieKey(recordKey, partitionPath), location));
+      }
+    }
+    // The keys left were deleted from the file group
+    previousRecordKeys.forEach(recordKey -> changes.add(Pair.of(new HoodieKey(recordKey, partitionPath), null)));
+    return changes.stream();
+  }
+
+  /**
+   * Returns the records of a file group replaced by a replace commit, as removed records.
+   */
+  private static Stream<Pair<HoodieKey, HoodieRecordLocation>> getReplacedRecordKeys(Configuration conf, String basePath,
+      String partitionPath, String fileId, String instantTime) throws IOException {
+    Path partition = FSUtils.getPartitionPath(basePath, partitionPath);
+    FileSystem fs = partition.getFileSystem(conf);
+    FileStatus[] statuses = fs.globStatus(new Path(partition, fileId + "_*"));
+    if (statuses == null) {
+      return Stream.empty();
+    }
+    Option<Path> latestBaseFile = Option.fromJavaOptional(Arrays.stream(statuses)
+        .map(FileStatus::getPath)
+        .filter(path -> HoodieTimeline.compareTimestamps(FSUtils.getCommitTime(path.getName()), HoodieTimeline.LESSER_THAN, instantTime))
+        .max(Comparator.comparing(path -> FSUtils.getCommitTime(path.getName()))));
+    if (!latestBaseFile.isPresent()) {
+      return Stream.empty();
+    }
+    return readRecordKeys(conf, latestBaseFile.get()).stream()
+        .map(recordKey -> Pair.of(new HoodieKey(recordKey, partitionPath), null));
+  }
+
+  /**
+   * Returns the records deleted by the delete blocks an instant appended to a log file, as removed records.
+   */
+  private static Stream<Pair<HoodieKey, HoodieRecordLocation>> readDeletedRecordKeys(Configuration conf, Path logFilePath,
+      String instantTime) throws IOException {
+    List<Pair<HoodieKey, HoodieRecordLocation>> deletedKeys = new ArrayList<>();
+    FileSystem fs = logFilePath.getFileSystem(conf);
+    try (HoodieLogFormat.Reader reader = HoodieLogFormat.newReader(fs, new HoodieLogFile(logFilePath), null, true, false)) {
+      while (reader.hasNext()) {
+        HoodieLogBlock block = reader.next();
+        if (block.getBlockType() == HoodieLogBlock.HoodieLogBlockType.DELETE_BLOCK
+            && instantTime.equals(block.getLogBlockHeader().get(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME))) {
+          Arrays.stream(((HoodieDeleteBlock) block).getKeysToDelete()).forEach(key -> deletedKeys.add(Pair.of(key, null)));
+        }
+      }
+    }
+    return deletedKeys.stream();
+  }
+
+  private static Set<String> readRecordKeys(Configuration conf, Path baseFilePath) {
+    return BaseFileUtils.getInstance(baseFilePath.toString()).readRowKeys(conf, baseFilePath);
+  }
+
+  /**
+   * Combines two changes to the same record within an instant: a record removed from a file group and added to
+   * another one keeps its new location.
+   */
+  public static Pair<HoodieKey, HoodieRecordLocation> combineRecordIndexChanges(Pair<HoodieKey, HoodieRecordLocation> change,
+      Pair<HoodieKey, HoodieRecordLocation> otherChange) {
+    return otherChange.getRight() != null ? otherChange : change;
+  }
+
+  /**
+   * Creates the record index record for the given change.
+   */
+  public static HoodieRecord toRecordIndexRecord(Pair<HoodieKey, HoodieRecordLocation> change) {
+    String recordKey = change.getLeft().getRecordKey();
+    if (change.getRight() == null) {
+      return HoodieMetadataPayload.createRecordIndexDelete(recordKey);
+    }
+    return HoodieMetadataPayload.createRecordIndexUpdate(recordKey, change.getLeft().getPartitionPath(),
+        change.getRight().getFileId(), change.getRight().getInstantTime());
+  }
+
+  /**
+   * Converts a commit, delta commit, compaction or replace commit of the dataset to the records of a partition of the
+   * Metadata Table which saves an entry per base file, i.e. the bloom filter or the column stats partition.
+   *
+   * @param engineContext Engine context used to read the written files in parallel
+   * @param datasetMetaClient The meta client associated with the timeline instant
+   * @param instant to fetch and convert to records
+   * @param partitionType Either {@link MetadataPartitionType#BLOOM_FILTERS} or {@link MetadataPartitionType#COLUMN_STATS}
+   * @param parallelism Maximum number of files read in parallel
+   * @return a list of records of the partition
+   */
+  public static List<HoodieRecord> convertInstantToBaseFileRecords(HoodieEngineContext engineContext,
+      HoodieTableMetaClient datasetMetaClient, HoodieInstant instant, MetadataPartitionType partitionType, int parallelism) throws IOException {
+    HoodieTimeline timeline = datasetMetaClient.getActiveTimeline();
+    switch (instant.getAction()) {
+      case HoodieTimeline.DELTA_COMMIT_ACTION:
+      case HoodieTimeline.COMMIT_ACTION:
+      case HoodieTimeline.COMPACTION_ACTION:
+        HoodieCommitMetadata commitMetadata = HoodieCommitMetadata.fromBytes(
+            timeline.getInstantDetails(instant).get(), HoodieCommitMetadata.class);
+        return convertMetadataToBaseFileRecords(engineContext, datasetMetaClient.getBasePath(), commitMetadata,
+            instant.getTimestamp(), partitionType, parallelism);
+      case HoodieTimeline.REPLACE_COMMIT_ACTION:
+        HoodieReplaceCommitMetadata replaceMetadata = HoodieReplaceCommitMetadata.fromBytes(
+            timeline.getInstantDetails(instant).get(), HoodieReplaceCommitMetadata.class);
+        return convertMetadataToBaseFileRecords(engineContext, datasetMetaClient.getBasePath(), replaceMetadata,
+            instant.getTimestamp(), partitionType, parallelism);
+      default:
+        // Cleans only remove older file versions. The entries of base files removed by rollbacks and restores are
+        // detected on lookup, as their file name differs from the one of the latest base file.
+        return Collections.emptyList();
+    }
+  }
+
+  /**
+   * Reads the footers of the base files written by a commit, and creates the bloom filter or column stats records for
+   * them. The entries of the file groups replaced by a replace commit are removed.
+   *
+   * @param engineContext Engine context used to read the written files in parallel
+   * @param datasetBasePath Base path of the dataset
+   * @param commitMetadata The metadata of the commit
+   * @param instantTime Instant time of the commit
+   * @param partitionType Either {@link MetadataPartitionType#BLOOM_FILTERS} or {@link MetadataPartitionType#COLUMN_STATS}
+   * @param parallelism Maximum number of files read in parallel
+   * @return a list of records of the partition
+   */
+  public static List<HoodieRecord> convertMetadataToBaseFileRecords(HoodieEngineContext engineContext, String datasetBasePath,
+      HoodieCommitMetadata commitMetadata, String instantTime, MetadataPartitionType partitionType, int parallelism) {
+    List<HoodieRecord> records = new ArrayList<>();
+    if (commitMetadata instanceof HoodieReplaceCommitMetadata) {
+      ((HoodieReplaceCommitMetadata) commitMetadata).getPartitionToReplaceFileIds().values().stream()
+          .flatMap(List::stream)
+          .forEach(fileId -> records.add(partitionType == MetadataPartitionType.BLOOM_FILTERS
+              ? HoodieMetadataPayload.createBloomFilterDelete(fileId) : HoodieMetadataPayload.createColumnStatsDelete(fileId)));
+    }
+
+    List<String> baseFilePaths = commitMetadata.getPartitionToWriteStats().values().stream()
+        .flatMap(List::stream)
+        .map(HoodieWriteStat::getPath)
+        .filter(path -> path != null && !FSUtils.isLogFile(new Path(path)))
+        .map(path -> new Path(datasetBasePath, path).toString())
+        .collect(Collectors.toList());
+    records.addAll(createBaseFileRecords(engineContext, baseFilePaths, partitionType, parallelism));
+    LOG.info("Updating " + partitionType.partitionPath() + " at " + instantTime + " from Commit/" + commitMetadata.getOperationType()
+        + ". #files_updated=" + baseFilePaths.size());
+    return records;
+  }
+
+  /**
+   * Creates the bloom filter or column stats records of the given base files, when the partition is initialized.
+   *
+   * @param engineContext Engine context used to read the base files in parallel
+   * @param partitionToBaseFilePaths Paths of the latest base files of every file group, by partition
+   * @param partitionType Either {@link MetadataPartitionType#BLOOM_FILTERS} or {@link MetadataPartitionType#COLUMN_STATS}
+   * @param parallelism Maximum number of files read in parallel
+   * @return a list of records of the partition
+   */
+  public static List<HoodieRecord> createBaseFileRecords(HoodieEngineContext engineContext,
+      Map<String, List<String>> partitionToBaseFilePaths, MetadataPartitionType partitionType, int parallelism) {
+    return createBaseFileRecords(engineContext,
+        partitionToBaseFilePaths.values().stream().flatMap(List::stream).collect(Collectors.toList()), partitionType, parallelism);
+  }
+
+  private static List<HoodieRecord> createBaseFileRecords(HoodieEngineContext engineContext, List<String> baseFilePaths,
+      MetadataPartitionType partitionType, int parallelism) {
+    ValidationUtils.checkArgument(partitionType == MetadataPartitionType.BLOOM_FILTERS || partitionType == MetadataPartitionType.COLUMN_STATS,
+        "No entry per base file in partition " + partitionType.partitionPath());
+    if (baseFilePaths.isEmpty()) {
+      return Collections.emptyList();
+    }
+    SerializableConfiguration conf = new SerializableConfiguration(engineContext.getHadoopConf());
+    return engineContext.flatMap(baseFilePaths, baseFilePath -> {
+      Path path = new Path(baseFilePath);
+      return partitionType == MetadataPartitionType.BLOOM_FILTERS
+          ? createBloomFilterRecord(conf.get(), path) : createColumnStatsRecord(conf.get(), path);
+    }, Math.min(baseFilePaths.size(), parallelism));
+  }
+
+  private static Stream<HoodieRecord> createBloomFilterRecord(Configuration conf, Path path) {
+    BaseFileUtils fileUtils = BaseFileUtils.getInstance(path.toString());
+    BloomFilter bloomFilter = fileUtils.readBloomFilterFromMetadata(conf, path);
+    if (bloomFilter == null) {
+      LOG.warn("No bloom filter found in the footer of " + path);
+      return Stream.empty();
+    }
+    Option<String[]> minMaxRecordKeys;
+    try {
+      minMaxRecordKeys = Option.of(fileUtils.readMinMaxRecordKeys(conf, path));
+    } catch (MetadataNotFoundException e) {
+      LOG.warn("No key range found in the footer of " + path);
+      minMaxRecordKeys = Option.empty();
+    }
+    return Stream.of(HoodieMetadataPayload.createBloomFilterUpdate(FSUtils.getFileId(path.getName()),
+        path.getName(), bloomFilter, minMaxRecordKeys));
+  }
+
+  private static Stream<HoodieRecord> createColumnStatsRecord(Configuration conf, Path path) {
+    if (!path.getName().endsWith(HoodieFileFormat.PARQUET.getFileExtension())) {
+      // Only the footers of parquet files hold column statistics
+      return Stream.empty();
+    }
+    List<HoodieColumnRangeMetadata> columnRanges = new ParquetUtils().readRangeFromParquetMetadata(conf, path);
+    return Stream.of(HoodieMetadataPayload.createColumnStatsUpdate(FSUtils.getFileId(path.getName()),
+        path.getName(), columnRanges));
+  }
 }
@@ -19,7 +19,10 @@
 package org.apache.hudi.metadata;
 
 public enum MetadataPartitionType {
-  FILES("files");
+  FILES("files"),
+  RECORD_INDEX("record_index"),
+  BLOOM_FILTERS("bloom_filters"),
+  COLUMN_STATS("column_stats");
 
   private final String partitionPath;
 
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.metadata;
+
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecordLocation;
+import org.apache.hudi.common.util.collection.Pair;
+
+import org.apache.hadoop.conf.Configuration;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.stream.Stream;
+
+/**
+ * Reads a part of the changes an instant of the dataset makes to the record index, e.g. the records inserted into a
+ * file group. The readers are shipped to the executors by the engine, so that the records of the record index are
+ * never collected on the driver.
+ */
+@FunctionalInterface
+public interface RecordIndexChangeReader extends Serializable {
+
+  /**
+   * @param conf Configuration to read the files of the dataset with
+   * @return the keys of the records added to the record index with their location, or removed from it with no location
+   */
+  Stream<Pair<HoodieKey, HoodieRecordLocation>> read(Configuration conf) throws IOException;
+}
@@ -27,10 +27,12 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
- * Unit tests {@link SimpleBloomFilter} and {@link HoodieDynamicBoundedBloomFilter}.
+ * Unit tests {@link SimpleBloomFilter}, {@link HoodieDynamicBoundedBloomFilter}, {@link HoodieBlockedBloomFilter}
+ * and {@link AdaptiveSizeBloomFilter}.
  */
 public class TestBloomFilter {
 
@@ -39,7 +41,8 @@ public class TestBloomFilter {
   public static List<Arguments> bloomFilterTypeCodes() {
     return Arrays.asList(
         Arguments.of(BloomFilterTypeCode.SIMPLE.name()),
-        Arguments.of(BloomFilterTypeCode.DYNAMIC_V0.name())
+        Arguments.of(BloomFilterTypeCode.DYNAMIC_V0.name()),
+        Arguments.of(BloomFilterTypeCode.BLOCKED_V0.name())
     );
   }
 
@@ -92,6 +95,81 @@ public class TestBloomFilter {
     }
   }
 
+  @ParameterizedTest
+  @MethodSource("bloomFilterTypeCodes")
+  public void testBatchedMightContain(String typeCode) {
+    int size = 10000;
+    BloomFilter filter = getBloomFilter(typeCode, size, 0.001, size * 10);
+    List<String> inputs = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      String key = UUID.randomUUID().toString();
+      inputs.add(key);
+      filter.add(key);
+    }
+    List<String> keys = new ArrayList<>(inputs);
+    for (int i = 0; i < size; i++) {
+      keys.add(UUID.randomUUID().toString());
+    }
+
+    boolean[] mightContain = filter.mightContain(keys);
+    assertEquals(keys.size(), mightContain.length);
+    int falsePositives = 0;
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals(filter.mightContain(keys.get(i)), mightContain[i], "Batched probe differs for " + keys.get(i));
+      if (i < size) {
+        assertTrue(mightContain[i], "Filter should have returned true for " + keys.get(i));
+      } else if (mightContain[i]) {
+        falsePositives++;
+      }
+    }
+    // 0.001 expected, with some margin
+    assertTrue(falsePositives < size * 0.005, "Too many false positives: " + falsePositives);
+  }
+
+  @ParameterizedTest
+  @MethodSource("bloomFilterTypeCodes")
+  public void testAdaptiveSizing(String typeCode) {
+    int size = 10000;
+    BloomFilter adaptiveFilter = BloomFilterFactory.createAdaptiveSizeBloomFilter(2 * size, 4 * size, 0.001, 100, typeCode);
+    BloomFilter sizedFilter = BloomFilterFactory.createBloomFilter(size, 0.001, size, typeCode);
+    for (int i = 0; i < size; i++) {
+      String key = UUID.randomUUID().toString();
+      adaptiveFilter.add(key);
+      sizedFilter.add(key);
+    }
+    // the filter is sized for the keys added, not for the number of entries it was created with
+    String serString = adaptiveFilter.serializeToString();
+    assertEquals(sizedFilter.serializeToString(), serString);
+    assertEquals(BloomFilterTypeCode.valueOf(typeCode), adaptiveFilter.getBloomFilterTypeCode());
+
+    // a file with few records gets a small filter
+    BloomFilter smallFilter = BloomFilterFactory.createAdaptiveSizeBloomFilter(2 * size, 4 * size, 0.001, 100, typeCode);
+    smallFilter.add(UUID.randomUUID().toString());
+    assertTrue(smallFilter.serializeToString().length() < serString.length() / 100);
+  }
+
+  @ParameterizedTest
+  @MethodSource("bloomFilterTypeCodes")
+  public void testAdaptiveSizingStopsBuffering(String typeCode) {
+    int maxBufferedKeys = 100;
+    int numEntriesEstimate = 1000;
+    AdaptiveSizeBloomFilter adaptiveFilter = (AdaptiveSizeBloomFilter) BloomFilterFactory.createAdaptiveSizeBloomFilter(
+        maxBufferedKeys, numEntriesEstimate, 0.001, numEntriesEstimate, typeCode);
+    BloomFilter sizedFilter = BloomFilterFactory.createBloomFilter(numEntriesEstimate, 0.001, numEntriesEstimate, typeCode);
+    List<String> keys = new ArrayList<>();
+    for (int i = 0; i < numEntriesEstimate; i++) {
+      String key = UUID.randomUUID().toString();
+      keys.add(key);
+      adaptiveFilter.add(key);
+      sizedFilter.add(key);
+      // the keys are buffered up to maxBufferedKeys only
+      assertEquals(i + 1 < maxBufferedKeys, adaptiveFilter.isBuffering());
+    }
+    // past maxBufferedKeys, the filter is sized for the estimated number of entries
+    keys.forEach(key -> assertTrue(adaptiveFilter.mightContain(key)));
+    assertEquals(sizedFilter.serializeToString(), adaptiveFilter.serializeToString());
+  }
+
   BloomFilter getBloomFilter(String typeCode, int numEntries, double errorRate, int maxEntries) {
     if (typeCode.equalsIgnoreCase(BloomFilterTypeCode.SIMPLE.name())) {
       return BloomFilterFactory.createBloomFilter(numEntries, errorRate, -1, typeCode);
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.fs;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests {@link AsyncDoubleBufferedOutputStream}.
+ */
+public class TestAsyncDoubleBufferedOutputStream {
+
+  @Test
+  public void testWrite() throws IOException {
+    Random random = new Random(0xDEADBEEFL);
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (AsyncDoubleBufferedOutputStream asyncStream = new AsyncDoubleBufferedOutputStream(out, 64, "test")) {
+      for (int i = 0; i < 500; i++) {
+        if (random.nextBoolean()) {
+          int b = random.nextInt(256);
+          expected.write(b);
+          asyncStream.write(b);
+        } else {
+          byte[] bytes = new byte[random.nextInt(200)];
+          random.nextBytes(bytes);
+          int off = bytes.length > 0 ? random.nextInt(bytes.length) : 0;
+          expected.write(bytes, off, bytes.length - off);
+          asyncStream.write(bytes, off, bytes.length - off);
+        }
+        if (i % 100 == 0) {
+          asyncStream.flush();
+          assertArrayEquals(expected.toByteArray(), out.toByteArray());
+        }
+      }
+    }
+    assertArrayEquals(expected.toByteArray(), out.toByteArray());
+  }
+
+  @Test
+  public void testHandOverFullBuffers() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (AsyncDoubleBufferedOutputStream asyncStream = new AsyncDoubleBufferedOutputStream(out, 256 * 1024, "test")) {
+      // the buffer grows past its initial size, and is only handed over once full
+      asyncStream.write(new byte[200 * 1024]);
+      assertEquals(0, out.size());
+      asyncStream.write(new byte[100 * 1024]);
+      asyncStream.write(1);
+      asyncStream.flush();
+      assertEquals(300 * 1024 + 1, out.size());
+    }
+  }
+
+  @Test
+  public void testWriteFailure() throws IOException {
+    OutputStream failingStream = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("Failed write");
+      }
+    };
+    AsyncDoubleBufferedOutputStream asyncStream = new AsyncDoubleBufferedOutputStream(failingStream, 8, "test");
+    asyncStream.write(new byte[8]);
+    IOException e = assertThrows(IOException.class, asyncStream::flush);
+    assertEquals("Failed write", e.getMessage());
+    asyncStream.close();
+  }
+}
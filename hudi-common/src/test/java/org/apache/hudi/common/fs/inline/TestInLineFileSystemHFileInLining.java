@@ -19,6 +19,7 @@
 package org.apache.hudi.common.fs.inline;
 
 import org.apache.hudi.common.testutils.FileSystemTestUtils;
+import org.apache.hudi.common.testutils.minicluster.HdfsTestService;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -32,7 +33,9 @@ import org.apache.hadoop.hbase.io.hfile.HFileContext;
 import org.apache.hadoop.hbase.io.hfile.HFileContextBuilder;
 import org.apache.hadoop.hbase.io.hfile.HFileScanner;
 import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
@@ -44,7 +47,6 @@ import java.util.UUID;
 
 import static org.apache.hudi.common.testutils.FileSystemTestUtils.FILE_SCHEME;
 import static org.apache.hudi.common.testutils.FileSystemTestUtils.RANDOM;
-import static org.apache.hudi.common.testutils.FileSystemTestUtils.getPhantomFile;
 import static org.apache.hudi.common.testutils.FileSystemTestUtils.getRandomOuterInMemPath;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -55,6 +57,8 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
  */
 public class TestInLineFileSystemHFileInLining {
 
+  private static HdfsTestService hdfsTestService;
+  private static String dfsUri;
   private final Configuration inMemoryConf;
   private final Configuration inlineConf;
   private final int minBlockSize = 1024;
@@ -69,6 +73,19 @@ public class TestInLineFileSystemHFileInLining {
     inlineConf.set("fs." + InLineFileSystem.SCHEME + ".impl", InLineFileSystem.class.getName());
   }
 
+  @BeforeAll
+  public static void initClass() throws IOException {
+    hdfsTestService = new HdfsTestService();
+    dfsUri = hdfsTestService.start(true).getFileSystem().getUri().toString();
+  }
+
+  @AfterAll
+  public static void cleanupClass() {
+    if (hdfsTestService != null) {
+      hdfsTestService.stop();
+    }
+  }
+
   @AfterEach
   public void teardown() throws IOException {
     if (generatedPath != null) {
@@ -84,6 +101,18 @@ public class TestInLineFileSystemHFileInLining {
     Path outerInMemFSPath = getRandomOuterInMemPath();
     Path outerPath = new Path(FILE_SCHEME + outerInMemFSPath.toString().substring(outerInMemFSPath.toString().indexOf(':')));
     generatedPath = outerPath;
+    testInlineFileSystem(outerInMemFSPath, outerPath);
+  }
+
+  @Test
+  public void testInlineFileSystemWithAuthority() throws IOException {
+    // the authority of the outer path, here the name node, is kept in the inline path
+    Path outerInMemFSPath = getRandomOuterInMemPath();
+    Path outerPath = new Path(dfsUri + outerInMemFSPath.toUri().getPath());
+    testInlineFileSystem(outerInMemFSPath, outerPath);
+  }
+
+  private void testInlineFileSystem(Path outerInMemFSPath, Path outerPath) throws IOException {
     CacheConfig cacheConf = new CacheConfig(inMemoryConf);
     FSDataOutputStream fout = createFSOutput(outerInMemFSPath, inMemoryConf);
     HFileContext meta = new HFileContextBuilder()
@@ -104,7 +133,8 @@ public class TestInLineFileSystemHFileInLining {
     long inlineLength = inlineBytes.length;
 
     // Generate phantom inline file
-    Path inlinePath = getPhantomFile(outerPath, startOffset, inlineLength);
+    Path inlinePath = InLineFSUtils.getInlineFilePath(outerPath, outerPath.toUri().getScheme(), startOffset, inlineLength);
+    assertEquals(outerPath, InLineFSUtils.getOuterfilePathFromInlinePath(inlinePath));
 
     InLineFileSystem inlineFileSystem = (InLineFileSystem) inlinePath.getFileSystem(inlineConf);
     FSDataInputStream fin = inlineFileSystem.open(inlinePath);
@@ -22,6 +22,7 @@ package org.apache.hudi.common.fs.inline;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.testutils.FileSystemTestUtils;
 import org.apache.hudi.common.testutils.HoodieTestDataGenerator;
+import org.apache.hudi.common.testutils.minicluster.HdfsTestService;
 
 import org.apache.avro.generic.GenericRecord;
 import org.apache.hadoop.conf.Configuration;
@@ -32,7 +33,9 @@ import org.apache.parquet.avro.AvroParquetWriter;
 import org.apache.parquet.hadoop.ParquetReader;
 import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
@@ -42,15 +45,17 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.apache.hudi.common.testutils.FileSystemTestUtils.FILE_SCHEME;
-import static org.apache.hudi.common.testutils.FileSystemTestUtils.getPhantomFile;
 import static org.apache.hudi.common.testutils.FileSystemTestUtils.getRandomOuterInMemPath;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
  * Tests for {@link InLineFileSystem} with Parquet writer and reader.
  */
 public class TestParquetInLining {
 
+  private static HdfsTestService hdfsTestService;
+  private static String dfsUri;
   private final Configuration inMemoryConf;
   private final Configuration inlineConf;
   private Path generatedPath;
@@ -62,6 +67,19 @@ public class TestParquetInLining {
     inlineConf.set("fs." + InLineFileSystem.SCHEME + ".impl", InLineFileSystem.class.getName());
   }
 
+  @BeforeAll
+  public static void initClass() throws IOException {
+    hdfsTestService = new HdfsTestService();
+    dfsUri = hdfsTestService.start(true).getFileSystem().getUri().toString();
+  }
+
+  @AfterAll
+  public static void cleanupClass() {
+    if (hdfsTestService != null) {
+      hdfsTestService.stop();
+    }
+  }
+
   @AfterEach
   public void teardown() throws IOException {
     if (generatedPath != null) {
@@ -77,6 +95,18 @@ public class TestParquetInLining {
     Path outerInMemFSPath = getRandomOuterInMemPath();
     Path outerPath = new Path(FILE_SCHEME + outerInMemFSPath.toString().substring(outerInMemFSPath.toString().indexOf(':')));
     generatedPath = outerPath;
+    testInlineFileSystem(outerInMemFSPath, outerPath);
+  }
+
+  @Test
+  public void testInlineFileSystemWithAuthority() throws IOException {
+    // the authority of the outer path, here the name node, is kept in the inline path
+    Path outerInMemFSPath = getRandomOuterInMemPath();
+    Path outerPath = new Path(dfsUri + outerInMemFSPath.toUri().getPath());
+    testInlineFileSystem(outerInMemFSPath, outerPath);
+  }
+
+  private void testInlineFileSystem(Path outerInMemFSPath, Path outerPath) throws IOException {
     ParquetWriter inlineWriter = new AvroParquetWriter(outerInMemFSPath, HoodieTestDataGenerator.AVRO_SCHEMA,
         CompressionCodecName.GZIP, 100 * 1024 * 1024, 1024 * 1024, true, inMemoryConf);
     // write few records
@@ -91,7 +121,8 @@ public class TestParquetInLining {
     long inlineLength = inlineBytes.length;
 
     // Generate phantom inline file
-    Path inlinePath = getPhantomFile(outerPath, startOffset, inlineLength);
+    Path inlinePath = InLineFSUtils.getInlineFilePath(outerPath, outerPath.toUri().getScheme(), startOffset, inlineLength);
+    assertEquals(outerPath, InLineFSUtils.getOuterfilePathFromInlinePath(inlinePath));
 
     // instantiate Parquet reader
     ParquetReader inLineReader = AvroParquetReader.builder(inlinePath).withConf(inlineConf).build();
@@ -28,9 +28,11 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hudi.avro.HoodieAvroUtils;
 import org.apache.hudi.common.fs.FSUtils;
 import org.apache.hudi.common.model.HoodieArchivedLogFile;
+import org.apache.hudi.common.model.HoodieAvroPayload;
 import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieLogFile;
 import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordPayload;
 import org.apache.hudi.common.model.HoodieTableType;
 import org.apache.hudi.common.table.log.AppendResult;
 import org.apache.hudi.common.table.log.HoodieLogFileReader;
@@ -39,6 +41,7 @@ import org.apache.hudi.common.table.log.HoodieLogFormat.Reader;
 import org.apache.hudi.common.table.log.HoodieLogFormat.Writer;
 import org.apache.hudi.common.table.log.HoodieMergedLogRecordScanner;
 import org.apache.hudi.common.table.log.block.HoodieAvroDataBlock;
+import org.apache.hudi.common.table.log.block.HoodieAvroDataBlockBuffer;
 import org.apache.hudi.common.table.log.block.HoodieCommandBlock;
 import org.apache.hudi.common.table.log.block.HoodieDataBlock;
 import org.apache.hudi.common.table.log.block.HoodieDeleteBlock;
@@ -46,6 +49,8 @@ import org.apache.hudi.common.table.log.block.HoodieHFileDataBlock;
 import org.apache.hudi.common.table.log.block.HoodieLogBlock;
 import org.apache.hudi.common.table.log.block.HoodieLogBlock.HeaderMetadataType;
 import org.apache.hudi.common.table.log.block.HoodieLogBlock.HoodieLogBlockType;
+import org.apache.hudi.common.table.log.block.HoodieLogBlockCompressionCodec;
+import org.apache.hudi.common.table.log.block.HoodieParquetDataBlock;
 import org.apache.hudi.common.testutils.FileCreateUtils;
 import org.apache.hudi.common.testutils.HoodieCommonTestHarness;
 import org.apache.hudi.common.testutils.HoodieTestUtils;
@@ -65,6 +70,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -75,6 +81,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.apache.hudi.common.testutils.SchemaTestUtil.getSimpleSchema;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -131,7 +138,7 @@ public class TestHoodieLogFormat extends HoodieCommonTestHarness {
   }
 
   @ParameterizedTest
-  @EnumSource(names = { "AVRO_DATA_BLOCK", "HFILE_DATA_BLOCK" })
+  @EnumSource(names = { "AVRO_DATA_BLOCK", "HFILE_DATA_BLOCK", "PARQUET_DATA_BLOCK" })
   public void testBasicAppend(HoodieLogBlockType dataBlockType) throws IOException, InterruptedException, URISyntaxException {
     Writer writer =
         HoodieLogFormat.newWriterBuilder().onParentPath(partitionPath).withFileExtension(HoodieLogFile.DELTA_EXTENSION)
@@ -154,6 +161,85 @@ public class TestHoodieLogFormat extends HoodieCommonTestHarness {
     writer.close();
   }
 
+  @ParameterizedTest
+  @EnumSource(HoodieLogBlockCompressionCodec.class)
+  public void testAppendAndReadCompressedAvroDataBlock(HoodieLogBlockCompressionCodec codec)
+      throws IOException, InterruptedException, URISyntaxException {
+    Writer writer =
+        HoodieLogFormat.newWriterBuilder().onParentPath(partitionPath).withFileExtension(HoodieLogFile.DELTA_EXTENSION)
+            .withFileId("test-fileid1").overBaseCommit("100").withFs(fs).build();
+    List<IndexedRecord> records = SchemaTestUtil.generateTestRecords(0, 100);
+    Map<HeaderMetadataType, String> header = new HashMap<>();
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "100");
+    header.put(HoodieLogBlock.HeaderMetadataType.SCHEMA, getSimpleSchema().toString());
+    // Write the same records uncompressed and then compressed
+    writer.appendBlock(new HoodieAvroDataBlock(new ArrayList<>(records), header));
+    long uncompressedSize = writer.getCurrentSize();
+    Map<HeaderMetadataType, String> compressedHeader = new HashMap<>(header);
+    compressedHeader.put(HeaderMetadataType.COMPRESSION_CODEC, codec.name());
+    writer.appendBlock(new HoodieAvroDataBlock(new ArrayList<>(records), compressedHeader));
+    long compressedSize = writer.getCurrentSize() - uncompressedSize;
+    writer.close();
+
+    if (codec != HoodieLogBlockCompressionCodec.NONE) {
+      assertTrue(compressedSize < uncompressedSize, "Compressed block should be smaller than the uncompressed block");
+    }
+    Reader reader = HoodieLogFormat.newReader(fs, writer.getLogFile(), SchemaTestUtil.getSimpleSchema());
+    for (int i = 0; i < 2; i++) {
+      assertTrue(reader.hasNext(), "Block " + i + " should be available");
+      HoodieAvroDataBlock dataBlock = (HoodieAvroDataBlock) reader.next();
+      assertEquals(records, dataBlock.getRecords(), "Both records lists should be the same");
+    }
+    assertFalse(reader.hasNext());
+    reader.close();
+  }
+
+  @ParameterizedTest
+  @EnumSource(HoodieLogBlockCompressionCodec.class)
+  public void testAppendAndReadBufferedAvroDataBlock(HoodieLogBlockCompressionCodec codec)
+      throws IOException, InterruptedException, URISyntaxException {
+    Writer writer =
+        HoodieLogFormat.newWriterBuilder().onParentPath(partitionPath).withFileExtension(HoodieLogFile.DELTA_EXTENSION)
+            .withFileId("test-fileid1").overBaseCommit("100").withFs(fs).build();
+    List<IndexedRecord> records = SchemaTestUtil.generateTestRecords(0, 150);
+    Map<HeaderMetadataType, String> header = new HashMap<>();
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "100");
+    header.put(HoodieLogBlock.HeaderMetadataType.SCHEMA, getSimpleSchema().toString());
+    if (codec != HoodieLogBlockCompressionCodec.NONE) {
+      header.put(HeaderMetadataType.COMPRESSION_CODEC, codec.name());
+    }
+    // Encode two blocks through the same buffer
+    HoodieAvroDataBlockBuffer buffer = new HoodieAvroDataBlockBuffer(getSimpleSchema(), codec);
+    List<List<IndexedRecord>> blockRecords = Arrays.asList(records.subList(0, 100), records.subList(100, 150));
+    for (List<IndexedRecord> recordsOfBlock : blockRecords) {
+      recordsOfBlock.forEach(record -> {
+        try {
+          buffer.append(record);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      assertEquals(recordsOfBlock.size(), buffer.getNumRecords());
+      HoodieAvroDataBlock block = buffer.toBlock(header);
+      if (codec == HoodieLogBlockCompressionCodec.NONE) {
+        assertArrayEquals(new HoodieAvroDataBlock(new ArrayList<>(recordsOfBlock), header).getContentBytes(), block.getContentBytes(),
+            "Buffered block should be serialized the same as the block of a record list");
+      }
+      writer.appendBlock(block);
+      buffer.reset();
+    }
+    writer.close();
+
+    Reader reader = HoodieLogFormat.newReader(fs, writer.getLogFile(), SchemaTestUtil.getSimpleSchema());
+    for (List<IndexedRecord> recordsOfBlock : blockRecords) {
+      assertTrue(reader.hasNext());
+      HoodieAvroDataBlock dataBlock = (HoodieAvroDataBlock) reader.next();
+      assertEquals(recordsOfBlock, dataBlock.getRecords(), "Both records lists should be the same");
+    }
+    assertFalse(reader.hasNext());
+    reader.close();
+  }
+
   @Test
   public void testRollover() throws IOException, InterruptedException, URISyntaxException {
     Writer writer =
@@ -651,6 +737,126 @@ public class TestHoodieLogFormat extends HoodieCommonTestHarness {
     assertEquals(originalKeys, readKeys, "CompositeAvroLogReader should return 200 records from 2 versions");
   }
 
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void testAvroLogRecordReaderKeepsRecordsEncoded(boolean readBlocksLazily)
+      throws IOException, URISyntaxException, InterruptedException {
+    Schema schema = HoodieAvroUtils.addMetadataFields(getSimpleSchema());
+    Writer writer =
+        HoodieLogFormat.newWriterBuilder().onParentPath(partitionPath).withFileExtension(HoodieLogFile.DELTA_EXTENSION)
+            .withFileId("test-fileid1").overBaseCommit("100").withFs(fs).build();
+    List<IndexedRecord> records1 = SchemaTestUtil.generateHoodieTestRecords(0, 100);
+    // Update all the records in the second block
+    List<IndexedRecord> records2 = records1.stream().map(record -> {
+      GenericRecord updated = HoodieAvroUtils.rewriteRecord((GenericRecord) record, schema);
+      updated.put("favorite_number", 42);
+      return updated;
+    }).collect(Collectors.toList());
+    List<IndexedRecord> copyOfRecords2 = new ArrayList<>(records2);
+    Map<HoodieLogBlock.HeaderMetadataType, String> header = new HashMap<>();
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "100");
+    header.put(HoodieLogBlock.HeaderMetadataType.SCHEMA, schema.toString());
+    writer.appendBlock(new HoodieAvroDataBlock(records1, header));
+    writer.appendBlock(new HoodieAvroDataBlock(records2, header));
+    writer.close();
+
+    FileCreateUtils.createDeltaCommit(basePath, "100", fs);
+    HoodieMergedLogRecordScanner scanner = HoodieMergedLogRecordScanner.newBuilder()
+        .withFileSystem(fs)
+        .withBasePath(basePath)
+        .withLogFilePaths(Collections.singletonList(writer.getLogFile().getPath().toString()))
+        .withReaderSchema(schema)
+        .withLatestInstantTime("100")
+        .withMaxMemorySizeInBytes(10240L)
+        .withReadBlocksLazily(readBlocksLazily)
+        .withReverseReader(false)
+        .withBufferSize(bufferSize)
+        .withSpillableMapBasePath(BASE_OUTPUT_PATH)
+        .build();
+    assertEquals(200, scanner.getTotalLogRecords());
+    Map<String, HoodieRecord<? extends HoodieRecordPayload>> records = scanner.getRecords();
+    assertEquals(100, records.size());
+    for (IndexedRecord expected : copyOfRecords2) {
+      HoodieRecord<? extends HoodieRecordPayload> record =
+          records.get(((GenericRecord) expected).get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString());
+      // the payload holds the encoded record as written to the log block
+      assertTrue(record.getData() instanceof HoodieAvroPayload);
+      assertArrayEquals(HoodieAvroUtils.avroToBytes((GenericRecord) expected),
+          ((HoodieAvroPayload) record.getData()).getRecordBytes());
+      assertEquals(expected, record.getData().getInsertValue(schema).get());
+    }
+    scanner.close();
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void testParquetDataBlockReadWithProjection(boolean readBlocksLazily)
+      throws IOException, URISyntaxException, InterruptedException {
+    Schema schema = HoodieAvroUtils.addMetadataFields(getSimpleSchema());
+    Writer writer =
+        HoodieLogFormat.newWriterBuilder().onParentPath(partitionPath).withFileExtension(HoodieLogFile.DELTA_EXTENSION)
+            .withFileId("test-fileid1").overBaseCommit("100").withFs(fs).build();
+    List<IndexedRecord> records1 = SchemaTestUtil.generateHoodieTestRecords(0, 100);
+    List<IndexedRecord> copyOfRecords1 = new ArrayList<>(records1);
+    Map<HoodieLogBlock.HeaderMetadataType, String> header = new HashMap<>();
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "100");
+    header.put(HoodieLogBlock.HeaderMetadataType.SCHEMA, schema.toString());
+    writer.appendBlock(getDataBlock(HoodieLogBlockType.PARQUET_DATA_BLOCK, records1, header));
+    List<IndexedRecord> records2 = SchemaTestUtil.generateHoodieTestRecords(0, 100);
+    List<IndexedRecord> copyOfRecords2 = new ArrayList<>(records2);
+    writer.appendBlock(getDataBlock(HoodieLogBlockType.PARQUET_DATA_BLOCK, records2, header));
+    writer.close();
+
+    // Read all the columns
+    Reader reader = HoodieLogFormat.newReader(fs, writer.getLogFile(), schema, readBlocksLazily, false);
+    assertTrue(reader.hasNext(), "First block should be available");
+    HoodieLogBlock block = reader.next();
+    assertEquals(HoodieLogBlockType.PARQUET_DATA_BLOCK, block.getBlockType());
+    assertEquals(copyOfRecords1, ((HoodieDataBlock) block).getRecords(), "Both records lists should be the same");
+    byte[] content = block.getContentBytes();
+    assertTrue(reader.hasNext(), "Second block should be available");
+    assertEquals(copyOfRecords2, ((HoodieDataBlock) reader.next()).getRecords(), "Both records lists should be the same");
+    assertFalse(reader.hasNext());
+    reader.close();
+
+    // Read a projection of the columns
+    Schema projectedSchema = HoodieAvroUtils.generateProjectionSchema(schema,
+        Arrays.asList(HoodieRecord.RECORD_KEY_METADATA_FIELD, "favorite_number"));
+    reader = HoodieLogFormat.newReader(fs, writer.getLogFile(), projectedSchema, readBlocksLazily, false);
+    assertTrue(reader.hasNext(), "First block should be available");
+    HoodieDataBlock projectedBlock = (HoodieDataBlock) reader.next();
+    List<IndexedRecord> projectedRecords = projectedBlock.getRecords();
+    // the content is not re-encoded from the projected records
+    assertArrayEquals(content, projectedBlock.getContentBytes());
+    assertEquals(copyOfRecords1.size(), projectedRecords.size());
+    for (int i = 0; i < projectedRecords.size(); i++) {
+      GenericRecord projectedRecord = (GenericRecord) projectedRecords.get(i);
+      GenericRecord record = (GenericRecord) copyOfRecords1.get(i);
+      assertEquals(projectedSchema, projectedRecord.getSchema());
+      assertEquals(record.get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString(),
+          projectedRecord.get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString());
+      assertEquals(record.get("favorite_number"), projectedRecord.get("favorite_number"));
+    }
+    reader.close();
+
+    FileCreateUtils.createDeltaCommit(basePath, "100", fs);
+    HoodieMergedLogRecordScanner scanner = HoodieMergedLogRecordScanner.newBuilder()
+        .withFileSystem(fs)
+        .withBasePath(basePath)
+        .withLogFilePaths(Collections.singletonList(writer.getLogFile().getPath().toString()))
+        .withReaderSchema(schema)
+        .withLatestInstantTime("100")
+        .withMaxMemorySizeInBytes(10240L)
+        .withReadBlocksLazily(readBlocksLazily)
+        .withReverseReader(false)
+        .withBufferSize(bufferSize)
+        .withSpillableMapBasePath(BASE_OUTPUT_PATH)
+        .build();
+    assertEquals(200, scanner.getTotalLogRecords());
+    assertEquals(200, scanner.getNumMergedRecordsInLog());
+    scanner.close();
+  }
+
   @ParameterizedTest
   @ValueSource(booleans = {true, false})
   public void testAvroLogRecordReaderWithRollbackTombstone(boolean readBlocksLazily)
@@ -919,6 +1125,195 @@ public class TestHoodieLogFormat extends HoodieCommonTestHarness {
     assertEquals(200, readKeys.size(), "Stream collect should return all 200 records after rollback of delete");
   }
 
+  @ParameterizedTest
+  @ValueSource(ints = {1, 3})
+  public void testAvroLogRecordReaderWithPrefetch(int prefetchThreads)
+      throws IOException, URISyntaxException, InterruptedException {
+    Schema schema = HoodieAvroUtils.addMetadataFields(getSimpleSchema());
+    // Write every block to a log file of its own
+    Writer writer =
+        HoodieLogFormat.newWriterBuilder().onParentPath(partitionPath).withFileExtension(HoodieLogFile.DELTA_EXTENSION)
+            .withSizeThreshold(1024).withFileId("test-fileid1").overBaseCommit("100").withFs(fs).build();
+    Map<HoodieLogBlock.HeaderMetadataType, String> header = new HashMap<>();
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "100");
+    header.put(HoodieLogBlock.HeaderMetadataType.SCHEMA, schema.toString());
+    List<IndexedRecord> records1 = SchemaTestUtil.generateHoodieTestRecords(0, 100);
+    List<IndexedRecord> copyOfRecords1 = records1.stream()
+        .map(record -> HoodieAvroUtils.rewriteRecord((GenericRecord) record, schema)).collect(Collectors.toList());
+    writer.appendBlock(getDataBlock(records1, header));
+
+    // Delete 50 keys
+    List<HoodieKey> deletedKeys = copyOfRecords1.stream()
+        .map(s -> (new HoodieKey(((GenericRecord) s).get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString(),
+            ((GenericRecord) s).get(HoodieRecord.PARTITION_PATH_METADATA_FIELD).toString())))
+        .collect(Collectors.toList()).subList(0, 50);
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "101");
+    writer.appendBlock(new HoodieDeleteBlock(deletedKeys.toArray(new HoodieKey[50]), header));
+
+    // Write a data block of a failed commit and roll it back
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "102");
+    writer.appendBlock(getDataBlock(SchemaTestUtil.generateHoodieTestRecords(0, 100), header));
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "103");
+    header.put(HoodieLogBlock.HeaderMetadataType.TARGET_INSTANT_TIME, "102");
+    header.put(HoodieLogBlock.HeaderMetadataType.COMMAND_BLOCK_TYPE,
+        String.valueOf(HoodieCommandBlock.HoodieCommandBlockTypeEnum.ROLLBACK_PREVIOUS_BLOCK.ordinal()));
+    writer.appendBlock(new HoodieCommandBlock(header));
+
+    // Write a data block of an inflight commit
+    header.remove(HoodieLogBlock.HeaderMetadataType.TARGET_INSTANT_TIME);
+    header.remove(HoodieLogBlock.HeaderMetadataType.COMMAND_BLOCK_TYPE);
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "104");
+    writer.appendBlock(getDataBlock(SchemaTestUtil.generateHoodieTestRecords(0, 100), header));
+    writer.close();
+
+    List<String> allLogFiles =
+        FSUtils.getAllLogFiles(fs, partitionPath, "test-fileid1", HoodieLogFile.DELTA_EXTENSION, "100")
+            .map(s -> s.getPath().toString()).sorted().collect(Collectors.toList());
+    assertTrue(allLogFiles.size() > 1, "The blocks should be spread over multiple log files");
+    FileCreateUtils.createDeltaCommit(basePath, "100", fs);
+    FileCreateUtils.createDeltaCommit(basePath, "101", fs);
+
+    HoodieMergedLogRecordScanner.Builder builder = HoodieMergedLogRecordScanner.newBuilder()
+        .withFileSystem(fs)
+        .withBasePath(basePath)
+        .withReaderSchema(schema)
+        .withLatestInstantTime("104")
+        .withMaxMemorySizeInBytes(10240L)
+        .withReadBlocksLazily(false)
+        .withReverseReader(false)
+        .withBufferSize(bufferSize)
+        .withSpillableMapBasePath(BASE_OUTPUT_PATH);
+    HoodieMergedLogRecordScanner scanner = builder.withLogFilePaths(new ArrayList<>(allLogFiles)).build();
+    HoodieMergedLogRecordScanner prefetchingScanner = builder.withLogFilePaths(new ArrayList<>(allLogFiles))
+        .withPrefetchThreads(prefetchThreads).withPrefetchQueueSize(1).build();
+
+    assertEquals(scanner.getTotalLogBlocks(), prefetchingScanner.getTotalLogBlocks());
+    assertEquals(scanner.getTotalLogRecords(), prefetchingScanner.getTotalLogRecords());
+    assertEquals(1, prefetchingScanner.getTotalRollbacks());
+    assertEquals(prefetchingScanner.getTotalLogBlocks(),
+        prefetchingScanner.getTotalPrefetchHits() + prefetchingScanner.getTotalPrefetchMisses(),
+        "Every block should be handed over by the prefetching reader");
+    assertEquals(0, scanner.getTotalPrefetchHits() + scanner.getTotalPrefetchMisses());
+
+    Map<String, Boolean> expected = new HashMap<>();
+    scanner.forEach(s -> expected.put(s.getRecordKey(), isEmptyPayload(s, schema)));
+    Map<String, Boolean> actual = new HashMap<>();
+    prefetchingScanner.forEach(s -> actual.put(s.getRecordKey(), isEmptyPayload(s, schema)));
+    assertEquals(100, actual.size(), "Rolled back and inflight blocks should not be merged");
+    assertEquals(50, actual.values().stream().filter(isEmpty -> isEmpty).count());
+    assertEquals(expected, actual);
+    scanner.close();
+    prefetchingScanner.close();
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void testAvroLogRecordReaderLookupByKeysInReverse(boolean readBlocksLazily)
+      throws IOException, URISyntaxException, InterruptedException {
+    Schema schema = HoodieAvroUtils.addMetadataFields(getSimpleSchema());
+    // Write every block to a log file of its own
+    Writer writer =
+        HoodieLogFormat.newWriterBuilder().onParentPath(partitionPath).withFileExtension(HoodieLogFile.DELTA_EXTENSION)
+            .withSizeThreshold(1024).withFileId("test-fileid1").overBaseCommit("100").withFs(fs).build();
+    Map<HoodieLogBlock.HeaderMetadataType, String> header = new HashMap<>();
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "100");
+    header.put(HoodieLogBlock.HeaderMetadataType.SCHEMA, schema.toString());
+    List<IndexedRecord> records1 = SchemaTestUtil.generateHoodieTestRecords(0, 100);
+    List<String> keys = records1.stream()
+        .map(s -> ((GenericRecord) s).get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString()).collect(Collectors.toList());
+    writer.appendBlock(getDataBlock(records1, header));
+
+    // Update the first 50 keys
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "101");
+    List<IndexedRecord> records2 = SchemaTestUtil.updateHoodieTestRecords(new ArrayList<>(keys.subList(0, 50)),
+        SchemaTestUtil.generateHoodieTestRecords(0, 50), "101");
+    List<IndexedRecord> copyOfRecords2 = new ArrayList<>(records2);
+    writer.appendBlock(getDataBlock(records2, header));
+
+    // Delete keys 40 to 59
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "102");
+    HoodieKey[] deletedKeys = keys.subList(40, 60).stream().map(key -> new HoodieKey(key, "0000/00/00")).toArray(HoodieKey[]::new);
+    writer.appendBlock(new HoodieDeleteBlock(deletedKeys, header));
+
+    // Update all the keys in a failed commit and roll it back
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "103");
+    writer.appendBlock(getDataBlock(SchemaTestUtil.updateHoodieTestRecords(new ArrayList<>(keys),
+        SchemaTestUtil.generateHoodieTestRecords(0, 100), "103"), header));
+    header.put(HoodieLogBlock.HeaderMetadataType.INSTANT_TIME, "104");
+    header.put(HoodieLogBlock.HeaderMetadataType.TARGET_INSTANT_TIME, "103");
+    header.put(HoodieLogBlock.HeaderMetadataType.COMMAND_BLOCK_TYPE,
+        String.valueOf(HoodieCommandBlock.HoodieCommandBlockTypeEnum.ROLLBACK_PREVIOUS_BLOCK.ordinal()));
+    writer.appendBlock(new HoodieCommandBlock(header));
+    writer.close();
+
+    // Append a partially written block, which cannot be traversed in reverse
+    fs = FSUtils.getFs(fs.getUri().toString(), fs.getConf());
+    FSDataOutputStream outputStream = fs.append(writer.getLogFile().getPath());
+    outputStream.write(HoodieLogFormat.MAGIC);
+    outputStream.writeLong(1000);
+    outputStream.write("something-random".getBytes());
+    outputStream.flush();
+    outputStream.close();
+
+    List<String> allLogFiles =
+        FSUtils.getAllLogFiles(fs, partitionPath, "test-fileid1", HoodieLogFile.DELTA_EXTENSION, "100")
+            .map(s -> s.getPath().toString()).sorted().collect(Collectors.toList());
+    assertTrue(allLogFiles.size() > 1, "The blocks should be spread over multiple log files");
+    FileCreateUtils.createDeltaCommit(basePath, "100", fs);
+    FileCreateUtils.createDeltaCommit(basePath, "101", fs);
+    FileCreateUtils.createDeltaCommit(basePath, "102", fs);
+
+    HoodieMergedLogRecordScanner.Builder builder = HoodieMergedLogRecordScanner.newBuilder()
+        .withFileSystem(fs)
+        .withBasePath(basePath)
+        .withReaderSchema(schema)
+        .withLatestInstantTime("104")
+        .withMaxMemorySizeInBytes(10240L)
+        .withReadBlocksLazily(readBlocksLazily)
+        .withReverseReader(false)
+        .withBufferSize(bufferSize)
+        .withSpillableMapBasePath(BASE_OUTPUT_PATH);
+    HoodieMergedLogRecordScanner scanner = builder.withLogFilePaths(new ArrayList<>(allLogFiles)).build();
+
+    // updated, updated and deleted, deleted, inserted and missing keys
+    List<String> lookupKeys = Arrays.asList(keys.get(0), keys.get(45), keys.get(55), keys.get(80), "missing-key");
+    HoodieMergedLogRecordScanner lookupScanner = builder.withLogFilePaths(new ArrayList<>(allLogFiles))
+        .withAutoScan(false).build();
+    Map<String, HoodieRecord<? extends HoodieRecordPayload>> lookedUpRecords = lookupScanner.getRecordsByKeys(lookupKeys);
+    assertEquals(4, lookedUpRecords.size());
+    for (String key : lookupKeys.subList(0, 4)) {
+      assertEquals(scanner.getRecords().get(key).getData().getInsertValue(schema),
+          lookedUpRecords.get(key).getData().getInsertValue(schema));
+    }
+    assertEquals(copyOfRecords2.get(0), lookedUpRecords.get(keys.get(0)).getData().getInsertValue(schema).get());
+    assertFalse(lookedUpRecords.get(keys.get(55)).getData().getInsertValue(schema).isPresent());
+    assertEquals(1, lookupScanner.getTotalRollbacks());
+    lookupScanner.close();
+
+    // a delete resolves the key, so the older blocks are not read
+    lookupScanner = builder.withLogFilePaths(new ArrayList<>(allLogFiles)).withAutoScan(false).build();
+    assertFalse(lookupScanner.getRecordsByKeys(Collections.singletonList(keys.get(55))).get(keys.get(55))
+        .getData().getInsertValue(schema).isPresent());
+    assertEquals(scanner.getTotalLogBlocks() - 2, lookupScanner.getTotalLogBlocks());
+    lookupScanner.close();
+
+    // the payload of the table keeps the newest record, so the newest record of a key resolves it as well
+    lookupScanner = builder.withLogFilePaths(new ArrayList<>(allLogFiles)).withAutoScan(false).build();
+    assertEquals(copyOfRecords2.get(0),
+        lookupScanner.getRecordsByKeys(Collections.singletonList(keys.get(0))).get(keys.get(0)).getData().getInsertValue(schema).get());
+    assertEquals(scanner.getTotalLogBlocks() - 1, lookupScanner.getTotalLogBlocks());
+    lookupScanner.close();
+    scanner.close();
+  }
+
+  private static boolean isEmptyPayload(HoodieRecord<? extends HoodieRecordPayload> record, Schema schema) {
+    try {
+      return !record.getData().getInsertValue(schema).isPresent();
+    } catch (IOException io) {
+      throw new UncheckedIOException(io);
+    }
+  }
+
   @ParameterizedTest
   @ValueSource(booleans = {true, false})
   public void testAvroLogRecordReaderWithFailedRollbacks(boolean readBlocksLazily)
@@ -1614,6 +2009,8 @@ public class TestHoodieLogFormat extends HoodieCommonTestHarness {
         return new HoodieAvroDataBlock(records, header);
       case HFILE_DATA_BLOCK:
         return new HoodieHFileDataBlock(records, header);
+      case PARQUET_DATA_BLOCK:
+        return new HoodieParquetDataBlock(records, header);
       default:
         throw new RuntimeException("Unknown data block type " + dataBlockType);
     }
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.model;
+
+import org.apache.hudi.common.util.Option;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.util.Utf8;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests {@link HoodieRecordSpillSerializer}.
+ */
+public class TestHoodieRecordSpillSerializer {
+
+  private final HoodieRecordSpillSerializer serializer = new HoodieRecordSpillSerializer();
+  private Schema schema;
+  private GenericRecord record;
+
+  @BeforeEach
+  public void setUp() {
+    schema = Schema.createRecord(Arrays.asList(
+        new Schema.Field("id", Schema.create(Schema.Type.STRING), "", null),
+        new Schema.Field("partition", Schema.create(Schema.Type.STRING), "", null),
+        new Schema.Field("ts", Schema.create(Schema.Type.LONG), "", null)
+    ));
+    record = new GenericData.Record(schema);
+    record.put("id", "1");
+    record.put("partition", "partition0");
+    record.put("ts", 10L);
+  }
+
+  @Test
+  public void testAvroPayloads() throws IOException {
+    Comparable[] orderingVals = new Comparable[] {10L, 10, "10", new Utf8("10"), 10.0d, 10.0f, true};
+    for (Comparable orderingVal : orderingVals) {
+      BaseAvroPayload[] payloads = new BaseAvroPayload[] {
+          new OverwriteWithLatestAvroPayload(record, orderingVal),
+          new DefaultHoodieRecordPayload(record, orderingVal),
+          new OverwriteNonDefaultsWithLatestAvroPayload(record, orderingVal)};
+      for (BaseAvroPayload payload : payloads) {
+        HoodieRecord<? extends HoodieRecordPayload> deserialized = roundTrip(new HoodieRecord<>(new HoodieKey("1", "partition0"),
+            (HoodieRecordPayload) payload));
+        assertSame(payload.getClass(), deserialized.getData().getClass());
+        BaseAvroPayload deserializedPayload = (BaseAvroPayload) deserialized.getData();
+        assertEquals(orderingVal, deserializedPayload.orderingVal);
+        assertArrayEquals(payload.recordBytes, deserializedPayload.recordBytes);
+        assertEquals(record, deserialized.getData().getInsertValue(schema).get());
+      }
+    }
+  }
+
+  @Test
+  public void testLocationsAndSeal() throws IOException {
+    HoodieRecord<HoodieAvroPayload> hoodieRecord = new HoodieRecord<>(new HoodieKey("1", "partition0"),
+        new HoodieAvroPayload(Option.of(record)));
+    hoodieRecord.setCurrentLocation(new HoodieRecordLocation("001", "file-1"));
+    hoodieRecord.setNewLocation(new HoodieRecordLocation("002", "file-2"));
+    hoodieRecord.seal();
+
+    HoodieRecord<? extends HoodieRecordPayload> deserialized = roundTrip(hoodieRecord);
+    assertEquals(hoodieRecord.getKey(), deserialized.getKey());
+    assertEquals(hoodieRecord.getCurrentLocation(), deserialized.getCurrentLocation());
+    assertEquals(hoodieRecord.getNewLocation(), deserialized.getNewLocation());
+    assertEquals(record, deserialized.getData().getInsertValue(schema).get());
+    assertThrows(UnsupportedOperationException.class, () -> deserialized.setNewLocation(null));
+
+    hoodieRecord.deflate();
+    assertTrue(roundTrip(hoodieRecord).isDeflated());
+  }
+
+  @Test
+  public void testDeletesAndOtherPayloads() throws IOException {
+    HoodieRecord<? extends HoodieRecordPayload> deserialized = roundTrip(new HoodieRecord<>(new HoodieKey("1", "partition0"),
+        new OverwriteWithLatestAvroPayload(Option.empty())));
+    assertFalse(deserialized.getData().getInsertValue(schema).isPresent());
+    assertFalse(deserialized.isCurrentLocationKnown());
+
+    deserialized = roundTrip(new HoodieRecord<>(new HoodieKey("1", "partition0"), new EmptyHoodieRecordPayload()));
+    assertSame(EmptyHoodieRecordPayload.class, deserialized.getData().getClass());
+
+    // payloads not known to the serializer fall back to the generic serialization
+    deserialized = roundTrip(new HoodieRecord<>(new HoodieKey("1", "partition0"), new CustomPayload(record, 10L)));
+    assertSame(CustomPayload.class, deserialized.getData().getClass());
+    assertEquals(10L, ((CustomPayload) deserialized.getData()).orderingVal);
+    assertEquals(record, deserialized.getData().getInsertValue(schema).get());
+  }
+
+  private HoodieRecord<? extends HoodieRecordPayload> roundTrip(HoodieRecord<? extends HoodieRecordPayload> hoodieRecord)
+      throws IOException {
+    return serializer.deserialize(serializer.serialize(hoodieRecord));
+  }
+
+  /**
+   * A payload the serializer has no layout for.
+   */
+  public static class CustomPayload extends OverwriteWithLatestAvroPayload {
+
+    public CustomPayload(GenericRecord record, Comparable orderingVal) {
+      super(record, orderingVal);
+    }
+  }
+}
@@ -23,6 +23,7 @@ import org.apache.hudi.avro.HoodieAvroWriteSupport;
 import org.apache.hudi.common.bloom.BloomFilter;
 import org.apache.hudi.common.bloom.BloomFilterFactory;
 import org.apache.hudi.common.bloom.BloomFilterTypeCode;
+import org.apache.hudi.common.model.HoodieColumnRangeMetadata;
 import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.testutils.HoodieCommonTestHarness;
@@ -35,6 +36,7 @@ import org.apache.hadoop.fs.Path;
 import org.apache.parquet.avro.AvroSchemaConverter;
 import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.api.Binary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -51,6 +53,7 @@ import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -63,7 +66,8 @@ public class TestParquetUtils extends HoodieCommonTestHarness {
   public static List<Arguments> bloomFilterTypeCodes() {
     return Arrays.asList(
         Arguments.of(BloomFilterTypeCode.SIMPLE.name()),
-        Arguments.of(BloomFilterTypeCode.DYNAMIC_V0.name())
+        Arguments.of(BloomFilterTypeCode.DYNAMIC_V0.name()),
+        Arguments.of(BloomFilterTypeCode.BLOCKED_V0.name())
     );
   }
 
@@ -92,6 +96,7 @@ public class TestParquetUtils extends HoodieCommonTestHarness {
     assertEquals(rowKeys, rowKeysInFile, "Did not read back the expected list of keys");
     BloomFilter filterInFile =
         parquetUtils.readBloomFilterFromMetadata(HoodieTestUtils.getDefaultHadoopConf(), new Path(filePath));
+    assertEquals(typeCode, filterInFile.getBloomFilterTypeCode().name());
     for (String rowKey : rowKeys) {
       assertTrue(filterInFile.mightContain(rowKey), "key should be found in bloom filter");
     }
@@ -124,6 +129,53 @@ public class TestParquetUtils extends HoodieCommonTestHarness {
     }
   }
 
+  @Test
+  public void testFilterSortedParquetRowKeys() throws Exception {
+    // sorted keys, over many row groups
+    List<String> rowKeys = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      rowKeys.add(String.format("key%05d", i * 2));
+    }
+    Schema schema = HoodieAvroUtils.getRecordKeySchema();
+    String filePath = Paths.get(basePath, "test.parquet").toString();
+    ParquetWriter writer = new ParquetWriter(new Path(filePath), new HoodieAvroWriteSupport(new AvroSchemaConverter().convert(schema), schema, null),
+        CompressionCodecName.GZIP, 1024, 1024);
+    for (String rowKey : rowKeys) {
+      GenericRecord rec = new GenericData.Record(schema);
+      rec.put(HoodieRecord.RECORD_KEY_METADATA_FIELD, rowKey);
+      writer.write(rec);
+    }
+    writer.close();
+
+    // present and absent keys, in and out of the key range of the file
+    Set<String> filter = new HashSet<>(Arrays.asList("key00000", "key00001", "key04242", "key04243", "key09998", "key10000", "aaa"));
+    Set<String> filtered = parquetUtils.filterRowKeys(HoodieTestUtils.getDefaultHadoopConf(), new Path(filePath), filter);
+    assertEquals(new HashSet<>(Arrays.asList("key00000", "key04242", "key09998")), filtered);
+  }
+
+  @Test
+  public void testRecordKeyCandidatesPredicate() {
+    ParquetUtils.RecordKeyCandidatesPredicate predicate =
+        new ParquetUtils.RecordKeyCandidatesPredicate(new HashSet<>(Arrays.asList("b", "d", "f")));
+    // keys in order are merged, keys out of order are searched
+    List<String> keys = Arrays.asList("a", "b", "c", "d", "g", "b", "a", "f", "d", "e", "f");
+    List<Boolean> expected = Arrays.asList(false, true, false, true, false, true, false, true, true, false, true);
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals(expected.get(i), predicate.keep(Binary.fromString(keys.get(i))), "Unexpected match of " + keys.get(i) + " at " + i);
+    }
+
+    assertTrue(predicate.canDrop(statistics("a", "a")));
+    assertTrue(predicate.canDrop(statistics("b0", "c")));
+    assertTrue(predicate.canDrop(statistics("g", "z")));
+    assertFalse(predicate.canDrop(statistics("a", "b")));
+    assertFalse(predicate.canDrop(statistics("c", "e")));
+    assertFalse(predicate.canDrop(statistics("f", "f")));
+  }
+
+  private static org.apache.parquet.filter2.predicate.Statistics<Binary> statistics(String min, String max) {
+    return new org.apache.parquet.filter2.predicate.Statistics<>(Binary.fromString(min), Binary.fromString(max));
+  }
+
   @ParameterizedTest
   @MethodSource("bloomFilterTypeCodes")
   public void testFetchRecordKeyPartitionPathFromParquet(String typeCode) throws Exception {
@@ -150,6 +202,36 @@ public class TestParquetUtils extends HoodieCommonTestHarness {
     }
   }
 
+  @Test
+  public void testReadRowKeysWrittenBy() throws Exception {
+    String filePath = basePath + "/test.parquet";
+    Schema schema = HoodieAvroUtils.getRecordKeyCommitTimeSchema();
+    HoodieAvroWriteSupport writeSupport = new HoodieAvroWriteSupport(new AvroSchemaConverter().convert(schema), schema,
+        BloomFilterFactory.createBloomFilter(1000, 0.0001, 10000, BloomFilterTypeCode.SIMPLE.name()));
+    Set<String> secondCommitKeys = new HashSet<>();
+    // small row groups, for the row groups of the first commit to be skipped
+    try (ParquetWriter writer = new ParquetWriter(new Path(filePath), writeSupport, CompressionCodecName.GZIP, 4 * 1024, 1024)) {
+      for (int i = 0; i < 1000; i++) {
+        String rowKey = UUID.randomUUID().toString();
+        String commitTime = i < 800 ? "001" : "002";
+        if (commitTime.equals("002")) {
+          secondCommitKeys.add(rowKey);
+        }
+        GenericRecord rec = new GenericData.Record(schema);
+        rec.put(HoodieRecord.RECORD_KEY_METADATA_FIELD, rowKey);
+        rec.put(HoodieRecord.COMMIT_TIME_METADATA_FIELD, commitTime);
+        writer.write(rec);
+        writeSupport.add(rowKey);
+      }
+    }
+
+    Path path = new Path(filePath);
+    assertTrue(parquetUtils.readMetadata(HoodieTestUtils.getDefaultHadoopConf(), path).getBlocks().size() > 1);
+    assertEquals(secondCommitKeys, parquetUtils.readRowKeysWrittenBy(HoodieTestUtils.getDefaultHadoopConf(), path, "002"));
+    assertEquals(800, parquetUtils.readRowKeysWrittenBy(HoodieTestUtils.getDefaultHadoopConf(), path, "001").size());
+    assertTrue(parquetUtils.readRowKeysWrittenBy(HoodieTestUtils.getDefaultHadoopConf(), path, "003").isEmpty());
+  }
+
   @Test
   public void testReadCounts() throws Exception {
     String filePath = basePath + "/test.parquet";
@@ -162,6 +244,22 @@ public class TestParquetUtils extends HoodieCommonTestHarness {
     assertEquals(123, parquetUtils.getRowCount(HoodieTestUtils.getDefaultHadoopConf(), new Path(filePath)));
   }
 
+  @Test
+  public void testReadColumnRanges() throws Exception {
+    String filePath = basePath + "/test.parquet";
+    List<String> rowKeys = new ArrayList<>();
+    for (int i = 0; i < 123; i++) {
+      rowKeys.add(UUID.randomUUID().toString());
+    }
+    writeParquetFile(BloomFilterTypeCode.SIMPLE.name(), filePath, rowKeys);
+
+    List<HoodieColumnRangeMetadata> columnRanges =
+        parquetUtils.readRangeFromParquetMetadata(HoodieTestUtils.getDefaultHadoopConf(), new Path(filePath));
+    Collections.sort(rowKeys);
+    assertEquals(Collections.singletonList(new HoodieColumnRangeMetadata(HoodieRecord.RECORD_KEY_METADATA_FIELD,
+        rowKeys.get(0), rowKeys.get(rowKeys.size() - 1), 0, 123)), columnRanges);
+  }
+
   private void writeParquetFile(String typeCode, String filePath, List<String> rowKeys) throws Exception {
     writeParquetFile(typeCode, filePath, rowKeys, HoodieAvroUtils.getRecordKeySchema(), false, "");
   }
@@ -23,6 +23,7 @@ import org.apache.hudi.common.model.HoodieAvroPayload;
 import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.model.HoodieRecordSpillSerializer;
 import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
 import org.apache.hudi.common.testutils.AvroBinaryTestPayload;
 import org.apache.hudi.common.testutils.HoodieCommonTestHarness;
@@ -147,6 +148,54 @@ public class TestDiskBasedMap extends HoodieCommonTestHarness {
     }
   }
 
+  @Test
+  public void testCompactKeyIndex() throws IOException, URISyntaxException {
+    DiskBasedMap<String, HoodieRecord<? extends HoodieRecordPayload>> records = new DiskBasedMap<>(basePath, true);
+    List<IndexedRecord> iRecords = SchemaTestUtil.generateHoodieTestRecords(0, 100);
+    List<String> recordKeys = SpillableMapTestUtils.upsertRecords(iRecords, records);
+    // upsert the same keys again, entries are overwritten
+    SpillableMapTestUtils.upsertRecords(iRecords, records);
+
+    assertEquals(recordKeys.size(), records.size());
+    assertEquals(new HashSet<>(recordKeys), records.keySet());
+    recordKeys.forEach(key -> assertEquals(key, records.get(key).getRecordKey()));
+    Iterator<HoodieRecord<? extends HoodieRecordPayload>> itr = records.iterator();
+    int count = 0;
+    while (itr.hasNext()) {
+      assertTrue(recordKeys.contains(itr.next().getRecordKey()));
+      count++;
+    }
+    assertEquals(recordKeys.size(), count);
+    assertEquals(recordKeys.size(), records.valueStream().count());
+
+    records.remove(recordKeys.get(0));
+    assertEquals(recordKeys.size() - 1, records.size());
+    records.close();
+  }
+
+  @Test
+  public void testSpillSerializer() throws IOException, URISyntaxException {
+    Schema schema = HoodieAvroUtils.addMetadataFields(SchemaTestUtil.getSimpleSchema());
+    DiskBasedMap<String, HoodieRecord<? extends HoodieRecordPayload>> records =
+        new DiskBasedMap<>(basePath, false, new HoodieRecordSpillSerializer());
+    List<IndexedRecord> iRecords = SchemaTestUtil.generateHoodieTestRecords(0, 100);
+    List<String> recordKeys = SpillableMapTestUtils.upsertRecords(iRecords, records);
+
+    assertEquals(recordKeys.size(), records.size());
+    for (int i = 0; i < recordKeys.size(); i++) {
+      HoodieRecord<? extends HoodieRecordPayload> record = records.get(recordKeys.get(i));
+      assertEquals(SpillableMapTestUtils.DUMMY_FILE_ID, record.getCurrentLocation().getFileId());
+      GenericRecord value = (GenericRecord) record.getData().getInsertValue(schema).get();
+      assertEquals(recordKeys.get(i), value.get(HoodieRecord.RECORD_KEY_METADATA_FIELD).toString());
+    }
+    assertEquals(recordKeys.size(), records.valueStream().count());
+    Iterator<HoodieRecord<? extends HoodieRecordPayload>> itr = records.iterator();
+    while (itr.hasNext()) {
+      assertTrue(recordKeys.contains(itr.next().getRecordKey()));
+    }
+    records.close();
+  }
+
   @Test
   public void testSizeEstimator() throws IOException, URISyntaxException {
     Schema schema = SchemaTestUtil.getSimpleSchema();
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.collection;
+
+import org.apache.hudi.common.testutils.HoodieCommonTestHarness;
+import org.apache.hudi.common.util.DefaultSizeEstimator;
+import org.apache.hudi.common.util.DefaultSpillSerializer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link ExternalSorter}.
+ */
+public class TestExternalSorter extends HoodieCommonTestHarness {
+
+  @BeforeEach
+  public void setUp() {
+    initPath();
+  }
+
+  private static ExternalSorter<Pair<Integer, Integer>> newSorter(long maxInMemorySizeInBytes, String spillDirectory, int maxFanIn) {
+    return new ExternalSorter<>(maxInMemorySizeInBytes, spillDirectory, Comparator.comparing(Pair::getKey),
+        new DefaultSizeEstimator<>(), new DefaultSpillSerializer<>(), maxFanIn);
+  }
+
+  @Test
+  public void testSortWithSpilledRuns() {
+    sortAndValidate(16 * 1024L, ExternalSorter.DEFAULT_MAX_FAN_IN, true, 0);
+  }
+
+  @Test
+  public void testSortWithMergePasses() {
+    // 3 runs merged at once, the runs are merged twice before the final merge
+    sortAndValidate(16 * 1024L, 3, true, 2);
+  }
+
+  @Test
+  public void testSortInMemory() {
+    sortAndValidate(64 * 1024 * 1024L, ExternalSorter.DEFAULT_MAX_FAN_IN, false, 0);
+  }
+
+  private void sortAndValidate(long maxInMemorySizeInBytes, int maxFanIn, boolean expectSpills, int expectedMergePasses) {
+    String spillDirectory = basePath + "/spill";
+    Random random = new Random(0xDEADBEEFL);
+    List<Pair<Integer, Integer>> expected = new ArrayList<>();
+    try (ExternalSorter<Pair<Integer, Integer>> sorter = newSorter(maxInMemorySizeInBytes, spillDirectory, maxFanIn)) {
+      for (int i = 0; i < 5000; i++) {
+        // few distinct keys, so that equal keys are spread over several runs
+        Pair<Integer, Integer> record = Pair.of(random.nextInt(500), i);
+        expected.add(record);
+        sorter.add(record);
+      }
+      assertEquals(expectSpills, sorter.getNumSpilledRuns() > 1);
+      // stable sort, records with equal keys stay in the order they were added
+      expected.sort(Comparator.comparing(Pair::getKey));
+      List<Pair<Integer, Integer>> sorted = new ArrayList<>();
+      sorter.sortedIterator().forEachRemaining(sorted::add);
+      assertEquals(expected, sorted);
+      assertEquals(expectedMergePasses, sorter.getNumMergePasses());
+      assertThrows(IllegalStateException.class, () -> sorter.add(Pair.of(0, 0)));
+    }
+    File[] spillFiles = new File(spillDirectory).listFiles();
+    assertTrue(spillFiles == null || spillFiles.length == 0, "Spill file should be deleted on close");
+  }
+
+  @Test
+  public void testNoRecords() {
+    try (ExternalSorter<Pair<Integer, Integer>> sorter = newSorter(1024L, basePath, ExternalSorter.DEFAULT_MAX_FAN_IN)) {
+      Iterator<Pair<Integer, Integer>> sorted = sorter.sortedIterator();
+      assertFalse(sorted.hasNext());
+    }
+  }
+}
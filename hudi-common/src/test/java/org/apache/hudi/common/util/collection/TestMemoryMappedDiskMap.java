@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.collection;
+
+import org.apache.hudi.avro.HoodieAvroUtils;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.table.timeline.HoodieActiveTimeline;
+import org.apache.hudi.common.testutils.HoodieCommonTestHarness;
+import org.apache.hudi.common.testutils.SchemaTestUtil;
+import org.apache.hudi.common.testutils.SpillableMapTestUtils;
+import org.apache.hudi.exception.HoodieNotSupportedException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.IndexedRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests memory-mapped disk map {@link MemoryMappedDiskMap}.
+ */
+public class TestMemoryMappedDiskMap extends HoodieCommonTestHarness {
+
+  @BeforeEach
+  public void setup() {
+    initPath();
+  }
+
+  @Test
+  public void testSimpleInsert() throws IOException, URISyntaxException {
+    MemoryMappedDiskMap<String, HoodieRecord<? extends HoodieRecordPayload>> records = new MemoryMappedDiskMap<>(basePath);
+    List<IndexedRecord> iRecords = SchemaTestUtil.generateHoodieTestRecords(0, 100);
+    List<String> recordKeys = SpillableMapTestUtils.upsertRecords(iRecords, records);
+
+    assertTrue(records.sizeOfFileOnDiskInBytes() > 0);
+    assertEquals(100, records.size());
+    Iterator<HoodieRecord<? extends HoodieRecordPayload>> itr = records.iterator();
+    int count = 0;
+    while (itr.hasNext()) {
+      assertTrue(recordKeys.contains(itr.next().getRecordKey()));
+      count++;
+    }
+    assertEquals(100, count);
+    recordKeys.forEach(key -> assertEquals(key, records.get(key).getRecordKey()));
+    assertEquals(new HashSet<>(recordKeys), records.keySet());
+    assertThrows(HoodieNotSupportedException.class, records::values);
+    records.close();
+  }
+
+  @Test
+  public void testSimpleUpsert() throws IOException, URISyntaxException {
+    Schema schema = HoodieAvroUtils.addMetadataFields(SchemaTestUtil.getSimpleSchema());
+    MemoryMappedDiskMap<String, HoodieRecord<? extends HoodieRecordPayload>> records = new MemoryMappedDiskMap<>(basePath);
+    List<String> recordKeys = SpillableMapTestUtils.upsertRecords(SchemaTestUtil.generateHoodieTestRecords(0, 100), records);
+    long fileSize = records.sizeOfFileOnDiskInBytes();
+
+    String newCommitTime = HoodieActiveTimeline.createNewInstantTime();
+    List<IndexedRecord> updatedRecords = SchemaTestUtil.updateHoodieTestRecords(recordKeys,
+        SchemaTestUtil.generateHoodieTestRecords(0, 100), newCommitTime);
+    SpillableMapTestUtils.upsertRecords(updatedRecords, records);
+
+    // upserts are appended to the segments, but do not add new keys
+    assertTrue(records.sizeOfFileOnDiskInBytes() > fileSize);
+    assertEquals(100, records.size());
+    for (String key : recordKeys) {
+      GenericRecord record = (GenericRecord) records.get(key).getData().getInsertValue(schema).get();
+      assertEquals(newCommitTime, record.get(HoodieRecord.COMMIT_TIME_METADATA_FIELD).toString());
+    }
+    records.close();
+  }
+
+  @Test
+  public void testSegmentRolloverAndIndexResize() throws IOException {
+    // tiny segments and more keys than the initial index capacity
+    MemoryMappedDiskMap<String, String> records = new MemoryMappedDiskMap<>(basePath, 1024);
+    List<String> keys = IntStream.range(0, 10000).mapToObj(i -> "key-" + i).collect(Collectors.toList());
+    keys.forEach(key -> records.put(key, "value-" + key));
+
+    assertEquals(keys.size(), records.size());
+    File[] segmentDirs = new File(basePath).listFiles(File::isDirectory);
+    assertEquals(1, segmentDirs.length);
+    assertTrue(segmentDirs[0].listFiles().length > 1);
+    keys.forEach(key -> assertEquals("value-" + key, records.get(key)));
+
+    // values larger than a segment get a dedicated segment
+    StringBuilder largeValue = new StringBuilder();
+    IntStream.range(0, 1024).forEach(largeValue::append);
+    records.put("large", largeValue.toString());
+    assertEquals(largeValue.toString(), records.get("large"));
+
+    // values are iterated in the order they were appended
+    List<String> values = records.valueStream().collect(Collectors.toList());
+    assertEquals("value-key-0", values.get(0));
+    assertEquals(largeValue.toString(), values.get(values.size() - 1));
+
+    records.close();
+    assertFalse(segmentDirs[0].exists());
+  }
+
+  @Test
+  public void testRemoveAndClear() throws IOException {
+    MemoryMappedDiskMap<String, String> records = new MemoryMappedDiskMap<>(basePath, 4096);
+    IntStream.range(0, 5000).forEach(i -> records.put("key-" + i, "value-" + i));
+
+    // removed slots are reused and purged on resize
+    for (int i = 0; i < 5000; i += 2) {
+      assertEquals("value-" + i, records.remove("key-" + i));
+    }
+    assertNull(records.remove("key-0"));
+    assertEquals(2500, records.size());
+    IntStream.range(5000, 10000).forEach(i -> records.put("key-" + i, "value-" + i));
+    assertEquals(7500, records.size());
+    for (int i = 0; i < 10000; i++) {
+      boolean removed = i < 5000 && i % 2 == 0;
+      assertEquals(!removed, records.containsKey("key-" + i));
+      assertEquals(removed ? null : "value-" + i, records.get("key-" + i));
+    }
+    Set<String> keys = records.keySet();
+    assertEquals(7500, keys.size());
+    assertEquals(7500, records.entrySet().size());
+
+    records.clear();
+    assertTrue(records.isEmpty());
+    assertNull(records.get("key-1"));
+    records.put("key-1", "value-1");
+    assertEquals("value-1", records.get("key-1"));
+    records.close();
+  }
+}
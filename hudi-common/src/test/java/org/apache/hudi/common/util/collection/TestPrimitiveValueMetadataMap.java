@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.collection;
+
+import org.apache.hudi.common.model.HoodieFileGroupId;
+import org.apache.hudi.common.util.ObjectSizeCalculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests compact key index {@link PrimitiveValueMetadataMap}.
+ */
+public class TestPrimitiveValueMetadataMap {
+
+  private static final String FILE_PATH = "/tmp/spill";
+
+  @Test
+  public void testPutGetRemove() {
+    PrimitiveValueMetadataMap<String> index = new PrimitiveValueMetadataMap<>(FILE_PATH);
+    int numKeys = 20000;
+    for (int i = 0; i < numKeys; i++) {
+      index.put("key-" + i, new DiskBasedMap.ValueMetadata(FILE_PATH, i, i * 100L, 0L));
+    }
+    assertEquals(numKeys, index.size());
+
+    // overwrite keeps a single entry per key
+    DiskBasedMap.ValueMetadata previous = index.put("key-7", new DiskBasedMap.ValueMetadata(FILE_PATH, 1, 5L, 0L));
+    assertEquals(700L, previous.getOffsetOfValue());
+    assertEquals(numKeys, index.size());
+    assertEquals(5L, index.get("key-7").getOffsetOfValue());
+    assertEquals(FILE_PATH, index.get("key-7").getFilePath());
+
+    for (int i = 0; i < numKeys; i += 2) {
+      assertEquals(i, index.remove("key-" + i).getSizeOfValue());
+    }
+    assertNull(index.remove("key-0"));
+    assertEquals(numKeys / 2, index.size());
+    for (int i = 1; i < numKeys; i += 2) {
+      assertTrue(index.containsKey("key-" + i));
+      if (i != 7) {
+        assertEquals(i * 100L, index.get("key-" + i).getOffsetOfValue());
+      }
+    }
+    assertFalse(index.containsKey("key-2"));
+    assertEquals(numKeys / 2, index.keySet().size());
+    assertEquals(numKeys / 2, index.values().size());
+    assertEquals(numKeys / 2, index.entrySet().size());
+
+    index.clear();
+    assertTrue(index.isEmpty());
+    assertNull(index.get("key-1"));
+  }
+
+  @Test
+  public void testNonStringKeys() {
+    PrimitiveValueMetadataMap<HoodieFileGroupId> index = new PrimitiveValueMetadataMap<>(FILE_PATH);
+    HoodieFileGroupId fileGroupId = new HoodieFileGroupId("2020/01/01", UUID.randomUUID().toString());
+    index.put(fileGroupId, new DiskBasedMap.ValueMetadata(FILE_PATH, 10, 20L, 0L));
+    assertEquals(20L, index.get(new HoodieFileGroupId(fileGroupId.getPartitionPath(), fileGroupId.getFileId()))
+        .getOffsetOfValue());
+    assertTrue(index.keySet().contains(fileGroupId));
+    // keys of another type are never present
+    assertNull(index.get(fileGroupId.getFileId()));
+  }
+
+  @Test
+  public void testMemoryFootprint() {
+    int numKeys = 100000;
+    Map<String, DiskBasedMap.ValueMetadata> hashMap = new ConcurrentHashMap<>();
+    Map<String, DiskBasedMap.ValueMetadata> compactMap = new PrimitiveValueMetadataMap<>(FILE_PATH);
+    for (int i = 0; i < numKeys; i++) {
+      String key = UUID.randomUUID().toString();
+      hashMap.put(key, new DiskBasedMap.ValueMetadata(FILE_PATH, 512, i * 512L, System.currentTimeMillis()));
+      compactMap.put(key, new DiskBasedMap.ValueMetadata(FILE_PATH, 512, i * 512L, System.currentTimeMillis()));
+    }
+    long hashMapSize = ObjectSizeCalculator.getObjectSize(hashMap);
+    long compactMapSize = ObjectSizeCalculator.getObjectSize(compactMap);
+    // boxed metadata and hash entries take several times the space of the key bytes alone
+    assertTrue(compactMapSize * 2 < hashMapSize);
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.collection;
+
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieRecordPayload;
+import org.apache.hudi.common.model.HoodieRecordSpillSerializer;
+import org.apache.hudi.common.testutils.HoodieCommonTestHarness;
+import org.apache.hudi.common.testutils.SchemaTestUtil;
+import org.apache.hudi.common.testutils.SpillableMapTestUtils;
+
+import org.apache.avro.generic.IndexedRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests RocksDB based map {@link RocksDBBasedMap}.
+ */
+public class TestRocksDBBasedMap extends HoodieCommonTestHarness {
+
+  @BeforeEach
+  public void setUp() {
+    initPath();
+  }
+
+  @Test
+  public void testSimpleInsertWithSpillSerializer() throws IOException, URISyntaxException {
+    RocksDBBasedMap<String, HoodieRecord<? extends HoodieRecordPayload>> records =
+        new RocksDBBasedMap<>(basePath, new HoodieRecordSpillSerializer());
+    List<IndexedRecord> iRecords = SchemaTestUtil.generateHoodieTestRecords(0, 100);
+    List<String> recordKeys = SpillableMapTestUtils.upsertRecords(iRecords, records);
+
+    recordKeys.forEach(key -> assertEquals(key, records.get(key).getRecordKey()));
+    List<String> iteratedKeys = new ArrayList<>();
+    Iterator<HoodieRecord<? extends HoodieRecordPayload>> itr = records.iterator();
+    while (itr.hasNext()) {
+      iteratedKeys.add(itr.next().getRecordKey());
+    }
+    assertEquals(recordKeys.size(), iteratedKeys.size());
+    assertTrue(iteratedKeys.containsAll(recordKeys));
+    assertNull(records.get("missing"));
+    assertEquals(recordKeys.size(), records.size());
+
+    String removedKey = recordKeys.get(0);
+    assertTrue(records.containsKey(removedKey));
+    assertEquals(removedKey, records.remove(removedKey).getRecordKey());
+    assertFalse(records.containsKey(removedKey));
+    assertEquals(recordKeys.size() - 1, records.size());
+    records.clear();
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi.common.util.queue;
+
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.exception.HoodieException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link RingBufferInMemoryQueue}.
+ */
+public class TestRingBufferInMemoryQueue {
+
+  private static final long RECORD_SIZE = 16;
+
+  private ExecutorService executorService;
+
+  @BeforeEach
+  public void setUp() {
+    executorService = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  private static RingBufferInMemoryQueue<Integer, String> createQueue(long recordLimit, int ringSize,
+      RingBufferInMemoryQueue.WaitStrategy waitStrategy, boolean isMultiProducer) {
+    return new RingBufferInMemoryQueue<>(recordLimit * RECORD_SIZE, String::valueOf, record -> RECORD_SIZE, ringSize,
+        waitStrategy, isMultiProducer);
+  }
+
+  @ParameterizedTest
+  @EnumSource(RingBufferInMemoryQueue.WaitStrategy.class)
+  @Timeout(value = 60)
+  public void testRecordReading(RingBufferInMemoryQueue.WaitStrategy waitStrategy) throws Exception {
+    final int numRecords = 100000;
+    final RingBufferInMemoryQueue<Integer, String> queue = createQueue(1000, 256, waitStrategy, false);
+    Future<Boolean> resFuture = executorService.submit(() -> {
+      new IteratorBasedQueueProducer<>(IntStream.range(0, numRecords).iterator()).produce(queue);
+      queue.close();
+      return true;
+    });
+
+    int recordsRead = 0;
+    while (queue.iterator().hasNext()) {
+      // Ensure that record ordering is guaranteed.
+      assertEquals(String.valueOf(recordsRead), queue.iterator().next());
+      recordsRead++;
+    }
+    assertEquals(numRecords, recordsRead);
+    assertFalse(queue.iterator().hasNext());
+    assertEquals(0, queue.size());
+    resFuture.get();
+  }
+
+  @Test
+  @Timeout(value = 60)
+  public void testCompositeProducerRecordReading() throws Exception {
+    final int numRecords = 10000;
+    final int numProducers = 3;
+    final RingBufferInMemoryQueue<Integer, String> queue =
+        createQueue(100, 128, RingBufferInMemoryQueue.WaitStrategy.YIELDING, true);
+    List<Future<Boolean>> futures = IntStream.range(0, numProducers).mapToObj(producer -> executorService.submit(() -> {
+      new IteratorBasedQueueProducer<>(IntStream.range(0, numRecords).map(i -> producer * numRecords + i).iterator())
+          .produce(queue);
+      return true;
+    })).collect(Collectors.toList());
+    executorService.submit(() -> {
+      for (Future<Boolean> future : futures) {
+        future.get();
+      }
+      queue.close();
+      return true;
+    });
+
+    // every producer is seen in FIFO order
+    int[] lastSeen = new int[numProducers];
+    Arrays.fill(lastSeen, -1);
+    int recordsRead = 0;
+    for (String record : queue) {
+      int value = Integer.parseInt(record);
+      int producer = value / numRecords;
+      assertEquals(lastSeen[producer] + 1, value % numRecords);
+      lastSeen[producer] = value % numRecords;
+      recordsRead++;
+    }
+    assertEquals(numProducers * numRecords, recordsRead);
+  }
+
+  @Test
+  @Timeout(value = 60)
+  public void testMemoryLimitForBuffering() throws Exception {
+    final int numRecords = 1000;
+    final int recordLimit = 5;
+    final RingBufferInMemoryQueue<Integer, String> queue =
+        createQueue(recordLimit, 1024, RingBufferInMemoryQueue.WaitStrategy.SLEEPING, false);
+    executorService.submit(() -> {
+      new IteratorBasedQueueProducer<>(IntStream.range(0, numRecords).iterator()).produce(queue);
+      queue.close();
+      return true;
+    });
+
+    // the producer publishes what it holds once it has to wait for the consumer
+    while (queue.size() < recordLimit) {
+      Thread.sleep(10);
+    }
+    Thread.sleep(100);
+    assertEquals(recordLimit, queue.size());
+
+    int recordsRead = 0;
+    for (String record : queue) {
+      assertEquals(String.valueOf(recordsRead++), record);
+      assertTrue(queue.size() <= recordLimit);
+    }
+    assertEquals(numRecords, recordsRead);
+  }
+
+  @Test
+  @Timeout(value = 60)
+  public void testException() throws Exception {
+    // the consumer fails, the producer waiting for space stops with the failure
+    final RingBufferInMemoryQueue<Integer, String> queue1 =
+        createQueue(4, 16, RingBufferInMemoryQueue.WaitStrategy.SLEEPING, false);
+    Future<Boolean> resFuture = executorService.submit(() -> {
+      new IteratorBasedQueueProducer<>(IntStream.range(0, 1000).iterator()).produce(queue1);
+      return true;
+    });
+    while (queue1.size() < 4) {
+      Thread.sleep(10);
+    }
+    final Exception e = new Exception("Failing it :)");
+    queue1.markAsFailed(e);
+    final Throwable thrown1 = assertThrows(ExecutionException.class, resFuture::get, "exception is expected");
+    assertEquals(HoodieException.class, thrown1.getCause().getClass());
+    assertEquals(e, thrown1.getCause().getCause());
+
+    // the producer fails, the consumer waiting for records stops with the failure
+    final RuntimeException expectedException = new RuntimeException("failing record reading");
+    final RingBufferInMemoryQueue<Integer, String> queue2 =
+        createQueue(4, 16, RingBufferInMemoryQueue.WaitStrategy.SLEEPING, false);
+    Future<Boolean> res = executorService.submit(() -> {
+      try {
+        new IteratorBasedQueueProducer<Integer>(new Iterator<Integer>() {
+          @Override
+          public boolean hasNext() {
+            return true;
+          }
+
+          @Override
+          public Integer next() {
+            throw expectedException;
+          }
+        }).produce(queue2);
+      } catch (Exception ex) {
+        queue2.markAsFailed(ex);
+        throw ex;
+      }
+      return true;
+    });
+    final Throwable thrown2 = assertThrows(HoodieException.class, () -> queue2.iterator().hasNext());
+    assertEquals(expectedException, thrown2.getCause());
+    final Throwable thrown3 = assertThrows(ExecutionException.class, res::get);
+    assertEquals(expectedException, thrown3.getCause());
+  }
+
+  @Test
+  @Timeout(value = 60)
+  public void testExecutor() {
+    final int numRecords = 10000;
+    final List<String> consumed = new ArrayList<>();
+    BoundedInMemoryQueueConsumer<String, Integer> consumer = new BoundedInMemoryQueueConsumer<String, Integer>() {
+      @Override
+      protected void consumeOneRecord(String record) {
+        consumed.add(record);
+      }
+
+      @Override
+      protected void finish() {
+      }
+
+      @Override
+      protected Integer getResult() {
+        return consumed.size();
+      }
+    };
+    BoundedInMemoryExecutor<Integer, String, Integer> executor = new BoundedInMemoryExecutor<>(
+        new IteratorBasedQueueProducer<>(IntStream.range(0, numRecords).iterator()), Option.of(consumer),
+        new RingBufferInMemoryQueue<>(1024 * 1024, Function.<Integer>identity().andThen(String::valueOf)));
+    try {
+      assertEquals(numRecords, executor.execute());
+      assertFalse(executor.isRemaining());
+      assertEquals(IntStream.range(0, numRecords).mapToObj(String::valueOf).collect(Collectors.toList()), consumed);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -28,16 +28,23 @@ import org.apache.hudi.common.model.HoodieRecordLocation;
 import org.apache.hudi.common.model.HoodieTableType;
 import org.apache.hudi.common.model.WriteOperationType;
 import org.apache.hudi.common.util.BaseFileUtils;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.config.HoodieIndexConfig;
 import org.apache.hudi.config.HoodieWriteConfig;
 import org.apache.hudi.configuration.FlinkOptions;
 import org.apache.hudi.exception.HoodieException;
+import org.apache.hudi.index.HoodieIndex;
 import org.apache.hudi.index.HoodieIndexUtils;
+import org.apache.hudi.index.bucket.BucketIdentifier;
+import org.apache.hudi.index.rocksdb.RocksDBIndexStore;
 import org.apache.hudi.table.HoodieTable;
 import org.apache.hudi.table.action.commit.BucketInfo;
 import org.apache.hudi.util.StreamerUtil;
 
 import org.apache.flink.annotation.VisibleForTesting;
 import org.apache.flink.api.common.state.CheckpointListener;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
 import org.apache.flink.api.common.state.MapState;
 import org.apache.flink.api.common.state.MapStateDescriptor;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
@@ -54,7 +61,12 @@ import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * The function to build the write profile incrementally for records within a checkpoint,
@@ -110,11 +122,48 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
    */
   private MapState<String, Integer> partitionLoadState;
 
+  /**
+   * Number of buckets of the bucket index, or 0 if the table does not use the bucket index.
+   *
+   * <p>With the bucket index, the file group of a record is computed from its key, so the index state
+   * is not used at all.
+   */
+  private int numBuckets;
+
+  /**
+   * Cache of the location of the written buckets of the bucket index, by partition path and bucket id,
+   * cleared when the table is refreshed.
+   */
+  private transient Map<String, Map<Integer, HoodieRecordLocation>> partitionBucketLocations;
+
+  /**
+   * Whether the table uses the ROCKSDB index: the locations are then kept in {@code localIndex} instead of
+   * {@code indexState}.
+   */
+  private final boolean useLocalIndex;
+
+  /**
+   * Local index persisted in an embedded RocksDB instance of the subtask, which also books the loaded partitions.
+   * A snapshot of it is taken at each checkpoint, and it is restored from the snapshot of the restored checkpoint.
+   * When the snapshot is missing, e.g. the subtask moved to another host, the local index is loaded again from the
+   * base files, partition by partition, whether {@link FlinkOptions#INDEX_BOOTSTRAP_ENABLED} is set or not.
+   * The {@link FlinkOptions#INDEX_STATE_TTL} does not apply to it.
+   */
+  private transient RocksDBIndexStore localIndex;
+
+  /**
+   * State of the id of the checkpoint the local index was snapshot at.
+   */
+  private transient ListState<Long> localIndexCheckpointState;
+
+  private transient Option<Long> restoredLocalIndexCheckpointId;
+
   public BucketAssignFunction(Configuration conf) {
     this.conf = conf;
     this.isChangingRecords = WriteOperationType.isChangingRecords(
         WriteOperationType.fromValue(conf.getString(FlinkOptions.OPERATION)));
     this.bootstrapIndex = conf.getBoolean(FlinkOptions.INDEX_BOOTSTRAP_ENABLED);
+    this.useLocalIndex = HoodieIndex.IndexType.ROCKSDB.name().equals(conf.getString(HoodieIndexConfig.INDEX_TYPE_PROP, ""));
   }
 
   @Override
@@ -132,15 +181,33 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
         HoodieTableType.valueOf(conf.getString(FlinkOptions.TABLE_TYPE)),
         context,
         writeConfig);
+    this.numBuckets = writeConfig.getIndexType() == HoodieIndex.IndexType.BUCKET ? writeConfig.getBucketIndexNumBuckets() : 0;
+    this.partitionBucketLocations = new HashMap<>();
+    if (useLocalIndex) {
+      this.localIndex = RocksDBIndexStore.openAtSnapshot(writeConfig.getRocksDBIndexPath(), getLocalIndexName(), restoredLocalIndexCheckpointId);
+    }
+  }
+
+  /**
+   * Returns the name of the local index of the subtask. The parallelism is part of it as the keys of the subtask
+   * change with the parallelism.
+   */
+  private String getLocalIndexName() {
+    return String.format("%s/bucket_assign_%d_of_%d", conf.getString(FlinkOptions.PATH),
+        getRuntimeContext().getIndexOfThisSubtask(), getRuntimeContext().getNumberOfParallelSubtasks());
   }
 
   @Override
-  public void snapshotState(FunctionSnapshotContext context) {
+  public void snapshotState(FunctionSnapshotContext context) throws Exception {
     this.bucketAssigner.reset();
+    if (localIndex != null) {
+      this.localIndex.snapshot(context.getCheckpointId());
+      this.localIndexCheckpointState.update(Collections.singletonList(context.getCheckpointId()));
+    }
   }
 
   @Override
-  public void initializeState(FunctionInitializationContext context) {
+  public void initializeState(FunctionInitializationContext context) throws Exception {
     MapStateDescriptor<HoodieKey, HoodieRecordLocation> indexStateDesc =
         new MapStateDescriptor<>(
             "indexState",
@@ -156,6 +223,14 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
           new MapStateDescriptor<>("partitionLoadState", Types.STRING, Types.INT);
       partitionLoadState = context.getKeyedStateStore().getMapState(partitionLoadStateDesc);
     }
+    if (useLocalIndex) {
+      localIndexCheckpointState = context.getOperatorStateStore().getListState(
+          new ListStateDescriptor<>("localIndexCheckpointState", Types.LONG));
+      List<Long> checkpointIds = new ArrayList<>();
+      localIndexCheckpointState.get().forEach(checkpointIds::add);
+      restoredLocalIndexCheckpointId = context.isRestored() && checkpointIds.size() == 1
+          ? Option.of(checkpointIds.get(0)) : Option.empty();
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -169,17 +244,27 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
     final BucketInfo bucketInfo;
     final HoodieRecordLocation location;
 
+    if (numBuckets > 0) {
+      location = getBucketLocation(hoodieKey);
+      record.unseal();
+      record.setCurrentLocation(location);
+      record.seal();
+      out.collect((O) record);
+      return;
+    }
+
     // The dataset may be huge, thus the processing would block for long,
     // disabled by default.
-    if (bootstrapIndex && !partitionLoadState.contains(hoodieKey.getPartitionPath())) {
+    if (!isPartitionLoaded(hoodieKey.getPartitionPath())) {
       // If the partition records are never loaded, load the records first.
       loadRecords(hoodieKey.getPartitionPath());
     }
     // Only changing records need looking up the index for the location,
     // append only records are always recognized as INSERT.
-    if (isChangingRecords && this.indexState.contains(hoodieKey)) {
+    final HoodieRecordLocation indexedLocation = isChangingRecords ? getIndexedLocation(hoodieKey) : null;
+    if (indexedLocation != null) {
       // Set up the instant time as "U" to mark the bucket as an update bucket.
-      location = new HoodieRecordLocation("U", this.indexState.get(hoodieKey).getFileId());
+      location = new HoodieRecordLocation("U", indexedLocation.getFileId());
       this.bucketAssigner.addUpdate(record.getPartitionPath(), location.getFileId());
     } else {
       bucketInfo = this.bucketAssigner.addInsert(hoodieKey.getPartitionPath());
@@ -197,7 +282,7 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
           throw new AssertionError();
       }
       if (isChangingRecords) {
-        this.indexState.put(hoodieKey, location);
+        putIndexedLocation(hoodieKey, location);
       }
     }
     record.unseal();
@@ -206,10 +291,65 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
     out.collect((O) record);
   }
 
+  /**
+   * Returns whether the records of the partition path were loaded into the index, always true for the index state
+   * unless it is bootstrapped.
+   */
+  private boolean isPartitionLoaded(String partitionPath) throws Exception {
+    if (localIndex != null) {
+      return localIndex.isPartitionLoaded(partitionPath);
+    }
+    return !bootstrapIndex || partitionLoadState.contains(partitionPath);
+  }
+
+  private HoodieRecordLocation getIndexedLocation(HoodieKey hoodieKey) throws Exception {
+    return localIndex != null ? localIndex.get(hoodieKey).orElse(null) : this.indexState.get(hoodieKey);
+  }
+
+  private void putIndexedLocation(HoodieKey hoodieKey, HoodieRecordLocation location) throws Exception {
+    if (localIndex != null) {
+      this.localIndex.put(hoodieKey, location);
+    } else {
+      this.indexState.put(hoodieKey, location);
+    }
+  }
+
   @Override
-  public void notifyCheckpointComplete(long l) {
+  public void notifyCheckpointComplete(long checkpointId) {
     // Refresh the table state when there are new commits.
     this.bucketAssigner.refreshTable();
+    this.partitionBucketLocations.clear();
+    if (localIndex != null) {
+      // The snapshots of the later checkpoints may still complete
+      this.localIndex.cleanSnapshotsBefore(checkpointId);
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    super.close();
+    if (localIndex != null) {
+      this.localIndex.close();
+    }
+  }
+
+  /**
+   * Tags the record with the file group of its bucket of the bucket index: as an UPDATE if the bucket was
+   * written, as an INSERT otherwise.
+   *
+   * <p>A bucket tagged as INSERT may have been written by the commit of the last checkpoint when its records are
+   * flushed, the write client then merges into it instead of creating it again.
+   */
+  private HoodieRecordLocation getBucketLocation(HoodieKey hoodieKey) {
+    final int bucketId = BucketIdentifier.getBucketId(hoodieKey.getRecordKey(), numBuckets);
+    final String fileId = BucketIdentifier.bucketFileId(hoodieKey.getPartitionPath(), bucketId);
+    final Map<Integer, HoodieRecordLocation> bucketLocations = this.partitionBucketLocations.computeIfAbsent(
+        hoodieKey.getPartitionPath(), partitionPath -> BucketIdentifier.getBucketLocations(partitionPath, bucketAssigner.getTable()));
+    if (bucketLocations.containsKey(bucketId)) {
+      this.bucketAssigner.addUpdate(hoodieKey.getPartitionPath(), fileId);
+      return new HoodieRecordLocation("U", fileId);
+    }
+    return new HoodieRecordLocation("I", fileId);
   }
 
   /**
@@ -238,6 +378,15 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
         LOG.error("Error when loading record keys from file: {}", baseFile);
         continue;
       }
+      if (localIndex != null) {
+        // Reference: org.apache.flink.streaming.api.datastream.KeyedStream,
+        // the input records is shuffled by record key
+        List<HoodieKey> subtaskKeys = hoodieKeys.stream()
+            .filter(hoodieKey -> KeyGroupRangeAssignment.assignKeyToParallelOperator(hoodieKey.getRecordKey(), maxParallelism, parallelism) == taskID)
+            .collect(Collectors.toList());
+        this.localIndex.putAll(subtaskKeys, new HoodieRecordLocation(baseFile.getCommitTime(), baseFile.getFileId()));
+        continue;
+      }
       hoodieKeys.forEach(hoodieKey -> {
         try {
           // Reference: org.apache.flink.streaming.api.datastream.KeyedStream,
@@ -253,19 +402,27 @@ public class BucketAssignFunction<K, I, O extends HoodieRecord<?>>
       });
     }
     // Mark the partition path as loaded.
-    partitionLoadState.put(partitionPath, 0);
+    if (localIndex != null) {
+      this.localIndex.markPartitionLoaded(partitionPath);
+    } else {
+      partitionLoadState.put(partitionPath, 0);
+    }
     LOG.info("Finish loading records under partition {} into the index state", partitionPath);
   }
 
   @VisibleForTesting
   public void clearIndexState() {
-    this.indexState.clear();
+    if (localIndex != null) {
+      this.localIndex.clear();
+    } else {
+      this.indexState.clear();
+    }
   }
 
   @VisibleForTesting
   public boolean isKeyInState(HoodieKey hoodieKey) {
     try {
-      return this.indexState.contains(hoodieKey);
+      return getIndexedLocation(hoodieKey) != null;
     } catch (Exception e) {
       throw new HoodieException(e);
     }
@@ -66,7 +66,6 @@ import java.io.StringReader;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
-import java.util.Properties;
 
 /**
  * Utilities for Flink stream read and write.
@@ -233,7 +232,9 @@ public class StreamerUtil {
    * @return a TypedProperties instance
    */
   public static TypedProperties flinkConf2TypedProperties(Configuration conf) {
-    Properties properties = new Properties();
+    // The options are put into the properties themselves, not into their defaults,
+    // so that they are copied along with the properties, e.g. into the write config
+    TypedProperties properties = new TypedProperties();
     // put all the set up options
     conf.addAllToProperties(properties);
     // put all the default options
@@ -242,7 +243,7 @@ public class StreamerUtil {
         properties.put(option.key(), option.defaultValue());
       }
     }
-    return new TypedProperties(properties);
+    return properties;
   }
 
   public static void checkRequiredProperties(TypedProperties props, List<String> checkPropNames) {
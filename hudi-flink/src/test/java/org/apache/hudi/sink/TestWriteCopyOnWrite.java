@@ -24,7 +24,10 @@ import org.apache.hudi.common.model.HoodieKey;
 import org.apache.hudi.common.model.HoodieRecord;
 import org.apache.hudi.common.model.HoodieTableType;
 import org.apache.hudi.common.table.timeline.HoodieInstant;
+import org.apache.hudi.config.HoodieIndexConfig;
 import org.apache.hudi.configuration.FlinkOptions;
+import org.apache.hudi.index.HoodieIndex;
+import org.apache.hudi.index.bucket.BucketIdentifier;
 import org.apache.hudi.sink.event.BatchWriteSuccessEvent;
 import org.apache.hudi.sink.utils.StreamWriteFunctionWrapper;
 import org.apache.hudi.utils.TestConfigurations;
@@ -40,6 +43,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -570,6 +574,114 @@ public class TestWriteCopyOnWrite {
     checkWrittenData(tempFile, EXPECTED2);
   }
 
+  @Test
+  public void testUpsertWithLocalIndex() throws Exception {
+    // reset the config option
+    File rocksDBIndexPath = new File(tempFile, ".index_rocksdb");
+    conf.setString(HoodieIndexConfig.INDEX_TYPE_PROP, HoodieIndex.IndexType.ROCKSDB.name());
+    conf.setString(HoodieIndexConfig.ROCKSDB_INDEX_PATH_PROP, rocksDBIndexPath.getAbsolutePath());
+    funcWrapper = new StreamWriteFunctionWrapper<>(tempFile.getAbsolutePath(), conf);
+
+    // open the function and ingest data
+    funcWrapper.openFunction();
+    for (RowData rowData : TestData.DATA_SET_INSERT) {
+      funcWrapper.invoke(rowData);
+    }
+    checkIndexLoaded(
+        new HoodieKey("id1", "par1"),
+        new HoodieKey("id3", "par2"),
+        new HoodieKey("id5", "par3"),
+        new HoodieKey("id7", "par4"));
+
+    // this triggers the data write and event send
+    funcWrapper.checkpointFunction(1);
+
+    OperatorEvent nextEvent = funcWrapper.getNextEvent();
+    assertThat("The operator expect to send an event", nextEvent, instanceOf(BatchWriteSuccessEvent.class));
+
+    funcWrapper.getCoordinator().handleEventFromOperator(0, nextEvent);
+    assertNotNull(funcWrapper.getEventBuffer()[0], "The coordinator missed the event");
+
+    funcWrapper.checkpointComplete(1);
+
+    // upsert another data buffer, the updates are tagged with the locations of the local index
+    for (RowData rowData : TestData.DATA_SET_UPDATE_INSERT) {
+      funcWrapper.invoke(rowData);
+    }
+    funcWrapper.checkpointFunction(2);
+
+    String instant = funcWrapper.getWriteClient()
+        .getLastPendingInstant(getTableType());
+
+    nextEvent = funcWrapper.getNextEvent();
+    assertThat("The operator expect to send an event", nextEvent, instanceOf(BatchWriteSuccessEvent.class));
+
+    funcWrapper.getCoordinator().handleEventFromOperator(0, nextEvent);
+    assertNotNull(funcWrapper.getEventBuffer()[0], "The coordinator missed the event");
+
+    funcWrapper.checkpointComplete(2);
+    checkInstantState(funcWrapper.getWriteClient(), HoodieInstant.State.COMPLETED, instant);
+    checkWrittenData(tempFile, EXPECTED2);
+
+    // only the snapshot of the last completed checkpoint is kept
+    File[] snapshotDirs = rocksDBIndexPath.listFiles(file -> file.getName().endsWith("_snapshots"));
+    assertNotNull(snapshotDirs);
+    assertThat(snapshotDirs.length, is(1));
+    assertThat(Arrays.toString(snapshotDirs[0].list()), is("[2]"));
+  }
+
+  @Test
+  public void testUpsertWithBucketIndex() throws Exception {
+    // reset the config option, with a single bucket for each partition
+    conf.setString(HoodieIndexConfig.INDEX_TYPE_PROP, HoodieIndex.IndexType.BUCKET.name());
+    conf.setString(HoodieIndexConfig.BUCKET_INDEX_NUM_BUCKETS_PROP, "1");
+    funcWrapper = new StreamWriteFunctionWrapper<>(tempFile.getAbsolutePath(), conf);
+
+    // open the function and ingest data
+    funcWrapper.openFunction();
+    for (RowData rowData : TestData.DATA_SET_INSERT) {
+      funcWrapper.invoke(rowData);
+    }
+    checkBucketLocations("I");
+
+    // this triggers the data write and event send
+    funcWrapper.checkpointFunction(1);
+
+    OperatorEvent nextEvent = funcWrapper.getNextEvent();
+    assertThat("The operator expect to send an event", nextEvent, instanceOf(BatchWriteSuccessEvent.class));
+
+    // upsert another data buffer before the first commit, the buckets it writes are not committed yet
+    for (RowData rowData : TestData.DATA_SET_UPDATE_INSERT) {
+      funcWrapper.invoke(rowData);
+    }
+    checkBucketLocations("I");
+
+    funcWrapper.getCoordinator().handleEventFromOperator(0, nextEvent);
+    assertNotNull(funcWrapper.getEventBuffer()[0], "The coordinator missed the event");
+
+    funcWrapper.checkpointComplete(1);
+
+    // the buckets written by the first commit are merged into instead of being created again
+    funcWrapper.checkpointFunction(2);
+
+    String instant = funcWrapper.getWriteClient()
+        .getLastPendingInstant(getTableType());
+
+    nextEvent = funcWrapper.getNextEvent();
+    assertThat("The operator expect to send an event", nextEvent, instanceOf(BatchWriteSuccessEvent.class));
+
+    funcWrapper.getCoordinator().handleEventFromOperator(0, nextEvent);
+    assertNotNull(funcWrapper.getEventBuffer()[0], "The coordinator missed the event");
+
+    funcWrapper.checkpointComplete(2);
+    checkInstantState(funcWrapper.getWriteClient(), HoodieInstant.State.COMPLETED, instant);
+    checkWrittenData(tempFile, EXPECTED2);
+
+    // the buckets are committed, the records are now tagged as updates of their file groups
+    funcWrapper.invoke(TestData.DATA_SET_INSERT.get(0));
+    checkBucketLocations("U");
+  }
+
   // -------------------------------------------------------------------------
   //  Utilities
   // -------------------------------------------------------------------------
@@ -620,6 +732,16 @@ public class TestWriteCopyOnWrite {
     assertThat(dataFiles.length, is(0));
   }
 
+  private void checkBucketLocations(String instantTime) {
+    List<HoodieRecord> records = funcWrapper.getDataBuffer().values().stream()
+        .flatMap(List::stream).collect(Collectors.toList());
+    assertFalse(records.isEmpty());
+    for (HoodieRecord record : records) {
+      assertThat(record.getCurrentLocation().getInstantTime(), is(instantTime));
+      assertThat(record.getCurrentLocation().getFileId(), is(BucketIdentifier.bucketFileId(record.getPartitionPath(), 0)));
+    }
+  }
+
   private void checkIndexLoaded(HoodieKey... keys) {
     for (HoodieKey key : keys) {
       assertTrue(funcWrapper.isKeyInState(key),
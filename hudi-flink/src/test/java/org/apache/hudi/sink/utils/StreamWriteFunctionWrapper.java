@@ -39,6 +39,7 @@ import org.apache.flink.runtime.operators.coordination.MockOperatorCoordinatorCo
 import org.apache.flink.runtime.operators.coordination.OperatorEvent;
 import org.apache.flink.runtime.operators.testutils.MockEnvironment;
 import org.apache.flink.runtime.operators.testutils.MockEnvironmentBuilder;
+import org.apache.flink.runtime.state.StateSnapshotContextSynchronousImpl;
 import org.apache.flink.streaming.api.operators.StreamingRuntimeContext;
 import org.apache.flink.streaming.api.operators.collect.utils.MockOperatorEventGateway;
 import org.apache.flink.table.data.RowData;
@@ -102,8 +103,8 @@ public class StreamWriteFunctionWrapper<I> {
 
     bucketAssignerFunction = new BucketAssignFunction<>(conf);
     bucketAssignerFunction.setRuntimeContext(runtimeContext);
-    bucketAssignerFunction.open(conf);
     bucketAssignerFunction.initializeState(this.functionInitializationContext);
+    bucketAssignerFunction.open(conf);
 
     writeFunction = new StreamWriteFunction<>(conf);
     writeFunction.setRuntimeContext(runtimeContext);
@@ -153,7 +154,7 @@ public class StreamWriteFunctionWrapper<I> {
   public void checkpointFunction(long checkpointId) throws Exception {
     // checkpoint the coordinator first
     this.coordinator.checkpointCoordinator(checkpointId, new CompletableFuture<>());
-    bucketAssignerFunction.snapshotState(null);
+    bucketAssignerFunction.snapshotState(new StateSnapshotContextSynchronousImpl(checkpointId, System.currentTimeMillis()));
 
     writeFunction.snapshotState(null);
     functionInitializationContext.getOperatorStateStore().checkpointBegin(checkpointId);
@@ -180,6 +181,9 @@ public class StreamWriteFunctionWrapper<I> {
   public void close() throws Exception {
     coordinator.close();
     ioManager.close();
+    if (bucketAssignerFunction != null) {
+      bucketAssignerFunction.close();
+    }
   }
 
   public StreamWriteOperatorCoordinator getCoordinator() {
@@ -31,6 +31,11 @@ public final class HoodieRealtimeConfig {
   public static final String COMPACTION_LAZY_BLOCK_READ_ENABLED_PROP = "compaction.lazy.block.read.enabled";
   public static final String DEFAULT_COMPACTION_LAZY_BLOCK_READ_ENABLED = "true";
 
+  // Number of threads reading and decoding log blocks ahead of the merge, 0 disables prefetching.
+  // Prefetching is not applied if lazy block reading is enabled
+  public static final String LOG_BLOCK_PREFETCH_THREADS_PROP = "hoodie.realtime.log.block.prefetch.threads";
+  public static final int DEFAULT_LOG_BLOCK_PREFETCH_THREADS = 0;
+
   // Property to set the max memory for dfs inputstream buffer size
   public static final String MAX_DFS_STREAM_BUFFER_SIZE_PROP = "hoodie.memory.dfs.buffer.max.size";
   // Setting this to lower value of 1 MB since no control over how many RecordReaders will be started in a mapper
@@ -74,6 +74,7 @@ class RealtimeCompactedRecordReader extends AbstractRealtimeRecordReader
         .withReverseReader(false)
         .withBufferSize(jobConf.getInt(HoodieRealtimeConfig.MAX_DFS_STREAM_BUFFER_SIZE_PROP, HoodieRealtimeConfig.DEFAULT_MAX_DFS_STREAM_BUFFER_SIZE))
         .withSpillableMapBasePath(jobConf.get(HoodieRealtimeConfig.SPILLABLE_MAP_BASE_PATH_PROP, HoodieRealtimeConfig.DEFAULT_SPILLABLE_MAP_BASE_PATH))
+        .withPrefetchThreads(jobConf.getInt(HoodieRealtimeConfig.LOG_BLOCK_PREFETCH_THREADS_PROP, HoodieRealtimeConfig.DEFAULT_LOG_BLOCK_PREFETCH_THREADS))
         .build();
   }
 
@@ -71,6 +71,15 @@ object DataSourceReadOptions {
   val ENABLE_HOODIE_FILE_INDEX = "hoodie.file.index.enable"
   val DEFAULT_ENABLE_HOODIE_FILE_INDEX = true
 
+  /**
+   * Whether the file index skips the base files whose column statistics, saved in the column stats
+   * partition of the metadata table, show that they hold no row matching the data filters of the query.
+   *
+   * Default: false
+   */
+  val ENABLE_DATA_SKIPPING = "hoodie.enable.data.skipping"
+  val DEFAULT_ENABLE_DATA_SKIPPING = false
+
   @Deprecated
   val VIEW_TYPE_OPT_KEY = "hoodie.datasource.view.type"
   @Deprecated
@@ -295,6 +304,14 @@ object DataSourceWriteOptions {
   val ENABLE_ROW_WRITER_OPT_KEY = "hoodie.datasource.write.row.writer.enable"
   val DEFAULT_ENABLE_ROW_WRITER_OPT_VAL = "false"
 
+  /**
+   * When set to true along with the row writer, upserts into copy on write tables merge the spark native `Row`s into
+   * the base files, combining them with the configured `hoodie.datasource.write.row.merger.class` instead of the payload.
+   * By default, false
+   */
+  val ENABLE_ROW_WRITER_UPSERT_OPT_KEY = "hoodie.datasource.write.row.writer.upsert.enable"
+  val DEFAULT_ENABLE_ROW_WRITER_UPSERT_OPT_VAL = "false"
+
   /**
     * Option keys beginning with this prefix, are automatically added to the commit/deltacommit metadata.
     * This is useful to store checkpointing information, in a consistent way with the hoodie timeline
@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi;
+
+import org.apache.hudi.client.HoodieInternalWriteStatus;
+import org.apache.hudi.client.model.HoodieRowMerger;
+import org.apache.hudi.common.engine.HoodieEngineContext;
+import org.apache.hudi.common.model.EmptyHoodieRecordPayload;
+import org.apache.hudi.common.model.HoodieKey;
+import org.apache.hudi.common.model.HoodieRecord;
+import org.apache.hudi.common.model.HoodieTableType;
+import org.apache.hudi.common.util.Option;
+import org.apache.hudi.common.util.ReflectionUtils;
+import org.apache.hudi.config.HoodieWriteConfig;
+import org.apache.hudi.exception.HoodieNotSupportedException;
+import org.apache.hudi.index.HoodieIndex;
+import org.apache.hudi.internal.BulkInsertDataInternalWriterHelper;
+import org.apache.hudi.io.HoodieRowMergeHandle;
+import org.apache.hudi.table.HoodieSparkTable;
+import org.apache.hudi.table.action.commit.BucketInfo;
+import org.apache.hudi.table.action.commit.BucketType;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.spark.Partitioner;
+import org.apache.spark.TaskContext;
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.Optional;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.storage.StorageLevel;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import scala.Tuple2;
+import scala.Tuple3;
+
+/**
+ * Helper class to upsert {@link Dataset<Row>}s with the datasource, through the row writer. The records are never
+ * converted to Avro: the incoming rows are tagged with the file group holding their record key, then the rows of each
+ * file group are merged into its latest base file by a {@link HoodieRowMergeHandle}, and the rows of new record keys
+ * are written to new file groups of their partition, as done by bulk insert.
+ *
+ * <p>Only copy on write tables with an index that is neither global nor needs to be updated after the write are
+ * supported. Inserts do not go to small files, the inserts of a partition are spread over several new file groups
+ * depending on the upsert parallelism and the insert split size.
+ */
+public class HoodieDatasetUpsertHelper {
+
+  private static final Logger LOG = LogManager.getLogger(HoodieDatasetUpsertHelper.class);
+
+  /**
+   * Upserts the input dataset, prepared by {@link HoodieDatasetBulkInsertHelper#addHoodieColumns}, as of the given
+   * instant. The instant is expected to be inflight, and is left for the caller to commit.
+   *
+   * @param context Hoodie engine context
+   * @param config  Hoodie Write Config
+   * @param rows    Spark dataset with the hoodie columns
+   * @param instantTime instant time of the upsert
+   * @return the write statuses of the file groups written.
+   */
+  public static List<HoodieInternalWriteStatus> upsert(HoodieEngineContext context, HoodieWriteConfig config,
+      Dataset<Row> rows, String instantTime) {
+    HoodieSparkTable<EmptyHoodieRecordPayload> table = HoodieSparkTable.create(config, context);
+    if (table.getMetaClient().getTableType() != HoodieTableType.COPY_ON_WRITE) {
+      throw new HoodieNotSupportedException("Upserts with the row writer only support copy on write tables");
+    }
+    if (table.getIndex().isGlobal() || !table.getIndex().isImplicitWithStorage() || config.getIndexType() == HoodieIndex.IndexType.BUCKET) {
+      throw new HoodieNotSupportedException("Upserts with the row writer do not support the index type " + config.getIndexType());
+    }
+    StructType structType = rows.schema();
+    JavaRDD<InternalRow> internalRows = rows.queryExecution().toRdd().toJavaRDD()
+        // the rows handed by the iterators of the plan may be reused
+        .map(InternalRow::copy)
+        .persist(StorageLevel.MEMORY_AND_DISK_SER());
+    try {
+      // tag the rows with the file group holding their record key, the rows of new record keys go to an insert bucket
+      JavaRDD<HoodieRecord<EmptyHoodieRecordPayload>> keys = internalRows
+          .map(row -> new HoodieRecord<>(getKey(row), new EmptyHoodieRecordPayload()));
+      JavaPairRDD<HoodieKey, String> keyToFileId = table.getIndex().tagLocation(keys, context, table)
+          .filter(HoodieRecord::isCurrentLocationKnown)
+          .mapToPair(record -> new Tuple2<>(record.getKey(), record.getCurrentLocation().getFileId()))
+          .reduceByKey((fileId, otherFileId) -> fileId);
+      JavaPairRDD<HoodieKey, Tuple2<InternalRow, Optional<String>>> taggedRows = internalRows
+          .mapToPair(row -> new Tuple2<>(getKey(row), row))
+          .leftOuterJoin(keyToFileId)
+          .persist(StorageLevel.MEMORY_AND_DISK_SER());
+
+      // the inserts of a partition are spread over several buckets by hash of their record key
+      Map<String, Long> partitionToNumInserts = taggedRows.filter(taggedRow -> !taggedRow._2._2.isPresent())
+          .map(taggedRow -> taggedRow._1.getPartitionPath())
+          .countByValue();
+      Map<String, Integer> partitionToNumInsertBuckets = getNumInsertBuckets(config, partitionToNumInserts);
+
+      // the buckets are keyed by strings, so that the same bucket computed by different executors is collected once
+      JavaPairRDD<Tuple3<String, String, String>, InternalRow> bucketedRows = taggedRows
+          .mapToPair(taggedRow -> new Tuple2<>(getBucketKey(taggedRow._1, taggedRow._2._2, partitionToNumInsertBuckets),
+              taggedRow._2._1));
+
+      // one task per bucket, its rows sorted by record key so the rows of a record key come together
+      List<Tuple3<String, String, String>> bucketKeys = new ArrayList<>(bucketedRows.keys().distinct().collect());
+      if (bucketKeys.isEmpty()) {
+        taggedRows.unpersist();
+        return Collections.emptyList();
+      }
+      Map<Tuple3<String, String, String>, Integer> bucketIndexes = new HashMap<>();
+      List<BucketInfo> buckets = new ArrayList<>();
+      for (Tuple3<String, String, String> bucketKey : bucketKeys) {
+        if (!bucketIndexes.containsKey(bucketKey)) {
+          bucketIndexes.put(bucketKey, buckets.size());
+          buckets.add(new BucketInfo(BucketType.valueOf(bucketKey._1()), bucketKey._2(), bucketKey._3()));
+        }
+      }
+      LOG.info("Upserting rows into " + buckets.size() + " buckets " + buckets);
+      List<HoodieInternalWriteStatus> writeStatuses = bucketedRows
+          .mapToPair(bucketedRow -> new Tuple2<>(new Tuple2<>(bucketIndexes.get(bucketedRow._1),
+              bucketedRow._2.getUTF8String(getMetaColumnPos(HoodieRecord.RECORD_KEY_METADATA_FIELD)).toString()), bucketedRow._2))
+          .repartitionAndSortWithinPartitions(new BucketPartitioner(buckets.size()), new RecordKeyComparator())
+          .mapPartitionsWithIndex((bucketIndex, sortedRows) -> writeBucket(table, config, instantTime, structType,
+              buckets.get(bucketIndex), new RowIterator(sortedRows)).iterator(), true)
+          .collect();
+      taggedRows.unpersist();
+      return writeStatuses;
+    } finally {
+      internalRows.unpersist();
+    }
+  }
+
+  private static List<HoodieInternalWriteStatus> writeBucket(HoodieSparkTable<EmptyHoodieRecordPayload> table,
+      HoodieWriteConfig config, String instantTime, StructType structType, BucketInfo bucket, Iterator<InternalRow> rows)
+      throws Exception {
+    if (!rows.hasNext()) {
+      return Collections.emptyList();
+    }
+    TaskContext taskContext = TaskContext.get();
+    if (bucket.getBucketType() == BucketType.UPDATE) {
+      HoodieRowMergeHandle mergeHandle = new HoodieRowMergeHandle(table, config, bucket.getPartitionPath(),
+          bucket.getFileIdPrefix(), instantTime, taskContext.partitionId(), taskContext.taskAttemptId(),
+          taskContext.attemptNumber(), structType, rows);
+      mergeHandle.mergeWithBaseFile();
+      return Collections.singletonList(mergeHandle.close());
+    }
+
+    HoodieRowMerger rowMerger = (HoodieRowMerger) ReflectionUtils.loadClass(config.getRowMergerClass(),
+        new Class<?>[] {Properties.class}, config.getProps());
+    BulkInsertDataInternalWriterHelper writerHelper = new BulkInsertDataInternalWriterHelper(table, config, instantTime,
+        taskContext.partitionId(), taskContext.taskAttemptId(), taskContext.attemptNumber(), structType);
+    InternalRow combinedRow = null;
+    while (rows.hasNext()) {
+      InternalRow row = rows.next();
+      if (combinedRow == null) {
+        combinedRow = row;
+      } else if (getKey(combinedRow).equals(getKey(row))) {
+        combinedRow = rowMerger.preCombine(combinedRow, row, structType);
+      } else {
+        writeInsert(writerHelper, rowMerger.getInsertValue(combinedRow, structType));
+        combinedRow = row;
+      }
+    }
+    if (combinedRow != null) {
+      writeInsert(writerHelper, rowMerger.getInsertValue(combinedRow, structType));
+    }
+    return writerHelper.getWriteStatuses();
+  }
+
+  /**
+   * Number of insert buckets of each partition: the inserts are spread over up to the upsert parallelism buckets,
+   * holding no fewer than the insert split size records each.
+   */
+  private static Map<String, Integer> getNumInsertBuckets(HoodieWriteConfig config, Map<String, Long> partitionToNumInserts) {
+    long totalInserts = partitionToNumInserts.values().stream().mapToLong(Long::longValue).sum();
+    long parallelism = Math.max(config.getUpsertShuffleParallelism(), 1);
+    long insertsPerBucket = Math.max((totalInserts + parallelism - 1) / parallelism, Math.max(config.getCopyOnWriteInsertSplitSize(), 1));
+    Map<String, Integer> partitionToNumInsertBuckets = new HashMap<>();
+    partitionToNumInserts.forEach((partitionPath, numInserts) ->
+        partitionToNumInsertBuckets.put(partitionPath, (int) ((numInserts + insertsPerBucket - 1) / insertsPerBucket)));
+    return partitionToNumInsertBuckets;
+  }
+
+  /**
+   * Key of the bucket of a row: |bucket type|file id of the update or number of the insert bucket|partition path|.
+   */
+  private static Tuple3<String, String, String> getBucketKey(HoodieKey key, Optional<String> fileId,
+      Map<String, Integer> partitionToNumInsertBuckets) {
+    if (fileId.isPresent()) {
+      return new Tuple3<>(BucketType.UPDATE.name(), fileId.get(), key.getPartitionPath());
+    }
+    int insertBucket = (key.getRecordKey().hashCode() & Integer.MAX_VALUE) % partitionToNumInsertBuckets.get(key.getPartitionPath());
+    return new Tuple3<>(BucketType.INSERT.name(), String.valueOf(insertBucket), key.getPartitionPath());
+  }
+
+  private static void writeInsert(BulkInsertDataInternalWriterHelper writerHelper, Option<InternalRow> row) throws Exception {
+    if (row.isPresent()) {
+      writerHelper.write(row.get());
+    }
+  }
+
+  private static HoodieKey getKey(InternalRow row) {
+    return new HoodieKey(row.getUTF8String(getMetaColumnPos(HoodieRecord.RECORD_KEY_METADATA_FIELD)).toString(),
+        row.getUTF8String(getMetaColumnPos(HoodieRecord.PARTITION_PATH_METADATA_FIELD)).toString());
+  }
+
+  private static int getMetaColumnPos(String metaColumn) {
+    return HoodieRecord.HOODIE_META_COLUMNS_NAME_TO_POS.get(metaColumn);
+  }
+
+  /**
+   * Sends the rows keyed by bucket index and record key to the partition of the bucket.
+   */
+  private static class BucketPartitioner extends Partitioner {
+
+    private final int numBuckets;
+
+    BucketPartitioner(int numBuckets) {
+      this.numBuckets = numBuckets;
+    }
+
+    @Override
+    public int numPartitions() {
+      return numBuckets;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int getPartition(Object key) {
+      return ((Tuple2<Integer, String>) key)._1;
+    }
+  }
+
+  /**
+   * Orders the rows of a bucket by record key.
+   */
+  private static class RecordKeyComparator implements Comparator<Tuple2<Integer, String>>, Serializable {
+
+    @Override
+    public int compare(Tuple2<Integer, String> key, Tuple2<Integer, String> otherKey) {
+      return key._2.compareTo(otherKey._2);
+    }
+  }
+
+  /**
+   * Iterates over the rows of a bucket, dropping their sort key.
+   */
+  private static class RowIterator implements Iterator<InternalRow> {
+
+    private final Iterator<Tuple2<Tuple2<Integer, String>, InternalRow>> sortedRows;
+
+    RowIterator(Iterator<Tuple2<Tuple2<Integer, String>, InternalRow>> sortedRows) {
+      this.sortedRows = sortedRows;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return sortedRows.hasNext();
+    }
+
+    @Override
+    public InternalRow next() {
+      return sortedRows.next()._2;
+    }
+  }
+}
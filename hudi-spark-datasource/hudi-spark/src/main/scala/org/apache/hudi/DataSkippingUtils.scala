@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hudi
+
+import org.apache.hudi.common.model.HoodieColumnRangeMetadata
+import org.apache.spark.sql.catalyst.analysis.Resolver
+import org.apache.spark.sql.catalyst.expressions.{And, AttributeReference, EqualNullSafe, EqualTo, Expression, GreaterThan, GreaterThanOrEqual, In, InSet, IsNotNull, IsNull, LessThan, LessThanOrEqual, Literal, Or, StartsWith}
+import org.apache.spark.sql.types._
+import org.apache.spark.unsafe.types.UTF8String
+
+import scala.util.Try
+
+/**
+ * Evaluates the data filters of a query against the column statistics of a base file, saved in the
+ * column stats partition of the metadata table, to find out whether the file might hold matching rows.
+ *
+ * The evaluation is conservative: a file is only skipped if the statistics prove that no row of it matches
+ * the filters. Filters which are not supported, columns without statistics and columns whose type is not
+ * supported never skip a file.
+ */
+object DataSkippingUtils {
+
+  /**
+   * Returns false if no row of a file with the given column statistics can match the filter.
+   *
+   * @param filter The filter, a conjunction of the data filters of the query.
+   * @param columnStats The statistics of the columns of the file, by column name.
+   * @param resolver Resolver used to match the attributes of the filter with the column names.
+   */
+  def mightMatch(filter: Expression,
+                 columnStats: Map[String, HoodieColumnRangeMetadata],
+                 resolver: Resolver): Boolean = {
+    def stats(attribute: AttributeReference): Option[HoodieColumnRangeMetadata] = {
+      columnStats.get(attribute.name)
+        .orElse(columnStats.find { case (name, _) => resolver(name, attribute.name) }.map(_._2))
+    }
+
+    // Whether a value within the range of the column might satisfy the predicate, given the min and max value
+    def inRange(attribute: AttributeReference)(predicate: (Any, Any, ColumnOrdering) => Boolean): Boolean = {
+      stats(attribute) match {
+        case Some(s) if s.getValueCount > 0 && s.getNullCount == s.getValueCount =>
+          // Only nulls, which never satisfy a comparison
+          false
+        case Some(s) if s.getMinValue != null && s.getMaxValue != null =>
+          ColumnOrdering(attribute.dataType).forall { ordering =>
+            Try(predicate(ordering.parse(s.getMinValue), ordering.parse(s.getMaxValue), ordering)).getOrElse(true)
+          }
+        case _ => true
+      }
+    }
+
+    def contains(attribute: AttributeReference, value: Any): Boolean = {
+      value == null || inRange(attribute) { (min, max, ordering) =>
+        val v = ordering.normalize(value)
+        ordering.lteq(min, v) && ordering.lteq(v, max)
+      }
+    }
+
+    filter match {
+      case And(left, right) =>
+        mightMatch(left, columnStats, resolver) && mightMatch(right, columnStats, resolver)
+      case Or(left, right) =>
+        mightMatch(left, columnStats, resolver) || mightMatch(right, columnStats, resolver)
+
+      case IsNull(a: AttributeReference) =>
+        stats(a).forall(_.getNullCount > 0)
+      case IsNotNull(a: AttributeReference) =>
+        stats(a).forall(s => s.getNullCount < s.getValueCount)
+
+      case EqualTo(a: AttributeReference, Literal(v, _)) => contains(a, v)
+      case EqualTo(Literal(v, _), a: AttributeReference) => contains(a, v)
+      case EqualNullSafe(a: AttributeReference, Literal(v, _)) =>
+        if (v == null) stats(a).forall(_.getNullCount > 0) else contains(a, v)
+      case EqualNullSafe(Literal(v, _), a: AttributeReference) =>
+        if (v == null) stats(a).forall(_.getNullCount > 0) else contains(a, v)
+
+      case LessThan(a: AttributeReference, Literal(v, _)) if v != null =>
+        inRange(a)((min, _, o) => o.lt(min, o.normalize(v)))
+      case LessThan(Literal(v, _), a: AttributeReference) if v != null =>
+        inRange(a)((_, max, o) => o.gt(max, o.normalize(v)))
+      case LessThanOrEqual(a: AttributeReference, Literal(v, _)) if v != null =>
+        inRange(a)((min, _, o) => o.lteq(min, o.normalize(v)))
+      case LessThanOrEqual(Literal(v, _), a: AttributeReference) if v != null =>
+        inRange(a)((_, max, o) => o.gteq(max, o.normalize(v)))
+      case GreaterThan(a: AttributeReference, Literal(v, _)) if v != null =>
+        inRange(a)((_, max, o) => o.gt(max, o.normalize(v)))
+      case GreaterThan(Literal(v, _), a: AttributeReference) if v != null =>
+        inRange(a)((min, _, o) => o.lt(min, o.normalize(v)))
+      case GreaterThanOrEqual(a: AttributeReference, Literal(v, _)) if v != null =>
+        inRange(a)((_, max, o) => o.gteq(max, o.normalize(v)))
+      case GreaterThanOrEqual(Literal(v, _), a: AttributeReference) if v != null =>
+        inRange(a)((min, _, o) => o.lteq(min, o.normalize(v)))
+
+      case In(a: AttributeReference, list) if list.forall(_.isInstanceOf[Literal]) =>
+        list.exists(l => contains(a, l.asInstanceOf[Literal].value))
+      case InSet(a: AttributeReference, values) =>
+        values.exists(v => contains(a, v))
+
+      case StartsWith(a: AttributeReference, Literal(prefix: UTF8String, StringType)) if a.dataType == StringType =>
+        inRange(a) { (min, max, _) =>
+          val minString = min.asInstanceOf[UTF8String]
+          val maxString = max.asInstanceOf[UTF8String]
+          // The strings starting with the prefix sort between the prefix and the prefix of the same length of max
+          maxString.compareTo(prefix) >= 0 && minString.substring(0, prefix.numChars()).compareTo(prefix) <= 0
+        }
+
+      case _ => true
+    }
+  }
+
+  /**
+   * Parses the min and max values saved in the column statistics, and compares them with the values of
+   * the literals of the filters, for the data types statistics are saved for.
+   */
+  private case class ColumnOrdering(parse: String => Any, normalize: Any => Any, ordering: Ordering[Any]) {
+    def lt(x: Any, y: Any): Boolean = ordering.lt(x, y)
+
+    def lteq(x: Any, y: Any): Boolean = ordering.lteq(x, y)
+
+    def gt(x: Any, y: Any): Boolean = ordering.gt(x, y)
+
+    def gteq(x: Any, y: Any): Boolean = ordering.gteq(x, y)
+  }
+
+  private object ColumnOrdering {
+
+    private val longOrdering = Ordering.Long.asInstanceOf[Ordering[Any]]
+    private val doubleOrdering = Ordering.Double.asInstanceOf[Ordering[Any]]
+    private val booleanOrdering = Ordering.Boolean.asInstanceOf[Ordering[Any]]
+    private val stringOrdering = new Ordering[Any] {
+      override def compare(x: Any, y: Any): Int = x.asInstanceOf[UTF8String].compareTo(y.asInstanceOf[UTF8String])
+    }
+
+    def apply(dataType: DataType): Option[ColumnOrdering] = dataType match {
+      case StringType =>
+        Some(ColumnOrdering(UTF8String.fromString, identity, stringOrdering))
+      case ByteType | ShortType | IntegerType | LongType | DateType =>
+        // Dates are saved as the number of days since epoch
+        Some(ColumnOrdering(_.toLong, _.asInstanceOf[Number].longValue(), longOrdering))
+      case FloatType =>
+        Some(ColumnOrdering(_.toFloat.toDouble, _.asInstanceOf[Number].doubleValue(), doubleOrdering))
+      case DoubleType =>
+        Some(ColumnOrdering(_.toDouble, _.asInstanceOf[Number].doubleValue(), doubleOrdering))
+      case BooleanType =>
+        Some(ColumnOrdering(_.toBoolean, identity, booleanOrdering))
+      case _ => None
+    }
+  }
+}
@@ -27,8 +27,9 @@ import org.apache.hudi.common.engine.HoodieLocalEngineContext
 import org.apache.hudi.common.fs.FSUtils
 import org.apache.hudi.common.model.HoodieBaseFile
 import org.apache.hudi.common.table.{HoodieTableMetaClient, TableSchemaResolver}
-import org.apache.hudi.common.table.view.HoodieTableFileSystemView
+import org.apache.hudi.common.table.view.{FileSystemViewStorageConfig, HoodieTableFileSystemView}
 import org.apache.hudi.config.HoodieWriteConfig
+import org.apache.hudi.metadata.{HoodieBackedTableMetadata, MetadataPartitionType}
 import org.apache.spark.api.java.JavaSparkContext
 import org.apache.spark.internal.Logging
 import org.apache.spark.sql.catalyst.{InternalRow, expressions}
@@ -49,6 +50,8 @@ import scala.collection.mutable
  * Main steps to get the file list for query:
  * 1、Load all files and partition values from the table path.
  * 2、Do the partition prune by the partition filter condition.
+ * 3、If data skipping is enabled, skip the files whose column statistics, saved in the metadata
+ * table, show that they hold no row matching the data filters.
  *
  * There are 3 cases for this:
  * 1、If the partition columns size is equal to the actually partition path level, we
@@ -76,6 +79,16 @@ case class HoodieFileIndex(
   private val basePath = metaClient.getBasePath
 
   @transient private val queryPath = new Path(options.getOrElse("path", "'path' option required"))
+
+  private lazy val metadataConfig = {
+    val properties = new Properties()
+    properties.putAll(options.asJava)
+    HoodieMetadataConfig.newBuilder.fromProperties(properties).build()
+  }
+
+  private val dataSkippingEnabled = options.get(DataSourceReadOptions.ENABLE_DATA_SKIPPING)
+    .map(_.toBoolean).getOrElse(DataSourceReadOptions.DEFAULT_ENABLE_DATA_SKIPPING)
+
   /**
    * Get the schema of the table.
    */
@@ -119,7 +132,7 @@ case class HoodieFileIndex(
 
   override def listFiles(partitionFilters: Seq[Expression],
                          dataFilters: Seq[Expression]): Seq[PartitionDirectory] = {
-    if (queryAsNonePartitionedTable) { // Read as Non-Partitioned table.
+    val partitionDirectories = if (queryAsNonePartitionedTable) { // Read as Non-Partitioned table.
       Seq(PartitionDirectory(InternalRow.empty, allFiles))
     } else {
       // Prune the partition path by the partition filters
@@ -131,6 +144,11 @@ case class HoodieFileIndex(
         PartitionDirectory(partition.values, fileStatues)
       }
     }
+    if (dataSkippingEnabled && dataFilters.nonEmpty) {
+      skipFiles(partitionDirectories, dataFilters)
+    } else {
+      partitionDirectories
+    }
   }
 
   override def inputFiles: Array[String] = {
@@ -222,6 +240,46 @@ case class HoodieFileIndex(
     }
   }
 
+  /**
+   * Skip the files which hold no row matching the data filters, by the column statistics saved in the
+   * column stats partition of the metadata table. The files without statistics, or whose statistics
+   * were saved for an older version of their file group, are kept.
+   * @param partitionDirectories The partitions and their files after the partition prune.
+   * @param dataFilters The filter condition on the data columns.
+   * @return The partitions and the files which might hold matching rows.
+   */
+  private def skipFiles(partitionDirectories: Seq[PartitionDirectory],
+                        dataFilters: Seq[Expression]): Seq[PartitionDirectory] = {
+    val metadata = new HoodieBackedTableMetadata(new HoodieLocalEngineContext(metaClient.getHadoopConf),
+      metadataConfig, basePath, FileSystemViewStorageConfig.DEFAULT_VIEW_SPILLABLE_DIR)
+    if (metadata.getFileGroupCount(MetadataPartitionType.COLUMN_STATS) == 0) {
+      logWarning("Data skipping is enabled but the metadata table has no column stats partition" +
+        s" for table $basePath. Data skipping will not work")
+      partitionDirectories
+    } else {
+      val fileIds = partitionDirectories.flatMap(_.files).map(f => FSUtils.getFileId(f.getPath.getName))
+      val columnStats = metadata.readRecords(MetadataPartitionType.COLUMN_STATS, fileIds.asJava).asScala
+      val filter = dataFilters.reduce(expressions.And)
+      val resolver = spark.sessionState.conf.resolver
+
+      val skippedPartitionDirectories = partitionDirectories.map { partitionDirectory =>
+        val files = partitionDirectory.files.filter { file =>
+          val fileName = file.getPath.getName
+          columnStats.get(FSUtils.getFileId(fileName)) match {
+            case Some(payload) if payload.getColumnStatsFileName.isPresent
+              && payload.getColumnStatsFileName.get == fileName =>
+              DataSkippingUtils.mightMatch(filter, payload.getColumnStats.asScala.toMap, resolver)
+            case _ => true
+          }
+        }
+        PartitionDirectory(partitionDirectory.values, files)
+      }
+      logInfo(s"Total file size is: ${fileIds.size}," +
+        s" after data skipping size is: ${skippedPartitionDirectories.map(_.files.size).sum}")
+      skippedPartitionDirectories
+    }
+  }
+
   /**
    * Load all partition paths and it's files under the query table path.
    */
@@ -229,7 +287,7 @@ case class HoodieFileIndex(
     val sparkEngine = new HoodieSparkEngineContext(new JavaSparkContext(spark.sparkContext))
     val properties = new Properties()
     properties.putAll(options.asJava)
-    val metadataConfig = HoodieMetadataConfig.newBuilder.fromProperties(properties).build()
+    val metadataConfig = this.metadataConfig
 
     val queryPartitionPath = FSUtils.getRelativePartitionPath(new Path(basePath), queryPath)
     // Load all the partition path from the basePath, and filter by the query partition path.
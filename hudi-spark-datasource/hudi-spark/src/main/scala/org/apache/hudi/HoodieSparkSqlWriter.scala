@@ -31,7 +31,8 @@ import org.apache.hudi.client.SparkRDDWriteClient
 import org.apache.hudi.common.config.{HoodieMetadataConfig, TypedProperties}
 import org.apache.hudi.common.model.{HoodieRecordPayload, HoodieTableType, WriteOperationType}
 import org.apache.hudi.common.table.{HoodieTableConfig, HoodieTableMetaClient}
-import org.apache.hudi.common.table.timeline.HoodieActiveTimeline
+import org.apache.hudi.common.table.timeline.{HoodieActiveTimeline, HoodieInstant}
+import org.apache.hudi.common.table.timeline.HoodieInstant.State
 import org.apache.hudi.common.util.{CommitUtils, ReflectionUtils}
 import org.apache.hudi.config.HoodieBootstrapConfig.{BOOTSTRAP_BASE_PATH_PROP, BOOTSTRAP_INDEX_CLASS_PROP, DEFAULT_BOOTSTRAP_INDEX_CLASS}
 import org.apache.hudi.config.HoodieWriteConfig
@@ -139,6 +140,12 @@ private[hudi] object HoodieSparkSqlWriter {
                                                                                 basePath, path, instantTime)
         return (success, commitTime, common.util.Option.empty(), hoodieWriteClient.orNull, tableConfig)
       }
+      if (parameters(ENABLE_ROW_WRITER_OPT_KEY).toBoolean && parameters(ENABLE_ROW_WRITER_UPSERT_OPT_KEY).toBoolean &&
+        operation == WriteOperationType.UPSERT) {
+        val (success, commitTime: common.util.Option[String]) = upsertAsRow(sqlContext, parameters, df, tblName,
+                                                                            basePath, path, instantTime, commitActionType)
+        return (success, commitTime, common.util.Option.empty(), hoodieWriteClient.orNull, tableConfig)
+      }
       // scalastyle:on
 
       val (writeResult, writeClient: SparkRDDWriteClient[HoodieRecordPayload[Nothing]]) =
@@ -360,6 +367,58 @@ private[hudi] object HoodieSparkSqlWriter {
     (syncHiveSuccess, common.util.Option.ofNullable(instantTime))
   }
 
+  def upsertAsRow(sqlContext: SQLContext,
+                  parameters: Map[String, String],
+                  df: DataFrame,
+                  tblName: String,
+                  basePath: Path,
+                  path: Option[String],
+                  instantTime: String,
+                  commitActionType: String): (Boolean, common.util.Option[String]) = {
+    val sparkContext = sqlContext.sparkContext
+    // register classes & schemas
+    val (structName, nameSpace) = AvroConversionUtils.getAvroRecordNameAndNamespace(tblName)
+    sparkContext.getConf.registerKryoClasses(
+      Array(classOf[org.apache.avro.generic.GenericData],
+        classOf[org.apache.avro.Schema]))
+    val schema = AvroConversionUtils.convertStructTypeToAvroSchema(df.schema, structName, nameSpace)
+    sparkContext.getConf.registerAvroSchemas(schema)
+    log.info(s"Registered avro schema : ${schema.toString(true)}")
+    val jsc = new JavaSparkContext(sparkContext)
+    val client = DataSourceUtils.createHoodieClient(jsc, schema.toString, path.get, tblName,
+      mapAsJavaMap(parameters - HoodieWriteConfig.HOODIE_AUTO_COMMIT_PROP))
+      .asInstanceOf[SparkRDDWriteClient[HoodieRecordPayload[Nothing]]]
+    try {
+      val hoodieDF = HoodieDatasetBulkInsertHelper.addHoodieColumns(sqlContext, client.getConfig, df)
+      client.setOperationType(WriteOperationType.UPSERT)
+      client.startCommitWithTime(instantTime, commitActionType)
+      val metaClient = HoodieTableMetaClient.builder().setConf(sparkContext.hadoopConfiguration).setBasePath(path.get).build()
+      metaClient.getActiveTimeline.transitionRequestedToInflight(
+        new HoodieInstant(State.REQUESTED, commitActionType, instantTime), common.util.Option.empty())
+      val writeStatuses = HoodieDatasetUpsertHelper.upsert(client.getEngineContext, client.getConfig, hoodieDF, instantTime)
+      val errorCount = writeStatuses.count(ws => ws.hasErrors)
+      if (errorCount == 0) {
+        log.info("No errors. Proceeding to commit the write.")
+        val metaMap = parameters.filter(kv =>
+          kv._1.startsWith(parameters(COMMIT_METADATA_KEYPREFIX_OPT_KEY)))
+        val commitSuccess = client.commitStats(instantTime, writeStatuses.map(ws => ws.getStat),
+          common.util.Option.of(new util.HashMap[String, String](mapAsJavaMap(metaMap))), commitActionType)
+        if (commitSuccess) {
+          log.info("Commit " + instantTime + " successful!")
+        } else {
+          log.info("Commit " + instantTime + " failed!")
+        }
+        val metaSyncSuccess = metaSync(sqlContext.sparkSession, parameters, basePath, df.schema)
+        (commitSuccess && metaSyncSuccess, common.util.Option.ofNullable(instantTime))
+      } else {
+        log.error(s"${WriteOperationType.UPSERT} failed with $errorCount errors :")
+        (false, common.util.Option.empty())
+      }
+    } finally {
+      client.close()
+    }
+  }
+
   def toProperties(params: Map[String, String]): TypedProperties = {
     val props = new TypedProperties()
     params.foreach(kv => props.setProperty(kv._1, kv._2))
@@ -25,15 +25,15 @@ import org.apache.hudi.common.table.HoodieTableMetaClient
 import org.apache.hudi.common.table.view.HoodieTableFileSystemView
 import org.apache.hudi.common.testutils.HoodieTestDataGenerator
 import org.apache.hudi.common.testutils.RawTripTestPayload.recordsToStrings
-import org.apache.hudi.config.HoodieWriteConfig
+import org.apache.hudi.config.{HoodieCompactionConfig, HoodieWriteConfig}
 import org.apache.hudi.keygen.ComplexKeyGenerator
 import org.apache.hudi.keygen.TimestampBasedAvroKeyGenerator.{Config, TimestampType}
 import org.apache.hudi.testutils.HoodieClientTestBase
 import org.apache.spark.sql.catalyst.InternalRow
 import org.apache.spark.sql.{SaveMode, SparkSession}
-import org.apache.spark.sql.catalyst.expressions.{And, AttributeReference, EqualTo, GreaterThanOrEqual, LessThan, Literal}
+import org.apache.spark.sql.catalyst.expressions.{And, AttributeReference, EqualTo, Expression, GreaterThan, GreaterThanOrEqual, LessThan, Literal}
 import org.apache.spark.sql.execution.datasources.PartitionDirectory
-import org.apache.spark.sql.types.StringType
+import org.apache.spark.sql.types.{IntegerType, StringType}
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.params.ParameterizedTest
@@ -231,6 +231,49 @@ class TestHoodieFileIndex extends HoodieClientTestBase {
     assertEquals(5, readDF2.filter("dt = '2021/03/01' and hh ='10'").count())
   }
 
+  @ParameterizedTest
+  @ValueSource(booleans = Array(true, false))
+  def testDataSkipping(dataSkippingEnabled: Boolean): Unit = {
+    val _spark = spark
+    import _spark.implicits._
+    val writeOpts = commonOpts ++ Map(
+      RECORDKEY_FIELD_OPT_KEY -> "id",
+      PRECOMBINE_FIELD_OPT_KEY -> "version",
+      PARTITIONPATH_FIELD_OPT_KEY -> "dt",
+      HoodieMetadataConfig.METADATA_ENABLE_PROP -> "true",
+      HoodieMetadataConfig.COLUMN_STATS_INDEX_ENABLE_PROP -> "true",
+      // Write every batch to a new file
+      HoodieCompactionConfig.PARQUET_SMALL_FILE_LIMIT_BYTES -> "0")
+    // Two files in the same partition, with disjoint ranges of price
+    for (batch <- 0 until 2) {
+      val inputDF = (for (i <- batch * 10 until batch * 10 + 10) yield (i, s"a$i", 10 + i, 1000, "2021-03-01"))
+        .toDF("id", "name", "price", "version", "dt")
+      inputDF.write.format("hudi")
+        .options(writeOpts)
+        .option(DataSourceWriteOptions.OPERATION_OPT_KEY, DataSourceWriteOptions.INSERT_OPERATION_OPT_VAL)
+        .mode(if (batch == 0) SaveMode.Overwrite else SaveMode.Append)
+        .save(basePath)
+    }
+    metaClient = HoodieTableMetaClient.reload(metaClient)
+    val readOpts = Map("path" -> basePath,
+      HoodieMetadataConfig.METADATA_ENABLE_PROP -> "true",
+      DataSourceReadOptions.ENABLE_DATA_SKIPPING -> dataSkippingEnabled.toString)
+    val fileIndex = HoodieFileIndex(spark, metaClient, None, readOpts)
+    assertEquals(2, getFileCountInPartitionPath("2021-03-01"))
+
+    val price = AttributeReference("price", IntegerType, true)()
+    val filesOf = (dataFilter: Expression) => fileIndex.listFiles(Seq.empty, Seq(dataFilter)).map(_.files.size).sum
+    // Only the second file holds prices greater than 25
+    assertEquals(if (dataSkippingEnabled) 1 else 2, filesOf(GreaterThan(price, Literal(25))))
+    assertEquals(if (dataSkippingEnabled) 0 else 2, filesOf(GreaterThan(price, Literal(100))))
+    assertEquals(if (dataSkippingEnabled) 1 else 2, filesOf(EqualTo(attribute("name"), literal("a3"))))
+    assertEquals(2, filesOf(LessThan(price, Literal(25))))
+
+    val readDF = spark.read.format("hudi").options(readOpts).load(basePath)
+    assertEquals(4, readDF.filter("price > 25").count())
+    assertEquals(0, readDF.filter("price > 100").count())
+  }
+
   private def attribute(partition: String): AttributeReference = {
     AttributeReference(partition, StringType, true)()
   }
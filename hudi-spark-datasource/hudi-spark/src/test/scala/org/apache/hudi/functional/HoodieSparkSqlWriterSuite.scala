@@ -25,7 +25,9 @@ import org.apache.commons.io.FileUtils
 import org.apache.hadoop.fs.Path
 import org.apache.hudi.DataSourceWriteOptions._
 import org.apache.hudi.client.{SparkRDDWriteClient, TestBootstrap}
-import org.apache.hudi.common.model.{HoodieRecord, HoodieRecordPayload}
+import org.apache.hudi.common.model.{HoodieCommitMetadata, HoodieRecord, HoodieRecordPayload, HoodieWriteStat, WriteOperationType}
+import org.apache.hudi.common.table.HoodieTableMetaClient
+import org.apache.hudi.common.table.timeline.{HoodieInstant, HoodieTimeline}
 import org.apache.hudi.common.testutils.HoodieTestDataGenerator
 import org.apache.hudi.config.{HoodieBootstrapConfig, HoodieWriteConfig}
 import org.apache.hudi.exception.HoodieException
@@ -282,6 +284,69 @@ class HoodieSparkSqlWriterSuite extends FunSuite with Matchers {
     }
   }
 
+  test("test upsert dataset with row writer") {
+    initSparkContext("test_upsert_row_writer")
+    val path = java.nio.file.Files.createTempDirectory("hoodie_test_path")
+    try {
+
+      val hoodieFooTableName = "hoodie_foo_tbl"
+
+      //create a new table
+      val fooTableModifier = Map("path" -> path.toAbsolutePath.toString,
+        HoodieWriteConfig.TABLE_NAME -> hoodieFooTableName,
+        "hoodie.insert.shuffle.parallelism" -> "2",
+        "hoodie.upsert.shuffle.parallelism" -> "2",
+        DataSourceWriteOptions.RECORDKEY_FIELD_OPT_KEY -> "_row_key",
+        DataSourceWriteOptions.PARTITIONPATH_FIELD_OPT_KEY -> "partition",
+        DataSourceWriteOptions.KEYGENERATOR_CLASS_OPT_KEY -> "org.apache.hudi.keygen.SimpleKeyGenerator")
+      val fooTableParams = HoodieWriterUtils.parametersWithWriteDefaults(fooTableModifier)
+      val schema = DataSourceTestUtils.getStructTypeExampleSchema
+      val structType = AvroConversionUtils.convertAvroSchemaToStructType(schema)
+
+      // insert the records through the payload
+      val records = DataSourceTestUtils.generateRandomRows(100)
+      val df = spark.createDataFrame(sc.parallelize(convertRowListToSeq(records)), structType)
+      HoodieSparkSqlWriter.write(sqlContext, SaveMode.Append,
+        fooTableParams ++ Map(OPERATION_OPT_KEY -> INSERT_OPERATION_OPT_VAL), df)
+
+      // update half of the records and insert new ones as rows, along with a stale update dropped by the precombine
+      val updates = DataSourceTestUtils.generateUpdates(records, 50)
+      val inserts = DataSourceTestUtils.generateRandomRows(40)
+      val staleUpdate = Row(records.get(0).getString(0), records.get(0).getString(1), 0L)
+      val upsertDf = spark.createDataFrame(sc.parallelize(convertRowListToSeq(updates) ++ convertRowListToSeq(inserts) :+ staleUpdate),
+        structType)
+      val (success, commitTime, _, _, _) = HoodieSparkSqlWriter.write(sqlContext, SaveMode.Append,
+        fooTableParams ++ Map(OPERATION_OPT_KEY -> UPSERT_OPERATION_OPT_VAL, ENABLE_ROW_WRITER_OPT_KEY -> "true",
+          ENABLE_ROW_WRITER_UPSERT_OPT_KEY -> "true", "hoodie.upsert.shuffle.parallelism" -> "8",
+          "hoodie.copyonwrite.insert.split.size" -> "4"), upsertDf)
+      assert(success)
+
+      val metaClient = HoodieTableMetaClient.builder().setConf(sc.hadoopConfiguration).setBasePath(path.toAbsolutePath.toString).build()
+      val commitMetadata = HoodieCommitMetadata.fromBytes(metaClient.getActiveTimeline.getInstantDetails(
+        new HoodieInstant(false, HoodieTimeline.COMMIT_ACTION, commitTime.get())).get, classOf[HoodieCommitMetadata])
+      assertEquals(WriteOperationType.UPSERT, commitMetadata.getOperationType)
+      assertEquals(50, commitMetadata.fetchTotalUpdateRecordsWritten())
+      // the inserts go to new file groups, instead of the small files picked by the upsert of the payloads
+      val writeStats = commitMetadata.getPartitionToWriteStats.values().flatten.toList
+      val insertStats = writeStats.filter(_.getPrevCommit == HoodieWriteStat.NULL_COMMIT)
+      assertEquals(40, insertStats.map(_.getNumInserts).sum)
+      // the inserts of a partition are spread over several file groups, every file group is written once
+      assert(insertStats.size > commitMetadata.getPartitionToWriteStats.size())
+      assertEquals(writeStats.size, writeStats.map(_.getFileId).distinct.size)
+
+      // the upserted records overwrite the inserted ones
+      val actualDf = sqlContext.read.format("org.apache.hudi").load(path.toAbsolutePath.toString + "/*/*/*/*")
+      assert(actualDf.count() == 140)
+      val trimmedDf = actualDf.drop(HoodieRecord.HOODIE_META_COLUMNS: _*)
+      val expectedDf = spark.createDataFrame(sc.parallelize(convertRowListToSeq(updates) ++ convertRowListToSeq(inserts)), structType)
+      assert(expectedDf.except(trimmedDf).count() == 0)
+      assert(actualDf.filter(actualDf(HoodieRecord.COMMIT_TIME_METADATA_FIELD) === commitTime.get()).count() == 90)
+    } finally {
+      spark.stop()
+      FileUtils.deleteDirectory(path.toFile)
+    }
+  }
+
   List(DataSourceWriteOptions.COW_TABLE_TYPE_OPT_VAL, DataSourceWriteOptions.MOR_TABLE_TYPE_OPT_VAL)
     .foreach(tableType => {
       test("test basic HoodieSparkSqlWriter functionality with datasource insert for " + tableType) {